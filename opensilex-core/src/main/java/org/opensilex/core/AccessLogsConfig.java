@@ -0,0 +1,51 @@
+//******************************************************************************
+//                          AccessLogsConfig.java
+// OpenSILEX - Licence AGPL V3.0 - https://www.gnu.org/licenses/agpl-3.0.en.html
+// Copyright © INRAE 2024
+// Contact: anne.tireau@inrae.fr, pascal.neveu@inrae.fr
+//******************************************************************************
+package org.opensilex.core;
+
+import org.opensilex.config.ConfigDescription;
+
+/**
+ * Access logs writer configuration interface, used when {@link CoreConfig#enableLogs()} is true
+ */
+public interface AccessLogsConfig {
+
+    @ConfigDescription(
+            value = "Max number of access logs waiting to be written",
+            defaultInt = 8192
+    )
+    int bufferSize();
+
+    @ConfigDescription(
+            value = "Max number of access logs written in one database call",
+            defaultInt = 500
+    )
+    int batchSize();
+
+    @ConfigDescription(
+            value = "Max delay before pending access logs are written (in milliseconds)",
+            defaultInt = 2000
+    )
+    int flushInterval();
+
+    @ConfigDescription(
+            value = "Behavior when the buffer is full : DROP, BLOCK, SAMPLE are authorized",
+            defaultString = "DROP"
+    )
+    String overflowPolicy();
+
+    @ConfigDescription(
+            value = "With SAMPLE overflow policy, one access log out of this rate is kept once the buffer is half full",
+            defaultInt = 10
+    )
+    int sampleRate();
+
+    @ConfigDescription(
+            value = "With BLOCK overflow policy, max time a request waits for a free slot (in milliseconds)",
+            defaultInt = 100
+    )
+    int maxBlockingTime();
+}
@@ -22,6 +22,11 @@ public interface CoreConfig {
     )
     boolean enableLogs();
 
+    @ConfigDescription(
+            value = "Access logs writer options"
+    )
+    AccessLogsConfig accessLogs();
+
     @ConfigDescription(
             value = "Metrics options"
     )
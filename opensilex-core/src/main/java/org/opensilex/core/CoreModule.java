@@ -15,10 +15,12 @@ import org.opensilex.core.config.SharedResourceInstanceItem;
 import org.opensilex.core.data.dal.DataDAO;
 import org.opensilex.core.data.dal.DataDaoV2;
 import org.opensilex.core.data.dal.DataFileDaoV2;
+import org.opensilex.core.data.dal.DataRollupDAO;
 import org.opensilex.core.device.api.DeviceAPI;
 import org.opensilex.core.geospatial.dal.GeospatialDAO;
 import org.opensilex.core.germplasm.dal.GermplasmDAO;
 import org.opensilex.core.location.dal.LocationObservationDAO;
+import org.opensilex.core.logs.dal.AsyncLogsWriter;
 import org.opensilex.core.logs.dal.LogsDAO;
 import org.opensilex.core.metrics.dal.MetricDAO;
 import org.opensilex.core.ontology.Oeev;
@@ -67,6 +69,11 @@ public class CoreModule extends OpenSilexModule implements APIExtension, SPARQLE
     private static final Logger LOGGER = LoggerFactory.getLogger(CoreModule.class);
     private static final String ONTOLOGIES_DIRECTORY = "ontologies";
 
+    /**
+     * Writer used by the access logs filter, only set if logs are enabled
+     */
+    private AsyncLogsWriter accessLogsWriter;
+
 
     @Override
     public Class<?> getConfigClass() {
@@ -198,6 +205,7 @@ public class CoreModule extends OpenSilexModule implements APIExtension, SPARQLE
 
         MongoDBServiceV2 mongoDBServiceV2 = getOpenSilex().getServiceInstance(MongoDBServiceV2.DEFAULT_SERVICE, MongoDBServiceV2.class);
         mongoDBServiceV2.registerIndexes(DataDaoV2.COLLECTION_NAME, DataDaoV2.getIndexes());
+        mongoDBServiceV2.registerIndexes(DataRollupDAO.COLLECTION_NAME, DataRollupDAO.getIndexes());
         mongoDBServiceV2.registerIndexes(DeviceAPI.METADATA_COLLECTION_NAME, MetaDataDaoV2.getIndexes());
         mongoDBServiceV2.registerIndexes(DataFileDaoV2.COLLECTION_NAME, DataFileDaoV2.getIndexes());
         mongoDBServiceV2.registerIndexes(ProvenanceDaoV2.PROVENANCE_COLLECTION_NAME, DataFileDaoV2.getIndexes());
@@ -208,6 +216,27 @@ public class CoreModule extends OpenSilexModule implements APIExtension, SPARQLE
             mongoDBServiceV2.createIndexes();
         }
 
+        CoreConfig coreConfig = getConfig(CoreConfig.class);
+        if (coreConfig.enableLogs()) {
+            MongoDBService nosql = getOpenSilex().getServiceInstance(MongoDBService.DEFAULT_SERVICE, MongoDBService.class);
+            accessLogsWriter = AsyncLogsWriter.fromConfig(new LogsDAO(nosql), coreConfig.accessLogs());
+            accessLogsWriter.start();
+        }
+    }
+
+    @Override
+    public void shutdown() throws Exception {
+        if (accessLogsWriter != null) {
+            // write pending access logs before services are stopped
+            accessLogsWriter.close(AsyncLogsWriter.DEFAULT_CLOSE_TIMEOUT_MS);
+        }
+    }
+
+    /**
+     * @return the access logs writer, or null if access logs are not enabled
+     */
+    public AsyncLogsWriter getAccessLogsWriter() {
+        return accessLogsWriter;
     }
 
 
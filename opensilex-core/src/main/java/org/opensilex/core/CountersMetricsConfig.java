@@ -0,0 +1,36 @@
+//******************************************************************************
+//                          CountersMetricsConfig.java
+// OpenSILEX - Licence AGPL V3.0 - https://www.gnu.org/licenses/agpl-3.0.en.html
+// Copyright © INRAE 2024
+// Contact: anne.tireau@inrae.fr, pascal.neveu@inrae.fr
+//******************************************************************************
+package org.opensilex.core;
+
+import org.opensilex.config.ConfigDescription;
+import org.opensilex.service.ServiceConfig;
+
+/**
+ * Metric counters reconciliation configuration interface
+ *
+ * @see org.opensilex.core.metrics.dal.MetricDAO#reconcileCounters()
+ */
+public interface CountersMetricsConfig extends ServiceConfig {
+
+    @ConfigDescription(
+            value = "First reconciliation of metric counters with a full count, for any time depending on is time unit",
+            defaultInt = 1
+    )
+    int timeBeforeFirstReconciliation();
+
+    @ConfigDescription(
+            value = "Delay between metric counters reconciliations (combined with corresponding TimeUnit)",
+            defaultInt = 7
+    )
+    int delayBetweenReconciliations();
+
+    @ConfigDescription(
+            value = "Default reconciliation units : DAYS, HOURS, MINUTES, SECONDS are authorized",
+            defaultString = "DAYS"
+    )
+    String reconciliationTimeUnit();
+}
@@ -31,4 +31,9 @@ public interface MetricsConfig extends ServiceConfig {
             value = "Metrics configs about system"
     )
     SystemMetricsConfig system();
+
+    @ConfigDescription(
+            value = "Metrics configs about incremental counters reconciliation"
+    )
+    CountersMetricsConfig counters();
 }
@@ -21,11 +21,15 @@ import org.opensilex.core.area.dal.AreaModel;
 import org.opensilex.core.event.bll.EventLogic;
 import org.opensilex.core.event.dal.EventModel;
 import org.opensilex.core.event.dal.EventSearchFilter;
+import org.opensilex.core.experiment.dal.ExperimentDAO;
 import org.opensilex.core.geospatial.api.GeometryDTO;
+import org.opensilex.core.geospatial.api.GeospatialTileResponse;
 import org.opensilex.core.geospatial.dal.GeospatialDAO;
 import org.opensilex.core.geospatial.dal.GeospatialModel;
+import org.opensilex.core.geospatial.dal.GeospatialTiles;
 import org.opensilex.core.ontology.Oeev;
 import org.opensilex.core.ontology.Oeso;
+import org.opensilex.fs.service.FileStorageService;
 import org.opensilex.nosql.distributed.SparqlMongoTransaction;
 import org.opensilex.nosql.mongodb.MongoDBService;
 import org.opensilex.security.account.dal.AccountDAO;
@@ -48,7 +52,9 @@ import javax.validation.Valid;
 import javax.validation.constraints.Max;
 import javax.validation.constraints.NotNull;
 import javax.ws.rs.*;
+import javax.ws.rs.core.Context;
 import javax.ws.rs.core.MediaType;
+import javax.ws.rs.core.Request;
 import javax.ws.rs.core.Response;
 import java.net.URI;
 import java.util.*;
@@ -87,6 +93,9 @@ public class AreaAPI {
     @Inject
     private MongoDBService nosql;
 
+    @Inject
+    private FileStorageService fs;
+
     /**
      * Create an Area
      *
@@ -117,7 +126,7 @@ public class AreaAPI {
 
         return new SparqlMongoTransaction(sparql, nosql.getServiceV2()).execute(session ->{
             AreaDAO dao = new AreaDAO(sparql);
-            GeospatialDAO geoDAO = new GeospatialDAO(nosql);
+            GeospatialDAO geoDAO = new GeospatialDAO(nosql, sparql);
             EventLogic<EventModel, EventSearchFilter> eventLogic = new EventLogic<>(sparql, nosql, currentUser, EventModel.class);
             GeospatialModel geospatialModel = new GeospatialModel();
             URI areaURI;
@@ -175,7 +184,7 @@ public class AreaAPI {
     ) throws Exception {
         // Get area, its geospatial and if it's a temporal area, its event by URI
         AreaDAO areaDAO = new AreaDAO(sparql);
-        GeospatialDAO geoDAO = new GeospatialDAO(nosql);
+        GeospatialDAO geoDAO = new GeospatialDAO(nosql, sparql);
         EventLogic<EventModel, EventSearchFilter> eventLogic = new EventLogic<>(sparql, nosql, currentUser, EventModel.class);
 
         AreaModel model = areaDAO.getByURI(areaURI);
@@ -249,7 +258,7 @@ public class AreaAPI {
     ) throws Exception {
 
         AreaDAO dao = new AreaDAO(sparql);
-        GeospatialDAO geoDAO = new GeospatialDAO(nosql);
+        GeospatialDAO geoDAO = new GeospatialDAO(nosql, sparql);
         EventLogic<EventModel, EventSearchFilter> eventLogic = new EventLogic<>(sparql, nosql, currentUser, EventModel.class);
         GeospatialModel geospatialModel = new GeospatialModel();
         URI areaURI;
@@ -333,7 +342,7 @@ public class AreaAPI {
             @ApiParam(value = "Area URI", required = true) @PathParam("uri") @NotNull @ValidURI URI areaURI
     ) throws Exception {
         AreaDAO dao = new AreaDAO(sparql);
-        GeospatialDAO geoDAO = new GeospatialDAO(nosql);
+        GeospatialDAO geoDAO = new GeospatialDAO(nosql, sparql);
         EventLogic<EventModel, EventSearchFilter> eventLogic = new EventLogic<>(sparql, nosql, currentUser, EventModel.class);
 
         nosql.startTransaction();
@@ -394,7 +403,7 @@ public class AreaAPI {
             @ApiParam(value = "Start date : match temporal area after the given start date", example = "2019-09-08T12:00:00+01:00") @QueryParam("start") @ValidOffsetDateTime String start,
             @ApiParam(value = "End date : match temporal area before the given end date", example = "2021-09-08T12:00:00+01:00") @QueryParam("end") @ValidOffsetDateTime String end
     ) throws Exception {
-        GeospatialDAO geoDAO = new GeospatialDAO(nosql);
+        GeospatialDAO geoDAO = new GeospatialDAO(nosql, sparql);
         EventLogic<EventModel, EventSearchFilter> eventLogic = new EventLogic<>(sparql, nosql, currentUser, EventModel.class);
         AreaDAO areaDAO = new AreaDAO(sparql);
         List<AreaGetDTO> dtoList = new ArrayList<>();
@@ -513,6 +522,51 @@ public class AreaAPI {
         return new PaginatedListResponse<>(dtoList).getResponse();
     }
 
+    /**
+     * Get a map tile of area geometries, or of the geometries of an experiment
+     *
+     * @param z          zoom level of the tile
+     * @param x          column of the tile
+     * @param y          row of the tile
+     * @param experiment experiment of the geometries, areas are returned if null
+     * @param rdfTypes   types of the geometries
+     * @param request    request, used to evaluate the If-None-Match header
+     * @return a GeoJSON FeatureCollection of the simplified geometries which intersect the tile
+     * @throws Exception if the experiment is not accessible
+     */
+    @GET
+    @Path("tiles/{z}/{x}/{y}")
+    @ApiOperation(value = "Get a map tile of geometries",
+            notes = "Tiles follow the z/x/y Web Mercator scheme. Geometries are simplified according to the zoom level and those smaller than a pixel are omitted. The response has an ETag and can be revalidated with If-None-Match.")
+    @ApiProtected
+    @Produces(MediaType.APPLICATION_JSON)
+    @ApiResponses(value = {
+        @ApiResponse(code = 200, message = "GeoJSON FeatureCollection of the tile", response = String.class),
+        @ApiResponse(code = 304, message = "Tile not modified"),
+        @ApiResponse(code = 400, message = "Invalid tile coordinates", response = ErrorDTO.class)
+    })
+    public Response getTile(
+            @ApiParam(value = "Zoom level", required = true, example = "17") @PathParam("z") int z,
+            @ApiParam(value = "Tile column, from west to east", required = true, example = "66864") @PathParam("x") int x,
+            @ApiParam(value = "Tile row, from north to south", required = true, example = "48042") @PathParam("y") int y,
+            @ApiParam(value = "Experiment URI, areas geometries are returned if empty", example = "test:experiment/1") @QueryParam("experiment") @ValidURI URI experiment,
+            @ApiParam(value = "Types of the geometries") @QueryParam("rdf_types") List<URI> rdfTypes,
+            @Context Request request
+    ) throws Exception {
+        if (experiment != null) {
+            new ExperimentDAO(sparql, nosql, fs).validateExperimentAccess(experiment, currentUser);
+        }
+
+        GeospatialTiles.Tile tile;
+        try {
+            tile = new GeospatialDAO(nosql, sparql).getTile(experiment, rdfTypes, z, x, y);
+        } catch (IllegalArgumentException e) {
+            return new ErrorResponse(Response.Status.BAD_REQUEST, "Invalid tile coordinates", e.getMessage()).getResponse();
+        }
+
+        return new GeospatialTileResponse(tile, request).getResponse();
+    }
+
     @POST
     @Path("export_geospatial")
     @ApiOperation("Export a given list of areas URIs to shapefile")
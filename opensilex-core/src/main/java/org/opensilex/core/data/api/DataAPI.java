@@ -17,6 +17,7 @@ import org.bson.Document;
 import org.bson.json.JsonParseException;
 import org.glassfish.jersey.media.multipart.FormDataContentDisposition;
 import org.glassfish.jersey.media.multipart.FormDataParam;
+import org.opensilex.core.data.bll.DataExportCSVWriter;
 import org.opensilex.core.data.bll.DataExportInformation;
 import org.opensilex.core.data.bll.DataLogic;
 import org.opensilex.core.data.bll.DataLongExportInformation;
@@ -36,7 +37,6 @@ import org.opensilex.core.exception.DateValidationException;
 import org.opensilex.core.exception.NoVariableDataTypeException;
 import org.opensilex.core.experiment.api.ExperimentAPI;
 import org.opensilex.core.experiment.dal.ExperimentDAO;
-import org.opensilex.core.experiment.dal.ExperimentModel;
 import org.opensilex.core.experiment.dal.ExperimentSearchFilter;
 import org.opensilex.core.experiment.utils.ExportDataIndex;
 import org.opensilex.core.provenance.api.ProvenanceAPI;
@@ -44,10 +44,7 @@ import org.opensilex.core.provenance.api.ProvenanceGetDTO;
 import org.opensilex.core.provenance.dal.ProvenanceModel;
 import org.opensilex.core.scientificObject.bll.ScientificObjectLogic;
 import org.opensilex.core.variable.api.VariableGetDTO;
-import org.opensilex.core.variable.dal.MethodModel;
-import org.opensilex.core.variable.dal.UnitModel;
 import org.opensilex.core.variable.dal.VariableDAO;
-import org.opensilex.core.variable.dal.VariableModel;
 import org.opensilex.fs.service.FileStorageService;
 import org.opensilex.nosql.exceptions.*;
 import org.opensilex.nosql.mongodb.MongoDBService;
@@ -63,8 +60,6 @@ import org.opensilex.server.exceptions.NotFoundException;
 import org.opensilex.server.exceptions.NotFoundURIException;
 import org.opensilex.server.response.*;
 import org.opensilex.server.rest.validation.ValidURI;
-import org.opensilex.sparql.deserializer.SPARQLDeserializers;
-import org.opensilex.sparql.model.SPARQLNamedResourceModel;
 import org.opensilex.sparql.model.SPARQLResourceModel;
 import org.opensilex.sparql.service.SPARQLService;
 import org.opensilex.utils.ListWithPagination;
@@ -82,8 +77,13 @@ import javax.validation.constraints.NotNull;
 import javax.ws.rs.*;
 import javax.ws.rs.core.MediaType;
 import javax.ws.rs.core.Response;
+import javax.ws.rs.core.StreamingOutput;
+import java.io.BufferedWriter;
+import java.io.IOException;
 import java.io.InputStream;
+import java.io.OutputStreamWriter;
 import java.io.StringWriter;
+import java.nio.charset.StandardCharsets;
 import java.net.URI;
 import java.time.Duration;
 import java.time.Instant;
@@ -315,7 +315,8 @@ public class DataAPI {
             @ApiParam(value = "Search by batch uri for a specific import csv/json file", example = DATA_EXAMPLE_BATCH_URI) @QueryParam("batch_uri") URI batchUri,
             @ApiParam(value = "List of fields to sort as an array of fieldName=asc|desc", example = "date=desc") @DefaultValue("date=desc") @QueryParam("order_by") List<OrderBy> orderByList,
             @ApiParam(value = "Page number", example = "0") @QueryParam("page") @DefaultValue("0") @Min(0) int page,
-            @ApiParam(value = "Page size", example = "20") @QueryParam("page_size") @DefaultValue("20") @Min(0) int pageSize
+            @ApiParam(value = "Page size", example = "20") @QueryParam("page_size") @DefaultValue("20") @Min(0) int pageSize,
+            @ApiParam(value = "Token returned in the pagination metadata (nextPageToken) of the previous page. Allows to read the next page without skipping previous results, the page number is then ignored") @QueryParam("continuation_token") String continuationToken
     )throws Exception {
         return getDataList(
                 batchUri,
@@ -336,7 +337,9 @@ public class DataAPI {
                 orderByList,
                 page,
                 pageSize,
-                PaginatedSearchStrategy.HAS_NEXT_PAGE
+                // keyset pagination when reading the first page or the page after a token, since the token of the next page is returned
+                continuationToken != null || page == 0 ? PaginatedSearchStrategy.KEYSET : PaginatedSearchStrategy.HAS_NEXT_PAGE,
+                continuationToken
         );
     }
 
@@ -393,7 +396,8 @@ public class DataAPI {
                 orderByList,
                 page,
                 pageSize,
-                PaginatedSearchStrategy.COUNT_QUERY_BEFORE_SEARCH
+                PaginatedSearchStrategy.COUNT_QUERY_BEFORE_SEARCH,
+                null
         );
     }
 
@@ -447,7 +451,8 @@ public class DataAPI {
                 orderByList,
                 page,
                 pageSize,
-                PaginatedSearchStrategy.COUNT_QUERY_BEFORE_SEARCH
+                PaginatedSearchStrategy.COUNT_QUERY_BEFORE_SEARCH,
+                null
         );
     }
 
@@ -470,7 +475,8 @@ public class DataAPI {
             List<OrderBy> orderByList,
             int page,
             int pageSize,
-            PaginatedSearchStrategy paginationStrategy) throws Exception{
+            PaginatedSearchStrategy paginationStrategy,
+            String continuationToken) throws Exception{
 
         DataSearchFilter filter;
 
@@ -493,10 +499,16 @@ public class DataAPI {
         var query = new MongoSearchQuery<DataModel, DataSearchFilter, DataGetSearchDTO>()
                 .setFilter(filter)
                 .setConvertFunction(model -> DataGetSearchDTO.getDtoFromModel(model, dateVariables))
-                .setPaginationStrategy(paginationStrategy);
+                .setPaginationStrategy(paginationStrategy)
+                .setContinuationToken(continuationToken);
 
         // Paginated search : direct convert from model -> dto, no count of data
-        ListWithPagination<DataGetSearchDTO> results = dataLogic.searchWithPagination(query);
+        ListWithPagination<DataGetSearchDTO> results;
+        try {
+            results = dataLogic.searchWithPagination(query);
+        } catch (IllegalArgumentException e) {
+            return new ErrorResponse(Response.Status.BAD_REQUEST, "CONTINUATION_TOKEN_ERROR", e.getMessage()).getResponse();
+        }
 
         return new PaginatedListResponse<>(results).getResponse();
     }
@@ -784,6 +796,7 @@ public class DataAPI {
             @ApiParam(value = "Search by operators", example = DATA_EXAMPLE_OPERATOR ) @QueryParam("operators") List<URI> operators,
             @ApiParam(value = "Format wide or long", example = "wide") @DefaultValue("wide") @QueryParam("mode") String csvFormat,
             @ApiParam(value = "Export also raw_data") @DefaultValue("false") @QueryParam("with_raw_data") boolean withRawData,
+            @ApiParam(value = "Stream the export with constant memory usage, data are sorted by date") @DefaultValue("false") @QueryParam("stream") boolean stream,
             @ApiParam(value = "List of fields to sort as an array of fieldName=asc|desc", example = "date=desc") @QueryParam("order_by") List<OrderBy> orderByList,
             @ApiParam(value = "Page number", example = "0") @QueryParam("page") @DefaultValue("0") @Min(0) int page,
             @ApiParam(value = "Page size", example = "20") @QueryParam("page_size") @DefaultValue("20") @Min(0) int pageSize
@@ -804,6 +817,7 @@ public class DataAPI {
                     operators,
                     csvFormat,
                     withRawData,
+                    stream,
                     orderByList,
                     page,
                     pageSize
@@ -842,6 +856,7 @@ public class DataAPI {
                     null,
                     dto.csvFormat,
                     dto.withRawData,
+                    dto.isStream(),
                     null,
                     0,
                     0
@@ -870,6 +885,7 @@ public class DataAPI {
             List<URI> operators,
             String csvFormat,
             boolean withRawData,
+            boolean stream,
             List<OrderBy> orderByList,
             int page,
             int pageSize
@@ -891,6 +907,10 @@ public class DataAPI {
             return new ErrorResponse(Response.Status.BAD_REQUEST, "SEARCH_FILTER_ERROR", e.getMessage()).getResponse();
         }
 
+        if (stream) {
+            return prepareCSVStreamingExportResponse(dataLogic, filter, !csvFormat.equals("long"), withRawData);
+        }
+
         Instant start = Instant.now();
         DataExportInformation dataExportInformation = dataLogic.getDataExportInformation(!csvFormat.equals("long"), filter, LOGGER);
 
@@ -913,193 +933,20 @@ public class DataAPI {
 
         Instant startWriteCSVTime = Instant.now();
 
-        List<String> defaultColumns = new ArrayList<>();
-
-        // first static columns
-
-        defaultColumns.add("Experiment");
-        defaultColumns.add("Target");
-        defaultColumns.add("Date");
-
-        List<String> methods = new ArrayList<>();
-        for (int i = 0; i < (defaultColumns.size() - 1); i++) {
-            methods.add("");
-        }
-        methods.add("Method");
-        List<String> units = new ArrayList<>();
-        for (int i = 0; i < (defaultColumns.size() - 1); i++) {
-            units.add("");
-        }
-        units.add("Unit");
-        List<String> variablesList = new ArrayList<>();
-        for (int i = 0; i < (defaultColumns.size() - 1); i++) {
-            variablesList.add("");
-        }
-        variablesList.add("Variable");
-
-        List<VariableModel> variablesModelList = new ArrayList<>(dataExportInformation.getVariables().values());
-
-        Map<URI, Integer> variableUriIndex = new HashMap<>();
-        for (VariableModel variableModel : variablesModelList) {
-
-            MethodModel method = variableModel.getMethod();
-
-            if (method != null) {
-                String methodID = method.getName() + " (" + method.getUri().toString() + ")";
-                methods.add(methodID);
-            } else {
-                methods.add("");
-            }
-            UnitModel unit = variableModel.getUnit();
-
-            String unitID = unit.getName() + " (" + unit.getUri().toString() + ")";
-            units.add(unitID);
-            variablesList.add(variableModel.getName() + " (" + variableModel.getUri() + ")");
-            defaultColumns.add(variableModel.getName());
-            if (withRawData) {
-                defaultColumns.add("Raw data");
-                methods.add("");
-                units.add("");
-                variablesList.add("");
-                variableUriIndex.put(variableModel.getUri(), (defaultColumns.size() - 2));
-            } else {
-                variableUriIndex.put(variableModel.getUri(), (defaultColumns.size() - 1));
-            }
-        }
-        // static supplementary columns
-        defaultColumns.add("Provenance");
-        defaultColumns.add("Experiment URI");
-        defaultColumns.add("Target URI");
-        defaultColumns.add("Provenance URI");
-
-        // ObjectURI, ObjectName, Factor, Date, Confidence, Variable n ...
         try (StringWriter sw = new StringWriter(); CSVWriter writer = new CSVWriter(sw)) {
-            // Method
-            // Unit
-            // Variable
-            writer.writeNext(methods.toArray(new String[methods.size()]));
-            writer.writeNext(units.toArray(new String[units.size()]));
-            writer.writeNext(variablesList.toArray(new String[variablesList.size()]));
-            // empty line
-            writer.writeNext(new String[defaultColumns.size()]);
-            // headers
-            writer.writeNext(defaultColumns.toArray(new String[defaultColumns.size()]));
+            DataExportCSVWriter exportWriter = new DataExportCSVWriter(writer, dataExportInformation, withRawData);
+            exportWriter.writeWideHeader(dataExportInformation.getVariables().values());
 
             // Search in map indexed by date for exp, prov, object and data
-            for (Map.Entry<Instant, Map<ExportDataIndex, List<DataExportDTO>>> instantProvUriDataEntry : dataExportInformation.getDataByIndexAndInstant().entrySet()) {
-                Map<ExportDataIndex, List<DataExportDTO>> mapProvUriData = instantProvUriDataEntry.getValue();
-                // Search in map indexed by  prov and data
-                for (Map.Entry<ExportDataIndex, List<DataExportDTO>> provUriObjectEntry : mapProvUriData.entrySet()) {
-                    List<DataExportDTO> val = provUriObjectEntry.getValue();
-
-                    ArrayList<String> csvRow = new ArrayList<>();
-                    //first is used to have value with the same dates on the same line
-                    boolean first = true;
-
-                    for (DataExportDTO dataGetDTO : val) {
-
-                        if (first) {
-
-                            csvRow = new ArrayList<>();
-
-                            // experiment
-                            ExperimentModel experiment = null;
-                            if (dataGetDTO.getProvenance().getExperiments() != null && !dataGetDTO.getProvenance().getExperiments().isEmpty()) {
-                                experiment = dataExportInformation.getExperiments().get(dataGetDTO.getExperiment());
-                            }
-
-                            if (experiment != null) {
-                                csvRow.add(experiment.getName());
-                            } else {
-                                csvRow.add("");
-                            }
-
-                            // target
-                            SPARQLNamedResourceModel target = null;
-                            if(dataGetDTO.getTarget() != null){
-                                target = dataExportInformation.getObjects().get(dataGetDTO.getTarget());
-                            }
-
-                            if(target != null){
-                                csvRow.add(target.getName());
-                            }else{
-                                csvRow.add("");
-                            }
-
-                            // date
-                            csvRow.add(dataGetDTO.getDate());
-
-                            // write blank columns for value and rawData
-                            for (int i = 0; i < variablesModelList.size(); i++) {
-                                csvRow.add("");
-                                if (withRawData) {
-                                    csvRow.add("");
-                                }
-                            }
-
-                            // provenance
-                            if (dataExportInformation.getProvenances().containsKey(dataGetDTO.getProvenance().getUri())) {
-                                csvRow.add(dataExportInformation.getProvenances().get(dataGetDTO.getProvenance().getUri()).getName());
-                            } else {
-                                csvRow.add("");
-                            }
-
-                            // experiment URI
-                            if (experiment != null) {
-                                csvRow.add(experiment.getUri().toString());
-                            } else {
-                                csvRow.add("");
-                            }
-
-                            // target URI
-                            if(target != null){
-                                csvRow.add(target.getUri().toString());
-                            }else{
-                                csvRow.add("");
-                            }
-
-                            // provenance Uri
-                            csvRow.add(dataGetDTO.getProvenance().getUri().toString());
-
-                            first = false;
-                        }
-                        // compare only expended URIs
-                        URI dataGetDTOVariable = URI.create(SPARQLDeserializers.getExpandedURI(dataGetDTO.getVariable()));
-
-                        // value
-                        if (dataGetDTO.getValue() == null){
-                            csvRow.set(variableUriIndex.get(dataGetDTOVariable), null);
-                        } else {
-                            csvRow.set(variableUriIndex.get(dataGetDTOVariable), dataGetDTO.getValue().toString());
-                        }
-
-                        // raw data
-                        if (withRawData) {
-                            if (dataGetDTO.getRawData() == null){
-                                csvRow.set(variableUriIndex.get(dataGetDTOVariable)+1, null);
-                            } else {
-                                csvRow.set(variableUriIndex.get(dataGetDTOVariable)+1, Arrays.toString(dataGetDTO.getRawData().toArray()).replace("[", "").replace("]", ""));
-                            }
-                        }
-
-                    }
-
-
-                    String[] row = csvRow.toArray(new String[csvRow.size()]);
-                    writer.writeNext(row);
-
-                }
+            for (Map<ExportDataIndex, List<DataExportDTO>> mapProvUriData : dataExportInformation.getDataByIndexAndInstant().values()) {
+                exportWriter.writeWideRows(mapProvUriData);
             }
 
-            LocalDate date = LocalDate.now();
-            DateTimeFormatter dtf = DateTimeFormatter.ofPattern("yyyyMMdd");
-            String fileName = "export_data_wide_format" + dtf.format(date) + ".csv";
-
             Instant writeCSVTime = Instant.now();
             LOGGER.debug("Write CSV " + Long.toString(Duration.between(startWriteCSVTime, writeCSVTime).toMillis()) + " milliseconds elapsed");
 
             return Response.ok(sw.toString(), MediaType.TEXT_PLAIN_TYPE)
-                    .header("Content-Disposition", "attachment; filename=" + fileName )
+                    .header("Content-Disposition", "attachment; filename=" + getExportFileName(true))
                     .build();
 
         } catch (Exception e) {
@@ -1111,143 +958,18 @@ public class DataAPI {
     public Response prepareCSVLongExportResponse(DataLongExportInformation dataExportInformation, boolean withRawData) throws Exception {
         Instant startWriteCSVTime = Instant.now();
 
-        List<String> defaultColumns = new ArrayList<>();
-
-        defaultColumns.add("Experiment");
-        defaultColumns.add("Target");
-        defaultColumns.add("Date");
-        defaultColumns.add("Variable");
-        defaultColumns.add("Method");
-        defaultColumns.add("Unit");
-        defaultColumns.add("Value");
-        if (withRawData) {
-            defaultColumns.add("Raw data");
-        }
-        defaultColumns.add("Data Description");
-        defaultColumns.add("");
-        defaultColumns.add("Experiment URI");
-        defaultColumns.add("Target URI");
-        defaultColumns.add("Variable URI");
-        defaultColumns.add("Data Description URI");
-
-        // See defaultColumns order
-        //        Target
-        //        Date
-        //        Variable
-        //        Method
-        //        Unit
-        //        Value
-        //        Data Description
-        //
-        //        Target URI
-        //        Variable URI
-        //        Data Description URI
         try (StringWriter sw = new StringWriter(); CSVWriter writer = new CSVWriter(sw)) {
-            writer.writeNext(defaultColumns.toArray(new String[defaultColumns.size()]));
-            for (Map.Entry<Instant, List<DataGetDTO>> entry : dataExportInformation.getDataByInstant().entrySet()) {
-                List<DataGetDTO> val = entry.getValue();
-                for (DataGetDTO dataGetDTO : val) {
-
-                    //1 row per experiment
-                    int maxRows = 1;
-                    if (dataGetDTO.getProvenance().getExperiments() != null && dataGetDTO.getProvenance().getExperiments().size()>1) {
-                        maxRows = dataGetDTO.getProvenance().getExperiments().size();
-                    }
-
-                    for (int j=0; j<maxRows; j++) {
-                        ArrayList<String> csvRow = new ArrayList<>();
-                        // experiment
-                        ExperimentModel experiment = null;
-                        if (dataGetDTO.getProvenance().getExperiments() != null && !dataGetDTO.getProvenance().getExperiments().isEmpty()) {
-                            experiment = dataExportInformation.getExperiments().get(dataGetDTO.getProvenance().getExperiments().get(j));
-                        }
-
-                        if (experiment != null) {
-                            csvRow.add(experiment.getName());
-                        } else {
-                            csvRow.add("");
-                        }
-
-                        SPARQLNamedResourceModel target = null;
-                        if(dataGetDTO.getTarget() != null){
-                            target = dataExportInformation.getObjects().get(dataGetDTO.getTarget());
-                        }
-                        // target name
-                        if(target != null){
-                            csvRow.add(target.getName());
-                        }else{
-                            csvRow.add("");
-                        }
-
-                        // date
-                        csvRow.add(dataGetDTO.getDate());
-                        // variable
-                        csvRow.add(dataExportInformation.getVariables().get(dataGetDTO.getVariable()).getName());
-                        // method
-                        if (dataExportInformation.getVariables().get(dataGetDTO.getVariable()).getMethod() != null) {
-                            csvRow.add(dataExportInformation.getVariables().get(dataGetDTO.getVariable()).getMethod().getName());
-                        } else {
-                            csvRow.add("");
-                        }
-                        // unit
-                        csvRow.add(dataExportInformation.getVariables().get(dataGetDTO.getVariable()).getUnit().getName());
-                        // value
-                        if(dataGetDTO.getValue() == null){
-                            csvRow.add(null);
-                        }else{
-                            csvRow.add(dataGetDTO.getValue().toString());
-                        }
-
-                        // rawData
-                        if (withRawData) {
-                            if(dataGetDTO.getRawData() == null){
-                                csvRow.add(null);
-                            }else{
-                                csvRow.add(Arrays.toString(dataGetDTO.getRawData().toArray()).replace("[", "").replace("]", ""));
-                            }
-                        }
-
-                        // provenance
-                        if (dataExportInformation.getProvenances().containsKey(dataGetDTO.getProvenance().getUri())) {
-                            csvRow.add(dataExportInformation.getProvenances().get(dataGetDTO.getProvenance().getUri()).getName());
-                        } else {
-                            csvRow.add("");
-                        }
-                        csvRow.add("");
-
-                        // experiment URI
-                        if (experiment != null) {
-                            csvRow.add(experiment.getUri().toString());
-                        } else {
-                            csvRow.add("");
-                        }
-
-                        // target uri
-                        if (target != null) {
-                            csvRow.add(target.getUri().toString());
-                        } else {
-                            csvRow.add("");
-                        }
-
-                        // variable uri
-                        csvRow.add(dataGetDTO.getVariable().toString());
-                        // provenance Uri
-                        csvRow.add(dataGetDTO.getProvenance().getUri().toString());
-
-                        String[] row = csvRow.toArray(new String[csvRow.size()]);
-                        writer.writeNext(row);
-                    }
-                }
+            DataExportCSVWriter exportWriter = new DataExportCSVWriter(writer, dataExportInformation, withRawData);
+            exportWriter.writeLongHeader();
+            for (List<DataGetDTO> val : dataExportInformation.getDataByInstant().values()) {
+                exportWriter.writeLongRows(val);
             }
-            LocalDate date = LocalDate.now();
-            DateTimeFormatter dtf = DateTimeFormatter.ofPattern("yyyyMMdd");
-            String fileName = "export_data_long_format" + dtf.format(date) + ".csv";
 
             Instant writeCSVTime = Instant.now();
             LOGGER.debug("Write CSV " + Long.toString(Duration.between(startWriteCSVTime, writeCSVTime).toMillis()) + " milliseconds elapsed");
 
             return Response.ok(sw.toString(), MediaType.TEXT_PLAIN_TYPE)
-                    .header("Content-Disposition", "attachment; filename=" + fileName)
+                    .header("Content-Disposition", "attachment; filename=" + getExportFileName(false))
                     .build();
 
         } catch (Exception e) {
@@ -1256,6 +978,37 @@ public class DataAPI {
         }
     }
 
+    /**
+     * Stream the export directly to the response output : data are read from the database cursor
+     * and written by batches, the whole result is never kept in memory.
+     * Since the response status is sent before the data are read, errors occurring during the export can't be
+     * returned as an error response, the CSV is just truncated.
+     */
+    private Response prepareCSVStreamingExportResponse(DataLogic dataLogic, DataSearchFilter filter, boolean wideFormat, boolean withRawData) {
+        StreamingOutput output = outputStream -> {
+            Instant start = Instant.now();
+            try (CSVWriter writer = new CSVWriter(new BufferedWriter(new OutputStreamWriter(outputStream, StandardCharsets.UTF_8)))) {
+                dataLogic.writeDataExport(wideFormat, withRawData, filter, writer, LOGGER);
+            } catch (IOException e) {
+                throw e;
+            } catch (Exception e) {
+                LOGGER.error("Error during streaming data export", e);
+                throw new WebApplicationException(e);
+            }
+            LOGGER.debug("Streaming export data " + Duration.between(start, Instant.now()).toMillis() + " milliseconds elapsed");
+        };
+
+        return Response.ok(output, MediaType.TEXT_PLAIN_TYPE)
+                .header("Content-Disposition", "attachment; filename=" + getExportFileName(wideFormat))
+                .build();
+    }
+
+    private static String getExportFileName(boolean wideFormat) {
+        LocalDate date = LocalDate.now();
+        DateTimeFormatter dtf = DateTimeFormatter.ofPattern("yyyyMMdd");
+        return (wideFormat ? "export_data_wide_format" : "export_data_long_format") + dtf.format(date) + ".csv";
+    }
+
     @GET
     @Path("provenances")
     @ApiOperation("Search provenances linked to data")
@@ -12,7 +12,6 @@ import com.mongodb.MongoCommandException;
 import com.mongodb.bulk.BulkWriteError;
 import io.swagger.annotations.*;
 import org.apache.commons.collections.CollectionUtils;
-import org.apache.commons.lang3.ArrayUtils;
 import org.apache.jena.arq.querybuilder.AskBuilder;
 import org.apache.jena.graph.Node;
 import org.bson.Document;
@@ -51,6 +50,7 @@ import org.opensilex.server.exceptions.NotFoundException;
 import org.opensilex.server.exceptions.NotFoundURIException;
 import org.opensilex.server.exceptions.UnexpectedErrorException;
 import org.opensilex.server.response.ErrorResponse;
+import org.opensilex.server.response.FileRangeResponse;
 import org.opensilex.server.response.PaginatedListResponse;
 import org.opensilex.server.response.SingleObjectResponse;
 import org.opensilex.server.rest.serialization.ObjectMapperContextResolver;
@@ -66,6 +66,8 @@ import org.opensilex.sparql.utils.Ontology;
 import org.opensilex.utils.ListWithPagination;
 import org.opensilex.utils.OrderBy;
 import org.opensilex.utils.pagination.PaginatedSearchStrategy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 import javax.imageio.ImageIO;
 import javax.inject.Inject;
@@ -86,6 +88,7 @@ import java.io.File;
 import java.io.IOException;
 import java.net.URI;
 import java.net.URISyntaxException;
+import java.nio.channels.Channels;
 import java.nio.file.Paths;
 import java.time.Instant;
 import java.util.*;
@@ -109,6 +112,8 @@ import static org.opensilex.core.data.dal.DataFileDaoV2.FS_FILE_PREFIX;
         groupLabelKey = DataAPI.CREDENTIAL_DATA_GROUP_LABEL_KEY
 )
 public class DataFilesAPI {
+
+    private final static Logger LOGGER = LoggerFactory.getLogger(DataFilesAPI.class);
     
     public static final String DATAFILE_EXAMPLE_URI = "http://opensilex.dev/id/file/1598857852858";
     public static final String DATAFILE_EXAMPLE_TYPE = "http://www.opensilex.org/vocabulary/oeso#Image";
@@ -192,6 +197,7 @@ public class DataFilesAPI {
                 fs.deleteIfExists(FS_FILE_PREFIX, filePath);
                 throw e;
             }
+            generateThumbnailsInBackground(model);
             return new CreatedUriResponse(model.getUri()).getResponse();
         }
         catch (MongoDbUniqueIndexConstraintViolation duplicateKey) {
@@ -356,7 +362,10 @@ public class DataFilesAPI {
     /**
      * Returns the content of the file corresponding to the URI given.
      *
+     * The content is streamed from the file storage. A single byte range can be requested with the "Range" header.
+     *
      * @param uri
+     * @param range value of the "Range" header
      * @param response
      * @return The file content or null with a 404 status if it doesn't exists
      */
@@ -365,31 +374,35 @@ public class DataFilesAPI {
     @Path("{uri}")
     @ApiOperation(value = "Get a data file")
     @ApiResponses(value = {
-        @ApiResponse(code = 200, message = "Retrieve file")
+        @ApiResponse(code = 200, message = "Retrieve file"),
+        @ApiResponse(code = 206, message = "Retrieve the requested range of the file"),
+        @ApiResponse(code = 416, message = "The requested range is not satisfiable")
     })
     @Consumes(MediaType.APPLICATION_JSON)
     @Produces({MediaType.APPLICATION_OCTET_STREAM})
     public Response getDataFile(
             @ApiParam(value = "Search by fileUri", required = true) @PathParam("uri") @NotNull URI uri,
+            @ApiParam(value = "Byte range to retrieve", example = "bytes=0-1023") @HeaderParam("Range") String range,
             @Context HttpServletResponse response
     ) throws NotFoundURIException, IOException, URISyntaxException {
         try {
             DataFileDaoV2 dao = new DataFileDaoV2(nosql, sparql, fs);
 
             DataFileModel description = dao.get(uri);
-
-            java.nio.file.Path filePath = Paths.get(description.getPath());
-            byte[] fileContent = fs.readFileAsByteArray(FS_FILE_PREFIX, filePath);
             if(description.getArchive() != null) {
                 return Response.status(Response.Status.NOT_IMPLEMENTED.getStatusCode()).build();
             }
-            if (ArrayUtils.isEmpty(fileContent)) {
+
+            java.nio.file.Path filePath = Paths.get(description.getPath());
+            long fileSize = fs.getFileSize(FS_FILE_PREFIX, filePath);
+            if (fileSize == 0) {
                 return Response.status(Response.Status.NOT_FOUND.getStatusCode()).build();
             }
-            return Response.ok(fileContent, MediaType.APPLICATION_OCTET_STREAM)
-                    .header("Content-Disposition", "attachment; filename=\"" + filePath.getFileName().toString() + "\"") //optional
-                    .build();
-            
+
+            return new FileRangeResponse(filePath.getFileName().toString(), fileSize, range, (offset, length, output) ->
+                    fs.transferTo(FS_FILE_PREFIX, filePath, offset, length, Channels.newChannel(output))
+            ).getResponse();
+
         } catch (NoSQLInvalidURIException e) {
             return Response.status(Response.Status.NOT_FOUND.getStatusCode()).build();           
         } catch (IOException e) {
@@ -471,27 +484,25 @@ public class DataFilesAPI {
             DataFileModel description = dao.get(uri);
 
             // Determine extension from file name (#TODO Determine the file type with TIKA and store it inside database) instead of relying on file name/extension
-            String fileExt = com.google.common.io.Files.getFileExtension(description.getFilename());
-
             // Non handled file type
-            if(! THUMBNAIL_EXTENSIONS.contains(fileExt) && ! TIFF_EXTENSIONS.contains(fileExt) && ! DX_EXTENSIONS.contains(fileExt)){
+            if(! isThumbnailSupported(description.getFilename())){
                 final Set<String> everyExtensions  = Stream.of(THUMBNAIL_EXTENSIONS, TIFF_EXTENSIONS, DX_EXTENSIONS).flatMap(Set::stream).collect(Collectors.toSet());
                 return new BadRequestException("the file is not an image with a valid extension in the following list: " + everyExtensions).getResponse();
             }
 
-            byte[] image = fs.readFileAsByteArray(FS_FILE_PREFIX, Paths.get(description.getPath()));
-
-            // Handle tiff : convert to PNG
-            if(TIFF_EXTENSIONS.contains(fileExt)){
-                image = convertTIFFToPNG(image);
-            }
-
-            // Handle DX : convert to PNG
-            if(DX_EXTENSIONS.contains(fileExt)){
-                image = DXFileConverter.getInstance().convertDXToImage(image);
-            }
+            // thumbnails are stored by the cache and shared between requests, see ThumbnailCache
+            ImageResizer resizer = ImageResizer.getInstance();
+            byte[] thumbnail = fs.getThumbnailCache().get(
+                    description.getUri(),
+                    scaledWidth,
+                    scaledHeight,
+                    resizer.getDefaultResizeMethod().name(),
+                    () -> buildThumbnail(description, scaledWidth, scaledHeight)
+            );
 
-            return resizeImageAndGetResponse(image, description.getFilename(), scaledWidth, scaledHeight);
+            return Response.ok(thumbnail, MediaType.APPLICATION_OCTET_STREAM)
+                    .header("Content-Disposition", "attachment; filename=\"" + description.getFilename() + "\"") //optional
+                    .build();
 
         } catch (NoSQLInvalidURIException e) {
             return new NotFoundException(String.format("image with uri : %s was not found in the file system", uri), "image not found").getResponse();
@@ -501,16 +512,69 @@ public class DataFilesAPI {
     }
 
 
-    private Response resizeImageAndGetResponse(byte[] convertedImage, String fileName, Integer scaledWidth, Integer scaledHeight) throws IOException {
-        byte[] resizedImage = ImageResizer.getInstance().resize(
-                convertedImage,
-                scaledWidth,
-                scaledHeight
-        );
+    /**
+     * Read the picture from the file storage, convert it to PNG if needed and resize it.
+     *
+     * @param description description of a picture file
+     * @return the content of the thumbnail
+     */
+    private byte[] buildThumbnail(DataFileModel description, int scaledWidth, int scaledHeight) throws IOException {
+        String fileExt = com.google.common.io.Files.getFileExtension(description.getFilename());
+        byte[] image = fs.readFileAsByteArray(FS_FILE_PREFIX, Paths.get(description.getPath()));
 
-        return Response.ok(resizedImage, MediaType.APPLICATION_OCTET_STREAM)
-                .header("Content-Disposition", "attachment; filename=\"" + fileName + "\"") //optional
-                .build();
+        // Handle tiff : convert to PNG
+        if(TIFF_EXTENSIONS.contains(fileExt)){
+            image = convertTIFFToPNG(image);
+        }
+
+        // Handle DX : convert to PNG
+        if(DX_EXTENSIONS.contains(fileExt)){
+            image = DXFileConverter.getInstance().convertDXToImage(image);
+        }
+
+        return ImageResizer.getInstance().resize(image, scaledWidth, scaledHeight);
+    }
+
+    /**
+     * Generate in background the thumbnails of an uploaded picture, for the sizes defined in configuration.
+     * Thumbnails which can't be generated in background are generated on first request.
+     *
+     * @param model description of the uploaded file
+     */
+    private void generateThumbnailsInBackground(DataFileModel model) {
+        if (!isThumbnailSupported(model.getFilename())) {
+            return;
+        }
+        try {
+            String method = ImageResizer.getInstance().getDefaultResizeMethod().name();
+            for (int[] size : fs.getThumbnailCache().getPregeneratedSizes()) {
+                fs.getThumbnailCache().generateInBackground(model.getUri(), size[0], size[1], method,
+                        () -> buildThumbnail(model, size[0], size[1])
+                );
+            }
+        } catch (IOException e) {
+            LOGGER.warn("Unable to generate thumbnails of {} : {}", model.getUri(), e.getMessage());
+        }
+    }
+
+    /**
+     * Delete the thumbnails of a picture, of all sizes. An error is only logged, since thumbnails of a deleted file are
+     * never read.
+     */
+    private void deleteThumbnails(DataFileModel model) {
+        if (!isThumbnailSupported(model.getFilename())) {
+            return;
+        }
+        try {
+            fs.getThumbnailCache().delete(model.getUri());
+        } catch (IOException e) {
+            LOGGER.warn("Unable to delete thumbnails of {} : {}", model.getUri(), e.getMessage());
+        }
+    }
+
+    private static boolean isThumbnailSupported(String fileName) {
+        String fileExt = com.google.common.io.Files.getFileExtension(fileName);
+        return THUMBNAIL_EXTENSIONS.contains(fileExt) || TIFF_EXTENSIONS.contains(fileExt) || DX_EXTENSIONS.contains(fileExt);
     }
 
     private static byte[] convertTIFFToPNG(byte[] tiffBytes) throws IOException {
@@ -562,10 +626,11 @@ public class DataFilesAPI {
             @ApiParam(value = "Search by metadata", example = DataAPI.DATA_EXAMPLE_METADATA) @QueryParam("metadata") String metadata,
             @ApiParam(value = "List of fields to sort as an array of fieldName=asc|desc", example = "date=desc") @DefaultValue("date=desc") @QueryParam("order_by") List<OrderBy> orderByList,
             @ApiParam(value = "Page number", example = "0") @QueryParam("page") @DefaultValue("0") @Min(0) int page,
-            @ApiParam(value = "Page size", example = "20") @QueryParam("page_size") @DefaultValue("20") @Min(0) int pageSize
+            @ApiParam(value = "Page size", example = "20") @QueryParam("page_size") @DefaultValue("20") @Min(0) int pageSize,
+            @ApiParam(value = "Token returned in the pagination metadata (nextPageToken) of the previous page. Allows to read the next page without skipping previous results, the page number is then ignored") @QueryParam("continuation_token") String continuationToken
 
     ) throws Exception {
-        return  searchDataFiles(name, rdfType, startDate, endDate, timezone, experiments, targets, devices, provenances, metadata, orderByList, page, pageSize);
+        return  searchDataFiles(name, rdfType, startDate, endDate, timezone, experiments, targets, devices, provenances, metadata, orderByList, page, pageSize, continuationToken);
     }
 
     @POST
@@ -590,6 +655,7 @@ public class DataFilesAPI {
             @ApiParam(value = "List of fields to sort as an array of fieldName=asc|desc", example = "date=desc") @DefaultValue("date=desc") @QueryParam("order_by") List<OrderBy> orderByList,
             @ApiParam(value = "Page number", example = "0") @QueryParam("page") @DefaultValue("0") @Min(0) int page,
             @ApiParam(value = "Page size", example = "20") @QueryParam("page_size") @DefaultValue("20") @Min(0) int pageSize,
+            @ApiParam(value = "Token returned in the pagination metadata (nextPageToken) of the previous page. Allows to read the next page without skipping previous results, the page number is then ignored") @QueryParam("continuation_token") String continuationToken,
             @ApiParam(value = "Targets uris, can be an empty array but can't be null", name = "targets")  List<URI> targets
             ) throws Exception {
 
@@ -609,7 +675,8 @@ public class DataFilesAPI {
                 metadata,
                 orderByList,
                 page,
-                pageSize
+                pageSize,
+                continuationToken
         );
     }
 
@@ -626,7 +693,8 @@ public class DataFilesAPI {
             String metadata,
             List<OrderBy> orderByList,
             int page,
-            int pageSize
+            int pageSize,
+            String continuationToken
 
     ) throws Exception {
         DataFileDaoV2 dao = new DataFileDaoV2(nosql, sparql, fs);
@@ -671,9 +739,16 @@ public class DataFilesAPI {
                     }
                     return nextDto;
                 })
-                .setPaginationStrategy(PaginatedSearchStrategy.HAS_NEXT_PAGE);
+                // keyset pagination when reading the first page or the page after a token, since the token of the next page is returned
+                .setPaginationStrategy(continuationToken != null || page == 0 ? PaginatedSearchStrategy.KEYSET : PaginatedSearchStrategy.HAS_NEXT_PAGE)
+                .setContinuationToken(continuationToken);
 
-        ListWithPagination<DataFileGetDTO> results = dao.searchWithPagination(query);
+        ListWithPagination<DataFileGetDTO> results;
+        try {
+            results = dao.searchWithPagination(query);
+        } catch (IllegalArgumentException e) {
+            return new ErrorResponse(Response.Status.BAD_REQUEST, "CONTINUATION_TOKEN_ERROR", e.getMessage()).getResponse();
+        }
         //Fetch all the publishers in one call
         new AccountDAO(sparql).getList(new ArrayList<>(publishersToDataFiles.keySet())).forEach(
                 accountModel -> publishersToDataFiles.get(accountModel.getUri()).forEach(
@@ -1138,7 +1213,8 @@ public class DataFilesAPI {
 
         DataFileModel description = dao.get(uri);
         java.nio.file.Path filePath = Paths.get(description.getPath());
-        fs.delete(FS_FILE_PREFIX, filePath);        
+        fs.delete(FS_FILE_PREFIX, filePath);
+        deleteThumbnails(description);
         
         nosql.getServiceV2().withSession(session -> {
             dao.delete(session, uri);
@@ -69,6 +69,10 @@ public class DataSearchDTO {
     @ApiModelProperty(value = "export also raw_data", example = "false")
     protected boolean withRawData;
 
+    @JsonProperty("stream")
+    @ApiModelProperty(value = "stream the export with constant memory usage, data are sorted by date", example = "false")
+    protected boolean stream;
+
     public String getStartDate() {
         return startDate;
     }
@@ -172,4 +176,12 @@ public class DataSearchDTO {
     public void setWithRawData(boolean withRawData) {
         this.withRawData = withRawData;
     }
+
+    public boolean isStream() {
+        return stream;
+    }
+
+    public void setStream(boolean stream) {
+        this.stream = stream;
+    }
 }
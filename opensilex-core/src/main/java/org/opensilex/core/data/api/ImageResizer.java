@@ -57,13 +57,20 @@ public class ImageResizer {
         defaultResizeMethod = resizeMethod;
     }
 
-    public static ImageResizer getInstance() throws IOException {
+    public static synchronized ImageResizer getInstance() throws IOException {
         if (_INSTANCE == null) {
             _INSTANCE = new ImageResizer();
         }
         return _INSTANCE;
     }
 
+    /**
+     * @return the method used by {@link #resize(byte[], int, int)}
+     */
+    public RESIZE_METHOD getDefaultResizeMethod() {
+        return defaultResizeMethod;
+    }
+
     public enum RESIZE_METHOD {
 
         /**
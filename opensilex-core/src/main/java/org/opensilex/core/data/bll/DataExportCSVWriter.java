@@ -0,0 +1,374 @@
+//******************************************************************************
+//                          DataExportCSVWriter.java
+// OpenSILEX - Licence AGPL V3.0 - https://www.gnu.org/licenses/agpl-3.0.en.html
+// Copyright © INRAE 2024
+// Contact: anne.tireau@inrae.fr, pascal.neveu@inrae.fr
+//******************************************************************************
+package org.opensilex.core.data.bll;
+
+import com.opencsv.CSVWriter;
+import org.opensilex.core.data.api.DataExportDTO;
+import org.opensilex.core.data.api.DataGetDTO;
+import org.opensilex.core.experiment.dal.ExperimentModel;
+import org.opensilex.core.experiment.utils.ExportDataIndex;
+import org.opensilex.core.variable.dal.MethodModel;
+import org.opensilex.core.variable.dal.UnitModel;
+import org.opensilex.core.variable.dal.VariableModel;
+import org.opensilex.sparql.deserializer.SPARQLDeserializers;
+import org.opensilex.sparql.model.SPARQLNamedResourceModel;
+
+import java.net.URI;
+import java.util.*;
+
+/**
+ * Write data export rows in wide or long CSV format.
+ * Header and rows are written separately, so rows can be written by successive batches
+ * when data are streamed from database (see {@link DataLogic#writeDataExport}).
+ * Labels of variables, targets, provenances and experiments are read from the given {@link DataExportInformation}.
+ */
+public class DataExportCSVWriter {
+
+    private final CSVWriter writer;
+    private final DataExportInformation exportInformation;
+    private final boolean withRawData;
+
+    /**
+     * Variables written in wide format header, in columns order
+     */
+    private List<VariableModel> variablesModelList;
+
+    /**
+     * Index of the value column of each variable (by expanded URI) in wide format
+     */
+    private Map<URI, Integer> variableUriIndex;
+
+    public DataExportCSVWriter(CSVWriter writer, DataExportInformation exportInformation, boolean withRawData) {
+        this.writer = writer;
+        this.exportInformation = exportInformation;
+        this.withRawData = withRawData;
+    }
+
+    /**
+     * Write the wide format header (methods, units, variables, empty line and column names)
+     *
+     * @param variables variables written as columns, in this order
+     */
+    public void writeWideHeader(Collection<VariableModel> variables) {
+        List<String> defaultColumns = new ArrayList<>();
+
+        // first static columns
+
+        defaultColumns.add("Experiment");
+        defaultColumns.add("Target");
+        defaultColumns.add("Date");
+
+        List<String> methods = new ArrayList<>();
+        for (int i = 0; i < (defaultColumns.size() - 1); i++) {
+            methods.add("");
+        }
+        methods.add("Method");
+        List<String> units = new ArrayList<>();
+        for (int i = 0; i < (defaultColumns.size() - 1); i++) {
+            units.add("");
+        }
+        units.add("Unit");
+        List<String> variablesList = new ArrayList<>();
+        for (int i = 0; i < (defaultColumns.size() - 1); i++) {
+            variablesList.add("");
+        }
+        variablesList.add("Variable");
+
+        variablesModelList = new ArrayList<>(variables);
+
+        variableUriIndex = new HashMap<>();
+        for (VariableModel variableModel : variablesModelList) {
+
+            MethodModel method = variableModel.getMethod();
+
+            if (method != null) {
+                String methodID = method.getName() + " (" + method.getUri().toString() + ")";
+                methods.add(methodID);
+            } else {
+                methods.add("");
+            }
+            UnitModel unit = variableModel.getUnit();
+
+            String unitID = unit.getName() + " (" + unit.getUri().toString() + ")";
+            units.add(unitID);
+            variablesList.add(variableModel.getName() + " (" + variableModel.getUri() + ")");
+            defaultColumns.add(variableModel.getName());
+            if (withRawData) {
+                defaultColumns.add("Raw data");
+                methods.add("");
+                units.add("");
+                variablesList.add("");
+                variableUriIndex.put(variableModel.getUri(), (defaultColumns.size() - 2));
+            } else {
+                variableUriIndex.put(variableModel.getUri(), (defaultColumns.size() - 1));
+            }
+        }
+        // static supplementary columns
+        defaultColumns.add("Provenance");
+        defaultColumns.add("Experiment URI");
+        defaultColumns.add("Target URI");
+        defaultColumns.add("Provenance URI");
+
+        // ObjectURI, ObjectName, Factor, Date, Confidence, Variable n ...
+        // Method
+        // Unit
+        // Variable
+        writer.writeNext(methods.toArray(new String[0]));
+        writer.writeNext(units.toArray(new String[0]));
+        writer.writeNext(variablesList.toArray(new String[0]));
+        // empty line
+        writer.writeNext(new String[defaultColumns.size()]);
+        // headers
+        writer.writeNext(defaultColumns.toArray(new String[0]));
+    }
+
+    /**
+     * Write wide format rows for data sharing the same date : one row by (experiment, provenance, target)
+     * with one column by variable. {@link #writeWideHeader(Collection)} must have been called before.
+     *
+     * @param dataByIndex data of the same date grouped by (experiment, provenance, target)
+     */
+    public void writeWideRows(Map<ExportDataIndex, List<DataExportDTO>> dataByIndex) {
+        // Search in map indexed by  prov and data
+        for (Map.Entry<ExportDataIndex, List<DataExportDTO>> provUriObjectEntry : dataByIndex.entrySet()) {
+            List<DataExportDTO> val = provUriObjectEntry.getValue();
+
+            ArrayList<String> csvRow = new ArrayList<>();
+            //first is used to have value with the same dates on the same line
+            boolean first = true;
+
+            for (DataExportDTO dataGetDTO : val) {
+
+                if (first) {
+
+                    csvRow = new ArrayList<>();
+
+                    // experiment
+                    ExperimentModel experiment = null;
+                    if (dataGetDTO.getProvenance().getExperiments() != null && !dataGetDTO.getProvenance().getExperiments().isEmpty()) {
+                        experiment = exportInformation.getExperiments().get(dataGetDTO.getExperiment());
+                    }
+
+                    if (experiment != null) {
+                        csvRow.add(experiment.getName());
+                    } else {
+                        csvRow.add("");
+                    }
+
+                    // target
+                    SPARQLNamedResourceModel target = null;
+                    if (dataGetDTO.getTarget() != null) {
+                        target = exportInformation.getObjects().get(dataGetDTO.getTarget());
+                    }
+
+                    if (target != null) {
+                        csvRow.add(target.getName());
+                    } else {
+                        csvRow.add("");
+                    }
+
+                    // date
+                    csvRow.add(dataGetDTO.getDate());
+
+                    // write blank columns for value and rawData
+                    for (int i = 0; i < variablesModelList.size(); i++) {
+                        csvRow.add("");
+                        if (withRawData) {
+                            csvRow.add("");
+                        }
+                    }
+
+                    // provenance
+                    if (exportInformation.getProvenances().containsKey(dataGetDTO.getProvenance().getUri())) {
+                        csvRow.add(exportInformation.getProvenances().get(dataGetDTO.getProvenance().getUri()).getName());
+                    } else {
+                        csvRow.add("");
+                    }
+
+                    // experiment URI
+                    if (experiment != null) {
+                        csvRow.add(experiment.getUri().toString());
+                    } else {
+                        csvRow.add("");
+                    }
+
+                    // target URI
+                    if (target != null) {
+                        csvRow.add(target.getUri().toString());
+                    } else {
+                        csvRow.add("");
+                    }
+
+                    // provenance Uri
+                    csvRow.add(dataGetDTO.getProvenance().getUri().toString());
+
+                    first = false;
+                }
+                // compare only expended URIs
+                URI dataGetDTOVariable = URI.create(SPARQLDeserializers.getExpandedURI(dataGetDTO.getVariable()));
+
+                // value
+                if (dataGetDTO.getValue() == null) {
+                    csvRow.set(variableUriIndex.get(dataGetDTOVariable), null);
+                } else {
+                    csvRow.set(variableUriIndex.get(dataGetDTOVariable), dataGetDTO.getValue().toString());
+                }
+
+                // raw data
+                if (withRawData) {
+                    if (dataGetDTO.getRawData() == null) {
+                        csvRow.set(variableUriIndex.get(dataGetDTOVariable) + 1, null);
+                    } else {
+                        csvRow.set(variableUriIndex.get(dataGetDTOVariable) + 1, Arrays.toString(dataGetDTO.getRawData().toArray()).replace("[", "").replace("]", ""));
+                    }
+                }
+
+            }
+
+            writer.writeNext(csvRow.toArray(new String[0]));
+        }
+    }
+
+    /**
+     * Write the long format header
+     */
+    public void writeLongHeader() {
+        List<String> defaultColumns = new ArrayList<>();
+
+        defaultColumns.add("Experiment");
+        defaultColumns.add("Target");
+        defaultColumns.add("Date");
+        defaultColumns.add("Variable");
+        defaultColumns.add("Method");
+        defaultColumns.add("Unit");
+        defaultColumns.add("Value");
+        if (withRawData) {
+            defaultColumns.add("Raw data");
+        }
+        defaultColumns.add("Data Description");
+        defaultColumns.add("");
+        defaultColumns.add("Experiment URI");
+        defaultColumns.add("Target URI");
+        defaultColumns.add("Variable URI");
+        defaultColumns.add("Data Description URI");
+
+        writer.writeNext(defaultColumns.toArray(new String[0]));
+    }
+
+    /**
+     * Write long format rows, one row by data and by experiment of the data provenance
+     *
+     * @param dataList data to write
+     */
+    public void writeLongRows(Collection<? extends DataGetDTO> dataList) {
+        // See defaultColumns order
+        //        Target
+        //        Date
+        //        Variable
+        //        Method
+        //        Unit
+        //        Value
+        //        Data Description
+        //
+        //        Target URI
+        //        Variable URI
+        //        Data Description URI
+        for (DataGetDTO dataGetDTO : dataList) {
+
+            //1 row per experiment
+            int maxRows = 1;
+            if (dataGetDTO.getProvenance().getExperiments() != null && dataGetDTO.getProvenance().getExperiments().size() > 1) {
+                maxRows = dataGetDTO.getProvenance().getExperiments().size();
+            }
+
+            VariableModel variable = exportInformation.getVariables().get(dataGetDTO.getVariable());
+
+            for (int j = 0; j < maxRows; j++) {
+                ArrayList<String> csvRow = new ArrayList<>();
+                // experiment
+                ExperimentModel experiment = null;
+                if (dataGetDTO.getProvenance().getExperiments() != null && !dataGetDTO.getProvenance().getExperiments().isEmpty()) {
+                    experiment = exportInformation.getExperiments().get(dataGetDTO.getProvenance().getExperiments().get(j));
+                }
+
+                if (experiment != null) {
+                    csvRow.add(experiment.getName());
+                } else {
+                    csvRow.add("");
+                }
+
+                SPARQLNamedResourceModel target = null;
+                if (dataGetDTO.getTarget() != null) {
+                    target = exportInformation.getObjects().get(dataGetDTO.getTarget());
+                }
+                // target name
+                if (target != null) {
+                    csvRow.add(target.getName());
+                } else {
+                    csvRow.add("");
+                }
+
+                // date
+                csvRow.add(dataGetDTO.getDate());
+                // variable
+                csvRow.add(variable.getName());
+                // method
+                if (variable.getMethod() != null) {
+                    csvRow.add(variable.getMethod().getName());
+                } else {
+                    csvRow.add("");
+                }
+                // unit
+                csvRow.add(variable.getUnit().getName());
+                // value
+                if (dataGetDTO.getValue() == null) {
+                    csvRow.add(null);
+                } else {
+                    csvRow.add(dataGetDTO.getValue().toString());
+                }
+
+                // rawData
+                if (withRawData) {
+                    if (dataGetDTO.getRawData() == null) {
+                        csvRow.add(null);
+                    } else {
+                        csvRow.add(Arrays.toString(dataGetDTO.getRawData().toArray()).replace("[", "").replace("]", ""));
+                    }
+                }
+
+                // provenance
+                if (exportInformation.getProvenances().containsKey(dataGetDTO.getProvenance().getUri())) {
+                    csvRow.add(exportInformation.getProvenances().get(dataGetDTO.getProvenance().getUri()).getName());
+                } else {
+                    csvRow.add("");
+                }
+                csvRow.add("");
+
+                // experiment URI
+                if (experiment != null) {
+                    csvRow.add(experiment.getUri().toString());
+                } else {
+                    csvRow.add("");
+                }
+
+                // target uri
+                if (target != null) {
+                    csvRow.add(target.getUri().toString());
+                } else {
+                    csvRow.add("");
+                }
+
+                // variable uri
+                csvRow.add(dataGetDTO.getVariable().toString());
+                // provenance Uri
+                csvRow.add(dataGetDTO.getProvenance().getUri().toString());
+
+                writer.writeNext(csvRow.toArray(new String[0]));
+            }
+        }
+    }
+}
@@ -7,10 +7,12 @@
 package org.opensilex.core.data.bll;
 
 import com.mongodb.client.ClientSession;
+import com.opencsv.CSVWriter;
 import com.mongodb.client.model.CountOptions;
 import com.mongodb.client.result.DeleteResult;
 import org.apache.commons.collections4.CollectionUtils;
 import org.apache.commons.lang3.StringUtils;
+import org.apache.jena.arq.querybuilder.Order;
 import org.bson.conversions.Bson;
 import org.opensilex.core.annotation.dal.AnnotationDAO;
 import org.opensilex.core.data.api.*;
@@ -23,7 +25,6 @@ import org.opensilex.core.device.dal.DeviceDAO;
 import org.opensilex.core.document.dal.DocumentDAO;
 import org.opensilex.core.document.dal.DocumentModel;
 import org.opensilex.core.device.dal.DeviceModel;
-import org.opensilex.core.experiment.dal.ExperimentModel;
 import org.opensilex.core.experiment.utils.ExportDataIndex;
 import org.opensilex.core.organisation.bll.FacilityLogic;
 import org.opensilex.core.organisation.dal.facility.FacilityModel;
@@ -43,7 +44,6 @@ import org.opensilex.nosql.mongodb.dao.MongoSearchQuery;
 import org.opensilex.security.account.dal.AccountModel;
 import org.opensilex.sparql.deserializer.SPARQLDeserializers;
 import org.opensilex.sparql.exceptions.SPARQLException;
-import org.opensilex.sparql.model.SPARQLNamedResourceModel;
 import org.opensilex.sparql.model.SPARQLResourceModel;
 import org.opensilex.sparql.ontology.dal.OntologyDAO;
 import org.opensilex.sparql.ontology.dal.URITypesModel;
@@ -51,6 +51,7 @@ import org.opensilex.sparql.service.SPARQLService;
 import org.opensilex.sparql.service.schemaQuery.SparqlSchemaSimpleNode;
 import org.opensilex.utils.ExcludableUriList;
 import org.opensilex.utils.ListWithPagination;
+import org.opensilex.utils.OrderBy;
 import org.slf4j.Logger;
 import java.net.URI;
 import java.time.Duration;
@@ -58,6 +59,7 @@ import java.time.Instant;
 import java.time.temporal.ChronoUnit;
 import java.util.*;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 import static org.opensilex.core.data.utils.DataMathFunctions.computeMedianPerHour;
 
@@ -65,6 +67,17 @@ import static org.opensilex.core.data.utils.DataMathFunctions.computeMedianPerHo
  * Class containing all logic used by DataAPI, handles usage of different DAOs
  */
 public class DataLogic {
+
+    /**
+     * Number of data read from database before resolving their labels and writing them, during a streaming export
+     */
+    private static final int EXPORT_STREAM_BATCH_SIZE = 5_000;
+
+    /**
+     * Maximum number of resolved targets kept between two batches of a streaming export
+     */
+    private static final int EXPORT_STREAM_MAX_CACHED_TARGETS = 50_000;
+
     //TODO Call other Logic classes, one day this class should only directly use a single Dao, DataDao(V2)
     //Data initialized in constructor :
     private final DataDaoV2 dao;
@@ -82,6 +95,8 @@ public class DataLogic {
     //If client session is null then we know we need to handle transactions
     private ClientSession clientSession;
 
+    private int exportStreamBatchSize = EXPORT_STREAM_BATCH_SIZE;
+
     //TODO these daos are the ones that will need to be deleted in the class when logic classes are done.
     //VariableDAO
     //DeviceDAO
@@ -105,6 +120,14 @@ public class DataLogic {
         this.clientSession = clientSession;
     }
 
+    /**
+     * Use only for tests. Needed for checking the batches boundaries of a streaming export with few data.
+     */
+    public DataLogic setExportStreamBatchSize(int exportStreamBatchSize) {
+        this.exportStreamBatchSize = exportStreamBatchSize;
+        return this;
+    }
+
     //#endregion
     //#region PUBLIC METHODS
 
@@ -229,10 +252,8 @@ public class DataLogic {
      */
     public DataExportInformation getDataExportInformation(boolean forWideFormat, DataSearchFilter filter, Logger logger) throws Exception {
         //Init everything needed for result
-        Map<URI, VariableModel> variables = new HashMap<>();
-        Map<URI, SPARQLNamedResourceModel> objects = new HashMap<>();
-        Map<URI, ProvenanceModel> provenances = new HashMap<>();
-        Map<URI, ExperimentModel> experiments = new HashMap();
+        DataReferenceResolver resolver = new DataReferenceResolver(sparql, nosql, fs, user);
+        Set<URI> experiments = new HashSet<>();
         //Use this next map only in the case of wide format
         Map<Instant, Map<ExportDataIndex, List<DataExportDTO>>> dataByIndexAndInstant = new HashMap<>();
         //And use this next map only when in long format
@@ -243,17 +264,7 @@ public class DataLogic {
         Set<URI> dateVariables = new VariableDAO(sparql, nosql, fs, user).getAllDateVariables();
 
         dao.searchAsStreamWithPagination(filter).forEach(dataModel -> {
-            if (dataModel.getTarget() != null && !objects.containsKey(dataModel.getTarget())) {
-                objects.put(dataModel.getTarget(), null);
-            }
-
-            if (!variables.containsKey(dataModel.getVariable())) {
-                variables.put(dataModel.getVariable(), null);
-            }
-
-            if (!provenances.containsKey(dataModel.getProvenance().getUri())) {
-                provenances.put(dataModel.getProvenance().getUri(), null);
-            }
+            resolver.collect(dataModel);
 
             if (forWideFormat && !dataByIndexAndInstant.containsKey(dataModel.getDate())) {
                 dataByIndexAndInstant.put(dataModel.getDate(), new HashMap<>());
@@ -268,9 +279,7 @@ public class DataLogic {
 
             if (dataModel.getProvenance().getExperiments() != null) {
                 for (URI exp:dataModel.getProvenance().getExperiments()) {
-                    if (!experiments.containsKey(exp)) {
-                        experiments.put(exp, null);
-                    }
+                    experiments.add(exp);
                     //Everything else in for loop is for wide format only
                     if(!forWideFormat){
                         continue;
@@ -307,42 +316,17 @@ public class DataLogic {
         Instant dataTransform = Instant.now();
         logger.debug("Data conversion " + Long.toString(Duration.between(data, dataTransform).toMillis()) + " milliseconds elapsed");
 
-        //Get other stuff we have to get (variables, objects, etc...)
-        VariableDAO variableDAO = new VariableDAO(sparql, nosql, fs, user);
-        List<VariableModel> variablesModelList = variableDAO.getList(new ArrayList<>(variables.keySet()));
-        for (VariableModel variableModel : variablesModelList) {
-            variables.put(new URI(SPARQLDeserializers.getShortURI(variableModel.getUri())), variableModel);
-        }
-        Instant variableTime = Instant.now();
-        logger.debug("Get " + variables.keySet().size() + " variable(s) " + Long.toString(Duration.between(dataTransform, variableTime).toMillis()) + " milliseconds elapsed");
-
         // Provide the experiment as context if there is only one, and only in wide format.
-        URI context = null;
         if (forWideFormat && experiments.size() == 1) {
-            context = experiments.keySet().stream().findFirst().get();
-        }
-        List<SPARQLNamedResourceModel> objectsList = new OntologyDAO(sparql).getURILabels(objects.keySet(), user.getLanguage(), context);
-        for (SPARQLNamedResourceModel obj : objectsList) {
-            objects.put(obj.getUri(), obj);
-        }
-        Instant targetTime = Instant.now();
-        logger.debug("Get " + objectsList.size() + " target(s) " + Long.toString(Duration.between(variableTime, targetTime).toMillis()) + " milliseconds elapsed");
-
-        List<ProvenanceModel> provenanceModels = new ProvenanceDaoV2(nosql.getServiceV2()).findByUris(provenances.keySet().parallelStream(), provenances.size());
-        for (ProvenanceModel prov : provenanceModels) {
-            provenances.put(prov.getUri(), prov);
-        }
-        Instant provenancesTime = Instant.now();
-        logger.debug("Get " + provenanceModels.size() + " provenance(s) " + Long.toString(Duration.between(targetTime, provenancesTime).toMillis()) + " milliseconds elapsed");
-
-        sparql.getListByURIs(ExperimentModel.class, new ArrayList<>(experiments.keySet()), user.getLanguage());
-        List<ExperimentModel> listExp = sparql.getListByURIs(ExperimentModel.class, new ArrayList<>(experiments.keySet()), user.getLanguage());
-        for (ExperimentModel exp : listExp) {
-            experiments.put(exp.getUri(), exp);
+            resolver.setTargetContext(experiments.iterator().next());
         }
-        Instant expTime = Instant.now();
-        logger.debug("Get " + listExp.size() + " experiment(s) " + Long.toString(Duration.between(variableTime, expTime).toMillis()) + " milliseconds elapsed");
 
+        //Get other stuff we have to get (variables, objects, etc...), one query by kind of resource
+        resolver.resolve();
+        Instant resolveTime = Instant.now();
+        logger.debug("Get " + resolver.getVariables().size() + " variable(s), " + resolver.getTargets().size() + " target(s), "
+                + resolver.getProvenances().size() + " provenance(s) and " + resolver.getExperiments().size() + " experiment(s) "
+                + Long.toString(Duration.between(dataTransform, resolveTime).toMillis()) + " milliseconds elapsed");
 
         //Handle return
         DataExportInformation result;
@@ -353,14 +337,132 @@ public class DataLogic {
             result = new DataLongExportInformation();
             ((DataLongExportInformation)result).setDataByInstant(dataByInstant);
         }
-        result.setVariables(variables)
-                .setObjects(objects)
-                .setProvenances(provenances)
-                .setExperiments(experiments);
+        result.setVariables(resolver.getVariables())
+                .setObjects(resolver.getTargets())
+                .setProvenances(resolver.getProvenances())
+                .setExperiments(resolver.getExperiments());
 
         return result;
     }
 
+    /**
+     * Write data export directly from the database cursor, without loading the whole result in memory.
+     * Data are read by batches of {@link #EXPORT_STREAM_BATCH_SIZE}, and labels of variables, targets, provenances and
+     * experiments are only resolved for the URIs of each batch not already known.
+     *
+     * In wide format, all variables are needed for the header, so they are fetched first with a distinct query.
+     * Data are then read sorted by date and a batch is never split inside a same date, so each row can be completed
+     * with only the current batch.
+     *
+     * @param forWideFormat if true it's for wide export, else for long format
+     * @param withRawData if true, export also raw data
+     * @param filter data filter
+     * @param writer CSV writer, flushed after each batch
+     */
+    public void writeDataExport(boolean forWideFormat, boolean withRawData, DataSearchFilter filter, CSVWriter writer, Logger logger) throws Exception {
+        Set<URI> dateVariables = new VariableDAO(sparql, nosql, fs, user).getAllDateVariables();
+
+        // Resolved labels are kept for the whole export, the export information only exposes them to the writer
+        DataReferenceResolver resolver = new DataReferenceResolver(sparql, nosql, fs, user);
+        DataExportInformation exportInformation = forWideFormat ? new DataWideExportInformation() : new DataLongExportInformation();
+        exportInformation.setVariables(resolver.getVariables())
+                .setObjects(resolver.getTargets())
+                .setProvenances(resolver.getProvenances())
+                .setExperiments(resolver.getExperiments());
+
+        DataExportCSVWriter exportWriter = new DataExportCSVWriter(writer, exportInformation, withRawData);
+
+        // In wide format, all variables are fetched first for the header, then data are read sorted by date
+        if (forWideFormat) {
+            List<URI> usedVariables = dao.distinct(null, DataModel.VARIABLE_FIELD, URI.class, filter);
+            resolver.collectVariables(usedVariables).resolve();
+            exportWriter.writeWideHeader(exportInformation.getVariables().values());
+
+            filter.setOrderByList(Collections.singletonList(new OrderBy(DataModel.DATE_FIELD, Order.ASCENDING)));
+
+            // Provide the experiment as context if there is only one, and only in wide format.
+            if (filter.getExperiments() != null && filter.getExperiments().size() == 1) {
+                resolver.setTargetContext(filter.getExperiments().iterator().next());
+            }
+        } else {
+            exportWriter.writeLongHeader();
+        }
+        writer.flush();
+
+        Instant start = Instant.now();
+        long count = 0;
+        List<DataModel> batch = new ArrayList<>(exportStreamBatchSize);
+        Instant lastDate = null;
+
+        // close the stream, and the database cursor, even if the export is interrupted (ex: client disconnection)
+        try (Stream<DataModel> dataStream = dao.searchAsStreamWithPagination(filter).getSource()) {
+            Iterator<DataModel> dataIt = dataStream.iterator();
+            while (dataIt.hasNext()) {
+                DataModel dataModel = dataIt.next();
+
+                // In wide format, data with the same date must be written in the same batch
+                if (batch.size() >= exportStreamBatchSize && (!forWideFormat || !dataModel.getDate().equals(lastDate))) {
+                    writeDataExportBatch(batch, forWideFormat, resolver, dateVariables, exportWriter);
+                    writer.flush();
+                    count += batch.size();
+                    batch.clear();
+                }
+                batch.add(dataModel);
+                lastDate = dataModel.getDate();
+            }
+        }
+
+        if (!batch.isEmpty()) {
+            writeDataExportBatch(batch, forWideFormat, resolver, dateVariables, exportWriter);
+            count += batch.size();
+        }
+        writer.flush();
+
+        logger.debug("Stream export of " + count + " data " + Duration.between(start, Instant.now()).toMillis() + " milliseconds elapsed");
+    }
+
+    /**
+     * Resolve labels of a batch of data not already known, then write the corresponding rows
+     */
+    private void writeDataExportBatch(List<DataModel> batch, boolean forWideFormat, DataReferenceResolver resolver, Set<URI> dateVariables, DataExportCSVWriter exportWriter) throws Exception {
+        // Targets are the only labels which can grow with the data size, don't keep them indefinitely
+        if (resolver.getTargets().size() > EXPORT_STREAM_MAX_CACHED_TARGETS) {
+            resolver.clearTargets();
+        }
+        resolver.collectAll(batch).resolve();
+
+        if (!forWideFormat) {
+            List<DataGetDTO> dtoList = new ArrayList<>(batch.size());
+            for (DataModel dataModel : batch) {
+                dtoList.add(DataGetDTO.getDtoFromModel(dataModel, dateVariables));
+            }
+            exportWriter.writeLongRows(dtoList);
+            return;
+        }
+
+        // Data are sorted by date, so a linked map keep the date order
+        Map<Instant, Map<ExportDataIndex, List<DataExportDTO>>> dataByIndexAndInstant = new LinkedHashMap<>();
+        for (DataModel dataModel : batch) {
+            Map<ExportDataIndex, List<DataExportDTO>> dataByIndex = dataByIndexAndInstant.computeIfAbsent(dataModel.getDate(), date -> new LinkedHashMap<>());
+
+            if (dataModel.getProvenance().getExperiments() != null) {
+                for (URI exp : dataModel.getProvenance().getExperiments()) {
+                    ExportDataIndex exportDataIndex = new ExportDataIndex(exp, dataModel.getProvenance().getUri(), dataModel.getTarget());
+                    dataByIndex.computeIfAbsent(exportDataIndex, index -> new ArrayList<>())
+                            .add(DataExportDTO.fromModel(dataModel, exp, dateVariables));
+                }
+            } else {
+                ExportDataIndex exportDataIndex = new ExportDataIndex(null, dataModel.getProvenance().getUri(), dataModel.getTarget());
+                dataByIndex.computeIfAbsent(exportDataIndex, index -> new ArrayList<>())
+                        .add(DataExportDTO.fromModel(dataModel, null, dateVariables));
+            }
+        }
+
+        for (Map<ExportDataIndex, List<DataExportDTO>> dataByIndex : dataByIndexAndInstant.values()) {
+            exportWriter.writeWideRows(dataByIndex);
+        }
+    }
+
     public List<ProvenanceModel> searchUsedProvenances(
             List<URI> experiments,
             List<URI> targets,
@@ -424,7 +526,7 @@ public class DataLogic {
      */
     public DeleteResult deleteManyByFilter(DataSearchFilter filter) throws Exception {
         return new SparqlMongoTransaction(sparql, nosql.getServiceV2()).execute(session -> {
-            DeleteResult deleteResult = dao.deleteMany(filter);
+            DeleteResult deleteResult = dao.deleteManyByFilter(session, filter);
             //If no batch was passed or if nothing was deleted we do not need to handle deletion of the batch.
             if(filter.getBatchUri() == null || deleteResult.getDeletedCount() == 0){
                 return deleteResult;
@@ -568,13 +670,19 @@ public class DataLogic {
         DataComputedGetDTO lastData = dao.getLastDataFound(getLastFoundDataFilter);
         dto.setLastData(lastData);
 
+        // Read hourly and daily aggregates from rollups once they are built, else aggregate the raw data
+        DataRollupDAO rollupDAO = new DataRollupDAO(nosql.getDatabase());
+        boolean useRollups = rollupDAO.isBuilt();
+
         /// Retrieve median series
         start = Instant.now();
-        List<DataComputedModel> dataModels = dao.computeAllMediansPerHour(
-                facilityUri,
-                variableUri,
-                startInstant,
-                endInstant);
+        List<DataComputedModel> dataModels = useRollups ?
+                rollupDAO.getMediansPerHour(facilityUri, variableUri, startInstant, endInstant) :
+                dao.computeAllMediansPerHour(
+                        facilityUri,
+                        variableUri,
+                        startInstant,
+                        endInstant);
         end = Instant.now();
         logger.debug(dataModels.size() + " data retrieved from mongo : " + Long.toString(Duration.between(start, end).toMillis()) + " milliseconds elapsed");
 
@@ -585,6 +693,18 @@ public class DataLogic {
 
         provenancesMap = dataModels.stream().collect(Collectors.groupingBy(DataComputedModel::getProvenance));
 
+        // Resolve the names of all series at once
+        DataReferenceResolver resolver = new DataReferenceResolver(sparql, nosql, fs, user);
+        for (DataProvenanceModel dataProvModel : provenancesMap.keySet()) {
+            List<ProvEntityModel> provEntityList = dataProvModel.getProvWasAssociatedWith();
+            if (provEntityList != null && provEntityList.size() == 1) {
+                resolver.collectAgent(provEntityList.get(0).getUri());
+            } else {
+                resolver.collectProvenance(dataProvModel.getUri());
+            }
+        }
+        resolver.resolve();
+
         for (Map.Entry<DataProvenanceModel, List<DataComputedModel>> entryProv : provenancesMap.entrySet()) {
 
             List<DataComputedModel> medianSerie = entryProv.getValue()
@@ -600,7 +720,7 @@ public class DataLogic {
 
             medians.addAll(medianSerie);
 
-            DataSimpleProvenanceGetDTO provenance = createDataSimpleProvenance(entryProv.getKey());
+            DataSimpleProvenanceGetDTO provenance = createDataSimpleProvenance(entryProv.getKey(), resolver);
 
             List<DataComputedGetDTO> medianSerieDTO = medianSerie.stream()
                     .map(DataComputedGetDTO::getDtoFromModel)
@@ -634,11 +754,13 @@ public class DataLogic {
             DataSimpleProvenanceGetDTO provAverage = new DataSimpleProvenanceGetDTO();
             provAverage.setName("mean_per_day");
 
-            List<DataComputedModel> averageSerie = dao.computeAllMeanPerDay(
-                    facilityUri,
-                    variableUri,
-                    startInstant,
-                    endInstant);
+            List<DataComputedModel> averageSerie = useRollups ?
+                    rollupDAO.getMeansPerDay(facilityUri, variableUri, startInstant, endInstant) :
+                    dao.computeAllMeanPerDay(
+                            facilityUri,
+                            variableUri,
+                            startInstant,
+                            endInstant);
             List<DataComputedGetDTO> averageSerieDtos = averageSerie
                     .stream()
                     .map((d) -> DataComputedGetDTO.getDtoFromModel(d))
@@ -829,10 +951,11 @@ public class DataLogic {
      *  if there is one agent (device or operator), retrieve the uri and name of the agent
      *  otherwise, take the uri and name from the provenance model
      * @param dataProvModel
+     * @param resolver resolver of the agents and provenances, already resolved
      * @return a simple data provenance with uri and name attributes
      * @throws Exception
      */
-    private DataSimpleProvenanceGetDTO createDataSimpleProvenance(DataProvenanceModel dataProvModel)
+    private DataSimpleProvenanceGetDTO createDataSimpleProvenance(DataProvenanceModel dataProvModel, DataReferenceResolver resolver)
             throws Exception {
         DataSimpleProvenanceGetDTO dto = new DataSimpleProvenanceGetDTO();
 
@@ -841,10 +964,15 @@ public class DataLogic {
         if (provEntityList != null && provEntityList.size() == 1) {
             URI uri = provEntityList.get(0).getUri();
             dto.setUri(uri);
-            dto.setName(new OntologyDAO(sparql).getURILabel(uri, user.getLanguage()));
+            String name = resolver.getAgentName(uri);
+            // The batch query only finds agents with a typed label, fallback on the single label
+            dto.setName(name != null ? name : new OntologyDAO(sparql).getURILabel(uri, user.getLanguage()));
         }
         else {
-            ProvenanceModel provModel = new ProvenanceDaoV2(nosql.getServiceV2()).get(dataProvModel.getUri());
+            ProvenanceModel provModel = resolver.getProvenances().get(dataProvModel.getUri());
+            if (provModel == null) {
+                throw new NoSQLInvalidURIException(dataProvModel.getUri());
+            }
             dto.setUri(provModel.getUri());
             dto.setName(provModel.getName());
         }
@@ -0,0 +1,240 @@
+//******************************************************************************
+//                          DataReferenceResolver.java
+// OpenSILEX - Licence AGPL V3.0 - https://www.gnu.org/licenses/agpl-3.0.en.html
+// Copyright © INRAE 2024
+// Contact: anne.tireau@inrae.fr, pascal.neveu@inrae.fr
+//******************************************************************************
+package org.opensilex.core.data.bll;
+
+import org.opensilex.core.data.dal.DataModel;
+import org.opensilex.core.experiment.dal.ExperimentModel;
+import org.opensilex.core.provenance.dal.ProvenanceDaoV2;
+import org.opensilex.core.provenance.dal.ProvenanceModel;
+import org.opensilex.core.variable.dal.VariableDAO;
+import org.opensilex.core.variable.dal.VariableModel;
+import org.opensilex.fs.service.FileStorageService;
+import org.opensilex.nosql.mongodb.MongoDBService;
+import org.opensilex.security.account.dal.AccountModel;
+import org.opensilex.sparql.deserializer.SPARQLDeserializers;
+import org.opensilex.sparql.model.SPARQLNamedResourceModel;
+import org.opensilex.sparql.ontology.dal.OntologyDAO;
+import org.opensilex.sparql.service.SPARQLService;
+import org.opensilex.utils.ThrowingFunction;
+
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * <pre>
+ * Resolve the resources referenced by data (variables, targets, agents, provenances and experiments) for a whole
+ * page of data, instead of one lookup per data.
+ *
+ * - URIs are first collected from the data with {@link #collect(DataModel)}.
+ * - {@link #resolve()} then fetches each kind of resource with one query : a VALUES clause for SPARQL resources and
+ *   an $in filter for provenances.
+ * - Resolved resources, and URIs without resource, are kept by the resolver : a URI collected again is not fetched
+ *   a second time. An instance must only be used during a single request, by a single user.
+ * </pre>
+ */
+public class DataReferenceResolver {
+
+    private final SPARQLService sparql;
+    private final MongoDBService nosql;
+    private final FileStorageService fs;
+    private final AccountModel user;
+
+    /**
+     * Graph of target labels, null to search labels in all graphs
+     */
+    private URI targetContext;
+
+    /**
+     * Variables are registered by short URI, as they are referenced by data
+     */
+    private final References<VariableModel> variables = new References<>();
+    private final References<SPARQLNamedResourceModel> targets = new References<>();
+    private final References<SPARQLNamedResourceModel> agents = new References<>();
+    private final References<ProvenanceModel> provenances = new References<>();
+    private final References<ExperimentModel> experiments = new References<>();
+
+    public DataReferenceResolver(SPARQLService sparql, MongoDBService nosql, FileStorageService fs, AccountModel user) {
+        this.sparql = sparql;
+        this.nosql = nosql;
+        this.fs = fs;
+        this.user = user;
+    }
+
+    /**
+     * @param targetContext graph of target labels (an experiment), null to search labels in all graphs
+     * @return this resolver
+     */
+    public DataReferenceResolver setTargetContext(URI targetContext) {
+        this.targetContext = targetContext;
+        return this;
+    }
+
+    /**
+     * Collect variable, target, provenance and experiments of a data
+     *
+     * @param data data to resolve
+     * @return this resolver
+     */
+    public DataReferenceResolver collect(DataModel data) {
+        variables.collect(data.getVariable());
+        targets.collect(data.getTarget());
+        if (data.getProvenance() != null) {
+            provenances.collect(data.getProvenance().getUri());
+            if (data.getProvenance().getExperiments() != null) {
+                data.getProvenance().getExperiments().forEach(experiments::collect);
+            }
+        }
+        return this;
+    }
+
+    public DataReferenceResolver collectAll(Collection<? extends DataModel> dataList) {
+        dataList.forEach(this::collect);
+        return this;
+    }
+
+    public DataReferenceResolver collectVariables(Collection<URI> variableUris) {
+        variableUris.forEach(variables::collect);
+        return this;
+    }
+
+    public DataReferenceResolver collectProvenance(URI provenanceUri) {
+        provenances.collect(provenanceUri);
+        return this;
+    }
+
+    /**
+     * @param agentUri URI of a device or an operator, only its label is resolved
+     * @return this resolver
+     */
+    public DataReferenceResolver collectAgent(URI agentUri) {
+        agents.collect(agentUri);
+        return this;
+    }
+
+    /**
+     * Fetch all collected resources which are not resolved yet, with at most one query by kind of resource
+     *
+     * @throws Exception if a query fails
+     */
+    public void resolve() throws Exception {
+        variables.resolve(
+                uris -> new VariableDAO(sparql, nosql, fs, user).getList(uris),
+                variable -> new URI(SPARQLDeserializers.getShortURI(variable.getUri()))
+        );
+        targets.resolve(
+                uris -> new OntologyDAO(sparql).getURILabels(uris, user.getLanguage(), targetContext),
+                SPARQLNamedResourceModel::getUri
+        );
+        agents.resolve(
+                uris -> new OntologyDAO(sparql).getURILabels(uris, user.getLanguage(), null),
+                SPARQLNamedResourceModel::getUri
+        );
+        provenances.resolve(
+                uris -> new ProvenanceDaoV2(nosql.getServiceV2()).findByUris(uris.stream(), uris.size()),
+                ProvenanceModel::getUri
+        );
+        experiments.resolve(
+                uris -> sparql.getListByURIs(ExperimentModel.class, uris, user.getLanguage()),
+                ExperimentModel::getUri
+        );
+    }
+
+    /**
+     * @return resolved variables, by short URI
+     */
+    public Map<URI, VariableModel> getVariables() {
+        return variables.resolved;
+    }
+
+    /**
+     * @return resolved targets, by URI
+     */
+    public Map<URI, SPARQLNamedResourceModel> getTargets() {
+        return targets.resolved;
+    }
+
+    /**
+     * @return resolved provenances, by URI
+     */
+    public Map<URI, ProvenanceModel> getProvenances() {
+        return provenances.resolved;
+    }
+
+    /**
+     * @return resolved experiments, by URI
+     */
+    public Map<URI, ExperimentModel> getExperiments() {
+        return experiments.resolved;
+    }
+
+    /**
+     * @param agentUri URI of a device or an operator
+     * @return the resolved label of the agent, or null if unknown
+     */
+    public String getAgentName(URI agentUri) {
+        SPARQLNamedResourceModel agent = agents.resolved.get(agentUri);
+        return agent == null ? null : agent.getName();
+    }
+
+    /**
+     * Forget resolved targets, which are the only references growing with the number of data
+     */
+    public void clearTargets() {
+        targets.clear();
+    }
+
+    /**
+     * Resolved, missing and pending URIs of one kind of resource
+     */
+    private static class References<T> {
+
+        private final Map<URI, T> resolved = new HashMap<>();
+
+        /**
+         * URIs already searched without result
+         */
+        private final Set<URI> missing = new HashSet<>();
+
+        /**
+         * URIs collected since the last resolution
+         */
+        private final Set<URI> pending = new HashSet<>();
+
+        private void collect(URI uri) {
+            if (uri != null && !resolved.containsKey(uri) && !missing.contains(uri)) {
+                pending.add(uri);
+            }
+        }
+
+        private void resolve(ThrowingFunction<List<URI>, Collection<T>, Exception> fetcher, ThrowingFunction<T, URI, Exception> keyFunction) throws Exception {
+            if (pending.isEmpty()) {
+                return;
+            }
+            for (T model : fetcher.apply(new ArrayList<>(pending))) {
+                resolved.put(keyFunction.apply(model), model);
+            }
+            for (URI uri : pending) {
+                if (!resolved.containsKey(uri)) {
+                    missing.add(uri);
+                }
+            }
+            pending.clear();
+        }
+
+        private void clear() {
+            resolved.clear();
+            missing.clear();
+            pending.clear();
+        }
+    }
+}
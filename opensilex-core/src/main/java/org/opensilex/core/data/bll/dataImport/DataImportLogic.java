@@ -2,6 +2,7 @@ package org.opensilex.core.data.bll.dataImport;
 
 import com.github.benmanes.caffeine.cache.Cache;
 import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.RemovalCause;
 import com.mongodb.MongoBulkWriteException;
 import com.mongodb.MongoCommandException;
 import com.mongodb.bulk.BulkWriteError;
@@ -10,6 +11,7 @@ import com.univocity.parsers.csv.CsvParserSettings;
 import org.apache.commons.lang3.StringUtils;
 import org.apache.jena.graph.Node;
 import org.apache.jena.vocabulary.OA;
+import org.opensilex.OpenSilex;
 import org.opensilex.core.annotation.dal.AnnotationModel;
 import org.opensilex.core.annotation.dal.MotivationModel;
 import org.opensilex.core.data.api.DataAPI;
@@ -45,6 +47,7 @@ import org.opensilex.nosql.exceptions.NoSQLTooLargeSetException;
 import org.opensilex.nosql.mongodb.MongoDBService;
 import org.opensilex.security.account.dal.AccountModel;
 import org.opensilex.server.exceptions.NotFoundURIException;
+import org.opensilex.service.execution.ExecutionService;
 import org.opensilex.sparql.csv.CSVCell;
 import org.opensilex.sparql.csv.CSVValidationModel;
 import org.opensilex.sparql.deserializer.SPARQLDeserializers;
@@ -86,6 +89,7 @@ public class DataImportLogic {
     public static final String UNDERSCORE = "_";
     public static final String DATE_FORMAT = "yyyyMMddHHmmss";
     public static final String EMPTY_CSV_FILE_ERROR_MSG = "No data imported: The CSV file contains no rows to process";
+    public static final String ROW_VALIDATION_FAILED = "ROW_VALIDATION_FAILED";
     public static final String ZIP_EXTENSION = ".zip";
     public static final String CSV_EXTENSION = ".csv";
     public static final String ZIP = "zip";
@@ -95,6 +99,22 @@ public class DataImportLogic {
     public static final String TEMP_FILE_PREFIX = "uploaded_csv_";
     public static final int NB_THREADS = 5;
 
+    /**
+     * Number of CSV rows validated by a task
+     */
+    public static final int VALIDATION_BATCH_SIZE = 500;
+
+    /**
+     * Max number of batches of an import being validated or waiting for validation, bounds the number of rows in memory
+     */
+    private static final int MAX_PENDING_VALIDATION_BATCHES = NB_THREADS * 2;
+
+    /**
+     * Number of data read from disk and inserted at once. The file is read by batches, so the number of rows of an import
+     * is not limited by {@link DataAPI#SIZE_MAX}.
+     */
+    public static final int INSERTION_BATCH_SIZE = 1000;
+
 
     //Private stored data
     private Map<URI, URI> rootDeviceTypes = null;
@@ -116,6 +136,11 @@ public class DataImportLogic {
     private final BatchHistoryDao batchHistoryDao;
     private static final Cache<String, DataCSVValidationModel> csvValidationModelCache = Caffeine.newBuilder()
             .expireAfterWrite(5, TimeUnit.MINUTES)
+            .removalListener((String key, DataCSVValidationModel validation, RemovalCause cause) -> {
+                if (validation != null && validation.getSpillFile() != null) {
+                    validation.getSpillFile().delete();
+                }
+            })
             .build();
 
     /**
@@ -343,6 +368,8 @@ public class DataImportLogic {
     ) throws Exception {
         handleDataInsertion(validation, dataLogicWithSession);
         removeValidationDataInCacheBy(validationKey);
+        // The validation may have been cached under a new key by this request, its data file is deleted with it
+        removeValidationDataInCacheBy(validation.getValidationKey());
     }
 
     private void removeValidationDataInCacheBy(String key) {
@@ -381,6 +408,13 @@ public class DataImportLogic {
         // Set generate and set validationKey for whole csv into the cache
         String validationKey = generateValidationKey();
         validation.setValidationKey(validationKey);
+        if (validation.getSpillFile() != null) {
+            try {
+                validation.getSpillFile().rename(validationKey);
+            } catch (IOException e) {
+                LOGGER.warn("Failed to rename data import file {} : {}", validation.getSpillFile().getPath(), e.getMessage());
+            }
+        }
         csvValidationModelCache.put(validationKey, validation);
     }
 
@@ -410,8 +444,6 @@ public class DataImportLogic {
         csvValidation.setFileName(fileName);
         Map<Integer, String> headerByIndex = new HashMap<>();
 
-        List<String[]> allRows = new ArrayList<>();
-
         // prepare each context with own attributes
         ExperimentContext experimentContext = ExperimentContext.buildExperimentContext(experiment);
         DeviceContext deviceContext = new DeviceContext();
@@ -422,6 +454,10 @@ public class DataImportLogic {
         // checking device type for agent
         boolean sensingDeviceFoundFromProvenance = isSensingDeviceFoundFromProvenance(provenance, deviceDAO);
 
+        // Validated data are stored on disk until the insertion step
+        DataSpillFile spillFile = DataSpillFile.create(TEMP_FILE_PREFIX + user.getName());
+        boolean keepSpillFile = false;
+
         // Start csv processing
         try (Reader inputReader = new InputStreamReader(file, StandardCharsets.UTF_8)) {
             CsvParserSettings csvParserSettings = ClassUtils.getCSVParserDefaultSettings();
@@ -445,37 +481,33 @@ public class DataImportLogic {
             // SKip line 3
             csvReader.parseNext();
 
-            // Line 4 start rows validation
-            String[] values;
-            while ((values = csvReader.parseNext()) != null) {
-                allRows.add(values);
-            }
+            // Line 4 start rows validation, rows are validated in parallel while they are read
+            int nbRows = validateCSVRowsInParallel(provenance, dataProvUsed, csvReader, sensingDeviceFoundFromProvenance,
+                    headerByIndex, experimentContext, targetContext, deviceContext, daoContext, csvValidation, spillFile);
 
             // check csv file contains values to process
-            if (allRows.isEmpty()) {
+            if (nbRows == 0) {
                 csvValidation.setValidCSV(false);
                 csvValidation.setNbLinesToImport(0);
                 csvValidation.setErrorMessage(EMPTY_CSV_FILE_ERROR_MSG);
                 return csvValidation;
             }
 
-            // Check for too large dataset
-            if (allRows.size() > DataAPI.SIZE_MAX) {
-                csvValidation.setValidCSV(false);
-                csvValidation.setTooLargeDataset(true);
-                csvValidation.setNbLinesToImport(allRows.size());
-                return csvValidation;
-            }
-        }
-
-        // start rows processing in parallel
-        validateCSVRowsInParallel(provenance, dataProvUsed, allRows, sensingDeviceFoundFromProvenance,
-                headerByIndex, experimentContext, targetContext, deviceContext, daoContext, csvValidation);
+            spillFile.finish();
 
-        // Set nb lines to import
-        csvValidation.setNbLinesToImport(csvValidation.getData().size());
+            // Set nb lines to import
+            csvValidation.setNbLinesToImport(spillFile.size());
 
-        return csvValidation;
+            if (!csvValidation.hasErrors()) {
+                csvValidation.setSpillFile(spillFile);
+                keepSpillFile = true;
+            }
+            return csvValidation;
+        } finally {
+            if (!keepSpillFile) {
+                spillFile.delete();
+            }
+        }
     }
 
     private void setHeadersLabels(DataCSVValidationModel csvValidation, String[] ids, CsvParser csvReader) {
@@ -518,16 +550,17 @@ public class DataImportLogic {
 
     /**
      * Validates rows of a CSV file in parallel using a multithreaded approach.
-     * This method divides the rows into batches, processes each batch concurrently,
-     * and merges the results into a shared {@code DataCSVValidationModel} instance.
+     * Rows are read by batches, each batch is validated by the shared validation pool, and the results are merged
+     * into a shared {@code DataCSVValidationModel} instance.
      *
-     * <p>This method is designed for efficiency and scalability, particularly when working with large datasets.
-     * It uses a fixed thread pool executor to manage concurrent tasks and ensures proper merging of validation
-     * results across threads.</p>
+     * <p>This method is designed for large datasets : only a bounded number of batches are kept in memory, and the
+     * validated data of each batch are written to the {@code spillFile} instead of being merged. Batches are run by
+     * the shared IO pool of the {@link ExecutionService}, when it is saturated batches are validated by the calling
+     * thread.</p>
      *
      * @param provenance                       the {@code ProvenanceModel} containing metadata related to the provenance of the data.
      * @param dataProvUsed                     an URI of a datafile to be linked to the data
-     * @param allRows                          a list of all rows from the CSV file, where each row is represented as a {@code String[]} array.
+     * @param csvReader                        the CSV parser, positioned on the first row to validate.
      * @param sensingDeviceFoundFromProvenance a boolean indicating if the sensing device is derived from the provenance data.
      * @param headerByIndex                    a map of column indexes to their corresponding header names.
      * @param experimentContext                the context for validating experiment-related data.
@@ -535,59 +568,140 @@ public class DataImportLogic {
      * @param deviceContext                    the context for validating device-related data.
      * @param daoContext                       the DAO context for database-related operations.
      * @param csvValidation                    the {@code DataCSVValidationModel} to which validation results will be merged.
-     * @throws InterruptedException if thread execution is interrupted while awaiting termination.
+     * @param spillFile                        the file where validated data are written.
+     * @return the number of rows of the file
+     * @throws IOException if validated data can't be written
      */
-    private void validateCSVRowsInParallel(ProvenanceModel provenance, ProvEntityModel dataProvUsed, List<String[]> allRows,
-                                           boolean sensingDeviceFoundFromProvenance, Map<Integer, String> headerByIndex,
-                                           ExperimentContext experimentContext, TargetContext targetContext, DeviceContext deviceContext,
-                                           DAOContext daoContext, DataCSVValidationModel csvValidation) throws InterruptedException {
-
-        List<Future<DataCSVValidationModel>> futures = new ArrayList<>();
-        ExecutorService executor = Executors.newFixedThreadPool(NB_THREADS);
-        int totalRows = allRows.size();
-        int batchSize = determineBatchSize(totalRows);
-        int numberOfBatches = (int) Math.ceil((double) totalRows / batchSize);
+    private int validateCSVRowsInParallel(ProvenanceModel provenance, ProvEntityModel dataProvUsed, CsvParser csvReader,
+                                          boolean sensingDeviceFoundFromProvenance, Map<Integer, String> headerByIndex,
+                                          ExperimentContext experimentContext, TargetContext targetContext, DeviceContext deviceContext,
+                                          DAOContext daoContext, DataCSVValidationModel csvValidation, DataSpillFile spillFile) throws IOException {
+
+        ExecutorService executor = getValidationExecutor();
+        Deque<PendingBatch> pendingBatches = new ArrayDeque<>();
         AtomicInteger nbError = new AtomicInteger();
         AtomicBoolean stopProcessing = new AtomicBoolean(false);
-
+        List<String[]> batch = new ArrayList<>(VALIDATION_BATCH_SIZE);
+        int nbRows = 0;
 
         try {
-            // Process each batch in a separate thread
-            for (int i = 0; i < numberOfBatches && !stopProcessing.get(); i++) {
-                int start = i * batchSize;
-                int end = Math.min(start + batchSize, totalRows);
-                List<String[]> batch = allRows.subList(start, end);
-
-                futures.add(executor.submit(() ->
-                        processBatch(provenance, dataProvUsed, sensingDeviceFoundFromProvenance, headerByIndex,
-                                experimentContext, targetContext, deviceContext, daoContext, start, batch, stopProcessing, nbError, csvValidation)));
-            }
+            String[] values;
+            while ((values = csvReader.parseNext()) != null) {
+                nbRows++;
+                if (stopProcessing.get()) {
+                    continue;
+                }
+                batch.add(values);
 
-            // Collect results from all threads
-            for (Future<DataCSVValidationModel> future : futures) {
-                try {
-                    // Merge results into the final model
-                    csvValidation.merge(future.get());
-                } catch (InterruptedException e) {
-                    LOGGER.error("Thread execution failed: ", e);
-                } catch (ExecutionException e) {
-                    Thread.currentThread().interrupt();
-                    LOGGER.error("Thread interrupted: ", e);
+                if (batch.size() == VALIDATION_BATCH_SIZE) {
+                    pendingBatches.add(submitBatch(executor, provenance, dataProvUsed, sensingDeviceFoundFromProvenance, headerByIndex,
+                            experimentContext, targetContext, deviceContext, daoContext, nbRows - batch.size(), batch, stopProcessing, nbError, csvValidation));
+                    batch = new ArrayList<>(VALIDATION_BATCH_SIZE);
+
+                    // Wait for the oldest batches, so that rows are not read faster than they are validated
+                    while (pendingBatches.size() >= MAX_PENDING_VALIDATION_BATCHES) {
+                        collectBatch(pendingBatches.poll(), csvValidation, spillFile);
+                    }
                 }
             }
+
+            if (!batch.isEmpty() && !stopProcessing.get()) {
+                pendingBatches.add(submitBatch(executor, provenance, dataProvUsed, sensingDeviceFoundFromProvenance, headerByIndex,
+                        experimentContext, targetContext, deviceContext, daoContext, nbRows - batch.size(), batch, stopProcessing, nbError, csvValidation));
+            }
+
+            // Collect results from remaining batches
+            while (!pendingBatches.isEmpty()) {
+                collectBatch(pendingBatches.poll(), csvValidation, spillFile);
+            }
         } finally {
-            executor.shutdown();
-            if (!executor.awaitTermination(60, TimeUnit.SECONDS)
-            ) {
-                executor.shutdownNow();
+            pendingBatches.forEach(pendingBatch -> pendingBatch.validation.cancel(true));
+        }
+        return nbRows;
+    }
+
+    /**
+     * @return the shared IO pool of the execution service, or null if the service is not available. In this case,
+     * batches are validated by the calling thread.
+     */
+    private ExecutorService getValidationExecutor() {
+        OpenSilex opensilex = sparql.getOpenSilex();
+        ExecutionService executionService = opensilex == null ? null : opensilex.getServiceInstance(ExecutionService.DEFAULT_SERVICE, ExecutionService.class);
+        if (executionService == null) {
+            return null;
+        }
+        return executionService.getIoPool();
+    }
+
+    /**
+     * Submit the validation of a batch to the executor, so that the pool counts failed validations. The batch is
+     * validated by the calling thread if there is no executor or if the pool is saturated.
+     */
+    private PendingBatch submitBatch(ExecutorService executor, ProvenanceModel provenance, ProvEntityModel dataProvUsed,
+                                                       boolean sensingDeviceFoundFromProvenance, Map<Integer, String> headerByIndex,
+                                                       ExperimentContext experimentContext, TargetContext targetContext, DeviceContext deviceContext,
+                                                       DAOContext daoContext, int start, List<String[]> batch, AtomicBoolean stopProcessing,
+                                                       AtomicInteger nbError, DataCSVValidationModel csvValidation) {
+        Callable<DataCSVValidationModel> validation = () ->
+                processBatch(provenance, dataProvUsed, sensingDeviceFoundFromProvenance, headerByIndex,
+                        experimentContext, targetContext, deviceContext, daoContext, start, batch, stopProcessing, nbError, csvValidation);
+        if (executor != null) {
+            try {
+                return new PendingBatch(start, batch.size(), executor.submit(validation));
+            } catch (RejectedExecutionException e) {
+                // The pool is saturated, the batch is validated by the request thread
             }
         }
+        FutureTask<DataCSVValidationModel> task = new FutureTask<>(validation);
+        task.run();
+        return new PendingBatch(start, batch.size(), task);
+    }
+
+    /**
+     * Wait for the validation of a batch, write its data to the spill file and merge its errors into the final model.
+     * If the validation of the batch failed, each row of the batch is reported as an error, so that the import can't be
+     * confirmed without these rows.
+     */
+    private void collectBatch(PendingBatch pendingBatch, DataCSVValidationModel csvValidation, DataSpillFile spillFile) throws IOException {
+        try {
+            DataCSVValidationModel batchValidation = pendingBatch.validation.get();
+            spillFile.append(batchValidation.getData());
+            batchValidation.getData().clear();
+
+            // Merge results into the final model
+            csvValidation.merge(batchValidation);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            LOGGER.error("Thread interrupted: ", e);
+            addFailedBatchErrors(pendingBatch, csvValidation);
+        } catch (ExecutionException e) {
+            LOGGER.error("Validation of rows {} to {} failed: ", pendingBatch.start, pendingBatch.start + pendingBatch.size - 1, e.getCause());
+            addFailedBatchErrors(pendingBatch, csvValidation);
+        }
     }
 
-    private int determineBatchSize(int totalRows) {
-        return Math.max(200, totalRows / NB_THREADS);
+    private static void addFailedBatchErrors(PendingBatch pendingBatch, DataCSVValidationModel csvValidation) {
+        DataCSVValidationModel batchErrors = new DataCSVValidationModel();
+        for (int rowIndex = pendingBatch.start; rowIndex < pendingBatch.start + pendingBatch.size; rowIndex++) {
+            batchErrors.addInvalidValueError(new CSVCell(rowIndex, 0, null, ROW_VALIDATION_FAILED));
+        }
+        csvValidation.merge(batchErrors);
     }
 
+    /**
+     * Validation of a batch of rows, which starts at the row index {@code start}
+     */
+    private static final class PendingBatch {
+        private final int start;
+        private final int size;
+        private final Future<DataCSVValidationModel> validation;
+
+        private PendingBatch(int start, int size, Future<DataCSVValidationModel> validation) {
+            this.start = start;
+            this.size = size;
+            this.validation = validation;
+        }
+    }
 
     private DataCSVValidationModel processBatch(
             ProvenanceModel provenance,
@@ -1263,21 +1377,38 @@ public class DataImportLogic {
         Instant startTime = Instant.now();
         // Create batch history model to track data insertion
         BatchHistoryModel batchHistoryModel = createBatchHistoryModel(startTime);
-        List<DataModel> data = new ArrayList<>(validation.getData().keySet());
+        List<DataModel> data = new ArrayList<>();
+        List<Integer> rowIndexes = new ArrayList<>();
 
         try {
             //Insert batch history
             batchHistoryDao.create(batchHistoryModel);
-            // Set batchUri and publicationDate for the data
-            setBatchUriAndPublicationDateToData(batchHistoryModel.getUri(), startTime, data);
-            dataLogicWithSession.createManyFromImport(data, validation);
+
+            int nbLinesImported = 0;
+            if (validation.getSpillFile() == null) {
+                validation.getData().forEach((dataModel, rowIndex) -> {
+                    data.add(dataModel);
+                    rowIndexes.add(rowIndex);
+                });
+                nbLinesImported = insertDataBatch(data, batchHistoryModel.getUri(), startTime, validation, true, dataLogicWithSession);
+            } else {
+                // Read validated data from disk, only one batch is kept in memory
+                try (DataSpillFile.Reader reader = validation.getSpillFile().openReader()) {
+                    boolean firstBatch = true;
+                    while (reader.readBatch(INSERTION_BATCH_SIZE, data, rowIndexes)) {
+                        nbLinesImported += insertDataBatch(data, batchHistoryModel.getUri(), startTime, validation, firstBatch, dataLogicWithSession);
+                        firstBatch = false;
+                    }
+                }
+            }
+            validation.setNbLinesImported(nbLinesImported);
             validation.setBatchHistoryUri(batchHistoryModel.getUri());
             validation.setInsertionStep(true);
             validation.setValidCSV(!validation.hasErrors());
         } catch (NoSQLTooLargeSetException ex) {
             validation.setTooLargeDataset(true);
         } catch (MongoBulkWriteException duplicateError) {
-            handleBulkWriteErrors(duplicateError, validation, data);
+            handleBulkWriteErrors(duplicateError, validation, data, rowIndexes);
         } catch (MongoCommandException e) {
             addUnknownDuplicateError(validation);
         } catch (DataTypeException e) {
@@ -1286,6 +1417,26 @@ public class DataImportLogic {
         LOGGER.debug("[importCsvInsertionStep] Completed insertion in {} milliseconds", Duration.between(startTime, Instant.now()).toMillis());
     }
 
+    /**
+     * Insert a batch of validated data
+     *
+     * @param withAnnotations true if the annotations on objects of the import must be created with this batch
+     * @return the number of inserted data
+     */
+    private int insertDataBatch(List<DataModel> data, URI batchUri, Instant startTime, DataCSVValidationModel validation,
+                                boolean withAnnotations, DataLogic dataLogicWithSession) throws Exception {
+        // Set batchUri and publicationDate for the data
+        setBatchUriAndPublicationDateToData(batchUri, startTime, data);
+
+        DataCSVValidationModel batchValidation = new DataCSVValidationModel();
+        batchValidation.setVariablesToDevices(validation.getVariablesToDevices());
+        if (withAnnotations) {
+            batchValidation.getAnnotationsOnObjects().addAll(validation.getAnnotationsOnObjects());
+        }
+        dataLogicWithSession.createManyFromImport(data, batchValidation);
+        return data.size();
+    }
+
     private BatchHistoryModel createBatchHistoryModel(Instant startTime) {
         BatchHistoryModel batchHistoryModel = new BatchHistoryModel();
         batchHistoryModel.setPublicationDate(startTime);
@@ -1300,7 +1451,7 @@ public class DataImportLogic {
         });
     }
 
-    private void handleBulkWriteErrors(MongoBulkWriteException duplicateError, DataCSVValidationModel validation, List<DataModel> data) {
+    private void handleBulkWriteErrors(MongoBulkWriteException duplicateError, DataCSVValidationModel validation, List<DataModel> data, List<Integer> rowIndexes) {
         for (BulkWriteError bulkError : duplicateError.getWriteErrors()) {
             int index = bulkError.getIndex();
             DataModel dataModel = data.get(index);
@@ -1308,7 +1459,7 @@ public class DataImportLogic {
             String variableName = buildVariableName(validation, variableIndex);
 
             CSVCell csvCell = new CSVCell(
-                    validation.getData().get(data.get(index)),
+                    rowIndexes.get(index),
                     variableIndex,
                     dataModel.getValue().toString(),
                     variableName
@@ -0,0 +1,53 @@
+//******************************************************************************
+//                          DataCommands.java
+// OpenSILEX - Licence AGPL V3.0 - https://www.gnu.org/licenses/agpl-3.0.en.html
+// Copyright © INRAE 2024
+// Contact: anne.tireau@inrae.fr, pascal.neveu@inrae.fr
+//******************************************************************************
+package org.opensilex.core.data.cli;
+
+import org.opensilex.cli.AbstractOpenSilexCommand;
+import org.opensilex.cli.HelpOption;
+import org.opensilex.cli.OpenSilexCommand;
+import org.opensilex.core.data.dal.DataRollupDAO;
+import org.opensilex.nosql.mongodb.MongoDBService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import picocli.CommandLine;
+import picocli.CommandLine.Command;
+
+import java.time.Duration;
+import java.time.Instant;
+
+/**
+ * Subcommands to group data operations
+ */
+@Command(
+        name = "data",
+        header = "Subcommand to group OpenSILEX data operations"
+)
+public class DataCommands extends AbstractOpenSilexCommand implements OpenSilexCommand {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(DataCommands.class);
+
+    /**
+     * Rebuild the hourly and daily rollups of all data series from the raw data
+     *
+     * @param help Helper to generate automatically command help message
+     * @throws Exception if command fail
+     */
+    @Command(
+            name = "rebuild-rollups",
+            header = "Rebuild data rollups",
+            description = "Rebuild the hourly and daily aggregates of each data series, used to display facility environmental series"
+    )
+    public void rebuildRollups(
+            @CommandLine.Mixin HelpOption help
+    ) throws Exception {
+        MongoDBService nosql = getOpenSilex().getServiceInstance(MongoDBService.DEFAULT_SERVICE, MongoDBService.class);
+
+        Instant start = Instant.now();
+        int seriesCount = new DataRollupDAO(nosql.getDatabase()).rebuildAll();
+        LOGGER.info("Data rollups rebuilt for {} series in {} ms", seriesCount, Duration.between(start, Instant.now()).toMillis());
+    }
+}
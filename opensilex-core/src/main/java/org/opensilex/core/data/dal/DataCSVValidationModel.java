@@ -26,6 +26,12 @@ public class DataCSVValidationModel extends CSVValidationModel {
     @JsonIgnore()
     private Map<DeviceModel, List<URI>> variablesToDevices = new HashMap<>();
 
+    /**
+     * Validated data stored on disk until the insertion step, {@link #data} is empty when set
+     */
+    @JsonIgnore()
+    private DataSpillFile spillFile;
+
     private Map<Integer, List<CSVCell>> invalidObjectErrors = new HashMap<>();
     private Map<Integer, List<CSVCell>> invalidAnnotationErrors = new HashMap<>();
     private Map<Integer, List<CSVCell>> invalidTargetErrors = new HashMap<>();
@@ -177,6 +183,14 @@ public class DataCSVValidationModel extends CSVValidationModel {
         this.data.put(data, rowNumber);
     }
 
+    public DataSpillFile getSpillFile() {
+        return spillFile;
+    }
+
+    public void setSpillFile(DataSpillFile spillFile) {
+        this.spillFile = spillFile;
+    }
+
     public Map<DeviceModel, List<URI>> getVariablesToDevices() {
         return variablesToDevices;
     }
@@ -1093,7 +1093,6 @@ public class DataDAO {
         Instant provenancesTime = Instant.now();
         LOGGER.debug("Get " + listByURIs.size() + " provenance(s) " + Long.toString(Duration.between(targetTime, provenancesTime).toMillis()) + " milliseconds elapsed");
 
-        sparql.getListByURIs(ExperimentModel.class, new ArrayList<>(experiments.keySet()), user.getLanguage());
         List<ExperimentModel> listExp = sparql.getListByURIs(ExperimentModel.class, new ArrayList<>(experiments.keySet()), user.getLanguage());
         for (ExperimentModel exp : listExp) {
             experiments.put(exp.getUri(), exp);
@@ -1316,7 +1315,6 @@ public class DataDAO {
         Instant provenancesTime = Instant.now();
         LOGGER.debug("Get " + listByURIs.size() + " provenance(s) " + Long.toString(Duration.between(targetTime, provenancesTime).toMillis()) + " milliseconds elapsed");
 
-        sparql.getListByURIs(ExperimentModel.class, new ArrayList<>(experiments.keySet()), user.getLanguage());
         List<ExperimentModel> listExp = sparql.getListByURIs(ExperimentModel.class, new ArrayList<>(experiments.keySet()), user.getLanguage());
         for (ExperimentModel exp : listExp) {
             experiments.put(exp.getUri(), exp);
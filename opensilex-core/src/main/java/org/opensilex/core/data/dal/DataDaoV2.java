@@ -2,7 +2,12 @@ package org.opensilex.core.data.dal;
 
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.mongodb.MongoException;
+import com.mongodb.client.ClientSession;
 import com.mongodb.client.model.*;
+import com.mongodb.client.result.DeleteResult;
+import com.mongodb.client.result.InsertManyResult;
+import com.mongodb.client.result.InsertOneResult;
 import org.apache.commons.collections4.CollectionUtils;
 import org.bson.Document;
 import org.bson.conversions.Bson;
@@ -11,9 +16,15 @@ import org.opensilex.core.data.api.DataComputedGetDTO;
 import org.opensilex.core.data.api.SingleCriteriaDTO;
 import org.opensilex.core.data.utils.DataValidateUtils;
 import org.opensilex.core.data.utils.MathematicalOperator;
+import org.opensilex.core.metrics.dal.MetricCounterDAO;
+import org.opensilex.core.metrics.dal.MetricCounterType;
 import org.opensilex.core.variable.dal.VariableDAO;
 import org.opensilex.fs.service.FileStorageService;
+import org.opensilex.nosql.exceptions.MongoDbUniqueIndexConstraintViolation;
+import org.opensilex.nosql.exceptions.NoSQLAlreadyExistingUriException;
+import org.opensilex.nosql.exceptions.NoSQLInvalidURIException;
 import org.opensilex.nosql.mongodb.MongoDBService;
+import org.opensilex.nosql.mongodb.MongoModel;
 import org.opensilex.nosql.mongodb.dao.MongoReadWriteDao;
 import org.opensilex.security.account.dal.AccountModel;
 import org.opensilex.sparql.deserializer.SPARQLDeserializers;
@@ -21,6 +32,7 @@ import org.opensilex.sparql.deserializer.URIDeserializer;
 import org.opensilex.sparql.service.SPARQLService;
 
 import java.net.URI;
+import java.net.URISyntaxException;
 import java.time.Instant;
 import java.util.*;
 import java.util.stream.Collectors;
@@ -47,12 +59,18 @@ public class DataDaoV2 extends MongoReadWriteDao<DataModel, DataSearchFilter> {
     //Used to get indexes and filters that are all the same apart from variable stuff
     private final DataFileDaoV2 dataFileDaoV2;
 
+    private final MetricCounterDAO metricCounterDAO;
+
+    private final DataRollupDAO rollupDAO;
+
     public DataDaoV2(SPARQLService sparql, MongoDBService mongoDBService, FileStorageService fs) {
         super(mongoDBService.getServiceV2(), DataModel.class, COLLECTION_NAME, "data");
         this.sparql = sparql;
         this.dataFileDaoV2 = new DataFileDaoV2(mongoDBService, sparql, fs);
         this.mongoDBService = mongoDBService;
         this.fs = fs;
+        this.metricCounterDAO = new MetricCounterDAO(mongoDBService.getDatabase());
+        this.rollupDAO = new DataRollupDAO(mongoDBService.getDatabase());
     }
 
     /**
@@ -99,6 +117,173 @@ public class DataDaoV2 extends MongoReadWriteDao<DataModel, DataSearchFilter> {
         return bsonFilters;
     }
 
+    @Override
+    public InsertOneResult create(ClientSession session, DataModel instance) throws MongoException, MongoDbUniqueIndexConstraintViolation, URISyntaxException, NoSQLAlreadyExistingUriException {
+        InsertOneResult result = super.create(session, instance);
+        applyCountersAfterCommit(session, addDataCounterUpdates(new MetricCounterDAO.CounterUpdates(), Collections.singletonList(instance)));
+        applyRollupsAfterCommit(session, new DataRollupDAO.RollupUpdates().add(instance));
+        return result;
+    }
+
+    @Override
+    public InsertManyResult create(ClientSession session, List<DataModel> instances) throws MongoException, MongoDbUniqueIndexConstraintViolation, NoSQLAlreadyExistingUriException, URISyntaxException {
+        InsertManyResult result = super.create(session, instances);
+        applyCountersAfterCommit(session, addDataCounterUpdates(new MetricCounterDAO.CounterUpdates(), instances));
+        applyRollupsAfterCommit(session, getRollupUpdates(instances));
+        return result;
+    }
+
+    @Override
+    public DeleteResult delete(ClientSession session, URI uri) throws MongoException, NoSQLInvalidURIException {
+        MetricCounterDAO.CounterUpdates counterUpdates = getRemovedDataCounterUpdates(session, getIdFilter(uri));
+        List<DataRollupDAO.SeriesRange> seriesRanges = rollupDAO.getSeriesRanges(session, getIdFilter(uri));
+        DeleteResult result = super.delete(session, uri);
+        applyCountersAfterCommit(session, counterUpdates);
+        recomputeRollupsAfterCommit(session, seriesRanges);
+        return result;
+    }
+
+    /**
+     * Delete the data matching a filter, and update the metric counters and the rollups of the deleted data. Use this
+     * method instead of {@link #deleteMany(ClientSession, DataSearchFilter)}, which doesn't update them.
+     *
+     * @param session the session of the current transaction, if null the deletion is done inside its own transaction
+     * @param filter  the delete filter
+     * @return the result of the deletion
+     * @throws IllegalArgumentException if the filter is empty
+     */
+    public DeleteResult deleteManyByFilter(ClientSession session, DataSearchFilter filter) throws MongoException {
+        Objects.requireNonNull(filter);
+        Bson deleteFilter = deleteFilterToDocument(filter);
+
+        MetricCounterDAO.CounterUpdates counterUpdates = getRemovedDataCounterUpdates(session, deleteFilter);
+        List<DataRollupDAO.SeriesRange> seriesRanges = rollupDAO.getSeriesRanges(session, deleteFilter);
+        DeleteResult result = deleteMany(session, deleteFilter);
+        applyCountersAfterCommit(session, counterUpdates);
+        recomputeRollupsAfterCommit(session, seriesRanges);
+        return result;
+    }
+
+    @Override
+    public void update(ClientSession session, DataModel model) throws MongoException, NoSQLInvalidURIException {
+        Bson oldModelFilter = getIdFilter(model.getUri());
+        MetricCounterDAO.CounterUpdates counterUpdates = getRemovedDataCounterUpdates(session, oldModelFilter);
+        List<DataRollupDAO.SeriesRange> seriesRanges = rollupDAO.getSeriesRanges(session, oldModelFilter);
+        super.update(session, model);
+        applyCountersAfterCommit(session, addDataCounterUpdates(counterUpdates, Collections.singletonList(model)));
+        seriesRanges.addAll(DataRollupDAO.getSeriesRanges(Collections.singletonList(model)));
+        recomputeRollupsAfterCommit(session, seriesRanges);
+    }
+
+    @Override
+    public void updateMany(ClientSession session, List<DataModel> newModels) throws MongoException, NoSQLInvalidURIException {
+        if (CollectionUtils.isEmpty(newModels)) {
+            return;
+        }
+        Bson oldModelsFilter = Filters.in(idField(), newModels.stream().map(DataModel::getUri).collect(Collectors.toList()));
+        MetricCounterDAO.CounterUpdates counterUpdates = getRemovedDataCounterUpdates(session, oldModelsFilter);
+        List<DataRollupDAO.SeriesRange> seriesRanges = rollupDAO.getSeriesRanges(session, oldModelsFilter);
+        super.updateMany(session, newModels);
+        applyCountersAfterCommit(session, addDataCounterUpdates(counterUpdates, newModels));
+        seriesRanges.addAll(DataRollupDAO.getSeriesRanges(newModels));
+        recomputeRollupsAfterCommit(session, seriesRanges);
+    }
+
+    /**
+     * Apply the counter increments once the transaction of the session is committed, or immediately if there is no
+     * session since the data are already written.
+     */
+    private void applyCountersAfterCommit(ClientSession session, MetricCounterDAO.CounterUpdates counterUpdates) {
+        if (!counterUpdates.isEmpty()) {
+            mongodb.afterCommit(session, () -> metricCounterDAO.apply(counterUpdates));
+        }
+    }
+
+    /**
+     * Apply the rollup increments once the transaction of the session is committed, see
+     * {@link #applyCountersAfterCommit(ClientSession, MetricCounterDAO.CounterUpdates)}.
+     */
+    private void applyRollupsAfterCommit(ClientSession session, DataRollupDAO.RollupUpdates rollupUpdates) {
+        if (!rollupUpdates.isEmpty()) {
+            mongodb.afterCommit(session, () -> rollupDAO.apply(rollupUpdates));
+        }
+    }
+
+    /**
+     * Recompute the rollups of the series ranges once the transaction of the session is committed, so that the
+     * committed data are read.
+     */
+    private void recomputeRollupsAfterCommit(ClientSession session, List<DataRollupDAO.SeriesRange> seriesRanges) {
+        if (!seriesRanges.isEmpty()) {
+            mongodb.afterCommit(session, () -> rollupDAO.recompute(seriesRanges));
+        }
+    }
+
+    /**
+     * Add the increments of the data by variable counters, for the system and for each experiment of the data
+     *
+     * @return the given updates
+     */
+    private MetricCounterDAO.CounterUpdates addDataCounterUpdates(MetricCounterDAO.CounterUpdates updates, List<DataModel> instances) {
+        for (DataModel data : instances) {
+            List<URI> experiments = data.getProvenance() == null ? null : data.getProvenance().getExperiments();
+            updates.addWithExperiments(MetricCounterType.DATA_BY_VARIABLE, data.getVariable(), experiments, 1);
+        }
+        return updates;
+    }
+
+    /**
+     * @return increments of the rollups of the series of the data
+     */
+    private DataRollupDAO.RollupUpdates getRollupUpdates(List<DataModel> instances) {
+        DataRollupDAO.RollupUpdates updates = new DataRollupDAO.RollupUpdates();
+        instances.forEach(updates::add);
+        return updates;
+    }
+
+    /**
+     * Count the data which will be deleted or replaced by variable and experiments, the cost only depends on the number
+     * of matching data.
+     *
+     * @return decrements of the data by variable counters
+     */
+    private MetricCounterDAO.CounterUpdates getRemovedDataCounterUpdates(ClientSession session, Bson deleteFilter) {
+        String variableKey = "variable";
+        String experimentsKey = "experiments";
+        String countKey = "count";
+
+        List<Bson> pipeline = Arrays.asList(
+                Aggregates.match(deleteFilter),
+                Aggregates.group(
+                        new Document(variableKey, "$" + DataModel.VARIABLE_FIELD).append(experimentsKey, "$" + PROVENANCE_EXPERIMENT_FIELD),
+                        Accumulators.sum(countKey, 1)
+                )
+        );
+
+        MetricCounterDAO.CounterUpdates updates = new MetricCounterDAO.CounterUpdates();
+        Iterable<Document> counts = session == null ?
+                collection.aggregate(pipeline, Document.class) :
+                collection.aggregate(session, pipeline, Document.class);
+
+        for (Document count : counts) {
+            Document group = count.get(MongoModel.MONGO_ID_FIELD, Document.class);
+            Object variable = group.get(variableKey);
+            if (variable == null) {
+                continue;
+            }
+            List<URI> experiments = new ArrayList<>();
+            Object experimentList = group.get(experimentsKey);
+            if (experimentList instanceof List) {
+                for (Object experiment : (List<?>) experimentList) {
+                    experiments.add(URI.create(experiment.toString()));
+                }
+            }
+            long deletedCount = ((Number) count.get(countKey)).longValue();
+            updates.addWithExperiments(MetricCounterType.DATA_BY_VARIABLE, URI.create(variable.toString()), experiments, -deletedCount);
+        }
+        return updates;
+    }
+
 
     /**
      * Return the last data stored in the system
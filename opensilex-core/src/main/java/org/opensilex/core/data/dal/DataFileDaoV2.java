@@ -54,6 +54,9 @@ public class DataFileDaoV2 extends MongoReadWriteDao<DataFileModel, DataFileSear
         indexes.put(Indexes.ascending(MongoModel.URI_FIELD), new IndexOptions().unique(true));
         indexes.put(dateDescIndex, null);
 
+        // Index used by keyset pagination, which sorts by date then by URI
+        indexes.put(Indexes.compoundIndex(dateDescIndex, Indexes.ascending(MongoModel.URI_FIELD)), null);
+
         // Index of field, sorted by date : (experiment, provenance, variable, target, provenance agent)
         indexes.put(Indexes.compoundIndex(experimentAscIndex, dateDescIndex), null);
         indexes.put(Indexes.compoundIndex(provenanceUriAscIndex, dateDescIndex), null);
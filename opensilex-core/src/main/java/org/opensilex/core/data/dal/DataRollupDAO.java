@@ -0,0 +1,648 @@
+//******************************************************************************
+//                          DataRollupDAO.java
+// OpenSILEX - Licence AGPL V3.0 - https://www.gnu.org/licenses/agpl-3.0.en.html
+// Copyright © INRAE 2024
+// Contact: anne.tireau@inrae.fr, pascal.neveu@inrae.fr
+//******************************************************************************
+package org.opensilex.core.data.dal;
+
+import com.mongodb.ErrorCategory;
+import com.mongodb.MongoBulkWriteException;
+import com.mongodb.MongoException;
+import com.mongodb.client.ClientSession;
+import com.mongodb.client.FindIterable;
+import com.mongodb.client.MongoCollection;
+import com.mongodb.client.MongoDatabase;
+import com.mongodb.client.model.Accumulators;
+import com.mongodb.client.model.Aggregates;
+import com.mongodb.client.model.BulkWriteOptions;
+import com.mongodb.client.model.Filters;
+import com.mongodb.client.model.IndexOptions;
+import com.mongodb.client.model.Indexes;
+import com.mongodb.client.model.Projections;
+import com.mongodb.client.model.ReplaceOneModel;
+import com.mongodb.client.model.ReplaceOptions;
+import com.mongodb.client.model.Sorts;
+import com.mongodb.client.model.UpdateOneModel;
+import com.mongodb.client.model.UpdateOptions;
+import com.mongodb.client.model.Updates;
+import com.mongodb.client.model.WriteModel;
+import org.apache.commons.collections4.CollectionUtils;
+import org.bson.Document;
+import org.bson.conversions.Bson;
+import org.opensilex.core.data.utils.QuantileSketch;
+import org.opensilex.nosql.mongodb.MongoModel;
+import org.opensilex.sparql.deserializer.SPARQLDeserializers;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.net.URI;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.*;
+import java.util.stream.Collectors;
+
+/**
+ * <pre>
+ * Hourly and daily aggregates of the numeric data of each series, stored in the {@link #COLLECTION_NAME} collection.
+ *
+ * A series is identified by a target, a variable, a provenance and the agents of the provenance. Each rollup keeps the
+ * count, sum, min, max and a {@link QuantileSketch} of the values of the series during an hour or a day, so that
+ * series can be displayed without aggregating all the raw data of the period.
+ *
+ * Rollups are incremented by {@link DataDaoV2} when data are created, and the rollups of the modified series are
+ * recomputed from the raw data when data are updated or deleted. Like metric counters, rollups are written once the
+ * transaction of the data is committed, outside of it : a failed write, or data written without {@link DataDaoV2},
+ * produces a drift which is fixed by {@link #rebuildAll()}.
+ *
+ * A rebuild replaces rollups without locking the data, so a rollup incremented since the start of a rebuild pass is
+ * not replaced, and the days of the rollups incremented during a pass are rebuilt again by another pass.
+ *
+ * Rollups are only read once they have been fully built by {@link #rebuildAll()}.
+ * </pre>
+ */
+public class DataRollupDAO {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(DataRollupDAO.class);
+
+    public static final String COLLECTION_NAME = "data_rollups";
+
+    public static final String TARGET_FIELD = "target";
+    public static final String VARIABLE_FIELD = "variable";
+    public static final String PROVENANCE_FIELD = "provenance";
+    public static final String AGENTS_FIELD = "agents";
+    public static final String PERIOD_FIELD = "period";
+    public static final String START_FIELD = "start";
+    public static final String COUNT_FIELD = "count";
+    public static final String SUM_FIELD = "sum";
+    public static final String MIN_FIELD = "min";
+    public static final String MAX_FIELD = "max";
+    public static final String FIRST_DATE_FIELD = "firstDate";
+    public static final String SKETCH_FIELD = "sketch";
+    public static final String UPDATE_DATE_FIELD = "updateDate";
+    public static final String REBUILD_DATE_FIELD = "rebuildDate";
+
+    /**
+     * Identifier of the document written at the end of {@link #rebuildAll()}
+     */
+    private static final String BUILD_STATUS_ID = "buildStatus";
+    private static final String BUILD_DATE_FIELD = "buildDate";
+
+    /**
+     * Separator of the agents URI in the {@link #AGENTS_FIELD}
+     */
+    private static final String AGENTS_SEPARATOR = " ";
+
+    /**
+     * Maximum number of passes of a rebuild, the rollups still updated concurrently are fixed by the next rebuild
+     */
+    private static final int MAX_REBUILD_PASSES = 3;
+
+    public enum Period {
+        HOUR(ChronoUnit.HOURS),
+        DAY(ChronoUnit.DAYS);
+
+        private final ChronoUnit unit;
+
+        Period(ChronoUnit unit) {
+            this.unit = unit;
+        }
+
+        public Instant getStart(Instant date) {
+            return date.truncatedTo(unit);
+        }
+    }
+
+    private final MongoCollection<Document> collection;
+
+    private final MongoCollection<Document> dataCollection;
+
+    public DataRollupDAO(MongoDatabase database) {
+        this.collection = database.getCollection(COLLECTION_NAME);
+        this.dataCollection = database.getCollection(DataDaoV2.COLLECTION_NAME);
+    }
+
+    public static Map<Bson, IndexOptions> getIndexes() {
+        Map<Bson, IndexOptions> indexes = new HashMap<>();
+
+        // Unicity of a rollup, also used to read the rollups of a target and a variable by period
+        indexes.put(
+                Indexes.ascending(TARGET_FIELD, VARIABLE_FIELD, PERIOD_FIELD, START_FIELD, PROVENANCE_FIELD, AGENTS_FIELD),
+                new IndexOptions().unique(true)
+        );
+        return indexes;
+    }
+
+    /**
+     * Series of data, with expanded URIs
+     */
+    private record SeriesKey(String target, String variable, String provenance, String agents) {
+    }
+
+    private record RollupKey(SeriesKey series, Period period, Instant start) {
+    }
+
+    /**
+     * Data of a target, a variable and a provenance, between two dates (inclusive)
+     */
+    public record SeriesRange(String target, String variable, String provenance, Instant from, Instant to) {
+    }
+
+    private static class Rollup {
+        private long count;
+        private double sum;
+        private double min = Double.POSITIVE_INFINITY;
+        private double max = Double.NEGATIVE_INFINITY;
+        private Instant firstDate;
+        private final QuantileSketch sketch = new QuantileSketch();
+
+        private void add(Instant date, double value) {
+            count++;
+            sum += value;
+            min = Math.min(min, value);
+            max = Math.max(max, value);
+            if (firstDate == null || date.isBefore(firstDate)) {
+                firstDate = date;
+            }
+            sketch.add(value);
+        }
+    }
+
+    /**
+     * Rollups increments, grouped before being applied with a single database call
+     */
+    public static class RollupUpdates {
+
+        private final Map<RollupKey, Rollup> rollups = new HashMap<>();
+
+        public RollupUpdates add(DataModel data) {
+            DataProvenanceModel provenance = data.getProvenance();
+            Double value = getNumericValue(data.getValue());
+            if (data.getTarget() == null || data.getVariable() == null || data.getDate() == null || value == null
+                    || provenance == null || provenance.getUri() == null) {
+                return this;
+            }
+
+            List<String> agents = CollectionUtils.emptyIfNull(provenance.getProvWasAssociatedWith()).stream()
+                    .map(ProvEntityModel::getUri)
+                    .filter(Objects::nonNull)
+                    .map(SPARQLDeserializers::getExpandedURI)
+                    .collect(Collectors.toList());
+
+            SeriesKey series = new SeriesKey(
+                    SPARQLDeserializers.getExpandedURI(data.getTarget()),
+                    SPARQLDeserializers.getExpandedURI(data.getVariable()),
+                    SPARQLDeserializers.getExpandedURI(provenance.getUri()),
+                    getAgentsKey(agents)
+            );
+            return add(series, data.getDate(), value);
+        }
+
+        private RollupUpdates add(SeriesKey series, Instant date, double value) {
+            for (Period period : Period.values()) {
+                rollups.computeIfAbsent(new RollupKey(series, period, period.getStart(date)), key -> new Rollup()).add(date, value);
+            }
+            return this;
+        }
+
+        public boolean isEmpty() {
+            return rollups.isEmpty();
+        }
+    }
+
+    /**
+     * @return the value as a double, or null if it is not a finite number
+     */
+    private static Double getNumericValue(Object value) {
+        if (!(value instanceof Number)) {
+            return null;
+        }
+        double doubleValue = ((Number) value).doubleValue();
+        return Double.isFinite(doubleValue) ? doubleValue : null;
+    }
+
+    private static String getAgentsKey(Collection<String> agents) {
+        return agents.stream().sorted().distinct().collect(Collectors.joining(AGENTS_SEPARATOR));
+    }
+
+    private static Bson getRollupFilter(RollupKey key) {
+        return Filters.and(
+                Filters.eq(TARGET_FIELD, key.series().target()),
+                Filters.eq(VARIABLE_FIELD, key.series().variable()),
+                Filters.eq(PERIOD_FIELD, key.period().name()),
+                Filters.eq(START_FIELD, key.start()),
+                Filters.eq(PROVENANCE_FIELD, key.series().provenance()),
+                Filters.eq(AGENTS_FIELD, key.series().agents())
+        );
+    }
+
+    /**
+     * Apply the increments. Errors are logged and not thrown, since a missing increment is fixed by a rebuild.
+     *
+     * @param updates the increments to apply
+     */
+    public void apply(RollupUpdates updates) {
+        if (updates == null || updates.isEmpty()) {
+            return;
+        }
+
+        Instant now = Instant.now();
+        UpdateOptions upsert = new UpdateOptions().upsert(true);
+        List<WriteModel<Document>> writes = new ArrayList<>(updates.rollups.size());
+
+        updates.rollups.forEach((key, rollup) -> {
+            List<Bson> fieldUpdates = new ArrayList<>();
+            fieldUpdates.add(Updates.inc(COUNT_FIELD, rollup.count));
+            fieldUpdates.add(Updates.inc(SUM_FIELD, rollup.sum));
+            fieldUpdates.add(Updates.min(MIN_FIELD, rollup.min));
+            fieldUpdates.add(Updates.max(MAX_FIELD, rollup.max));
+            fieldUpdates.add(Updates.min(FIRST_DATE_FIELD, rollup.firstDate));
+            fieldUpdates.add(Updates.set(UPDATE_DATE_FIELD, now));
+            rollup.sketch.getCounts().forEach((binKey, count) -> fieldUpdates.add(Updates.inc(SKETCH_FIELD + "." + binKey, count)));
+
+            writes.add(new UpdateOneModel<>(getRollupFilter(key), Updates.combine(fieldUpdates), upsert));
+        });
+
+        try {
+            collection.bulkWrite(writes, new BulkWriteOptions().ordered(false));
+        } catch (MongoException e) {
+            LOGGER.warn("Error while updating {} data rollups, rollups will be fixed by next rebuild : {}", writes.size(), e.getMessage());
+        }
+    }
+
+    /**
+     * @param session     the session of the data, or null
+     * @param dataFilter  filter on the data collection
+     * @return the series of the data matching the filter, with the dates of their first and last data
+     */
+    public List<SeriesRange> getSeriesRanges(ClientSession session, Bson dataFilter) {
+        String minDateKey = "minDate";
+        String maxDateKey = "maxDate";
+
+        List<Bson> pipeline = Arrays.asList(
+                Aggregates.match(dataFilter),
+                Aggregates.group(
+                        new Document(TARGET_FIELD, "$" + DataModel.TARGET_FIELD)
+                                .append(VARIABLE_FIELD, "$" + DataModel.VARIABLE_FIELD)
+                                .append(PROVENANCE_FIELD, "$" + DataProvenanceModel.PROVENANCE_URI_FIELD),
+                        Accumulators.min(minDateKey, "$" + DataModel.DATE_FIELD),
+                        Accumulators.max(maxDateKey, "$" + DataModel.DATE_FIELD)
+                )
+        );
+
+        Iterable<Document> groups = session == null ?
+                dataCollection.aggregate(pipeline) :
+                dataCollection.aggregate(session, pipeline);
+
+        List<SeriesRange> ranges = new ArrayList<>();
+        for (Document group : groups) {
+            Document series = group.get(MongoModel.MONGO_ID_FIELD, Document.class);
+            Object target = series.get(TARGET_FIELD);
+            Object variable = series.get(VARIABLE_FIELD);
+            Object provenance = series.get(PROVENANCE_FIELD);
+            Date minDate = group.getDate(minDateKey);
+            Date maxDate = group.getDate(maxDateKey);
+            if (target == null || variable == null || provenance == null || minDate == null || maxDate == null) {
+                continue;
+            }
+            ranges.add(new SeriesRange(target.toString(), variable.toString(), provenance.toString(), minDate.toInstant(), maxDate.toInstant()));
+        }
+        return ranges;
+    }
+
+    /**
+     * @param instances data
+     * @return the series of the data, with the dates of their first and last data
+     */
+    public static List<SeriesRange> getSeriesRanges(Collection<DataModel> instances) {
+        Map<List<String>, SeriesRange> ranges = new HashMap<>();
+        for (DataModel data : instances) {
+            if (data.getTarget() == null || data.getVariable() == null || data.getDate() == null
+                    || data.getProvenance() == null || data.getProvenance().getUri() == null) {
+                continue;
+            }
+            addToRange(
+                    ranges,
+                    SPARQLDeserializers.getExpandedURI(data.getTarget()),
+                    SPARQLDeserializers.getExpandedURI(data.getVariable()),
+                    SPARQLDeserializers.getExpandedURI(data.getProvenance().getUri()),
+                    data.getDate()
+            );
+        }
+        return new ArrayList<>(ranges.values());
+    }
+
+    private static void addToRange(Map<List<String>, SeriesRange> ranges, String target, String variable, String provenance, Instant date) {
+        ranges.merge(
+                Arrays.asList(target, variable, provenance),
+                new SeriesRange(target, variable, provenance, date, date),
+                (range, other) -> new SeriesRange(target, variable, provenance,
+                        range.from().isBefore(other.from()) ? range.from() : other.from(),
+                        range.to().isAfter(other.to()) ? range.to() : other.to()
+                )
+        );
+    }
+
+    /**
+     * @return filter on the rollups of the days of a series range
+     */
+    private static Bson getRangeFilter(SeriesRange range) {
+        return Filters.and(
+                Filters.eq(TARGET_FIELD, range.target()),
+                Filters.eq(VARIABLE_FIELD, range.variable()),
+                Filters.eq(PROVENANCE_FIELD, range.provenance()),
+                Filters.gte(START_FIELD, Period.DAY.getStart(range.from())),
+                Filters.lt(START_FIELD, Period.DAY.getStart(range.to()).plus(1, ChronoUnit.DAYS))
+        );
+    }
+
+    /**
+     * Recompute the rollups of the days of each series range from the raw data. Errors are logged and not thrown, since
+     * this method is called after the data have been committed.
+     *
+     * @param ranges the series ranges to recompute
+     */
+    public void recompute(Collection<SeriesRange> ranges) {
+        if (ranges.isEmpty()) {
+            return;
+        }
+        try {
+            rebuild(ranges);
+        } catch (MongoException e) {
+            LOGGER.warn("Error while recomputing data rollups of {} series, rollups will be fixed by next rebuild : {}", ranges.size(), e.getMessage());
+        }
+    }
+
+    /**
+     * Rebuild the rollups of the days of each series range, then rebuild again the days of the rollups updated
+     * concurrently, up to {@link #MAX_REBUILD_PASSES} passes.
+     */
+    private void rebuild(Collection<SeriesRange> ranges) {
+        Collection<SeriesRange> passRanges = ranges;
+        for (int pass = 0; pass < MAX_REBUILD_PASSES && !passRanges.isEmpty(); pass++) {
+            Instant passStart = Instant.now();
+            for (SeriesRange range : passRanges) {
+                rebuild(range, passStart);
+            }
+            passRanges = getConcurrentlyUpdatedRanges(Filters.or(passRanges.stream().map(DataRollupDAO::getRangeFilter).collect(Collectors.toList())), passStart);
+        }
+        if (!passRanges.isEmpty()) {
+            LOGGER.info("Data rollups of {} series updated during their rebuild, they will be fixed by next rebuild", passRanges.size());
+        }
+    }
+
+    /**
+     * Replace the rollups of the days of a series range, by rollups computed from the raw data. Data are read by day,
+     * ordered by date, so that only the rollups of one day are kept in memory. The rollups updated since the start of
+     * the pass are left unchanged, see {@link #getConcurrentlyUpdatedRanges(Bson, Instant)}.
+     *
+     * @param passStart start of the rebuild pass
+     */
+    private void rebuild(SeriesRange range, Instant passStart) {
+        Instant from = Period.DAY.getStart(range.from());
+        Instant to = Period.DAY.getStart(range.to()).plus(1, ChronoUnit.DAYS);
+
+        Bson dataFilter = Filters.and(
+                Filters.eq(DataModel.TARGET_FIELD, range.target()),
+                Filters.eq(DataModel.VARIABLE_FIELD, range.variable()),
+                Filters.eq(DataProvenanceModel.PROVENANCE_URI_FIELD, range.provenance()),
+                Filters.gte(DataModel.DATE_FIELD, from),
+                Filters.lt(DataModel.DATE_FIELD, to)
+        );
+        FindIterable<Document> data = dataCollection.find(dataFilter)
+                .projection(Projections.include(DataModel.DATE_FIELD, DataModel.VALUE_FIELD, DataProvenanceModel.PROVENANCE_AGENTS_URI_FIELD))
+                .sort(Sorts.ascending(DataModel.DATE_FIELD));
+
+        RollupUpdates updates = new RollupUpdates();
+        Instant currentDay = null;
+
+        for (Document document : data) {
+            Date date = document.getDate(DataModel.DATE_FIELD);
+            Double value = getNumericValue(document.get(DataModel.VALUE_FIELD));
+            if (date == null || value == null) {
+                continue;
+            }
+
+            Instant day = Period.DAY.getStart(date.toInstant());
+            if (currentDay != null && !currentDay.equals(day)) {
+                replace(updates, passStart);
+                updates = new RollupUpdates();
+            }
+            currentDay = day;
+
+            SeriesKey series = new SeriesKey(range.target(), range.variable(), range.provenance(), getAgentsKey(getAgents(document)));
+            updates.add(series, date.toInstant(), value);
+        }
+        replace(updates, passStart);
+
+        // rollups without data anymore
+        collection.deleteMany(Filters.and(getRangeFilter(range), Filters.lt(UPDATE_DATE_FIELD, passStart)));
+    }
+
+    /**
+     * Replace rollups by the given ones, unless they have been updated since the start of the pass. The update and the
+     * rebuild dates of a replaced rollup are equal, until it is incremented.
+     *
+     * @param rollups   rollups computed from the raw data
+     * @param passStart start of the rebuild pass
+     */
+    private void replace(RollupUpdates rollups, Instant passStart) {
+        if (rollups.isEmpty()) {
+            return;
+        }
+
+        Instant now = Instant.now();
+        ReplaceOptions upsert = new ReplaceOptions().upsert(true);
+        List<WriteModel<Document>> writes = new ArrayList<>(rollups.rollups.size());
+
+        rollups.rollups.forEach((key, rollup) -> {
+            Document sketch = new Document();
+            rollup.sketch.getCounts().forEach(sketch::append);
+
+            Document document = new Document(TARGET_FIELD, key.series().target())
+                    .append(VARIABLE_FIELD, key.series().variable())
+                    .append(PROVENANCE_FIELD, key.series().provenance())
+                    .append(AGENTS_FIELD, key.series().agents())
+                    .append(PERIOD_FIELD, key.period().name())
+                    .append(START_FIELD, key.start())
+                    .append(COUNT_FIELD, rollup.count)
+                    .append(SUM_FIELD, rollup.sum)
+                    .append(MIN_FIELD, rollup.min)
+                    .append(MAX_FIELD, rollup.max)
+                    .append(FIRST_DATE_FIELD, rollup.firstDate)
+                    .append(SKETCH_FIELD, sketch)
+                    .append(UPDATE_DATE_FIELD, now)
+                    .append(REBUILD_DATE_FIELD, now);
+
+            // if the rollup has been updated since the start of the pass, the filter doesn't match and the upsert
+            // fails on the unique index
+            Bson notUpdatedFilter = Filters.and(getRollupFilter(key), Filters.lt(UPDATE_DATE_FIELD, passStart));
+            writes.add(new ReplaceOneModel<>(notUpdatedFilter, document, upsert));
+        });
+
+        try {
+            collection.bulkWrite(writes, new BulkWriteOptions().ordered(false));
+        } catch (MongoBulkWriteException e) {
+            boolean otherError = e.getWriteErrors().stream()
+                    .anyMatch(error -> ErrorCategory.fromErrorCode(error.getCode()) != ErrorCategory.DUPLICATE_KEY);
+            if (otherError) {
+                throw e;
+            }
+        }
+    }
+
+    /**
+     * @param rollupFilter filter on the rebuilt rollups, or null for all rollups
+     * @param passStart    start of the rebuild pass
+     * @return the series ranges of the rollups incremented since the start of the pass : they have not been replaced,
+     * or they have been incremented after their replacement, possibly with data already read by the pass.
+     */
+    private List<SeriesRange> getConcurrentlyUpdatedRanges(Bson rollupFilter, Instant passStart) {
+        List<Bson> filters = new ArrayList<>();
+        if (rollupFilter != null) {
+            filters.add(rollupFilter);
+        }
+        filters.add(Filters.gte(UPDATE_DATE_FIELD, passStart));
+        filters.add(Filters.expr(new Document("$ne", Arrays.asList("$" + UPDATE_DATE_FIELD, "$" + REBUILD_DATE_FIELD))));
+
+        Map<List<String>, SeriesRange> ranges = new HashMap<>();
+        collection.find(Filters.and(filters))
+                .projection(Projections.include(TARGET_FIELD, VARIABLE_FIELD, PROVENANCE_FIELD, START_FIELD))
+                .forEach(rollup -> addToRange(
+                        ranges,
+                        rollup.getString(TARGET_FIELD),
+                        rollup.getString(VARIABLE_FIELD),
+                        rollup.getString(PROVENANCE_FIELD),
+                        rollup.getDate(START_FIELD).toInstant()
+                ));
+        return new ArrayList<>(ranges.values());
+    }
+
+    private static List<String> getAgents(Document data) {
+        Document provenance = data.get(DataModel.PROVENANCE_FIELD, Document.class);
+        if (provenance == null) {
+            return Collections.emptyList();
+        }
+        List<String> agents = new ArrayList<>();
+        for (Document agent : CollectionUtils.emptyIfNull(provenance.getList(DataProvenanceModel.PROV_WAS_ASSOCIATED_WITH_FIELD, Document.class))) {
+            Object agentURI = agent.get(ProvEntityModel.URI_FIELD);
+            if (agentURI != null) {
+                agents.add(agentURI.toString());
+            }
+        }
+        return agents;
+    }
+
+    /**
+     * Rebuild all rollups from the raw data, and remove the rollups of the series without data. Rollups are not read
+     * during the rebuild, data can be written meanwhile.
+     *
+     * @return the number of rebuilt series
+     */
+    public int rebuildAll() {
+        getIndexes().forEach(collection::createIndex);
+        collection.deleteOne(Filters.eq(MongoModel.MONGO_ID_FIELD, BUILD_STATUS_ID));
+
+        Instant start = Instant.now();
+        List<SeriesRange> ranges = getSeriesRanges(null, Filters.exists(DataModel.TARGET_FIELD));
+        int rebuiltCount = 0;
+        for (SeriesRange range : ranges) {
+            rebuild(range, start);
+            rebuiltCount++;
+            if (rebuiltCount % 100 == 0) {
+                LOGGER.info("Data rollups rebuilt for {}/{} series", rebuiltCount, ranges.size());
+            }
+        }
+
+        // rollups of the series without data anymore
+        collection.deleteMany(Filters.lt(UPDATE_DATE_FIELD, start));
+
+        rebuild(getConcurrentlyUpdatedRanges(null, start));
+
+        collection.insertOne(new Document(MongoModel.MONGO_ID_FIELD, BUILD_STATUS_ID).append(BUILD_DATE_FIELD, Instant.now()));
+        return rebuiltCount;
+    }
+
+    /**
+     * @return true if the rollups have been fully built, and can be read instead of the raw data
+     */
+    public boolean isBuilt() {
+        return collection.find(Filters.eq(MongoModel.MONGO_ID_FIELD, BUILD_STATUS_ID)).first() != null;
+    }
+
+    private static Bson getPeriodFilter(URI target, URI variable, Period period, Instant startDate, Instant endDate) {
+        List<Bson> filters = new ArrayList<>();
+        filters.add(Filters.eq(TARGET_FIELD, SPARQLDeserializers.getExpandedURI(target)));
+        filters.add(Filters.eq(VARIABLE_FIELD, SPARQLDeserializers.getExpandedURI(variable)));
+        filters.add(Filters.eq(PERIOD_FIELD, period.name()));
+        if (startDate != null) {
+            filters.add(Filters.gte(START_FIELD, period.getStart(startDate)));
+        }
+        if (endDate != null) {
+            filters.add(Filters.lt(START_FIELD, endDate));
+        }
+        return Filters.and(filters);
+    }
+
+    private static DataProvenanceModel getProvenance(Document rollup) {
+        DataProvenanceModel provenance = new DataProvenanceModel();
+        provenance.setUri(URI.create(rollup.getString(PROVENANCE_FIELD)));
+
+        String agents = rollup.getString(AGENTS_FIELD);
+        if (agents != null && !agents.isEmpty()) {
+            provenance.setProvWasAssociatedWith(Arrays.stream(agents.split(AGENTS_SEPARATOR))
+                    .map(agent -> new ProvEntityModel(URI.create(agent), null))
+                    .collect(Collectors.toList()));
+        }
+        return provenance;
+    }
+
+    /**
+     * Read the median per hour of each series of a target and a variable. Hours are included if they start before
+     * the end date and end after the start date.
+     *
+     * @return the median of each hour and series, dated at the start of the hour
+     */
+    public List<DataComputedModel> getMediansPerHour(URI target, URI variable, Instant startDate, Instant endDate) {
+        List<DataComputedModel> medians = new ArrayList<>();
+        for (Document rollup : collection.find(getPeriodFilter(target, variable, Period.HOUR, startDate, endDate))) {
+            DataComputedModel median = new DataComputedModel();
+            median.setProvenance(getProvenance(rollup));
+            median.setDate(rollup.getDate(START_FIELD).toInstant());
+            median.setValue(QuantileSketch.fromDocument(rollup.get(SKETCH_FIELD, Document.class)).getMedian());
+            medians.add(median);
+        }
+        return medians;
+    }
+
+    /**
+     * Read the mean per day of all series of a target and a variable. Days are included if they start before the end
+     * date and end after the start date.
+     *
+     * @return the mean of each day, dated with the first data of the day
+     */
+    public List<DataComputedModel> getMeansPerDay(URI target, URI variable, Instant startDate, Instant endDate) {
+        List<Bson> pipeline = Arrays.asList(
+                Aggregates.match(getPeriodFilter(target, variable, Period.DAY, startDate, endDate)),
+                Aggregates.group(
+                        "$" + START_FIELD,
+                        Accumulators.sum(COUNT_FIELD, "$" + COUNT_FIELD),
+                        Accumulators.sum(SUM_FIELD, "$" + SUM_FIELD),
+                        Accumulators.min(FIRST_DATE_FIELD, "$" + FIRST_DATE_FIELD)
+                )
+        );
+
+        List<DataComputedModel> means = new ArrayList<>();
+        for (Document day : collection.aggregate(pipeline)) {
+            long count = ((Number) day.get(COUNT_FIELD)).longValue();
+            if (count <= 0) {
+                continue;
+            }
+            DataComputedModel mean = new DataComputedModel();
+            mean.setDate(day.getDate(FIRST_DATE_FIELD).toInstant());
+            mean.setValue(((Number) day.get(SUM_FIELD)).doubleValue() / count);
+            means.add(mean);
+        }
+        return means;
+    }
+}
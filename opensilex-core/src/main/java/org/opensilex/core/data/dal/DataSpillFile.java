@@ -0,0 +1,207 @@
+//******************************************************************************
+//                          DataSpillFile.java
+// OpenSILEX - Licence AGPL V3.0 - https://www.gnu.org/licenses/agpl-3.0.en.html
+// Copyright © INRAE 2024
+// Contact: anne.tireau@inrae.fr, pascal.neveu@inrae.fr
+//******************************************************************************
+package org.opensilex.core.data.dal;
+
+import org.bson.BsonBinaryReader;
+import org.bson.BsonBinaryWriter;
+import org.bson.codecs.Codec;
+import org.bson.codecs.DecoderContext;
+import org.bson.codecs.EncoderContext;
+import org.bson.io.BasicOutputBuffer;
+import org.opensilex.nosql.mongodb.MongoDBService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * <pre>
+ * Temporary file which stores validated data of a CSV import between the validation and the insertion steps, so that
+ * data are not kept in memory while the user confirms the import.
+ *
+ * Each data is stored with its CSV row index, as a BSON document encoded with the same codecs as the data collection,
+ * the whole file being compressed. Data are appended by batches during validation, then read back by batches.
+ * </pre>
+ */
+public class DataSpillFile {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(DataSpillFile.class);
+
+    private static final String DIRECTORY_NAME = "opensilex-data-import";
+    private static final String EXTENSION = ".data";
+    private static final int BUFFER_SIZE = 65536;
+
+    private static volatile Codec<DataModel> codec;
+
+    private Path path;
+    private DataOutputStream output;
+    private final BasicOutputBuffer encodingBuffer = new BasicOutputBuffer();
+    private int size = 0;
+
+    private DataSpillFile(Path path) throws IOException {
+        this.path = path;
+        this.output = new DataOutputStream(new BufferedOutputStream(new GZIPOutputStream(Files.newOutputStream(path), BUFFER_SIZE)));
+    }
+
+    /**
+     * Create an empty file, opened for writing
+     *
+     * @param prefix prefix of the file name
+     */
+    public static DataSpillFile create(String prefix) throws IOException {
+        Path directory = Paths.get(System.getProperty("java.io.tmpdir"), DIRECTORY_NAME);
+        Files.createDirectories(directory);
+        return new DataSpillFile(Files.createTempFile(directory, prefix, EXTENSION));
+    }
+
+    private static Codec<DataModel> getCodec() {
+        if (codec == null) {
+            codec = MongoDBService.buildCodecRegistry().get(DataModel.class);
+        }
+        return codec;
+    }
+
+    /**
+     * Append data to the file
+     *
+     * @param data data to append, with their CSV row index
+     */
+    public synchronized void append(Map<DataModel, Integer> data) throws IOException {
+        if (output == null) {
+            throw new IllegalStateException("Data can't be appended to a closed file : " + path);
+        }
+        Codec<DataModel> dataCodec = getCodec();
+        EncoderContext encoderContext = EncoderContext.builder().build();
+
+        for (Map.Entry<DataModel, Integer> entry : data.entrySet()) {
+            encodingBuffer.truncateToPosition(0);
+            try (BsonBinaryWriter writer = new BsonBinaryWriter(encodingBuffer)) {
+                dataCodec.encode(writer, entry.getKey(), encoderContext);
+            }
+            output.writeInt(entry.getValue());
+            output.writeInt(encodingBuffer.getPosition());
+            encodingBuffer.pipe(output);
+            size++;
+        }
+    }
+
+    /**
+     * Flush and close the file, no more data can be appended
+     */
+    public synchronized void finish() throws IOException {
+        if (output != null) {
+            output.close();
+            output = null;
+        }
+    }
+
+    /**
+     * Rename the file with a key, so that it can be found from the key (a validation key by example)
+     */
+    public synchronized void rename(String key) throws IOException {
+        path = Files.move(path, path.resolveSibling(key + EXTENSION), StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    /**
+     * @return number of data in the file
+     */
+    public int size() {
+        return size;
+    }
+
+    public Path getPath() {
+        return path;
+    }
+
+    /**
+     * @return a reader of the data, from the beginning of the file. The file must be finished before.
+     */
+    public Reader openReader() throws IOException {
+        if (output != null) {
+            throw new IllegalStateException("Data can't be read before the file is finished : " + path);
+        }
+        return new Reader(new DataInputStream(new BufferedInputStream(new GZIPInputStream(Files.newInputStream(path), BUFFER_SIZE))));
+    }
+
+    /**
+     * Close and delete the file
+     */
+    public synchronized void delete() {
+        try {
+            finish();
+        } catch (IOException e) {
+            LOGGER.warn("Error while closing data import file {} : {}", path, e.getMessage());
+        }
+        try {
+            Files.deleteIfExists(path);
+        } catch (IOException e) {
+            LOGGER.warn("Failed to delete data import file {} : {}", path, e.getMessage());
+        }
+    }
+
+    /**
+     * Reader of the data stored in a file, by batches
+     */
+    public static class Reader implements Closeable {
+
+        private final DataInputStream input;
+        private final Codec<DataModel> dataCodec = getCodec();
+        private byte[] decodingBuffer = new byte[1024];
+
+        private Reader(DataInputStream input) {
+            this.input = input;
+        }
+
+        /**
+         * Read the next batch of data
+         *
+         * @param maxSize    max number of data to read
+         * @param data       list filled with the read data, cleared before
+         * @param rowIndexes list filled with the CSV row index of each data, cleared before
+         * @return false if there were no more data to read
+         */
+        public boolean readBatch(int maxSize, List<DataModel> data, List<Integer> rowIndexes) throws IOException {
+            data.clear();
+            rowIndexes.clear();
+
+            DecoderContext decoderContext = DecoderContext.builder().build();
+            while (data.size() < maxSize) {
+                int rowIndex;
+                try {
+                    rowIndex = input.readInt();
+                } catch (EOFException e) {
+                    break;
+                }
+                int length = input.readInt();
+                if (decodingBuffer.length < length) {
+                    decodingBuffer = new byte[Math.max(length, decodingBuffer.length * 2)];
+                }
+                input.readFully(decodingBuffer, 0, length);
+
+                try (BsonBinaryReader reader = new BsonBinaryReader(ByteBuffer.wrap(decodingBuffer, 0, length))) {
+                    data.add(dataCodec.decode(reader, decoderContext));
+                }
+                rowIndexes.add(rowIndex);
+            }
+            return !data.isEmpty();
+        }
+
+        @Override
+        public void close() throws IOException {
+            input.close();
+        }
+    }
+}
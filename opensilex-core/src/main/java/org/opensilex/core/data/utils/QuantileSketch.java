@@ -0,0 +1,147 @@
+//******************************************************************************
+//                          QuantileSketch.java
+// OpenSILEX - Licence AGPL V3.0 - https://www.gnu.org/licenses/agpl-3.0.en.html
+// Copyright © INRAE 2024
+// Contact: anne.tireau@inrae.fr, pascal.neveu@inrae.fr
+//******************************************************************************
+package org.opensilex.core.data.utils;
+
+import org.bson.Document;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * <pre>
+ * Mergeable sketch used to estimate quantiles of a set of values, with a bounded relative error.
+ *
+ * Values are counted in logarithmic bins : the bin of a value v is ceil(log(|v|) / log(gamma)), with
+ * gamma = (1 + {@link #RELATIVE_ACCURACY}) / (1 - {@link #RELATIVE_ACCURACY}). Any value of a bin can be estimated with
+ * a relative error lower than {@link #RELATIVE_ACCURACY}, so the number of bins only depends on the range of the values.
+ *
+ * Bins are identified by a key ("p" or "n" followed by the bin index for positive or negative values, "z" for values
+ * near zero) which can be used as a field name of a Mongo document. Two sketches are merged by summing the counts of
+ * their bins, which can be done with $inc updates.
+ * </pre>
+ */
+public class QuantileSketch {
+
+    public static final double RELATIVE_ACCURACY = 0.01;
+
+    private static final double GAMMA = (1 + RELATIVE_ACCURACY) / (1 - RELATIVE_ACCURACY);
+    private static final double LOG_GAMMA = Math.log(GAMMA);
+
+    /**
+     * Absolute values lower than this one are counted in the zero bin
+     */
+    private static final double MIN_INDEXED_VALUE = 1e-9;
+
+    private static final String POSITIVE_PREFIX = "p";
+    private static final String NEGATIVE_PREFIX = "n";
+    private static final String ZERO_KEY = "z";
+
+    private final Map<String, Long> counts = new HashMap<>();
+
+    /**
+     * @param value a finite value
+     * @return the key of the bin of the value
+     */
+    public static String getBinKey(double value) {
+        double absValue = Math.abs(value);
+        if (absValue < MIN_INDEXED_VALUE) {
+            return ZERO_KEY;
+        }
+        int index = (int) Math.ceil(Math.log(absValue) / LOG_GAMMA);
+        return (value > 0 ? POSITIVE_PREFIX : NEGATIVE_PREFIX) + index;
+    }
+
+    /**
+     * @param binKey a bin key
+     * @return the estimated value of the bin
+     */
+    private static double getBinValue(String binKey) {
+        if (ZERO_KEY.equals(binKey)) {
+            return 0;
+        }
+        int index = Integer.parseInt(binKey.substring(1));
+        double absValue = 2 * Math.pow(GAMMA, index) / (GAMMA + 1);
+        return binKey.startsWith(NEGATIVE_PREFIX) ? -absValue : absValue;
+    }
+
+    public QuantileSketch add(double value) {
+        return add(getBinKey(value), 1);
+    }
+
+    public QuantileSketch add(String binKey, long count) {
+        counts.merge(binKey, count, Long::sum);
+        return this;
+    }
+
+    public QuantileSketch merge(QuantileSketch other) {
+        other.counts.forEach(this::add);
+        return this;
+    }
+
+    /**
+     * @return counts by bin key
+     */
+    public Map<String, Long> getCounts() {
+        return counts;
+    }
+
+    public long getCount() {
+        return counts.values().stream().mapToLong(Long::longValue).sum();
+    }
+
+    /**
+     * @param quantile the quantile, between 0 and 1
+     * @return the estimated value of the quantile, or NaN if the sketch is empty
+     */
+    public double getQuantile(double quantile) {
+        long count = getCount();
+        if (count <= 0) {
+            return Double.NaN;
+        }
+
+        List<Map.Entry<String, Double>> sortedBins = new ArrayList<>(counts.size());
+        counts.forEach((binKey, binCount) -> {
+            if (binCount > 0) {
+                sortedBins.add(Map.entry(binKey, getBinValue(binKey)));
+            }
+        });
+        sortedBins.sort(Map.Entry.comparingByValue(Comparator.naturalOrder()));
+
+        long rank = (long) Math.floor(quantile * (count - 1));
+        long cumulativeCount = 0;
+        for (Map.Entry<String, Double> bin : sortedBins) {
+            cumulativeCount += counts.get(bin.getKey());
+            if (cumulativeCount > rank) {
+                return bin.getValue();
+            }
+        }
+        return sortedBins.get(sortedBins.size() - 1).getValue();
+    }
+
+    public double getMedian() {
+        return getQuantile(0.5);
+    }
+
+    /**
+     * @param document counts by bin key, as stored in Mongo
+     * @return the sketch
+     */
+    public static QuantileSketch fromDocument(Document document) {
+        QuantileSketch sketch = new QuantileSketch();
+        if (document != null) {
+            document.forEach((binKey, binCount) -> {
+                if (binCount instanceof Number) {
+                    sketch.add(binKey, ((Number) binCount).longValue());
+                }
+            });
+        }
+        return sketch;
+    }
+}
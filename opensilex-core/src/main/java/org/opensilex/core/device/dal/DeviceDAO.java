@@ -20,6 +20,8 @@ import org.opensilex.core.data.dal.DataDAO;
 import org.opensilex.core.event.bll.MoveLogic;
 import org.opensilex.core.event.dal.move.MoveModel;
 import org.opensilex.core.exception.DuplicateNameException;
+import org.opensilex.core.metrics.dal.MetricCounterDAO;
+import org.opensilex.core.metrics.dal.MetricCounterType;
 import org.opensilex.core.ontology.Oeso;
 import org.opensilex.core.ontology.api.RDFObjectRelationDTO;
 import org.opensilex.core.organisation.bll.FacilityLogic;
@@ -71,10 +73,13 @@ public class DeviceDAO {
 
     private static final URI deviceURI = URI.create(Oeso.Device.getURI());
 
+    private final MetricCounterDAO metricCounterDAO;
+
     public DeviceDAO(SPARQLService sparql, MongoDBService nosql, FileStorageService fs) {
         this.sparql = sparql;
         this.nosql = nosql;
         this.fs = fs;
+        this.metricCounterDAO = nosql == null ? null : new MetricCounterDAO(nosql.getDatabase());
     }
 
     public void initDevice(DeviceModel devModel, List<RDFObjectRelationDTO> relations, AccountModel currentUser) throws Exception {
@@ -102,9 +107,39 @@ public class DeviceDAO {
         );
         devModel.setTypeLabel(classModel.getLabel());
         sparql.create(devModel, true);
+        updateMetricCounters(Collections.emptyList(), Collections.singletonList(devModel.getType()));
         return devModel.getUri();
     }
 
+    /**
+     * Update the device by type counters of the system, once the current transaction is committed
+     *
+     * @param typesBefore types of the device before the write
+     * @param typesAfter  types of the device after the write
+     * @see MetricCounterDAO
+     */
+    private void updateMetricCounters(List<URI> typesBefore, List<URI> typesAfter) {
+        if (metricCounterDAO == null) {
+            return;
+        }
+        MetricCounterDAO.CounterUpdates updates = new MetricCounterDAO.CounterUpdates();
+        typesBefore.forEach(type -> updates.add(MetricCounterDAO.SYSTEM_SCOPE, MetricCounterType.DEVICE_BY_TYPE, type, -1));
+        typesAfter.forEach(type -> updates.add(MetricCounterDAO.SYSTEM_SCOPE, MetricCounterType.DEVICE_BY_TYPE, type, 1));
+        if (!updates.isEmpty()) {
+            sparql.afterCommit(() -> metricCounterDAO.apply(updates));
+        }
+    }
+
+    private List<URI> getTypes(URI deviceURI) throws Exception {
+        Var typeVar = makeVar(SPARQLResourceModel.TYPE_FIELD);
+        SelectBuilder typeSelect = new SelectBuilder()
+                .addVar(typeVar)
+                .addGraph(sparql.getDefaultGraph(DeviceModel.class), SPARQLDeserializers.nodeURI(deviceURI), RDF.type, typeVar);
+        List<URI> types = new ArrayList<>();
+        sparql.executeSelectQuery(typeSelect, result -> types.add(URI.create(result.getStringValue(typeVar.getVarName()))));
+        return types;
+    }
+
     /**
      * Modifies select, using variable filter if not in the case of an export
      */
@@ -306,7 +341,9 @@ public class DeviceDAO {
     public DeviceModel update(DeviceModel instance) throws Exception {
         Node graph = sparql.getDefaultGraph(DeviceModel.class);
         instance.setLastUpdateDate(OffsetDateTime.now());
+        List<URI> typesBefore = getTypes(instance.getUri());
         sparql.update(graph, instance);
+        updateMetricCounters(typesBefore, getTypes(instance.getUri()));
         return instance;
     }
 
@@ -358,8 +395,11 @@ public class DeviceDAO {
             throw new ForbiddenURIAccessException(deviceURI, String.format(message, dataFileCount, "data file(s)"));
         }
 
+        List<URI> types = getTypes(deviceURI);
+
         deleteVariableLinks(deviceURI);
         sparql.delete(DeviceModel.class, deviceURI);
+        updateMetricCounters(types, Collections.emptyList());
     }
 
     private void deleteVariableLinks(URI deviceUri) throws Exception {
@@ -0,0 +1,189 @@
+//******************************************************************************
+//                          ExperimentAccessIndex.java
+// OpenSILEX - Licence AGPL V3.0 - https://www.gnu.org/licenses/agpl-3.0.en.html
+// Copyright © INRAE 2024
+// Contact: anne.tireau@inrae.fr, pascal.neveu@inrae.fr
+//******************************************************************************
+package org.opensilex.core.experiment.dal;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import org.opensilex.security.account.dal.AccountModel;
+import org.opensilex.security.group.dal.GroupModel;
+import org.opensilex.security.group.dal.GroupUserProfileModel;
+import org.opensilex.security.profile.dal.ProfileModel;
+import org.opensilex.sparql.deserializer.SPARQLDeserializers;
+import org.opensilex.sparql.deserializer.URIDeserializer;
+import org.opensilex.sparql.service.SPARQLService;
+import org.opensilex.sparql.service.SPARQLSharedIndex;
+import org.opensilex.utils.ThrowingFunction;
+
+import java.net.URI;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * <pre>
+ * Index of the experiments accessible by each account, shared by all requests on the same repository.
+ *
+ * - Experiment URIs are interned in an append-only dictionary, and the experiments of an account are stored as a bit
+ *   set of their identifiers in this dictionary, next to the immutable set of their URIs. Reads don't take any lock.
+ * - The index is invalidated when experiments, groups, profiles or accounts are written by a {@link SPARQLService} of
+ *   its repository, or when the written classes are unknown.
+ * - Entries expire after a short duration, which bounds the staleness of access rights when the repository is updated
+ *   by another server.
+ * </pre>
+ *
+ * @see ExperimentDAO#getUserExperiments(AccountModel)
+ */
+public class ExperimentAccessIndex implements SPARQLSharedIndex {
+
+    private static final Duration EXPIRATION = Duration.ofMinutes(5);
+    private static final int MAX_ACCOUNTS = 10000;
+
+    /**
+     * Classes whose writes can change the experiments accessible by an account
+     */
+    private static final List<Class<?>> ACCESS_CLASSES = List.of(
+            ExperimentModel.class,
+            GroupModel.class,
+            GroupUserProfileModel.class,
+            ProfileModel.class,
+            AccountModel.class
+    );
+
+    private final Cache<String, AccessibleExperiments> experimentsByAccount = Caffeine.newBuilder()
+            .maximumSize(MAX_ACCOUNTS)
+            .expireAfterWrite(EXPIRATION)
+            .recordStats()
+            .build();
+
+    /**
+     * Dictionary of interned URIs, replaced at each invalidation so that URIs of deleted experiments are released
+     */
+    private volatile Dictionary dictionary = new Dictionary();
+
+    /**
+     * Incremented at each invalidation, so that experiments read before an invalidation are not kept after it
+     */
+    private final AtomicLong generation = new AtomicLong();
+
+    /**
+     * @param sparql service
+     * @return the index of the repository of the service
+     */
+    public static ExperimentAccessIndex get(SPARQLService sparql) {
+        return sparql.getSharedIndex(ExperimentAccessIndex.class, ExperimentAccessIndex::new);
+    }
+
+    /**
+     * @param user   account
+     * @param loader search of the experiments accessible by the account, called if they are not indexed
+     * @return the immutable set of the experiments accessible by the account
+     * @throws Exception if the search fails
+     */
+    public Set<URI> getUserExperiments(AccountModel user, ThrowingFunction<AccountModel, Collection<URI>, Exception> loader) throws Exception {
+        return getAccessibleExperiments(user, loader).uris();
+    }
+
+    /**
+     * @param user        account
+     * @param experiments experiments to check
+     * @param loader      search of the experiments accessible by the account, called if they are not indexed
+     * @return the experiments which are not accessible by the account
+     * @throws Exception if the search fails
+     */
+    public List<URI> getForbiddenExperiments(AccountModel user, Collection<URI> experiments, ThrowingFunction<AccountModel, Collection<URI>, Exception> loader) throws Exception {
+        AccessibleExperiments accessibleExperiments = getAccessibleExperiments(user, loader);
+
+        List<URI> forbiddenExperiments = new ArrayList<>();
+        for (URI experiment : experiments) {
+            if (!accessibleExperiments.contains(experiment)) {
+                forbiddenExperiments.add(URIDeserializer.formatURI(experiment));
+            }
+        }
+        return forbiddenExperiments;
+    }
+
+    private AccessibleExperiments getAccessibleExperiments(AccountModel user, ThrowingFunction<AccountModel, Collection<URI>, Exception> loader) throws Exception {
+        String accountKey = SPARQLDeserializers.getExpandedURI(user.getUri());
+        AccessibleExperiments accessibleExperiments = experimentsByAccount.getIfPresent(accountKey);
+        if (accessibleExperiments != null) {
+            return accessibleExperiments;
+        }
+
+        long loadGeneration = generation.get();
+        Dictionary loadDictionary = dictionary;
+        Set<URI> experiments = Set.copyOf(loader.apply(user));
+        accessibleExperiments = new AccessibleExperiments(loadDictionary, loadDictionary.intern(experiments), experiments);
+
+        if (generation.get() == loadGeneration) {
+            experimentsByAccount.put(accountKey, accessibleExperiments);
+            // an invalidation may have happened between the check and the put
+            if (generation.get() != loadGeneration) {
+                experimentsByAccount.invalidate(accountKey);
+            }
+        }
+        return accessibleExperiments;
+    }
+
+    @Override
+    public void onWrite(Set<Class<?>> writtenClasses) {
+        if (writtenClasses == null || writtenClasses.stream().anyMatch(writtenClass ->
+                ACCESS_CLASSES.stream().anyMatch(accessClass -> accessClass.isAssignableFrom(writtenClass)))) {
+            invalidateAll();
+        }
+    }
+
+    public void invalidateAll() {
+        generation.incrementAndGet();
+        dictionary = new Dictionary();
+        experimentsByAccount.invalidateAll();
+    }
+
+    public CacheStats getStatistics() {
+        return experimentsByAccount.stats();
+    }
+
+    /**
+     * Experiments accessible by an account, as identifiers of a dictionary and as URIs. Never modified once built.
+     */
+    private record AccessibleExperiments(Dictionary dictionary, BitSet ids, Set<URI> uris) {
+
+        private boolean contains(URI experiment) {
+            int id = dictionary.getId(experiment);
+            return id >= 0 && ids.get(id);
+        }
+    }
+
+    /**
+     * Identifiers of interned experiment URIs. Identifiers are only added, so they can be read without lock.
+     */
+    private static class Dictionary {
+
+        private final Map<String, Integer> idsByURI = new ConcurrentHashMap<>();
+        private final AtomicInteger nextId = new AtomicInteger();
+
+        private BitSet intern(Collection<URI> experiments) {
+            BitSet ids = new BitSet();
+            for (URI experiment : experiments) {
+                String expandedURI = SPARQLDeserializers.getExpandedURI(experiment);
+                ids.set(idsByURI.computeIfAbsent(expandedURI, key -> nextId.getAndIncrement()));
+            }
+            return ids;
+        }
+
+        private int getId(URI experiment) {
+            return idsByURI.getOrDefault(SPARQLDeserializers.getExpandedURI(experiment), -1);
+        }
+    }
+}
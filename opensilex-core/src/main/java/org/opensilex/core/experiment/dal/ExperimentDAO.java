@@ -60,8 +60,6 @@ import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
 import static org.opensilex.sparql.service.SPARQLQueryHelper.makeVar;
-import static org.opensilex.sparql.service.SPARQLService.TYPE_VAR;
-import static org.opensilex.sparql.service.SPARQLService.URI_VAR;
 
 /**
  * @author Vincent MIGOT
@@ -286,12 +284,14 @@ public class ExperimentDAO {
 
     /**
      * Applies the regex on any field we want to include, name and altLabel at the time of writing this.
+     * The experiments are first restricted to those found in the label index, if it can be used for this pattern.
      *
      * @param select , the Select request we are adding the filter to.
      * @param name pattern to apply on name field and altLabel field.
      */
     private void appendRegexLabelFilter(SelectBuilder select, String name) {
         if (!StringUtils.isEmpty(name)) {
+            SPARQLQueryHelper.addWhereLabelIndexValues(select, ExperimentModel.URI_FIELD, sparql.searchByLabelIndex(ExperimentModel.class, name));
             select.addFilter(
                     SPARQLQueryHelper.or(
                             SPARQLQueryHelper.regexFilter(ExperimentModel.NAME_FIELD, name),
@@ -405,16 +405,20 @@ public class ExperimentDAO {
         }
     }
 
+    /**
+     * @param user current user
+     * @return experiments accessible by the user, as an immutable set read from the {@link ExperimentAccessIndex}
+     * of the repository
+     * @throws Exception
+     */
     public Set<URI> getUserExperiments(AccountModel user) throws Exception {
-        String lang = user.getLanguage();
-        Set<URI> userExperiments = new HashSet<>();
-        List<URI> xps = sparql.searchURIs(ExperimentModel.class, lang, (SelectBuilder select) -> {
+        return ExperimentAccessIndex.get(sparql).getUserExperiments(user, this::searchUserExperiments);
+    }
+
+    private List<URI> searchUserExperiments(AccountModel user) throws Exception {
+        return sparql.searchURIs(ExperimentModel.class, user.getLanguage(), (SelectBuilder select) -> {
             appendUserExperimentsFilter(select, user);
         });
-
-        userExperiments.addAll(xps);
-
-        return userExperiments;
     }
     
     /**
@@ -495,55 +499,8 @@ public class ExperimentDAO {
             return;
         }
 
-        Var userProfileVar = makeVar("_userProfile");
-        Var userVar = makeVar("_user");
-        Var groupVar = makeVar(ExperimentModel.GROUP_FIELD);
-
-        Node userNodeURI = SPARQLDeserializers.nodeURI(user.getUri());
-        Var publisherVar = makeVar(SPARQLResourceModel.PUBLISHER_FIELD);
-        Var scientificSupervisorVar = makeVar(ExperimentModel.SCIENTIFIC_SUPERVISOR_FIELD);
-        Var technicalSupervisorVar = makeVar(ExperimentModel.TECHNICAL_SUPERVISOR_FIELD);
-        Var isPublicVar = makeVar(ExperimentModel.IS_PUBLIC_FIELD);
-
-        // Sub-query : Retrieve all experiments which are accessible according user/group and experiment access rules (publisher, supervisor, public)
-        WhereBuilder where = new WhereBuilder()
-                .addWhere(URI_VAR, RDF.type, TYPE_VAR)
-                .addWhere(TYPE_VAR, Ontology.subClassAny, sparql.getRDFType(ExperimentModel.class))
-                .addOptional(new WhereBuilder()
-                        .addWhere(URI_VAR, SecurityOntology.hasGroup.asNode(), groupVar)
-                        .addWhere(groupVar, SecurityOntology.hasUserProfile.asNode(), userProfileVar)
-                        .addWhere(userProfileVar, SecurityOntology.hasUser.asNode(), userVar))
-                .addOptional(URI_VAR, DCTerms.publisher.asNode(), publisherVar)
-                .addOptional(URI_VAR, Oeso.hasScientificSupervisor.asNode(), scientificSupervisorVar)
-                .addOptional(URI_VAR, Oeso.hasTechnicalSupervisor.asNode(), technicalSupervisorVar)
-                .addOptional(URI_VAR, Oeso.isPublic.asNode(), isPublicVar);
-
-        // Filter : get experiments which are accessible by the user
-        where.addFilter(
-                SPARQLQueryHelper.or(
-                        SPARQLQueryHelper.eq(publisherVar, userNodeURI),
-                        SPARQLQueryHelper.eq(userVar, userNodeURI),
-                        SPARQLQueryHelper.eq(scientificSupervisorVar, userNodeURI),
-                        SPARQLQueryHelper.eq(technicalSupervisorVar, userNodeURI),
-                        SPARQLQueryHelper.eq(isPublicVar, Boolean.TRUE)
-                )
-        );
-
-        SelectBuilder select = new SelectBuilder().addVar(URI_VAR);
-        select.addFilter(SPARQLQueryHelper.getExprFactory().notexists(where));
-
-        SPARQLQueryHelper.addWhereUriStringValues(
-                select,
-                URI_VAR.getVarName(),
-                experiments.stream().map(URI::toString),
-                true,
-                experiments.size()
-        );
-
         // Compute the subset of experiments which are not present in the set of accessible experiments
-        List<URI> forbiddenXps = sparql.executeSelectQueryAsStream(select)
-                .map(result -> URIDeserializer.formatURI(result.getStringValue(URI_VAR.getVarName())))
-                .collect(Collectors.toList());
+        List<URI> forbiddenXps = ExperimentAccessIndex.get(sparql).getForbiddenExperiments(user, experiments, this::searchUserExperiments);
 
         if(! forbiddenXps.isEmpty()){
             throw new ForbiddenURIAccessException(forbiddenXps, "Forbidden Experiment access");
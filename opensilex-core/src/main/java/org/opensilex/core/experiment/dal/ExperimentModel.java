@@ -34,7 +34,9 @@ import java.util.List;
         ontology = Oeso.class,
         resource = "Experiment",
         graph = ExperimentModel.GRAPH,
-        prefix = "expe"
+        prefix = "expe",
+        cacheMaxSize = 1000,
+        labelIndex = true
 )
 public class ExperimentModel extends SPARQLNamedResourceModel<ExperimentModel> implements ClassURIGenerator<ExperimentModel> {
 
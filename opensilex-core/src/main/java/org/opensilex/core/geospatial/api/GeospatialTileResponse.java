@@ -0,0 +1,60 @@
+//******************************************************************************
+//                          GeospatialTileResponse.java
+// OpenSILEX - Licence AGPL V3.0 - https://www.gnu.org/licenses/agpl-3.0.en.html
+// Copyright © INRAE 2024
+// Contact: anne.tireau@inrae.fr, pascal.neveu@inrae.fr
+//******************************************************************************
+package org.opensilex.core.geospatial.api;
+
+import org.opensilex.core.geospatial.dal.GeospatialTiles;
+
+import javax.ws.rs.core.CacheControl;
+import javax.ws.rs.core.EntityTag;
+import javax.ws.rs.core.MediaType;
+import javax.ws.rs.core.Request;
+import javax.ws.rs.core.Response;
+
+/**
+ * Response of a map tile, with the ETag of the tile. The tile is only sent if it doesn't match the If-None-Match header
+ * of the request, otherwise the response is a 304.
+ */
+public class GeospatialTileResponse {
+
+    private final GeospatialTiles.Tile tile;
+
+    private final Request request;
+
+    /**
+     * @param tile    the tile
+     * @param request the request, used to evaluate the If-None-Match header
+     */
+    public GeospatialTileResponse(GeospatialTiles.Tile tile, Request request) {
+        this.tile = tile;
+        this.request = request;
+    }
+
+    public Response getResponse() {
+        EntityTag etag = new EntityTag(tile.etag());
+        Response.ResponseBuilder builder = request.evaluatePreconditions(etag);
+
+        CacheControl cc = new CacheControl();
+        cc.setPrivate(true);
+        cc.setNoTransform(true);
+        cc.setMaxAge(0);
+        cc.setMustRevalidate(true);
+
+        if (builder == null) {
+            return Response
+                    .ok(tile.content(), MediaType.APPLICATION_JSON)
+                    .cacheControl(cc)
+                    .tag(etag)
+                    .build();
+        } else {
+            return builder
+                    .status(Response.Status.NOT_MODIFIED)
+                    .cacheControl(cc)
+                    .tag(etag)
+                    .build();
+        }
+    }
+}
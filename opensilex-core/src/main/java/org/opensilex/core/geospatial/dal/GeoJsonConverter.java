@@ -0,0 +1,428 @@
+//******************************************************************************
+//                          GeoJsonConverter.java
+// OpenSILEX - Licence AGPL V3.0 - https://www.gnu.org/licenses/agpl-3.0.en.html
+// Copyright © INRAE 2024
+// Contact: anne.tireau@inrae.fr, pascal.neveu@inrae.fr
+//******************************************************************************
+package org.opensilex.core.geospatial.dal;
+
+import com.mongodb.client.model.geojson.CoordinateReferenceSystem;
+import com.mongodb.client.model.geojson.Geometry;
+import com.mongodb.client.model.geojson.GeometryCollection;
+import com.mongodb.client.model.geojson.LineString;
+import com.mongodb.client.model.geojson.MultiLineString;
+import com.mongodb.client.model.geojson.MultiPoint;
+import com.mongodb.client.model.geojson.MultiPolygon;
+import com.mongodb.client.model.geojson.NamedCoordinateReferenceSystem;
+import com.mongodb.client.model.geojson.Point;
+import com.mongodb.client.model.geojson.Polygon;
+import com.mongodb.client.model.geojson.PolygonCoordinates;
+import com.mongodb.client.model.geojson.Position;
+import org.bson.codecs.configuration.CodecConfigurationException;
+import org.geojson.Crs;
+import org.geojson.Feature;
+import org.geojson.FeatureCollection;
+import org.geojson.GeoJsonObject;
+import org.geojson.LngLatAlt;
+import org.geojson.jackson.CrsType;
+import org.locationtech.jts.geom.Coordinate;
+import org.locationtech.jts.geom.GeometryFactory;
+import org.locationtech.jts.geom.LinearRing;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * <pre>
+ * Direct conversions between the three geometry models used by OpenSILEX :
+ * - Mongo {@link Geometry}, stored in collections and used by geospatial queries,
+ * - geojson-jackson {@link GeoJsonObject}, exchanged by the API,
+ * - JTS {@link org.locationtech.jts.geom.Geometry}, used for WKT and geometric operations.
+ *
+ * Coordinates are copied from one model to the other, without serializing geometries to a GeoJSON string.
+ * Altitudes and additional coordinate values are kept. Only named coordinate reference systems are supported, like the
+ * Mongo GeoJSON codec.
+ *
+ * Invalid geometries (unclosed polygon ring, position without latitude, ...) are rejected with a
+ * {@link CodecConfigurationException}, as when they were decoded with the Mongo GeoJSON codec.
+ * </pre>
+ */
+public final class GeoJsonConverter {
+
+    /**
+     * JTS geometry factory, immutable and shared
+     */
+    private static final GeometryFactory GEOMETRY_FACTORY = new GeometryFactory();
+
+    private GeoJsonConverter() {
+    }
+
+    // GeoJSON -> Mongo
+
+    /**
+     * @param geoJson a GeoJSON geometry, a feature or a feature collection (converted to a geometry collection)
+     * @return the Mongo geometry, or null if there is no geometry
+     * @throws CodecConfigurationException if the geometry is invalid
+     */
+    public static Geometry toMongo(GeoJsonObject geoJson) {
+        if (geoJson instanceof Feature) {
+            return toMongo(((Feature) geoJson).getGeometry());
+        }
+        if (geoJson instanceof FeatureCollection) {
+            List<Feature> features = ((FeatureCollection) geoJson).getFeatures();
+            List<Geometry> geometries = new ArrayList<>(features.size());
+            for (Feature feature : features) {
+                geometries.add(toMongo(feature.getGeometry()));
+            }
+            return new GeometryCollection(toMongo(geoJson.getCrs()), geometries);
+        }
+        if (geoJson == null) {
+            return null;
+        }
+
+        try {
+            CoordinateReferenceSystem crs = toMongo(geoJson.getCrs());
+
+            if (geoJson instanceof org.geojson.Point) {
+                return new Point(crs, toPosition(((org.geojson.Point) geoJson).getCoordinates()));
+            }
+            if (geoJson instanceof org.geojson.LineString) {
+                return new LineString(crs, toPositions(((org.geojson.LineString) geoJson).getCoordinates()));
+            }
+            if (geoJson instanceof org.geojson.Polygon) {
+                return new Polygon(crs, toPolygonCoordinates(((org.geojson.Polygon) geoJson).getCoordinates()));
+            }
+            if (geoJson instanceof org.geojson.MultiPoint) {
+                return new MultiPoint(crs, toPositions(((org.geojson.MultiPoint) geoJson).getCoordinates()));
+            }
+            if (geoJson instanceof org.geojson.MultiLineString) {
+                List<List<LngLatAlt>> lines = ((org.geojson.MultiLineString) geoJson).getCoordinates();
+                List<List<Position>> coordinates = new ArrayList<>(lines.size());
+                for (List<LngLatAlt> line : lines) {
+                    coordinates.add(toPositions(line));
+                }
+                return new MultiLineString(crs, coordinates);
+            }
+            if (geoJson instanceof org.geojson.MultiPolygon) {
+                List<List<List<LngLatAlt>>> polygons = ((org.geojson.MultiPolygon) geoJson).getCoordinates();
+                List<PolygonCoordinates> coordinates = new ArrayList<>(polygons.size());
+                for (List<List<LngLatAlt>> polygon : polygons) {
+                    coordinates.add(toPolygonCoordinates(polygon));
+                }
+                return new MultiPolygon(crs, coordinates);
+            }
+            if (geoJson instanceof org.geojson.GeometryCollection) {
+                List<GeoJsonObject> children = ((org.geojson.GeometryCollection) geoJson).getGeometries();
+                List<Geometry> geometries = new ArrayList<>(children.size());
+                for (GeoJsonObject child : children) {
+                    geometries.add(toMongo(child));
+                }
+                return new GeometryCollection(crs, geometries);
+            }
+        } catch (IllegalArgumentException | NullPointerException e) {
+            throw new CodecConfigurationException("Invalid " + geoJson.getClass().getSimpleName() + " : " + e.getMessage(), e);
+        }
+
+        throw new CodecConfigurationException("Unsupported GeoJSON object : " + geoJson.getClass().getSimpleName());
+    }
+
+    private static CoordinateReferenceSystem toMongo(Crs crs) {
+        if (crs == null) {
+            return null;
+        }
+        Object name = crs.getProperties() == null ? null : crs.getProperties().get("name");
+        if (crs.getType() != CrsType.name || name == null) {
+            throw new CodecConfigurationException("Unsupported coordinate reference system, only named systems are supported");
+        }
+        return new NamedCoordinateReferenceSystem(name.toString());
+    }
+
+    private static Position toPosition(LngLatAlt coordinates) {
+        if (!coordinates.hasAltitude() && !coordinates.hasAdditionalElements()) {
+            return new Position(coordinates.getLongitude(), coordinates.getLatitude());
+        }
+
+        double[] additionalElements = coordinates.getAdditionalElements();
+        List<Double> values = new ArrayList<>(3 + additionalElements.length);
+        values.add(coordinates.getLongitude());
+        values.add(coordinates.getLatitude());
+        values.add(coordinates.getAltitude());
+        for (double value : additionalElements) {
+            values.add(value);
+        }
+        return new Position(values);
+    }
+
+    private static List<Position> toPositions(List<LngLatAlt> coordinates) {
+        List<Position> positions = new ArrayList<>(coordinates.size());
+        for (LngLatAlt coordinate : coordinates) {
+            positions.add(toPosition(coordinate));
+        }
+        return positions;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static PolygonCoordinates toPolygonCoordinates(List<List<LngLatAlt>> rings) {
+        if (rings.isEmpty()) {
+            throw new IllegalArgumentException("polygon must have an exterior ring");
+        }
+        List<Position>[] holes = new List[rings.size() - 1];
+        for (int i = 1; i < rings.size(); i++) {
+            holes[i - 1] = toPositions(rings.get(i));
+        }
+        return new PolygonCoordinates(toPositions(rings.get(0)), holes);
+    }
+
+    // Mongo -> GeoJSON
+
+    /**
+     * @param geometry a Mongo geometry
+     * @return the GeoJSON geometry, or null if there is no geometry
+     */
+    public static GeoJsonObject toGeoJson(Geometry geometry) {
+        if (geometry == null) {
+            return null;
+        }
+
+        GeoJsonObject geoJson;
+        if (geometry instanceof Point) {
+            geoJson = new org.geojson.Point(toLngLatAlt(((Point) geometry).getPosition()));
+        } else if (geometry instanceof LineString) {
+            org.geojson.LineString lineString = new org.geojson.LineString();
+            lineString.setCoordinates(toLngLatAlts(((LineString) geometry).getCoordinates()));
+            geoJson = lineString;
+        } else if (geometry instanceof Polygon) {
+            org.geojson.Polygon polygon = new org.geojson.Polygon();
+            polygon.setCoordinates(toRings(((Polygon) geometry).getCoordinates()));
+            geoJson = polygon;
+        } else if (geometry instanceof MultiPoint) {
+            org.geojson.MultiPoint multiPoint = new org.geojson.MultiPoint();
+            multiPoint.setCoordinates(toLngLatAlts(((MultiPoint) geometry).getCoordinates()));
+            geoJson = multiPoint;
+        } else if (geometry instanceof MultiLineString) {
+            List<List<Position>> lines = ((MultiLineString) geometry).getCoordinates();
+            List<List<LngLatAlt>> coordinates = new ArrayList<>(lines.size());
+            for (List<Position> line : lines) {
+                coordinates.add(toLngLatAlts(line));
+            }
+            org.geojson.MultiLineString multiLineString = new org.geojson.MultiLineString();
+            multiLineString.setCoordinates(coordinates);
+            geoJson = multiLineString;
+        } else if (geometry instanceof MultiPolygon) {
+            List<PolygonCoordinates> polygons = ((MultiPolygon) geometry).getCoordinates();
+            List<List<List<LngLatAlt>>> coordinates = new ArrayList<>(polygons.size());
+            for (PolygonCoordinates polygon : polygons) {
+                coordinates.add(toRings(polygon));
+            }
+            org.geojson.MultiPolygon multiPolygon = new org.geojson.MultiPolygon();
+            multiPolygon.setCoordinates(coordinates);
+            geoJson = multiPolygon;
+        } else if (geometry instanceof GeometryCollection) {
+            List<? extends Geometry> geometries = ((GeometryCollection) geometry).getGeometries();
+            List<GeoJsonObject> children = new ArrayList<>(geometries.size());
+            for (Geometry child : geometries) {
+                children.add(toGeoJson(child));
+            }
+            org.geojson.GeometryCollection geometryCollection = new org.geojson.GeometryCollection();
+            geometryCollection.setGeometries(children);
+            geoJson = geometryCollection;
+        } else {
+            throw new CodecConfigurationException("Unsupported geometry : " + geometry.getClass().getSimpleName());
+        }
+
+        CoordinateReferenceSystem crs = geometry.getCoordinateReferenceSystem();
+        if (crs instanceof NamedCoordinateReferenceSystem) {
+            Crs geoJsonCrs = new Crs();
+            geoJsonCrs.setType(CrsType.name);
+            geoJsonCrs.setProperties(Map.of("name", ((NamedCoordinateReferenceSystem) crs).getName()));
+            geoJson.setCrs(geoJsonCrs);
+        }
+        return geoJson;
+    }
+
+    private static LngLatAlt toLngLatAlt(Position position) {
+        List<Double> values = position.getValues();
+        if (values.size() == 2) {
+            return new LngLatAlt(values.get(0), values.get(1));
+        }
+        if (values.size() == 3) {
+            return new LngLatAlt(values.get(0), values.get(1), values.get(2));
+        }
+        double[] additionalElements = new double[values.size() - 3];
+        for (int i = 0; i < additionalElements.length; i++) {
+            additionalElements[i] = values.get(i + 3);
+        }
+        return new LngLatAlt(values.get(0), values.get(1), values.get(2), additionalElements);
+    }
+
+    private static List<LngLatAlt> toLngLatAlts(List<Position> positions) {
+        List<LngLatAlt> coordinates = new ArrayList<>(positions.size());
+        for (Position position : positions) {
+            coordinates.add(toLngLatAlt(position));
+        }
+        return coordinates;
+    }
+
+    private static List<List<LngLatAlt>> toRings(PolygonCoordinates coordinates) {
+        List<List<LngLatAlt>> rings = new ArrayList<>(1 + coordinates.getHoles().size());
+        rings.add(toLngLatAlts(coordinates.getExterior()));
+        for (List<Position> hole : coordinates.getHoles()) {
+            rings.add(toLngLatAlts(hole));
+        }
+        return rings;
+    }
+
+    // JTS -> Mongo
+
+    /**
+     * @param geometry a JTS geometry
+     * @return the Mongo geometry, or null if there is no geometry
+     * @throws CodecConfigurationException if the geometry is empty or invalid
+     */
+    public static Geometry fromJts(org.locationtech.jts.geom.Geometry geometry) {
+        if (geometry == null) {
+            return null;
+        }
+
+        try {
+            if (geometry instanceof org.locationtech.jts.geom.Point) {
+                return new Point(toPosition(geometry.getCoordinate()));
+            }
+            if (geometry instanceof org.locationtech.jts.geom.LineString) {
+                return new LineString(toPositions(geometry.getCoordinates()));
+            }
+            if (geometry instanceof org.locationtech.jts.geom.Polygon) {
+                return new Polygon(toPolygonCoordinates((org.locationtech.jts.geom.Polygon) geometry));
+            }
+            if (geometry instanceof org.locationtech.jts.geom.MultiPoint) {
+                return new MultiPoint(toPositions(geometry.getCoordinates()));
+            }
+            if (geometry instanceof org.locationtech.jts.geom.MultiLineString) {
+                List<List<Position>> coordinates = new ArrayList<>(geometry.getNumGeometries());
+                for (int i = 0; i < geometry.getNumGeometries(); i++) {
+                    coordinates.add(toPositions(geometry.getGeometryN(i).getCoordinates()));
+                }
+                return new MultiLineString(coordinates);
+            }
+            if (geometry instanceof org.locationtech.jts.geom.MultiPolygon) {
+                List<PolygonCoordinates> coordinates = new ArrayList<>(geometry.getNumGeometries());
+                for (int i = 0; i < geometry.getNumGeometries(); i++) {
+                    coordinates.add(toPolygonCoordinates((org.locationtech.jts.geom.Polygon) geometry.getGeometryN(i)));
+                }
+                return new MultiPolygon(coordinates);
+            }
+            if (geometry instanceof org.locationtech.jts.geom.GeometryCollection) {
+                List<Geometry> geometries = new ArrayList<>(geometry.getNumGeometries());
+                for (int i = 0; i < geometry.getNumGeometries(); i++) {
+                    geometries.add(fromJts(geometry.getGeometryN(i)));
+                }
+                return new GeometryCollection(geometries);
+            }
+        } catch (IllegalArgumentException | NullPointerException e) {
+            throw new CodecConfigurationException("Invalid " + geometry.getGeometryType() + " : " + e.getMessage(), e);
+        }
+
+        throw new CodecConfigurationException("Unsupported geometry : " + geometry.getGeometryType());
+    }
+
+    private static Position toPosition(Coordinate coordinate) {
+        if (Double.isNaN(coordinate.getZ())) {
+            return new Position(coordinate.getX(), coordinate.getY());
+        }
+        return new Position(coordinate.getX(), coordinate.getY(), coordinate.getZ());
+    }
+
+    private static List<Position> toPositions(Coordinate[] coordinates) {
+        List<Position> positions = new ArrayList<>(coordinates.length);
+        for (Coordinate coordinate : coordinates) {
+            positions.add(toPosition(coordinate));
+        }
+        return positions;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static PolygonCoordinates toPolygonCoordinates(org.locationtech.jts.geom.Polygon polygon) {
+        List<Position>[] holes = new List[polygon.getNumInteriorRing()];
+        for (int i = 0; i < holes.length; i++) {
+            holes[i] = toPositions(polygon.getInteriorRingN(i).getCoordinates());
+        }
+        return new PolygonCoordinates(toPositions(polygon.getExteriorRing().getCoordinates()), holes);
+    }
+
+    // Mongo -> JTS
+
+    /**
+     * @param geometry a Mongo geometry
+     * @return the JTS geometry, or null if there is no geometry
+     */
+    public static org.locationtech.jts.geom.Geometry toJts(Geometry geometry) {
+        if (geometry == null) {
+            return null;
+        }
+
+        if (geometry instanceof Point) {
+            return GEOMETRY_FACTORY.createPoint(toCoordinate(((Point) geometry).getPosition()));
+        }
+        if (geometry instanceof LineString) {
+            return GEOMETRY_FACTORY.createLineString(toCoordinates(((LineString) geometry).getCoordinates()));
+        }
+        if (geometry instanceof Polygon) {
+            return toJtsPolygon(((Polygon) geometry).getCoordinates());
+        }
+        if (geometry instanceof MultiPoint) {
+            return GEOMETRY_FACTORY.createMultiPointFromCoords(toCoordinates(((MultiPoint) geometry).getCoordinates()));
+        }
+        if (geometry instanceof MultiLineString) {
+            List<List<Position>> lines = ((MultiLineString) geometry).getCoordinates();
+            org.locationtech.jts.geom.LineString[] lineStrings = new org.locationtech.jts.geom.LineString[lines.size()];
+            for (int i = 0; i < lineStrings.length; i++) {
+                lineStrings[i] = GEOMETRY_FACTORY.createLineString(toCoordinates(lines.get(i)));
+            }
+            return GEOMETRY_FACTORY.createMultiLineString(lineStrings);
+        }
+        if (geometry instanceof MultiPolygon) {
+            List<PolygonCoordinates> polygons = ((MultiPolygon) geometry).getCoordinates();
+            org.locationtech.jts.geom.Polygon[] jtsPolygons = new org.locationtech.jts.geom.Polygon[polygons.size()];
+            for (int i = 0; i < jtsPolygons.length; i++) {
+                jtsPolygons[i] = toJtsPolygon(polygons.get(i));
+            }
+            return GEOMETRY_FACTORY.createMultiPolygon(jtsPolygons);
+        }
+        if (geometry instanceof GeometryCollection) {
+            List<? extends Geometry> geometries = ((GeometryCollection) geometry).getGeometries();
+            org.locationtech.jts.geom.Geometry[] jtsGeometries = new org.locationtech.jts.geom.Geometry[geometries.size()];
+            for (int i = 0; i < jtsGeometries.length; i++) {
+                jtsGeometries[i] = toJts(geometries.get(i));
+            }
+            return GEOMETRY_FACTORY.createGeometryCollection(jtsGeometries);
+        }
+
+        throw new CodecConfigurationException("Unsupported geometry : " + geometry.getClass().getSimpleName());
+    }
+
+    private static Coordinate toCoordinate(Position position) {
+        List<Double> values = position.getValues();
+        if (values.size() > 2) {
+            return new Coordinate(values.get(0), values.get(1), values.get(2));
+        }
+        return new Coordinate(values.get(0), values.get(1));
+    }
+
+    private static Coordinate[] toCoordinates(List<Position> positions) {
+        Coordinate[] coordinates = new Coordinate[positions.size()];
+        for (int i = 0; i < coordinates.length; i++) {
+            coordinates[i] = toCoordinate(positions.get(i));
+        }
+        return coordinates;
+    }
+
+    private static org.locationtech.jts.geom.Polygon toJtsPolygon(PolygonCoordinates coordinates) {
+        List<List<Position>> holes = coordinates.getHoles();
+        LinearRing[] jtsHoles = new LinearRing[holes.size()];
+        for (int i = 0; i < jtsHoles.length; i++) {
+            jtsHoles[i] = GEOMETRY_FACTORY.createLinearRing(toCoordinates(holes.get(i)));
+        }
+        return GEOMETRY_FACTORY.createPolygon(GEOMETRY_FACTORY.createLinearRing(toCoordinates(coordinates.getExterior())), jtsHoles);
+    }
+}
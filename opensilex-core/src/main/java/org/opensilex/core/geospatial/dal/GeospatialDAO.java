@@ -20,29 +20,19 @@ import com.mongodb.client.model.IndexOptions;
 import com.mongodb.client.model.Indexes;
 import com.mongodb.client.model.geojson.Geometry;
 import com.mongodb.client.model.geojson.Point;
-import com.mongodb.client.model.geojson.codecs.GeoJsonCodecProvider;
-import org.bson.BsonReader;
+import com.mongodb.client.model.geojson.Polygon;
 import org.bson.Document;
-import org.bson.codecs.Codec;
-import org.bson.codecs.DecoderContext;
-import org.bson.codecs.configuration.CodecRegistry;
 import org.bson.conversions.Bson;
-import org.bson.json.JsonReader;
 import org.geojson.Feature;
-import org.geojson.FeatureCollection;
 import org.geojson.GeoJsonObject;
-import org.geojson.GeometryCollection;
 import org.locationtech.jts.io.ParseException;
 import org.locationtech.jts.io.WKTReader;
 import org.locationtech.jts.io.WKTWriter;
-import org.locationtech.jts.io.geojson.GeoJsonReader;
-import org.locationtech.jts.io.geojson.GeoJsonWriter;
 import org.opensilex.core.ontology.Oeso;
 import org.opensilex.nosql.mongodb.MongoModel;
 import org.opensilex.sparql.ontology.dal.OntologyDAO;
 import org.opensilex.nosql.mongodb.MongoDBService;
 import org.opensilex.security.account.dal.AccountModel;
-import org.opensilex.server.rest.serialization.ObjectMapperContextResolver;
 import org.opensilex.sparql.deserializer.SPARQLDeserializers;
 import org.opensilex.sparql.deserializer.URIDeserializer;
 import org.opensilex.sparql.model.SPARQLTreeListModel;
@@ -60,7 +50,6 @@ import java.util.LinkedList;
 import java.util.List;
 
 import static com.mongodb.client.model.Filters.and;
-import static org.bson.codecs.configuration.CodecRegistries.fromProviders;
 
 /**
  * Geospatial DAO
@@ -70,72 +59,52 @@ import static org.bson.codecs.configuration.CodecRegistries.fromProviders;
 public class GeospatialDAO {
 
     private final MongoCollection<GeospatialModel> geometryCollection;
+    private final GeospatialTiles tiles;
 
     public static final String GEOSPATIAL_COLLECTION_NAME = "geospatial";
     protected final static Logger LOGGER = LoggerFactory.getLogger(GeospatialDAO.class);
 
-    public GeospatialDAO(MongoDBService nosql) {
+    public GeospatialDAO(MongoDBService nosql, SPARQLService sparql) {
         MongoDatabase db = nosql.getDatabase();
         geometryCollection = db.getCollection(GEOSPATIAL_COLLECTION_NAME, GeospatialModel.class);
+        tiles = GeospatialTiles.get(sparql);
         createIndexes();
     }
 
+    /**
+     * @param geo a GeoJSON geometry, a feature or a feature collection (converted to a geometry collection)
+     * @return the Mongo geometry
+     * @see GeoJsonConverter#toMongo(GeoJsonObject)
+     */
     public static Geometry geoJsonToGeometry(GeoJsonObject geo) throws JsonProcessingException {
-
-        if (geo instanceof Feature) {
-            Feature feature = (Feature) geo;
-            geo = feature.getGeometry();
-        } else if (geo instanceof FeatureCollection) {
-            FeatureCollection featureCol = (FeatureCollection) geo;
-            GeometryCollection geoCol = new GeometryCollection();
-            List<Feature> features = featureCol.getFeatures();
-            for (Feature feature : features) {
-                geoCol.add(feature.getGeometry());
-            }
-            geo = geoCol;
-        }
-
-        String geoJSON = ObjectMapperContextResolver.getObjectMapper().writeValueAsString(geo);
-        BsonReader jsonReader = new JsonReader(geoJSON);
-
-        CodecRegistry geoJsonCodecRegistry = fromProviders(new GeoJsonCodecProvider());
-        Codec<Geometry> geocodec = geoJsonCodecRegistry.get(Geometry.class);
-
-        return geocodec.decode(jsonReader, DecoderContext.builder().build());
+        return GeoJsonConverter.toMongo(geo);
     }
 
     public static Geometry wktToGeometry(String wktString) throws ParseException, JsonProcessingException {
-        final WKTReader reader = new WKTReader();
-        org.locationtech.jts.geom.Geometry geom = reader.read(wktString);
-        final GeoJsonWriter writer = new GeoJsonWriter();
-        writer.setEncodeCRS(false);
-        String geoJSON = writer.write(geom);
-        return geoJsonToGeometry(ObjectMapperContextResolver.getObjectMapper().readValue(geoJSON, GeoJsonObject.class));
+        return GeoJsonConverter.fromJts(new WKTReader().read(wktString));
     }
 
+    /**
+     * @param geometry a Mongo geometry
+     * @return a GeoJSON feature with the geometry
+     * @see GeoJsonConverter#toGeoJson(Geometry)
+     */
     public static GeoJsonObject geometryToGeoJson(Geometry geometry) throws JsonProcessingException {
         Feature geo = new Feature();
-        String geoJSON = geometry.toJson();
-        GeoJsonObject geoJsonGeometry = ObjectMapperContextResolver.getObjectMapper().readValue(geoJSON, GeoJsonObject.class);
-        geo.setGeometry(geoJsonGeometry);
+        geo.setGeometry(GeoJsonConverter.toGeoJson(geometry));
 
         return geo;
     }
 
     public static String geometryToWkt(Geometry geometry) throws JsonProcessingException, ParseException {
-        String geoJSON = geometry.toJson();
-        GeoJsonObject geoJsonGeometry = ObjectMapperContextResolver.getObjectMapper().readValue(geoJSON, GeoJsonObject.class);
-        final GeoJsonReader reader = new GeoJsonReader();
-        String geoJSONString = ObjectMapperContextResolver.getObjectMapper().writeValueAsString(geoJsonGeometry);
-        org.locationtech.jts.geom.Geometry geom = reader.read(geoJSONString);
-        WKTWriter writer = new WKTWriter();
-        return writer.write(geom);
+        return new WKTWriter().write(GeoJsonConverter.toJts(geometry));
     }
 
     public GeospatialModel create(GeospatialModel instanceGeospatial) throws MongoWriteException {
         if (instanceGeospatial.getGeometry() != null) {
             // the verification of the existence of the URI is done by mongoDB thanks to the uri_1_graph_1 index.
             geometryCollection.insertOne(instanceGeospatial);
+            tiles.invalidate(instanceGeospatial.getGraph());
         }
 
         return instanceGeospatial;
@@ -163,11 +132,31 @@ public class GeospatialDAO {
             Document filter = getFilter(uri, graph);
 
             // the verification of the existence of the URI is done by mongoDB thanks to the uri_1_graph_1 index.
-            return geometryCollection.findOneAndReplace(filter, geospatial, new FindOneAndReplaceOptions().upsert(true));
+            GeospatialModel previous = geometryCollection.findOneAndReplace(filter, geospatial, new FindOneAndReplaceOptions().upsert(true));
+            invalidateTiles(graph, previous);
+            tiles.invalidate(geospatial.getGraph());
+            return previous;
         }
         return geospatial;
     }
 
+    /**
+     * Invalidate the tiles which contained a geometry replaced or deleted by a filter on a graph
+     *
+     * @param graph    graph of the filter, null if the filter matches geometries of any graph
+     * @param previous replaced or deleted geometry, null if none matched the filter
+     */
+    private void invalidateTiles(URI graph, GeospatialModel previous) {
+        if (previous == null) {
+            return;
+        }
+        if (graph == null) {
+            tiles.invalidate(previous.getGraph());
+        } else {
+            tiles.invalidate(graph);
+        }
+    }
+
     private Document getFilter(URI uri, URI graph) {
         if (graph != null) {
             return new Document("uri", SPARQLDeserializers.getExpandedURI(uri)).append("graph", SPARQLDeserializers.getExpandedURI(graph));
@@ -178,7 +167,7 @@ public class GeospatialDAO {
     public void delete(URI uri, URI graph) {
         Document filter = getFilter(uri, graph);
 
-        geometryCollection.deleteOne(filter);
+        invalidateTiles(graph, geometryCollection.findOneAndDelete(filter));
     }
 
     private ListWithPagination<GeospatialModel> getGeospatialModelListWithPagination(Integer page, Integer pageSize, FindIterable<GeospatialModel> geospatialFindIterable) {
@@ -337,5 +326,49 @@ public class GeospatialDAO {
 
     public void createAll(List<GeospatialModel> geospatialModels) {
         geometryCollection.insertMany(geospatialModels);
+        geospatialModels.stream()
+                .map(GeospatialModel::getGraph)
+                .distinct()
+                .forEach(tiles::invalidate);
+    }
+
+    /**
+     * Get a map tile of the geometries, simplified according to the zoom level of the tile
+     *
+     * @param graph    graph of the geometries, geometries without graph (such as areas) if null
+     * @param rdfTypes types of the geometries, all types if null or empty
+     * @param z        zoom level of the tile, between 0 and {@link GeospatialTiles#MAX_ZOOM}
+     * @param x        column of the tile, between 0 and 2^z - 1 from west to east
+     * @param y        row of the tile, between 0 and 2^z - 1 from north to south
+     * @return the tile, from the tile cache if it was already computed since the last update of the geometries
+     * @throws IllegalArgumentException if the coordinates are not those of a tile
+     * @see GeospatialTiles
+     */
+    public GeospatialTiles.Tile getTile(URI graph, List<URI> rdfTypes, int z, int x, int y) {
+        GeospatialTiles.checkCoordinates(z, x, y);
+
+        String expandedGraph = graph == null ? null : SPARQLDeserializers.getExpandedURI(graph);
+        List<String> expandedTypes = rdfTypes == null ? List.of() : rdfTypes.stream()
+                .map(SPARQLDeserializers::getExpandedURI)
+                .distinct()
+                .sorted()
+                .toList();
+
+        GeospatialTiles.Key key = new GeospatialTiles.Key(expandedGraph, expandedTypes, z, x, y);
+        return tiles.get(key, () -> {
+            List<Bson> filters = new ArrayList<>();
+            Polygon tilePolygon = GeospatialTiles.getTilePolygon(z, x, y);
+            if (tilePolygon != null) {
+                filters.add(Filters.geoIntersects(GeospatialModel.GEOMETRY_FIELD, tilePolygon));
+            }
+            filters.add(Filters.eq(GeospatialModel.GRAPH_FIELD, expandedGraph));
+            if (!expandedTypes.isEmpty()) {
+                filters.add(Filters.in(GeospatialModel.RDF_TYPE_FIELD, expandedTypes));
+            }
+            Bson filter = and(filters);
+
+            LOGGER.debug("MongoDB search tile {}/{}/{}: {}", z, x, y, filter);
+            return GeospatialTiles.build(z, x, y, geometryCollection.find(filter));
+        });
     }
 }
\ No newline at end of file
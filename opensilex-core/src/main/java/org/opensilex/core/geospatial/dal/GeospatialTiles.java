@@ -0,0 +1,364 @@
+//******************************************************************************
+//                          GeospatialTiles.java
+// OpenSILEX - Licence AGPL V3.0 - https://www.gnu.org/licenses/agpl-3.0.en.html
+// Copyright © INRAE 2024
+// Contact: anne.tireau@inrae.fr, pascal.neveu@inrae.fr
+//******************************************************************************
+package org.opensilex.core.geospatial.dal;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import com.google.common.hash.Hashing;
+import com.mongodb.client.model.geojson.Polygon;
+import com.mongodb.client.model.geojson.Position;
+import org.bson.codecs.configuration.CodecConfigurationException;
+import org.locationtech.jts.geom.Envelope;
+import org.locationtech.jts.geom.Geometry;
+import org.locationtech.jts.index.strtree.STRtree;
+import org.locationtech.jts.io.geojson.GeoJsonWriter;
+import org.locationtech.jts.simplify.TopologyPreservingSimplifier;
+import org.opensilex.server.rest.serialization.ObjectMapperContextResolver;
+import org.opensilex.sparql.deserializer.URIDeserializer;
+import org.opensilex.sparql.service.SPARQLService;
+import org.opensilex.sparql.service.SPARQLSharedIndex;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.net.URI;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * <pre>
+ * Map tiles of the geometries of the {@link GeospatialDAO#GEOSPATIAL_COLLECTION_NAME} collection, identified by a zoom
+ * level and x/y coordinates in the Web Mercator tiling scheme (the z/x/y scheme used by OpenStreetMap and OpenLayers).
+ *
+ * A tile is a GeoJSON FeatureCollection of the geometries which intersect the tile, where :
+ * - geometries smaller than a pixel of the zoom level are dropped (except points),
+ * - other geometries are simplified with a tolerance of one pixel, and their coordinates are rounded to the pixel.
+ *
+ * Tiles are kept in a cache shared by all requests on the same repository, which is invalidated by the writes of the
+ * {@link GeospatialDAO} of this repository.
+ *
+ * Tiles can also be built from geometries which are not stored in this collection, such as the positions of the
+ * scientific objects which are read from their location observations, see {@link #get(String, int, int, int, Callable)}.
+ * </pre>
+ */
+public class GeospatialTiles implements SPARQLSharedIndex {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(GeospatialTiles.class);
+
+    public static final int MAX_ZOOM = 24;
+
+    /**
+     * Number of pixels of the side of a tile
+     */
+    private static final int TILE_SIZE = 256;
+
+    /**
+     * Tiles of lower zoom levels are larger than a hemisphere, and can't be used as a $geoIntersects polygon
+     */
+    private static final int MIN_INTERSECTS_ZOOM = 2;
+
+    /**
+     * Number of segments of each side of the tile polygon, since edges of a 2dsphere polygon are geodesics instead of
+     * parallels
+     */
+    private static final int TILE_SIDE_SEGMENTS = 16;
+
+    private static final long CACHE_MAX_WEIGHT = 64L * 1024 * 1024;
+    private static final Duration CACHE_EXPIRATION = Duration.ofHours(1);
+
+    /**
+     * Geometries not stored in the collection are not invalidated by writes, so they are only shared by the tiles
+     * requested at the same time, for example to display a map
+     */
+    private static final Duration GEOMETRY_SET_EXPIRATION = Duration.ofSeconds(30);
+    private static final int GEOMETRY_SET_MAX_SIZE = 32;
+
+    /**
+     * @param graph    graph of the geometries, null for geometries without graph
+     * @param rdfTypes expanded types of the geometries, empty for all types
+     */
+    record Key(String graph, List<String> rdfTypes, int z, int x, int y) {
+    }
+
+    /**
+     * @param content GeoJSON FeatureCollection
+     * @param etag    hash of the content
+     */
+    public record Tile(String content, String etag) {
+    }
+
+    private final Cache<Key, Tile> tiles = Caffeine.newBuilder()
+            .maximumWeight(CACHE_MAX_WEIGHT)
+            .weigher((Key key, Tile tile) -> tile.content().length() * 2)
+            .expireAfterWrite(CACHE_EXPIRATION)
+            .recordStats()
+            .build();
+
+    /**
+     * Spatial index of the geometries of each set, see {@link #get(String, int, int, int, Callable)}
+     */
+    private final Cache<String, STRtree> geometrySets = Caffeine.newBuilder()
+            .maximumSize(GEOMETRY_SET_MAX_SIZE)
+            .expireAfterWrite(GEOMETRY_SET_EXPIRATION)
+            .build();
+
+    /**
+     * Incremented at each invalidation, so that tiles computed before an invalidation are not cached after it
+     */
+    private final AtomicLong generation = new AtomicLong();
+
+    /**
+     * @param sparql service
+     * @return the tiles of the repository of the service
+     */
+    public static GeospatialTiles get(SPARQLService sparql) {
+        return sparql.getSharedIndex(GeospatialTiles.class, GeospatialTiles::new);
+    }
+
+    /**
+     * Geometries are stored in MongoDB, so tiles are only invalidated by the writes of {@link GeospatialDAO}
+     */
+    @Override
+    public void onWrite(Set<Class<?>> writtenClasses) {
+    }
+
+    /**
+     * @throws IllegalArgumentException if the coordinates are not those of a tile
+     */
+    static void checkCoordinates(int z, int x, int y) {
+        if (z < 0 || z > MAX_ZOOM) {
+            throw new IllegalArgumentException("Zoom level must be between 0 and " + MAX_ZOOM);
+        }
+        int tileCount = 1 << z;
+        if (x < 0 || x >= tileCount || y < 0 || y >= tileCount) {
+            throw new IllegalArgumentException("Tile coordinates must be between 0 and " + (tileCount - 1) + " at zoom level " + z);
+        }
+    }
+
+    private static double getLongitude(int x, int z) {
+        return x * 360.0 / (1 << z) - 180;
+    }
+
+    private static double getLatitude(int y, int z) {
+        double n = Math.PI * (1 - 2.0 * y / (1 << z));
+        return Math.toDegrees(Math.atan(Math.sinh(n)));
+    }
+
+    /**
+     * @return the longitude/latitude envelope of the tile
+     */
+    static Envelope getTileEnvelope(int z, int x, int y) {
+        return new Envelope(getLongitude(x, z), getLongitude(x + 1, z), getLatitude(y + 1, z), getLatitude(y, z));
+    }
+
+    /**
+     * @return the polygon of the tile, or null if the tile is too large to be used by $geoIntersects
+     */
+    static Polygon getTilePolygon(int z, int x, int y) {
+        if (z < MIN_INTERSECTS_ZOOM) {
+            return null;
+        }
+        double west = getLongitude(x, z);
+        double east = getLongitude(x + 1, z);
+        double north = getLatitude(y, z);
+        double south = getLatitude(y + 1, z);
+
+        // counterclockwise ring, with intermediate points on each side
+        List<Position> ring = new ArrayList<>(4 * TILE_SIDE_SEGMENTS + 1);
+        for (int i = 0; i < TILE_SIDE_SEGMENTS; i++) {
+            ring.add(new Position(west + (east - west) * i / TILE_SIDE_SEGMENTS, south));
+        }
+        for (int i = 0; i < TILE_SIDE_SEGMENTS; i++) {
+            ring.add(new Position(east, south + (north - south) * i / TILE_SIDE_SEGMENTS));
+        }
+        for (int i = 0; i < TILE_SIDE_SEGMENTS; i++) {
+            ring.add(new Position(east - (east - west) * i / TILE_SIDE_SEGMENTS, north));
+        }
+        for (int i = 0; i < TILE_SIDE_SEGMENTS; i++) {
+            ring.add(new Position(west, north - (north - south) * i / TILE_SIDE_SEGMENTS));
+        }
+        ring.add(ring.get(0));
+        return new Polygon(ring);
+    }
+
+    /**
+     * @param key    tile key
+     * @param loader computation of the tile, called if the tile is not cached
+     * @return the tile
+     */
+    Tile get(Key key, Supplier<Tile> loader) {
+        Tile tile = tiles.getIfPresent(key);
+        if (tile != null) {
+            return tile;
+        }
+
+        long loadGeneration = generation.get();
+        tile = loader.get();
+        if (generation.get() == loadGeneration) {
+            tiles.put(key, tile);
+            // an invalidation may have happened between the check and the put
+            if (generation.get() != loadGeneration) {
+                tiles.invalidate(key);
+            }
+        }
+        return tile;
+    }
+
+    /**
+     * Get a tile of a set of geometries which are not stored in the {@link GeospatialDAO#GEOSPATIAL_COLLECTION_NAME}
+     * collection. The geometries of a set are loaded once and indexed for the tiles requested during
+     * {@link #GEOMETRY_SET_EXPIRATION}, tiles are not cached.
+     *
+     * @param setKey identifier of the geometries, including all the parameters of the loader
+     * @param loader loader of the geometries, called if the set is not cached
+     * @return the tile
+     * @throws IllegalArgumentException if the coordinates are not those of a tile
+     * @throws Exception                if the loader fails
+     */
+    public Tile get(String setKey, int z, int x, int y, Callable<List<GeospatialModel>> loader) throws Exception {
+        checkCoordinates(z, x, y);
+
+        STRtree index;
+        try {
+            index = geometrySets.get(setKey, key -> {
+                try {
+                    return buildIndex(loader.call());
+                } catch (Exception e) {
+                    throw new CompletionException(e);
+                }
+            });
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof Exception cause) {
+                throw cause;
+            }
+            throw e;
+        }
+
+        @SuppressWarnings("unchecked")
+        List<GeospatialModel> candidates = index.query(getTileEnvelope(z, x, y));
+        return build(z, x, y, candidates);
+    }
+
+    private static STRtree buildIndex(List<GeospatialModel> geometries) {
+        STRtree index = new STRtree();
+        for (GeospatialModel model : geometries) {
+            if (model.getGeometry() == null) {
+                continue;
+            }
+            try {
+                index.insert(GeoJsonConverter.toJts(model.getGeometry()).getEnvelopeInternal(), model);
+            } catch (CodecConfigurationException | IllegalArgumentException e) {
+                LOGGER.warn("Invalid geometry of {} ignored in tiles : {}", model.getUri(), e.getMessage());
+            }
+        }
+        // built before being shared, queries are then thread safe
+        index.build();
+        return index;
+    }
+
+    /**
+     * Build a tile from the geometries which intersect it
+     *
+     * @param geometries geometries which intersect the tile
+     */
+    static Tile build(int z, int x, int y, Iterable<GeospatialModel> geometries) {
+        double north = getLatitude(y, z);
+        double south = getLatitude(y + 1, z);
+        double centerLatitude = Math.toRadians((north + south) / 2);
+
+        // size of a pixel in degrees, a degree of latitude is longer than a degree of longitude except on the equator
+        double pixelLongitude = 360.0 / ((long) TILE_SIZE << z);
+        double pixelLatitude = pixelLongitude * Math.cos(centerLatitude);
+        int decimals = Math.max(1, Math.min(8, (int) Math.ceil(-Math.log10(pixelLatitude)) + 1));
+
+        GeoJsonWriter writer = new GeoJsonWriter(decimals);
+        writer.setEncodeCRS(false);
+
+        StringWriter content = new StringWriter();
+        try (JsonGenerator generator = ObjectMapperContextResolver.getObjectMapper().getFactory().createGenerator(content)) {
+            generator.writeStartObject();
+            generator.writeStringField("type", "FeatureCollection");
+            generator.writeArrayFieldStart("features");
+
+            for (GeospatialModel model : geometries) {
+                Geometry geometry;
+                try {
+                    geometry = GeoJsonConverter.toJts(model.getGeometry());
+                } catch (CodecConfigurationException | IllegalArgumentException e) {
+                    LOGGER.warn("Invalid geometry of {} ignored in tile {}/{}/{} : {}", model.getUri(), z, x, y, e.getMessage());
+                    continue;
+                }
+
+                if (geometry.getDimension() > 0) {
+                    Envelope envelope = geometry.getEnvelopeInternal();
+                    if (envelope.getWidth() < pixelLongitude && envelope.getHeight() < pixelLatitude) {
+                        continue;
+                    }
+                    geometry = TopologyPreservingSimplifier.simplify(geometry, pixelLatitude);
+                }
+
+                generator.writeStartObject();
+                generator.writeStringField("type", "Feature");
+                generator.writeStringField("id", URIDeserializer.formatURIAsStr(model.getUri().toString()));
+                generator.writeFieldName("geometry");
+                generator.writeRawValue(writer.write(geometry));
+                generator.writeObjectFieldStart("properties");
+                generator.writeStringField("uri", URIDeserializer.formatURIAsStr(model.getUri().toString()));
+                if (model.getName() != null) {
+                    generator.writeStringField("name", model.getName());
+                }
+                if (model.getRdfType() != null) {
+                    generator.writeStringField("rdf_type", URIDeserializer.formatURIAsStr(model.getRdfType().toString()));
+                }
+                generator.writeEndObject();
+                generator.writeEndObject();
+            }
+
+            generator.writeEndArray();
+            generator.writeEndObject();
+        } catch (IOException e) {
+            // only thrown by the underlying writer, which is a StringWriter
+            throw new IllegalStateException(e);
+        }
+
+        String json = content.toString();
+        return new Tile(json, Hashing.sha256().hashUnencodedChars(json).toString());
+    }
+
+    /**
+     * Invalidate the tiles which may contain geometries of a graph
+     *
+     * @param graph graph of written geometries, null for geometries without graph
+     */
+    void invalidate(URI graph) {
+        String expandedGraph = graph == null ? null : URIDeserializer.getExpandedURI(graph);
+        generation.incrementAndGet();
+        tiles.asMap().keySet().removeIf(key -> Objects.equals(key.graph(), expandedGraph));
+    }
+
+    /**
+     * Invalidate all tiles, used when the graph of written geometries is unknown
+     */
+    void invalidateAll() {
+        generation.incrementAndGet();
+        tiles.invalidateAll();
+    }
+
+    public CacheStats getStatistics() {
+        return tiles.stats();
+    }
+}
@@ -11,11 +11,17 @@ import com.mongodb.client.MongoCollection;
 import com.mongodb.client.model.IndexOptions;
 import com.mongodb.client.model.Indexes;
 import org.apache.commons.collections4.CollectionUtils;
+import org.apache.commons.collections4.ListUtils;
 import org.apache.commons.collections4.MapUtils;
 import org.apache.commons.collections4.SetUtils;
+import org.apache.jena.arq.querybuilder.SelectBuilder;
+import org.apache.jena.sparql.core.Var;
+import org.apache.jena.vocabulary.RDF;
 import org.bson.Document;
 import org.opensilex.core.experiment.dal.ExperimentModel;
 import org.opensilex.core.germplasm.api.GermplasmSearchFilter;
+import org.opensilex.core.metrics.dal.MetricCounterDAO;
+import org.opensilex.core.metrics.dal.MetricCounterType;
 import org.opensilex.nosql.distributed.SparqlMongoTransaction;
 import org.opensilex.nosql.exceptions.NoSQLInvalidURIException;
 import org.opensilex.nosql.mongodb.MongoDBService;
@@ -28,6 +34,7 @@ import org.opensilex.security.group.dal.GroupModel;
 import org.opensilex.sparql.deserializer.SPARQLDeserializers;
 import org.opensilex.sparql.exceptions.SPARQLException;
 import org.opensilex.sparql.model.SPARQLResourceModel;
+import org.opensilex.sparql.service.SPARQLQueryHelper;
 import org.opensilex.sparql.service.SPARQLService;
 import org.opensilex.utils.ListWithPagination;
 import org.opensilex.utils.OrderBy;
@@ -36,6 +43,8 @@ import java.net.URI;
 import java.util.*;
 import java.util.stream.Collectors;
 
+import static org.opensilex.sparql.service.SPARQLQueryHelper.makeVar;
+
 /**
  * Data Access Object for Germplasm, metadatas (also known as attributes) are stored in MongoDB while the rest is stored in RDF.
  * @author Alice Boizet
@@ -46,6 +55,7 @@ public class GermplasmDAO {
     protected final MongoDBServiceV2 nosql;
     private final GermplasmSparqlDAO sparqlDAO;
     private final GermplasmMetadataDAO metaDataDao;
+    private final MetricCounterDAO metricCounterDAO;
     public static final String ATTRIBUTES_COLLECTION_NAME = "germplasmAttribute";
 
     public GermplasmDAO(SPARQLService sparql, MongoDBServiceV2 nosql) {
@@ -53,6 +63,7 @@ public class GermplasmDAO {
         this.nosql = nosql;
         this.sparqlDAO = new GermplasmSparqlDAO(sparql);
         this.metaDataDao = new GermplasmMetadataDAO(nosql, ATTRIBUTES_COLLECTION_NAME);
+        this.metricCounterDAO = new MetricCounterDAO(nosql.getDatabase());
 
         MongoCollection<MetaDataModel> collection = nosql.getDatabase().getCollection(ATTRIBUTES_COLLECTION_NAME, MetaDataModel.class);
         collection.createIndex(Indexes.ascending(MongoModel.URI_FIELD), new IndexOptions().unique(true));
@@ -65,6 +76,7 @@ public class GermplasmDAO {
     public GermplasmModel update(GermplasmModel model, AccountModel user) throws Exception {
         var storedAttributes = getStoredAttributes(model.getUri());
         var attributeModel = model.getMetadata();
+        List<URI> typesBefore = getTypes(Collections.singletonList(model.getUri()));
 
         if (((attributeModel == null || MapUtils.isEmpty(attributeModel.getAttributes())) && storedAttributes == null)) {
             sparqlDAO.update(model,user);
@@ -82,15 +94,20 @@ public class GermplasmDAO {
                 return null;
             });
         }
+        updateMetricCounters(typesBefore, getTypes(Collections.singletonList(model.getUri())));
         return model;
     }
 
     public List<GermplasmModel> updateList(List<GermplasmModel> models) throws Exception {
+        List<URI> uris = models.stream().map(GermplasmModel::getUri).collect(Collectors.toList());
+        List<URI> typesBefore = getTypes(uris);
+
         new SparqlMongoTransaction(sparql,nosql).execute(session -> {
             sparql.update(models, null);
             this.upsertMetaData(models, session);
             return null;
         });
+        updateMetricCounters(typesBefore, getTypes(uris));
         return models;
     }
 
@@ -127,25 +144,68 @@ public class GermplasmDAO {
                 updateMetadataFromGermplasm(model.getMetadata(), model);
                 metaDataDao.create(session, model.getMetadata());
             }
+            updateMetricCounters(Collections.emptyList(), Collections.singletonList(model.getType()));
             return null;
         });
         return model;
     }
 
     /**
-     * WARNING, you should check that each germplasm of the list has a URI that doesn't exist in the database BEFORE calling this method.
-     * This method create many germplasms at a time without checking that their URI doesn't already exist to optimise database call.
+     * Create many germplasms at a time, used by the germplasm import. Provided URIs are not checked, since the caller
+     * already split germplasms by existing URIs. Generated URIs are checked by set and germplasms are inserted by chunks,
+     * see {@link SPARQLService#createInBulk(Class, org.apache.jena.graph.Node, Collection, boolean)}.
      * @param instanceList with every model you need to create
      */
     public List<GermplasmModel> createListWithoutUriExistsCheck(List<GermplasmModel> instanceList) throws Exception {
         new SparqlMongoTransaction(sparql,nosql).execute(session -> {
-            sparql.create(sparql.getDefaultGraph(GermplasmModel.class), instanceList, SPARQLService.DEFAULT_MAX_INSTANCE_PER_QUERY, false, true);
+            sparql.createInBulk(GermplasmModel.class, sparql.getDefaultGraph(GermplasmModel.class), instanceList, false);
             this.createMetaData(instanceList, session);
+            updateMetricCounters(Collections.emptyList(), instanceList.stream().map(GermplasmModel::getType).collect(Collectors.toList()));
             return null;
         });
         return instanceList;
     }
 
+    /**
+     * Update the germplasm by type counters of the system, once the current transaction is committed
+     *
+     * @param typesBefore types of the written germplasm before the write, one per germplasm and type
+     * @param typesAfter  types of the written germplasm after the write, one per germplasm and type
+     * @see MetricCounterDAO
+     */
+    private void updateMetricCounters(List<URI> typesBefore, List<URI> typesAfter) {
+        MetricCounterDAO.CounterUpdates updates = new MetricCounterDAO.CounterUpdates();
+        typesBefore.forEach(type -> updates.add(MetricCounterDAO.SYSTEM_SCOPE, MetricCounterType.GERMPLASM_BY_TYPE, type, -1));
+        typesAfter.forEach(type -> updates.add(MetricCounterDAO.SYSTEM_SCOPE, MetricCounterType.GERMPLASM_BY_TYPE, type, 1));
+        if (!updates.isEmpty()) {
+            sparql.afterCommit(() -> metricCounterDAO.apply(updates));
+        }
+    }
+
+    /**
+     * @param uris germplasm URIs
+     * @return the types of the germplasm in their graph, one per germplasm and type
+     */
+    private List<URI> getTypes(List<URI> uris) throws Exception {
+        List<URI> types = new ArrayList<>();
+        if (uris.isEmpty()) {
+            return types;
+        }
+        Var uriVar = makeVar(SPARQLResourceModel.URI_FIELD);
+        Var typeVar = makeVar(SPARQLResourceModel.TYPE_FIELD);
+        for (List<URI> chunk : ListUtils.partition(uris, SPARQLService.DEFAULT_MAX_INSTANCE_PER_QUERY)) {
+            SelectBuilder select = new SelectBuilder()
+                    .setDistinct(true)
+                    .addVar(uriVar)
+                    .addVar(typeVar)
+                    .addGraph(sparql.getDefaultGraph(GermplasmModel.class), uriVar, RDF.type, typeVar);
+            SPARQLQueryHelper.addWhereUriValues(select, uriVar.getVarName(), chunk);
+
+            sparql.executeSelectQuery(select, result -> types.add(URI.create(result.getStringValue(typeVar.getVarName()))));
+        }
+        return types;
+    }
+
     /**
      * create metadata attributes for a list of germplasms. Should be called in a transaction.
      */
@@ -261,11 +321,14 @@ public class GermplasmDAO {
     }
 
     public void delete(URI uri, AccountModel user) throws Exception {
+        List<URI> typesBefore = getTypes(Collections.singletonList(uri));
+
         new SparqlMongoTransaction(sparql, nosql).execute(session -> {
             if (metaDataDao.exists(uri)) {
                 metaDataDao.delete(session, uri);
             }
             sparqlDAO.delete(uri,user);
+            updateMetricCounters(typesBefore, Collections.emptyList());
             return null;
         });
     }
@@ -32,7 +32,8 @@ import java.util.List;
         ontology = Oeso.class,
         resource = "Germplasm",
         graph = GermplasmModel.GRAPH,
-        prefix = "germplasm"
+        prefix = "germplasm",
+        labelIndex = true
 )
 public class GermplasmModel extends SPARQLNamedResourceModel<GermplasmModel> implements ClassURIGenerator<GermplasmModel>{
 
@@ -504,12 +504,14 @@ public class GermplasmSparqlDAO {
 
     private void appendRegexLabelFilter(SelectBuilder select, String label) {
         if (!StringUtils.isEmpty(label)) {
+            SPARQLQueryHelper.addWhereLabelIndexValues(select, GermplasmModel.URI_FIELD, sparql.searchByLabelIndex(GermplasmModel.class, label));
             select.addFilter(SPARQLQueryHelper.regexFilter(GermplasmModel.LABEL_FIELD, label));
         }
     }
 
     private void appendRegexLabelAndSynonymFilter(SelectBuilder select, String label) {
         if (!StringUtils.isEmpty(label)) {
+            SPARQLQueryHelper.addWhereLabelIndexValues(select, GermplasmModel.URI_FIELD, sparql.searchByLabelIndex(GermplasmModel.class, label));
             select.addOptional(Triple.create(makeVar(GermplasmModel.URI_FIELD), SKOS.altLabel.asNode(), makeVar(GermplasmModel.SYNONYM_VAR)));
             //select.getWhereHandler().getClause().addTriplePattern(Triple.create(makeVar(GermplasmModel.URI_FIELD), SKOS.altLabel.asNode(), makeVar(GermplasmModel.SYNONYM_VAR)));
             select.addFilter(SPARQLQueryHelper.or(SPARQLQueryHelper.regexFilter(GermplasmModel.LABEL_FIELD, label), SPARQLQueryHelper.regexFilter(GermplasmModel.SYNONYM_VAR, label)));
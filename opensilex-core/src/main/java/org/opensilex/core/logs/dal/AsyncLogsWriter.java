@@ -0,0 +1,276 @@
+//******************************************************************************
+//                          AsyncLogsWriter.java
+// OpenSILEX - Licence AGPL V3.0 - https://www.gnu.org/licenses/agpl-3.0.en.html
+// Copyright © INRAE 2024
+// Contact: anne.tireau@inrae.fr, pascal.neveu@inrae.fr
+//******************************************************************************
+package org.opensilex.core.logs.dal;
+
+import org.opensilex.core.AccessLogsConfig;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+import static net.logstash.logback.argument.StructuredArguments.kv;
+import static org.opensilex.utils.LogFilter.*;
+
+/**
+ * <pre>
+ * Write access logs asynchronously, so that request threads never wait for the database.
+ *
+ * Request threads put logs into a bounded {@link LogsRingBuffer}. A background thread reads this buffer and
+ * writes logs by batches with {@link LogsDAO#createAll(List)}, as soon as a batch is full or when the flush interval
+ * is elapsed. When the buffer is full, the {@link LogsOverflowPolicy} decides if the log is dropped or if the
+ * request thread waits.
+ *
+ * On {@link #close(long)}, all logs which are still in the buffer are written before the thread stops.
+ * </pre>
+ */
+public class AsyncLogsWriter {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(AsyncLogsWriter.class);
+
+    public static final String THREAD_NAME = "opensilex-access-logs-writer";
+    public static final long DEFAULT_CLOSE_TIMEOUT_MS = 10_000;
+
+    private static final long BLOCKING_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(1);
+
+    private final LogsDAO logsDAO;
+    private final LogsRingBuffer<LogModel> buffer;
+    private final int batchSize;
+    private final long flushIntervalNanos;
+    private final LogsOverflowPolicy overflowPolicy;
+    private final int sampleRate;
+    private final long maxBlockingNanos;
+
+    private final AtomicLong queuedCount = new AtomicLong();
+    private final AtomicLong flushedCount = new AtomicLong();
+    private final AtomicLong droppedCount = new AtomicLong();
+    private final AtomicLong sampleCounter = new AtomicLong();
+
+    /**
+     * Number of request threads inside {@link #write(LogModel)}, the flusher doesn't stop before they have added their
+     * log to the buffer
+     */
+    private final AtomicInteger activeWriters = new AtomicInteger();
+
+    private final Thread flusher;
+    private volatile boolean running;
+
+    /**
+     * @param logsDAO         DAO used to write batches
+     * @param bufferSize      max number of logs waiting to be written
+     * @param batchSize       max number of logs written in one call
+     * @param flushInterval   max delay before pending logs are written (in milliseconds)
+     * @param overflowPolicy  behavior when the buffer is full
+     * @param sampleRate      with {@link LogsOverflowPolicy#SAMPLE}, one log out of this rate is kept once the buffer is half full
+     * @param maxBlockingTime with {@link LogsOverflowPolicy#BLOCK}, max time a request thread waits for a free slot (in milliseconds)
+     */
+    public AsyncLogsWriter(LogsDAO logsDAO, int bufferSize, int batchSize, long flushInterval, LogsOverflowPolicy overflowPolicy, int sampleRate, long maxBlockingTime) {
+        if (batchSize <= 0) {
+            throw new IllegalArgumentException("Batch size must be strictly positive : " + batchSize);
+        }
+        this.logsDAO = logsDAO;
+        this.buffer = new LogsRingBuffer<>(bufferSize);
+        this.batchSize = batchSize;
+        this.flushIntervalNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(1, flushInterval));
+        this.overflowPolicy = overflowPolicy;
+        this.sampleRate = Math.max(1, sampleRate);
+        this.maxBlockingNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(0, maxBlockingTime));
+
+        this.flusher = new Thread(this::run, THREAD_NAME);
+        this.flusher.setDaemon(true);
+    }
+
+    /**
+     * @param logsDAO DAO used to write batches
+     * @param config  writer configuration
+     * @return a writer built from the configuration
+     * @throws IllegalArgumentException if the configured overflow policy is unknown
+     */
+    public static AsyncLogsWriter fromConfig(LogsDAO logsDAO, AccessLogsConfig config) {
+        LogsOverflowPolicy overflowPolicy;
+        try {
+            overflowPolicy = LogsOverflowPolicy.valueOf(config.overflowPolicy());
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Bad access logs overflow policy set : " + config.overflowPolicy(), e);
+        }
+
+        return new AsyncLogsWriter(
+                logsDAO,
+                config.bufferSize(),
+                config.batchSize(),
+                config.flushInterval(),
+                overflowPolicy,
+                config.sampleRate(),
+                config.maxBlockingTime()
+        );
+    }
+
+    public synchronized void start() {
+        if (!running) {
+            running = true;
+            flusher.start();
+        }
+    }
+
+    /**
+     * Add a log to the buffer, without waiting for the database.
+     *
+     * @param log log to write
+     * @return true if the log has been added to the buffer, false if it has been dropped
+     */
+    public boolean write(LogModel log) {
+        // registered before checking running, so that close() waits for this log once the check passed
+        activeWriters.incrementAndGet();
+        try {
+            if (!running) {
+                droppedCount.incrementAndGet();
+                return false;
+            }
+            return offer(log);
+        } finally {
+            activeWriters.decrementAndGet();
+        }
+    }
+
+    private boolean offer(LogModel log) {
+        boolean added;
+        switch (overflowPolicy) {
+            case BLOCK:
+                added = offerOrWait(log);
+                break;
+            case SAMPLE:
+                added = (buffer.size() < buffer.capacity() / 2 || sampleCounter.incrementAndGet() % sampleRate == 0) && buffer.offer(log);
+                break;
+            case DROP:
+            default:
+                added = buffer.offer(log);
+                break;
+        }
+
+        if (!added) {
+            droppedCount.incrementAndGet();
+            return false;
+        }
+
+        queuedCount.incrementAndGet();
+        if (buffer.size() >= batchSize) {
+            LockSupport.unpark(flusher);
+        }
+        return true;
+    }
+
+    private boolean offerOrWait(LogModel log) {
+        if (buffer.offer(log)) {
+            return true;
+        }
+
+        long deadline = System.nanoTime() + maxBlockingNanos;
+        while (running && System.nanoTime() < deadline) {
+            LockSupport.unpark(flusher);
+            LockSupport.parkNanos(BLOCKING_PARK_NANOS);
+            if (buffer.offer(log)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void run() {
+        List<LogModel> batch = new ArrayList<>(batchSize);
+        long lastFlush = System.nanoTime();
+
+        // on close, the loop continues until the buffer is empty and no request thread is still adding a log
+        while (running || activeWriters.get() > 0 || !buffer.isEmpty() || !batch.isEmpty()) {
+            buffer.drainTo(batch, batchSize - batch.size());
+
+            long elapsed = System.nanoTime() - lastFlush;
+            if (batch.size() >= batchSize || (!batch.isEmpty() && (elapsed >= flushIntervalNanos || !running))) {
+                flush(batch);
+                lastFlush = System.nanoTime();
+            } else if (running) {
+                LockSupport.parkNanos(this, batch.isEmpty() ? flushIntervalNanos : flushIntervalNanos - elapsed);
+            } else if (batch.isEmpty()) {
+                LockSupport.parkNanos(this, BLOCKING_PARK_NANOS);
+            }
+        }
+    }
+
+    private void flush(List<LogModel> batch) {
+        long start = System.nanoTime();
+        try {
+            logsDAO.createAll(batch);
+            flushedCount.addAndGet(batch.size());
+
+            LOGGER.debug("Access logs written {} {} {}", kv(LOG_TYPE_KEY, "accessLogsFlush"),
+                    kv("nbLogs", batch.size()),
+                    kv(LOG_DURATION_MS_KEY, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start)));
+        } catch (Exception e) {
+            droppedCount.addAndGet(batch.size());
+            LOGGER.warn("Error while writing {} access logs", batch.size(), e);
+        } finally {
+            batch.clear();
+        }
+    }
+
+    /**
+     * Stop accepting new logs and write the logs which are still in the buffer.
+     *
+     * @param timeout max time to wait for the pending logs to be written (in milliseconds)
+     * @return true if all pending logs have been written before the timeout
+     */
+    public boolean close(long timeout) throws InterruptedException {
+        synchronized (this) {
+            if (!running) {
+                return !flusher.isAlive();
+            }
+            running = false;
+        }
+
+        LockSupport.unpark(flusher);
+        flusher.join(timeout);
+
+        boolean drained = !flusher.isAlive();
+        if (!drained) {
+            LOGGER.warn("Access logs writer not stopped after {} ms, {} logs are still pending", timeout, buffer.size());
+        }
+        return drained;
+    }
+
+    public long getQueuedCount() {
+        return queuedCount.get();
+    }
+
+    public long getFlushedCount() {
+        return flushedCount.get();
+    }
+
+    /**
+     * @return number of logs dropped because of the overflow policy or because of a write error
+     */
+    public long getDroppedCount() {
+        return droppedCount.get();
+    }
+
+    /**
+     * @return approximative number of logs waiting to be written
+     */
+    public int getPendingCount() {
+        return buffer.size();
+    }
+
+    public int getBufferCapacity() {
+        return buffer.capacity();
+    }
+
+    public LogsOverflowPolicy getOverflowPolicy() {
+        return overflowPolicy;
+    }
+}
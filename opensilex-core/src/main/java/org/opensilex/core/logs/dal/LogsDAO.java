@@ -6,7 +6,11 @@
 package org.opensilex.core.logs.dal;
 
 import com.mongodb.MongoWriteException;
-import org.opensilex.nosql.mongodb.MongoDBService; 
+import com.mongodb.client.model.InsertManyOptions;
+import org.opensilex.nosql.mongodb.MongoDBService;
+
+import java.time.Instant;
+import java.util.List;
 
 /**
  *
@@ -28,4 +32,25 @@ public class LogsDAO {
         return instance;
     }
 
+    /**
+     * Insert a batch of logs, outside of any transaction. URIs are generated without checking their existence,
+     * since the last segment of a {@link LogModel} URI is a random UUID.
+     * This method doesn't use the {@link MongoDBService} session, so it can be called from another thread than the request one.
+     *
+     * @param instances logs to insert
+     */
+    public void createAll(List<LogModel> instances) throws Exception {
+        Instant now = Instant.now();
+        for (LogModel instance : instances) {
+            nosql.generateUniqueUriIfNullOrValidateCurrent(instance, false, LOG_PREFIX, LOGS_COLLECTION_NAME);
+            if (instance.getPublicationDate() == null) {
+                instance.setPublicationDate(now);
+            }
+        }
+
+        nosql.getDatabase()
+                .getCollection(LOGS_COLLECTION_NAME, LogModel.class)
+                .insertMany(instances, new InsertManyOptions().ordered(false));
+    }
+
 }
@@ -0,0 +1,29 @@
+//******************************************************************************
+//                          LogsOverflowPolicy.java
+// OpenSILEX - Licence AGPL V3.0 - https://www.gnu.org/licenses/agpl-3.0.en.html
+// Copyright © INRAE 2024
+// Contact: anne.tireau@inrae.fr, pascal.neveu@inrae.fr
+//******************************************************************************
+package org.opensilex.core.logs.dal;
+
+/**
+ * Behavior of the {@link AsyncLogsWriter} when access logs are produced faster than they are written
+ */
+public enum LogsOverflowPolicy {
+
+    /**
+     * New logs are dropped while the buffer is full
+     */
+    DROP,
+
+    /**
+     * The request thread waits for a free slot, up to the configured max blocking time, then the log is dropped
+     */
+    BLOCK,
+
+    /**
+     * Once the buffer is half full, only one log out of the configured sample rate is kept.
+     * New logs are dropped while the buffer is full
+     */
+    SAMPLE
+}
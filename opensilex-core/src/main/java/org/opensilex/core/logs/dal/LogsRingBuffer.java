@@ -0,0 +1,143 @@
+//******************************************************************************
+//                          LogsRingBuffer.java
+// OpenSILEX - Licence AGPL V3.0 - https://www.gnu.org/licenses/agpl-3.0.en.html
+// Copyright © INRAE 2024
+// Contact: anne.tireau@inrae.fr, pascal.neveu@inrae.fr
+//******************************************************************************
+package org.opensilex.core.logs.dal;
+
+import java.util.Collection;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * <pre>
+ * Bounded lock-free ring buffer, used to pass access logs from request threads to the {@link AsyncLogsWriter} thread.
+ *
+ * Each slot has a sequence number which tells if the slot is free for the producer at a given position or filled
+ * for the consumer at this position. Producers and consumers only reserve a position with a CAS, so no thread is
+ * ever blocked by another one : {@link #offer(Object)} returns false when the buffer is full.
+ * </pre>
+ *
+ * @param <E> type of element
+ */
+public class LogsRingBuffer<E> {
+
+    private final int capacity;
+    private final int mask;
+
+    private final AtomicReferenceArray<E> elements;
+    private final AtomicLongArray sequences;
+
+    /**
+     * Next position to write
+     */
+    private final AtomicLong tail = new AtomicLong();
+
+    /**
+     * Next position to read
+     */
+    private final AtomicLong head = new AtomicLong();
+
+    /**
+     * @param minCapacity minimal capacity of the buffer, rounded to the next power of two
+     */
+    public LogsRingBuffer(int minCapacity) {
+        if (minCapacity <= 0) {
+            throw new IllegalArgumentException("Buffer capacity must be strictly positive : " + minCapacity);
+        }
+        capacity = minCapacity == 1 ? 1 : Integer.highestOneBit(minCapacity - 1) << 1;
+        mask = capacity - 1;
+
+        elements = new AtomicReferenceArray<>(capacity);
+        sequences = new AtomicLongArray(capacity);
+        for (int i = 0; i < capacity; i++) {
+            sequences.set(i, i);
+        }
+    }
+
+    /**
+     * @param element element to add
+     * @return true if the element has been added, false if the buffer is full
+     */
+    public boolean offer(E element) {
+        long position = tail.get();
+        while (true) {
+            int index = (int) (position & mask);
+            long diff = sequences.get(index) - position;
+
+            if (diff == 0) {
+                if (tail.compareAndSet(position, position + 1)) {
+                    elements.set(index, element);
+                    // publish the element to the consumer
+                    sequences.set(index, position + 1);
+                    return true;
+                }
+                position = tail.get();
+            } else if (diff < 0) {
+                // slot still used by the previous lap
+                return false;
+            } else {
+                // another producer has taken this position
+                position = tail.get();
+            }
+        }
+    }
+
+    /**
+     * @return next element, or null if the buffer is empty
+     */
+    public E poll() {
+        long position = head.get();
+        while (true) {
+            int index = (int) (position & mask);
+            long diff = sequences.get(index) - (position + 1);
+
+            if (diff == 0) {
+                if (head.compareAndSet(position, position + 1)) {
+                    E element = elements.getAndSet(index, null);
+                    // release the slot for the next lap
+                    sequences.set(index, position + capacity);
+                    return element;
+                }
+                position = head.get();
+            } else if (diff < 0) {
+                return null;
+            } else {
+                position = head.get();
+            }
+        }
+    }
+
+    /**
+     * @param destination collection to fill
+     * @param maxElements max number of elements to move
+     * @return number of elements moved into destination
+     */
+    public int drainTo(Collection<? super E> destination, int maxElements) {
+        int count = 0;
+        E element;
+        while (count < maxElements && (element = poll()) != null) {
+            destination.add(element);
+            count++;
+        }
+        return count;
+    }
+
+    /**
+     * @return approximative number of elements inside the buffer
+     */
+    public int size() {
+        long size = tail.get() - head.get();
+        return (int) Math.max(0, Math.min(size, capacity));
+    }
+
+    public boolean isEmpty() {
+        return size() == 0;
+    }
+
+    public int capacity() {
+        return capacity;
+    }
+}
@@ -16,10 +16,9 @@ import javax.ws.rs.core.MultivaluedMap;
 import javax.ws.rs.core.UriInfo;
 import javax.ws.rs.ext.Provider;
 import org.bson.Document;
-import org.opensilex.OpenSilex;
+import org.opensilex.core.CoreModule;
+import org.opensilex.core.logs.dal.AsyncLogsWriter;
 import org.opensilex.core.logs.dal.LogModel;
-import org.opensilex.core.logs.dal.LogsDAO;
-import org.opensilex.nosql.mongodb.MongoDBService;
 import org.opensilex.security.account.dal.AccountModel;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -39,10 +38,7 @@ public class UserAccessLogFilter implements ContainerRequestFilter {
     final static String MAP_FIELD_RESSOURCE_PATH = "ressourcePath";
 
     @Inject
-    MongoDBService nosql;
-
-    @Inject
-    OpenSilex opensilex;
+    CoreModule coreModule;
 
     /**
      * Filters the session token.
@@ -60,15 +56,17 @@ public class UserAccessLogFilter implements ContainerRequestFilter {
             final UriInfo uriInfo = requestContext.getUriInfo();
             final String resourcePath = uriInfo.getPath();
             String httpMethod = servletRequest.getMethod();
-            LOGGER.warn(httpMethod);
             //3 . check if the path equals to data service and sub services
             if (resourcePath != null
                     && resourcePath.contains("core/data")
                     && httpMethod.equals("GET")) {
                 MultivaluedMap<String, String> queryPathParameters = uriInfo.getQueryParameters();
+                AsyncLogsWriter logsWriter = coreModule.getAccessLogsWriter();
+                if (logsWriter == null) {
+                    return;
+                }
                 try {
-                    // 6. save data search query
-                    LogsDAO logsDAO = new LogsDAO(nosql);
+                    // 6. save data search query, the log is written asynchronously by batch
                     LogModel logModel = new LogModel();
                     logModel.setUserUri(user.getUri());
                     logModel.setRemoteAdress(servletRequest.getRemoteAddr());
@@ -79,7 +77,9 @@ public class UserAccessLogFilter implements ContainerRequestFilter {
                     }
                     logModel.setQueryParameters(queryParams);
                     logModel.setDatetime(LocalDateTime.now());
-                    logsDAO.create(logModel);
+                    if (!logsWriter.write(logModel)) {
+                        LOGGER.debug("Access log dropped, buffer is full");
+                    }
                 } catch (Exception ex) {
                     LOGGER.warn("Error while logging user access to service", ex);
                 }
@@ -178,6 +178,28 @@ public class MetricAPI {
     }
 
 
+    @GET
+    @Path("system/current")
+    @ApiOperation(value = "Get current system metrics", notes = "Metrics are read from incremental counters, without waiting for the next stored summary")
+    @ApiProtected
+    @Consumes(MediaType.APPLICATION_JSON)
+    @Produces(MediaType.APPLICATION_JSON)
+
+    @ApiResponses(value = {
+            @ApiResponse(code = 200, message = "Current system metrics retrieved", response = MetricDTO.class),
+            @ApiResponse(code = 503, message = "System metrics not available", response = ErrorResponse.class)
+    })
+    public Response getCurrentSystemMetrics() throws Exception {
+        if (!openSilex.getModuleConfig(CoreModule.class, CoreConfig.class).metrics().enableMetrics()) {
+            return new ErrorResponse(Response.Status.SERVICE_UNAVAILABLE, "Service Unavailable", "Metrics are not enabled on this instance").getResponse();
+        }
+
+        MetricDAO metricsDao = new MetricDAO(sparql, nosql, currentUser);
+        SystemSummaryModel currentSummary = metricsDao.getCurrentSystemSummary(currentUser.getLanguage());
+
+        return new SingleObjectResponse<>(MetricDTO.getDTOfromSystemSummaryModel(currentSummary)).getResponse();
+    }
+
     @GET
     @Path("system/summary")
     @ApiOperation("Get system metrics summary")
@@ -0,0 +1,242 @@
+//******************************************************************************
+//                          MetricCounterDAO.java
+// OpenSILEX - Licence AGPL V3.0 - https://www.gnu.org/licenses/agpl-3.0.en.html
+// Copyright © INRAE 2024
+// Contact: anne.tireau@inrae.fr, pascal.neveu@inrae.fr
+//******************************************************************************
+package org.opensilex.core.metrics.dal;
+
+import com.mongodb.MongoException;
+import com.mongodb.bulk.BulkWriteResult;
+import com.mongodb.client.MongoCollection;
+import com.mongodb.client.MongoDatabase;
+import com.mongodb.client.model.BulkWriteOptions;
+import com.mongodb.client.model.DeleteOneModel;
+import com.mongodb.client.model.Filters;
+import com.mongodb.client.model.IndexOptions;
+import com.mongodb.client.model.Indexes;
+import com.mongodb.client.model.UpdateOneModel;
+import com.mongodb.client.model.UpdateOptions;
+import com.mongodb.client.model.Updates;
+import com.mongodb.client.model.WriteModel;
+import org.bson.Document;
+import org.bson.conversions.Bson;
+import org.opensilex.sparql.deserializer.SPARQLDeserializers;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.net.URI;
+import java.time.Instant;
+import java.util.*;
+import java.util.concurrent.Callable;
+
+/**
+ * <pre>
+ * Incremental metric counters, stored in the {@link #COLLECTION_NAME} collection.
+ *
+ * A counter is identified by a scope (the whole system or an experiment), a {@link MetricCounterType} and a key (variable
+ * or type URI). Counters are updated with atomic increments by the DAO which create or delete the counted resources,
+ * so that metrics summaries can be built without counting every resource.
+ *
+ * Counters are updated once the transaction of the counted resources is committed, outside of it in order to avoid
+ * write conflicts between concurrent imports on the same counter. A failed increment, or a resource written without
+ * these DAO, produces a drift which is fixed by {@link MetricDAO#reconcileCounters()}.
+ * </pre>
+ */
+public class MetricCounterDAO {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(MetricCounterDAO.class);
+
+    public static final String COLLECTION_NAME = "metric_counters";
+
+    public static final String SYSTEM_SCOPE = "system";
+
+    public static final String SCOPE_FIELD = "scope";
+    public static final String TYPE_FIELD = "type";
+    public static final String KEY_FIELD = "key";
+    public static final String COUNT_FIELD = "count";
+    public static final String UPDATE_DATE_FIELD = "updateDate";
+
+    private final MongoCollection<Document> collection;
+
+    public MetricCounterDAO(MongoDatabase database) {
+        this.collection = database.getCollection(COLLECTION_NAME);
+    }
+
+    public void createIndexes() {
+        collection.createIndex(
+                Indexes.ascending(SCOPE_FIELD, TYPE_FIELD, KEY_FIELD),
+                new IndexOptions().unique(true)
+        );
+    }
+
+    /**
+     * @param experimentURI an experiment URI
+     * @return the scope of the counters of this experiment
+     */
+    public static String getExperimentScope(URI experimentURI) {
+        return SPARQLDeserializers.getExpandedURI(experimentURI);
+    }
+
+    /**
+     * Counter increments, grouped before being applied with a single database call
+     */
+    public static class CounterUpdates {
+
+        private final Map<List<String>, Long> deltas = new HashMap<>();
+
+        /**
+         * @param scope the counter scope, {@link #SYSTEM_SCOPE} or an experiment scope
+         * @param type  the counter type
+         * @param key   the counter key, a variable or a type URI
+         * @param delta value to add to the counter
+         */
+        public CounterUpdates add(String scope, MetricCounterType type, URI key, long delta) {
+            if (scope == null || key == null || delta == 0) {
+                return this;
+            }
+            List<String> counterId = Arrays.asList(scope, type.name(), SPARQLDeserializers.getExpandedURI(key));
+            deltas.merge(counterId, delta, Long::sum);
+            return this;
+        }
+
+        /**
+         * Add the delta to the system counter and to the counter of each experiment
+         */
+        public CounterUpdates addWithExperiments(MetricCounterType type, URI key, Collection<URI> experiments, long delta) {
+            add(SYSTEM_SCOPE, type, key, delta);
+            if (experiments != null) {
+                for (URI experiment : experiments) {
+                    add(getExperimentScope(experiment), type, key, delta);
+                }
+            }
+            return this;
+        }
+
+        public boolean isEmpty() {
+            return deltas.values().stream().allMatch(delta -> delta == 0);
+        }
+    }
+
+    /**
+     * Apply the increments. Errors are logged and not thrown, since a missing increment is fixed by the reconciliation.
+     *
+     * @param updates the increments to apply
+     */
+    public void apply(CounterUpdates updates) {
+        if (updates == null || updates.isEmpty()) {
+            return;
+        }
+
+        Instant now = Instant.now();
+        UpdateOptions upsert = new UpdateOptions().upsert(true);
+        List<WriteModel<Document>> writes = new ArrayList<>(updates.deltas.size());
+
+        updates.deltas.forEach((counterId, delta) -> {
+            if (delta != 0) {
+                writes.add(new UpdateOneModel<>(
+                        getCounterFilter(counterId.get(0), counterId.get(1), counterId.get(2)),
+                        Updates.combine(Updates.inc(COUNT_FIELD, delta), Updates.set(UPDATE_DATE_FIELD, now)),
+                        upsert
+                ));
+            }
+        });
+
+        try {
+            collection.bulkWrite(writes, new BulkWriteOptions().ordered(false));
+        } catch (MongoException e) {
+            LOGGER.warn("Error while updating {} metric counters, counters will be fixed by next reconciliation : {}", writes.size(), e.getMessage());
+        }
+    }
+
+    private static Bson getCounterFilter(String scope, String type, String key) {
+        return Filters.and(
+                Filters.eq(SCOPE_FIELD, scope),
+                Filters.eq(TYPE_FIELD, type),
+                Filters.eq(KEY_FIELD, key)
+        );
+    }
+
+    /**
+     * @param scope the counters scope
+     * @param type  the counters type
+     * @return the positive counters of the scope and the type, by key
+     */
+    public Map<URI, Long> getCounters(String scope, MetricCounterType type) {
+        Map<URI, Long> counters = new HashMap<>();
+        Bson filter = Filters.and(
+                Filters.eq(SCOPE_FIELD, scope),
+                Filters.eq(TYPE_FIELD, type.name()),
+                Filters.gt(COUNT_FIELD, 0)
+        );
+        for (Document counter : collection.find(filter)) {
+            counters.put(URI.create(counter.getString(KEY_FIELD)), ((Number) counter.get(COUNT_FIELD)).longValue());
+        }
+        return counters;
+    }
+
+    /**
+     * <pre>
+     * Replace the counters of a scope and a type by the actual counts, only the counters which have drifted are written.
+     *
+     * Stored counters are read before the actual counts are computed, and a drifted counter is only replaced if it has
+     * not been updated since it was read : a counter incremented concurrently is left unchanged, and is fixed by the next
+     * reconciliation if it still drifts.
+     * </pre>
+     *
+     * @param scope        the counters scope
+     * @param type         the counters type
+     * @param actualCounts computes the actual counts, by key
+     * @return the number of counters which have drifted and have been replaced
+     */
+    public int reconcile(String scope, MetricCounterType type, Callable<Map<URI, Long>> actualCounts) throws Exception {
+        Bson scopeFilter = Filters.and(Filters.eq(SCOPE_FIELD, scope), Filters.eq(TYPE_FIELD, type.name()));
+        Map<String, Document> storedCounters = new HashMap<>();
+        for (Document counter : collection.find(scopeFilter)) {
+            storedCounters.put(counter.getString(KEY_FIELD), counter);
+        }
+
+        Map<String, Long> expectedCounts = new HashMap<>();
+        actualCounts.call().forEach((key, count) -> expectedCounts.merge(SPARQLDeserializers.getExpandedURI(key), count, Long::sum));
+
+        Instant now = Instant.now();
+        List<WriteModel<Document>> writes = new ArrayList<>();
+
+        storedCounters.forEach((key, counter) -> {
+            long storedCount = ((Number) counter.get(COUNT_FIELD)).longValue();
+            Long expectedCount = expectedCounts.get(key);
+
+            // only replace the counter if it is unchanged since it was read, apply() always sets the update date
+            Bson unchangedFilter = Filters.and(
+                    getCounterFilter(scope, type.name(), key),
+                    Filters.eq(COUNT_FIELD, counter.get(COUNT_FIELD)),
+                    Filters.eq(UPDATE_DATE_FIELD, counter.get(UPDATE_DATE_FIELD))
+            );
+            if (expectedCount == null || expectedCount == 0) {
+                writes.add(new DeleteOneModel<>(unchangedFilter));
+            } else if (expectedCount != storedCount) {
+                writes.add(new UpdateOneModel<>(
+                        unchangedFilter,
+                        Updates.combine(Updates.set(COUNT_FIELD, expectedCount), Updates.set(UPDATE_DATE_FIELD, now))
+                ));
+            }
+        });
+
+        expectedCounts.forEach((key, count) -> {
+            if (count > 0 && !storedCounters.containsKey(key)) {
+                // a counter created concurrently is left unchanged
+                writes.add(new UpdateOneModel<>(
+                        getCounterFilter(scope, type.name(), key),
+                        Updates.combine(Updates.setOnInsert(COUNT_FIELD, count), Updates.setOnInsert(UPDATE_DATE_FIELD, now)),
+                        new UpdateOptions().upsert(true)
+                ));
+            }
+        });
+
+        if (writes.isEmpty()) {
+            return 0;
+        }
+        BulkWriteResult result = collection.bulkWrite(writes, new BulkWriteOptions().ordered(false));
+        return result.getModifiedCount() + result.getDeletedCount() + result.getUpserts().size();
+    }
+}
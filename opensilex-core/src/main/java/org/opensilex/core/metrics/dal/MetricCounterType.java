@@ -0,0 +1,36 @@
+//******************************************************************************
+//                          MetricCounterType.java
+// OpenSILEX - Licence AGPL V3.0 - https://www.gnu.org/licenses/agpl-3.0.en.html
+// Copyright © INRAE 2024
+// Contact: anne.tireau@inrae.fr, pascal.neveu@inrae.fr
+//******************************************************************************
+package org.opensilex.core.metrics.dal;
+
+/**
+ * Kind of incremental metric counter. Each counter of a kind is identified by a key : a variable URI for data
+ * counters, a rdf:type URI for other counters.
+ *
+ * @see MetricCounterDAO
+ */
+public enum MetricCounterType {
+
+    /**
+     * Number of data by variable
+     */
+    DATA_BY_VARIABLE,
+
+    /**
+     * Number of scientific objects by type
+     */
+    SCIENTIFIC_OBJECT_BY_TYPE,
+
+    /**
+     * Number of devices by type
+     */
+    DEVICE_BY_TYPE,
+
+    /**
+     * Number of germplasm by type
+     */
+    GERMPLASM_BY_TYPE
+}
@@ -64,6 +64,8 @@ public class MetricDAO {
 
     private AccountModel user;
 
+    private final MetricCounterDAO counterDAO;
+
     private final static Logger Logger = LoggerFactory.getLogger(MetricDAO.class);
     public static final String METRICS_COLLECTION = "metrics";
 
@@ -71,6 +73,7 @@ public class MetricDAO {
         this.sparql = sparql;
         this.nosql = nosql;
         this.user = user;
+        this.counterDAO = new MetricCounterDAO(nosql.getDatabase());
     }
 
     public void createIndexes() {
@@ -371,9 +374,13 @@ public class MetricDAO {
         return filter;
     }
 
+    /**
+     * Store a summary of each experiment, built from the metric counters
+     */
     public void createExperimentSummary() throws Exception {
 
         createIndexes();
+        initCountersIfEmpty();
         ExperimentDAO experimentDAO = new ExperimentDAO(sparql, nosql, fs);
 
         Set<URI> experiments = experimentDAO.getUserExperiments(user);
@@ -382,44 +389,153 @@ public class MetricDAO {
             ExperimentSummaryModel model = new ExperimentSummaryModel();
             model.setExperimentUri(experimentURI);
             model.setCreationDate(Instant.now());
-            CountListItemModel scientificObjectTypesByCount = getCountByTypeAndContext(experimentURI, user, Oeso.ScientificObject, false);
-            CountListItemModel variables = getDataCountByVariables(experimentURI, user);
-            CountListItemModel germplasmByCount = getCountByTypeAndContext(experimentURI, user, Oeso.Germplasm, false);
 
-            model.setScientificObjectsByType(scientificObjectTypesByCount);
-            model.setDataByVariables(variables);
-            model.setGermplasmByType(germplasmByCount);
+            String scope = MetricCounterDAO.getExperimentScope(experimentURI);
+            model.setScientificObjectsByType(getCountListFromCounters(scope, MetricCounterType.SCIENTIFIC_OBJECT_BY_TYPE, Oeso.ScientificObject));
+            model.setDataByVariables(getCountListFromCounters(scope, MetricCounterType.DATA_BY_VARIABLE, Oeso.Variable));
+            model.setGermplasmByType(getCountListFromCounters(scope, MetricCounterType.GERMPLASM_BY_TYPE, Oeso.Germplasm));
 
             nosql.create(model, GlobalSummaryModel.class, METRICS_COLLECTION, "experiment");
         }
 
     }
 
+    /**
+     * Store a summary of the whole system, built from the metric counters
+     */
     public void createSystemSummary() throws Exception {
         createIndexes();
+        initCountersIfEmpty();
 
+        SystemSummaryModel model = getCurrentSystemSummary();
+        nosql.create(model, SystemSummaryModel.class, METRICS_COLLECTION, "system");
+    }
+
+    /**
+     * Build a summary of the whole system from the metric counters, without storing it. The cost of this method doesn't
+     * depend on the number of data or objects.
+     *
+     * @return the current system summary
+     */
+    public SystemSummaryModel getCurrentSystemSummary() throws Exception {
         SystemSummaryModel model = new SystemSummaryModel();
         model.setCreationDate(Instant.now());
-        CountListItemModel scientificObjectTypesByCount = getCountByTypeAndContext(null, user, Oeso.ScientificObject, false);
-        CountListItemModel deviceTypesByCount = getCountByTypeAndContext(null, user, Oeso.Device, false);
-        CountListItemModel variablesByCount = getDataCountByVariables(null, user);
-        CountListItemModel germplasmByCount = getCountByTypeAndContext(null, user, Oeso.Germplasm, false);
+
+        String scope = MetricCounterDAO.SYSTEM_SCOPE;
+        model.setScientificObjectsByType(getCountListFromCounters(scope, MetricCounterType.SCIENTIFIC_OBJECT_BY_TYPE, Oeso.ScientificObject));
+        model.setDeviceByType(getCountListFromCounters(scope, MetricCounterType.DEVICE_BY_TYPE, Oeso.Device));
+        model.setDataByVariables(getCountListFromCounters(scope, MetricCounterType.DATA_BY_VARIABLE, Oeso.Variable));
+        model.setGermplasmByType(getCountListFromCounters(scope, MetricCounterType.GERMPLASM_BY_TYPE, Oeso.Germplasm));
+
         // TODO : Refactor experiment , don't use
         CountListItemModel experimentsByCount = new CountListItemModel();
         experimentsByCount.setName("Experiment");
         experimentsByCount.setType(new URI(Oeso.Experiment.getURI()));
         ExperimentDAO expDao = new ExperimentDAO(sparql, nosql, fs);
         experimentsByCount.setCalculatedTotalCount(expDao.count());
-
-        model.setScientificObjectsByType(scientificObjectTypesByCount);
-        model.setDeviceByType(deviceTypesByCount);
-        model.setDataByVariables(variablesByCount);
-        model.setGermplasmByType(germplasmByCount);
         model.setExperimentByType(experimentsByCount);
 
         SPARQLConfig sparqlConfig = sparql.getOpenSilex().getModuleConfig(SPARQLModule.class, SPARQLConfig.class);
         model.setBaseSystemAlias(sparqlConfig.baseURIAlias());
-        nosql.create(model, SystemSummaryModel.class, METRICS_COLLECTION, "system");
+        return model;
+    }
+
+    /**
+     * Build a summary of the whole system from the metric counters, with the names of the counted types and variables
+     *
+     * @param currentLanguage language of the names
+     * @return the current system summary
+     * @see #getCurrentSystemSummary()
+     */
+    public SystemSummaryModel getCurrentSystemSummary(String currentLanguage) throws Exception {
+        SystemSummaryModel summary = getCurrentSystemSummary();
+
+        setTypeNames(summary.getDeviceByType(), Oeso.Device, currentLanguage);
+        setTypeNames(summary.getScientificObjectsByType(), Oeso.ScientificObject, currentLanguage);
+        setTypeNames(summary.getGermplasmByType(), Oeso.Germplasm, currentLanguage);
+
+        HashMap<URI, String> variables = getUsedVariablesFromVariablesDAO();
+        for (CountItemModel item : summary.getDataByVariables().getItems()) {
+            item.setName(variables.get(new URI(SPARQLDeserializers.getExpandedURI(item.getUri()))));
+        }
+        return summary;
+    }
+
+    private void setTypeNames(CountListItemModel countList, Resource parentClass, String currentLanguage) throws Exception {
+        URI parentClassURI = URI.create(parentClass.getURI());
+        for (CountItemModel item : countList.getItems()) {
+            ClassModel type = SPARQLModule.getOntologyStoreInstance().getClassModel(item.getUri(), parentClassURI, currentLanguage);
+            item.setName(type.getName());
+        }
+    }
+
+    private CountListItemModel getCountListFromCounters(String scope, MetricCounterType counterType, Resource classResource) throws URISyntaxException {
+        URI itemType = classResource.equals(Oeso.Variable) ? new URI(Oeso.Variable.getURI()) : new URI(OWL2.Class.getURI());
+
+        CountListItemModel countList = new CountListItemModel();
+        countList.setType(new URI(classResource.getURI()));
+        countList.setName(classResource.getLocalName());
+
+        for (Map.Entry<URI, Long> counter : counterDAO.getCounters(scope, counterType).entrySet()) {
+            CountItemModel countItem = new CountItemModel();
+            countItem.setUri(counter.getKey());
+            countItem.setCount(Math.toIntExact(counter.getValue()));
+            countItem.setType(itemType);
+            countList.addItem(countItem);
+        }
+        return countList;
+    }
+
+    private void initCountersIfEmpty() throws Exception {
+        if (counterDAO.getCounters(MetricCounterDAO.SYSTEM_SCOPE, MetricCounterType.SCIENTIFIC_OBJECT_BY_TYPE).isEmpty()
+                && counterDAO.getCounters(MetricCounterDAO.SYSTEM_SCOPE, MetricCounterType.DATA_BY_VARIABLE).isEmpty()) {
+            reconcileCounters();
+        }
+    }
+
+    /**
+     * <pre>
+     * Recompute every count and fix the metric counters which have drifted.
+     *
+     * Counters are incremented by the DAO which create or delete the counted resources, once their transaction is
+     * committed. A failed increment, or resources written without these DAO (legacy data DAO, direct database imports),
+     * make counters drift : this method must be called periodically, with a delay much greater than summaries one.
+     * </pre>
+     *
+     * @return the number of counters which have drifted
+     */
+    public int reconcileCounters() throws Exception {
+        counterDAO.createIndexes();
+        Instant start = Instant.now();
+
+        String systemScope = MetricCounterDAO.SYSTEM_SCOPE;
+        int driftCount = counterDAO.reconcile(systemScope, MetricCounterType.SCIENTIFIC_OBJECT_BY_TYPE, () -> toCounts(getCountByTypeAndContext(null, user, Oeso.ScientificObject, false)));
+        driftCount += counterDAO.reconcile(systemScope, MetricCounterType.DEVICE_BY_TYPE, () -> toCounts(getCountByTypeAndContext(null, user, Oeso.Device, false)));
+        driftCount += counterDAO.reconcile(systemScope, MetricCounterType.DATA_BY_VARIABLE, () -> toCounts(getDataCountByVariables(null, user)));
+        driftCount += counterDAO.reconcile(systemScope, MetricCounterType.GERMPLASM_BY_TYPE, () -> toCounts(getCountByTypeAndContext(null, user, Oeso.Germplasm, false)));
+
+        ExperimentDAO experimentDAO = new ExperimentDAO(sparql, nosql, fs);
+        for (URI experimentURI : experimentDAO.getUserExperiments(user)) {
+            String scope = MetricCounterDAO.getExperimentScope(experimentURI);
+            driftCount += counterDAO.reconcile(scope, MetricCounterType.SCIENTIFIC_OBJECT_BY_TYPE, () -> toCounts(getCountByTypeAndContext(experimentURI, user, Oeso.ScientificObject, false)));
+            driftCount += counterDAO.reconcile(scope, MetricCounterType.DATA_BY_VARIABLE, () -> toCounts(getDataCountByVariables(experimentURI, user)));
+            driftCount += counterDAO.reconcile(scope, MetricCounterType.GERMPLASM_BY_TYPE, () -> toCounts(getCountByTypeAndContext(experimentURI, user, Oeso.Germplasm, false)));
+        }
+
+        if (driftCount > 0) {
+            Logger.info("Metric counters reconciled in {} ms, {} counter(s) have drifted", Instant.now().toEpochMilli() - start.toEpochMilli(), driftCount);
+        } else {
+            Logger.debug("Metric counters reconciled in {} ms, no drift", Instant.now().toEpochMilli() - start.toEpochMilli());
+        }
+        return driftCount;
+    }
+
+    private static Map<URI, Long> toCounts(CountListItemModel countList) {
+        Map<URI, Long> counts = new HashMap<>();
+        for (CountItemModel item : countList.getItems()) {
+            counts.merge(item.getUri(), item.getCount().longValue(), Long::sum);
+        }
+        return counts;
     }
 
     private CountListItemModel getDataCountByVariables(URI experimentURI, AccountModel currentUser) throws Exception {
@@ -6,8 +6,10 @@
 //******************************************************************************
 package org.opensilex.core.metrics.schedule;
 
-import java.util.concurrent.Executors;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
 import java.util.concurrent.TimeUnit;
 import javax.inject.Inject;
 import javax.ws.rs.ext.Provider;
@@ -22,6 +24,7 @@ import org.opensilex.core.CoreModule;
 import org.opensilex.core.metrics.dal.MetricDAO;
 import org.opensilex.nosql.mongodb.MongoDBService;
 import org.opensilex.security.account.dal.AccountModel;
+import org.opensilex.service.execution.ExecutionService;
 import org.opensilex.sparql.service.SPARQLService;
 import org.opensilex.sparql.service.SPARQLServiceFactory;
 import org.slf4j.Logger;
@@ -29,7 +32,8 @@ import org.slf4j.LoggerFactory;
 import org.opensilex.core.MetricsConfig;
 
 /**
- * Create System metrics with a delay defined by user for experiment and system
+ * Create System metrics with a delay defined by user for experiment and system. Summaries are built from incremental
+ * counters, which are reconciled with a full count with their own delay.
  *
  * @author Arnaud Charleroy
  */
@@ -41,7 +45,7 @@ public class ScheduleMetrics implements ApplicationEventListener {
 
     private static final Logger LOGGER = LoggerFactory.getLogger(ScheduleMetrics.class);
     public static final String SCHEDULE_METRICS = "ScheduleMetrics";
-    private final ScheduledExecutorService scheduler = Executors.newScheduledThreadPool(2);
+    private final List<ScheduledFuture<?>> scheduledTasks = new ArrayList<>();
 
     @Override
     public void onEvent(ApplicationEvent event) {
@@ -79,10 +83,24 @@ public class ScheduleMetrics implements ApplicationEventListener {
                         throw new RuntimeException("Bad experiment time unit set" + systemTimeUnit);
                     }
 
+                    // Get counters reconciliation configuration
+                    int timeBeforeFirstReconciliation = metrics.counters().timeBeforeFirstReconciliation();
+                    int delayBetweenReconciliations = metrics.counters().delayBetweenReconciliations();
+                    String reconciliationTimeUnitName = metrics.counters().reconciliationTimeUnit();
+
+                    TimeUnit reconciliationTimeUnit = null;
+                    try {
+                        reconciliationTimeUnit = TimeUnit.valueOf(reconciliationTimeUnitName);
+                    } catch (IllegalArgumentException e) {
+                        throw new RuntimeException("Bad counters reconciliation time unit set" + reconciliationTimeUnitName);
+                    }
+
                     AccountModel user = AccountModel.getSystemUser();
                     MetricDAO metricsDao = new MetricDAO(sparql, nosql,user);
-                    scheduler.scheduleAtFixedRate(new CreateExperimentSummaries(metricsDao), experimentsTimeBeforeFirstMetric, delayBetweenExperimentsMetrics, experimentsTimeUnit);
-                    scheduler.scheduleAtFixedRate(new CreateSystemSummary(metricsDao), systemTimeBeforeFirstMetric, delayBetweenSystemMetrics, systemTimeUnit);
+                    ScheduledExecutorService scheduler = opensilex.getServiceInstance(ExecutionService.DEFAULT_SERVICE, ExecutionService.class).getScheduler();
+                    scheduledTasks.add(scheduler.scheduleAtFixedRate(new CreateExperimentSummaries(metricsDao), experimentsTimeBeforeFirstMetric, delayBetweenExperimentsMetrics, experimentsTimeUnit));
+                    scheduledTasks.add(scheduler.scheduleAtFixedRate(new CreateSystemSummary(metricsDao), systemTimeBeforeFirstMetric, delayBetweenSystemMetrics, systemTimeUnit));
+                    scheduledTasks.add(scheduler.scheduleWithFixedDelay(new ReconcileCounters(metricsDao), timeBeforeFirstReconciliation, delayBetweenReconciliations, reconciliationTimeUnit));
 
                     LOGGER.debug("start " + SCHEDULE_METRICS + " with parameters experimentsTimeBeforeFirstMetric : " + experimentsTimeBeforeFirstMetric + " , delayBetweenExperimentMetrics" + delayBetweenExperimentsMetrics + " with timeUnit" + experimentsTimeUnit.toString() + " and systemTimeBeforeFirstMetric : " + systemTimeBeforeFirstMetric + ", delayBetweenSystemMetrics" + delayBetweenSystemMetrics + " with timeUnit " + systemTimeUnit.toString());
                 } catch (OpenSilexModuleNotFoundException ex) {
@@ -96,7 +114,9 @@ public class ScheduleMetrics implements ApplicationEventListener {
                 break;
             case DESTROY_FINISHED:
                 LOGGER.debug("stop " + SCHEDULE_METRICS);
-                scheduler.shutdown();
+                // the scheduler is shared, only metrics tasks are cancelled
+                scheduledTasks.forEach(task -> task.cancel(false));
+                scheduledTasks.clear();
                 break;
         }
     }
@@ -149,4 +169,25 @@ public class ScheduleMetrics implements ApplicationEventListener {
 
         }
     }
+
+    /**
+     * Represent a thread that fixes the metric counters drift with a full count
+     */
+    private class ReconcileCounters implements Runnable {
+
+        private final MetricDAO metricsDao;
+
+        public ReconcileCounters(MetricDAO metricsDao) {
+            this.metricsDao = metricsDao;
+        }
+
+        @Override
+        public void run() {
+            try {
+                metricsDao.reconcileCounters();
+            } catch (Exception ex) {
+                LOGGER.error(ex.getMessage(), ex);
+            }
+        }
+    }
 }
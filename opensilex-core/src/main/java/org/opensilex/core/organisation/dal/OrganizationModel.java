@@ -27,7 +27,8 @@ import org.opensilex.sparql.model.SPARQLDagModel;
         ontology = FOAF.class,
         resource = "Organization",
         graph = OrganizationModel.GRAPH,
-        prefix = "orga"
+        prefix = "orga",
+        cacheMaxSize = 1000
 )
 public class OrganizationModel extends SPARQLDagModel<OrganizationModel> {
 
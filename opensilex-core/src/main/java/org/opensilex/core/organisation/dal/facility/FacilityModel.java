@@ -29,7 +29,8 @@ import java.util.stream.Collectors;
         resource = "Facility",
         graph = OrganizationModel.GRAPH,
         prefix = "orga",
-        handleCustomProperties = true
+        handleCustomProperties = true,
+        cacheMaxSize = 1000
 )
 public class FacilityModel extends SPARQLTreeModel<FacilityModel> {
 
@@ -19,7 +19,9 @@ import org.opensilex.core.exception.DuplicateNameException;
 import org.opensilex.core.experiment.api.ExperimentAPI;
 import org.opensilex.core.experiment.dal.ExperimentModel;
 import org.opensilex.core.geospatial.api.GeometryDTO;
+import org.opensilex.core.geospatial.api.GeospatialTileResponse;
 import org.opensilex.core.geospatial.dal.GeospatialDAO;
+import org.opensilex.core.geospatial.dal.GeospatialTiles;
 import org.opensilex.core.location.dal.LocationObservationModel;
 import org.opensilex.core.ontology.Oeso;
 import org.opensilex.core.provenance.api.ProvenanceGetDTO;
@@ -63,7 +65,9 @@ import javax.validation.constraints.Max;
 import javax.validation.constraints.Min;
 import javax.validation.constraints.NotNull;
 import javax.ws.rs.*;
+import javax.ws.rs.core.Context;
 import javax.ws.rs.core.MediaType;
+import javax.ws.rs.core.Request;
 import javax.ws.rs.core.Response;
 import java.io.File;
 import java.net.URI;
@@ -196,6 +200,38 @@ public class ScientificObjectAPI {
         return new PaginatedListResponse<>(soDTOList).getResponse();
     }
 
+    @GET
+    @Path("geometry/tiles/{z}/{x}/{y}")
+    @ApiOperation(value = "Get a map tile of the scientific objects with geometry of a given experiment URI",
+            notes = "Tiles follow the z/x/y Web Mercator scheme. Geometries are the last positions of the scientific objects, simplified according to the zoom level, and those smaller than a pixel are omitted. The response has an ETag and can be revalidated with If-None-Match.")
+    @ApiProtected
+    @Produces(MediaType.APPLICATION_JSON)
+    @ApiResponses(value = {
+            @ApiResponse(code = 200, message = "GeoJSON FeatureCollection of the tile", response = String.class),
+            @ApiResponse(code = 304, message = "Tile not modified"),
+            @ApiResponse(code = 400, message = "Invalid tile coordinates", response = ErrorDTO.class)
+    })
+    public Response getScientificObjectsWithGeometryTile(
+            @ApiParam(value = "Zoom level", required = true, example = "17") @PathParam("z") int z,
+            @ApiParam(value = "Tile column, from west to east", required = true, example = "66864") @PathParam("x") int x,
+            @ApiParam(value = "Tile row, from north to south", required = true, example = "48042") @PathParam("y") int y,
+            @ApiParam(value = "Context URI", example = "http://example.com/", required = true) @QueryParam("experiment") @NotNull URI contextURI,
+            @ApiParam(value = "Search by minimal date", example = "2020-08-21") @QueryParam("start_date") @Date(DateFormat.YMD) String startDate,
+            @ApiParam(value = "Search by maximal date", example = "2020-08-22") @QueryParam("end_date") @Date(DateFormat.YMD) String endDate,
+            @Context Request request
+    ) throws Exception {
+        ScientificObjectLogic logic = new ScientificObjectLogic(sparql, nosql, fs);
+
+        GeospatialTiles.Tile tile;
+        try {
+            tile = logic.getSOWithPositionTile(contextURI, startDate, endDate, z, x, y, currentUser);
+        } catch (IllegalArgumentException e) {
+            return new ErrorResponse(Response.Status.BAD_REQUEST, "Invalid tile coordinates", e.getMessage()).getResponse();
+        }
+
+        return new GeospatialTileResponse(tile, request).getResponse();
+    }
+
     @GET
     @Path("children")
     @ApiOperation("Get list of scientific object children")
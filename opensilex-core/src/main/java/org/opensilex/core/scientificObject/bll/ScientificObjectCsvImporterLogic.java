@@ -12,6 +12,8 @@ import org.apache.jena.sparql.expr.aggregate.AggGroupConcatDistinct;
 import org.apache.jena.sparql.expr.aggregate.Aggregator;
 import org.apache.jena.vocabulary.RDF;
 import org.eclipse.rdf4j.model.vocabulary.RDFS;
+import org.eclipse.rdf4j.query.MalformedQueryException;
+import org.eclipse.rdf4j.repository.http.HTTPQueryEvaluationException;
 import org.locationtech.jts.io.ParseException;
 import org.opensilex.core.event.api.move.csv.MoveEventCsvImporter;
 import org.opensilex.core.event.bll.MoveLogic;
@@ -143,6 +145,13 @@ public class ScientificObjectCsvImporterLogic extends AbstractCsvImporter<Scient
     //Boolean to keep track of if any move field was filled in for this line. This only counts the move specific fields and the event start and end dates
     private boolean atLeast1MoveFieldFilledForCurrentRow = false;
 
+    //URIs and names lookups of the current chunk, computed by beforeChunkValidation() in order to avoid two SPARQL queries for each row.
+    //A value which is not inside the checked sets is looked up row by row.
+    private final Set<String> checkedUrisInChunk = new HashSet<>();
+    private final Set<String> existingUrisInChunk = new HashSet<>();
+    private final Set<String> checkedNamesInChunk = new HashSet<>();
+    private final Map<String, SPARQLNamedResourceModel<ScientificObjectModel>> existingObjectsByNameInChunk = new HashMap<>();
+
     /**
      * @param sparql     SPARQL service
      * @param mongoDB    MongoDB service (used for move and geospatial handling)
@@ -314,6 +323,52 @@ public class ScientificObjectCsvImporterLogic extends AbstractCsvImporter<Scient
         }
     }
 
+    /**
+     * Check the existence of the URIs and of the names of the chunk rows with one query for each, instead of
+     * two queries for each row inside {@link #handleURIMapping(CsvOwlRestrictionValidator, ScientificObjectModel, int, List, List, Map, Map)}.
+     * Invalid URIs are not checked here, so that their errors are still registered during row reading.
+     */
+    @Override
+    protected void beforeChunkValidation(List<String[]> rows, CsvHeader csvHeader, CsvOwlRestrictionValidator validator) throws Exception {
+        checkedUrisInChunk.clear();
+        existingUrisInChunk.clear();
+        checkedNamesInChunk.clear();
+        existingObjectsByNameInChunk.clear();
+
+        Set<String> uris = new HashSet<>();
+        for (String[] row : rows) {
+            String uri = row.length > CSV_URI_INDEX ? row[CSV_URI_INDEX] : null;
+            if (!StringUtils.isEmpty(uri)) {
+                try {
+                    uris.add(new URI(uri).toString());
+                } catch (URISyntaxException e) {
+                    // error registered when reading the row
+                }
+            }
+        }
+        try {
+            existingUrisInChunk.addAll(scientificObjectDAO.getExistingUrisInContext(uris, rootClassURI, graphNode));
+            checkedUrisInChunk.addAll(uris);
+        } catch (HTTPQueryEvaluationException | MalformedQueryException e) {
+            // some URI can't be used inside a query, check URIs row by row in order to register the error on the right row
+            existingUrisInChunk.clear();
+        }
+
+        List<Integer> nameIndexes = csvHeader.getIndexes(RDFS.LABEL.stringValue());
+        if (withinExperiment() && nameIndexes != null && nameIndexes.size() == 1) {
+            int nameIndex = nameIndexes.get(0);
+
+            Set<String> names = new HashSet<>();
+            for (String[] row : rows) {
+                if (row.length > nameIndex && !StringUtils.isEmpty(row[nameIndex])) {
+                    names.add(row[nameIndex]);
+                }
+            }
+            existingObjectsByNameInChunk.putAll(scientificObjectDAO.getUrisByNamesAndGraph(SPARQLDeserializers.nodeURI(experiment), names));
+            checkedNamesInChunk.addAll(names);
+        }
+    }
+
     @Override
     protected boolean handleURIMapping(
             CsvOwlRestrictionValidator validator,
@@ -330,21 +385,32 @@ public class ScientificObjectCsvImporterLogic extends AbstractCsvImporter<Scient
 
         // inside an XP
         if (withinExperiment()) {
-            // query used to check if a SO with a name already exists in XP
             //Only look if in experiment as duplicate names can exist globally
-            alreadyExistingOsWithName = scientificObjectLogic.getUriByNameAndGraph(
-                    SPARQLDeserializers.nodeURI(experiment),
-                    model.getName()
-            );
+            if (checkedNamesInChunk.contains(model.getName())) {
+                alreadyExistingOsWithName = existingObjectsByNameInChunk.get(model.getName());
+            } else {
+                // query used to check if a SO with a name already exists in XP
+                alreadyExistingOsWithName = scientificObjectLogic.getUriByNameAndGraph(
+                        SPARQLDeserializers.nodeURI(experiment),
+                        model.getName()
+                );
+            }
         }
 
         if (model.getUri() != null) {
-            // check existence of a URI (return false/true) in Context
-            List<SPARQLResult> result = scientificObjectDAO.checkUriExistInContext(validator, model, rowIndex, rootClassURI, graphNode);
-
-            if (result == null) return false;
-            String isURIExistInGraphString = !result.isEmpty() ? result.get(0).getStringValue(SPARQLService.EXISTING_VAR) : "";
-            boolean isUriExistInGraph = isURIExistInGraphString.equalsIgnoreCase("true");
+            boolean isUriExistInGraph;
+            String uri = model.getUri().toString();
+
+            if (checkedUrisInChunk.contains(uri)) {
+                isUriExistInGraph = existingUrisInChunk.contains(uri);
+            } else {
+                // check existence of a URI (return false/true) in Context
+                List<SPARQLResult> result = scientificObjectDAO.checkUriExistInContext(validator, model, rowIndex, rootClassURI, graphNode);
+
+                if (result == null) return false;
+                String isURIExistInGraphString = !result.isEmpty() ? result.get(0).getStringValue(SPARQLService.EXISTING_VAR) : "";
+                isUriExistInGraph = isURIExistInGraphString.equalsIgnoreCase("true");
+            }
 
             // Scenario 1 & 5: If the URI entered in CSV doesn't exist and if there's no SO with the same name in XP if we are in an XP -> insert the SO
             if (!isUriExistInGraph && (alreadyExistingOsWithName == null)) {
@@ -1231,7 +1297,7 @@ public class ScientificObjectCsvImporterLogic extends AbstractCsvImporter<Scient
                 setExperimentInSOObj(model);
             }
         }
-        scientificObjectDAO.create(this.graphNode, models);
+        scientificObjectDAO.createInBulk(this.graphNode, models);
 
         //Insert moves if movePerScientificObjectUri is not null
         if(movePerScientificObjectUri != null){
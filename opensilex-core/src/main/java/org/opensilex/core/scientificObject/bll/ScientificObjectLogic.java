@@ -27,6 +27,8 @@ import org.opensilex.core.experiment.dal.ExperimentDAO;
 import org.opensilex.core.experiment.dal.ExperimentModel;
 import org.opensilex.core.experiment.factor.dal.FactorLevelModel;
 import org.opensilex.core.geospatial.api.GeometryDTO;
+import org.opensilex.core.geospatial.dal.GeospatialModel;
+import org.opensilex.core.geospatial.dal.GeospatialTiles;
 import org.opensilex.core.germplasm.dal.GermplasmDAO;
 import org.opensilex.core.location.bll.LocationObservationLogic;
 import org.opensilex.core.location.dal.LocationObservationCollectionModel;
@@ -466,6 +468,49 @@ public class ScientificObjectLogic {
         return soAndLocationsMap;
     }
 
+    /**
+     * Get a map tile of the positions returned by {@link #getSOWithPosition(URI, String, String, AccountModel)}. The
+     * positions are read once for the tiles requested at the same time, see {@link GeospatialTiles}.
+     *
+     * @param contextURI  the experiment
+     * @param startDate   start date filter
+     * @param endDate     end date filter
+     * @param z           zoom level of the tile
+     * @param x           column of the tile
+     * @param y           row of the tile
+     * @param currentUser user
+     * @return a GeoJSON FeatureCollection of the simplified geometries of the scientific objects in the tile
+     * @throws IllegalArgumentException if the coordinates are not those of a tile
+     * @throws Exception                if the experiment is not accessible
+     */
+    public GeospatialTiles.Tile getSOWithPositionTile(
+            URI contextURI,
+            String startDate,
+            String endDate,
+            int z,
+            int x,
+            int y,
+            AccountModel currentUser
+    ) throws Exception {
+        validateContextAccess(contextURI, currentUser);
+
+        String setKey = String.join(" ",
+                SPARQLDeserializers.getExpandedURI(contextURI),
+                Objects.toString(startDate, ""),
+                Objects.toString(endDate, ""),
+                currentUser.getLanguage()
+        );
+        return GeospatialTiles.get(sparql).get(setKey, z, x, y, () -> {
+            List<GeospatialModel> geometries = new ArrayList<>();
+            getSOWithPosition(contextURI, startDate, endDate, currentUser).forEach((model, location) -> {
+                if (location.getLocation() != null && location.getLocation().getGeometry() != null) {
+                    geometries.add(new GeospatialModel(model, contextURI, location.getLocation().getGeometry()));
+                }
+            });
+            return geometries;
+        });
+    }
+
     public LocationObservationModel getLastLocation(ScientificObjectModel model) {
         //Get last location
         LocationObservationModel soLastLocation = new LocationObservationModel();
@@ -6,6 +6,7 @@
 package org.opensilex.core.scientificObject.dal;
 
 import org.apache.commons.collections4.CollectionUtils;
+import org.apache.commons.collections4.ListUtils;
 import org.apache.commons.collections4.trie.PatriciaTrie;
 import org.apache.commons.lang3.StringUtils;
 import org.apache.jena.arq.querybuilder.*;
@@ -30,10 +31,13 @@ import org.opensilex.core.exception.DuplicateNameListException;
 import org.opensilex.core.exception.DuplicateURIListException;
 import org.opensilex.core.germplasmGroup.dal.GermplasmGroupModel;
 import org.opensilex.core.location.dal.LocationObservationCollectionModel;
+import org.opensilex.core.metrics.dal.MetricCounterDAO;
+import org.opensilex.core.metrics.dal.MetricCounterType;
 import org.opensilex.core.ontology.Oeso;
 import org.opensilex.core.ontology.SOSA;
 import org.opensilex.core.ontology.dal.SPARQLRelationFetcher;
 import org.opensilex.core.scientificObject.api.ScientificObjectNodeDTO;
+import org.opensilex.nosql.mongodb.MongoDBService;
 import org.opensilex.security.account.dal.AccountModel;
 import org.opensilex.sparql.csv.CsvOwlRestrictionValidator;
 import org.opensilex.sparql.csv.validation.CsvCellValidationContext;
@@ -83,6 +87,10 @@ public class ScientificObjectDAO {
     private final Node defaultGraphNode;
     private final URI defaultGraphURI;
 
+    private MetricCounterDAO metricCounterDAO;
+
+    private static final int COUNTER_TYPES_QUERY_SIZE = 5000;
+
     //#region CONSTRUCTOR
     public ScientificObjectDAO(SPARQLService sparql) {
         this.sparql = sparql;
@@ -484,6 +492,51 @@ public class ScientificObjectDAO {
         return existingOs.isEmpty() ? null : existingOs.get(0);
     }
 
+    /**
+     * Batch version of {@link #getUriByNameAndGraph(Node, String)}
+     * @param experiment graph to search in, the default scientific object graph is used if null
+     * @param objectNames names to search
+     * @return for each name used by at least one object inside the graph, one of these objects
+     */
+    public Map<String, SPARQLNamedResourceModel<ScientificObjectModel>> getUrisByNamesAndGraph(Node experiment, Collection<String> objectNames) throws SPARQLException {
+
+        Map<String, SPARQLNamedResourceModel<ScientificObjectModel>> existingOsByName = new HashMap<>();
+        if (objectNames.isEmpty()) {
+            return existingOsByName;
+        }
+
+        Node graph = experiment == null ? defaultGraphNode : experiment;
+
+        try {
+            Var uriVar = makeVar(SPARQLResourceModel.URI_FIELD);
+            Var nameVar = makeVar(SPARQLNamedResourceModel.NAME_FIELD);
+            SelectBuilder query = new SelectBuilder()
+                    .addVar(uriVar)
+                    .addVar(nameVar)
+                    .addGraph(graph, new WhereBuilder()
+                            .addWhere(uriVar, RDFS.label, nameVar)
+                    );
+
+            Object[] names = objectNames.stream().map(NodeFactory::createLiteral).toArray();
+            query.addWhereValueVar(nameVar, names);
+
+            sparql.executeSelectQueryAsStream(query).forEach(result -> {
+                String name = result.getStringValue(SPARQLNamedResourceModel.NAME_FIELD);
+                existingOsByName.computeIfAbsent(name, key -> {
+                    SPARQLNamedResourceModel<ScientificObjectModel> model = new SPARQLNamedResourceModel<>();
+                    model.setUri(URIDeserializer.formatURI(result.getStringValue(SPARQLResourceModel.URI_FIELD)));
+                    model.setName(name);
+                    return model;
+                });
+            });
+
+        } catch (Exception e) {
+            throw new SPARQLException(e);
+        }
+
+        return existingOsByName;
+    }
+
     public List<SPARQLResult> checkUriExistInContext(CsvOwlRestrictionValidator validator, ScientificObjectModel model, int totalRowIdx, URI rootClassURI, Node graphNode) throws SPARQLException {
         // query used to check existence of a URI (return false/true) in XP
         SelectBuilder checkUriQuery = sparql.getCheckUriListExistQuery(Stream.of(String.valueOf(model.getUri())), 1, rootClassURI.toString(), graphNode);
@@ -497,6 +550,33 @@ public class ScientificObjectDAO {
         return result;
     }
 
+    /**
+     * Batch version of {@link #checkUriExistInContext(CsvOwlRestrictionValidator, ScientificObjectModel, int, URI, Node)}
+     * @param uris URIs to check
+     * @param rootClassURI type of the objects
+     * @param graphNode graph to search in
+     * @return the subset of uris which exist inside the graph
+     */
+    public Set<String> getExistingUrisInContext(Collection<String> uris, URI rootClassURI, Node graphNode) throws SPARQLException {
+        Set<String> existingUris = new HashSet<>();
+        if (uris.isEmpty()) {
+            return existingUris;
+        }
+
+        // the query returns one boolean by URI, in the same order as the input URIs
+        List<String> urisToCheck = new ArrayList<>(new LinkedHashSet<>(uris));
+        SelectBuilder checkUrisQuery = sparql.getCheckUriListExistQuery(urisToCheck.stream(), urisToCheck.size(), rootClassURI.toString(), graphNode);
+
+        Iterator<String> urisIterator = urisToCheck.iterator();
+        for (SPARQLResult result : sparql.executeSelectQuery(checkUrisQuery)) {
+            String uri = urisIterator.next();
+            if (Boolean.parseBoolean(result.getStringValue(SPARQLService.EXISTING_VAR))) {
+                existingUris.add(uri);
+            }
+        }
+        return existingUris;
+    }
+
     public Set<URI> getExistingUrisToCreate(List<ScientificObjectModel> models) throws Exception {
         return sparql.getExistingUriStream(
                 ScientificObjectModel.class,
@@ -614,11 +694,26 @@ public class ScientificObjectDAO {
     }
 
     public void create(Node graphNode, List<ScientificObjectModel> models) throws Exception {
+        Set<List<String>> typesBefore = getObjectTypesByGraph(getURIs(models));
         sparql.create(graphNode,models,SPARQLService.DEFAULT_MAX_INSTANCE_PER_QUERY,false, true);
+        updateMetricCounters(graphNode, typesBefore, getObjectTypesByGraph(getURIs(models)));
+    }
+
+    /**
+     * Create a large number of objects, URIs and relations are checked by set and objects are inserted by chunks.
+     *
+     * @see SPARQLService#createInBulk(Class, Node, Collection)
+     */
+    public void createInBulk(Node graphNode, List<ScientificObjectModel> models) throws Exception {
+        Set<List<String>> typesBefore = getObjectTypesByGraph(getURIs(models));
+        sparql.createInBulk(ScientificObjectModel.class, graphNode, models);
+        updateMetricCounters(graphNode, typesBefore, getObjectTypesByGraph(getURIs(models)));
     }
 
     public void create(Node graphNode, ScientificObjectModel object) throws Exception {
+        Set<List<String>> typesBefore = getObjectTypesByGraph(getURIs(Collections.singletonList(object)));
         sparql.create(graphNode, object);
+        updateMetricCounters(graphNode, typesBefore, getObjectTypesByGraph(getURIs(Collections.singletonList(object))));
     }
 
     public List<URI> fetchChildrenURIs(URI objectURI, Node graphNode, String lang) throws Exception {
@@ -635,7 +730,9 @@ public class ScientificObjectDAO {
     public URI update(Node graphNode, SPARQLResourceModel object, String lang) throws Exception {
         List<URI> childrenURIs = fetchChildrenURIs(object.getUri(), graphNode, lang);
 
+        Set<List<String>> typesBefore = getObjectTypesByGraph(Collections.singletonList(object.getUri()));
         sparql.update(graphNode, object);
+        updateMetricCounters(graphNode, typesBefore, getObjectTypesByGraph(Collections.singletonList(object.getUri())));
         if (!childrenURIs.isEmpty()) {
             sparql.insertPrimitive(graphNode, childrenURIs, Oeso.isPartOf, object.getUri());
         }
@@ -748,11 +845,120 @@ public class ScientificObjectDAO {
     }
 
     public void delete(URI xpURI, URI objectURI) throws Exception {
-        if(Objects.isNull(xpURI)){
-            sparql.deleteByURI(defaultGraphNode,objectURI);
-        }else{
-            sparql.deleteByURI(SPARQLDeserializers.nodeURI(xpURI), objectURI);
+        Node graphNode = Objects.isNull(xpURI) ? defaultGraphNode : SPARQLDeserializers.nodeURI(xpURI);
+
+        Set<List<String>> typesBefore = getObjectTypesByGraph(Collections.singletonList(objectURI));
+        sparql.deleteByURI(graphNode, objectURI);
+        updateMetricCounters(graphNode, typesBefore, getObjectTypesByGraph(Collections.singletonList(objectURI)));
+    }
+
+    private static List<URI> getURIs(Collection<? extends SPARQLResourceModel> models) {
+        return models.stream()
+                .map(SPARQLResourceModel::getUri)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Get the types of the objects in each graph, read before and after a write in order to compute the increments of
+     * the scientific object by type counters. Objects are read by chunks of {@link #COUNTER_TYPES_QUERY_SIZE}.
+     *
+     * @param objectURIs URIs of the objects
+     * @return (graph, object, type) expanded URIs, empty if the counters are not available
+     */
+    private Set<List<String>> getObjectTypesByGraph(List<URI> objectURIs) throws Exception {
+        Set<List<String>> typesByGraph = new HashSet<>();
+        if (objectURIs.isEmpty() || getMetricCounterDAO() == null) {
+            return typesByGraph;
+        }
+
+        Var graphVar = makeVar("graph");
+        Var uriVar = makeVar(SPARQLResourceModel.URI_FIELD);
+        Var typeVar = makeVar(SPARQLResourceModel.TYPE_FIELD);
+
+        for (List<URI> chunk : ListUtils.partition(objectURIs, COUNTER_TYPES_QUERY_SIZE)) {
+            SelectBuilder select = new SelectBuilder()
+                    .setDistinct(true)
+                    .addVar(graphVar)
+                    .addVar(uriVar)
+                    .addVar(typeVar)
+                    .addGraph(graphVar, uriVar, RDF.type, typeVar)
+                    .addWhere(typeVar, Ontology.subClassStrict, Oeso.ScientificObject);
+            SPARQLQueryHelper.addWhereUriValues(select, uriVar.getVarName(), chunk);
+
+            sparql.executeSelectQuery(select, result -> typesByGraph.add(Arrays.asList(
+                    SPARQLDeserializers.getExpandedURI(result.getStringValue(graphVar.getVarName())),
+                    SPARQLDeserializers.getExpandedURI(result.getStringValue(uriVar.getVarName())),
+                    SPARQLDeserializers.getExpandedURI(result.getStringValue(typeVar.getVarName()))
+            )));
+        }
+        return typesByGraph;
+    }
+
+    /**
+     * Update the scientific object by type counters, once the current transaction is committed. Like the reconciliation,
+     * the system counters count the distinct objects of each type in all graphs, and the experiment counters count the
+     * objects of each type in the experiment graph.
+     *
+     * @param graphNode    graph of the written objects
+     * @param typesBefore  types of the written objects before the write
+     * @param typesAfter   types of the written objects after the write
+     * @see #getObjectTypesByGraph(List)
+     * @see MetricCounterDAO
+     */
+    private void updateMetricCounters(Node graphNode, Set<List<String>> typesBefore, Set<List<String>> typesAfter) {
+        MetricCounterDAO counterDAO = getMetricCounterDAO();
+        if (counterDAO == null) {
+            return;
+        }
+
+        MetricCounterDAO.CounterUpdates updates = new MetricCounterDAO.CounterUpdates();
+        addTypeIncrements(updates, MetricCounterDAO.SYSTEM_SCOPE, getObjectTypes(typesBefore, null), getObjectTypes(typesAfter, null));
+
+        if (!graphNode.equals(defaultGraphNode)) {
+            String graph = SPARQLDeserializers.getExpandedURI(graphNode.getURI());
+            String scope = MetricCounterDAO.getExperimentScope(URI.create(graph));
+            addTypeIncrements(updates, scope, getObjectTypes(typesBefore, graph), getObjectTypes(typesAfter, graph));
+        }
+
+        if (!updates.isEmpty()) {
+            sparql.afterCommit(() -> counterDAO.apply(updates));
+        }
+    }
+
+    /**
+     * @param typesByGraph (graph, object, type) expanded URIs
+     * @param graph        a graph, or null for all graphs
+     * @return (object, type) expanded URIs in the graph
+     */
+    private static Set<List<String>> getObjectTypes(Set<List<String>> typesByGraph, String graph) {
+        return typesByGraph.stream()
+                .filter(objectType -> graph == null || graph.equals(objectType.get(0)))
+                .map(objectType -> objectType.subList(1, 3))
+                .collect(Collectors.toSet());
+    }
+
+    private static void addTypeIncrements(MetricCounterDAO.CounterUpdates updates, String scope, Set<List<String>> typesBefore, Set<List<String>> typesAfter) {
+        for (List<String> objectType : typesAfter) {
+            if (!typesBefore.contains(objectType)) {
+                updates.add(scope, MetricCounterType.SCIENTIFIC_OBJECT_BY_TYPE, URI.create(objectType.get(1)), 1);
+            }
+        }
+        for (List<String> objectType : typesBefore) {
+            if (!typesAfter.contains(objectType)) {
+                updates.add(scope, MetricCounterType.SCIENTIFIC_OBJECT_BY_TYPE, URI.create(objectType.get(1)), -1);
+            }
+        }
+    }
+
+    private MetricCounterDAO getMetricCounterDAO() {
+        if (metricCounterDAO == null && sparql.getOpenSilex() != null) {
+            MongoDBService mongodb = sparql.getOpenSilex().getServiceInstance(MongoDBService.DEFAULT_SERVICE, MongoDBService.class);
+            if (mongodb != null) {
+                metricCounterDAO = new MetricCounterDAO(mongodb.getDatabase());
+            }
         }
+        return metricCounterDAO;
     }
 
     /**
@@ -864,12 +1070,14 @@ public class ScientificObjectDAO {
         UpdateBuilder update = new UpdateBuilder();
 
         try{
+            List<ScientificObjectModel> copiedModels = models.collect(Collectors.toList());
+            Set<List<String>> typesBefore = getObjectTypesByGraph(getURIs(copiedModels));
             // use serializer in order to ensure that name is well serialized as a String
             SPARQLDeserializer<String> stringDeserializer = SPARQLDeserializers.getForClass(String.class);
             SPARQLDeserializer<URI> uriDeserializer = SPARQLDeserializers.getForClass(URI.class);
             SPARQLDeserializer<OffsetDateTime> dateDeserializer = SPARQLDeserializers.getForClass(OffsetDateTime.class);
 
-            models.forEach(object -> {
+            copiedModels.forEach(object -> {
                 Node uriNode = SPARQLDeserializers.nodeURI(object.getUri());
 
                 try {
@@ -892,6 +1100,7 @@ public class ScientificObjectDAO {
                     throw new RuntimeException(e);
                 }
             });
+            updateMetricCounters(defaultGraphNode, typesBefore, getObjectTypesByGraph(getURIs(copiedModels)));
         }catch (Exception e){
             throw new SPARQLException(e);
         }
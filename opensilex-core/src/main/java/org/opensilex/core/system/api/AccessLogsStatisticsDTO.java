@@ -0,0 +1,96 @@
+//******************************************************************************
+//                        AccessLogsStatisticsDTO.java
+// OpenSILEX - Licence AGPL V3.0 - https://www.gnu.org/licenses/agpl-3.0.en.html
+// Copyright © INRAE 2024
+// Contact: anne.tireau@inrae.fr, pascal.neveu@inrae.fr
+//******************************************************************************
+package org.opensilex.core.system.api;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.annotation.JsonPropertyOrder;
+import org.opensilex.core.logs.dal.AsyncLogsWriter;
+
+/**
+ * Class that represents counters of the access logs writer
+ */
+@JsonPropertyOrder({"queued_count", "flushed_count", "dropped_count", "pending_count", "buffer_capacity", "overflow_policy"})
+public class AccessLogsStatisticsDTO {
+
+    @JsonProperty("queued_count")
+    private long queuedCount;
+
+    @JsonProperty("flushed_count")
+    private long flushedCount;
+
+    /**
+     * Number of logs dropped because of the overflow policy or because of a write error
+     */
+    @JsonProperty("dropped_count")
+    private long droppedCount;
+
+    @JsonProperty("pending_count")
+    private int pendingCount;
+
+    @JsonProperty("buffer_capacity")
+    private int bufferCapacity;
+
+    @JsonProperty("overflow_policy")
+    private String overflowPolicy;
+
+    public AccessLogsStatisticsDTO(AsyncLogsWriter writer) {
+        this.queuedCount = writer.getQueuedCount();
+        this.flushedCount = writer.getFlushedCount();
+        this.droppedCount = writer.getDroppedCount();
+        this.pendingCount = writer.getPendingCount();
+        this.bufferCapacity = writer.getBufferCapacity();
+        this.overflowPolicy = writer.getOverflowPolicy().name();
+    }
+
+    public long getQueuedCount() {
+        return queuedCount;
+    }
+
+    public void setQueuedCount(long queuedCount) {
+        this.queuedCount = queuedCount;
+    }
+
+    public long getFlushedCount() {
+        return flushedCount;
+    }
+
+    public void setFlushedCount(long flushedCount) {
+        this.flushedCount = flushedCount;
+    }
+
+    public long getDroppedCount() {
+        return droppedCount;
+    }
+
+    public void setDroppedCount(long droppedCount) {
+        this.droppedCount = droppedCount;
+    }
+
+    public int getPendingCount() {
+        return pendingCount;
+    }
+
+    public void setPendingCount(int pendingCount) {
+        this.pendingCount = pendingCount;
+    }
+
+    public int getBufferCapacity() {
+        return bufferCapacity;
+    }
+
+    public void setBufferCapacity(int bufferCapacity) {
+        this.bufferCapacity = bufferCapacity;
+    }
+
+    public String getOverflowPolicy() {
+        return overflowPolicy;
+    }
+
+    public void setOverflowPolicy(String overflowPolicy) {
+        this.overflowPolicy = overflowPolicy;
+    }
+}
@@ -0,0 +1,74 @@
+//******************************************************************************
+//                        AuthenticationStatisticsDTO.java
+// OpenSILEX - Licence AGPL V3.0 - https://www.gnu.org/licenses/agpl-3.0.en.html
+// Copyright © INRAE 2024
+// Contact: anne.tireau@inrae.fr, pascal.neveu@inrae.fr
+//******************************************************************************
+package org.opensilex.core.system.api;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.annotation.JsonPropertyOrder;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import org.opensilex.security.authentication.AuthenticationService;
+
+/**
+ * Class that represents counters of the token verifications
+ */
+@JsonPropertyOrder({"verification_count", "average_verification_time_ms", "cache_hit_count", "cache_miss_count"})
+public class AuthenticationStatisticsDTO {
+
+    /**
+     * Number of token signature verifications, done for tokens missing from the verified token cache
+     */
+    @JsonProperty("verification_count")
+    private long verificationCount;
+
+    @JsonProperty("average_verification_time_ms")
+    private double averageVerificationTimeMs;
+
+    @JsonProperty("cache_hit_count")
+    private long cacheHitCount;
+
+    @JsonProperty("cache_miss_count")
+    private long cacheMissCount;
+
+    public AuthenticationStatisticsDTO(AuthenticationService authentication) {
+        CacheStats cacheStats = authentication.getTokenCacheStats();
+        this.verificationCount = authentication.getTokenVerificationCount();
+        this.averageVerificationTimeMs = authentication.getAverageTokenVerificationTimeMs();
+        this.cacheHitCount = cacheStats.hitCount();
+        this.cacheMissCount = cacheStats.missCount();
+    }
+
+    public long getVerificationCount() {
+        return verificationCount;
+    }
+
+    public void setVerificationCount(long verificationCount) {
+        this.verificationCount = verificationCount;
+    }
+
+    public double getAverageVerificationTimeMs() {
+        return averageVerificationTimeMs;
+    }
+
+    public void setAverageVerificationTimeMs(double averageVerificationTimeMs) {
+        this.averageVerificationTimeMs = averageVerificationTimeMs;
+    }
+
+    public long getCacheHitCount() {
+        return cacheHitCount;
+    }
+
+    public void setCacheHitCount(long cacheHitCount) {
+        this.cacheHitCount = cacheHitCount;
+    }
+
+    public long getCacheMissCount() {
+        return cacheMissCount;
+    }
+
+    public void setCacheMissCount(long cacheMissCount) {
+        this.cacheMissCount = cacheMissCount;
+    }
+}
@@ -0,0 +1,119 @@
+//******************************************************************************
+//                        CacheStatisticsDTO.java
+// OpenSILEX - Licence AGPL V3.0 - https://www.gnu.org/licenses/agpl-3.0.en.html
+// Copyright © INRAE 2024
+// Contact: anne.tireau@inrae.fr, pascal.neveu@inrae.fr
+//******************************************************************************
+package org.opensilex.core.system.api;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.annotation.JsonPropertyOrder;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import org.opensilex.server.rest.cache.ApiCacheStatistics;
+
+/**
+ * Class that represents statistics of a cache
+ */
+@JsonPropertyOrder({"name", "hit_count", "miss_count", "hit_rate", "eviction_count", "load_count", "average_load_time"})
+public class CacheStatisticsDTO {
+
+    @JsonProperty("name")
+    private String name;
+
+    @JsonProperty("hit_count")
+    private long hitCount;
+
+    @JsonProperty("miss_count")
+    private long missCount;
+
+    @JsonProperty("hit_rate")
+    private double hitRate;
+
+    @JsonProperty("eviction_count")
+    private long evictionCount;
+
+    @JsonProperty("load_count")
+    private long loadCount;
+
+    /**
+     * Average time spent to compute a value on cache miss (in milliseconds)
+     */
+    @JsonProperty("average_load_time")
+    private double averageLoadTime;
+
+    public CacheStatisticsDTO(String name, CacheStats stats) {
+        this.name = name;
+        this.hitCount = stats.hitCount();
+        this.missCount = stats.missCount();
+        this.hitRate = stats.hitRate();
+        this.evictionCount = stats.evictionCount();
+        this.loadCount = stats.loadCount();
+        this.averageLoadTime = stats.averageLoadPenalty() / 1_000_000d;
+    }
+
+    public CacheStatisticsDTO(String name, ApiCacheStatistics stats) {
+        this.name = name;
+        this.hitCount = stats.getHitCount();
+        this.missCount = stats.getMissCount();
+        this.hitRate = stats.getHitRate();
+        this.evictionCount = stats.getEvictionCount();
+        this.loadCount = stats.getLoadCount();
+        this.averageLoadTime = stats.getAverageLoadTime() / 1_000_000d;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public void setName(String name) {
+        this.name = name;
+    }
+
+    public long getHitCount() {
+        return hitCount;
+    }
+
+    public void setHitCount(long hitCount) {
+        this.hitCount = hitCount;
+    }
+
+    public long getMissCount() {
+        return missCount;
+    }
+
+    public void setMissCount(long missCount) {
+        this.missCount = missCount;
+    }
+
+    public double getHitRate() {
+        return hitRate;
+    }
+
+    public void setHitRate(double hitRate) {
+        this.hitRate = hitRate;
+    }
+
+    public long getEvictionCount() {
+        return evictionCount;
+    }
+
+    public void setEvictionCount(long evictionCount) {
+        this.evictionCount = evictionCount;
+    }
+
+    public long getLoadCount() {
+        return loadCount;
+    }
+
+    public void setLoadCount(long loadCount) {
+        this.loadCount = loadCount;
+    }
+
+    public double getAverageLoadTime() {
+        return averageLoadTime;
+    }
+
+    public void setAverageLoadTime(double averageLoadTime) {
+        this.averageLoadTime = averageLoadTime;
+    }
+}
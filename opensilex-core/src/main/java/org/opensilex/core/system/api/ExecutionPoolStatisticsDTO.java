@@ -0,0 +1,212 @@
+//******************************************************************************
+//                        ExecutionPoolStatisticsDTO.java
+// OpenSILEX - Licence AGPL V3.0 - https://www.gnu.org/licenses/agpl-3.0.en.html
+// Copyright © INRAE 2024
+// Contact: anne.tireau@inrae.fr, pascal.neveu@inrae.fr
+//******************************************************************************
+package org.opensilex.core.system.api;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.annotation.JsonPropertyOrder;
+import org.opensilex.service.execution.ExecutionPool;
+
+/**
+ * Class that represents counters of a pool of the execution service
+ */
+@JsonPropertyOrder({"name", "type", "backpressure_policy", "max_concurrency", "queue_capacity", "active_count", "queued_count",
+        "submitted_count", "completed_count", "failed_count", "rejected_count", "backpressure_count",
+        "average_queue_time", "max_queue_time", "average_execution_time"})
+public class ExecutionPoolStatisticsDTO {
+
+    @JsonProperty("name")
+    private String name;
+
+    @JsonProperty("type")
+    private String type;
+
+    @JsonProperty("backpressure_policy")
+    private String backpressurePolicy;
+
+    @JsonProperty("max_concurrency")
+    private int maxConcurrency;
+
+    @JsonProperty("queue_capacity")
+    private int queueCapacity;
+
+    @JsonProperty("active_count")
+    private int activeCount;
+
+    @JsonProperty("queued_count")
+    private int queuedCount;
+
+    @JsonProperty("submitted_count")
+    private long submittedCount;
+
+    @JsonProperty("completed_count")
+    private long completedCount;
+
+    @JsonProperty("failed_count")
+    private long failedCount;
+
+    @JsonProperty("rejected_count")
+    private long rejectedCount;
+
+    /**
+     * Number of tasks run by the caller or which made it wait because the pool was saturated
+     */
+    @JsonProperty("backpressure_count")
+    private long backpressureCount;
+
+    /**
+     * Average time spent waiting for a thread (in milliseconds)
+     */
+    @JsonProperty("average_queue_time")
+    private double averageQueueTime;
+
+    @JsonProperty("max_queue_time")
+    private double maxQueueTime;
+
+    /**
+     * Average execution time (in milliseconds)
+     */
+    @JsonProperty("average_execution_time")
+    private double averageExecutionTime;
+
+    public ExecutionPoolStatisticsDTO(ExecutionPool pool) {
+        this.name = pool.getName();
+        this.type = pool.getType().name();
+        this.backpressurePolicy = pool.getPolicy().name();
+        this.maxConcurrency = pool.getMaxConcurrency();
+        this.queueCapacity = pool.getQueueCapacity();
+        this.activeCount = pool.getActiveCount();
+        this.queuedCount = pool.getQueuedCount();
+        this.submittedCount = pool.getSubmittedCount();
+        this.completedCount = pool.getCompletedCount();
+        this.failedCount = pool.getFailedCount();
+        this.rejectedCount = pool.getRejectedCount();
+        this.backpressureCount = pool.getBackpressureCount();
+        this.averageQueueTime = pool.getAverageQueueTime();
+        this.maxQueueTime = pool.getMaxQueueTime();
+        this.averageExecutionTime = pool.getAverageExecutionTime();
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public void setName(String name) {
+        this.name = name;
+    }
+
+    public String getType() {
+        return type;
+    }
+
+    public void setType(String type) {
+        this.type = type;
+    }
+
+    public String getBackpressurePolicy() {
+        return backpressurePolicy;
+    }
+
+    public void setBackpressurePolicy(String backpressurePolicy) {
+        this.backpressurePolicy = backpressurePolicy;
+    }
+
+    public int getMaxConcurrency() {
+        return maxConcurrency;
+    }
+
+    public void setMaxConcurrency(int maxConcurrency) {
+        this.maxConcurrency = maxConcurrency;
+    }
+
+    public int getQueueCapacity() {
+        return queueCapacity;
+    }
+
+    public void setQueueCapacity(int queueCapacity) {
+        this.queueCapacity = queueCapacity;
+    }
+
+    public int getActiveCount() {
+        return activeCount;
+    }
+
+    public void setActiveCount(int activeCount) {
+        this.activeCount = activeCount;
+    }
+
+    public int getQueuedCount() {
+        return queuedCount;
+    }
+
+    public void setQueuedCount(int queuedCount) {
+        this.queuedCount = queuedCount;
+    }
+
+    public long getSubmittedCount() {
+        return submittedCount;
+    }
+
+    public void setSubmittedCount(long submittedCount) {
+        this.submittedCount = submittedCount;
+    }
+
+    public long getCompletedCount() {
+        return completedCount;
+    }
+
+    public void setCompletedCount(long completedCount) {
+        this.completedCount = completedCount;
+    }
+
+    public long getFailedCount() {
+        return failedCount;
+    }
+
+    public void setFailedCount(long failedCount) {
+        this.failedCount = failedCount;
+    }
+
+    public long getRejectedCount() {
+        return rejectedCount;
+    }
+
+    public void setRejectedCount(long rejectedCount) {
+        this.rejectedCount = rejectedCount;
+    }
+
+    public long getBackpressureCount() {
+        return backpressureCount;
+    }
+
+    public void setBackpressureCount(long backpressureCount) {
+        this.backpressureCount = backpressureCount;
+    }
+
+    public double getAverageQueueTime() {
+        return averageQueueTime;
+    }
+
+    public void setAverageQueueTime(double averageQueueTime) {
+        this.averageQueueTime = averageQueueTime;
+    }
+
+    public double getMaxQueueTime() {
+        return maxQueueTime;
+    }
+
+    public void setMaxQueueTime(double maxQueueTime) {
+        this.maxQueueTime = maxQueueTime;
+    }
+
+    public double getAverageExecutionTime() {
+        return averageExecutionTime;
+    }
+
+    public void setAverageExecutionTime(double averageExecutionTime) {
+        this.averageExecutionTime = averageExecutionTime;
+    }
+}
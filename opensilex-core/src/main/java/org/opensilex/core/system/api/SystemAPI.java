@@ -20,12 +20,24 @@ import javax.ws.rs.core.Response;
 import javax.ws.rs.core.UriBuilder;
 import java.util.List;
 import java.util.Properties;
+import org.opensilex.security.authentication.ApiProtected;
+import org.opensilex.security.authentication.AuthenticationService;
+import org.opensilex.server.response.PaginatedListResponse;
+import org.opensilex.server.rest.cache.ApiCacheService;
 import org.opensilex.OpenSilex;
 import org.opensilex.OpenSilexModule;
+import org.opensilex.core.CoreModule;
+import org.opensilex.core.experiment.dal.ExperimentAccessIndex;
+import org.opensilex.core.geospatial.dal.GeospatialTiles;
+import org.opensilex.core.logs.dal.AsyncLogsWriter;
+import org.opensilex.fs.service.FileStorageService;
 import org.opensilex.security.authentication.injection.CurrentUser;
 import org.opensilex.security.account.dal.AccountModel;
 import org.opensilex.server.ServerModule;
 import org.opensilex.server.response.SingleObjectResponse;
+import org.opensilex.service.execution.ExecutionService;
+import org.opensilex.sparql.service.SPARQLResultCache;
+import org.opensilex.sparql.service.SPARQLService;
 import org.opensilex.utils.ClassUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -43,6 +55,24 @@ public class SystemAPI {
     
     @Inject
     private ServerModule serverModule;
+
+    @Inject
+    private ApiCacheService apiCache;
+
+    @Inject
+    private AuthenticationService authentication;
+
+    @Inject
+    private CoreModule coreModule;
+
+    @Inject
+    private FileStorageService fs;
+
+    @Inject
+    private ExecutionService executionService;
+
+    @Inject
+    private SPARQLService sparql;
     
     @CurrentUser
     AccountModel user;
@@ -139,5 +169,106 @@ public class SystemAPI {
         
         return new SingleObjectResponse<>(versionInfoDTO).getResponse();
     }
-    
+
+    @GET
+    @Path("/cache")
+    @ApiOperation("get statistics of API, authentication, SPARQL resources, label indexes, experiment access and map tile caches")
+    @ApiProtected(adminOnly = true)
+    @Consumes(MediaType.APPLICATION_JSON)
+    @Produces(MediaType.APPLICATION_JSON)
+    @ApiResponses(value = {
+        @ApiResponse(code = 200, message = "Return cache statistics", response = CacheStatisticsDTO.class, responseContainer = "List"),
+        @ApiResponse(code = 500, message = "Internal Server Error", response = ErrorResponse.class)
+    })
+    public Response getCacheStatistics() {
+        List<CacheStatisticsDTO> statistics = new ArrayList<>();
+
+        // one entry by API cache category
+        apiCache.getStatistics().forEach((category, stats) -> {
+            statistics.add(new CacheStatisticsDTO(category, stats));
+        });
+
+        statistics.add(new CacheStatisticsDTO("authentication_token", authentication.getTokenCacheStats()));
+
+        // resources loaded by URI, once by request then from the shared cache of each enabled class
+        statistics.add(new CacheStatisticsDTO("sparql_request", SPARQLResultCache.getRequestStatistics()));
+        sparql.getResultCacheStatistics().forEach((resourceClass, stats) -> {
+            statistics.add(new CacheStatisticsDTO("sparql_" + resourceClass, stats));
+        });
+
+        // name searches answered by the label index of each enabled class (hits), or by a REGEX filter only (misses)
+        sparql.getLabelIndexStatistics().forEach((resourceClass, stats) -> {
+            statistics.add(new CacheStatisticsDTO("sparql_label_index_" + resourceClass, stats));
+        });
+
+        statistics.add(new CacheStatisticsDTO("experiment_access", ExperimentAccessIndex.get(sparql).getStatistics()));
+        statistics.add(new CacheStatisticsDTO("geospatial_tiles", GeospatialTiles.get(sparql).getStatistics()));
+
+        return new PaginatedListResponse<>(statistics).getResponse();
+    }
+
+    @GET
+    @Path("/access_logs")
+    @ApiOperation("get counters of the access logs writer")
+    @ApiProtected(adminOnly = true)
+    @Consumes(MediaType.APPLICATION_JSON)
+    @Produces(MediaType.APPLICATION_JSON)
+    @ApiResponses(value = {
+        @ApiResponse(code = 200, message = "Return access logs counters", response = AccessLogsStatisticsDTO.class),
+        @ApiResponse(code = 404, message = "Access logs are not enabled", response = ErrorResponse.class),
+        @ApiResponse(code = 500, message = "Internal Server Error", response = ErrorResponse.class)
+    })
+    public Response getAccessLogsStatistics() {
+        AsyncLogsWriter logsWriter = coreModule.getAccessLogsWriter();
+        if (logsWriter == null) {
+            return new ErrorResponse(Response.Status.NOT_FOUND, "Access logs not enabled", "Access logs are not enabled in configuration").getResponse();
+        }
+        return new SingleObjectResponse<>(new AccessLogsStatisticsDTO(logsWriter)).getResponse();
+    }
+
+    @GET
+    @Path("/thumbnails")
+    @ApiOperation("get counters of the thumbnail cache")
+    @ApiProtected(adminOnly = true)
+    @Consumes(MediaType.APPLICATION_JSON)
+    @Produces(MediaType.APPLICATION_JSON)
+    @ApiResponses(value = {
+        @ApiResponse(code = 200, message = "Return thumbnail cache counters", response = ThumbnailCacheStatisticsDTO.class),
+        @ApiResponse(code = 500, message = "Internal Server Error", response = ErrorResponse.class)
+    })
+    public Response getThumbnailCacheStatistics() {
+        return new SingleObjectResponse<>(new ThumbnailCacheStatisticsDTO(fs.getThumbnailCache())).getResponse();
+    }
+
+    @GET
+    @Path("/authentication")
+    @ApiOperation("get counters of the token verifications")
+    @ApiProtected(adminOnly = true)
+    @Consumes(MediaType.APPLICATION_JSON)
+    @Produces(MediaType.APPLICATION_JSON)
+    @ApiResponses(value = {
+        @ApiResponse(code = 200, message = "Return token verification counters", response = AuthenticationStatisticsDTO.class),
+        @ApiResponse(code = 500, message = "Internal Server Error", response = ErrorResponse.class)
+    })
+    public Response getAuthenticationStatistics() {
+        return new SingleObjectResponse<>(new AuthenticationStatisticsDTO(authentication)).getResponse();
+    }
+
+    @GET
+    @Path("/executors")
+    @ApiOperation("get counters of the shared thread pools")
+    @ApiProtected(adminOnly = true)
+    @Consumes(MediaType.APPLICATION_JSON)
+    @Produces(MediaType.APPLICATION_JSON)
+    @ApiResponses(value = {
+        @ApiResponse(code = 200, message = "Return thread pools counters", response = ExecutionPoolStatisticsDTO.class, responseContainer = "List"),
+        @ApiResponse(code = 500, message = "Internal Server Error", response = ErrorResponse.class)
+    })
+    public Response getExecutionPoolsStatistics() {
+        List<ExecutionPoolStatisticsDTO> statistics = new ArrayList<>();
+        executionService.getPools().forEach(pool -> statistics.add(new ExecutionPoolStatisticsDTO(pool)));
+
+        return new PaginatedListResponse<>(statistics).getResponse();
+    }
+
 }
@@ -0,0 +1,111 @@
+//******************************************************************************
+//                        ThumbnailCacheStatisticsDTO.java
+// OpenSILEX - Licence AGPL V3.0 - https://www.gnu.org/licenses/agpl-3.0.en.html
+// Copyright © INRAE 2024
+// Contact: anne.tireau@inrae.fr, pascal.neveu@inrae.fr
+//******************************************************************************
+package org.opensilex.core.system.api;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.annotation.JsonPropertyOrder;
+import org.opensilex.fs.service.ThumbnailCache;
+
+/**
+ * Class that represents counters of the thumbnail cache
+ */
+@JsonPropertyOrder({"enabled", "hit_count", "miss_count", "coalesced_count", "error_count", "skipped_count", "queued_count"})
+public class ThumbnailCacheStatisticsDTO {
+
+    @JsonProperty("enabled")
+    private boolean enabled;
+
+    @JsonProperty("hit_count")
+    private long hitCount;
+
+    @JsonProperty("miss_count")
+    private long missCount;
+
+    /**
+     * Number of requests which waited for a thumbnail generated by another request
+     */
+    @JsonProperty("coalesced_count")
+    private long coalescedCount;
+
+    @JsonProperty("error_count")
+    private long errorCount;
+
+    /**
+     * Number of background generations skipped because the queue was full
+     */
+    @JsonProperty("skipped_count")
+    private long skippedCount;
+
+    @JsonProperty("queued_count")
+    private int queuedCount;
+
+    public ThumbnailCacheStatisticsDTO(ThumbnailCache cache) {
+        this.enabled = cache.isEnabled();
+        this.hitCount = cache.getHitCount();
+        this.missCount = cache.getMissCount();
+        this.coalescedCount = cache.getCoalescedCount();
+        this.errorCount = cache.getErrorCount();
+        this.skippedCount = cache.getSkippedCount();
+        this.queuedCount = cache.getQueuedCount();
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public long getHitCount() {
+        return hitCount;
+    }
+
+    public void setHitCount(long hitCount) {
+        this.hitCount = hitCount;
+    }
+
+    public long getMissCount() {
+        return missCount;
+    }
+
+    public void setMissCount(long missCount) {
+        this.missCount = missCount;
+    }
+
+    public long getCoalescedCount() {
+        return coalescedCount;
+    }
+
+    public void setCoalescedCount(long coalescedCount) {
+        this.coalescedCount = coalescedCount;
+    }
+
+    public long getErrorCount() {
+        return errorCount;
+    }
+
+    public void setErrorCount(long errorCount) {
+        this.errorCount = errorCount;
+    }
+
+    public long getSkippedCount() {
+        return skippedCount;
+    }
+
+    public void setSkippedCount(long skippedCount) {
+        this.skippedCount = skippedCount;
+    }
+
+    public int getQueuedCount() {
+        return queuedCount;
+    }
+
+    public void setQueuedCount(int queuedCount) {
+        this.queuedCount = queuedCount;
+    }
+}
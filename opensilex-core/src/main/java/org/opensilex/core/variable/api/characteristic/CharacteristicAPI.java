@@ -26,6 +26,7 @@ import org.opensilex.sparql.exceptions.SPARQLAlreadyExistingUriException;
 import org.opensilex.sparql.exceptions.SPARQLInvalidUriListException;
 import org.opensilex.sparql.service.SPARQLService;
 import org.opensilex.utils.ListWithPagination;
+import org.opensilex.utils.pagination.StreamWithPagination;
 import org.opensilex.utils.OrderBy;
 
 import javax.inject.Inject;
@@ -300,7 +301,7 @@ public class CharacteristicAPI {
             ) throws Exception {
         if (sharedResourceInstance == null) {
             BaseVariableDAO<CharacteristicModel> dao = new BaseVariableDAO<>(CharacteristicModel.class, sparql);
-            ListWithPagination<CharacteristicModel> resultList = dao.search(
+            StreamWithPagination<CharacteristicModel> resultStream = dao.search(
                     namePattern,
                     orderByList,
                     page,
@@ -308,11 +309,7 @@ public class CharacteristicAPI {
                     currentUser.getLanguage()
             );
 
-            ListWithPagination<CharacteristicGetDTO> resultDTOList = resultList.convert(
-                    CharacteristicGetDTO.class,
-                    CharacteristicGetDTO::new
-            );
-            return new PaginatedListResponse<>(resultDTOList).getResponse();
+            return new PaginatedListResponse<>(resultStream.map(CharacteristicGetDTO::new)).getResponse();
         }
 
         SharedResourceInstanceService service = new SharedResourceInstanceService(
@@ -27,6 +27,7 @@ import org.opensilex.sparql.exceptions.SPARQLInvalidUriListException;
 import org.opensilex.sparql.response.CreatedUriResponse;
 import org.opensilex.sparql.service.SPARQLService;
 import org.opensilex.utils.ListWithPagination;
+import org.opensilex.utils.pagination.StreamWithPagination;
 import org.opensilex.utils.OrderBy;
 
 import javax.inject.Inject;
@@ -300,7 +301,7 @@ public class EntityAPI {
             ) throws Exception {
         if (sharedResourceInstance == null) {
             BaseVariableDAO<EntityModel> dao = new BaseVariableDAO<>(EntityModel.class, sparql);
-            ListWithPagination<EntityModel> resultList = dao.search(
+            StreamWithPagination<EntityModel> resultStream = dao.search(
                     namePattern,
                     orderByList,
                     page,
@@ -308,11 +309,7 @@ public class EntityAPI {
                     currentUser.getLanguage()
             );
 
-            ListWithPagination<EntityGetDTO> resultDTOList = resultList.convert(
-                    EntityGetDTO.class,
-                    EntityGetDTO::new
-            );
-            return new PaginatedListResponse<>(resultDTOList).getResponse();
+            return new PaginatedListResponse<>(resultStream.map(EntityGetDTO::new)).getResponse();
         }
 
         SharedResourceInstanceService service = new SharedResourceInstanceService(
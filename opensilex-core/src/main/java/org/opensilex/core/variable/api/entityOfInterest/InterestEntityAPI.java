@@ -26,6 +26,7 @@ import org.opensilex.sparql.exceptions.SPARQLAlreadyExistingUriException;
 import org.opensilex.sparql.response.CreatedUriResponse;
 import org.opensilex.sparql.service.SPARQLService;
 import org.opensilex.utils.ListWithPagination;
+import org.opensilex.utils.pagination.StreamWithPagination;
 import org.opensilex.utils.OrderBy;
 
 import javax.inject.Inject;
@@ -299,7 +300,7 @@ public class InterestEntityAPI {
             ) throws Exception {
         if (sharedResourceInstance == null) {
             BaseVariableDAO<InterestEntityModel> dao = new BaseVariableDAO<>(InterestEntityModel.class, sparql);
-            ListWithPagination<InterestEntityModel> resultList = dao.search(
+            StreamWithPagination<InterestEntityModel> resultStream = dao.search(
                     namePattern,
                     orderByList,
                     page,
@@ -307,11 +308,7 @@ public class InterestEntityAPI {
                     currentUser.getLanguage()
             );
 
-            ListWithPagination<InterestEntityGetDTO> resultDTOList = resultList.convert(
-                    InterestEntityGetDTO.class,
-                    InterestEntityGetDTO::new
-            );
-            return new PaginatedListResponse<>(resultDTOList).getResponse();
+            return new PaginatedListResponse<>(resultStream.map(InterestEntityGetDTO::new)).getResponse();
         }
 
         SharedResourceInstanceService service = new SharedResourceInstanceService(
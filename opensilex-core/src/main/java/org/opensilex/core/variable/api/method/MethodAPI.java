@@ -27,6 +27,7 @@ import org.opensilex.sparql.exceptions.SPARQLInvalidUriListException;
 import org.opensilex.sparql.response.CreatedUriResponse;
 import org.opensilex.sparql.service.SPARQLService;
 import org.opensilex.utils.ListWithPagination;
+import org.opensilex.utils.pagination.StreamWithPagination;
 import org.opensilex.utils.OrderBy;
 
 import javax.inject.Inject;
@@ -305,7 +306,7 @@ public class MethodAPI {
             ) throws Exception {
         if (sharedResourceInstance == null) {
             BaseVariableDAO<MethodModel> dao = new BaseVariableDAO<>(MethodModel.class, sparql);
-            ListWithPagination<MethodModel> resultList = dao.search(
+            StreamWithPagination<MethodModel> resultStream = dao.search(
                     namePattern,
                     orderByList,
                     page,
@@ -313,11 +314,7 @@ public class MethodAPI {
                     currentUser.getLanguage()
             );
 
-            ListWithPagination<MethodGetDTO> resultDTOList = resultList.convert(
-                    MethodGetDTO.class,
-                    MethodGetDTO::new
-            );
-            return new PaginatedListResponse<>(resultDTOList).getResponse();
+            return new PaginatedListResponse<>(resultStream.map(MethodGetDTO::new)).getResponse();
         }
 
         SharedResourceInstanceService service = new SharedResourceInstanceService(
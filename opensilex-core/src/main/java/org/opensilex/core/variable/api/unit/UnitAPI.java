@@ -27,6 +27,7 @@ import org.opensilex.sparql.exceptions.SPARQLInvalidUriListException;
 import org.opensilex.sparql.response.CreatedUriResponse;
 import org.opensilex.sparql.service.SPARQLService;
 import org.opensilex.utils.ListWithPagination;
+import org.opensilex.utils.pagination.StreamWithPagination;
 import org.opensilex.utils.OrderBy;
 
 import javax.inject.Inject;
@@ -300,7 +301,7 @@ public class UnitAPI {
             ) throws Exception {
         if (sharedResourceInstance == null) {
             BaseVariableDAO<UnitModel> dao = new BaseVariableDAO<>(UnitModel.class, sparql);
-            ListWithPagination<UnitModel> resultList = dao.search(
+            StreamWithPagination<UnitModel> resultStream = dao.search(
                     namePattern,
                     orderByList,
                     page,
@@ -308,11 +309,7 @@ public class UnitAPI {
                     currentUser.getLanguage()
             );
 
-            ListWithPagination<UnitGetDTO> resultDTOList = resultList.convert(
-                    UnitGetDTO.class,
-                    UnitGetDTO::new
-            );
-            return new PaginatedListResponse<>(resultDTOList).getResponse();
+            return new PaginatedListResponse<>(resultStream.map(UnitGetDTO::new)).getResponse();
         }
 
         SharedResourceInstanceService service = new SharedResourceInstanceService(
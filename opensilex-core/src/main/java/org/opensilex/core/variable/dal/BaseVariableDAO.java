@@ -19,8 +19,8 @@ import org.opensilex.sparql.model.SPARQLNamedResourceModel;
 import org.opensilex.sparql.model.SPARQLResourceModel;
 import org.opensilex.sparql.service.SPARQLQueryHelper;
 import org.opensilex.sparql.service.SPARQLService;
-import org.opensilex.utils.ListWithPagination;
 import org.opensilex.utils.OrderBy;
+import org.opensilex.utils.pagination.StreamWithPagination;
 
 import java.net.URI;
 import java.util.*;
@@ -115,10 +115,14 @@ public class BaseVariableDAO<T extends SPARQLNamedResourceModel<T>> {
         return sparql.getByURI(objectClass, instanceURI, null);
     }
 
-    public ListWithPagination<T> search(String labelPattern, List<OrderBy> orderByList, Integer page, Integer pageSize, String lang) throws Exception {
+    /**
+     * Search the components whose name matches a pattern. Results are read from the query result while the
+     * returned stream is consumed, the stream must be consumed or closed.
+     */
+    public StreamWithPagination<T> search(String labelPattern, List<OrderBy> orderByList, Integer page, Integer pageSize, String lang) throws Exception {
         Expr labelFilter = SPARQLQueryHelper.regexFilter(SPARQLNamedResourceModel.NAME_FIELD, labelPattern);
 
-        return sparql.searchWithPagination(
+        return sparql.searchAsStreamWithPagination(
                 defaultGraph,
                 objectClass,
                 lang,
@@ -20,7 +20,8 @@ import java.util.List;
         ontology = Oeso.class,
         resource = "Variable",
         graph = VariableModel.GRAPH,
-        ignoreValidation = true
+        ignoreValidation = true,
+        cacheMaxSize = 5000
 )
 public class VariableModel extends BaseVariableModel<VariableModel> implements ClassURIGenerator<VariableModel> {
 
@@ -8,6 +8,7 @@ package org.opensilex.core.data;
 
 import com.fasterxml.jackson.core.type.TypeReference;
 import com.fasterxml.jackson.databind.JsonNode;
+import com.opencsv.CSVWriter;
 import org.apache.commons.io.FileUtils;
 import org.apache.commons.io.IOUtils;
 import org.apache.jena.vocabulary.XSD;
@@ -24,8 +25,10 @@ import org.opensilex.core.AbstractMongoIntegrationTest;
 import org.opensilex.core.annotation.api.AnnotationGetDTO;
 import org.opensilex.core.annotation.dal.AnnotationModel;
 import org.opensilex.core.data.api.*;
+import org.opensilex.core.data.bll.DataLogic;
 import org.opensilex.core.data.dal.DataDAO;
 import org.opensilex.core.data.dal.DataProvenanceModel;
+import org.opensilex.core.data.dal.DataSearchFilter;
 import org.opensilex.core.data.dal.ProvEntityModel;
 import org.opensilex.core.device.dal.DeviceModel;
 import org.opensilex.core.experiment.api.ExperimentAPITest;
@@ -46,6 +49,8 @@ import org.opensilex.core.variable.api.VariableApiTest;
 import org.opensilex.core.variable.api.VariableCreationDTO;
 import org.opensilex.core.variable.dal.VariableDAO;
 import org.opensilex.integration.test.ServiceDescription;
+import org.opensilex.security.SecurityModule;
+import org.opensilex.security.account.dal.AccountDAO;
 import org.opensilex.security.account.dal.AccountModel;
 import org.opensilex.server.response.SingleObjectResponse;
 import org.opensilex.server.rest.validation.DateFormat;
@@ -68,6 +73,7 @@ import java.time.LocalDate;
 import java.time.ZonedDateTime;
 import java.time.format.DateTimeFormatter;
 import java.util.*;
+import java.util.stream.Collectors;
 
 import static javax.ws.rs.core.MediaType.APPLICATION_OCTET_STREAM_TYPE;
 import static junit.framework.TestCase.assertEquals;
@@ -87,6 +93,7 @@ public class DataAPITest extends AbstractMongoIntegrationTest {
     protected static final String URI_PATH = PATH + "/{uri}";
     protected static final String SEARCH_PATH = PATH;
     protected static final String IMPORT_PATH = PATH + "/import";
+    protected static final String EXPORT_PATH = PATH + "/export";
 
     public static final String CREATE_PATH = PATH;
     protected static final String UPDATE_PATH = PATH;
@@ -1097,6 +1104,100 @@ public class DataAPITest extends AbstractMongoIntegrationTest {
         assertFalse(datas.isEmpty());
     }
 
+    /**
+     * Create data for the export tests, with a dedicated provenance : several variables and targets share the same
+     * dates, in order to have wide rows with several values and batches which can break inside a same date.
+     *
+     * @return the provenance of the created data
+     */
+    private URI createExportData() throws Exception {
+        DataProvenanceModel provenance = new DataProvenanceModel();
+        provenance.setUri(createOneProvenance("DataAPITest : export"));
+
+        List<DataCreationDTO> dtoList = List.of(
+                getCreationDataDTO("2021-03-01T10:00:00.000+0100", variable, os.getUri(), 1.5, provenance),
+                getCreationDataDTO("2021-03-01T10:00:00.000+0100", integerVariable, os.getUri(), 1, provenance),
+                getCreationDataDTO("2021-03-01T10:00:00.000+0100", variable, osWithXp.getUri(), 2.5, provenance),
+                getCreationDataDTO("2021-03-02T10:00:00.000+0100", variable, os.getUri(), 3.5, provenance),
+                getCreationDataDTO("2021-03-02T10:00:00.000+0100", integerVariable, osWithXp.getUri(), 4, provenance),
+                getCreationDataDTO("2021-03-03T10:00:00.000+0100", integerVariable, os.getUri(), 5, provenance)
+        );
+        Response postResult = getJsonPostResponseAsAdmin(target(CREATE_PATH), dtoList);
+        assertEquals(Response.Status.CREATED.getStatusCode(), postResult.getStatus());
+
+        return provenance.getUri();
+    }
+
+    private List<String> getExportLines(URI provenance, String mode, boolean stream) throws Exception {
+        WebTarget exportTarget = target(EXPORT_PATH)
+                .queryParam(SEARCH_PROVENANCES_QUERY_PARAMETER_NAME, provenance)
+                .queryParam("mode", mode)
+                .queryParam("stream", stream)
+                .queryParam("page_size", 0);
+
+        Response exportResult = appendAdminToken(exportTarget).accept(MediaType.TEXT_PLAIN_TYPE).get();
+        assertEquals(Response.Status.OK.getStatusCode(), exportResult.getStatus());
+
+        return exportResult.readEntity(String.class).lines().collect(Collectors.toList());
+    }
+
+    private List<String> getStreamedExportLines(URI provenance, boolean forWideFormat, int batchSize) throws Exception {
+        SPARQLService sparql = getSparqlService();
+        AccountModel admin = new AccountDAO(sparql).getByEmail(new InternetAddress(SecurityModule.DEFAULT_SUPER_ADMIN_EMAIL));
+        DataLogic dataLogic = new DataLogic(sparql, getMongoDBService(), getFs(), admin).setExportStreamBatchSize(batchSize);
+
+        DataSearchFilter filter = new DataSearchFilter();
+        filter.setProvenances(Collections.singletonList(provenance));
+        filter.setUser(admin);
+        filter.setPageSize(0);
+
+        try (StringWriter sw = new StringWriter(); CSVWriter writer = new CSVWriter(sw)) {
+            dataLogic.writeDataExport(forWideFormat, false, filter, writer, LOGGER);
+            return sw.toString().lines().collect(Collectors.toList());
+        }
+    }
+
+    /**
+     * Check that both exports have the same header and the same rows. Rows of the export without stream are not
+     * sorted, so they are compared in any order.
+     */
+    private static void assertSameExport(List<String> expectedLines, List<String> actualLines) {
+        assertFalse(expectedLines.isEmpty());
+        assertEquals(expectedLines.get(0), actualLines.get(0));
+
+        List<String> expectedSortedLines = new ArrayList<>(expectedLines);
+        List<String> actualSortedLines = new ArrayList<>(actualLines);
+        Collections.sort(expectedSortedLines);
+        Collections.sort(actualSortedLines);
+        assertEquals(expectedSortedLines, actualSortedLines);
+    }
+
+    @Test
+    public void testStreamedExportLongFormat() throws Exception {
+        URI provenance = createExportData();
+
+        List<String> exportLines = getExportLines(provenance, "long", false);
+        assertEquals("One header and one line by data", 7, exportLines.size());
+
+        assertSameExport(exportLines, getExportLines(provenance, "long", true));
+        assertSameExport(exportLines, getStreamedExportLines(provenance, false, 2));
+        assertSameExport(exportLines, getStreamedExportLines(provenance, false, 1));
+    }
+
+    @Test
+    public void testStreamedExportWideFormat() throws Exception {
+        URI provenance = createExportData();
+
+        List<String> exportLines = getExportLines(provenance, "wide", false);
+        assertEquals("Five header lines and one line by target and date", 10, exportLines.size());
+
+        assertSameExport(exportLines, getExportLines(provenance, "wide", true));
+
+        // the first date has three data, a batch of two data can't be written before the third one
+        assertSameExport(exportLines, getStreamedExportLines(provenance, true, 2));
+        assertSameExport(exportLines, getStreamedExportLines(provenance, true, 1));
+    }
+
     @Override
     protected List<Class<? extends SPARQLResourceModel>> getModelsToClean() {
         return List.of(AnnotationModel.class);
@@ -13,6 +13,7 @@ import org.junit.Test;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
 import org.opensilex.OpenSilex;
+import org.opensilex.core.data.api.DataAPI;
 import org.opensilex.core.data.api.DataCSVValidationDTO;
 import org.opensilex.core.data.bll.dataImport.DataImportLogic;
 import org.opensilex.core.data.dal.DataCSVValidationModel;
@@ -36,10 +37,16 @@ import org.opensilex.sparql.ontology.dal.OntologyDAO;
 import org.opensilex.sparql.service.SPARQLService;
 import org.opensilex.utils.ThrowingFunction;
 
+import java.io.ByteArrayInputStream;
 import java.io.InputStream;
 import java.net.URI;
 import java.net.URISyntaxException;
+import java.nio.charset.StandardCharsets;
+import java.time.OffsetDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
 import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import static org.junit.Assert.*;
 import static org.mockito.Mockito.*;
@@ -195,11 +202,89 @@ public class DataImportLogicTest {
         assertTrue(result.getDataErrors().isValidCSV());
         assertTrue(result.getDataErrors().isValidationStep());
         assertTrue(result.getDataErrors().isInsertionStep());
-        verify(dataLogicMock, times(1)).createManyFromImport(anyList(), any(DataCSVValidationModel.class));
+        verify(dataLogicMock, times(getInsertionBatchCount(9975))).createManyFromImport(anyList(), any(DataCSVValidationModel.class));
         verify(batchHistoryDao, times(1)).create(any(BatchHistoryModel.class));
         assertEquals("Number of lines to import", Integer.valueOf(9975), result.getDataErrors().getNbLinesToImport());
     }
 
+    private static int getInsertionBatchCount(int nbRows) {
+        return (nbRows + DataImportLogic.INSERTION_BATCH_SIZE - 1) / DataImportLogic.INSERTION_BATCH_SIZE;
+    }
+
+    /**
+     * @return a CSV with the headers of {@link #VALID_DATASET_TO_IMPORT_CSV} and nbRows valid rows, on distinct dates
+     */
+    private static InputStream getGeneratedCSV(int nbRows) {
+        StringBuilder csv = new StringBuilder()
+                .append("scientific_object,Date,").append(ID_VARIABLE_TEST_HEIGHT_CM).append('\n')
+                .append("Scientific object name or URI,Acquisition date of the data,Plant_Height_manual_centimeter\n")
+                .append("Column data type: Short string,Required : yes,Column data type: Decimal number\n");
+
+        OffsetDateTime firstDate = OffsetDateTime.parse("2017-06-23T12:57:51+02:00");
+        for (int i = 0; i < nbRows; i++) {
+            csv.append("http://www.phenome-fppn.fr/m3p/arch/2017/c17000326,")
+                    .append(DateTimeFormatter.ISO_OFFSET_DATE_TIME.format(firstDate.plusSeconds(i)))
+                    .append(',').append(i).append(".0\n");
+        }
+        return new ByteArrayInputStream(csv.toString().getBytes(StandardCharsets.UTF_8));
+    }
+
+    private void mockValidationDependencies() throws Exception {
+        ProvenanceModel mockProvenanceModel = getProvenanceModel();
+        when(provenanceDaoV2.get(provenance)).thenReturn(mockProvenanceModel);
+        doReturn(mockProvenanceModel).when(dataImportLogic).getProvenanceModel(provenance);
+        when(variableDAO.get(any(URI.class))).thenReturn(getVariableModel());
+        doReturn(getMockInsertOneResult()).when(batchHistoryDao).create(any(BatchHistoryModel.class));
+    }
+
+    @Test
+    public void testImportCSVDataV2_LargerThanSizeMax() throws Exception {
+        int nbRows = DataAPI.SIZE_MAX + DataImportLogic.VALIDATION_BATCH_SIZE + 1;
+        mockValidationDependencies();
+        when(sparql.getByURI(any(Node.class), eq(ScientificObjectModel.class), any(URI.class), any())).thenReturn(getScientificObjectModel());
+
+        // Data lists are reused between batches, so their size is read during the call
+        AtomicInteger nbInsertedData = new AtomicInteger();
+        AtomicInteger maxBatchSize = new AtomicInteger();
+        doAnswer(invocation -> {
+            List<?> data = invocation.getArgument(0);
+            nbInsertedData.addAndGet(data.size());
+            maxBatchSize.accumulateAndGet(data.size(), Math::max);
+            return null;
+        }).when(dataLogicMock).createManyFromImport(anyList(), any(DataCSVValidationModel.class));
+
+        DataCSVValidationDTO result = dataImportLogic.importCSVData(provenance, experiment, getGeneratedCSV(nbRows), "fileName", null);
+
+        assertFalse("Rows are not limited by the size max of the API", result.getDataErrors().isTooLargeDataset());
+        assertTrue(result.getDataErrors().isValidCSV());
+        assertTrue(result.getDataErrors().isInsertionStep());
+        assertEquals(Integer.valueOf(nbRows), result.getDataErrors().getNbLinesToImport());
+        assertEquals(Integer.valueOf(nbRows), result.getDataErrors().getNbLinesImported());
+
+        assertEquals(nbRows, nbInsertedData.get());
+        assertEquals(DataImportLogic.INSERTION_BATCH_SIZE, maxBatchSize.get());
+        verify(dataLogicMock, times(getInsertionBatchCount(nbRows))).createManyFromImport(anyList(), any(DataCSVValidationModel.class));
+    }
+
+    @Test
+    public void testImportCSVDataV2_FailedBatchValidation() throws Exception {
+        int nbRows = DataImportLogic.VALIDATION_BATCH_SIZE + 10;
+        mockValidationDependencies();
+
+        // Unexpected errors are not handled by the row validation, the whole batch fails
+        when(sparql.getByURI(any(Node.class), eq(ScientificObjectModel.class), any(URI.class), any())).thenThrow(new RuntimeException("Triplestore unavailable"));
+
+        DataCSVValidationDTO result = dataImportLogic.importCSVData(provenance, experiment, getGeneratedCSV(nbRows), "fileName", null);
+
+        assertFalse(result.getDataErrors().isValidCSV());
+        assertFalse(result.getDataErrors().isInsertionStep());
+        assertEquals("Each row of the failed batches is reported", nbRows, result.getDataErrors().getInvalidValueErrors().size());
+        assertTrue(result.getDataErrors().getInvalidValueErrors().values().stream()
+                .flatMap(List::stream)
+                .allMatch(cell -> DataImportLogic.ROW_VALIDATION_FAILED.equals(cell.getHeader())));
+        verify(dataLogicMock, never()).createManyFromImport(anyList(), any(DataCSVValidationModel.class));
+    }
+
     @NotNull
     private InsertOneResult getMockInsertOneResult() {
         return InsertOneResult.acknowledged(new BsonObjectId(new ObjectId("676139f882532f4fcd2867ba")));
@@ -0,0 +1,241 @@
+//******************************************************************************
+//                          DataReferenceResolverTest.java
+// OpenSILEX - Licence AGPL V3.0 - https://www.gnu.org/licenses/agpl-3.0.en.html
+// Copyright © INRAE 2024
+// Contact: anne.tireau@inrae.fr, pascal.neveu@inrae.fr
+//******************************************************************************
+package org.opensilex.core.data.bll;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.MockedConstruction;
+import org.opensilex.core.data.dal.DataModel;
+import org.opensilex.core.data.dal.DataProvenanceModel;
+import org.opensilex.core.experiment.dal.ExperimentModel;
+import org.opensilex.core.provenance.dal.ProvenanceDaoV2;
+import org.opensilex.core.provenance.dal.ProvenanceModel;
+import org.opensilex.core.variable.dal.VariableDAO;
+import org.opensilex.core.variable.dal.VariableModel;
+import org.opensilex.fs.service.FileStorageService;
+import org.opensilex.nosql.mongodb.MongoDBService;
+import org.opensilex.security.account.dal.AccountModel;
+import org.opensilex.sparql.model.SPARQLNamedResourceModel;
+import org.opensilex.sparql.ontology.dal.OntologyDAO;
+import org.opensilex.sparql.service.SPARQLService;
+
+import java.net.URI;
+import java.util.*;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.junit.Assert.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests of {@link DataReferenceResolver}. DAOs are mocked and record the URIs of each query, only URIs listed
+ * in {@link #existing} are found.
+ */
+public class DataReferenceResolverTest {
+
+    private static final String NS = "http://opensilex.test/id/";
+    private static final URI EXPERIMENT = URI.create(NS + "experiment/exp_1");
+
+    /**
+     * URIs of the resources which exist in the mocked DAOs
+     */
+    private final Set<URI> existing = new HashSet<>();
+
+    private SPARQLService sparql;
+    private DataReferenceResolver resolver;
+
+    private final List<List<URI>> variableQueries = new ArrayList<>();
+    private final List<List<URI>> targetQueries = new ArrayList<>();
+    private final List<List<URI>> agentQueries = new ArrayList<>();
+    private final List<List<URI>> provenanceQueries = new ArrayList<>();
+    private final List<List<URI>> experimentQueries = new ArrayList<>();
+
+    private MockedConstruction<VariableDAO> variableDAOs;
+    private MockedConstruction<OntologyDAO> ontologyDAOs;
+    private MockedConstruction<ProvenanceDaoV2> provenanceDAOs;
+
+    private URI uri(String path) {
+        URI uri = URI.create(NS + path);
+        existing.add(uri);
+        return uri;
+    }
+
+    private <T> List<T> found(Collection<URI> uris, Function<URI, T> factory) {
+        return uris.stream().filter(existing::contains).map(factory).collect(Collectors.toList());
+    }
+
+    private static SPARQLNamedResourceModel newNamedResource(URI uri) {
+        SPARQLNamedResourceModel model = new SPARQLNamedResourceModel();
+        model.setUri(uri);
+        model.setName("name of " + uri.getPath());
+        return model;
+    }
+
+    private static DataModel newData(URI variable, URI target, URI provenance) {
+        DataProvenanceModel dataProvenance = new DataProvenanceModel();
+        dataProvenance.setUri(provenance);
+        dataProvenance.setExperiments(Collections.singletonList(EXPERIMENT));
+
+        DataModel data = new DataModel();
+        data.setVariable(variable);
+        data.setTarget(target);
+        data.setProvenance(dataProvenance);
+        return data;
+    }
+
+    @Before
+    public void setUp() throws Exception {
+        existing.add(EXPERIMENT);
+
+        sparql = mock(SPARQLService.class);
+        when(sparql.getListByURIs(eq(ExperimentModel.class), anyCollection(), any())).thenAnswer(invocation -> {
+            Collection<URI> uris = invocation.getArgument(1);
+            experimentQueries.add(new ArrayList<>(uris));
+            return found(uris, uri -> {
+                ExperimentModel experiment = new ExperimentModel();
+                experiment.setUri(uri);
+                return experiment;
+            });
+        });
+
+        AccountModel user = mock(AccountModel.class);
+        when(user.getLanguage()).thenReturn("en");
+
+        variableDAOs = mockConstruction(VariableDAO.class, (dao, context) ->
+                when(dao.getList(anyList())).thenAnswer(invocation -> {
+                    List<URI> uris = invocation.getArgument(0);
+                    variableQueries.add(new ArrayList<>(uris));
+                    return found(uris, uri -> {
+                        VariableModel variable = new VariableModel();
+                        variable.setUri(uri);
+                        return variable;
+                    });
+                })
+        );
+        ontologyDAOs = mockConstruction(OntologyDAO.class, (dao, context) ->
+                when(dao.getURILabels(anyCollection(), eq("en"), any())).thenAnswer(invocation -> {
+                    Collection<URI> uris = invocation.getArgument(0);
+                    URI labelContext = invocation.getArgument(2);
+                    (labelContext == null ? agentQueries : targetQueries).add(new ArrayList<>(uris));
+                    return found(uris, DataReferenceResolverTest::newNamedResource);
+                })
+        );
+        provenanceDAOs = mockConstruction(ProvenanceDaoV2.class, (dao, context) ->
+                when(dao.findByUris(any(), anyInt())).thenAnswer(invocation -> {
+                    List<URI> uris = invocation.<Stream<URI>>getArgument(0).collect(Collectors.toList());
+                    provenanceQueries.add(uris);
+                    return found(uris, uri -> {
+                        ProvenanceModel provenance = new ProvenanceModel();
+                        provenance.setUri(uri);
+                        provenance.setName("name of " + uri.getPath());
+                        return provenance;
+                    });
+                })
+        );
+
+        resolver = new DataReferenceResolver(sparql, mock(MongoDBService.class), mock(FileStorageService.class), user)
+                .setTargetContext(EXPERIMENT);
+    }
+
+    @After
+    public void tearDown() {
+        variableDAOs.close();
+        ontologyDAOs.close();
+        provenanceDAOs.close();
+    }
+
+    @Test
+    public void testOneQueryByKind() throws Exception {
+        List<DataModel> dataList = new ArrayList<>();
+        for (int i = 0; i < 50; i++) {
+            dataList.add(newData(uri("variable/v_" + (i % 3)), uri("scientific-object/so_" + (i % 10)), uri("provenance/p_" + (i % 2))));
+        }
+        resolver.collectAll(dataList)
+                .collectAgent(uri("device/sensor"))
+                .resolve();
+
+        assertEquals("Variables are fetched once, without duplicates", 1, variableQueries.size());
+        assertEquals(3, variableQueries.get(0).size());
+        assertEquals(1, targetQueries.size());
+        assertEquals(10, targetQueries.get(0).size());
+        assertEquals(1, agentQueries.size());
+        assertEquals(1, agentQueries.get(0).size());
+        assertEquals(1, provenanceQueries.size());
+        assertEquals(2, provenanceQueries.get(0).size());
+        assertEquals(1, experimentQueries.size());
+        assertEquals(Collections.singletonList(EXPERIMENT), experimentQueries.get(0));
+
+        resolver.resolve();
+        assertEquals("Nothing is fetched without new URIs", 1, variableQueries.size());
+        assertEquals(1, targetQueries.size());
+        assertEquals(1, agentQueries.size());
+        assertEquals(1, provenanceQueries.size());
+        assertEquals(1, experimentQueries.size());
+    }
+
+    @Test
+    public void testFoundAndMissingURIsAreMemoized() throws Exception {
+        URI variable = uri("variable/v_1");
+        URI target = uri("scientific-object/so_1");
+        URI provenance = uri("provenance/p_1");
+        URI missingTarget = URI.create(NS + "scientific-object/deleted");
+
+        resolver.collect(newData(variable, target, provenance))
+                .collect(newData(variable, missingTarget, provenance))
+                .resolve();
+        assertEquals(1, targetQueries.size());
+        assertFalse(resolver.getTargets().containsKey(missingTarget));
+
+        // found and missing URIs are not fetched again
+        resolver.collect(newData(variable, target, provenance))
+                .collect(newData(variable, missingTarget, provenance))
+                .resolve();
+        assertEquals(1, variableQueries.size());
+        assertEquals(1, targetQueries.size());
+        assertEquals(1, provenanceQueries.size());
+        assertEquals(1, experimentQueries.size());
+
+        // only new URIs are fetched
+        URI newTarget = uri("scientific-object/so_2");
+        resolver.collect(newData(variable, newTarget, provenance)).resolve();
+        assertEquals(2, targetQueries.size());
+        assertEquals(Collections.singletonList(newTarget), targetQueries.get(1));
+        assertEquals(1, variableQueries.size());
+
+        // cleared targets are fetched again
+        resolver.clearTargets();
+        resolver.collect(newData(variable, target, provenance)).resolve();
+        assertEquals(3, targetQueries.size());
+        assertEquals(Collections.singletonList(target), targetQueries.get(2));
+    }
+
+    @Test
+    public void testResolvedReferences() throws Exception {
+        URI variable = uri("variable/v_1");
+        URI target = uri("scientific-object/so_1");
+        URI provenance = uri("provenance/p_1");
+        URI agent = uri("device/sensor");
+        URI unknownAgent = URI.create(NS + "device/unknown");
+
+        resolver.collect(newData(variable, target, provenance))
+                .collectAgent(agent)
+                .collectAgent(unknownAgent)
+                .resolve();
+
+        // the resolved models are the ones returned by the DAOs, indexed by the URIs referenced by data
+        assertEquals(variable, resolver.getVariables().get(variable).getUri());
+        assertEquals("name of /id/scientific-object/so_1", resolver.getTargets().get(target).getName());
+        assertEquals("name of /id/provenance/p_1", resolver.getProvenances().get(provenance).getName());
+        assertEquals(EXPERIMENT, resolver.getExperiments().get(EXPERIMENT).getUri());
+        assertEquals("name of /id/device/sensor", resolver.getAgentName(agent));
+        assertNull(resolver.getAgentName(unknownAgent));
+        assertFalse("Agents are not mixed with targets", resolver.getTargets().containsKey(agent));
+    }
+}
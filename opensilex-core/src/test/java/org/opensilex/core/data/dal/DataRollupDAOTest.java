@@ -0,0 +1,163 @@
+//******************************************************************************
+//                          DataRollupDAOTest.java
+// OpenSILEX - Licence AGPL V3.0 - https://www.gnu.org/licenses/agpl-3.0.en.html
+// Copyright © INRAE 2024
+// Contact: anne.tireau@inrae.fr, pascal.neveu@inrae.fr
+//******************************************************************************
+package org.opensilex.core.data.dal;
+
+import com.mongodb.client.MongoCollection;
+import com.mongodb.client.MongoDatabase;
+import com.mongodb.client.model.Filters;
+import com.mongodb.client.model.Updates;
+import org.bson.Document;
+import org.bson.conversions.Bson;
+import org.junit.Assert;
+import org.junit.Test;
+import org.opensilex.core.AbstractMongoIntegrationTest;
+import org.opensilex.nosql.mongodb.MongoModel;
+
+import java.net.URI;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+
+public class DataRollupDAOTest extends AbstractMongoIntegrationTest {
+
+    private static final URI TARGET = URI.create("http://opensilex.test/id/scientific-object/so_1");
+    private static final URI VARIABLE = URI.create("http://opensilex.test/id/variable/height");
+    private static final URI PROVENANCE = URI.create("http://opensilex.test/id/provenance/sensor");
+
+    private static final Instant DAY = Instant.parse("2024-01-01T00:00:00Z");
+
+    @Override
+    protected List<String> getCollectionsToClearNames() {
+        return List.of(DataRollupDAO.COLLECTION_NAME, DataDaoV2.COLLECTION_NAME);
+    }
+
+    private static MongoDatabase getDatabase() {
+        return getMongoDBService().getDatabase();
+    }
+
+    private static DataRollupDAO getDAO() {
+        DataRollupDAO dao = new DataRollupDAO(getDatabase());
+        DataRollupDAO.getIndexes().forEach(getDatabase().getCollection(DataRollupDAO.COLLECTION_NAME)::createIndex);
+        return dao;
+    }
+
+    private static DataModel newData(Instant date, double value) {
+        DataProvenanceModel provenance = new DataProvenanceModel();
+        provenance.setUri(PROVENANCE);
+
+        DataModel data = new DataModel();
+        data.setTarget(TARGET);
+        data.setVariable(VARIABLE);
+        data.setProvenance(provenance);
+        data.setDate(date);
+        data.setValue(value);
+        return data;
+    }
+
+    /**
+     * Insert raw data, like a write which doesn't update the rollups
+     */
+    private static void insertData(Instant date, double value) {
+        getDatabase().getCollection(DataDaoV2.COLLECTION_NAME).insertOne(new Document(DataModel.TARGET_FIELD, TARGET.toString())
+                .append(DataModel.VARIABLE_FIELD, VARIABLE.toString())
+                .append(DataModel.PROVENANCE_FIELD, new Document(MongoModel.URI_FIELD, PROVENANCE.toString()))
+                .append(DataModel.DATE_FIELD, Date.from(date))
+                .append(DataModel.VALUE_FIELD, value));
+    }
+
+    private static DataRollupDAO.SeriesRange getRange(Instant from, Instant to) {
+        return new DataRollupDAO.SeriesRange(TARGET.toString(), VARIABLE.toString(), PROVENANCE.toString(), from, to);
+    }
+
+    private static double getMeanOfDay(DataRollupDAO dao) {
+        List<DataComputedModel> means = dao.getMeansPerDay(TARGET, VARIABLE, DAY, DAY.plus(1, ChronoUnit.DAYS));
+        Assert.assertEquals(1, means.size());
+        return ((Number) means.get(0).getValue()).doubleValue();
+    }
+
+    @Test
+    public void applyIncrements() {
+        DataRollupDAO dao = getDAO();
+        dao.apply(new DataRollupDAO.RollupUpdates()
+                .add(newData(DAY.plus(1, ChronoUnit.HOURS), 2.0))
+                .add(newData(DAY.plus(90, ChronoUnit.MINUTES), 4.0)));
+        dao.apply(new DataRollupDAO.RollupUpdates().add(newData(DAY.plus(5, ChronoUnit.HOURS), 6.0)));
+
+        List<DataComputedModel> means = dao.getMeansPerDay(TARGET, VARIABLE, DAY, DAY.plus(1, ChronoUnit.DAYS));
+        Assert.assertEquals(1, means.size());
+        Assert.assertEquals(4.0, ((Number) means.get(0).getValue()).doubleValue(), 0.0);
+        Assert.assertEquals("The mean of a day is dated with its first data", DAY.plus(1, ChronoUnit.HOURS), means.get(0).getDate());
+
+        List<DataComputedModel> medians = dao.getMediansPerHour(TARGET, VARIABLE, DAY, DAY.plus(1, ChronoUnit.DAYS));
+        Assert.assertEquals(2, medians.size());
+    }
+
+    @Test
+    public void recomputeFromData() {
+        DataRollupDAO dao = getDAO();
+        insertData(DAY.plus(1, ChronoUnit.HOURS), 2.0);
+        insertData(DAY.plus(2, ChronoUnit.HOURS), 4.0);
+
+        // increments of a deleted data
+        dao.apply(new DataRollupDAO.RollupUpdates()
+                .add(newData(DAY.plus(1, ChronoUnit.HOURS), 2.0))
+                .add(newData(DAY.plus(2, ChronoUnit.HOURS), 4.0))
+                .add(newData(DAY.plus(3, ChronoUnit.HOURS), 12.0)));
+        Assert.assertEquals(6.0, getMeanOfDay(dao), 0.0);
+
+        dao.recompute(Collections.singletonList(getRange(DAY.plus(3, ChronoUnit.HOURS), DAY.plus(3, ChronoUnit.HOURS))));
+        Assert.assertEquals(3.0, getMeanOfDay(dao), 0.0);
+        Assert.assertEquals("The rollup of the hour without data is removed", 2, dao.getMediansPerHour(TARGET, VARIABLE, DAY, DAY.plus(1, ChronoUnit.DAYS)).size());
+    }
+
+    @Test
+    public void rebuildAllFixesDrift() {
+        DataRollupDAO dao = getDAO();
+        MongoCollection<Document> rollups = getDatabase().getCollection(DataRollupDAO.COLLECTION_NAME);
+
+        insertData(DAY.plus(1, ChronoUnit.HOURS), 2.0);
+        dao.apply(new DataRollupDAO.RollupUpdates()
+                .add(newData(DAY.plus(1, ChronoUnit.HOURS), 10.0)));
+
+        // rollup of a series without data
+        DataModel orphan = newData(DAY, 1.0);
+        orphan.setTarget(URI.create("http://opensilex.test/id/scientific-object/deleted"));
+        dao.apply(new DataRollupDAO.RollupUpdates().add(orphan));
+
+        Assert.assertFalse(dao.isBuilt());
+        Assert.assertEquals(1, dao.rebuildAll());
+        Assert.assertTrue(dao.isBuilt());
+
+        Assert.assertEquals(2.0, getMeanOfDay(dao), 0.0);
+        Assert.assertEquals(0, rollups.countDocuments(Filters.eq(DataRollupDAO.TARGET_FIELD, orphan.getTarget().toString())));
+    }
+
+    @Test
+    public void rebuildDoesNotOverwriteConcurrentIncrements() {
+        DataRollupDAO dao = getDAO();
+        MongoCollection<Document> rollups = getDatabase().getCollection(DataRollupDAO.COLLECTION_NAME);
+
+        insertData(DAY.plus(1, ChronoUnit.HOURS), 2.0);
+        dao.apply(new DataRollupDAO.RollupUpdates().add(newData(DAY.plus(1, ChronoUnit.HOURS), 10.0)));
+
+        // increment written after the start of the rebuild passes
+        Bson dayRollup = Filters.and(
+                Filters.eq(DataRollupDAO.TARGET_FIELD, TARGET.toString()),
+                Filters.eq(DataRollupDAO.PERIOD_FIELD, DataRollupDAO.Period.DAY.name())
+        );
+        rollups.updateOne(dayRollup, Updates.set(DataRollupDAO.UPDATE_DATE_FIELD, Instant.now().plus(1, ChronoUnit.HOURS)));
+
+        dao.recompute(Collections.singletonList(getRange(DAY, DAY)));
+        Assert.assertEquals("The concurrently updated rollup is left to the next rebuild", 10.0, getMeanOfDay(dao), 0.0);
+
+        rollups.updateOne(dayRollup, Updates.set(DataRollupDAO.UPDATE_DATE_FIELD, DAY));
+        dao.recompute(Collections.singletonList(getRange(DAY, DAY)));
+        Assert.assertEquals(2.0, getMeanOfDay(dao), 0.0);
+    }
+}
@@ -0,0 +1,119 @@
+//******************************************************************************
+//                          DataSpillFileTest.java
+// OpenSILEX - Licence AGPL V3.0 - https://www.gnu.org/licenses/agpl-3.0.en.html
+// Copyright © INRAE 2024
+// Contact: anne.tireau@inrae.fr, pascal.neveu@inrae.fr
+//******************************************************************************
+package org.opensilex.core.data.dal;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.net.URI;
+import java.nio.file.Files;
+import java.time.Instant;
+import java.util.*;
+
+import static org.junit.Assert.*;
+
+public class DataSpillFileTest {
+
+    private static final URI TARGET = URI.create("http://opensilex.dev/id/scientific-object/so_1");
+    private static final URI VARIABLE = URI.create("http://opensilex.dev/id/variable/plant_height");
+
+    private DataSpillFile spillFile;
+
+    @Before
+    public void createFile() throws IOException {
+        spillFile = DataSpillFile.create("test_");
+    }
+
+    @After
+    public void deleteFile() {
+        spillFile.delete();
+    }
+
+    private static Map<DataModel, Integer> newData(int firstRow, int count) {
+        Map<DataModel, Integer> data = new LinkedHashMap<>();
+        for (int i = firstRow; i < firstRow + count; i++) {
+            DataModel model = new DataModel();
+            model.setTarget(TARGET);
+            model.setVariable(VARIABLE);
+            model.setDate(Instant.parse("2024-01-01T00:00:00Z").plusSeconds(i));
+            model.setValue((double) i);
+            data.put(model, i);
+        }
+        return data;
+    }
+
+    @Test
+    public void testReadByBatches() throws IOException {
+        spillFile.append(newData(0, 3));
+        spillFile.append(newData(3, 2));
+        spillFile.finish();
+        assertEquals(5, spillFile.size());
+
+        List<DataModel> data = new ArrayList<>();
+        List<Integer> rowIndexes = new ArrayList<>();
+        List<Integer> readRows = new ArrayList<>();
+
+        try (DataSpillFile.Reader reader = spillFile.openReader()) {
+            assertTrue(reader.readBatch(2, data, rowIndexes));
+            assertEquals(2, data.size());
+            readRows.addAll(rowIndexes);
+
+            assertTrue(reader.readBatch(2, data, rowIndexes));
+            assertEquals(2, data.size());
+            readRows.addAll(rowIndexes);
+
+            assertTrue(reader.readBatch(2, data, rowIndexes));
+            assertEquals("The last batch only contains the remaining data", 1, data.size());
+            readRows.addAll(rowIndexes);
+
+            DataModel last = data.get(0);
+            assertEquals(TARGET, last.getTarget());
+            assertEquals(VARIABLE, last.getVariable());
+            assertEquals(Instant.parse("2024-01-01T00:00:04Z"), last.getDate());
+            assertEquals(4.0, ((Number) last.getValue()).doubleValue(), 0.0);
+
+            assertFalse(reader.readBatch(2, data, rowIndexes));
+            assertTrue(data.isEmpty());
+            assertTrue(rowIndexes.isEmpty());
+        }
+        assertEquals(Arrays.asList(0, 1, 2, 3, 4), readRows);
+    }
+
+    @Test
+    public void testEmptyFile() throws IOException {
+        spillFile.finish();
+        assertEquals(0, spillFile.size());
+
+        try (DataSpillFile.Reader reader = spillFile.openReader()) {
+            assertFalse(reader.readBatch(10, new ArrayList<>(), new ArrayList<>()));
+        }
+    }
+
+    @Test
+    public void testWriteAndReadAreExclusive() throws IOException {
+        spillFile.append(newData(0, 1));
+        assertThrows(IllegalStateException.class, () -> spillFile.openReader());
+
+        spillFile.finish();
+        assertThrows(IllegalStateException.class, () -> spillFile.append(newData(1, 1)));
+    }
+
+    @Test
+    public void testRenameAndDelete() throws IOException {
+        spillFile.append(newData(0, 1));
+        spillFile.finish();
+
+        spillFile.rename("validation_key");
+        assertEquals("validation_key.data", spillFile.getPath().getFileName().toString());
+        assertTrue(Files.exists(spillFile.getPath()));
+
+        spillFile.delete();
+        assertFalse(Files.exists(spillFile.getPath()));
+    }
+}
@@ -0,0 +1,59 @@
+package org.opensilex.core.data.utils;
+
+import org.bson.Document;
+import org.junit.Test;
+
+import static junit.framework.TestCase.*;
+
+public class QuantileSketchTest {
+
+    private static void assertRelativelyEquals(double expected, double actual) {
+        assertTrue("expected " + expected + " but was " + actual,
+                Math.abs(expected - actual) <= QuantileSketch.RELATIVE_ACCURACY * Math.abs(expected));
+    }
+
+    @Test
+    public void testMedian() {
+        QuantileSketch sketch = new QuantileSketch();
+        for (int i = 1; i <= 101; i++) {
+            sketch.add(i * 0.5);
+        }
+        assertEquals(101, sketch.getCount());
+        assertRelativelyEquals(25.5, sketch.getMedian());
+        assertRelativelyEquals(0.5, sketch.getQuantile(0));
+        assertRelativelyEquals(50.5, sketch.getQuantile(1));
+    }
+
+    @Test
+    public void testNegativeAndZeroValues() {
+        QuantileSketch sketch = new QuantileSketch()
+                .add(-12.5)
+                .add(-3)
+                .add(0)
+                .add(4)
+                .add(8);
+
+        assertRelativelyEquals(-12.5, sketch.getQuantile(0));
+        assertEquals(0.0, sketch.getMedian());
+        assertRelativelyEquals(8, sketch.getQuantile(1));
+    }
+
+    @Test
+    public void testMergeFromDocument() {
+        QuantileSketch first = new QuantileSketch().add(1).add(2).add(3);
+        QuantileSketch second = new QuantileSketch().add(10).add(20);
+
+        Document stored = new Document();
+        first.getCounts().forEach(stored::append);
+
+        QuantileSketch merged = QuantileSketch.fromDocument(stored).merge(second);
+        assertEquals(5, merged.getCount());
+        assertRelativelyEquals(3, merged.getMedian());
+    }
+
+    @Test
+    public void testEmpty() {
+        assertTrue(Double.isNaN(new QuantileSketch().getMedian()));
+        assertTrue(Double.isNaN(QuantileSketch.fromDocument(null).getMedian()));
+    }
+}
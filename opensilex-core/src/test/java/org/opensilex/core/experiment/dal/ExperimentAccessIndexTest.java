@@ -0,0 +1,106 @@
+//******************************************************************************
+//                          ExperimentAccessIndexTest.java
+// OpenSILEX - Licence AGPL V3.0 - https://www.gnu.org/licenses/agpl-3.0.en.html
+// Copyright © INRAE 2024
+// Contact: anne.tireau@inrae.fr, pascal.neveu@inrae.fr
+//******************************************************************************
+package org.opensilex.core.experiment.dal;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.opensilex.core.data.dal.DataModel;
+import org.opensilex.security.account.dal.AccountModel;
+import org.opensilex.security.group.dal.GroupModel;
+import org.opensilex.security.profile.dal.ProfileModel;
+
+import java.net.URI;
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.*;
+
+/**
+ * Unit tests of {@link ExperimentAccessIndex}, with a loader which counts its calls and returns
+ * {@link #accessibleExperiments}.
+ */
+public class ExperimentAccessIndexTest {
+
+    private static final String NS = "http://opensilex.test/id/";
+    private static final URI EXPERIMENT_1 = URI.create(NS + "experiment/exp_1");
+    private static final URI EXPERIMENT_2 = URI.create(NS + "experiment/exp_2");
+    private static final URI EXPERIMENT_3 = URI.create(NS + "experiment/exp_3");
+
+    private final AtomicInteger loads = new AtomicInteger();
+    private List<URI> accessibleExperiments;
+
+    private ExperimentAccessIndex index;
+    private AccountModel user;
+
+    private Collection<URI> load(AccountModel account) {
+        loads.incrementAndGet();
+        return accessibleExperiments;
+    }
+
+    @Before
+    public void setUp() {
+        index = new ExperimentAccessIndex();
+        user = new AccountModel();
+        user.setUri(URI.create(NS + "account/user"));
+        accessibleExperiments = List.of(EXPERIMENT_1, EXPERIMENT_2);
+    }
+
+    @Test
+    public void testCachedExperimentsAreReturned() throws Exception {
+        Set<URI> experiments = index.getUserExperiments(user, this::load);
+        assertEquals(Set.of(EXPERIMENT_1, EXPERIMENT_2), experiments);
+        assertEquals(1, loads.get());
+
+        assertSame("The cached set is returned", experiments, index.getUserExperiments(user, this::load));
+        assertEquals(List.of(EXPERIMENT_3), index.getForbiddenExperiments(user, List.of(EXPERIMENT_1, EXPERIMENT_3), this::load));
+        assertEquals("Experiments are loaded once", 1, loads.get());
+
+        assertThrows("The cached set is immutable", UnsupportedOperationException.class, () -> experiments.add(EXPERIMENT_3));
+    }
+
+    @Test
+    public void testAccessWritesInvalidateIndex() throws Exception {
+        int expectedLoads = 0;
+        for (Class<?> writtenClass : List.of(GroupModel.class, ProfileModel.class, ExperimentModel.class)) {
+            index.getUserExperiments(user, this::load);
+            assertEquals(++expectedLoads, loads.get());
+
+            accessibleExperiments = List.of(EXPERIMENT_3);
+            index.onWrite(Set.of(writtenClass));
+
+            assertEquals(writtenClass + " write invalidates the index", Set.of(EXPERIMENT_3), index.getUserExperiments(user, this::load));
+            assertEquals(++expectedLoads, loads.get());
+            assertEquals(List.of(EXPERIMENT_1), index.getForbiddenExperiments(user, List.of(EXPERIMENT_1), this::load));
+
+            accessibleExperiments = List.of(EXPERIMENT_1, EXPERIMENT_2);
+            index.onWrite(Set.of(writtenClass));
+        }
+    }
+
+    @Test
+    public void testOtherWritesKeepIndex() throws Exception {
+        index.getUserExperiments(user, this::load);
+        index.onWrite(Set.of(DataModel.class));
+
+        index.getUserExperiments(user, this::load);
+        assertEquals(1, loads.get());
+    }
+
+    @Test
+    public void testUntypedWriteDropsIndex() throws Exception {
+        index.getUserExperiments(user, this::load);
+
+        accessibleExperiments = List.of();
+        index.onWrite(null);
+
+        assertTrue(index.getUserExperiments(user, this::load).isEmpty());
+        assertEquals(2, loads.get());
+        assertEquals(List.of(EXPERIMENT_1), index.getForbiddenExperiments(user, List.of(EXPERIMENT_1), this::load));
+    }
+}
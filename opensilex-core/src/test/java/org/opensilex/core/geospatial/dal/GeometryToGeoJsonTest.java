@@ -12,9 +12,12 @@ import java.util.ArrayList;
 import java.util.List;
 import static junit.framework.TestCase.assertEquals;
 import static junit.framework.TestCase.assertTrue;
+import org.bson.codecs.configuration.CodecConfigurationException;
 import org.geojson.Feature;
 import org.geojson.GeoJsonObject;
+import org.geojson.LngLatAlt;
 import org.geojson.Point;
+import org.geojson.Polygon;
 import org.junit.Test;
 import org.opensilex.unit.test.AbstractUnitTest;
 
@@ -58,4 +61,31 @@ public class GeometryToGeoJsonTest extends AbstractUnitTest {
         assertEquals(geoJsonPoint.getCoordinates().getLatitude(), 2.4);
     }
 
+    @Test
+    public void polygonRoundTrip() throws Exception {
+        String wkt = "POLYGON ((0 0, 10 0, 10 10, 0 10, 0 0), (2 2, 2 4, 4 4, 4 2, 2 2))";
+        Geometry geometry = GeospatialDAO.wktToGeometry(wkt);
+
+        assertTrue(geometry instanceof com.mongodb.client.model.geojson.Polygon);
+        com.mongodb.client.model.geojson.Polygon mongoPolygon = (com.mongodb.client.model.geojson.Polygon) geometry;
+        assertEquals(5, mongoPolygon.getCoordinates().getExterior().size());
+        assertEquals(1, mongoPolygon.getCoordinates().getHoles().size());
+
+        Feature feature = (Feature) GeospatialDAO.geometryToGeoJson(geometry);
+        assertTrue(feature.getGeometry() instanceof Polygon);
+        Polygon geoJsonPolygon = (Polygon) feature.getGeometry();
+        assertEquals(2, geoJsonPolygon.getCoordinates().size());
+        assertEquals(new LngLatAlt(10, 10), geoJsonPolygon.getExteriorRing().get(2));
+
+        assertEquals(geometry, GeospatialDAO.geoJsonToGeometry(feature));
+        assertEquals(wkt, GeospatialDAO.geometryToWkt(geometry));
+    }
+
+    @Test(expected = CodecConfigurationException.class)
+    public void invalidPolygon() throws JsonProcessingException {
+        Feature feature = new Feature();
+        feature.setGeometry(new Polygon(new LngLatAlt(0, 0), new LngLatAlt(1, 0), new LngLatAlt(1, 1)));
+        GeospatialDAO.geoJsonToGeometry(feature);
+    }
+
 }
@@ -45,7 +45,7 @@ public class GeospatialDAOTest extends AbstractMongoIntegrationTest {
     @BeforeClass
     public static void initDAO() {
         MongoDBService service = getOpensilex().getServiceInstance(MongoDBService.DEFAULT_SERVICE, MongoDBService.class);
-        geospatialDAO = new GeospatialDAO(service);
+        geospatialDAO = new GeospatialDAO(service, newSparqlService());
     }
 
     private void verificationOfCorrectInsertion(Geometry geometry, URI uri, URI type, URI graph) {
@@ -0,0 +1,217 @@
+//******************************************************************************
+//                          GeospatialTilesTest.java
+// OpenSILEX - Licence AGPL V3.0 - https://www.gnu.org/licenses/agpl-3.0.en.html
+// Copyright © INRAE 2024
+// Contact: anne.tireau@inrae.fr, pascal.neveu@inrae.fr
+//******************************************************************************
+package org.opensilex.core.geospatial.dal;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.mongodb.client.model.geojson.Point;
+import com.mongodb.client.model.geojson.Polygon;
+import com.mongodb.client.model.geojson.Position;
+import org.junit.Test;
+import org.locationtech.jts.geom.Envelope;
+import org.opensilex.core.geospatial.api.GeospatialTileResponse;
+import org.opensilex.sparql.deserializer.URIDeserializer;
+
+import javax.ws.rs.core.EntityTag;
+import javax.ws.rs.core.HttpHeaders;
+import javax.ws.rs.core.Request;
+import javax.ws.rs.core.Response;
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class GeospatialTilesTest {
+
+    /**
+     * Tile of zoom level 10 which contains the point (3.95, 43.7)
+     */
+    private static final int Z = 10;
+    private static final int X = 523;
+    private static final int Y = 373;
+
+    private static final ObjectMapper mapper = new ObjectMapper();
+
+    private static GeospatialModel newModel(String name, com.mongodb.client.model.geojson.Geometry geometry) {
+        GeospatialModel model = new GeospatialModel();
+        model.setUri(URI.create("http://opensilex.test/id/scientific-object/" + name));
+        model.setName(name);
+        model.setGeometry(geometry);
+        return model;
+    }
+
+    private static GeospatialModel newSquare(String name, double longitude, double latitude, double side) {
+        return newModel(name, new Polygon(Arrays.asList(
+                new Position(longitude, latitude),
+                new Position(longitude + side, latitude),
+                new Position(longitude + side, latitude + side),
+                new Position(longitude, latitude + side),
+                new Position(longitude, latitude)
+        )));
+    }
+
+    private static GeospatialModel newCircle(String name, double longitude, double latitude, double radius, int vertexCount) {
+        List<Position> ring = new ArrayList<>();
+        for (int i = 0; i < vertexCount; i++) {
+            double angle = 2 * Math.PI * i / vertexCount;
+            ring.add(new Position(longitude + radius * Math.cos(angle), latitude + radius * Math.sin(angle)));
+        }
+        ring.add(ring.get(0));
+        return newModel(name, new Polygon(ring));
+    }
+
+    private static JsonNode getFeatures(GeospatialTiles.Tile tile) throws Exception {
+        JsonNode content = mapper.readTree(tile.content());
+        assertEquals("FeatureCollection", content.get("type").asText());
+        return content.get("features");
+    }
+
+    private static List<String> getNames(GeospatialTiles.Tile tile) throws Exception {
+        List<String> names = new ArrayList<>();
+        getFeatures(tile).forEach(feature -> names.add(feature.get("properties").get("name").asText()));
+        return names;
+    }
+
+    @Test
+    public void testCoordinates() {
+        GeospatialTiles.checkCoordinates(0, 0, 0);
+        GeospatialTiles.checkCoordinates(Z, X, Y);
+        assertThrows(IllegalArgumentException.class, () -> GeospatialTiles.checkCoordinates(-1, 0, 0));
+        assertThrows(IllegalArgumentException.class, () -> GeospatialTiles.checkCoordinates(GeospatialTiles.MAX_ZOOM + 1, 0, 0));
+        assertThrows(IllegalArgumentException.class, () -> GeospatialTiles.checkCoordinates(2, 4, 0));
+        assertThrows(IllegalArgumentException.class, () -> GeospatialTiles.checkCoordinates(2, 0, -1));
+    }
+
+    @Test
+    public void testTilePolygon() {
+        assertNull("Tiles larger than a hemisphere have no polygon", GeospatialTiles.getTilePolygon(1, 0, 0));
+
+        Envelope envelope = GeospatialTiles.getTileEnvelope(Z, X, Y);
+        assertEquals(3.8671875, envelope.getMinX(), 1e-9);
+        assertEquals(4.21875, envelope.getMaxX(), 1e-9);
+        assertEquals(43.5804, envelope.getMinY(), 1e-4);
+        assertEquals(43.8345, envelope.getMaxY(), 1e-4);
+
+        List<Position> ring = GeospatialTiles.getTilePolygon(Z, X, Y).getCoordinates().getExterior();
+        assertEquals("The ring is closed", ring.get(0), ring.get(ring.size() - 1));
+        assertTrue("Sides are split into segments", ring.size() > 5);
+
+        Envelope ringEnvelope = new Envelope();
+        ring.forEach(position -> ringEnvelope.expandToInclude(position.getValues().get(0), position.getValues().get(1)));
+        assertEquals(envelope, ringEnvelope);
+    }
+
+    @Test
+    public void testPixelSizeCulling() throws Exception {
+        GeospatialTiles.Tile tile = GeospatialTiles.build(Z, X, Y, Arrays.asList(
+                newSquare("plot", 3.95, 43.7, 0.01),
+                newSquare("subpixel", 3.96, 43.71, 0.00001),
+                newModel("point", new Point(new Position(3.97, 43.72)))
+        ));
+        assertEquals("Geometries smaller than a pixel are omitted, except points", Arrays.asList("plot", "point"), getNames(tile));
+
+        GeospatialTiles.Tile zoomedTile = GeospatialTiles.build(20, 535822, 382454, List.of(
+                newSquare("subpixel", 3.96, 43.71, 0.00001)
+        ));
+        assertEquals("The geometry is larger than a pixel at a higher zoom level", List.of("subpixel"), getNames(zoomedTile));
+    }
+
+    @Test
+    public void testSimplification() throws Exception {
+        int vertexCount = 360;
+        GeospatialTiles.Tile tile = GeospatialTiles.build(Z, X, Y, List.of(newCircle("circle", 3.95, 43.7, 0.01, vertexCount)));
+
+        JsonNode geometry = getFeatures(tile).get(0).get("geometry");
+        assertEquals("Polygon", geometry.get("type").asText());
+        int simplifiedCount = geometry.get("coordinates").get(0).size();
+        assertTrue("The ring is simplified with a one pixel tolerance", simplifiedCount >= 4 && simplifiedCount < vertexCount / 4);
+
+        // coordinates are rounded to the pixel size
+        String longitude = geometry.get("coordinates").get(0).get(0).get(0).asText();
+        assertTrue(longitude.length() - longitude.indexOf('.') - 1 <= 5);
+    }
+
+    @Test
+    public void testGeometrySet() throws Exception {
+        AtomicInteger loadCount = new AtomicInteger();
+        GeospatialTiles tiles = new GeospatialTiles();
+        String setKey = "testGeometrySet";
+        List<GeospatialModel> geometries = Arrays.asList(
+                newSquare("inside", 3.95, 43.7, 0.01),
+                newSquare("outside", 5.0, 45.0, 0.01)
+        );
+
+        GeospatialTiles.Tile tile = tiles.get(setKey, Z, X, Y, () -> {
+            loadCount.incrementAndGet();
+            return geometries;
+        });
+        assertEquals(List.of("inside"), getNames(tile));
+
+        GeospatialTiles.Tile emptyTile = tiles.get(setKey, Z, X + 10, Y, () -> {
+            loadCount.incrementAndGet();
+            return geometries;
+        });
+        assertTrue(getFeatures(emptyTile).isEmpty());
+        assertEquals("The geometries of a set are loaded once for all tiles", 1, loadCount.get());
+
+        assertThrows(IllegalArgumentException.class, () -> tiles.get(setKey, Z, -1, Y, () -> geometries));
+    }
+
+    @Test
+    public void testTilesAreInvalidatedByGraph() {
+        GeospatialTiles tiles = new GeospatialTiles();
+        URI graph = URI.create("http://opensilex.test/id/experiment/exp_1");
+        GeospatialTiles.Key key = new GeospatialTiles.Key(URIDeserializer.getExpandedURI(graph), List.of(), Z, X, Y);
+        GeospatialTiles.Key otherKey = new GeospatialTiles.Key(null, List.of(), Z, X, Y);
+        GeospatialTiles.Tile tile = GeospatialTiles.build(Z, X, Y, List.of());
+        GeospatialTiles.Tile newTile = GeospatialTiles.build(Z, X, Y, List.of(newSquare("plot", 3.95, 43.7, 0.01)));
+        AtomicInteger loadCount = new AtomicInteger();
+
+        tiles.get(key, () -> {
+            loadCount.incrementAndGet();
+            return tile;
+        });
+        tiles.get(otherKey, () -> tile);
+        assertSame(tile, tiles.get(key, () -> newTile));
+        assertEquals(1, loadCount.get());
+
+        assertSame("Tiles are not shared between repositories", newTile, new GeospatialTiles().get(key, () -> newTile));
+
+        tiles.invalidate(graph);
+        assertSame("Tiles of the written graph are invalidated", newTile, tiles.get(key, () -> newTile));
+        assertSame("Tiles of other graphs are kept", tile, tiles.get(otherKey, () -> newTile));
+    }
+
+    @Test
+    public void testETag() {
+        List<GeospatialModel> geometries = List.of(newSquare("plot", 3.95, 43.7, 0.01));
+        GeospatialTiles.Tile tile = GeospatialTiles.build(Z, X, Y, geometries);
+        assertEquals("The ETag only depends on the content", tile.etag(), GeospatialTiles.build(Z, X, Y, geometries).etag());
+        assertNotEquals(tile.etag(), GeospatialTiles.build(Z, X, Y, List.of()).etag());
+
+        Request modifiedRequest = mock(Request.class);
+        when(modifiedRequest.evaluatePreconditions(any(EntityTag.class))).thenReturn(null);
+        Response response = new GeospatialTileResponse(tile, modifiedRequest).getResponse();
+        assertEquals(Response.Status.OK.getStatusCode(), response.getStatus());
+        assertEquals(tile.content(), response.getEntity());
+        assertEquals(new EntityTag(tile.etag()), response.getEntityTag());
+
+        Request notModifiedRequest = mock(Request.class);
+        when(notModifiedRequest.evaluatePreconditions(any(EntityTag.class)))
+                .thenAnswer(invocation -> Response.notModified(invocation.<EntityTag>getArgument(0)));
+        Response notModified = new GeospatialTileResponse(tile, notModifiedRequest).getResponse();
+        assertEquals(Response.Status.NOT_MODIFIED.getStatusCode(), notModified.getStatus());
+        assertNull(notModified.getEntity());
+        assertNotNull(notModified.getHeaderString(HttpHeaders.CACHE_CONTROL));
+    }
+}
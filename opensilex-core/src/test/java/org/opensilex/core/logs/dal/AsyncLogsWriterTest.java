@@ -0,0 +1,113 @@
+package org.opensilex.core.logs.dal;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+public class AsyncLogsWriterTest {
+
+    /**
+     * DAO which only keeps written batches in memory
+     */
+    private static class MemoryLogsDAO extends LogsDAO {
+
+        private final List<Integer> batchSizes = Collections.synchronizedList(new ArrayList<>());
+        private final CountDownLatch blockWrites;
+
+        MemoryLogsDAO(CountDownLatch blockWrites) {
+            super(null);
+            this.blockWrites = blockWrites;
+        }
+
+        @Override
+        public void createAll(List<LogModel> instances) throws Exception {
+            blockWrites.await();
+            batchSizes.add(instances.size());
+        }
+
+        int getWrittenCount() {
+            synchronized (batchSizes) {
+                return batchSizes.stream().mapToInt(Integer::intValue).sum();
+            }
+        }
+    }
+
+    @Test
+    public void testRingBuffer() {
+        LogsRingBuffer<Integer> buffer = new LogsRingBuffer<>(5);
+        Assert.assertEquals(8, buffer.capacity());
+
+        for (int i = 0; i < 8; i++) {
+            Assert.assertTrue(buffer.offer(i));
+        }
+        Assert.assertFalse(buffer.offer(8));
+        Assert.assertEquals(8, buffer.size());
+
+        Assert.assertEquals(Integer.valueOf(0), buffer.poll());
+        Assert.assertTrue(buffer.offer(8));
+
+        List<Integer> drained = new ArrayList<>();
+        Assert.assertEquals(8, buffer.drainTo(drained, 100));
+        Assert.assertEquals(List.of(1, 2, 3, 4, 5, 6, 7, 8), drained);
+        Assert.assertNull(buffer.poll());
+        Assert.assertTrue(buffer.isEmpty());
+    }
+
+    @Test
+    public void testWriteAndDrainOnClose() throws Exception {
+        MemoryLogsDAO dao = new MemoryLogsDAO(new CountDownLatch(0));
+        AsyncLogsWriter writer = new AsyncLogsWriter(dao, 1024, 50, 60_000, LogsOverflowPolicy.DROP, 1, 0);
+        writer.start();
+
+        int nbThreads = 4;
+        int nbLogsByThread = 200;
+        ExecutorService executor = Executors.newFixedThreadPool(nbThreads);
+        for (int i = 0; i < nbThreads; i++) {
+            executor.submit(() -> {
+                for (int j = 0; j < nbLogsByThread; j++) {
+                    writer.write(new LogModel());
+                }
+            });
+        }
+        executor.shutdown();
+        Assert.assertTrue(executor.awaitTermination(10, TimeUnit.SECONDS));
+
+        // the flush interval is never reached, remaining logs are written on close
+        Assert.assertTrue(writer.close(AsyncLogsWriter.DEFAULT_CLOSE_TIMEOUT_MS));
+
+        long total = (long) nbThreads * nbLogsByThread;
+        Assert.assertEquals(total, writer.getQueuedCount() + writer.getDroppedCount());
+        Assert.assertEquals(writer.getQueuedCount(), writer.getFlushedCount());
+        Assert.assertEquals(writer.getFlushedCount(), dao.getWrittenCount());
+        Assert.assertTrue(dao.batchSizes.stream().allMatch(size -> size <= 50));
+
+        // logs written after close are dropped
+        Assert.assertFalse(writer.write(new LogModel()));
+    }
+
+    @Test
+    public void testDropWhenFull() throws Exception {
+        CountDownLatch blockWrites = new CountDownLatch(1);
+        MemoryLogsDAO dao = new MemoryLogsDAO(blockWrites);
+        AsyncLogsWriter writer = new AsyncLogsWriter(dao, 8, 100, 60_000, LogsOverflowPolicy.DROP, 1, 0);
+        writer.start();
+
+        for (int i = 0; i < 20; i++) {
+            writer.write(new LogModel());
+        }
+        Assert.assertEquals(20, writer.getQueuedCount() + writer.getDroppedCount());
+        // the writer thread is waiting for a full batch or for the flush interval, so the buffer is quickly full
+        Assert.assertTrue(writer.getDroppedCount() > 0);
+
+        blockWrites.countDown();
+        Assert.assertTrue(writer.close(AsyncLogsWriter.DEFAULT_CLOSE_TIMEOUT_MS));
+        Assert.assertEquals(writer.getQueuedCount(), dao.getWrittenCount());
+    }
+}
@@ -0,0 +1,94 @@
+//******************************************************************************
+//                          MetricCounterDAOTest.java
+// OpenSILEX - Licence AGPL V3.0 - https://www.gnu.org/licenses/agpl-3.0.en.html
+// Copyright © INRAE 2024
+// Contact: anne.tireau@inrae.fr, pascal.neveu@inrae.fr
+//******************************************************************************
+package org.opensilex.core.metrics.dal;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.opensilex.core.AbstractMongoIntegrationTest;
+import org.opensilex.nosql.mongodb.MongoDBService;
+
+import java.net.URI;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+public class MetricCounterDAOTest extends AbstractMongoIntegrationTest {
+
+    private static final URI VARIABLE = URI.create("http://opensilex.test/id/variable/height");
+    private static final URI OTHER_VARIABLE = URI.create("http://opensilex.test/id/variable/width");
+    private static final URI EXPERIMENT = URI.create("http://opensilex.test/id/experiment/xp");
+
+    private MetricCounterDAO getDAO() {
+        MongoDBService mongodb = getOpensilex().getServiceInstance(MongoDBService.DEFAULT_SERVICE, MongoDBService.class);
+        MetricCounterDAO dao = new MetricCounterDAO(mongodb.getDatabase());
+        dao.createIndexes();
+        return dao;
+    }
+
+    @Override
+    protected List<String> getCollectionsToClearNames() {
+        return List.of(MetricCounterDAO.COLLECTION_NAME);
+    }
+
+    @Test
+    public void applyIncrements() {
+        MetricCounterDAO dao = getDAO();
+
+        dao.apply(new MetricCounterDAO.CounterUpdates()
+                .addWithExperiments(MetricCounterType.DATA_BY_VARIABLE, VARIABLE, Collections.singletonList(EXPERIMENT), 3)
+                .addWithExperiments(MetricCounterType.DATA_BY_VARIABLE, VARIABLE, null, 2));
+        dao.apply(new MetricCounterDAO.CounterUpdates()
+                .addWithExperiments(MetricCounterType.DATA_BY_VARIABLE, VARIABLE, Collections.singletonList(EXPERIMENT), -1));
+
+        Map<URI, Long> systemCounters = dao.getCounters(MetricCounterDAO.SYSTEM_SCOPE, MetricCounterType.DATA_BY_VARIABLE);
+        Assert.assertEquals(Long.valueOf(4), systemCounters.get(VARIABLE));
+
+        Map<URI, Long> experimentCounters = dao.getCounters(MetricCounterDAO.getExperimentScope(EXPERIMENT), MetricCounterType.DATA_BY_VARIABLE);
+        Assert.assertEquals(Long.valueOf(2), experimentCounters.get(VARIABLE));
+
+        Assert.assertTrue(dao.getCounters(MetricCounterDAO.SYSTEM_SCOPE, MetricCounterType.DEVICE_BY_TYPE).isEmpty());
+    }
+
+    @Test
+    public void reconcileOnlyDriftedCounters() throws Exception {
+        MetricCounterDAO dao = getDAO();
+        dao.apply(new MetricCounterDAO.CounterUpdates()
+                .add(MetricCounterDAO.SYSTEM_SCOPE, MetricCounterType.DATA_BY_VARIABLE, VARIABLE, 10)
+                .add(MetricCounterDAO.SYSTEM_SCOPE, MetricCounterType.DATA_BY_VARIABLE, OTHER_VARIABLE, 5));
+
+        Map<URI, Long> actualCounts = new HashMap<>();
+        actualCounts.put(VARIABLE, 10L);
+        Assert.assertEquals(1, dao.reconcile(MetricCounterDAO.SYSTEM_SCOPE, MetricCounterType.DATA_BY_VARIABLE, () -> actualCounts));
+
+        actualCounts.put(OTHER_VARIABLE, 7L);
+        Assert.assertEquals(1, dao.reconcile(MetricCounterDAO.SYSTEM_SCOPE, MetricCounterType.DATA_BY_VARIABLE, () -> actualCounts));
+        Assert.assertEquals(0, dao.reconcile(MetricCounterDAO.SYSTEM_SCOPE, MetricCounterType.DATA_BY_VARIABLE, () -> actualCounts));
+
+        Map<URI, Long> counters = dao.getCounters(MetricCounterDAO.SYSTEM_SCOPE, MetricCounterType.DATA_BY_VARIABLE);
+        Assert.assertEquals(actualCounts, counters);
+    }
+
+    @Test
+    public void reconcileDoesNotOverwriteConcurrentIncrements() throws Exception {
+        MetricCounterDAO dao = getDAO();
+        dao.apply(new MetricCounterDAO.CounterUpdates()
+                .add(MetricCounterDAO.SYSTEM_SCOPE, MetricCounterType.DATA_BY_VARIABLE, VARIABLE, 10));
+
+        // data are inserted and counted while the actual counts are computed
+        Assert.assertEquals(0, dao.reconcile(MetricCounterDAO.SYSTEM_SCOPE, MetricCounterType.DATA_BY_VARIABLE, () -> {
+            dao.apply(new MetricCounterDAO.CounterUpdates()
+                    .add(MetricCounterDAO.SYSTEM_SCOPE, MetricCounterType.DATA_BY_VARIABLE, VARIABLE, 2)
+                    .add(MetricCounterDAO.SYSTEM_SCOPE, MetricCounterType.DATA_BY_VARIABLE, OTHER_VARIABLE, 1));
+            return Collections.singletonMap(VARIABLE, 8L);
+        }));
+
+        Map<URI, Long> counters = dao.getCounters(MetricCounterDAO.SYSTEM_SCOPE, MetricCounterType.DATA_BY_VARIABLE);
+        Assert.assertEquals(Long.valueOf(12), counters.get(VARIABLE));
+        Assert.assertEquals(Long.valueOf(1), counters.get(OTHER_VARIABLE));
+    }
+}
@@ -37,7 +37,9 @@ import org.opensilex.security.account.dal.AccountModel;
 import org.opensilex.server.response.PaginatedListResponse;
 import org.opensilex.server.response.SingleObjectResponse;
 import org.opensilex.sparql.SPARQLModule;
+import org.opensilex.sparql.csv.CSVCell;
 import org.opensilex.sparql.csv.CSVValidationModel;
+import org.opensilex.sparql.csv.CsvImportProgressListener;
 import org.opensilex.sparql.deserializer.SPARQLDeserializers;
 import org.opensilex.sparql.model.SPARQLLabel;
 import org.opensilex.sparql.model.SPARQLResourceModel;
@@ -274,6 +276,36 @@ public class ScientificObjectCsvImportTest extends AbstractMongoIntegrationTest
         Assert.assertFalse(validation.getInvalidURIErrors().isEmpty());
     }
 
+    @Test
+    public void testProgressListener() throws Exception {
+        ScientificObjectCsvImporterLogic importer = new ScientificObjectCsvImporterLogic(getSparqlService(), getMongoDBService(), experiment.getUri(), user, fs, null);
+
+        List<Integer> nbRowsReadByChunk = new ArrayList<>();
+        List<CSVCell> errors = new ArrayList<>();
+        importer.setProgressListener(new CsvImportProgressListener() {
+            @Override
+            public void onError(CSVCell error) {
+                errors.add(error);
+            }
+
+            @Override
+            public void onProgress(int nbRowsRead, int nbErrors) {
+                nbRowsReadByChunk.add(nbRowsRead);
+            }
+        });
+
+        CSVValidationModel validation = importer.importCSV(CSV_FILES_DIR.resolve("os_import_basic.csv").toFile(), false);
+        Assert.assertFalse(validation.hasErrors());
+        Assert.assertEquals(List.of(2), nbRowsReadByChunk);
+        Assert.assertTrue(errors.isEmpty());
+
+        // errors are notified while the file is read
+        validation = importer.importCSV(CSV_FILES_DIR.resolve("os_import_basic_with_incorrect_uri.csv").toFile(), true);
+        Assert.assertTrue(validation.hasErrors());
+        Assert.assertFalse(errors.isEmpty());
+        Assert.assertEquals(2, nbRowsReadByChunk.size());
+    }
+
     @Test
     public void testBasicCsvDuplicates() throws Exception {
         // test with duplicate URIs
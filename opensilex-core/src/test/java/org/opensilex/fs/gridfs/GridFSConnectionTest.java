@@ -13,11 +13,13 @@ import org.opensilex.core.AbstractMongoIntegrationTest;
 import org.opensilex.fs.service.FileStorageService;
 
 import java.io.IOException;
+import java.io.InputStream;
 import java.lang.reflect.Field;
 import java.lang.reflect.Method;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.Map;
 
@@ -118,6 +120,35 @@ public class GridFSConnectionTest extends AbstractMongoIntegrationTest {
         Assert.assertArrayEquals(expectedContent, fileContent);
     }
 
+    @Test
+    public void readFileRange() throws IOException {
+        writeFileForTest();
+
+        byte[] expectedContent = Files.readAllBytes(filePath);
+        Assert.assertEquals(expectedContent.length, gridFSConnection.getFileSize(filePath));
+
+        // read a range in the middle of the file and a range which exceeds the end of file
+        int offset = 100;
+        int length = expectedContent.length / 2;
+        try (InputStream range = gridFSConnection.readFileRange(filePath, offset, length)) {
+            Assert.assertArrayEquals(Arrays.copyOfRange(expectedContent, offset, offset + length), range.readAllBytes());
+        }
+        try (InputStream range = gridFSConnection.readFileRange(filePath, offset, expectedContent.length)) {
+            Assert.assertArrayEquals(Arrays.copyOfRange(expectedContent, offset, expectedContent.length), range.readAllBytes());
+        }
+    }
+
+    @Test
+    public void writeFileStream() throws IOException {
+        byte[] content = Files.readAllBytes(filePath);
+        try (InputStream stream = Files.newInputStream(filePath)) {
+            gridFSConnection.writeFile(filePath, stream, content.length);
+        }
+        try (InputStream stream = gridFSConnection.readFileAsStream(filePath)) {
+            Assert.assertArrayEquals(content, stream.readAllBytes());
+        }
+    }
+
     @Test
     public void writeFile() throws IOException {
         writeFileForTest();
@@ -18,6 +18,8 @@ import com.mongodb.client.model.IndexOptions;
 import com.mongodb.client.model.Indexes;
 import org.bson.Document;
 import org.bson.conversions.Bson;
+import org.apache.commons.io.IOUtils;
+import org.apache.commons.io.input.BoundedInputStream;
 import org.bson.types.ObjectId;
 import org.opensilex.fs.service.FileStorageConnection;
 import org.opensilex.nosql.mongodb.MongoDBConfig;
@@ -31,6 +33,9 @@ import java.io.*;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Pattern;
 
 /**
  *
@@ -88,8 +93,12 @@ public class GridFSConnection extends BaseService implements FileStorageConnecti
         createFilesIndexes(database);
     }
 
-    @Override
-    public byte[] readFileAsByteArray(Path filePath) throws IOException {
+    /**
+     * @param filePath Path to the file to find
+     * @return the description of the file
+     * @throws FileNotFoundException if no file exists with this path
+     */
+    private GridFSFile getFile(Path filePath) throws FileNotFoundException {
 
         GridFSFindIterable find = findByPath(filePath);
 
@@ -99,25 +108,63 @@ public class GridFSConnection extends BaseService implements FileStorageConnecti
             if(!cursor.hasNext()){
                 throw new FileNotFoundException(filePath.toAbsolutePath().toString());
             }
+            return cursor.next();
+        }
+    }
 
-            // get description of the file
-            GridFSFile gridFSFile = cursor.next();
-            ObjectId fileId = gridFSFile.getObjectId();
-
-            // download it
-            try ( GridFSDownloadStream downloadStream = gridFSBucket.openDownloadStream(fileId)) {
-                int fileLength = (int) downloadStream.getGridFSFile().getLength();
-                int chunkSize = downloadStream.getGridFSFile().getChunkSize();
-                byte[] bytesToWriteTo = new byte[fileLength];
-                int bytesRead = 0;
-                while (bytesRead < fileLength) {
-                    bytesRead += downloadStream.read(bytesToWriteTo, bytesRead, chunkSize);
-                }
-
-                return bytesToWriteTo;
+    @Override
+    public byte[] readFileAsByteArray(Path filePath) throws IOException {
+
+        // get description of the file
+        ObjectId fileId = getFile(filePath).getObjectId();
+
+        // download it
+        try ( GridFSDownloadStream downloadStream = gridFSBucket.openDownloadStream(fileId)) {
+            int fileLength = (int) downloadStream.getGridFSFile().getLength();
+            int chunkSize = downloadStream.getGridFSFile().getChunkSize();
+            byte[] bytesToWriteTo = new byte[fileLength];
+            int bytesRead = 0;
+            while (bytesRead < fileLength) {
+                bytesRead += downloadStream.read(bytesToWriteTo, bytesRead, chunkSize);
             }
+
+            return bytesToWriteTo;
         }
+    }
 
+    @Override
+    public InputStream readFileAsStream(Path filePath) throws IOException {
+        return gridFSBucket.openDownloadStream(getFile(filePath).getObjectId());
+    }
+
+    /**
+     * @apiNote {@link GridFSDownloadStream#skip(long)} jumps directly to the chunk which contains the offset, so the
+     * previous chunks are not read
+     */
+    @Override
+    public InputStream readFileRange(Path filePath, long offset, long length) throws IOException {
+        GridFSDownloadStream downloadStream = gridFSBucket.openDownloadStream(getFile(filePath).getObjectId());
+        try {
+            IOUtils.skipFully(downloadStream, offset);
+            return BoundedInputStream.builder()
+                    .setInputStream(downloadStream)
+                    .setMaxCount(length)
+                    .get();
+        } catch (IOException e) {
+            downloadStream.close();
+            throw e;
+        }
+    }
+
+    @Override
+    public long getFileSize(Path filePath) throws IOException {
+        return getFile(filePath).getLength();
+    }
+
+    @Override
+    public void writeFile(Path filePath, InputStream content, long contentLength) throws IOException {
+        GridFSUploadOptions options = getWriteOptions(filePath);
+        gridFSBucket.uploadFromStream(filePath.getFileName().toString(), content, options);
     }
 
 
@@ -200,6 +247,19 @@ public class GridFSConnection extends BaseService implements FileStorageConnecti
 
     }
 
+    /**
+     * @apiNote GridFS has no directory, all the files whose path starts with the directory path are deleted
+     */
+    @Override
+    public void deleteDirectory(Path directoryPath) throws IOException {
+        Bson query = Filters.regex(METADATA_PATH, "^" + Pattern.quote(directoryPath.toString() + "/"));
+        List<ObjectId> fileIds = new ArrayList<>();
+        gridFSBucket.find(query).forEach(gridFSFile -> fileIds.add(gridFSFile.getObjectId()));
+        for (ObjectId fileId : fileIds) {
+            gridFSBucket.delete(fileId);
+        }
+    }
+
     @Override
     public Path getAbsolutePath(Path filePath){
        return filePath; 
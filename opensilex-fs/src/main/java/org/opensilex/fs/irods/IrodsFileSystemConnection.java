@@ -9,14 +9,18 @@ import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
 import java.net.URI;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
 import java.nio.file.StandardOpenOption;
 
 import org.apache.commons.io.FileUtils;
 import org.apache.commons.io.IOUtils;
+import org.apache.commons.io.input.BoundedInputStream;
 import org.opensilex.service.Service;
 import org.opensilex.service.ServiceDefaultDefinition;
 
@@ -114,6 +118,45 @@ public class IrodsFileSystemConnection extends BaseService implements Service, F
         return fileContent;
     }
 
+    /**
+     * The file is downloaded into a local temporary file, which is deleted when the returned stream is closed
+     */
+    @Override
+    public InputStream readFileAsStream(Path filePath) throws IOException {
+        Path tmpFile = createLocalTempFile(getAbsolutePath(filePath));
+        return Files.newInputStream(tmpFile, StandardOpenOption.READ, StandardOpenOption.DELETE_ON_CLOSE);
+    }
+
+    /**
+     * The whole file is downloaded into a local temporary file, then only the range is read from this file.
+     * The temporary file is deleted when the returned stream is closed
+     */
+    @Override
+    public InputStream readFileRange(Path filePath, long offset, long length) throws IOException {
+        Path tmpFile = createLocalTempFile(getAbsolutePath(filePath));
+        FileChannel channel = FileChannel.open(tmpFile, StandardOpenOption.READ, StandardOpenOption.DELETE_ON_CLOSE);
+        try {
+            channel.position(offset);
+            return BoundedInputStream.builder()
+                    .setInputStream(Channels.newInputStream(channel))
+                    .setMaxCount(length)
+                    .get();
+        } catch (IOException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    @Override
+    public long getFileSize(Path filePath) throws IOException {
+        Path tmpFile = createLocalTempFile(getAbsolutePath(filePath));
+        try {
+            return Files.size(tmpFile);
+        } finally {
+            Files.deleteIfExists(tmpFile);
+        }
+    }
+
     private Path createLocalTempFile(Path filePath) throws IOException {
         Path tmpFile = null;
 
@@ -156,6 +199,20 @@ public class IrodsFileSystemConnection extends BaseService implements Service, F
 
     }
 
+    /**
+     * The content is copied into a local temporary file, which is then sent with {@link #writeFile(Path, File)}
+     */
+    @Override
+    public void writeFile(Path dest, InputStream content, long contentLength) throws IOException {
+        Path tmpPath = Files.createTempFile(tmpDirectory, null, null);
+        try {
+            Files.copy(content, tmpPath, StandardCopyOption.REPLACE_EXISTING);
+            writeFile(dest, tmpPath.toFile());
+        } finally {
+            Files.deleteIfExists(tmpPath);
+        }
+    }
+
     private final static String IRODS_IPUT_CMD = "iput";
 
     @Override
@@ -219,4 +276,18 @@ public class IrodsFileSystemConnection extends BaseService implements Service, F
         );
     }
 
+    private final static String IRODS_RM_RECURSIVE = "-r";
+
+    @Override
+    public void deleteDirectory(Path directoryPath) throws IOException {
+        if (!exist(directoryPath)) {
+            return;
+        }
+        irodsCommand(
+                IRODS_RM_CMD,
+                IRODS_RM_RECURSIVE,
+                getAbsolutePath(directoryPath).toString()
+        );
+    }
+
 }
@@ -8,15 +8,22 @@ package org.opensilex.fs.local;
 
 import java.io.File;
 import java.io.IOException;
+import java.io.InputStream;
 import java.net.URI;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
 import java.nio.file.StandardOpenOption;
 
 import org.apache.commons.io.FileUtils;
 import org.apache.commons.io.IOUtils;
+import org.apache.commons.io.input.BoundedInputStream;
 import org.opensilex.fs.service.FileStorageConnection;
 import org.opensilex.service.BaseService;
 import org.opensilex.service.ServiceDefaultDefinition;
@@ -77,6 +84,62 @@ public class LocalFileSystemConnection extends BaseService implements FileStorag
         return Files.readAllBytes(getAbsolutePath(filePath));
     }
 
+    @Override
+    public InputStream readFileAsStream(Path filePath) throws IOException {
+        return Files.newInputStream(getAbsolutePath(filePath));
+    }
+
+    @Override
+    public ReadableByteChannel readFileAsChannel(Path filePath) throws IOException {
+        return FileChannel.open(getAbsolutePath(filePath), StandardOpenOption.READ);
+    }
+
+    @Override
+    public InputStream readFileRange(Path filePath, long offset, long length) throws IOException {
+        FileChannel channel = FileChannel.open(getAbsolutePath(filePath), StandardOpenOption.READ);
+        try {
+            channel.position(offset);
+            return BoundedInputStream.builder()
+                    .setInputStream(Channels.newInputStream(channel))
+                    .setMaxCount(length)
+                    .get();
+        } catch (IOException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    @Override
+    public long getFileSize(Path filePath) throws IOException {
+        return Files.size(getAbsolutePath(filePath));
+    }
+
+    /**
+     * Use {@link FileChannel#transferTo(long, long, WritableByteChannel)}, which let the OS copy the file content
+     * directly into the target (zero-copy) when possible.
+     */
+    @Override
+    public long transferTo(Path filePath, long offset, long length, WritableByteChannel target) throws IOException {
+        try (FileChannel channel = FileChannel.open(getAbsolutePath(filePath), StandardOpenOption.READ)) {
+            long end = Math.min(channel.size(), offset + length);
+            long position = offset;
+
+            while (position < end) {
+                long transferred = channel.transferTo(position, end - position, target);
+                if (transferred <= 0) {
+                    break;
+                }
+                position += transferred;
+            }
+            return Math.max(0, position - offset);
+        }
+    }
+
+    @Override
+    public void writeFile(Path filePath, InputStream content, long contentLength) throws IOException {
+        Files.copy(content, getAbsolutePath(filePath), StandardCopyOption.REPLACE_EXISTING);
+    }
+
     @Override
     public void writeFile(Path filePath, byte[] content) throws IOException {
         Files.write(getAbsolutePath(filePath), content, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
@@ -102,4 +165,9 @@ public class LocalFileSystemConnection extends BaseService implements FileStorag
         Files.delete(getAbsolutePath(filePath));
     }
 
+    @Override
+    public void deleteDirectory(Path directoryPath) throws IOException {
+        FileUtils.deleteDirectory(getAbsolutePathFile(directoryPath));
+    }
+
 }
@@ -13,9 +13,13 @@ import software.amazon.awssdk.services.s3.S3Client;
 import software.amazon.awssdk.services.s3.model.*;
 
 import java.io.File;
+import java.io.FileNotFoundException;
 import java.io.IOException;
+import java.io.InputStream;
 import java.net.URI;
+import java.nio.file.Files;
 import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
 
 /**
  * Amazon S3 file-system implementation
@@ -142,6 +146,67 @@ public class S3FileStorageConnection extends BaseService implements FileStorageC
         return s3Client.getObjectAsBytes(builder -> setKeyAndBucket(builder, fileKey)).asByteArrayUnsafe();
     }
 
+    @Override
+    public InputStream readFileAsStream(Path filePath) throws IOException {
+        String fileKey = filePath.toString();
+        try {
+            return s3Client.getObject(builder -> setKeyAndBucket(builder, fileKey));
+        } catch (NoSuchKeyException e) {
+            throw new FileNotFoundException(fileKey);
+        }
+    }
+
+    /**
+     * Only the requested range is downloaded, by using the HTTP Range header of the GetObject request
+     */
+    @Override
+    public InputStream readFileRange(Path filePath, long offset, long length) throws IOException {
+        if (length <= 0) {
+            return InputStream.nullInputStream();
+        }
+        String fileKey = filePath.toString();
+        String range = "bytes=" + offset + "-" + (offset + length - 1);
+        try {
+            return s3Client.getObject(builder -> {
+                setKeyAndBucket(builder, fileKey);
+                builder.range(range);
+            });
+        } catch (NoSuchKeyException e) {
+            throw new FileNotFoundException(fileKey);
+        }
+    }
+
+    @Override
+    public long getFileSize(Path filePath) throws IOException {
+        String fileKey = filePath.toString();
+        try {
+            return s3Client.headObject(builder -> setKeyAndBucket(builder, fileKey)).contentLength();
+        } catch (NoSuchKeyException e) {
+            throw new FileNotFoundException(fileKey);
+        }
+    }
+
+    /**
+     * @apiNote S3 needs the content length before the upload. If contentLength is unknown, the content is first
+     * copied into a temporary file.
+     */
+    @Override
+    public void writeFile(Path filePath, InputStream content, long contentLength) throws IOException {
+        String fileKey = filePath.toString();
+        if (contentLength >= 0) {
+            s3Client.putObject(builder -> setKeyAndBucket(builder, fileKey), RequestBody.fromInputStream(content, contentLength));
+            return;
+        }
+
+        Path tmpFile = Files.createTempFile("opensilex-s3-upload", null);
+        try {
+            Files.copy(content, tmpFile, StandardCopyOption.REPLACE_EXISTING);
+            writeFile(filePath, tmpFile.toFile());
+        } finally {
+            Files.deleteIfExists(tmpFile);
+        }
+    }
+
     @Override
     public void writeFile(Path filePath, byte[] content) throws IOException {
         String fileKey = filePath.toString();
@@ -180,6 +245,19 @@ public class S3FileStorageConnection extends BaseService implements FileStorageC
         s3Client.deleteObject(builder -> setKeyAndBucket(builder,fileKey));
     }
 
+    /**
+     * @apiNote S3 has no directory, all the objects whose key starts with the directory key are deleted, and the
+     * empty object created by {@link #createDirectories(Path)}
+     */
+    @Override
+    public void deleteDirectory(Path directoryPath) throws IOException {
+        String directoryKey = directoryPath.toString();
+        s3Client.listObjectsV2Paginator(builder -> builder.bucket(getConfig().bucket()).prefix(directoryKey + "/"))
+                .contents()
+                .forEach(object -> s3Client.deleteObject(builder -> setKeyAndBucket(builder, object.key())));
+        s3Client.deleteObject(builder -> setKeyAndBucket(builder, directoryKey));
+    }
+
     @Override
     public Path getAbsolutePath(Path filePath) throws IOException {
         return filePath;
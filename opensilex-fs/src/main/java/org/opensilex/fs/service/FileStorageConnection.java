@@ -5,14 +5,28 @@
  */
 package org.opensilex.fs.service;
 
+import org.apache.commons.io.IOUtils;
+import org.apache.commons.io.input.BoundedInputStream;
 import org.opensilex.service.Service;
 
+import java.io.ByteArrayInputStream;
 import java.io.File;
 import java.io.IOException;
+import java.io.InputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.Path;
 
 /**
+ * <pre>
+ * Connection to a file storage.
+ *
+ * Stream and range methods have a default implementation based on {@link #readFileAsByteArray(Path)} and
+ * {@link #writeFile(Path, byte[])}, which loads the whole file in memory. Implementations should override them
+ * in order to read or write large files without loading them in memory.
+ * </pre>
  *
  * @author vmigot
  */
@@ -25,15 +39,90 @@ public interface FileStorageConnection extends Service {
         return new String(data, StandardCharsets.UTF_8);
     }
 
+    /**
+     * @param filePath path of the file to read
+     * @return a stream on the file content. The caller is responsible for closing it
+     */
+    default InputStream readFileAsStream(Path filePath) throws IOException {
+        return new ByteArrayInputStream(readFileAsByteArray(filePath));
+    }
+
+    /**
+     * @param filePath path of the file to read
+     * @return a channel on the file content. The caller is responsible for closing it
+     */
+    default ReadableByteChannel readFileAsChannel(Path filePath) throws IOException {
+        return Channels.newChannel(readFileAsStream(filePath));
+    }
+
+    /**
+     * @param filePath path of the file to read
+     * @param offset   position of the first byte to read
+     * @param length   max number of bytes to read, less bytes are read if the end of file is reached
+     * @return a stream on the file content between offset and offset + length. The caller is responsible for closing it
+     */
+    default InputStream readFileRange(Path filePath, long offset, long length) throws IOException {
+        InputStream stream = readFileAsStream(filePath);
+        try {
+            IOUtils.skipFully(stream, offset);
+            return BoundedInputStream.builder()
+                    .setInputStream(stream)
+                    .setMaxCount(length)
+                    .get();
+        } catch (IOException e) {
+            stream.close();
+            throw e;
+        }
+    }
+
+    /**
+     * @param filePath path of the file
+     * @return the file size in bytes
+     */
+    default long getFileSize(Path filePath) throws IOException {
+        return readFileAsByteArray(filePath).length;
+    }
+
+    /**
+     * Copy a part of the file into a channel, without loading this part in memory.
+     *
+     * @param filePath path of the file to read
+     * @param offset   position of the first byte to copy
+     * @param length   max number of bytes to copy
+     * @param target   the channel to write into, which is not closed by this method
+     * @return the number of copied bytes
+     */
+    default long transferTo(Path filePath, long offset, long length, WritableByteChannel target) throws IOException {
+        try (InputStream stream = readFileRange(filePath, offset, length)) {
+            return IOUtils.copyLarge(stream, Channels.newOutputStream(target));
+        }
+    }
+
     void writeFile(Path filePath,byte[] content) throws IOException;
 
     void writeFile(Path filePath, File file) throws IOException;
 
+    /**
+     * @param filePath      path of the file to write
+     * @param content       stream on the content to write, which is not closed by this method
+     * @param contentLength the number of bytes of content, or a negative value if unknown
+     */
+    default void writeFile(Path filePath, InputStream content, long contentLength) throws IOException {
+        writeFile(filePath, IOUtils.toByteArray(content));
+    }
+
     void createDirectories(Path directoryPath) throws IOException;
 
     boolean exist(Path filePath) throws IOException;
 
     void delete(Path filePath) throws IOException;
-    
+
+    /**
+     * Delete a directory and all the files it contains, nothing is done if the directory doesn't exist
+     *
+     * @param directoryPath path of the directory to delete
+     */
+    void deleteDirectory(Path directoryPath) throws IOException;
+
     Path getAbsolutePath(Path filePath) throws IOException;
 }
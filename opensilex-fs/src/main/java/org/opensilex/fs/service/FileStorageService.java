@@ -21,7 +21,9 @@ import org.slf4j.LoggerFactory;
 
 import java.io.File;
 import java.io.IOException;
+import java.io.InputStream;
 import java.net.URI;
+import java.nio.channels.WritableByteChannel;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.Path;
 import org.apache.commons.codec.binary.Hex;
@@ -48,6 +50,8 @@ public class FileStorageService extends BaseService implements Service {
 
     private final Map<String, FileStorageConnection> connections;
 
+    private final ThumbnailCache thumbnailCache;
+
     public FileStorageService(FileStorageServiceConfig config) throws InvalidConfigException {
         super(config);
         connections = config.connections();
@@ -104,6 +108,8 @@ public class FileStorageService extends BaseService implements Service {
         if(this.defaultFS == null){
             throw new InvalidConfigException("File storage connection not set");
         }
+
+        this.thumbnailCache = new ThumbnailCache(this, config.thumbnailCache());
     }
 
     @Override
@@ -135,6 +141,8 @@ public class FileStorageService extends BaseService implements Service {
 
     @Override
     public void startup() throws Exception {
+        thumbnailCache.startup();
+
         if (defaultFS != null) {
             defaultFS.startup();
         }
@@ -147,6 +155,8 @@ public class FileStorageService extends BaseService implements Service {
 
     @Override
     public void shutdown() throws Exception {
+        thumbnailCache.shutdown();
+
         if (defaultFS != null) {
             defaultFS.shutdown();
         }
@@ -161,6 +171,13 @@ public class FileStorageService extends BaseService implements Service {
         return (FileStorageServiceConfig) this.getConfig();
     }
 
+    /**
+     * @return the cache of picture thumbnails, stored with this service
+     */
+    public ThumbnailCache getThumbnailCache() {
+        return thumbnailCache;
+    }
+
     protected FileStorageConnection getConnection(String prefix) {
         for (Path candidatePath : pathOrder) {
             if (prefix.equals(candidatePath.toString())) {
@@ -200,6 +217,46 @@ public class FileStorageService extends BaseService implements Service {
         return getConnection(prefix).readFileAsByteArray(filePath);
     }
 
+    /**
+     * @see FileStorageConnection#readFileAsStream(Path)
+     */
+    public InputStream readFileAsStream(String prefix, Path filePath) throws IOException {
+        LOGGER.debug("READ FILE STREAM: {}", filePath);
+        return getConnection(prefix).readFileAsStream(filePath);
+    }
+
+    /**
+     * @see FileStorageConnection#readFileRange(Path, long, long)
+     */
+    public InputStream readFileRange(String prefix, Path filePath, long offset, long length) throws IOException {
+        LOGGER.debug("READ FILE RANGE: {} [{}, {}]", filePath, offset, length);
+        return getConnection(prefix).readFileRange(filePath, offset, length);
+    }
+
+    /**
+     * @see FileStorageConnection#getFileSize(Path)
+     */
+    public long getFileSize(String prefix, Path filePath) throws IOException {
+        LOGGER.debug("GET FILE SIZE: {}", filePath);
+        return getConnection(prefix).getFileSize(filePath);
+    }
+
+    /**
+     * @see FileStorageConnection#transferTo(Path, long, long, WritableByteChannel)
+     */
+    public long transferTo(String prefix, Path filePath, long offset, long length, WritableByteChannel target) throws IOException {
+        LOGGER.debug("TRANSFER FILE: {} [{}, {}]", filePath, offset, length);
+        return getConnection(prefix).transferTo(filePath, offset, length, target);
+    }
+
+    /**
+     * @see FileStorageConnection#writeFile(Path, InputStream, long)
+     */
+    public void writeFile(String prefix, Path filePath, InputStream content, long contentLength) throws IOException {
+        LOGGER.debug("WRITE FILE STREAM: {}", filePath);
+        getConnection(prefix).writeFile(filePath, content, contentLength);
+    }
+
     public boolean exist(String prefix, Path filePath) throws IOException {
         LOGGER.debug("TEST FILE EXISTENCE: {}", filePath);
         return getConnection(prefix).exist(filePath);
@@ -210,6 +267,11 @@ public class FileStorageService extends BaseService implements Service {
         getConnection(prefix).delete(filePath);
     }
 
+    public void deleteDirectory(String prefix, Path directoryPath) throws IOException {
+        LOGGER.debug("DELETE DIRECTORY: {}", directoryPath);
+        getConnection(prefix).deleteDirectory(directoryPath);
+    }
+
     /**
      * 
      * @param prefix prefix to append at the start of the returned path
@@ -30,4 +30,9 @@ public interface FileStorageServiceConfig extends ServiceConfig {
     )
     public Map<String, String> customPath();
 
+    @ConfigDescription(
+            value = "Picture thumbnails cache"
+    )
+    public ThumbnailCacheConfig thumbnailCache();
+
 }
@@ -0,0 +1,315 @@
+//******************************************************************************
+//                          ThumbnailCache.java
+// OpenSILEX - Licence AGPL V3.0 - https://www.gnu.org/licenses/agpl-3.0.en.html
+// Copyright © INRAE 2024
+// Contact: anne.tireau@inrae.fr, pascal.neveu@inrae.fr
+//******************************************************************************
+package org.opensilex.fs.service;
+
+import org.apache.commons.codec.digest.DigestUtils;
+import org.opensilex.OpenSilex;
+import org.opensilex.service.execution.BackpressurePolicy;
+import org.opensilex.service.execution.ExecutionPool;
+import org.opensilex.service.execution.ExecutionPoolType;
+import org.opensilex.service.execution.ExecutionService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.net.URI;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * <pre>
+ * Cache of picture thumbnails, stored in the file storage.
+ *
+ * A thumbnail is identified by the URI of the source file, its size and the method used to build it. Thumbnails of a
+ * file are stored in a directory named by a SHA-256 hash of the file URI, and named by a SHA-256 hash of their size and
+ * method, so a thumbnail is never rebuilt once stored, whatever the instance which built it. All the thumbnails of a
+ * file, whatever their size, are deleted with its directory.
+ *
+ * - Concurrent requests for the same missing thumbnail are coalesced : the thumbnail is generated once and the result
+ *   is shared by all requests.
+ * - Thumbnails can be generated in background by a bounded pool of workers (at picture upload by example). When the
+ *   queue is full, the generation is skipped and the thumbnail will be generated on first request.
+ * - Hits, misses, coalesced requests, generation errors and skipped generations are counted.
+ * </pre>
+ *
+ * @see FileStorageService#getThumbnailCache()
+ */
+public class ThumbnailCache {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(ThumbnailCache.class);
+
+    private static final String POOL_NAME = "thumbnail";
+
+    /**
+     * Thumbnail generation function
+     */
+    @FunctionalInterface
+    public interface ThumbnailGenerator {
+
+        /**
+         * @return the thumbnail content
+         */
+        byte[] generate() throws IOException;
+    }
+
+    private final FileStorageService fs;
+    private final ThumbnailCacheConfig config;
+    private final List<int[]> pregeneratedSizes;
+
+    private final Map<Path, CompletableFuture<byte[]>> pendingThumbnails = new ConcurrentHashMap<>();
+    private volatile ExecutionPool workers;
+
+    /**
+     * True if workers are a pool of the execution service, which is in charge of its shutdown
+     */
+    private boolean sharedWorkers;
+
+    private final LongAdder hitCount = new LongAdder();
+    private final LongAdder missCount = new LongAdder();
+    private final LongAdder coalescedCount = new LongAdder();
+    private final LongAdder errorCount = new LongAdder();
+    private final LongAdder skippedCount = new LongAdder();
+
+    public ThumbnailCache(FileStorageService fs, ThumbnailCacheConfig config) {
+        this.fs = fs;
+        this.config = config;
+        this.pregeneratedSizes = parseSizes(config.pregeneratedSizes());
+    }
+
+    /**
+     * Start the background workers, threads are created on first background generation. Workers are a named pool of
+     * the execution service if it's available.
+     */
+    public synchronized void startup() {
+        if (workers != null && !workers.isShutdown()) {
+            return;
+        }
+        int workerCount = Math.max(1, config.workers());
+        int queueSize = Math.max(1, config.queueSize());
+
+        OpenSilex opensilex = fs.getOpenSilex();
+        ExecutionService executionService = opensilex == null ? null : opensilex.getServiceInstance(ExecutionService.DEFAULT_SERVICE, ExecutionService.class);
+        sharedWorkers = executionService != null;
+        if (sharedWorkers) {
+            workers = executionService.getPool(POOL_NAME, ExecutionPoolType.IO, workerCount, queueSize, BackpressurePolicy.ABORT);
+        } else {
+            workers = new ExecutionPool(POOL_NAME, ExecutionPoolType.IO, workerCount, queueSize, BackpressurePolicy.ABORT);
+        }
+    }
+
+    /**
+     * Stop the background workers, thumbnails waiting to be generated are dropped. Workers of the execution service
+     * are stopped by the service.
+     */
+    public synchronized void shutdown() {
+        if (workers != null && !sharedWorkers) {
+            workers.shutdownNow();
+        }
+    }
+
+    private static List<int[]> parseSizes(List<String> sizes) {
+        if (sizes == null) {
+            return Collections.emptyList();
+        }
+        List<int[]> parsedSizes = new ArrayList<>(sizes.size());
+        for (String size : sizes) {
+            String[] dimensions = size.trim().toLowerCase().split("x");
+            try {
+                parsedSizes.add(new int[]{Integer.parseInt(dimensions[0].trim()), Integer.parseInt(dimensions[1].trim())});
+            } catch (NumberFormatException | ArrayIndexOutOfBoundsException e) {
+                LOGGER.warn("Invalid thumbnail size, WIDTHxHEIGHT format expected : {}", size);
+            }
+        }
+        return Collections.unmodifiableList(parsedSizes);
+    }
+
+    /**
+     * @return the sizes (width, height) of the thumbnails to generate when a picture is uploaded
+     */
+    public List<int[]> getPregeneratedSizes() {
+        return pregeneratedSizes;
+    }
+
+    /**
+     * @return the path of the directory of the thumbnails of the file in the file storage
+     */
+    public Path getThumbnailDirectory(URI fileURI) {
+        String fileHash = DigestUtils.sha256Hex(fileURI.toString());
+        return Paths.get(config.prefix(), fileHash.substring(0, 2), fileHash);
+    }
+
+    /**
+     * @return the path of the thumbnail in the file storage
+     */
+    public Path getThumbnailPath(URI fileURI, int width, int height, String method) {
+        return getThumbnailDirectory(fileURI).resolve(DigestUtils.sha256Hex(width + "x" + height + "|" + method));
+    }
+
+    /**
+     * Get a thumbnail from the cache, or generate and store it if missing.
+     *
+     * @param fileURI   URI of the source file
+     * @param width     width of the thumbnail
+     * @param height    height of the thumbnail
+     * @param method    identifier of the method used to build the thumbnail
+     * @param generator function which generates the thumbnail if missing
+     * @return the thumbnail content
+     * @throws IOException if the thumbnail can't be generated
+     */
+    public byte[] get(URI fileURI, int width, int height, String method, ThumbnailGenerator generator) throws IOException {
+        if (!config.enabled()) {
+            missCount.increment();
+            return generator.generate();
+        }
+
+        String prefix = config.prefix();
+        Path thumbnailPath = getThumbnailPath(fileURI, width, height, method);
+        if (fs.exist(prefix, thumbnailPath)) {
+            try {
+                byte[] thumbnail = fs.readFileAsByteArray(prefix, thumbnailPath);
+                hitCount.increment();
+                return thumbnail;
+            } catch (IOException e) {
+                LOGGER.warn("Error while reading thumbnail {}, thumbnail is generated again : {}", thumbnailPath, e.getMessage());
+            }
+        }
+
+        CompletableFuture<byte[]> pending = new CompletableFuture<>();
+        CompletableFuture<byte[]> existingPending = pendingThumbnails.putIfAbsent(thumbnailPath, pending);
+        if (existingPending != null) {
+            coalescedCount.increment();
+            return waitFor(existingPending);
+        }
+
+        missCount.increment();
+        try {
+            byte[] thumbnail = generator.generate();
+            store(prefix, thumbnailPath, thumbnail);
+            pending.complete(thumbnail);
+            return thumbnail;
+        } catch (IOException | RuntimeException e) {
+            errorCount.increment();
+            pending.completeExceptionally(e);
+            throw e;
+        } finally {
+            pendingThumbnails.remove(thumbnailPath, pending);
+        }
+    }
+
+    private void store(String prefix, Path thumbnailPath, byte[] thumbnail) {
+        try {
+            fs.createDirectories(prefix, thumbnailPath.getParent());
+            fs.writeFile(prefix, thumbnailPath, thumbnail);
+        } catch (IOException e) {
+            // the thumbnail is still returned, it will be generated again on next request
+            LOGGER.warn("Error while storing thumbnail {} : {}", thumbnailPath, e.getMessage());
+        }
+    }
+
+    private static byte[] waitFor(CompletableFuture<byte[]> pending) throws IOException {
+        try {
+            return pending.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while waiting for thumbnail generation", e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof IOException) {
+                throw (IOException) cause;
+            }
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            throw new IOException(cause);
+        }
+    }
+
+    /**
+     * Generate a thumbnail in background, if it's not already in the cache.
+     *
+     * @return false if the generation was skipped because too many thumbnails are already waiting to be generated
+     * @see #get(URI, int, int, String, ThumbnailGenerator)
+     */
+    public boolean generateInBackground(URI fileURI, int width, int height, String method, ThumbnailGenerator generator) {
+        ExecutionPool executor = workers;
+        if (!config.enabled() || executor == null) {
+            return false;
+        }
+        try {
+            executor.execute(() -> {
+                try {
+                    get(fileURI, width, height, method, generator);
+                } catch (IOException e) {
+                    LOGGER.warn("Error while generating thumbnail of {} ({}x{}) : {}", fileURI, width, height, e.getMessage());
+                } catch (RuntimeException e) {
+                    LOGGER.error("Unexpected error while generating thumbnail of " + fileURI, e);
+                }
+            });
+            return true;
+        } catch (RejectedExecutionException e) {
+            skippedCount.increment();
+            return false;
+        }
+    }
+
+    /**
+     * Delete all the thumbnails of a file from the cache, whatever their size and method
+     *
+     * @param fileURI URI of the source file
+     * @throws IOException if the thumbnails can't be deleted
+     */
+    public void delete(URI fileURI) throws IOException {
+        fs.deleteDirectory(config.prefix(), getThumbnailDirectory(fileURI));
+    }
+
+    public boolean isEnabled() {
+        return config.enabled();
+    }
+
+    public long getHitCount() {
+        return hitCount.sum();
+    }
+
+    public long getMissCount() {
+        return missCount.sum();
+    }
+
+    /**
+     * @return number of requests which waited for the generation of a thumbnail requested by another one
+     */
+    public long getCoalescedCount() {
+        return coalescedCount.sum();
+    }
+
+    public long getErrorCount() {
+        return errorCount.sum();
+    }
+
+    /**
+     * @return number of background generations skipped because the queue was full
+     */
+    public long getSkippedCount() {
+        return skippedCount.sum();
+    }
+
+    /**
+     * @return number of thumbnails waiting to be generated in background
+     */
+    public int getQueuedCount() {
+        ExecutionPool executor = workers;
+        return executor == null ? 0 : executor.getQueuedCount();
+    }
+}
@@ -0,0 +1,49 @@
+//******************************************************************************
+//                          ThumbnailCacheConfig.java
+// OpenSILEX - Licence AGPL V3.0 - https://www.gnu.org/licenses/agpl-3.0.en.html
+// Copyright © INRAE 2024
+// Contact: anne.tireau@inrae.fr, pascal.neveu@inrae.fr
+//******************************************************************************
+package org.opensilex.fs.service;
+
+import org.opensilex.config.ConfigDescription;
+
+import java.util.List;
+
+/**
+ * Thumbnail cache configuration interface
+ *
+ * @see ThumbnailCache
+ */
+public interface ThumbnailCacheConfig {
+
+    @ConfigDescription(
+            value = "Store generated thumbnails in the file storage and reuse them",
+            defaultBoolean = true
+    )
+    boolean enabled();
+
+    @ConfigDescription(
+            value = "Prefix used to store thumbnails, can be mapped to a specific connection with customPath",
+            defaultString = "thumbnail"
+    )
+    String prefix();
+
+    @ConfigDescription(
+            value = "Number of threads used to generate thumbnails in background",
+            defaultInt = 2
+    )
+    int workers();
+
+    @ConfigDescription(
+            value = "Max number of thumbnails waiting to be generated in background, other ones are generated on first request",
+            defaultInt = 500
+    )
+    int queueSize();
+
+    @ConfigDescription(
+            value = "Thumbnail sizes generated in background when a picture is uploaded, with WIDTHxHEIGHT format",
+            defaultList = {"1250x640", "640x320", "600x600"}
+    )
+    List<String> pregeneratedSizes();
+}
@@ -6,9 +6,14 @@ import org.junit.Test;
 import org.opensilex.OpenSilex;
 
 import java.net.URI;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Path;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 public class FileStorageServiceTest {
 
@@ -42,4 +47,109 @@ public class FileStorageServiceTest {
         Assert.assertNotNull(pathFromShortURI);
         Assert.assertTrue(pathFromShortURI.toString().startsWith(expectedPrefix));
     }
-}
\ No newline at end of file
+
+    @Test
+    public void getThumbnailFromCache() throws Exception {
+        ThumbnailCache cache = fs.getThumbnailCache();
+        URI fileURI = URI.create("test:id/file/thumbnail_cache");
+        byte[] content = "thumbnail".getBytes(StandardCharsets.UTF_8);
+        AtomicInteger generationCount = new AtomicInteger();
+        long missCount = cache.getMissCount();
+        long hitCount = cache.getHitCount();
+
+        try {
+            for (int i = 0; i < 2; i++) {
+                byte[] thumbnail = cache.get(fileURI, 64, 32, "test", () -> {
+                    generationCount.incrementAndGet();
+                    return content;
+                });
+                Assert.assertArrayEquals(content, thumbnail);
+            }
+
+            // the second call must read the stored thumbnail
+            Assert.assertEquals(1, generationCount.get());
+            Assert.assertEquals(missCount + 1, cache.getMissCount());
+            Assert.assertEquals(hitCount + 1, cache.getHitCount());
+        } finally {
+            cache.delete(fileURI);
+        }
+    }
+
+    @Test
+    public void coalesceThumbnailGenerations() throws Exception {
+        ThumbnailCache cache = fs.getThumbnailCache();
+        URI fileURI = URI.create("test:id/file/thumbnail_coalescing");
+        byte[] content = "thumbnail".getBytes(StandardCharsets.UTF_8);
+        AtomicInteger generationCount = new AtomicInteger();
+        CountDownLatch generationStarted = new CountDownLatch(1);
+        CountDownLatch releaseGeneration = new CountDownLatch(1);
+        long coalescedCount = cache.getCoalescedCount();
+
+        ThumbnailCache.ThumbnailGenerator slowGenerator = () -> {
+            generationCount.incrementAndGet();
+            generationStarted.countDown();
+            try {
+                releaseGeneration.await(10, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return content;
+        };
+
+        try {
+            CompletableFuture<byte[]> first = CompletableFuture.supplyAsync(() -> getThumbnail(cache, fileURI, slowGenerator));
+            Assert.assertTrue(generationStarted.await(10, TimeUnit.SECONDS));
+            CompletableFuture<byte[]> second = CompletableFuture.supplyAsync(() -> getThumbnail(cache, fileURI, slowGenerator));
+
+            // wait until the second request waits for the first generation
+            long deadline = System.currentTimeMillis() + 10_000;
+            while (cache.getCoalescedCount() == coalescedCount && System.currentTimeMillis() < deadline) {
+                Thread.sleep(10);
+            }
+            releaseGeneration.countDown();
+
+            Assert.assertArrayEquals(content, first.get(10, TimeUnit.SECONDS));
+            Assert.assertArrayEquals(content, second.get(10, TimeUnit.SECONDS));
+            Assert.assertEquals(1, generationCount.get());
+            Assert.assertEquals(coalescedCount + 1, cache.getCoalescedCount());
+        } finally {
+            releaseGeneration.countDown();
+            cache.delete(fileURI);
+        }
+    }
+
+    @Test
+    public void deleteThumbnailsOfAllSizes() throws Exception {
+        ThumbnailCache cache = fs.getThumbnailCache();
+        URI fileURI = URI.create("test:id/file/thumbnail_deletion");
+        URI otherFileURI = URI.create("test:id/file/thumbnail_kept");
+        byte[] content = "thumbnail".getBytes(StandardCharsets.UTF_8);
+        String prefix = fs.getImplementedConfig().thumbnailCache().prefix();
+
+        try {
+            // sizes chosen by clients are stored next to the pre-generated ones
+            cache.get(fileURI, 64, 32, "test", () -> content);
+            cache.get(fileURI, 1234, 567, "test", () -> content);
+            cache.get(otherFileURI, 64, 32, "test", () -> content);
+            Assert.assertTrue(fs.exist(prefix, cache.getThumbnailPath(fileURI, 1234, 567, "test")));
+
+            cache.delete(fileURI);
+            Assert.assertFalse(fs.exist(prefix, cache.getThumbnailPath(fileURI, 64, 32, "test")));
+            Assert.assertFalse(fs.exist(prefix, cache.getThumbnailPath(fileURI, 1234, 567, "test")));
+            Assert.assertTrue("Thumbnails of other files are kept", fs.exist(prefix, cache.getThumbnailPath(otherFileURI, 64, 32, "test")));
+
+            // deleting thumbnails of a file without thumbnails does nothing
+            cache.delete(fileURI);
+        } finally {
+            cache.delete(otherFileURI);
+        }
+    }
+
+    private static byte[] getThumbnail(ThumbnailCache cache, URI fileURI, ThumbnailCache.ThumbnailGenerator generator) {
+        try {
+            return cache.get(fileURI, 64, 32, "test", generator);
+        } catch (Exception e) {
+            throw new RuntimeException(e);
+        }
+    }
+}
@@ -11,6 +11,7 @@ import java.util.Map;
 import org.opensilex.OpenSilex;
 import org.opensilex.config.ConfigDescription;
 import org.opensilex.server.rest.cache.ApiCacheService;
+import org.opensilex.service.execution.ExecutionService;
 
 /**
  * Default configuration for OpenSilex base module.
@@ -47,6 +48,11 @@ public interface ServerConfig {
     )
     public ApiCacheService cache();
 
+    @ConfigDescription(
+            value = "Shared thread pools and scheduler"
+    )
+    public ExecutionService execution();
+
     @ConfigDescription(
             value = "Application path prefix, must start with '/' and do not end with '/' or be an empty string",
             defaultString = ""
@@ -0,0 +1,146 @@
+//******************************************************************************
+//                          FileRangeResponse.java
+// OpenSILEX - Licence AGPL V3.0 - https://www.gnu.org/licenses/agpl-3.0.en.html
+// Copyright © INRAE 2024
+// Contact: anne.tireau@inrae.fr, pascal.neveu@inrae.fr
+//******************************************************************************
+package org.opensilex.server.response;
+
+import javax.ws.rs.core.HttpHeaders;
+import javax.ws.rs.core.MediaType;
+import javax.ws.rs.core.Response;
+import javax.ws.rs.core.StreamingOutput;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * <pre>
+ * Binary file response with support of the HTTP "Range" header (RFC 7233).
+ *
+ * The file content is streamed to the client through a {@link RangeWriter}, so the file is never loaded in memory.
+ * Only a single byte range is supported : a malformed header or a header with multiple ranges is ignored and
+ * the whole file is returned, as allowed by the RFC.
+ *
+ * - No range : 200 with the whole file
+ * - Satisfiable range : 206 with the requested part of the file and a "Content-Range" header
+ * - Unsatisfiable range : 416 with a "Content-Range" header which gives the file size
+ * </pre>
+ */
+public class FileRangeResponse {
+
+    public static final String ACCEPT_RANGES_HEADER = "Accept-Ranges";
+    public static final String CONTENT_RANGE_HEADER = "Content-Range";
+    public static final String BYTES_UNIT = "bytes";
+
+    private static final Pattern RANGE_PATTERN = Pattern.compile("^\\s*bytes\\s*=\\s*(\\d*)\\s*-\\s*(\\d*)\\s*$");
+
+    /**
+     * Write a part of the file content
+     */
+    @FunctionalInterface
+    public interface RangeWriter {
+
+        /**
+         * @param offset position of the first byte to write
+         * @param length number of bytes to write
+         * @param output stream to write into, which must not be closed
+         */
+        void write(long offset, long length, OutputStream output) throws IOException;
+    }
+
+    private final String fileName;
+    private final long fileSize;
+    private final String rangeHeader;
+    private final RangeWriter writer;
+
+    /**
+     * @param fileName    name of the file, used for the "Content-Disposition" header
+     * @param fileSize    size of the file in bytes
+     * @param rangeHeader value of the "Range" request header, can be null
+     * @param writer      writer of the file content
+     */
+    public FileRangeResponse(String fileName, long fileSize, String rangeHeader, RangeWriter writer) {
+        this.fileName = fileName;
+        this.fileSize = fileSize;
+        this.rangeHeader = rangeHeader;
+        this.writer = writer;
+    }
+
+    public Response getResponse() {
+        long[] range = parseRange(rangeHeader, fileSize);
+
+        if (range == null) {
+            return build(Response.ok(), 0, fileSize);
+        }
+        if (range.length == 0) {
+            return Response.status(Response.Status.REQUESTED_RANGE_NOT_SATISFIABLE)
+                    .header(CONTENT_RANGE_HEADER, BYTES_UNIT + " */" + fileSize)
+                    .header(ACCEPT_RANGES_HEADER, BYTES_UNIT)
+                    .build();
+        }
+
+        long start = range[0];
+        long end = range[1];
+        Response.ResponseBuilder builder = Response.status(Response.Status.PARTIAL_CONTENT)
+                .header(CONTENT_RANGE_HEADER, BYTES_UNIT + " " + start + "-" + end + "/" + fileSize);
+        return build(builder, start, end - start + 1);
+    }
+
+    private Response build(Response.ResponseBuilder builder, long offset, long length) {
+        StreamingOutput output = stream -> writer.write(offset, length, stream);
+        return builder.entity(output)
+                .type(MediaType.APPLICATION_OCTET_STREAM)
+                .header(HttpHeaders.CONTENT_LENGTH, length)
+                .header(ACCEPT_RANGES_HEADER, BYTES_UNIT)
+                .header("Content-Disposition", "attachment; filename=\"" + fileName + "\"")
+                .build();
+    }
+
+    /**
+     * @param rangeHeader value of the "Range" request header
+     * @param fileSize    size of the file in bytes
+     * @return the first and last (inclusive) positions of the range, an empty array if the range can't be satisfied,
+     * or null if the whole file must be returned
+     */
+    public static long[] parseRange(String rangeHeader, long fileSize) {
+        if (rangeHeader == null) {
+            return null;
+        }
+        Matcher matcher = RANGE_PATTERN.matcher(rangeHeader);
+        if (!matcher.matches()) {
+            return null;
+        }
+        String first = matcher.group(1);
+        String last = matcher.group(2);
+
+        try {
+            if (first.isEmpty()) {
+                if (last.isEmpty()) {
+                    return null;
+                }
+                // suffix range : the last N bytes
+                long suffixLength = Long.parseLong(last);
+                if (suffixLength == 0 || fileSize == 0) {
+                    return new long[0];
+                }
+                return new long[]{Math.max(0, fileSize - suffixLength), fileSize - 1};
+            }
+
+            long start = Long.parseLong(first);
+            if (start >= fileSize) {
+                return new long[0];
+            }
+            long end = last.isEmpty() ? fileSize - 1 : Math.min(Long.parseLong(last), fileSize - 1);
+            if (end < start) {
+                // invalid range, ignored
+                return null;
+            }
+            return new long[]{start, end};
+        } catch (NumberFormatException e) {
+            // too large values, ignored
+            return null;
+        }
+    }
+}
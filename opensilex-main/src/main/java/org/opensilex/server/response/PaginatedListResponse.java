@@ -9,6 +9,7 @@ package org.opensilex.server.response;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 import com.fasterxml.jackson.annotation.JsonIgnore;
 import org.opensilex.utils.ListWithPagination;
@@ -41,15 +42,21 @@ public class PaginatedListResponse<T> extends JsonResponse<List<T>> {
 
         this.metadata = new MetadataDTO(paginatedStream.getPagination());
 
-        List<T> resultList = paginatedStream.getSource()
-                .collect(Collectors.toList());
+        // close the source once collected, to release the underlying query result even if the conversion fails
+        List<T> resultList;
+        try (Stream<T> source = paginatedStream.getSource()) {
+            resultList = source.collect(Collectors.toList());
+        }
 
-        if(paginatedStream.getPaginationStrategy() == PaginatedSearchStrategy.HAS_NEXT_PAGE){
+        if(paginatedStream.getPaginationStrategy() == PaginatedSearchStrategy.HAS_NEXT_PAGE || paginatedStream.getPaginationStrategy() == PaginatedSearchStrategy.KEYSET){
 
             // Page size limit reached, delete an element
             if(resultList.size() > paginatedStream.getPageSize()){
                 this.result = resultList.subList(0, resultList.size() - 1);
                 this.metadata.getPagination().setHasNextPage(true);
+
+                // the stream has been consumed, the token of the next page can be computed
+                this.metadata.getPagination().setNextPageToken(paginatedStream.getNextPageToken());
             }else{
                 this.result = resultList;
                 this.metadata.getPagination().setHasNextPage(false);
@@ -6,6 +6,8 @@
 //******************************************************************************
 package org.opensilex.server.response;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
+
 /**
  * Response metadata Pagination DTO.
  *
@@ -42,6 +44,11 @@ public class PaginationDTO {
 
     private boolean hasNextPage;
 
+    /**
+     * Opaque token which allows to read the next page, only defined with a keyset pagination.
+     */
+    private String nextPageToken;
+
     /**
      * Empty constructor assume no pagination.
      */
@@ -142,4 +149,19 @@ public class PaginationDTO {
     public void setHasNextPage(boolean hasNextPage) {
         this.hasNextPage = hasNextPage;
     }
+
+    /**
+     * Getter for next page token.
+     *
+     * @return token to pass to the next search in order to get the next page, or null if there is no next page
+     * or if the search doesn't use a keyset pagination
+     */
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    public String getNextPageToken() {
+        return nextPageToken;
+    }
+
+    public void setNextPageToken(String nextPageToken) {
+        this.nextPageToken = nextPageToken;
+    }
 }
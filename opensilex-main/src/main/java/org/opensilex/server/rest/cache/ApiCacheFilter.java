@@ -40,6 +40,17 @@ public class ApiCacheFilter implements ContainerRequestFilter, ContainerResponse
      */
     private static final Logger LOGGER = LoggerFactory.getLogger(ApiCacheFilter.class);
 
+    /**
+     * Request property holding the time at which a cache miss occurred, used to compute cache load time.
+     */
+    private static final String LOAD_START_PROPERTY = ApiCacheFilter.class.getName() + ".loadStart";
+
+    /**
+     * Request property holding the generation of the cache category at the time of a cache miss, so that a response
+     * computed while the category is cleared is not stored.
+     */
+    private static final String LOAD_GENERATION_PROPERTY = ApiCacheFilter.class.getName() + ".loadGeneration";
+
     /**
      * Cache service.
      */
@@ -79,10 +90,13 @@ public class ApiCacheFilter implements ContainerRequestFilter, ContainerResponse
     private void loadCacheIfExists(ContainerRequestContext context, ApiCache cacheAnnotation) {
         try {
             String key = computeCacheKey(context, cacheAnnotation);
-            if (this.cache.exists(cacheAnnotation.category(), key)) {
-                ContainerResponseContext responseContext = (ContainerResponseContext) this.cache.retrieve(cacheAnnotation.category(), key);
-                Response.ResponseBuilder responseCacheBuilder = Response.ok().entity(responseContext.getEntity());
+            Object entity = this.cache.retrieve(cacheAnnotation.category(), key);
+            if (entity != null) {
+                Response.ResponseBuilder responseCacheBuilder = Response.ok().entity(entity);
                 context.abortWith(responseCacheBuilder.build());
+            } else {
+                context.setProperty(LOAD_GENERATION_PROPERTY, this.cache.getGeneration(cacheAnnotation.category()));
+                context.setProperty(LOAD_START_PROPERTY, System.nanoTime());
             }
         } catch (Throwable ex) {
             LOGGER.error("Error while loading cache", ex);
@@ -126,8 +140,15 @@ public class ApiCacheFilter implements ContainerRequestFilter, ContainerResponse
         try {
             String key = computeCacheKey(context, cacheAnnotation);
 
-            if (key != null && responseContext.getStatus() == Status.OK.getStatusCode()) {
-                this.cache.store(cacheAnnotation.category(), key, responseContext);
+            if (key != null && responseContext.getStatus() == Status.OK.getStatusCode() && responseContext.hasEntity()) {
+                Object loadStart = context.getProperty(LOAD_START_PROPERTY);
+                Object loadGeneration = context.getProperty(LOAD_GENERATION_PROPERTY);
+                if (loadStart instanceof Long && loadGeneration instanceof Long) {
+                    long loadTime = System.nanoTime() - (Long) loadStart;
+                    this.cache.store(cacheAnnotation.category(), key, responseContext.getEntity(), loadTime, (Long) loadGeneration);
+                } else {
+                    this.cache.store(cacheAnnotation.category(), key, responseContext.getEntity());
+                }
             }
         } catch (Throwable ex) {
             LOGGER.error("Error while updating cache", ex);
@@ -6,6 +6,7 @@
 //******************************************************************************
 package org.opensilex.server.rest.cache;
 
+import java.util.Collections;
 import java.util.Map;
 import org.opensilex.service.Service;
 import org.opensilex.service.ServiceDefaultDefinition;
@@ -49,6 +50,31 @@ public interface ApiCacheService extends Service {
      */
     public void store(String category, String key, Object value);
 
+    /**
+     * Return the current generation of a category, incremented each time the category is removed. It must be read
+     * before computing a value which is then stored with {@link #store(String, String, Object, long, long)}.
+     *
+     * @param category cache category
+     * @return category generation, always 0 for implementations which don't track generations
+     */
+    public default long getGeneration(String category) {
+        return 0;
+    }
+
+    /**
+     * Store an object in cache, with the time spent to compute it, unless the category has been removed since the
+     * computation started. Implementations which don't record statistics nor generations simply store the object.
+     *
+     * @param category object cache category
+     * @param key object cache key
+     * @param value object value to cache
+     * @param loadTimeNanos time spent to compute the value (in nanoseconds)
+     * @param generation generation of the category read before the computation, see {@link #getGeneration(String)}
+     */
+    public default void store(String category, String key, Object value, long loadTimeNanos, long generation) {
+        store(category, key, value);
+    }
+
     /**
      * Remove an object from cache.
      *
@@ -73,4 +99,13 @@ public interface ApiCacheService extends Service {
      */
     public Map<Object, Object> getMatching(String category, String keyPattern);
 
+    /**
+     * Return cache statistics (hits, misses, evictions, load time) by category.
+     *
+     * @return statistics indexed by category, empty if the implementation doesn't record statistics
+     */
+    public default Map<String, ApiCacheStatistics> getStatistics() {
+        return Collections.emptyMap();
+    }
+
 }
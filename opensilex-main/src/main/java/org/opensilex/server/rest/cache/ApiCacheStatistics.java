@@ -0,0 +1,78 @@
+//******************************************************************************
+//                          ApiCacheStatistics.java
+// OpenSILEX - Licence AGPL V3.0 - https://www.gnu.org/licenses/agpl-3.0.en.html
+// Copyright © INRAE 2024
+// Contact: anne.tireau@inrae.fr, pascal.neveu@inrae.fr
+//******************************************************************************
+package org.opensilex.server.rest.cache;
+
+/**
+ * Statistics of an API cache category, independent of the cache implementation.
+ *
+ * @see ApiCacheService#getStatistics()
+ */
+public class ApiCacheStatistics {
+
+    private final long hitCount;
+
+    private final long missCount;
+
+    private final long evictionCount;
+
+    private final long loadCount;
+
+    private final long totalLoadTime;
+
+    /**
+     * @param hitCount      number of values found in cache
+     * @param missCount     number of values not found in cache
+     * @param evictionCount number of values evicted from cache (size or expiration)
+     * @param loadCount     number of values computed then stored after a miss
+     * @param totalLoadTime time spent to compute these values (in nanoseconds)
+     */
+    public ApiCacheStatistics(long hitCount, long missCount, long evictionCount, long loadCount, long totalLoadTime) {
+        this.hitCount = hitCount;
+        this.missCount = missCount;
+        this.evictionCount = evictionCount;
+        this.loadCount = loadCount;
+        this.totalLoadTime = totalLoadTime;
+    }
+
+    public long getHitCount() {
+        return hitCount;
+    }
+
+    public long getMissCount() {
+        return missCount;
+    }
+
+    /**
+     * @return ratio of hits among cache requests, 1 if the cache has not been requested
+     */
+    public double getHitRate() {
+        long requestCount = hitCount + missCount;
+        return requestCount == 0 ? 1.0 : (double) hitCount / requestCount;
+    }
+
+    public long getEvictionCount() {
+        return evictionCount;
+    }
+
+    public long getLoadCount() {
+        return loadCount;
+    }
+
+    /**
+     * @return time spent to compute values (in nanoseconds)
+     */
+    public long getTotalLoadTime() {
+        return totalLoadTime;
+    }
+
+    /**
+     * @return average time spent to compute a value (in nanoseconds), 0 if no value has been computed
+     */
+    public double getAverageLoadTime() {
+        return loadCount == 0 ? 0.0 : (double) totalLoadTime / loadCount;
+    }
+}
@@ -0,0 +1,41 @@
+//******************************************************************************
+//                          CaffeineApiCacheConfig.java
+// OpenSILEX - Licence AGPL V3.0 - https://www.gnu.org/licenses/agpl-3.0.en.html
+// Copyright © INRAE 2024
+// Contact: anne.tireau@inrae.fr, pascal.neveu@inrae.fr
+//******************************************************************************
+package org.opensilex.server.rest.cache;
+
+import java.util.Map;
+import org.opensilex.config.ConfigDescription;
+import org.opensilex.service.ServiceConfig;
+
+/**
+ * Configuration of the in-memory {@link CaffeineApiCacheService}.
+ */
+public interface CaffeineApiCacheConfig extends ServiceConfig {
+
+    @ConfigDescription(
+            value = "Maximum weight of the cache, shared by all categories. An entry weights its serialized size in KiB (rounded up), or an estimate of its size if it can't be serialized",
+            defaultLong = 102_400
+    )
+    public long maximumWeight();
+
+    @ConfigDescription(
+            value = "Default time to live of a cache entry (in seconds)",
+            defaultLong = 600
+    )
+    public long expireAfterWrite();
+
+    @ConfigDescription(
+            value = "Time to live of cache entries by category (in seconds), override the default time to live"
+    )
+    public Map<String, Long> categoryExpireAfterWrite();
+
+    @ConfigDescription(
+            value = "Serialized size (in bytes) from which a serializable entry is stored off-heap. Off-heap storage is disabled if 0 or less",
+            defaultInt = 0
+    )
+    public int offHeapThreshold();
+
+}
@@ -0,0 +1,388 @@
+//******************************************************************************
+//                          CaffeineApiCacheService.java
+// OpenSILEX - Licence AGPL V3.0 - https://www.gnu.org/licenses/agpl-3.0.en.html
+// Copyright © INRAE 2024
+// Contact: anne.tireau@inrae.fr, pascal.neveu@inrae.fr
+//******************************************************************************
+package org.opensilex.server.rest.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.github.benmanes.caffeine.cache.RemovalCause;
+import com.github.benmanes.caffeine.cache.Ticker;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import com.github.benmanes.caffeine.cache.stats.ConcurrentStatsCounter;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectStreamClass;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
+import java.nio.ByteBuffer;
+import java.time.Duration;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Pattern;
+import org.opensilex.OpenSilex;
+import org.opensilex.server.response.JsonResponse;
+import org.opensilex.service.BaseService;
+import org.opensilex.service.ServiceDefaultDefinition;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * In-memory cache service implementation based on Caffeine (W-TinyLFU admission and eviction policy).
+ * <p>
+ * All categories share a single bounded cache, so {@link CaffeineApiCacheConfig#maximumWeight()} bounds the whole
+ * memory used by the service. Entries are weighted by their estimated size, and expire according to the time to live
+ * of their category (see {@link CaffeineApiCacheConfig}).
+ * </p>
+ * <p>
+ * Entries are stored with the generation of their category. Clearing a category only increments its generation, so
+ * invalidation driven by {@link ApiCache#clearCategories()} does not depend on the number of cached entries : entries
+ * of a previous generation are never read again, and are removed in background. Statistics are kept by category
+ * across invalidations.
+ * </p>
+ * <p>
+ * If {@link CaffeineApiCacheConfig#offHeapThreshold()} is set, serializable values whose serialized size reaches
+ * this threshold are stored in a direct buffer outside of the Java heap, and deserialized on each retrieval.
+ * </p>
+ *
+ * See: https://github.com/ben-manes/caffeine
+ */
+@ServiceDefaultDefinition(config = CaffeineApiCacheConfig.class)
+public class CaffeineApiCacheService extends BaseService implements ApiCacheService {
+
+    /**
+     * Class Logger.
+     */
+    private static final Logger LOGGER = LoggerFactory.getLogger(CaffeineApiCacheService.class);
+
+    /**
+     * Size (in bytes) of a weight unit
+     */
+    private static final int WEIGHT_UNIT = 1024;
+
+    /**
+     * Estimated size (in bytes) of an element of a value which can't be serialized
+     */
+    private static final int ESTIMATED_ELEMENT_SIZE = 512;
+
+    private final Duration defaultExpireAfterWrite;
+
+    private final Map<String, Duration> categoryExpireAfterWrite;
+
+    private final int offHeapThreshold;
+
+    /**
+     * Executor of the cache maintenance, and of the removal of cleared entries
+     */
+    private final Executor executor;
+
+    /**
+     * Entries of all categories
+     */
+    private final Cache<CacheKey, CacheValue> cache;
+
+    /**
+     * Statistics by category, kept when a category cache is cleared
+     */
+    private final Map<String, ConcurrentStatsCounter> statsCounters = new ConcurrentHashMap<>();
+
+    /**
+     * Generation by category, incremented when a category is cleared so that a value computed before is not stored after
+     */
+    private final Map<String, AtomicLong> generations = new ConcurrentHashMap<>();
+
+    public CaffeineApiCacheService(CaffeineApiCacheConfig config) {
+        this(config, Ticker.systemTicker(), ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Use only for tests. Needed for checking expiration without waiting, and eviction without concurrency.
+     */
+    CaffeineApiCacheService(CaffeineApiCacheConfig config, Ticker ticker, Executor executor) {
+        super(config);
+        this.executor = executor;
+        this.defaultExpireAfterWrite = Duration.ofSeconds(config.expireAfterWrite());
+        this.offHeapThreshold = config.offHeapThreshold();
+
+        this.categoryExpireAfterWrite = new HashMap<>();
+        if (config.categoryExpireAfterWrite() != null) {
+            config.categoryExpireAfterWrite().forEach((category, seconds) -> {
+                categoryExpireAfterWrite.put(category, Duration.ofSeconds(seconds));
+            });
+        }
+
+        this.cache = Caffeine.newBuilder()
+                .maximumWeight(config.maximumWeight())
+                .weigher((CacheKey key, CacheValue value) -> value.weight())
+                .expireAfter(new Expiry<CacheKey, CacheValue>() {
+                    @Override
+                    public long expireAfterCreate(CacheKey key, CacheValue value, long currentTime) {
+                        return categoryExpireAfterWrite.getOrDefault(key.category(), defaultExpireAfterWrite).toNanos();
+                    }
+
+                    @Override
+                    public long expireAfterUpdate(CacheKey key, CacheValue value, long currentTime, long currentDuration) {
+                        return expireAfterCreate(key, value, currentTime);
+                    }
+
+                    @Override
+                    public long expireAfterRead(CacheKey key, CacheValue value, long currentTime, long currentDuration) {
+                        return currentDuration;
+                    }
+                })
+                .evictionListener((CacheKey key, CacheValue value, RemovalCause cause) -> {
+                    // entries of a cleared category are not counted as evicted
+                    if (key != null && value != null && key.generation() == getGeneration(key.category())) {
+                        getStatsCounter(key.category()).recordEviction(value.weight(), cause);
+                    }
+                })
+                .ticker(ticker)
+                .executor(executor)
+                .build();
+    }
+
+    @Override
+    public void shutdown() throws Exception {
+        cache.invalidateAll();
+    }
+
+    private ConcurrentStatsCounter getStatsCounter(String category) {
+        return statsCounters.computeIfAbsent(category, c -> new ConcurrentStatsCounter());
+    }
+
+    /**
+     * @return key of the entry in the current generation of the category
+     */
+    private CacheKey getCacheKey(String category, String key) {
+        return new CacheKey(category, getGeneration(category), key);
+    }
+
+    @Override
+    public boolean exists(String category, String key) {
+        return cache.asMap().containsKey(getCacheKey(category, key));
+    }
+
+    @Override
+    public Object retrieve(String category, String key) {
+        CacheValue value = cache.getIfPresent(getCacheKey(category, key));
+        if (value == null) {
+            getStatsCounter(category).recordMisses(1);
+            return null;
+        }
+        getStatsCounter(category).recordHits(1);
+
+        try {
+            return value.read();
+        } catch (IOException | ClassNotFoundException ex) {
+            LOGGER.warn("Invalid off-heap cache entry, removed from category " + category, ex);
+            remove(category, key);
+            return null;
+        }
+    }
+
+    @Override
+    public void store(String category, String key, Object value) {
+        cache.put(getCacheKey(category, key), toCacheValue(value));
+    }
+
+    @Override
+    public long getGeneration(String category) {
+        return getGenerationCounter(category).get();
+    }
+
+    private AtomicLong getGenerationCounter(String category) {
+        return generations.computeIfAbsent(category, c -> new AtomicLong());
+    }
+
+    @Override
+    public void store(String category, String key, Object value, long loadTimeNanos, long generation) {
+        if (getGeneration(category) != generation) {
+            return;
+        }
+
+        // if the category is cleared meanwhile, the entry is stored in the previous generation and is never read
+        cache.put(new CacheKey(category, generation, key), toCacheValue(value));
+        getStatsCounter(category).recordLoadSuccess(loadTimeNanos);
+    }
+
+    @Override
+    public void remove(String category, String key) {
+        cache.invalidate(getCacheKey(category, key));
+    }
+
+    @Override
+    public void remove(String category) {
+        long generation = getGenerationCounter(category).incrementAndGet();
+
+        // Entries of previous generations can't be read anymore, release their weight without blocking the caller
+        CompletableFuture.runAsync(() -> cache.asMap().keySet().removeIf(cacheKey ->
+                cacheKey.category().equals(category) && cacheKey.generation() < generation
+        ), executor);
+    }
+
+    @Override
+    public Map<Object, Object> getMatching(String category, String keyPattern) {
+        Map<Object, Object> matching = new HashMap<>();
+        long generation = getGeneration(category);
+
+        Pattern pattern = Pattern.compile(keyPattern);
+        cache.asMap().keySet().forEach(cacheKey -> {
+            if (cacheKey.category().equals(category) && cacheKey.generation() == generation && pattern.matcher(cacheKey.key()).matches()) {
+                Object value = retrieve(category, cacheKey.key());
+                if (value != null) {
+                    matching.put(cacheKey.key(), value);
+                }
+            }
+        });
+
+        return matching;
+    }
+
+    @Override
+    public Map<String, ApiCacheStatistics> getStatistics() {
+        Map<String, ApiCacheStatistics> statistics = new HashMap<>();
+        statsCounters.forEach((category, statsCounter) -> {
+            CacheStats stats = statsCounter.snapshot();
+            statistics.put(category, new ApiCacheStatistics(
+                    stats.hitCount(),
+                    stats.missCount(),
+                    stats.evictionCount(),
+                    stats.loadSuccessCount(),
+                    stats.totalLoadTime()
+            ));
+        });
+        return statistics;
+    }
+
+    /**
+     * Return the value to put in cache, weighted by its estimated size : an {@link OffHeapValue} if off-heap storage
+     * is enabled and if the value is serializable and large enough, an {@link OnHeapValue} otherwise.
+     *
+     * @param value value to cache
+     * @return value stored in cache
+     */
+    private CacheValue toCacheValue(Object value) {
+        if (!(value instanceof Serializable)) {
+            return new OnHeapValue(value, getWeight(estimateSize(value)));
+        }
+
+        try {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+                out.writeObject(value);
+            }
+            if (offHeapThreshold <= 0 || bytes.size() < offHeapThreshold) {
+                return new OnHeapValue(value, getWeight(bytes.size()));
+            }
+            return new OffHeapValue(bytes.toByteArray());
+        } catch (IOException ex) {
+            LOGGER.debug("Value can't be serialized, kept on heap", ex);
+            return new OnHeapValue(value, getWeight(estimateSize(value)));
+        }
+    }
+
+    /**
+     * @param size size in bytes
+     * @return weight of the size, rounded up
+     */
+    private static int getWeight(long size) {
+        return (int) Math.min(Integer.MAX_VALUE, 1 + size / WEIGHT_UNIT);
+    }
+
+    /**
+     * Estimate the size of a value which can't be serialized, from its number of elements
+     *
+     * @param value cached value
+     * @return estimated size in bytes
+     */
+    private static long estimateSize(Object value) {
+        if (value instanceof JsonResponse) {
+            value = ((JsonResponse<?>) value).getResult();
+        }
+
+        long elementCount = 1;
+        if (value instanceof Collection) {
+            elementCount = Math.max(1, ((Collection<?>) value).size());
+        } else if (value instanceof Map) {
+            elementCount = Math.max(1, ((Map<?, ?>) value).size());
+        } else if (value instanceof Object[]) {
+            elementCount = Math.max(1, ((Object[]) value).length);
+        }
+        return elementCount * ESTIMATED_ELEMENT_SIZE;
+    }
+
+    /**
+     * Key of an entry : its category, the generation of the category when the entry was stored, and its key in the
+     * category
+     */
+    private record CacheKey(String category, long generation, String key) {
+    }
+
+    /**
+     * Value stored in cache, with its weight
+     */
+    private interface CacheValue {
+
+        int weight();
+
+        Object read() throws IOException, ClassNotFoundException;
+    }
+
+    /**
+     * Value kept on heap, weighted by its serialized size or by its estimated size.
+     */
+    private record OnHeapValue(Object value, int weight) implements CacheValue {
+
+        @Override
+        public Object read() {
+            return value;
+        }
+    }
+
+    /**
+     * Serialized value stored in a direct buffer, outside of the Java heap.
+     * Buffer memory is released when the entry is garbage collected.
+     */
+    private static final class OffHeapValue implements CacheValue {
+
+        private final ByteBuffer buffer;
+
+        private OffHeapValue(byte[] bytes) {
+            this.buffer = ByteBuffer.allocateDirect(bytes.length);
+            this.buffer.put(bytes).flip();
+        }
+
+        @Override
+        public int weight() {
+            return getWeight(buffer.capacity());
+        }
+
+        @Override
+        public Object read() throws IOException, ClassNotFoundException {
+            byte[] bytes = new byte[buffer.capacity()];
+            // Use a duplicate so concurrent reads don't share buffer position
+            buffer.duplicate().get(bytes);
+            // Resolve classes with OpenSilex class loader, cached values may come from any module
+            try (ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(bytes)) {
+                @Override
+                protected Class<?> resolveClass(ObjectStreamClass desc) throws IOException, ClassNotFoundException {
+                    return Class.forName(desc.getName(), false, OpenSilex.getClassLoader());
+                }
+            }) {
+                return in.readObject();
+            }
+        }
+    }
+
+}
@@ -0,0 +1,28 @@
+//******************************************************************************
+//                          BackpressurePolicy.java
+// OpenSILEX - Licence AGPL V3.0 - https://www.gnu.org/licenses/agpl-3.0.en.html
+// Copyright © INRAE 2024
+// Contact: anne.tireau@inrae.fr, pascal.neveu@inrae.fr
+//******************************************************************************
+package org.opensilex.service.execution;
+
+/**
+ * Behavior of an {@link ExecutionPool} when a task is submitted while all its threads are busy and its queue is full.
+ */
+public enum BackpressurePolicy {
+
+    /**
+     * The task is run by the submitting thread, which slows down the submitter
+     */
+    CALLER_RUNS,
+
+    /**
+     * The submitting thread waits until the task can be queued
+     */
+    BLOCK,
+
+    /**
+     * The task is rejected with a {@link java.util.concurrent.RejectedExecutionException}
+     */
+    ABORT
+}
@@ -0,0 +1,411 @@
+//******************************************************************************
+//                          ExecutionPool.java
+// OpenSILEX - Licence AGPL V3.0 - https://www.gnu.org/licenses/agpl-3.0.en.html
+// Copyright © INRAE 2024
+// Contact: anne.tireau@inrae.fr, pascal.neveu@inrae.fr
+//******************************************************************************
+package org.opensilex.service.execution;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.AbstractExecutorService;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.RunnableFuture;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * <pre>
+ * Named and bounded executor, instrumented with counters.
+ *
+ * - CPU and IO pools run tasks on a fixed number of platform threads, with a bounded queue. Idle threads are stopped.
+ * - VIRTUAL pools run each task on its own virtual thread, the number of concurrent tasks is bounded by permits.
+ *
+ * When the pool is saturated, the {@link BackpressurePolicy} decides if the task is run by the caller, if the caller
+ * waits, or if the task is rejected.
+ *
+ * Submitted, completed, failed and rejected tasks are counted, as well as the time spent by tasks in the queue and
+ * running.
+ * </pre>
+ *
+ * @see ExecutionService
+ */
+public class ExecutionPool extends AbstractExecutorService {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(ExecutionPool.class);
+
+    private static final String THREAD_NAME_PREFIX = "opensilex-";
+
+    private static final boolean VIRTUAL_THREAD_SUPPORTED = checkVirtualThreadSupport();
+
+    private final String name;
+    private final ExecutionPoolType type;
+    private final BackpressurePolicy policy;
+    private final int maxConcurrency;
+    private final int queueCapacity;
+
+    /**
+     * Platform threads of CPU and IO pools
+     */
+    private final ThreadPoolExecutor threadPool;
+
+    /**
+     * Virtual threads of VIRTUAL pools, and the permits which bound the number of running tasks
+     */
+    private final ExecutorService virtualThreads;
+    private final Semaphore virtualPermits;
+
+    private final AtomicInteger activeCount = new AtomicInteger();
+    private final LongAdder submittedCount = new LongAdder();
+    private final LongAdder completedCount = new LongAdder();
+    private final LongAdder failedCount = new LongAdder();
+    private final LongAdder rejectedCount = new LongAdder();
+    private final LongAdder backpressureCount = new LongAdder();
+    private final LongAdder queueTimeNanos = new LongAdder();
+    private final LongAccumulator maxQueueTimeNanos = new LongAccumulator(Long::max, 0);
+    private final LongAdder executionTimeNanos = new LongAdder();
+
+    /**
+     * @param name           pool name, used in thread names
+     * @param type           kind of tasks run by the pool
+     * @param maxConcurrency max number of tasks running at the same time
+     * @param queueCapacity  max number of tasks waiting for a thread, ignored by VIRTUAL pools
+     * @param policy         behavior when the pool is saturated
+     */
+    public ExecutionPool(String name, ExecutionPoolType type, int maxConcurrency, int queueCapacity, BackpressurePolicy policy) {
+        this.name = name;
+        this.policy = policy;
+        this.maxConcurrency = Math.max(1, maxConcurrency);
+
+        ExecutorService virtualExecutor = type == ExecutionPoolType.VIRTUAL ? newVirtualThreadPerTaskExecutor() : null;
+        if (virtualExecutor != null) {
+            this.type = ExecutionPoolType.VIRTUAL;
+            this.queueCapacity = 0;
+            this.virtualThreads = virtualExecutor;
+            this.virtualPermits = new Semaphore(this.maxConcurrency);
+            this.threadPool = null;
+        } else {
+            if (type == ExecutionPoolType.VIRTUAL) {
+                LOGGER.info("Virtual threads are not supported by this JDK, execution pool {} uses platform threads", name);
+            }
+            this.type = type == ExecutionPoolType.VIRTUAL ? ExecutionPoolType.IO : type;
+            this.queueCapacity = Math.max(1, queueCapacity);
+            this.virtualThreads = null;
+            this.virtualPermits = null;
+
+            AtomicInteger threadCount = new AtomicInteger();
+            this.threadPool = new ThreadPoolExecutor(
+                    this.maxConcurrency,
+                    this.maxConcurrency,
+                    60L,
+                    TimeUnit.SECONDS,
+                    new ArrayBlockingQueue<>(this.queueCapacity),
+                    runnable -> {
+                        Thread thread = new Thread(runnable, THREAD_NAME_PREFIX + name + "-" + threadCount.incrementAndGet());
+                        thread.setDaemon(true);
+                        return thread;
+                    },
+                    this::onSaturation
+            );
+            this.threadPool.allowCoreThreadTimeOut(true);
+        }
+    }
+
+    /**
+     * @return an executor which starts a virtual thread for each task, or null if the JDK doesn't support them
+     */
+    private static ExecutorService newVirtualThreadPerTaskExecutor() {
+        try {
+            // Not available with the compilation target, so resolved at runtime
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (ReflectiveOperationException | UnsupportedOperationException e) {
+            return null;
+        }
+    }
+
+    private static boolean checkVirtualThreadSupport() {
+        ExecutorService executor = newVirtualThreadPerTaskExecutor();
+        if (executor == null) {
+            return false;
+        }
+        executor.shutdown();
+        return true;
+    }
+
+    /**
+     * @return true if VIRTUAL pools can use virtual threads with the current JDK
+     */
+    public static boolean isVirtualThreadSupported() {
+        return VIRTUAL_THREAD_SUPPORTED;
+    }
+
+    @Override
+    public void execute(Runnable command) {
+        Objects.requireNonNull(command);
+        InstrumentedTask task = new InstrumentedTask(command);
+        submittedCount.increment();
+
+        if (threadPool != null) {
+            threadPool.execute(task);
+        } else {
+            executeOnVirtualThread(task);
+        }
+    }
+
+    /**
+     * Called by the thread pool when all threads are busy and the queue is full
+     */
+    private void onSaturation(Runnable task, ThreadPoolExecutor executor) {
+        if (executor.isShutdown()) {
+            throw reject("is shut down");
+        }
+
+        switch (policy) {
+            case CALLER_RUNS:
+                backpressureCount.increment();
+                task.run();
+                break;
+            case BLOCK:
+                backpressureCount.increment();
+                try {
+                    executor.getQueue().put(task);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw reject("was interrupted while waiting for a free slot");
+                }
+                break;
+            default:
+                throw reject("is saturated");
+        }
+    }
+
+    private void executeOnVirtualThread(InstrumentedTask task) {
+        if (virtualThreads.isShutdown()) {
+            throw reject("is shut down");
+        }
+
+        if (!virtualPermits.tryAcquire()) {
+            switch (policy) {
+                case CALLER_RUNS:
+                    backpressureCount.increment();
+                    task.run();
+                    return;
+                case BLOCK:
+                    backpressureCount.increment();
+                    try {
+                        virtualPermits.acquire();
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        throw reject("was interrupted while waiting for a free slot");
+                    }
+                    break;
+                default:
+                    throw reject("is saturated");
+            }
+        }
+
+        try {
+            virtualThreads.execute(() -> {
+                try {
+                    task.run();
+                } finally {
+                    virtualPermits.release();
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            virtualPermits.release();
+            rejectedCount.increment();
+            throw e;
+        }
+    }
+
+    private RejectedExecutionException reject(String reason) {
+        rejectedCount.increment();
+        return new RejectedExecutionException("Execution pool " + name + " " + reason);
+    }
+
+    @Override
+    protected <T> RunnableFuture<T> newTaskFor(Callable<T> callable) {
+        return new InstrumentedFutureTask<>(callable);
+    }
+
+    @Override
+    protected <T> RunnableFuture<T> newTaskFor(Runnable runnable, T value) {
+        return new InstrumentedFutureTask<>(Executors.callable(runnable, value));
+    }
+
+    @Override
+    public void shutdown() {
+        getExecutor().shutdown();
+    }
+
+    @Override
+    public List<Runnable> shutdownNow() {
+        return getExecutor().shutdownNow();
+    }
+
+    @Override
+    public boolean isShutdown() {
+        return getExecutor().isShutdown();
+    }
+
+    @Override
+    public boolean isTerminated() {
+        return getExecutor().isTerminated();
+    }
+
+    @Override
+    public boolean awaitTermination(long timeout, TimeUnit unit) throws InterruptedException {
+        return getExecutor().awaitTermination(timeout, unit);
+    }
+
+    private ExecutorService getExecutor() {
+        return threadPool != null ? threadPool : virtualThreads;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * @return the pool type, IO if a VIRTUAL pool was requested but the JDK doesn't support virtual threads
+     */
+    public ExecutionPoolType getType() {
+        return type;
+    }
+
+    public BackpressurePolicy getPolicy() {
+        return policy;
+    }
+
+    public int getMaxConcurrency() {
+        return maxConcurrency;
+    }
+
+    public int getQueueCapacity() {
+        return queueCapacity;
+    }
+
+    /**
+     * @return number of running tasks
+     */
+    public int getActiveCount() {
+        return activeCount.get();
+    }
+
+    /**
+     * @return number of tasks waiting for a thread, or of callers waiting for a permit with VIRTUAL pools
+     */
+    public int getQueuedCount() {
+        return threadPool != null ? threadPool.getQueue().size() : virtualPermits.getQueueLength();
+    }
+
+    public long getSubmittedCount() {
+        return submittedCount.sum();
+    }
+
+    /**
+     * @return number of finished tasks, including failed ones
+     */
+    public long getCompletedCount() {
+        return completedCount.sum();
+    }
+
+    public long getFailedCount() {
+        return failedCount.sum();
+    }
+
+    public long getRejectedCount() {
+        return rejectedCount.sum();
+    }
+
+    /**
+     * @return number of tasks submitted while the pool was saturated, which were run by the caller or made it wait
+     */
+    public long getBackpressureCount() {
+        return backpressureCount.sum();
+    }
+
+    /**
+     * @return average time spent by tasks waiting for a thread (in milliseconds)
+     */
+    public double getAverageQueueTime() {
+        long startedCount = completedCount.sum() + activeCount.get();
+        return startedCount == 0 ? 0 : queueTimeNanos.sum() / (startedCount * 1_000_000d);
+    }
+
+    /**
+     * @return max time spent by a task waiting for a thread (in milliseconds)
+     */
+    public double getMaxQueueTime() {
+        return maxQueueTimeNanos.get() / 1_000_000d;
+    }
+
+    /**
+     * @return average execution time of finished tasks (in milliseconds)
+     */
+    public double getAverageExecutionTime() {
+        long finishedCount = completedCount.sum();
+        return finishedCount == 0 ? 0 : executionTimeNanos.sum() / (finishedCount * 1_000_000d);
+    }
+
+    /**
+     * Task which updates the pool counters
+     */
+    private final class InstrumentedTask implements Runnable {
+
+        private final Runnable command;
+        private final long submitTime = System.nanoTime();
+
+        private InstrumentedTask(Runnable command) {
+            this.command = command;
+        }
+
+        @Override
+        public void run() {
+            long startTime = System.nanoTime();
+            long queueTime = startTime - submitTime;
+            queueTimeNanos.add(queueTime);
+            maxQueueTimeNanos.accumulate(queueTime);
+            activeCount.incrementAndGet();
+            try {
+                command.run();
+            } catch (RuntimeException | Error e) {
+                failedCount.increment();
+                throw e;
+            } finally {
+                activeCount.decrementAndGet();
+                executionTimeNanos.add(System.nanoTime() - startTime);
+                completedCount.increment();
+            }
+        }
+    }
+
+    /**
+     * Task of {@link #submit(Callable)}, exceptions are kept by the future so they are counted here
+     */
+    private final class InstrumentedFutureTask<T> extends FutureTask<T> {
+
+        private InstrumentedFutureTask(Callable<T> callable) {
+            super(callable);
+        }
+
+        @Override
+        protected void setException(Throwable t) {
+            failedCount.increment();
+            super.setException(t);
+        }
+    }
+}
@@ -0,0 +1,29 @@
+//******************************************************************************
+//                          ExecutionPoolType.java
+// OpenSILEX - Licence AGPL V3.0 - https://www.gnu.org/licenses/agpl-3.0.en.html
+// Copyright © INRAE 2024
+// Contact: anne.tireau@inrae.fr, pascal.neveu@inrae.fr
+//******************************************************************************
+package org.opensilex.service.execution;
+
+/**
+ * Kind of work run by an {@link ExecutionPool}, which determines how its threads are created.
+ */
+public enum ExecutionPoolType {
+
+    /**
+     * Computation tasks, the pool size should not exceed the number of available processors
+     */
+    CPU,
+
+    /**
+     * Tasks which mostly wait for the databases, the file storage or the network
+     */
+    IO,
+
+    /**
+     * Tasks which mostly wait, each one runs on its own virtual thread. Only available on JDK 21 or later, an
+     * {@link #IO} pool is used otherwise.
+     */
+    VIRTUAL
+}
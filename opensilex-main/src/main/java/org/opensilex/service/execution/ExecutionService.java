@@ -0,0 +1,176 @@
+//******************************************************************************
+//                          ExecutionService.java
+// OpenSILEX - Licence AGPL V3.0 - https://www.gnu.org/licenses/agpl-3.0.en.html
+// Copyright © INRAE 2024
+// Contact: anne.tireau@inrae.fr, pascal.neveu@inrae.fr
+//******************************************************************************
+package org.opensilex.service.execution;
+
+import org.opensilex.config.InvalidConfigException;
+import org.opensilex.service.BaseService;
+import org.opensilex.service.Service;
+import org.opensilex.service.ServiceDefaultDefinition;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * <pre>
+ * Shared executors of the application, instead of thread pools created by each module or request.
+ *
+ * - Three shared pools are available : CPU-bound ({@link #getCpuPool()}), IO-bound ({@link #getIoPool()}) and
+ *   virtual threads ({@link #getVirtualPool()}), configured by {@link ExecutionServiceConfig}.
+ * - Modules which need an isolated pool (with its own size or policy) get a named pool with
+ *   {@link #getPool(String, ExecutionPoolType, int, int, BackpressurePolicy)}.
+ * - Periodic tasks are run by a shared scheduler ({@link #getScheduler()}).
+ *
+ * Pools are owned by the service : callers must not shut them down. At application shutdown, tasks are given
+ * {@link ExecutionServiceConfig#shutdownTimeout()} seconds to finish before being interrupted.
+ * </pre>
+ *
+ * @see ExecutionPool
+ */
+@ServiceDefaultDefinition(config = ExecutionServiceConfig.class)
+public class ExecutionService extends BaseService implements Service {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(ExecutionService.class);
+
+    public static final String DEFAULT_SERVICE = "execution";
+
+    public static final String CPU_POOL = "cpu";
+    public static final String IO_POOL = "io";
+    public static final String VIRTUAL_POOL = "virtual";
+
+    private static final String SCHEDULER_THREAD_NAME = "opensilex-scheduler-";
+
+    private final int cpuThreads;
+    private final int ioThreads;
+    private final int virtualThreadsMaxConcurrency;
+    private final int queueSize;
+    private final BackpressurePolicy backpressurePolicy;
+    private final int schedulerThreads;
+    private final int shutdownTimeout;
+
+    private final Map<String, ExecutionPool> pools = new ConcurrentHashMap<>();
+    private ScheduledThreadPoolExecutor scheduler;
+
+    public ExecutionService(ExecutionServiceConfig config) throws InvalidConfigException {
+        super(config);
+        this.cpuThreads = config.cpuThreads() > 0 ? config.cpuThreads() : Runtime.getRuntime().availableProcessors();
+        this.ioThreads = config.ioThreads();
+        this.virtualThreadsMaxConcurrency = config.virtualThreadsMaxConcurrency();
+        this.queueSize = config.queueSize();
+        this.schedulerThreads = Math.max(1, config.schedulerThreads());
+        this.shutdownTimeout = config.shutdownTimeout();
+
+        try {
+            this.backpressurePolicy = BackpressurePolicy.valueOf(config.backpressurePolicy().toUpperCase(Locale.ENGLISH));
+        } catch (IllegalArgumentException | NullPointerException e) {
+            throw new InvalidConfigException("Invalid backpressure policy for execution service : " + config.backpressurePolicy());
+        }
+    }
+
+    @Override
+    public void startup() throws Exception {
+        LOGGER.debug("Execution service started, virtual threads supported : {}", ExecutionPool.isVirtualThreadSupported());
+    }
+
+    /**
+     * @return the shared pool for computation tasks
+     */
+    public ExecutionPool getCpuPool() {
+        return getPool(CPU_POOL, ExecutionPoolType.CPU, cpuThreads, queueSize, backpressurePolicy);
+    }
+
+    /**
+     * @return the shared pool for tasks which wait for the databases, the file storage or the network
+     */
+    public ExecutionPool getIoPool() {
+        return getPool(IO_POOL, ExecutionPoolType.IO, ioThreads, queueSize, backpressurePolicy);
+    }
+
+    /**
+     * @return the shared pool which runs each task on a virtual thread, the IO-bound pool if the JDK doesn't support
+     * virtual threads
+     */
+    public ExecutionPool getVirtualPool() {
+        if (!ExecutionPool.isVirtualThreadSupported()) {
+            return getIoPool();
+        }
+        return getPool(VIRTUAL_POOL, ExecutionPoolType.VIRTUAL, virtualThreadsMaxConcurrency, queueSize, backpressurePolicy);
+    }
+
+    /**
+     * Get a named pool, created on first call. Parameters of next calls are ignored.
+     *
+     * @param name           pool name
+     * @param type           kind of tasks run by the pool
+     * @param maxConcurrency max number of tasks running at the same time
+     * @param queueCapacity  max number of tasks waiting for a thread
+     * @param policy         behavior when the pool is saturated
+     * @return the pool
+     */
+    public ExecutionPool getPool(String name, ExecutionPoolType type, int maxConcurrency, int queueCapacity, BackpressurePolicy policy) {
+        return pools.computeIfAbsent(name, poolName -> new ExecutionPool(poolName, type, maxConcurrency, queueCapacity, policy));
+    }
+
+    /**
+     * @return the pools created so far, sorted by name
+     */
+    public List<ExecutionPool> getPools() {
+        List<ExecutionPool> sortedPools = new ArrayList<>(pools.values());
+        sortedPools.sort(Comparator.comparing(ExecutionPool::getName));
+        return sortedPools;
+    }
+
+    /**
+     * @return the shared scheduler, periodic tasks must be short or delegate their work to a pool
+     */
+    public synchronized ScheduledExecutorService getScheduler() {
+        if (scheduler == null) {
+            AtomicInteger threadCount = new AtomicInteger();
+            scheduler = new ScheduledThreadPoolExecutor(schedulerThreads, runnable -> {
+                Thread thread = new Thread(runnable, SCHEDULER_THREAD_NAME + threadCount.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            });
+            scheduler.setRemoveOnCancelPolicy(true);
+        }
+        return scheduler;
+    }
+
+    @Override
+    public void shutdown() throws Exception {
+        List<ExecutorService> executors = new ArrayList<>(pools.values());
+        synchronized (this) {
+            if (scheduler != null) {
+                // Periodic tasks are cancelled, running ones can finish
+                executors.add(scheduler);
+            }
+        }
+        executors.forEach(ExecutorService::shutdown);
+
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(shutdownTimeout);
+        for (ExecutorService executor : executors) {
+            long remaining = deadline - System.nanoTime();
+            if (!executor.awaitTermination(Math.max(0, remaining), TimeUnit.NANOSECONDS)) {
+                int droppedCount = executor.shutdownNow().size();
+                LOGGER.warn("Executor {} not terminated after {} s, running tasks are interrupted and {} queued task(s) dropped",
+                        executor instanceof ExecutionPool ? ((ExecutionPool) executor).getName() : "scheduler",
+                        shutdownTimeout,
+                        droppedCount);
+            }
+        }
+    }
+}
@@ -0,0 +1,58 @@
+//******************************************************************************
+//                          ExecutionServiceConfig.java
+// OpenSILEX - Licence AGPL V3.0 - https://www.gnu.org/licenses/agpl-3.0.en.html
+// Copyright © INRAE 2024
+// Contact: anne.tireau@inrae.fr, pascal.neveu@inrae.fr
+//******************************************************************************
+package org.opensilex.service.execution;
+
+import org.opensilex.config.ConfigDescription;
+import org.opensilex.service.ServiceConfig;
+
+/**
+ * Configuration of the shared {@link ExecutionService} pools.
+ */
+public interface ExecutionServiceConfig extends ServiceConfig {
+
+    @ConfigDescription(
+            value = "Number of threads of the shared CPU-bound pool, number of available processors if 0 or less",
+            defaultInt = 0
+    )
+    int cpuThreads();
+
+    @ConfigDescription(
+            value = "Number of threads of the shared IO-bound pool",
+            defaultInt = 16
+    )
+    int ioThreads();
+
+    @ConfigDescription(
+            value = "Max number of tasks running at the same time on the shared virtual threads pool (JDK 21 or later, the IO-bound pool is used otherwise)",
+            defaultInt = 256
+    )
+    int virtualThreadsMaxConcurrency();
+
+    @ConfigDescription(
+            value = "Max number of tasks waiting for a thread in each shared pool",
+            defaultInt = 1000
+    )
+    int queueSize();
+
+    @ConfigDescription(
+            value = "Behavior of the shared pools when they are saturated : CALLER_RUNS (the task is run by the caller), BLOCK (the caller waits) or ABORT (the task is rejected)",
+            defaultString = "CALLER_RUNS"
+    )
+    String backpressurePolicy();
+
+    @ConfigDescription(
+            value = "Number of threads used to run scheduled tasks",
+            defaultInt = 4
+    )
+    int schedulerThreads();
+
+    @ConfigDescription(
+            value = "Time given to running and queued tasks to finish when the application stops (in seconds)",
+            defaultInt = 30
+    )
+    int shutdownTimeout();
+}
@@ -15,5 +15,12 @@ public enum PaginatedSearchStrategy {
     /**
      * Run a count query before the search
      */
-    COUNT_QUERY_BEFORE_SEARCH
+    COUNT_QUERY_BEFORE_SEARCH,
+
+    /**
+     * Keyset (or seek) pagination : no count query, and the next page is read just after the last element of the
+     * previous page, which is identified by a continuation token, instead of skipping all the elements of the previous pages.
+     * Like {@link #HAS_NEXT_PAGE}, only check if there exists a next page during the search.
+     */
+    KEYSET
 }
@@ -1,6 +1,8 @@
 package org.opensilex.utils.pagination;
 
 import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Supplier;
 import java.util.stream.Stream;
 
 /**
@@ -15,6 +17,12 @@ import java.util.stream.Stream;
  */
 public class StreamWithPagination<T> extends PaginatedIterable<T, Stream<T>> {
 
+    /**
+     * Compute the next page token with a {@link PaginatedSearchStrategy#KEYSET} pagination.
+     * The token depends on the last element of the page, so it's only available once the stream has been consumed.
+     */
+    private Supplier<String> nextPageTokenSupplier;
+
     /**
      * Constructor for an empty stream. Just keep the information about the provided pagination
      */
@@ -57,5 +65,38 @@ public class StreamWithPagination<T> extends PaginatedIterable<T, Stream<T>> {
         getSource().forEach(action);
     }
 
+    /**
+     * Lazily convert each element of the stream, keeping the pagination information.
+     * No element is read from the source until the returned stream is consumed.
+     *
+     * @param <U> Conversion result class
+     * @param converter Method to convert from current model to new one
+     * @return new paginated stream of conversion result class
+     */
+    public <U> StreamWithPagination<U> map(Function<T, U> converter) {
+        StreamWithPagination<U> mapped;
+        if (getPaginationStrategy() == PaginatedSearchStrategy.HAS_NEXT_PAGE || getPaginationStrategy() == PaginatedSearchStrategy.KEYSET) {
+            mapped = new StreamWithPagination<>(getSource().map(converter), getPage(), getPageSize(), 0);
+        } else {
+            mapped = new StreamWithPagination<>(getSource().map(converter), getPage(), getPageSize(), getTotal(), getLimitCount());
+        }
+        mapped.setPaginationStrategy(getPaginationStrategy());
+        mapped.setNextPageTokenSupplier(nextPageTokenSupplier);
+        return mapped;
+    }
+
+    /**
+     * @return the token of the next page with a {@link PaginatedSearchStrategy#KEYSET} pagination, or null.
+     * Must be called after the consumption of the stream
+     */
+    public String getNextPageToken() {
+        return nextPageTokenSupplier == null ? null : nextPageTokenSupplier.get();
+    }
+
+    public StreamWithPagination<T> setNextPageTokenSupplier(Supplier<String> nextPageTokenSupplier) {
+        this.nextPageTokenSupplier = nextPageTokenSupplier;
+        return this;
+    }
+
 
 }
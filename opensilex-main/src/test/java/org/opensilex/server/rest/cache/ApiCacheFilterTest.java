@@ -0,0 +1,164 @@
+//******************************************************************************
+//                          ApiCacheFilterTest.java
+// OpenSILEX - Licence AGPL V3.0 - https://www.gnu.org/licenses/agpl-3.0.en.html
+// Copyright © INRAE 2024
+// Contact: anne.tireau@inrae.fr, pascal.neveu@inrae.fr
+//******************************************************************************
+package org.opensilex.server.rest.cache;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import javax.ws.rs.HttpMethod;
+import javax.ws.rs.container.ContainerRequestContext;
+import javax.ws.rs.container.ContainerResponseContext;
+import javax.ws.rs.container.ResourceInfo;
+import javax.ws.rs.core.Request;
+import javax.ws.rs.core.Response;
+import javax.ws.rs.core.UriInfo;
+import java.lang.reflect.Field;
+import java.net.URI;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.Assert.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests of {@link ApiCacheFilter} with a {@link CaffeineApiCacheService} : responses of GET methods are cached,
+ * and writes clear the categories of their {@link ApiCache#clearCategories()}.
+ */
+public class ApiCacheFilterTest {
+
+    /**
+     * Annotated methods used as matched resource methods
+     */
+    private static class CachedResource {
+
+        @ApiCache(category = "list")
+        public void search() {
+        }
+
+        @ApiCache(category = "item", clearCategories = {"list"})
+        public void update() {
+        }
+    }
+
+    private ApiCacheFilter filter;
+    private ResourceInfo resourceInfo;
+    private ApiCacheService cache;
+
+    /**
+     * Response of the last request answered by the cache
+     */
+    private Response cachedResponse;
+
+    @Before
+    public void setUp() throws Exception {
+        CaffeineApiCacheConfig config = mock(CaffeineApiCacheConfig.class);
+        when(config.maximumWeight()).thenReturn(100L);
+        when(config.expireAfterWrite()).thenReturn(600L);
+        cache = new CaffeineApiCacheService(config);
+
+        resourceInfo = mock(ResourceInfo.class);
+        filter = new ApiCacheFilter();
+        setField("cache", cache);
+        setField("resourceInfo", resourceInfo);
+    }
+
+    private void setField(String name, Object value) throws Exception {
+        Field field = ApiCacheFilter.class.getDeclaredField(name);
+        field.setAccessible(true);
+        field.set(filter, value);
+    }
+
+    /**
+     * @return a request on the given resource method, which keeps its properties
+     */
+    private ContainerRequestContext newRequest(String httpMethod, String resourceMethod) throws Exception {
+        matchResourceMethod(resourceMethod);
+
+        Request request = mock(Request.class);
+        when(request.getMethod()).thenReturn(httpMethod);
+        UriInfo uriInfo = mock(UriInfo.class);
+        when(uriInfo.getRequestUri()).thenReturn(URI.create("http://localhost/test/" + resourceMethod));
+
+        ContainerRequestContext context = mock(ContainerRequestContext.class);
+        when(context.getRequest()).thenReturn(request);
+        when(context.getUriInfo()).thenReturn(uriInfo);
+        when(context.getHeaderString(anyString())).thenReturn("en");
+
+        Map<String, Object> properties = new HashMap<>();
+        doAnswer(invocation -> properties.put(invocation.getArgument(0), invocation.getArgument(1)))
+                .when(context).setProperty(anyString(), any());
+        when(context.getProperty(anyString())).thenAnswer(invocation -> properties.get(invocation.<String>getArgument(0)));
+        doAnswer(invocation -> cachedResponse = invocation.getArgument(0)).when(context).abortWith(any());
+
+        return context;
+    }
+
+    private void matchResourceMethod(String resourceMethod) throws Exception {
+        when(resourceInfo.getResourceMethod()).thenReturn(CachedResource.class.getMethod(resourceMethod));
+    }
+
+    private static ContainerResponseContext newResponse(Object entity) {
+        ContainerResponseContext response = mock(ContainerResponseContext.class);
+        when(response.getStatus()).thenReturn(Response.Status.OK.getStatusCode());
+        when(response.hasEntity()).thenReturn(true);
+        when(response.getEntity()).thenReturn(entity);
+        return response;
+    }
+
+    /**
+     * Run a GET request on the search method, answered by the cache if possible
+     *
+     * @param entity entity returned by the method if the response is not cached
+     * @return the cached entity, or null if the method was called
+     */
+    private Object search(Object entity) throws Exception {
+        cachedResponse = null;
+        ContainerRequestContext request = newRequest(HttpMethod.GET, "search");
+        filter.filter(request);
+        if (cachedResponse != null) {
+            return cachedResponse.getEntity();
+        }
+        filter.filter(request, newResponse(entity));
+        return null;
+    }
+
+    private void update() throws Exception {
+        ContainerRequestContext request = newRequest(HttpMethod.PUT, "update");
+        filter.filter(request);
+        filter.filter(request, newResponse("updated"));
+    }
+
+    @Test
+    public void testResponseIsCached() throws Exception {
+        assertNull(search("result"));
+        assertEquals("result", search("other result"));
+        assertEquals(1, cache.getStatistics().get("list").getLoadCount());
+    }
+
+    @Test
+    public void testWriteClearsCategories() throws Exception {
+        search("result");
+        update();
+        assertNull("The write cleared the list category", search("new result"));
+        assertEquals("new result", search("other result"));
+    }
+
+    @Test
+    public void testResponseComputedDuringClearIsNotCached() throws Exception {
+        // cache miss, the response is computed while a write clears the category
+        ContainerRequestContext request = newRequest(HttpMethod.GET, "search");
+        filter.filter(request);
+        update();
+        matchResourceMethod("search");
+        filter.filter(request, newResponse("stale result"));
+
+        assertNull("The response computed before the clear is not cached", search("new result"));
+        assertEquals("new result", search("other result"));
+    }
+}
@@ -0,0 +1,183 @@
+//******************************************************************************
+//                          CaffeineApiCacheServiceTest.java
+// OpenSILEX - Licence AGPL V3.0 - https://www.gnu.org/licenses/agpl-3.0.en.html
+// Copyright © INRAE 2024
+// Contact: anne.tireau@inrae.fr, pascal.neveu@inrae.fr
+//******************************************************************************
+package org.opensilex.server.rest.cache;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.Assert.*;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Unit tests of {@link CaffeineApiCacheService}, with a manual ticker and a maintenance run by the calling thread.
+ */
+public class CaffeineApiCacheServiceTest {
+
+    private static final String CATEGORY = "list";
+    private static final String OTHER_CATEGORY = "item";
+    private static final String SHORT_CATEGORY = "short";
+
+    private final AtomicLong time = new AtomicLong();
+
+    private CaffeineApiCacheConfig config;
+
+    @Before
+    public void setUp() {
+        config = mock(CaffeineApiCacheConfig.class);
+        when(config.maximumWeight()).thenReturn(100L);
+        when(config.expireAfterWrite()).thenReturn(600L);
+        when(config.categoryExpireAfterWrite()).thenReturn(Map.of(SHORT_CATEGORY, 10L));
+        when(config.offHeapThreshold()).thenReturn(0);
+    }
+
+    private CaffeineApiCacheService newCache() {
+        return new CaffeineApiCacheService(config, time::get, Runnable::run);
+    }
+
+    private void advance(long seconds) {
+        time.addAndGet(TimeUnit.SECONDS.toNanos(seconds));
+    }
+
+    @Test
+    public void testStoreAndRetrieve() {
+        CaffeineApiCacheService cache = newCache();
+        List<String> value = List.of("a", "b");
+
+        assertNull(cache.retrieve(CATEGORY, "key"));
+        cache.store(CATEGORY, "key", value);
+
+        assertTrue(cache.exists(CATEGORY, "key"));
+        assertSame(value, cache.retrieve(CATEGORY, "key"));
+        assertFalse("Keys are stored by category", cache.exists(OTHER_CATEGORY, "key"));
+        assertEquals(Collections.singletonMap("key", value), cache.getMatching(CATEGORY, "k.*"));
+
+        cache.remove(CATEGORY, "key");
+        assertFalse(cache.exists(CATEGORY, "key"));
+
+        ApiCacheStatistics statistics = cache.getStatistics().get(CATEGORY);
+        assertEquals(2, statistics.getHitCount());
+        assertEquals(1, statistics.getMissCount());
+    }
+
+    @Test
+    public void testCategoryTimeToLive() {
+        CaffeineApiCacheService cache = newCache();
+        cache.store(CATEGORY, "key", "value");
+        cache.store(SHORT_CATEGORY, "key", "value");
+
+        advance(11);
+        assertNull("Entries expire after the time to live of their category", cache.retrieve(SHORT_CATEGORY, "key"));
+        assertEquals("value", cache.retrieve(CATEGORY, "key"));
+
+        advance(600);
+        assertNull("Entries expire after the default time to live", cache.retrieve(CATEGORY, "key"));
+    }
+
+    @Test
+    public void testRemoveCategory() {
+        CaffeineApiCacheService cache = newCache();
+        cache.store(CATEGORY, "key", "value");
+        cache.store(OTHER_CATEGORY, "key", "value");
+        cache.retrieve(CATEGORY, "key");
+
+        cache.remove(CATEGORY);
+        assertFalse(cache.exists(CATEGORY, "key"));
+        assertNull(cache.retrieve(CATEGORY, "key"));
+        assertTrue(cache.getMatching(CATEGORY, ".*").isEmpty());
+        assertEquals("Other categories are kept", "value", cache.retrieve(OTHER_CATEGORY, "key"));
+
+        assertEquals("Statistics are kept after a clear", 1, cache.getStatistics().get(CATEGORY).getHitCount());
+
+        cache.store(CATEGORY, "key", "new value");
+        assertEquals("new value", cache.retrieve(CATEGORY, "key"));
+    }
+
+    @Test
+    public void testLoadBeforeRemovedCategoryIsNotStored() {
+        CaffeineApiCacheService cache = newCache();
+
+        long generation = cache.getGeneration(CATEGORY);
+        cache.remove(CATEGORY);
+        assertNotEquals(generation, cache.getGeneration(CATEGORY));
+
+        cache.store(CATEGORY, "key", "stale value", 1_000, generation);
+        assertNull("A value computed before the clear is not stored", cache.retrieve(CATEGORY, "key"));
+        assertEquals(0, cache.getStatistics().get(CATEGORY).getLoadCount());
+
+        cache.store(CATEGORY, "key", "value", 1_000, cache.getGeneration(CATEGORY));
+        assertEquals("value", cache.retrieve(CATEGORY, "key"));
+        assertEquals(1, cache.getStatistics().get(CATEGORY).getLoadCount());
+        assertEquals(1_000, cache.getStatistics().get(CATEGORY).getTotalLoadTime());
+    }
+
+    @Test
+    public void testWeightIsSharedByCategories() {
+        when(config.maximumWeight()).thenReturn(10L);
+        CaffeineApiCacheService cache = newCache();
+
+        for (int i = 0; i < 20; i++) {
+            cache.store(CATEGORY, "key" + i, "value");
+            cache.store(OTHER_CATEGORY, "key" + i, "value");
+        }
+
+        int cachedCount = 0;
+        for (int i = 0; i < 20; i++) {
+            cachedCount += cache.exists(CATEGORY, "key" + i) ? 1 : 0;
+            cachedCount += cache.exists(OTHER_CATEGORY, "key" + i) ? 1 : 0;
+        }
+        assertTrue("Entries of all categories fit in the maximum weight : " + cachedCount, cachedCount <= 10);
+    }
+
+    @Test
+    public void testValuesAreWeightedBySize() {
+        when(config.maximumWeight()).thenReturn(10L);
+        CaffeineApiCacheService cache = newCache();
+
+        cache.store(CATEGORY, "small", "value");
+        assertTrue(cache.exists(CATEGORY, "small"));
+
+        // 20 KiB once serialized
+        cache.store(CATEGORY, "serializable", "v".repeat(20 * 1024));
+        assertFalse("A value larger than the maximum weight is not kept", cache.exists(CATEGORY, "serializable"));
+
+        // not serializable, weighted by its number of elements
+        List<Object> notSerializable = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            notSerializable.add(new Object());
+        }
+        cache.store(CATEGORY, "notSerializable", notSerializable);
+        assertFalse(cache.exists(CATEGORY, "notSerializable"));
+
+        assertTrue(cache.exists(CATEGORY, "small"));
+    }
+
+    @Test
+    public void testOffHeapValues() {
+        when(config.offHeapThreshold()).thenReturn(1);
+        CaffeineApiCacheService cache = newCache();
+
+        ArrayList<String> value = new ArrayList<>(List.of("a", "b"));
+        cache.store(CATEGORY, "key", value);
+
+        Object retrieved = cache.retrieve(CATEGORY, "key");
+        assertEquals(value, retrieved);
+        assertNotSame("Off-heap values are deserialized on each retrieval", value, retrieved);
+        assertNotSame(retrieved, cache.retrieve(CATEGORY, "key"));
+
+        Object notSerializable = new Object();
+        cache.store(CATEGORY, "notSerializable", notSerializable);
+        assertSame("Values which can't be serialized are kept on heap", notSerializable, cache.retrieve(CATEGORY, "notSerializable"));
+    }
+}
@@ -0,0 +1,78 @@
+//******************************************************************************
+//                          ExecutionPoolTest.java
+// OpenSILEX - Licence AGPL V3.0 - https://www.gnu.org/licenses/agpl-3.0.en.html
+// Copyright © INRAE 2024
+// Contact: anne.tireau@inrae.fr, pascal.neveu@inrae.fr
+//******************************************************************************
+package org.opensilex.service.execution;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+public class ExecutionPoolTest {
+
+    @Test
+    public void countTasks() throws Exception {
+        ExecutionPool pool = new ExecutionPool("test", ExecutionPoolType.CPU, 2, 10, BackpressurePolicy.ABORT);
+        try {
+            Assert.assertEquals(Integer.valueOf(42), pool.submit(() -> 42).get());
+
+            Future<?> failure = pool.submit(() -> {
+                throw new IllegalStateException();
+            });
+            Assert.assertThrows(ExecutionException.class, failure::get);
+
+            pool.shutdown();
+            Assert.assertTrue(pool.awaitTermination(10, TimeUnit.SECONDS));
+
+            Assert.assertEquals(2, pool.getSubmittedCount());
+            Assert.assertEquals(2, pool.getCompletedCount());
+            Assert.assertEquals(1, pool.getFailedCount());
+            Assert.assertEquals(0, pool.getActiveCount());
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    @Test
+    public void applyBackpressurePolicy() throws Exception {
+        ExecutionPool abortPool = new ExecutionPool("abort", ExecutionPoolType.IO, 1, 1, BackpressurePolicy.ABORT);
+        ExecutionPool callerRunsPool = new ExecutionPool("caller-runs", ExecutionPoolType.IO, 1, 1, BackpressurePolicy.CALLER_RUNS);
+        CountDownLatch release = new CountDownLatch(1);
+        try {
+            // one running task and one queued task saturate the pools
+            for (ExecutionPool pool : new ExecutionPool[]{abortPool, callerRunsPool}) {
+                pool.execute(() -> awaitQuietly(release));
+                pool.execute(() -> awaitQuietly(release));
+            }
+
+            Assert.assertThrows(RejectedExecutionException.class, () -> abortPool.execute(() -> {
+            }));
+            Assert.assertEquals(1, abortPool.getRejectedCount());
+
+            AtomicReference<Thread> runningThread = new AtomicReference<>();
+            callerRunsPool.execute(() -> runningThread.set(Thread.currentThread()));
+            Assert.assertEquals(Thread.currentThread(), runningThread.get());
+            Assert.assertEquals(1, callerRunsPool.getBackpressureCount());
+        } finally {
+            release.countDown();
+            abortPool.shutdownNow();
+            callerRunsPool.shutdownNow();
+        }
+    }
+
+    private static void awaitQuietly(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -134,12 +134,11 @@ public class MongoDBService extends BaseService {
     }
 
     /**
-     * @see <a href="https://www.mongodb.com/docs/drivers/java/sync/current/fundamentals/connection/mongoclientsettings/">MongoClient Settings</a>
+     * @return the codec registry used by clients, with custom codecs for URI, Object and GeoJson. Can be used to
+     * encode models outside of a database (to a file by example).
      */
-    public static MongoClient buildMongoDBClient(MongoDBConfig config) throws IOException {
-
-        // Define custom codec registry for URI, Object and GeoJson
-        CodecRegistry codecRegistry = CodecRegistries.fromRegistries(
+    public static CodecRegistry buildCodecRegistry() {
+        return CodecRegistries.fromRegistries(
                 MongoClientSettings.getDefaultCodecRegistry(),
                 CodecRegistries.fromCodecs(
                         new URICodec(),
@@ -151,13 +150,19 @@ public class MongoDBService extends BaseService {
                         PojoCodecProvider.builder().register(URI.class).automatic(true).build()
                 )
         );
+    }
+
+    /**
+     * @see <a href="https://www.mongodb.com/docs/drivers/java/sync/current/fundamentals/connection/mongoclientsettings/">MongoClient Settings</a>
+     */
+    public static MongoClient buildMongoDBClient(MongoDBConfig config) throws IOException {
 
         // Build client : set server, codec and socket settings
         MongoClientSettings.Builder clientBuilder = MongoClientSettings.builder()
                 .applyToClusterSettings(builder -> builder
                         .hosts(Collections.singletonList(new ServerAddress(config.host(), config.port())))
                         .serverSelectionTimeout(config.serverSelectionTimeoutMs(),TimeUnit.MILLISECONDS)
-                ).codecRegistry(codecRegistry)
+                ).codecRegistry(buildCodecRegistry())
                 .applyToSocketSettings(builder -> builder
                         .connectTimeout(config.connectTimeoutMs(), TimeUnit.MILLISECONDS)
                         .readTimeout(config.readTimeoutMs(), TimeUnit.MILLISECONDS)
@@ -0,0 +1,218 @@
+/*
+ *  *************************************************************************************
+ *  MongoKeysetToken.java
+ *  OpenSILEX - Licence AGPL V3.0 -  https://www.gnu.org/licenses/agpl-3.0.en.html
+ * Copyright @ INRAE 2024
+ * Contact :  user@inrae.fr, anne.tireau@inrae.fr, pascal.neveu@inrae.fr
+ * ************************************************************************************
+ */
+
+package org.opensilex.nosql.mongodb.dao;
+
+import com.mongodb.client.model.Filters;
+import org.bson.BsonArray;
+import org.bson.BsonDocument;
+import org.bson.BsonInt32;
+import org.bson.BsonInvalidOperationException;
+import org.bson.BsonNull;
+import org.bson.BsonType;
+import org.bson.BsonValue;
+import org.bson.conversions.Bson;
+import org.bson.json.JsonMode;
+import org.bson.json.JsonParseException;
+import org.bson.json.JsonWriterSettings;
+import org.opensilex.utils.pagination.PaginatedSearchStrategy;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * <pre>
+ * Opaque continuation token used by the {@link PaginatedSearchStrategy#KEYSET} pagination.
+ *
+ * The token stores the sort used by the search and the values of each sort field for the last document of a page.
+ * The next page is read with a filter which only selects the documents placed after these values according to the sort,
+ * instead of skipping all the documents of the previous pages.
+ * As long as the sort is supported by an index, reading the page N costs the same as reading the first page.
+ *
+ * The sort must end with an unique field (the URI), so that two documents never have the same sort values.
+ * Values are encoded with the extended JSON mode, in order to keep their BSON type (dates, numbers).
+ *
+ * A field can hold values of several BSON types (ex: the value of a data). MongoDB sorts them by type bracket first
+ * (numbers, then strings, ..., then dates), but $gt and $lt only compare values of the same bracket : the filter also
+ * selects documents whose value has a type placed after the bracket of the last value.
+ * Sort on array fields is not supported.
+ * </pre>
+ *
+ * @see MongoSearchQuery#setContinuationToken(String)
+ */
+public final class MongoKeysetToken {
+
+    private static final String SORT_KEY = "s";
+    private static final String VALUES_KEY = "v";
+
+    /**
+     * BSON types by bracket, in the MongoDB comparison order. Null and missing values are handled separately.
+     *
+     * @see <a href="https://www.mongodb.com/docs/manual/reference/bson-type-comparison-order/">BSON comparison order</a>
+     */
+    private static final List<List<BsonType>> TYPE_BRACKETS = List.of(
+            List.of(BsonType.MIN_KEY),
+            List.of(BsonType.INT32, BsonType.INT64, BsonType.DOUBLE, BsonType.DECIMAL128),
+            List.of(BsonType.SYMBOL, BsonType.STRING),
+            List.of(BsonType.DOCUMENT),
+            List.of(BsonType.ARRAY),
+            List.of(BsonType.BINARY),
+            List.of(BsonType.OBJECT_ID),
+            List.of(BsonType.BOOLEAN),
+            List.of(BsonType.DATE_TIME),
+            List.of(BsonType.TIMESTAMP),
+            List.of(BsonType.REGULAR_EXPRESSION),
+            List.of(BsonType.MAX_KEY)
+    );
+
+    private static final JsonWriterSettings JSON_SETTINGS = JsonWriterSettings.builder()
+            .outputMode(JsonMode.EXTENDED)
+            .build();
+
+    private MongoKeysetToken() {
+    }
+
+    /**
+     * @param sort         the sort used by the search
+     * @param lastDocument the last document of the current page
+     * @return the token which allows to read the page after this document
+     */
+    public static String encode(BsonDocument sort, BsonDocument lastDocument) {
+        BsonArray values = new BsonArray();
+        for (String field : sort.keySet()) {
+            values.add(getValue(lastDocument, field));
+        }
+
+        BsonDocument token = new BsonDocument(SORT_KEY, sort).append(VALUES_KEY, values);
+        return Base64.getUrlEncoder()
+                .withoutPadding()
+                .encodeToString(token.toJson(JSON_SETTINGS).getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * @param token the token returned by a previous search
+     * @param sort  the sort used by the current search
+     * @return a filter which selects the documents placed after the document stored in the token, according the sort
+     * @throws IllegalArgumentException if the token can't be decoded or if it was not built with the same sort
+     */
+    public static Bson getSeekFilter(String token, BsonDocument sort) throws IllegalArgumentException {
+        BsonDocument decoded;
+        try {
+            String json = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            decoded = BsonDocument.parse(json);
+        } catch (IllegalArgumentException | JsonParseException | BsonInvalidOperationException e) {
+            throw new IllegalArgumentException("Invalid continuation token : " + token, e);
+        }
+
+        if (!sort.equals(decoded.get(SORT_KEY)) || !decoded.isArray(VALUES_KEY) || decoded.getArray(VALUES_KEY).size() != sort.size()) {
+            throw new IllegalArgumentException("Continuation token doesn't match the search sort : " + token);
+        }
+        List<BsonValue> values = decoded.getArray(VALUES_KEY).getValues();
+
+        // For sort fields (f1, f2, ..., fn) and last values (v1, v2, ..., vn), select documents such as :
+        // f1 after v1 OR (f1 = v1 AND f2 after v2) OR ... OR (f1 = v1 AND ... AND fn after vn)
+        List<Bson> branches = new ArrayList<>(sort.size());
+        List<Bson> equalities = new ArrayList<>(sort.size());
+
+        int i = 0;
+        for (Map.Entry<String, BsonValue> sortField : sort.entrySet()) {
+            String field = sortField.getKey();
+            BsonValue value = values.get(i++);
+            boolean ascending = sortField.getValue().asNumber().intValue() >= 0;
+
+            Bson afterFilter = getAfterFilter(field, value, ascending);
+            if (afterFilter != null) {
+                List<Bson> branch = new ArrayList<>(equalities);
+                branch.add(afterFilter);
+                branches.add(branch.size() == 1 ? afterFilter : Filters.and(branch));
+            }
+            equalities.add(Filters.eq(field, value));
+        }
+
+        if (branches.isEmpty()) {
+            // no document can be placed after the last one
+            return Filters.expr(false);
+        }
+        return branches.size() == 1 ? branches.get(0) : Filters.or(branches);
+    }
+
+    /**
+     * Null (or missing) values are placed before any other value with an ascending sort, and after any other value
+     * with a descending sort.
+     *
+     * @return a filter on documents placed strictly after the value, or null if no document can be placed after it
+     */
+    private static Bson getAfterFilter(String field, BsonValue value, boolean ascending) {
+        if (value.isNull()) {
+            return ascending ? Filters.ne(field, null) : null;
+        }
+
+        List<Bson> filters = new ArrayList<>();
+        filters.add(ascending ? Filters.gt(field, value) : Filters.lt(field, value));
+
+        // values of the brackets placed after the bracket of the value
+        int bracket = getTypeBracket(value.getBsonType());
+        if (bracket >= 0) {
+            List<BsonType> typesAfter = new ArrayList<>();
+            List<List<BsonType>> bracketsAfter = ascending ?
+                    TYPE_BRACKETS.subList(bracket + 1, TYPE_BRACKETS.size()) :
+                    TYPE_BRACKETS.subList(0, bracket);
+            bracketsAfter.forEach(typesAfter::addAll);
+
+            if (!typesAfter.isEmpty()) {
+                filters.add(getTypeFilter(field, typesAfter));
+            }
+        }
+
+        if (!ascending) {
+            filters.add(Filters.eq(field, null));
+        }
+        return filters.size() == 1 ? filters.get(0) : Filters.or(filters);
+    }
+
+    /**
+     * @return the index of the bracket of the type in {@link #TYPE_BRACKETS}, or -1 if the type is not ordered
+     */
+    private static int getTypeBracket(BsonType type) {
+        for (int i = 0; i < TYPE_BRACKETS.size(); i++) {
+            if (TYPE_BRACKETS.get(i).contains(type)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * @return a filter on documents whose field has one of the types
+     */
+    private static Bson getTypeFilter(String field, List<BsonType> types) {
+        BsonArray typeCodes = new BsonArray();
+        types.forEach(type -> typeCodes.add(new BsonInt32(type.getValue())));
+        return new BsonDocument(field, new BsonDocument("$type", typeCodes));
+    }
+
+    /**
+     * @param document the document
+     * @param path     the field path, with a '.' between each nested field name
+     * @return the value of the field, or {@link BsonNull#VALUE} if the field is missing
+     */
+    private static BsonValue getValue(BsonDocument document, String path) {
+        BsonValue value = document;
+        for (String field : path.split("\\.")) {
+            if (value == null || !value.isDocument()) {
+                return BsonNull.VALUE;
+            }
+            value = value.asDocument().get(field);
+        }
+        return value == null ? BsonNull.VALUE : value;
+    }
+}
@@ -13,6 +13,8 @@ import com.mongodb.client.result.InsertOneResult;
 import org.apache.commons.collections4.CollectionUtils;
 import org.apache.commons.lang3.StringUtils;
 import org.apache.jena.arq.querybuilder.Order;
+import org.bson.BsonDocument;
+import org.bson.BsonDocumentWrapper;
 import org.bson.BsonValue;
 import org.bson.Document;
 import org.bson.conversions.Bson;
@@ -39,6 +41,8 @@ import java.net.URISyntaxException;
 import java.time.Instant;
 import java.util.*;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
 import java.util.function.Function;
 import java.util.stream.Stream;
 import java.util.stream.StreamSupport;
@@ -47,6 +51,7 @@ import static com.mongodb.client.model.Filters.eq;
 import static org.opensilex.nosql.mongodb.logging.MongoLogger.*;
 import static org.opensilex.utils.pagination.PaginatedSearchStrategy.COUNT_QUERY_BEFORE_SEARCH;
 import static org.opensilex.utils.pagination.PaginatedSearchStrategy.HAS_NEXT_PAGE;
+import static org.opensilex.utils.pagination.PaginatedSearchStrategy.KEYSET;
 
 /**
  * Implementation of {@link MongoReadDao} and {@link MongoWriteDao} for a given T model inside a {@link MongoCollection} of T
@@ -501,7 +506,7 @@ public class MongoReadWriteDao<T extends MongoModel, F extends MongoSearchFilter
      * @apiNote This method return the {@link Bson} returned by {@link #filterToBson(MongoSearchFilter)}, which means
      * that delete and search use the same filter.
      */
-    private Bson deleteFilterToDocument(F deleteFilter) throws MongoException {
+    protected final Bson deleteFilterToDocument(F deleteFilter) throws MongoException {
         List<Bson> bsonFilters = getBsonFilters(deleteFilter);
         if (CollectionUtils.isEmpty(bsonFilters)) {
             throw new IllegalArgumentException("You can't provide an empty filter when deleting documents inside a collection");
@@ -624,20 +629,37 @@ public class MongoReadWriteDao<T extends MongoModel, F extends MongoSearchFilter
 
         F filter = query.getFilter();
         int limit = filter.getPageSize();
+        int skip = filter.getPage() * filter.getPageSize();
+        Bson filterBson = filter.getFilterBson();
+        Document sort;
 
         // just ask the database for one more element in order to check if there are other result after the current page
         if (query.getPaginationStrategy() == HAS_NEXT_PAGE) {
             limit++;
         }
 
+        if (query.getPaginationStrategy() == KEYSET) {
+            if (limit > 0) {
+                limit++;
+            }
+            // no skip : only read documents placed after the last document of the previous page
+            skip = 0;
+            sort = buildKeysetSort(filter);
+            if (query.getContinuationToken() != null) {
+                filterBson = Filters.and(filterBson, MongoKeysetToken.getSeekFilter(query.getContinuationToken(), sort.toBsonDocument()));
+            }
+        } else {
+            sort = buildSort(filter.getOrderByList());
+        }
+
         // search with filter and session
         FindIterable<T> queryResult = query.getSession() == null ?
-                collection.find(query.getFilter().getFilterBson()) :
-                collection.find(query.getSession(), query.getFilter().getFilterBson());
+                collection.find(filterBson) :
+                collection.find(query.getSession(), filterBson);
 
         // apply sort and pagination
-        queryResult.sort(buildSort(filter.getOrderByList()))
-                .skip(filter.getPage() * filter.getPageSize())
+        queryResult.sort(sort)
+                .skip(skip)
                 .limit(limit)
                 .maxTime(mongoDBConfig.readTimeoutMs(), TimeUnit.MILLISECONDS);
 
@@ -670,7 +692,7 @@ public class MongoReadWriteDao<T extends MongoModel, F extends MongoSearchFilter
         int countLimit = 0;
         List<T_CONVERTED> results;
 
-        if (query.getPaginationStrategy() == HAS_NEXT_PAGE) {
+        if (query.getPaginationStrategy() != COUNT_QUERY_BEFORE_SEARCH) {
             results = new ArrayList<>(filter.getPageSize());
         } else {
             // run count query
@@ -693,13 +715,21 @@ public class MongoReadWriteDao<T extends MongoModel, F extends MongoSearchFilter
 
             // Iterate over MongoDB result and convert result on the fly before collect them inside a List
             // if !dbResultsIt.hasNext() -> less result that the specified page size
+            T lastModel = null;
             for (int i = 0; i < filter.getPageSize() && dbResultsIt.hasNext(); i++) {
-                results.add(query.getConvertFunction().apply(dbResultsIt.next()));
+                lastModel = dbResultsIt.next();
+                results.add(query.getConvertFunction().apply(lastModel));
             }
 
             // Return the list and just indicate if there exists one document on the next page
             if (query.getPaginationStrategy() == HAS_NEXT_PAGE) {
                 paginatedIt = new ListWithPagination<>(results, filter.getPage(), filter.getPageSize(), dbResultsIt.hasNext());
+            } else if (query.getPaginationStrategy() == KEYSET) {
+                boolean hasNextPage = dbResultsIt.hasNext();
+                paginatedIt = new ListWithPagination<>(results, filter.getPage(), filter.getPageSize(), hasNextPage);
+                if (hasNextPage && lastModel != null) {
+                    paginatedIt.getPagination().setNextPageToken(getNextPageToken(filter, lastModel));
+                }
             } else {
                 // return the list with information about counted element and the used limit
                 paginatedIt = new ListWithPagination<>(results, filter.getPage(), filter.getPageSize(), totalCount, countLimit);
@@ -746,12 +776,35 @@ public class MongoReadWriteDao<T extends MongoModel, F extends MongoSearchFilter
         StreamWithPagination<T_RESULT> paginatedIt;
         FindIterable<T> dbResults = getFindIterable(query);
 
-        Stream<T_RESULT> results = StreamSupport
-                .stream(dbResults.spliterator(), false)
-                .map(result -> query.getConvertFunction().apply(result));
+        // the cursor is only opened when the stream is consumed, and is released when the stream is closed
+        AtomicReference<MongoCursor<T>> cursor = new AtomicReference<>();
+        Stream<T> models = StreamSupport.stream(() -> {
+            cursor.set(dbResults.iterator());
+            return Spliterators.spliteratorUnknownSize(cursor.get(), Spliterator.ORDERED);
+        }, Spliterator.ORDERED, false).onClose(() -> {
+            if (cursor.get() != null) {
+                cursor.get().close();
+            }
+        });
+
+        // keep the last model of the page (and not the additional one, used to check the next page) in order to build the next page token
+        AtomicReference<T> lastModel = new AtomicReference<>();
+        if (query.getPaginationStrategy() == KEYSET) {
+            AtomicInteger readCount = new AtomicInteger();
+            models = models.peek(model -> {
+                if (readCount.incrementAndGet() <= filter.getPageSize()) {
+                    lastModel.set(model);
+                }
+            });
+        }
+
+        Stream<T_RESULT> results = models.map(result -> query.getConvertFunction().apply(result));
 
         if (query.getPaginationStrategy() == HAS_NEXT_PAGE) {
             paginatedIt = new StreamWithPagination<>(results, filter.getPage(), filter.getPageSize(), 0);
+        } else if (query.getPaginationStrategy() == KEYSET) {
+            paginatedIt = new StreamWithPagination<>(results, filter.getPage(), filter.getPageSize(), 0)
+                    .setNextPageTokenSupplier(() -> lastModel.get() == null ? null : getNextPageToken(filter, lastModel.get()));
         } else {
             // return the list with information about counted element and the used limit
             paginatedIt = new StreamWithPagination<>(results, filter.getPage(), filter.getPageSize(), totalCount, countLimit);
@@ -1038,6 +1091,25 @@ public class MongoReadWriteDao<T extends MongoModel, F extends MongoSearchFilter
         return sort;
     }
 
+    /**
+     * @param filter the search filter
+     * @return the sort used with a {@link org.opensilex.utils.pagination.PaginatedSearchStrategy#KEYSET} pagination :
+     * the sort from {@link #buildSort(List)}, followed by the {@link #idField()} if not already sorted, so that each
+     * document has a unique position
+     */
+    protected Document buildKeysetSort(F filter) {
+        Document sort = buildSort(filter.getOrderByList());
+        if (!sort.containsKey(idField())) {
+            sort.put(idField(), 1);
+        }
+        return sort;
+    }
+
+    private String getNextPageToken(F filter, T lastModel) {
+        BsonDocument lastDocument = BsonDocumentWrapper.asBsonDocument(lastModel, collection.getCodecRegistry());
+        return MongoKeysetToken.encode(buildKeysetSort(filter).toBsonDocument(), lastDocument);
+    }
+
     /**
      * Append a Default Sort in case where the List of {@link OrderBy} passed to {@link #buildSort(List)} is empty
      */
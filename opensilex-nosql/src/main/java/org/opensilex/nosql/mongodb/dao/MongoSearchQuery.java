@@ -31,6 +31,7 @@ import static org.opensilex.utils.pagination.PaginatedSearchStrategy.COUNT_QUERY
  *  <li>{@link #setSession(ClientSession)} : Use a given {@link ClientSession}. Useful when you want to read/search on documents which are not yet committed</li>
  *  <li> {@link #setPaginationStrategy(PaginatedSearchStrategy)} : Determine how to compute the pagination information associated with the search </li>
  *  <li> {@link #setCountOptions(CountOptions)} : Use a custom {@link CountOptions} when performing the count. Only relevant if {@code getCountStrategy() == COUNT_QUERY_BEFORE_SEARCH}  </li>
+ *  <li> {@link #setContinuationToken(String)} : Read the page which follows the page which has returned this token. Only relevant if {@code getPaginationStrategy() == KEYSET}  </li>
  * </ul>
  *
  * @param <T> The type of the MongoDB model.
@@ -60,6 +61,9 @@ public class MongoSearchQuery<T extends MongoModel, F extends MongoSearchFilter,
     // Custom CountOptions to use during count before the search with pagination
     private CountOptions countOptions;
 
+    // Token returned by the previous page, for keyset pagination
+    private String continuationToken;
+
     public MongoSearchQuery() {
         paginationStrategy = COUNT_QUERY_BEFORE_SEARCH;
     }
@@ -119,4 +123,19 @@ public class MongoSearchQuery<T extends MongoModel, F extends MongoSearchFilter,
         this.paginationStrategy = countStrategy;
         return this;
     }
+
+    public String getContinuationToken() {
+        return continuationToken;
+    }
+
+    /**
+     * @param continuationToken the {@link org.opensilex.server.response.PaginationDTO#getNextPageToken()} returned by the previous page,
+     * or null in order to read the first page. The page number of the filter is not used to skip documents when a token is used.
+     * The search must use the same filter, sort and projection as the search which has returned the token.
+     * If a projection is used, it must include the sort fields.
+     */
+    public MongoSearchQuery<T, F, T_RESULT> setContinuationToken(String continuationToken) {
+        this.continuationToken = continuationToken;
+        return this;
+    }
 }
\ No newline at end of file
@@ -37,6 +37,7 @@ import java.io.IOException;
 import java.net.URI;
 import java.time.Instant;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.TimeUnit;
 import java.util.function.Consumer;
 import java.util.function.Function;
@@ -74,6 +75,12 @@ public class MongoDBServiceV2 extends BaseService {
      */
     private final Map<String,Map<Bson,IndexOptions> > indexRegister;
 
+    /**
+     * Actions to run once the transaction of a session is committed, for each session of a transaction started by
+     * {@link #computeTransaction(Function)} or {@link #computeThrowingTransaction(ThrowingFunction)}
+     */
+    private final Map<ClientSession, List<Runnable>> afterCommitActions = new ConcurrentHashMap<>();
+
     public MongoDBServiceV2(MongoDBConfig config) {
         super(config);
         dbName = config.database();
@@ -181,12 +188,20 @@ public class MongoDBServiceV2 extends BaseService {
     public <R> R computeTransaction(Function<ClientSession, R> operationInTrx){
 
         try (ClientSession session = mongoClient.startSession()) {
-            Instant operationStart = mongoLogger.logOperationStart(TRANSACTION);
+            try {
+                Instant operationStart = mongoLogger.logOperationStart(TRANSACTION);
 
-            // Run operation within transaction handling
-            R result = session.withTransaction(() -> operationInTrx.apply(session));
-            mongoLogger.logOperationOk(TRANSACTION, operationStart);
-            return result;
+                // Run operation within transaction handling
+                R result = session.withTransaction(() -> {
+                    resetAfterCommitActions(session);
+                    return operationInTrx.apply(session);
+                });
+                mongoLogger.logOperationOk(TRANSACTION, operationStart);
+                runAfterCommitActions(session);
+                return result;
+            } finally {
+                afterCommitActions.remove(session);
+            }
         }
     }
 
@@ -203,18 +218,26 @@ public class MongoDBServiceV2 extends BaseService {
             Instant operationStart = mongoLogger.logOperationStart(TRANSACTION);
 
             // Run operation within transaction handling
-            R result = session.withTransaction(() -> {
-                try {
-                    return operationInTrx.apply(session);
-                } catch (MongoException e) {
-                    throw e; // Exception thrown by the MongoDB driver (client or server side)
-                } catch (Exception e) {
-                    // Other Exception thrown during operation, in this case the operation is wrapped as a MongoDBTransactionException (A MongoException/RuntimeException)
-                    //Since with lambda we have to catch or rethrow a RuntimeException
-                    throw new MongoDBTransactionException(e.getMessage(), e);
-                }
-            });
+            R result;
+            try {
+                result = session.withTransaction(() -> {
+                    resetAfterCommitActions(session);
+                    try {
+                        return operationInTrx.apply(session);
+                    } catch (MongoException e) {
+                        throw e; // Exception thrown by the MongoDB driver (client or server side)
+                    } catch (Exception e) {
+                        // Other Exception thrown during operation, in this case the operation is wrapped as a MongoDBTransactionException (A MongoException/RuntimeException)
+                        //Since with lambda we have to catch or rethrow a RuntimeException
+                        throw new MongoDBTransactionException(e.getMessage(), e);
+                    }
+                });
+            } catch (RuntimeException e) {
+                afterCommitActions.remove(session);
+                throw e;
+            }
             mongoLogger.logOperationOk(TRANSACTION, operationStart);
+            runAfterCommitActions(session);
             return result;
         }catch (MongoDBTransactionException e){
             mongoLogger.logOperationError(TRANSACTION, LOG_STATUS_ROLLBACK, LOG_ERROR_MESSAGE_KEY, e.getMessage());
@@ -222,6 +245,46 @@ public class MongoDBServiceV2 extends BaseService {
         }
     }
 
+    /**
+     * Register an action to run once the transaction of the session is committed, the action is dropped if the
+     * transaction is aborted. The action is run immediately if the session is null or if its transaction was not
+     * started by {@link #computeTransaction(Function)} or {@link #computeThrowingTransaction(ThrowingFunction)}.
+     *
+     * @param session the session of the current transaction, can be null
+     * @param action  the action to run after the commit, errors are logged and not thrown
+     */
+    public void afterCommit(ClientSession session, Runnable action) {
+        List<Runnable> actions = session == null ? null : afterCommitActions.get(session);
+        if (actions == null) {
+            runAfterCommitAction(action);
+        } else {
+            actions.add(action);
+        }
+    }
+
+    /**
+     * Drop the actions of a previous attempt, since {@link ClientSession#withTransaction(TransactionBody)} retries the
+     * whole transaction body on transient errors
+     */
+    private void resetAfterCommitActions(ClientSession session) {
+        afterCommitActions.put(session, new ArrayList<>());
+    }
+
+    private void runAfterCommitActions(ClientSession session) {
+        List<Runnable> actions = afterCommitActions.remove(session);
+        if (actions != null) {
+            actions.forEach(MongoDBServiceV2::runAfterCommitAction);
+        }
+    }
+
+    private static void runAfterCommitAction(Runnable action) {
+        try {
+            action.run();
+        } catch (RuntimeException e) {
+            LOGGER.error("Error while running an action after a MongoDB transaction commit", e);
+        }
+    }
+
     public URI buildGenerationPrefixURI() throws OpenSilexModuleNotFoundException {
         return getOpenSilex().getModuleByClass(SPARQLModule.class).getGenerationPrefixURI();
     }
@@ -5,6 +5,7 @@ import com.fasterxml.jackson.databind.type.CollectionType;
 import com.fasterxml.jackson.databind.type.TypeFactory;
 import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
 import com.mongodb.client.ClientSession;
+import com.mongodb.client.MongoCollection;
 import com.mongodb.client.model.IndexOptions;
 import com.mongodb.client.model.Indexes;
 import com.mongodb.client.model.Projections;
@@ -16,6 +17,15 @@ import org.apache.commons.lang3.tuple.Pair;
 import org.apache.jena.arq.querybuilder.Order;
 import org.apache.jena.graph.Node;
 import org.apache.jena.graph.NodeFactory;
+import org.bson.BsonBoolean;
+import org.bson.BsonDateTime;
+import org.bson.BsonDocument;
+import org.bson.BsonDouble;
+import org.bson.BsonInt32;
+import org.bson.BsonInt64;
+import org.bson.BsonNull;
+import org.bson.BsonString;
+import org.bson.BsonValue;
 import org.bson.conversions.Bson;
 import org.eclipse.rdf4j.repository.Repository;
 import org.jetbrains.annotations.NotNull;
@@ -448,6 +458,133 @@ public class MongoReadWriteDaoTest extends MongoDBServiceTest {
         testSearch(true, true, true, true, PaginatedSearchStrategy.HAS_NEXT_PAGE);
     }
 
+    private List<MongoTestModel> readAllPagesWithKeyset(boolean useStream, int pageSize) {
+        List<MongoTestModel> models = new ArrayList<>();
+        String continuationToken = null;
+        boolean hasNextPage = true;
+
+        while (hasNextPage) {
+            MongoSearchFilter filter = new MongoSearchFilter();
+            filter.setOrderByList(List.of(new OrderBy(MongoTestModel.KEY_FIELD, Order.DESCENDING)));
+            filter.setPageSize(pageSize);
+
+            MongoSearchQuery<MongoTestModel, MongoSearchFilter, MongoTestModel> query = new MongoSearchQuery<MongoTestModel, MongoSearchFilter, MongoTestModel>()
+                    .setFilter(filter)
+                    .setConvertFunction(Function.identity())
+                    .setPaginationStrategy(PaginatedSearchStrategy.KEYSET)
+                    .setContinuationToken(continuationToken);
+
+            PaginatedListResponse<MongoTestModel> response = useStream ?
+                    new PaginatedListResponse<>(searchDao.searchAsStreamWithPagination(query)) :
+                    new PaginatedListResponse<>(searchDao.searchWithPagination(query));
+
+            assertTrue(response.getResult().size() <= pageSize);
+            assertEquals(0, response.getMetadata().getPagination().getTotalCount());
+            models.addAll(response.getResult());
+
+            hasNextPage = response.getMetadata().getPagination().getHasNextPage();
+            continuationToken = response.getMetadata().getPagination().getNextPageToken();
+            assertEquals(hasNextPage, continuationToken != null);
+        }
+        return models;
+    }
+
+    @Test
+    public void searchWithKeysetPagination() {
+        for (boolean useStream : List.of(false, true)) {
+            List<MongoTestModel> models = readAllPagesWithKeyset(useStream, 7);
+
+            // each document is read once, ordered by key then by URI
+            assertEquals(ROOT_DOCUMENT_COUNT, models.size());
+            assertEquals(ROOT_DOCUMENT_COUNT, models.stream().map(MongoTestModel::getUri).distinct().count());
+
+            for (int i = 1; i < models.size(); i++) {
+                MongoTestModel previous = models.get(i - 1);
+                MongoTestModel current = models.get(i);
+                int keyComparison = Integer.compare(current.getKey(), previous.getKey());
+                assertTrue(keyComparison < 0 || (keyComparison == 0 && current.getUri().toString().compareTo(previous.getUri().toString()) > 0));
+            }
+        }
+    }
+
+    /**
+     * Read all documents of the collection by pages, with the {@link MongoKeysetToken} filter between pages
+     *
+     * @return the URIs of the read documents
+     */
+    private List<String> readAllPagesWithKeyset(MongoCollection<BsonDocument> collection, BsonDocument sort, int pageSize) {
+        List<String> uris = new ArrayList<>();
+        String continuationToken = null;
+
+        while (true) {
+            Bson filter = continuationToken == null ? new BsonDocument() : MongoKeysetToken.getSeekFilter(continuationToken, sort);
+            List<BsonDocument> page = collection.find(filter).sort(sort).limit(pageSize).into(new ArrayList<>());
+            page.forEach(document -> uris.add(document.getString(MongoTestModel.URI_FIELD).getValue()));
+
+            if (page.size() < pageSize) {
+                return uris;
+            }
+            continuationToken = MongoKeysetToken.encode(sort, page.get(page.size() - 1));
+        }
+    }
+
+    @Test
+    public void searchWithKeysetPaginationOnMixedTypes() {
+        List<BsonValue> values = List.of(
+                new BsonInt32(3), new BsonDouble(2.5), new BsonInt64(10), new BsonInt32(3),
+                new BsonString("a"), new BsonString("B"), new BsonString("10"),
+                new BsonBoolean(true), new BsonBoolean(false),
+                new BsonDateTime(0), new BsonDateTime(1000),
+                BsonNull.VALUE
+        );
+
+        MongoCollection<BsonDocument> collection = mongoDBv2.getDatabase().getCollection("mongo-keyset-mixed-test", BsonDocument.class);
+        try {
+            List<BsonDocument> documents = new ArrayList<>();
+            for (int i = 0; i < values.size(); i++) {
+                documents.add(new BsonDocument(MongoTestModel.URI_FIELD, new BsonString("opensilex:mixed_" + i))
+                        .append("value", values.get(i)));
+            }
+            documents.add(new BsonDocument(MongoTestModel.URI_FIELD, new BsonString("opensilex:missing")));
+            collection.insertMany(documents);
+
+            for (int direction : List.of(1, -1)) {
+                BsonDocument sort = new BsonDocument("value", new BsonInt32(direction))
+                        .append(MongoTestModel.URI_FIELD, new BsonInt32(1));
+
+                List<String> expectedUris = new ArrayList<>();
+                collection.find().sort(sort).forEach(document -> expectedUris.add(document.getString(MongoTestModel.URI_FIELD).getValue()));
+                assertEquals(documents.size(), expectedUris.size());
+
+                for (int pageSize : List.of(1, 2, 5)) {
+                    assertEquals("Documents of each type are read once, in the sort order", expectedUris, readAllPagesWithKeyset(collection, sort, pageSize));
+                }
+            }
+        } finally {
+            collection.drop();
+        }
+    }
+
+    @Test
+    public void searchWithInvalidContinuationToken() {
+        MongoSearchFilter filter = new MongoSearchFilter();
+        filter.setPageSize(10);
+
+        MongoSearchQuery<MongoTestModel, MongoSearchFilter, MongoTestModel> query = new MongoSearchQuery<MongoTestModel, MongoSearchFilter, MongoTestModel>()
+                .setFilter(filter)
+                .setConvertFunction(Function.identity())
+                .setPaginationStrategy(PaginatedSearchStrategy.KEYSET)
+                .setContinuationToken("not a token");
+
+        assertThrows(IllegalArgumentException.class, () -> searchDao.searchWithPagination(query));
+
+        // token built with another sort
+        ListWithPagination<MongoTestModel> firstPage = searchDao.searchWithPagination(query.setContinuationToken(null));
+        filter.setOrderByList(List.of(new OrderBy(MongoTestModel.NAME_FIELD, Order.ASCENDING)));
+        query.setContinuationToken(firstPage.getPagination().getNextPageToken());
+        assertThrows(IllegalArgumentException.class, () -> searchDao.searchWithPagination(query));
+    }
+
 
     @Test
     public void testDistinctUris() {
@@ -7,6 +7,9 @@
 package org.opensilex.security.authentication;
 
 import at.favre.lib.crypto.bcrypt.BCrypt;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
 import com.auth0.jwt.JWT;
 import com.auth0.jwt.JWTCreator;
 import com.auth0.jwt.JWTVerifier;
@@ -45,18 +48,22 @@ import javax.servlet.http.HttpServletRequest;
 import javax.ws.rs.core.SecurityContext;
 import java.io.IOException;
 import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
 import java.net.URI;
 import java.net.URISyntaxException;
 import java.net.URL;
 import java.security.KeyPair;
 import java.security.KeyPairGenerator;
+import java.security.MessageDigest;
 import java.security.NoSuchAlgorithmException;
 import java.security.interfaces.RSAPrivateKey;
 import java.security.interfaces.RSAPublicKey;
+import java.time.Duration;
 import java.time.temporal.ChronoUnit;
 import java.time.temporal.TemporalUnit;
 import java.util.*;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
 
 /**
  * <pre>
@@ -71,6 +78,10 @@ import java.util.concurrent.ConcurrentHashMap;
  *
  * Logged in users are registered in a concurrent map with their token
  * and automatically unregistered after token expiration.
+ * Lookups in this registry are lock-free, only registration and removal are synchronized.
+ *
+ * Already verified tokens are kept in a bounded cache keyed by token hash,
+ * so the RSA signature check is only done once per token until it expires or user logout.
  *
  * For existing claim ids, see: https://www.iana.org/assignments/jwt/jwt.xhtml#claims
  * </pre>
@@ -175,6 +186,11 @@ public class AuthenticationService extends BaseService implements Service {
         claimClasses.put(claim, cls);
     }
 
+    /**
+     * Maximum number of verified tokens kept in cache
+     */
+    private static final long VERIFIED_TOKEN_CACHE_MAX_SIZE = 10_000;
+
     /**
      * Map of registred users by URI
      */
@@ -201,6 +217,30 @@ public class AuthenticationService extends BaseService implements Service {
      */
     private final Algorithm algoRSA;
 
+    /**
+     * JWT token verifier, thread-safe and reusable
+     */
+    private final JWTVerifier tokenVerifier;
+
+    /**
+     * Cache of already verified tokens by token SHA-256 hash
+     */
+    private final Cache<String, DecodedJWT> verifiedTokenCache = Caffeine.newBuilder()
+            .maximumSize(VERIFIED_TOKEN_CACHE_MAX_SIZE)
+            .expireAfterWrite(Duration.of(TOKEN_VALIDITY_DURATION, TOKEN_VALIDITY_DURATION_UNIT))
+            .recordStats()
+            .build();
+
+    /**
+     * Number of token signature verifications (cache misses)
+     */
+    private final LongAdder tokenVerificationCount = new LongAdder();
+
+    /**
+     * Cumulated time spent in token signature verifications in nanoseconds
+     */
+    private final LongAdder tokenVerificationTimeNanos = new LongAdder();
+
     
     /**
      * reset password uuid validity duration in days
@@ -220,6 +260,9 @@ public class AuthenticationService extends BaseService implements Service {
         RSAPublicKey publicKey = (RSAPublicKey) kp.getPublic();
         RSAPrivateKey privateKey = (RSAPrivateKey) kp.getPrivate();
         algoRSA = Algorithm.RSA512(publicKey, privateKey);
+        tokenVerifier = JWT.require(algoRSA)
+                .withIssuer(TOKEN_ISSUER)
+                .build();
     }
 
     /**
@@ -311,10 +354,7 @@ public class AuthenticationService extends BaseService implements Service {
         if (user.getToken() != null) {
 
             // Check and decode current user token
-            JWTVerifier verifier = JWT.require(algoRSA)
-                    .withIssuer(TOKEN_ISSUER)
-                    .build();
-            DecodedJWT jwt = verifier.verify(user.getToken());
+            DecodedJWT jwt = verifyToken(user.getToken());
 
             // Create a new token
             JWTCreator.Builder tokenBuilder = JWT.create();
@@ -371,11 +411,7 @@ public class AuthenticationService extends BaseService implements Service {
      * @throws URISyntaxException In case of invalid user URI in token (should never happend)
      */
     public URI decodeTokenUserURI(String tokenValue) throws JWTVerificationException, URISyntaxException {
-        JWTVerifier verifier = JWT.require(algoRSA)
-                .withIssuer(TOKEN_ISSUER)
-                .build();
-
-        DecodedJWT jwt = verifier.verify(tokenValue);
+        DecodedJWT jwt = verifyToken(tokenValue);
 
         return new URI(jwt.getSubject());
     }
@@ -387,24 +423,106 @@ public class AuthenticationService extends BaseService implements Service {
      * @return credentials id list
      */
     public String[] decodeTokenCredentialsList(String tokenValue) {
-        JWTVerifier verifier = JWT.require(algoRSA)
-                .withIssuer(TOKEN_ISSUER)
-                .build();
-
-        DecodedJWT jwt = verifier.verify(tokenValue);
+        DecodedJWT jwt = verifyToken(tokenValue);
 
         return jwt.getClaim(CLAIM_CREDENTIALS_LIST).asArray(String.class);
     }
 
     public String[] decodeStringArrayClaim(String token, String key) {
-
-        return JWT.require(algoRSA)
-                .withIssuer(TOKEN_ISSUER)
-                .build()
-                .verify(token)
+        return verifyToken(token)
                 .getClaim(key).asArray(String.class);
     }
 
+    /**
+     * Verify and decode a token. If the token has already been verified and is not expired,
+     * the decoded token is returned from cache without checking the signature again.
+     *
+     * @param tokenValue JWT token string
+     * @return decoded token
+     * @throws JWTVerificationException In case of token validation error
+     */
+    private DecodedJWT verifyToken(String tokenValue) throws JWTVerificationException {
+        String tokenHash = getTokenHash(tokenValue);
+
+        DecodedJWT jwt = verifiedTokenCache.getIfPresent(tokenHash);
+        if (jwt != null) {
+            Date expiresAt = jwt.getExpiresAt();
+            if (expiresAt == null || expiresAt.after(new Date())) {
+                return jwt;
+            }
+            verifiedTokenCache.invalidate(tokenHash);
+        }
+
+        long start = System.nanoTime();
+        try {
+            jwt = tokenVerifier.verify(tokenValue);
+        } finally {
+            tokenVerificationCount.increment();
+            tokenVerificationTimeNanos.add(System.nanoTime() - start);
+        }
+
+        verifiedTokenCache.put(tokenHash, jwt);
+        return jwt;
+    }
+
+    /**
+     * Remove a token from verified token cache, next usage will require a full signature check
+     *
+     * @param tokenValue JWT token string
+     */
+    private void invalidateToken(String tokenValue) {
+        if (tokenValue != null) {
+            verifiedTokenCache.invalidate(getTokenHash(tokenValue));
+        }
+    }
+
+    /**
+     * Compute token SHA-256 hash used as verified token cache key
+     *
+     * @param tokenValue JWT token string
+     * @return token hash as hexadecimal string
+     */
+    private static String getTokenHash(String tokenValue) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            byte[] hash = digest.digest(tokenValue.getBytes(StandardCharsets.UTF_8));
+            StringBuilder hexHash = new StringBuilder(hash.length * 2);
+            for (byte b : hash) {
+                hexHash.append(Character.forDigit((b >> 4) & 0xF, 16))
+                        .append(Character.forDigit(b & 0xF, 16));
+            }
+            return hexHash.toString();
+        } catch (NoSuchAlgorithmException ex) {
+            // SHA-256 is always available in JVM
+            throw new IllegalStateException(ex);
+        }
+    }
+
+    /**
+     * @return statistics of the verified token cache (hit count, miss count, hit ratio, evictions)
+     */
+    public CacheStats getTokenCacheStats() {
+        return verifiedTokenCache.stats();
+    }
+
+    /**
+     * @return number of token signature verifications done since service start
+     */
+    public long getTokenVerificationCount() {
+        return tokenVerificationCount.sum();
+    }
+
+    /**
+     * @return average time spent in a token signature verification in milliseconds, or 0 if no verification was done
+     */
+    public double getAverageTokenVerificationTimeMs() {
+        long count = tokenVerificationCount.sum();
+        if (count == 0) {
+            return 0;
+        }
+        return tokenVerificationTimeNanos.sum() / (count * 1_000_000.0);
+    }
+
     /**
      * Return authentication expiration delay in seconds
      *
@@ -439,7 +557,7 @@ public class AuthenticationService extends BaseService implements Service {
      * @param user User to check
      * @return true if user is authenticated, false otherwise
      */
-    public synchronized boolean hasUser(AccountModel user) {
+    public boolean hasUser(AccountModel user) {
         return hasUserURI(user.getUri());
     }
 
@@ -507,6 +625,7 @@ public class AuthenticationService extends BaseService implements Service {
             schedulerRegistry.remove(userURI);
 
             AccountModel user = userRegistry.remove(userURI);
+            invalidateToken(user.getToken());
 
             // Allow any module implementing LoginExtension to do something on logout
             for (LoginExtension module : getOpenSilex().getModulesImplementingInterface(LoginExtension.class)) {
@@ -525,7 +644,7 @@ public class AuthenticationService extends BaseService implements Service {
      * @param userURI User URI to check
      * @return true if user is registred false otherwise
      */
-    public synchronized boolean hasUserURI(URI userURI) {
+    public boolean hasUserURI(URI userURI) {
         return userRegistry.containsKey(userURI);
     }
 
@@ -535,7 +654,7 @@ public class AuthenticationService extends BaseService implements Service {
      * @param userURI User URI to get
      * @return registred user or null
      */
-    public synchronized AccountModel getUserByUri(URI userURI) {
+    public AccountModel getUserByUri(URI userURI) {
         return userRegistry.get(userURI);
     }
 
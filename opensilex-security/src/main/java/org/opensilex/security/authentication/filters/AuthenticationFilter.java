@@ -188,9 +188,8 @@ public class AuthenticationFilter implements ContainerRequestFilter, ContainerRe
                 URI userURI = authentication.decodeTokenUserURI(token);
 
                 // Get corresponding user
-                if (authentication.hasUserURI(userURI)) {
-                    user = authentication.getUserByUri(userURI);
-                } else {
+                user = authentication.getUserByUri(userURI);
+                if (user == null) {
                     throw new ForbiddenException("User not found with URI: " + userURI);
                 }
 
@@ -1,22 +1,34 @@
 package org.opensilex.security.authentication.api;
 
+import com.auth0.jwt.JWT;
+import com.auth0.jwt.algorithms.Algorithm;
+import com.auth0.jwt.exceptions.TokenExpiredException;
+import com.auth0.jwt.interfaces.DecodedJWT;
 import com.fasterxml.jackson.core.type.TypeReference;
+import com.github.benmanes.caffeine.cache.Cache;
 import org.junit.Test;
 import org.opensilex.integration.test.ServiceDescription;
 import org.opensilex.integration.test.security.AbstractSecurityIntegrationTest;
 import org.opensilex.security.account.api.AccountAPI;
 import org.opensilex.security.authentication.ApiProtected;
+import org.opensilex.security.authentication.AuthenticationService;
 import org.opensilex.security.group.api.GroupAPI;
 import org.opensilex.server.response.PaginatedListResponse;
 
 import javax.ws.rs.client.Entity;
 import javax.ws.rs.core.MediaType;
 import javax.ws.rs.core.Response;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.net.URI;
 import java.util.ArrayList;
+import java.util.Date;
 import java.util.List;
 
 import static junit.framework.TestCase.assertEquals;
+import static junit.framework.TestCase.assertNotNull;
 import static junit.framework.TestCase.assertTrue;
+import static org.junit.Assert.assertThrows;
 import static org.opensilex.security.SecurityModule.DEFAULT_SUPER_ADMIN_EMAIL;
 import static org.opensilex.security.SecurityModule.DEFAULT_SUPER_ADMIN_PASSWORD;
 
@@ -108,6 +120,64 @@ public class AuthenticationAPITest extends AbstractSecurityIntegrationTest {
         assertEquals(Response.Status.FORBIDDEN.getStatusCode(), putResult.getStatus());
     }
 
+    @Test
+    public void testVerifiedTokenIsCached() throws Exception {
+        TokenGetDTO token = authenticateAndRegisterIfNecessary(DEFAULT_SUPER_ADMIN_EMAIL, DEFAULT_SUPER_ADMIN_PASSWORD);
+        AuthenticationService authentication = getAuthenticationService();
+
+        // the token may already be verified by the login, this call ensures it's in the cache
+        URI userURI = authentication.decodeTokenUserURI(token.getToken());
+        long verificationCount = authentication.getTokenVerificationCount();
+        long hitCount = authentication.getTokenCacheStats().hitCount();
+
+        assertEquals(userURI, authentication.decodeTokenUserURI(token.getToken()));
+        assertEquals("The signature is not verified again", verificationCount, authentication.getTokenVerificationCount());
+        assertEquals(hitCount + 1, authentication.getTokenCacheStats().hitCount());
+    }
+
+    @Test
+    public void testLogoutInvalidatesCachedToken() throws Exception {
+        TokenGetDTO token = authenticateAndRegisterIfNecessary(DEFAULT_SUPER_ADMIN_EMAIL, DEFAULT_SUPER_ADMIN_PASSWORD);
+        AuthenticationService authentication = getAuthenticationService();
+
+        URI userURI = authentication.decodeTokenUserURI(token.getToken());
+        assertNotNull(authentication.removeUserByURI(userURI));
+
+        // the signature of the token of the removed user is verified again
+        long verificationCount = authentication.getTokenVerificationCount();
+        authentication.decodeTokenUserURI(token.getToken());
+        assertEquals(verificationCount + 1, authentication.getTokenVerificationCount());
+    }
+
+    @Test
+    public void testExpiredCachedTokenIsRejected() throws Exception {
+        AuthenticationService authentication = getAuthenticationService();
+
+        // sign an expired token with the key of the service, then put it in the cache as if it was verified before
+        Field algorithmField = AuthenticationService.class.getDeclaredField("algoRSA");
+        algorithmField.setAccessible(true);
+        String expiredToken = JWT.create()
+                .withIssuer("opensilex")
+                .withSubject("http://opensilex.test/id/user/expired")
+                .withIssuedAt(new Date(System.currentTimeMillis() - 120_000))
+                .withExpiresAt(new Date(System.currentTimeMillis() - 60_000))
+                .sign((Algorithm) algorithmField.get(authentication));
+
+        Method hashMethod = AuthenticationService.class.getDeclaredMethod("getTokenHash", String.class);
+        hashMethod.setAccessible(true);
+        Field cacheField = AuthenticationService.class.getDeclaredField("verifiedTokenCache");
+        cacheField.setAccessible(true);
+        @SuppressWarnings("unchecked")
+        Cache<String, DecodedJWT> verifiedTokenCache = (Cache<String, DecodedJWT>) cacheField.get(authentication);
+        String tokenHash = (String) hashMethod.invoke(null, expiredToken);
+        verifiedTokenCache.put(tokenHash, JWT.decode(expiredToken));
+
+        long verificationCount = authentication.getTokenVerificationCount();
+        assertThrows(TokenExpiredException.class, () -> authentication.decodeTokenUserURI(expiredToken));
+        assertEquals("The expired token is verified again", verificationCount + 1, authentication.getTokenVerificationCount());
+        assertTrue("The expired token is removed from the cache", verifiedTokenCache.getIfPresent(tokenHash) == null);
+    }
+
     @Test
     public void testCredentials() throws Exception {
         PaginatedListResponse<CredentialsGroupDTO> getResponse = new PublicCallBuilder<>(credentials).build()
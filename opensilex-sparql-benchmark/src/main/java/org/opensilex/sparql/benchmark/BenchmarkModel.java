@@ -0,0 +1,66 @@
+//******************************************************************************
+//                          BenchmarkModel.java
+// OpenSILEX - Licence AGPL V3.0 - https://www.gnu.org/licenses/agpl-3.0.en.html
+// Copyright © INRAE 2024
+// Contact: anne.tireau@inrae.fr, pascal.neveu@inrae.fr
+//******************************************************************************
+package org.opensilex.sparql.benchmark;
+
+import java.util.List;
+import org.apache.jena.graph.Node;
+import org.apache.jena.graph.NodeFactory;
+import org.opensilex.core.experiment.dal.ExperimentModel;
+import org.opensilex.core.germplasm.dal.GermplasmModel;
+import org.opensilex.core.scientificObject.dal.ScientificObjectModel;
+import org.opensilex.sparql.model.SPARQLResourceModel;
+import org.opensilex.sparql.service.SPARQLService;
+
+/**
+ * Representative models used as benchmark parameter
+ */
+public enum BenchmarkModel {
+
+    SCIENTIFIC_OBJECT(ScientificObjectModel.class),
+    GERMPLASM(GermplasmModel.class),
+    EXPERIMENT(ExperimentModel.class);
+
+    private final Class<? extends SPARQLResourceModel> modelClass;
+
+    BenchmarkModel(Class<? extends SPARQLResourceModel> modelClass) {
+        this.modelClass = modelClass;
+    }
+
+    @SuppressWarnings("unchecked")
+    public <T extends SPARQLResourceModel> Class<T> getModelClass() {
+        return (Class<T>) modelClass;
+    }
+
+    /**
+     * @param generator generated data
+     * @return generated instances of this model
+     */
+    public List<? extends SPARQLResourceModel> getInstances(SyntheticDataGenerator generator) {
+        switch (this) {
+            case SCIENTIFIC_OBJECT:
+                return generator.getScientificObjects();
+            case GERMPLASM:
+                return generator.getGermplasms();
+            default:
+                return generator.getExperiments();
+        }
+    }
+
+    /**
+     * @param sparql SPARQL service
+     * @param generator generated data
+     * @return graph where instances of this model are stored : the first experiment graph for scientific objects,
+     * the model default graph otherwise
+     * @throws Exception if default graph can't be computed
+     */
+    public Node getGraph(SPARQLService sparql, SyntheticDataGenerator generator) throws Exception {
+        if (this == SCIENTIFIC_OBJECT) {
+            return NodeFactory.createURI(generator.getExperiments().get(0).getUri().toString());
+        }
+        return sparql.getDefaultGraph(modelClass);
+    }
+}
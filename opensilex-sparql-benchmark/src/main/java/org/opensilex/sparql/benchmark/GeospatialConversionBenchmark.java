@@ -0,0 +1,121 @@
+//******************************************************************************
+//                          GeospatialConversionBenchmark.java
+// OpenSILEX - Licence AGPL V3.0 - https://www.gnu.org/licenses/agpl-3.0.en.html
+// Copyright © INRAE 2024
+// Contact: anne.tireau@inrae.fr, pascal.neveu@inrae.fr
+//******************************************************************************
+package org.opensilex.sparql.benchmark;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import com.mongodb.client.model.geojson.Geometry;
+import com.mongodb.client.model.geojson.codecs.GeoJsonCodecProvider;
+import org.bson.codecs.DecoderContext;
+import org.bson.codecs.configuration.CodecRegistries;
+import org.bson.json.JsonReader;
+import org.geojson.Feature;
+import org.geojson.GeoJsonObject;
+import org.geojson.LngLatAlt;
+import org.geojson.Polygon;
+import org.opensilex.core.geospatial.dal.GeoJsonConverter;
+import org.opensilex.core.geospatial.dal.GeospatialDAO;
+import org.opensilex.server.rest.serialization.ObjectMapperContextResolver;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmark geometry conversions of {@link GeospatialDAO} between GeoJSON objects, Mongo geometries, JTS geometries and
+ * WKT, on polygons of increasing size (a plot has a few vertices, a shapefile-derived field boundary has thousands).
+ * The "legacy" benchmarks reproduce the previous conversions through a GeoJSON string, for comparison.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class GeospatialConversionBenchmark {
+
+    @Param({"5", "100", "5000"})
+    private int vertexCount;
+
+    private Feature feature;
+    private Geometry geometry;
+    private org.locationtech.jts.geom.Geometry jtsGeometry;
+    private String wkt;
+
+    @Setup(Level.Trial)
+    public void setup() throws Exception {
+        // closed ring around a point of Montpellier, with a small deterministic noise on the radius
+        List<LngLatAlt> ring = new ArrayList<>(vertexCount + 1);
+        for (int i = 0; i < vertexCount; i++) {
+            double angle = 2 * Math.PI * i / vertexCount;
+            double radius = 0.001 * (1 + 0.1 * ((i * 7919) % 13) / 13.0);
+            ring.add(new LngLatAlt(3.8767 + radius * Math.cos(angle), 43.6108 + radius * Math.sin(angle)));
+        }
+        ring.add(ring.get(0));
+
+        feature = new Feature();
+        feature.setGeometry(new Polygon(ring));
+
+        geometry = GeospatialDAO.geoJsonToGeometry(feature);
+        jtsGeometry = GeoJsonConverter.toJts(geometry);
+        wkt = GeospatialDAO.geometryToWkt(geometry);
+    }
+
+    @Benchmark
+    public Geometry geoJsonToGeometry() throws Exception {
+        return GeospatialDAO.geoJsonToGeometry(feature);
+    }
+
+    @Benchmark
+    public Geometry legacyGeoJsonToGeometry() throws Exception {
+        String geoJSON = ObjectMapperContextResolver.getObjectMapper().writeValueAsString(feature.getGeometry());
+        return CodecRegistries.fromProviders(new GeoJsonCodecProvider())
+                .get(Geometry.class)
+                .decode(new JsonReader(geoJSON), DecoderContext.builder().build());
+    }
+
+    @Benchmark
+    public GeoJsonObject geometryToGeoJson() throws Exception {
+        return GeospatialDAO.geometryToGeoJson(geometry);
+    }
+
+    @Benchmark
+    public GeoJsonObject legacyGeometryToGeoJson() throws Exception {
+        Feature geo = new Feature();
+        geo.setGeometry(ObjectMapperContextResolver.getObjectMapper().readValue(geometry.toJson(), GeoJsonObject.class));
+        return geo;
+    }
+
+    @Benchmark
+    public Geometry wktToGeometry() throws Exception {
+        return GeospatialDAO.wktToGeometry(wkt);
+    }
+
+    @Benchmark
+    public String geometryToWkt() throws Exception {
+        return GeospatialDAO.geometryToWkt(geometry);
+    }
+
+    @Benchmark
+    public org.locationtech.jts.geom.Geometry geometryToJts() {
+        return GeoJsonConverter.toJts(geometry);
+    }
+
+    @Benchmark
+    public Geometry jtsToGeometry() {
+        return GeoJsonConverter.fromJts(jtsGeometry);
+    }
+}
@@ -0,0 +1,121 @@
+//******************************************************************************
+//                          OntologyClosureBenchmark.java
+// OpenSILEX - Licence AGPL V3.0 - https://www.gnu.org/licenses/agpl-3.0.en.html
+// Copyright © INRAE 2024
+// Contact: anne.tireau@inrae.fr, pascal.neveu@inrae.fr
+//******************************************************************************
+package org.opensilex.sparql.benchmark;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import org.jgrapht.Graph;
+import org.jgrapht.graph.DefaultEdge;
+import org.jgrapht.graph.SimpleDirectedGraph;
+import org.opensilex.sparql.utils.JgraphtUtils;
+import org.opensilex.sparql.utils.TransitiveClosureIndex;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Compare class hierarchy lookups done by graph traversal ({@link JgraphtUtils}) with lookups done on the
+ * precomputed {@link TransitiveClosureIndex}, as used by the ontology store.
+ * The hierarchy is a synthetic DAG : each class has one parent in the previous level and sometimes a second one.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class OntologyClosureBenchmark {
+
+    private static final String ROOT = "vocabulary:Root";
+    private static final int MAX_PATH_LENGTH = 20;
+
+    @Param({"5", "10"})
+    public int depth;
+
+    @Param({"100", "1000"})
+    public int classesByLevel;
+
+    private Graph<String, DefaultEdge> graph;
+    private TransitiveClosureIndex<String> index;
+
+    private String leafClass;
+    private String middleClass;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        Random random = new Random(42);
+        graph = new SimpleDirectedGraph<>(DefaultEdge.class);
+        index = new TransitiveClosureIndex<>();
+
+        graph.addVertex(ROOT);
+        List<String> previousLevel = List.of(ROOT);
+
+        for (int level = 0; level < depth; level++) {
+            List<String> currentLevel = new ArrayList<>(classesByLevel);
+            for (int i = 0; i < classesByLevel; i++) {
+                String classURI = "vocabulary:Class_" + level + "_" + i;
+                addEdge(previousLevel.get(random.nextInt(previousLevel.size())), classURI);
+
+                // multiple inheritance
+                if (previousLevel.size() > 1 && random.nextInt(4) == 0) {
+                    addEdge(previousLevel.get(random.nextInt(previousLevel.size())), classURI);
+                }
+                currentLevel.add(classURI);
+            }
+            if (level == depth / 2) {
+                middleClass = currentLevel.get(0);
+            }
+            previousLevel = currentLevel;
+        }
+        leafClass = previousLevel.get(previousLevel.size() - 1);
+    }
+
+    private void addEdge(String parent, String child) {
+        graph.addVertex(child);
+        if (!graph.containsEdge(parent, child)) {
+            graph.addEdge(parent, child);
+            index.addEdge(parent, child);
+        }
+    }
+
+    @Benchmark
+    public Set<String> ancestorHierarchyTraversal() {
+        return JgraphtUtils.getVertexesFromAncestor(graph, ROOT, leafClass, MAX_PATH_LENGTH);
+    }
+
+    @Benchmark
+    public Set<String> ancestorHierarchyIndex() {
+        return index.getVertexesFromAncestor(ROOT, leafClass);
+    }
+
+    @Benchmark
+    public boolean isSubClassOfTraversal() {
+        return !JgraphtUtils.getVertexesFromAncestor(graph, middleClass, leafClass, MAX_PATH_LENGTH).isEmpty();
+    }
+
+    @Benchmark
+    public boolean isSubClassOfIndex() {
+        return index.isAncestor(middleClass, leafClass);
+    }
+
+    @Benchmark
+    public Set<String> descendantsIndex() {
+        return index.getDescendants(middleClass);
+    }
+}
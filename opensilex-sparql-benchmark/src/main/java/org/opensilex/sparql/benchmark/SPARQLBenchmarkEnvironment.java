@@ -0,0 +1,83 @@
+//******************************************************************************
+//                          SPARQLBenchmarkEnvironment.java
+// OpenSILEX - Licence AGPL V3.0 - https://www.gnu.org/licenses/agpl-3.0.en.html
+// Copyright © INRAE 2024
+// Contact: anne.tireau@inrae.fr, pascal.neveu@inrae.fr
+//******************************************************************************
+package org.opensilex.sparql.benchmark;
+
+import java.net.URI;
+import java.util.HashSet;
+import java.util.Set;
+import org.eclipse.rdf4j.repository.Repository;
+import org.eclipse.rdf4j.repository.sail.SailRepository;
+import org.eclipse.rdf4j.sail.memory.MemoryStore;
+import org.opensilex.sparql.annotations.SPARQLResource;
+import org.opensilex.sparql.mapping.SPARQLClassObjectMapperIndex;
+import org.opensilex.sparql.model.SPARQLResourceModel;
+import org.opensilex.sparql.rdf4j.RDF4JConnection;
+import org.opensilex.sparql.service.SPARQLService;
+import org.reflections.Reflections;
+
+/**
+ * Standalone SPARQL environment used by benchmarks : an in-memory RDF4J repository and a mapper index built from all
+ * {@link SPARQLResource} classes found in OpenSilex packages, as done by {@link org.opensilex.sparql.service.SPARQLServiceFactory}.
+ * <p>
+ * No OpenSilex instance is started, so benchmarks only measure the SPARQL mapping layer and the triple store,
+ * without any module, MongoDB or ontology store setup.
+ * </p>
+ */
+public class SPARQLBenchmarkEnvironment implements AutoCloseable {
+
+    public static final URI BASE_URI = URI.create("http://opensilex.benchmark/");
+
+    public static final String LANG = "en";
+
+    private final Repository repository;
+
+    private final SPARQLClassObjectMapperIndex mapperIndex;
+
+    public SPARQLBenchmarkEnvironment() throws Exception {
+        repository = new SailRepository(new MemoryStore());
+        repository.init();
+
+        Set<Class<? extends SPARQLResourceModel>> initClasses = new HashSet<>();
+        new Reflections("org.opensilex").getTypesAnnotatedWith(SPARQLResource.class).forEach(c -> {
+            initClasses.add(c.asSubclass(SPARQLResourceModel.class));
+        });
+        mapperIndex = new SPARQLClassObjectMapperIndex(BASE_URI, BASE_URI, initClasses);
+    }
+
+    /**
+     * @return a new SPARQL service on the in-memory repository, must be closed by caller
+     * @throws Exception if service can't be setup
+     */
+    public SPARQLService provide() throws Exception {
+        SPARQLService sparql = new SPARQLService(new RDF4JConnection(repository.getConnection()));
+        sparql.setMapperIndex(mapperIndex);
+        sparql.setDefaultLang(LANG);
+        sparql.setup();
+        return sparql;
+    }
+
+    /**
+     * Fill the repository with the given generator data
+     *
+     * @param generator synthetic data generator
+     * @throws Exception if data can't be inserted
+     */
+    public void seed(SyntheticDataGenerator generator) throws Exception {
+        try (SPARQLService sparql = provide()) {
+            generator.insert(sparql);
+        }
+    }
+
+    public SPARQLClassObjectMapperIndex getMapperIndex() {
+        return mapperIndex;
+    }
+
+    @Override
+    public void close() {
+        repository.shutDown();
+    }
+}
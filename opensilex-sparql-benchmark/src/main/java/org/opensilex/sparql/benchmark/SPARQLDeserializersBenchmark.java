@@ -0,0 +1,134 @@
+//******************************************************************************
+//                          SPARQLDeserializersBenchmark.java
+// OpenSILEX - Licence AGPL V3.0 - https://www.gnu.org/licenses/agpl-3.0.en.html
+// Copyright © INRAE 2024
+// Contact: anne.tireau@inrae.fr, pascal.neveu@inrae.fr
+//******************************************************************************
+package org.opensilex.sparql.benchmark;
+
+import java.net.URI;
+import java.time.LocalDate;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.concurrent.TimeUnit;
+import org.apache.jena.graph.Node;
+import org.opensilex.sparql.deserializer.SPARQLDeserializer;
+import org.opensilex.sparql.deserializer.SPARQLDeserializers;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmark {@link SPARQLDeserializers} conversions between SPARQL values and Java types used by models.
+ * Each invocation converts the next value of a pre-generated array, to avoid constant folding.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SPARQLDeserializersBenchmark {
+
+    private static final int VALUE_COUNT = 1024;
+
+    private SPARQLDeserializer<URI> uriDeserializer;
+    private SPARQLDeserializer<String> stringDeserializer;
+    private SPARQLDeserializer<LocalDate> dateDeserializer;
+    private SPARQLDeserializer<OffsetDateTime> dateTimeDeserializer;
+    private SPARQLDeserializer<Integer> integerDeserializer;
+
+    private final String[] uriStrings = new String[VALUE_COUNT];
+    private final URI[] uris = new URI[VALUE_COUNT];
+    private final String[] strings = new String[VALUE_COUNT];
+    private final String[] dateStrings = new String[VALUE_COUNT];
+    private final String[] dateTimeStrings = new String[VALUE_COUNT];
+    private final OffsetDateTime[] dateTimes = new OffsetDateTime[VALUE_COUNT];
+    private final String[] integerStrings = new String[VALUE_COUNT];
+
+    private int index;
+
+    @Setup(Level.Trial)
+    public void setup() throws Exception {
+        uriDeserializer = SPARQLDeserializers.getForClass(URI.class);
+        stringDeserializer = SPARQLDeserializers.getForClass(String.class);
+        dateDeserializer = SPARQLDeserializers.getForClass(LocalDate.class);
+        dateTimeDeserializer = SPARQLDeserializers.getForClass(OffsetDateTime.class);
+        integerDeserializer = SPARQLDeserializers.getForClass(Integer.class);
+
+        LocalDate startDate = LocalDate.of(2020, 1, 1);
+        OffsetDateTime startDateTime = OffsetDateTime.of(2020, 1, 1, 0, 0, 0, 0, ZoneOffset.UTC);
+        for (int i = 0; i < VALUE_COUNT; i++) {
+            uris[i] = SPARQLBenchmarkEnvironment.BASE_URI.resolve("id/so/so_" + i);
+            uriStrings[i] = uris[i].toString();
+            strings[i] = "Plot " + i;
+            dateStrings[i] = startDate.plusDays(i).toString();
+            dateTimes[i] = startDateTime.plusMinutes(i * 17L);
+            dateTimeStrings[i] = dateTimes[i].toString();
+            integerStrings[i] = Integer.toString(i * 31);
+        }
+    }
+
+    private int next() {
+        index = (index + 1) & (VALUE_COUNT - 1);
+        return index;
+    }
+
+    @Benchmark
+    public URI uriFromString() throws Exception {
+        return uriDeserializer.fromString(uriStrings[next()]);
+    }
+
+    @Benchmark
+    public Node uriGetNode() throws Exception {
+        return uriDeserializer.getNode(uris[next()]);
+    }
+
+    @Benchmark
+    public Node nodeURI() {
+        return SPARQLDeserializers.nodeURI(uris[next()]);
+    }
+
+    @Benchmark
+    public String expandedURI() {
+        return SPARQLDeserializers.getExpandedURI(uris[next()]);
+    }
+
+    @Benchmark
+    public String stringFromString() throws Exception {
+        return stringDeserializer.fromString(strings[next()]);
+    }
+
+    @Benchmark
+    public Node stringGetNode() throws Exception {
+        return stringDeserializer.getNode(strings[next()]);
+    }
+
+    @Benchmark
+    public LocalDate dateFromString() throws Exception {
+        return dateDeserializer.fromString(dateStrings[next()]);
+    }
+
+    @Benchmark
+    public OffsetDateTime dateTimeFromString() throws Exception {
+        return dateTimeDeserializer.fromString(dateTimeStrings[next()]);
+    }
+
+    @Benchmark
+    public Node dateTimeGetNode() throws Exception {
+        return dateTimeDeserializer.getNode(dateTimes[next()]);
+    }
+
+    @Benchmark
+    public Integer integerFromString() throws Exception {
+        return integerDeserializer.fromString(integerStrings[next()]);
+    }
+}
@@ -0,0 +1,103 @@
+//******************************************************************************
+//                          SPARQLListFetcherBenchmark.java
+// OpenSILEX - Licence AGPL V3.0 - https://www.gnu.org/licenses/agpl-3.0.en.html
+// Copyright © INRAE 2024
+// Contact: anne.tireau@inrae.fr, pascal.neveu@inrae.fr
+//******************************************************************************
+package org.opensilex.sparql.benchmark;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.apache.jena.graph.Node;
+import org.opensilex.core.germplasm.dal.GermplasmModel;
+import org.opensilex.sparql.mapping.SPARQLClassObjectMapper;
+import org.opensilex.sparql.mapping.SPARQLListFetcher;
+import org.opensilex.sparql.service.SPARQLResult;
+import org.opensilex.sparql.service.SPARQLService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmark {@link SPARQLListFetcher#updateModels()} on germplasm synonyms, as done by germplasm search.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SPARQLListFetcherBenchmark {
+
+    /**
+     * Number of germplasms to update, like a search page size
+     */
+    @Param({"20", "100", "1000"})
+    public int pageSize;
+
+    @Param({"3"})
+    public int synonymsByGermplasm;
+
+    private SPARQLBenchmarkEnvironment environment;
+    private SPARQLService sparql;
+    private SPARQLClassObjectMapper<GermplasmModel> mapper;
+    private Node graph;
+    private List<SPARQLResult> results;
+
+    /**
+     * Models without synonyms, rebuilt before each invocation since updateModels() modify them
+     */
+    private List<GermplasmModel> models;
+
+    @Setup(Level.Trial)
+    public void setup() throws Exception {
+        SyntheticDataGenerator generator = new SyntheticDataGenerator(0, 0, pageSize, synonymsByGermplasm);
+
+        environment = new SPARQLBenchmarkEnvironment();
+        environment.seed(generator);
+
+        sparql = environment.provide();
+        mapper = environment.getMapperIndex().getForClass(GermplasmModel.class);
+        graph = sparql.getDefaultGraph(GermplasmModel.class);
+        results = sparql.executeSelectQuery(mapper.getSelectBuilder(graph, SPARQLBenchmarkEnvironment.LANG));
+    }
+
+    @Setup(Level.Invocation)
+    public void mapModels() throws Exception {
+        models = new ArrayList<>(results.size());
+        for (SPARQLResult result : results) {
+            models.add(mapper.createInstance(graph, result, SPARQLBenchmarkEnvironment.LANG, sparql));
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws Exception {
+        sparql.close();
+        environment.close();
+    }
+
+    @Benchmark
+    public List<GermplasmModel> updateModels() throws Exception {
+        SPARQLListFetcher<GermplasmModel> listFetcher = new SPARQLListFetcher<>(
+                sparql,
+                GermplasmModel.class,
+                graph,
+                Collections.singleton(GermplasmModel.SYNONYM_VAR),
+                models
+        );
+        listFetcher.updateModels();
+        return models;
+    }
+}
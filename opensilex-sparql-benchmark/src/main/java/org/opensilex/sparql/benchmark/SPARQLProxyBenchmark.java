@@ -0,0 +1,157 @@
+//******************************************************************************
+//                          SPARQLProxyBenchmark.java
+// OpenSILEX - Licence AGPL V3.0 - https://www.gnu.org/licenses/agpl-3.0.en.html
+// Copyright © INRAE 2024
+// Contact: anne.tireau@inrae.fr, pascal.neveu@inrae.fr
+//******************************************************************************
+package org.opensilex.sparql.benchmark;
+
+import java.lang.management.ManagementFactory;
+import java.lang.reflect.InvocationHandler;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import net.bytebuddy.ByteBuddy;
+import net.bytebuddy.implementation.InvocationHandlerAdapter;
+import net.bytebuddy.matcher.ElementMatchers;
+import org.apache.jena.graph.Node;
+import org.opensilex.sparql.mapping.SPARQLClassObjectMapper;
+import org.opensilex.sparql.mapping.SPARQLProxyBatch;
+import org.opensilex.sparql.mapping.SPARQLProxyMarker;
+import org.opensilex.sparql.model.SPARQLResourceModel;
+import org.opensilex.sparql.service.SPARQLResult;
+import org.opensilex.sparql.service.SPARQLService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * <pre>
+ * Benchmark SPARQL proxies used for lazy relations :
+ *
+ * - proxy instances creation, with one class generated for each proxy (previous behavior, reproduced here) or with
+ *   the proxy class generated once by type and cached by {@link org.opensilex.sparql.mapping.SPARQLProxyInterceptor}
+ * - lazy loading of the type label of each result, one query by proxy or one query by page with a {@link SPARQLProxyBatch}
+ *
+ * The number of loaded classes and the metaspace usage are printed at the end of each trial.
+ * Run with "-prof cl" and "-prof gc" for per-iteration class loading and allocation figures.
+ * </pre>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgs = {"-XX:MaxMetaspaceSize=1g"})
+public class SPARQLProxyBenchmark {
+
+    @Param({"SCIENTIFIC_OBJECT", "GERMPLASM"})
+    public BenchmarkModel model;
+
+    /**
+     * Number of generated instances of each model, which is also the result page size
+     */
+    @Param({"100", "1000"})
+    public int size;
+
+    private SPARQLBenchmarkEnvironment environment;
+    private SPARQLService sparql;
+    private SPARQLClassObjectMapper<SPARQLResourceModel> mapper;
+    private Node graph;
+    private List<SPARQLResult> results;
+
+    private long loadedClassesBefore;
+    private long metaspaceBefore;
+
+    @Setup(Level.Trial)
+    public void setup() throws Exception {
+        SyntheticDataGenerator generator = new SyntheticDataGenerator(1, size, size, 3);
+
+        environment = new SPARQLBenchmarkEnvironment();
+        environment.seed(generator);
+
+        sparql = environment.provide();
+        mapper = environment.getMapperIndex().getForClass(model.getModelClass());
+        graph = model.getGraph(sparql, generator);
+        results = sparql.executeSelectQuery(mapper.getSelectBuilder(graph, SPARQLBenchmarkEnvironment.LANG));
+
+        loadedClassesBefore = ManagementFactory.getClassLoadingMXBean().getTotalLoadedClassCount();
+        metaspaceBefore = getMetaspaceUsed();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws Exception {
+        long loadedClasses = ManagementFactory.getClassLoadingMXBean().getTotalLoadedClassCount() - loadedClassesBefore;
+        long metaspace = getMetaspaceUsed() - metaspaceBefore;
+        System.out.printf("%n[%s] classes loaded during trial: %d, metaspace growth: %d KB%n", model, loadedClasses, metaspace / 1024);
+
+        sparql.close();
+        environment.close();
+    }
+
+    private static long getMetaspaceUsed() {
+        return ManagementFactory.getMemoryPoolMXBeans().stream()
+                .filter(pool -> "Metaspace".equals(pool.getName()))
+                .mapToLong(pool -> pool.getUsage().getUsed())
+                .sum();
+    }
+
+    /**
+     * Proxy creation as done before proxy classes caching : one class is generated and loaded by proxy instance
+     */
+    @Benchmark
+    public void proxyClassByInstance(Blackhole blackhole) throws Exception {
+        InvocationHandler handler = (proxy, method, args) -> null;
+        for (int i = 0; i < results.size(); i++) {
+            Class<? extends SPARQLResourceModel> proxyClass = new ByteBuddy()
+                    .subclass(model.getModelClass())
+                    .implement(SPARQLProxyMarker.class)
+                    .method(ElementMatchers.any())
+                    .intercept(InvocationHandlerAdapter.of(handler))
+                    .make()
+                    .load(getClass().getClassLoader())
+                    .getLoaded();
+            blackhole.consume(proxyClass.getConstructor().newInstance());
+        }
+    }
+
+    /**
+     * Results mapping, including one cached proxy class instance for each type label and object relation
+     */
+    @Benchmark
+    public void cachedProxyClass(Blackhole blackhole) throws Exception {
+        for (SPARQLResult result : results) {
+            blackhole.consume(mapper.createInstance(graph, result, SPARQLBenchmarkEnvironment.LANG, sparql));
+        }
+    }
+
+    @Benchmark
+    public void loadTypeLabelsByProxy(Blackhole blackhole) throws Exception {
+        for (SPARQLResult result : results) {
+            SPARQLResourceModel instance = mapper.createInstance(graph, result, SPARQLBenchmarkEnvironment.LANG, sparql);
+            blackhole.consume(instance.getTypeLabel().getTranslations());
+        }
+    }
+
+    @Benchmark
+    public void loadTypeLabelsByBatch(Blackhole blackhole) throws Exception {
+        SPARQLProxyBatch proxyBatch = new SPARQLProxyBatch();
+        SPARQLResourceModel[] instances = new SPARQLResourceModel[results.size()];
+        for (int i = 0; i < instances.length; i++) {
+            instances[i] = mapper.createInstance(graph, results.get(i), SPARQLBenchmarkEnvironment.LANG, sparql, proxyBatch);
+        }
+        for (SPARQLResourceModel instance : instances) {
+            blackhole.consume(instance.getTypeLabel().getTranslations());
+        }
+    }
+}
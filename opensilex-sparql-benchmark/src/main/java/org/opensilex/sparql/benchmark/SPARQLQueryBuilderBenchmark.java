@@ -0,0 +1,102 @@
+//******************************************************************************
+//                          SPARQLQueryBuilderBenchmark.java
+// OpenSILEX - Licence AGPL V3.0 - https://www.gnu.org/licenses/agpl-3.0.en.html
+// Copyright © INRAE 2024
+// Contact: anne.tireau@inrae.fr, pascal.neveu@inrae.fr
+//******************************************************************************
+package org.opensilex.sparql.benchmark;
+
+import java.net.URI;
+import java.util.concurrent.TimeUnit;
+import org.apache.jena.arq.querybuilder.SelectBuilder;
+import org.apache.jena.graph.Node;
+import org.opensilex.sparql.deserializer.SPARQLDeserializers;
+import org.opensilex.sparql.mapping.SPARQLClassObjectMapper;
+import org.opensilex.sparql.model.SPARQLResourceModel;
+import org.opensilex.sparql.service.SPARQLService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmark SELECT, COUNT and INSERT query building from model mapping ({@link SPARQLClassObjectMapper},
+ * {@link org.opensilex.sparql.mapping.SPARQLClassQueryBuilder}). No query is executed.
+ * <p>
+ * The load by URI query is built from scratch ({@link #loadByURIQuery()}), or bound from the query prepared once by
+ * {@link SPARQLService#getPreparedSelectByURIs(SPARQLClassObjectMapper, Node, String)} ({@link #preparedLoadByURIQuery()}).
+ * </p>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SPARQLQueryBuilderBenchmark {
+
+    @Param({"SCIENTIFIC_OBJECT", "GERMPLASM", "EXPERIMENT"})
+    public BenchmarkModel model;
+
+    private SPARQLBenchmarkEnvironment environment;
+    private SPARQLService sparql;
+    private SPARQLClassObjectMapper<SPARQLResourceModel> mapper;
+    private Node graph;
+    private SPARQLResourceModel instance;
+    private URI uri;
+
+    @Setup(Level.Trial)
+    public void setup() throws Exception {
+        SyntheticDataGenerator generator = new SyntheticDataGenerator(1, 1, 1, 3);
+
+        environment = new SPARQLBenchmarkEnvironment();
+        sparql = environment.provide();
+        mapper = environment.getMapperIndex().getForClass(model.getModelClass());
+        graph = model.getGraph(sparql, generator);
+        instance = model.getInstances(generator).get(0);
+        uri = URI.create(SPARQLBenchmarkEnvironment.BASE_URI + "id/benchmark/loaded");
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws Exception {
+        sparql.close();
+        environment.close();
+    }
+
+    @Benchmark
+    public String selectQuery() throws Exception {
+        return mapper.getSelectBuilder(graph, SPARQLBenchmarkEnvironment.LANG).buildString();
+    }
+
+    @Benchmark
+    public String loadByURIQuery() throws Exception {
+        SelectBuilder select = mapper.getSelectBuilder(graph, SPARQLBenchmarkEnvironment.LANG);
+        select.addValueVar(mapper.getURIFieldExprVar(), SPARQLDeserializers.nodeURI(uri));
+        select.addPrefixes(SPARQLService.getPrefixMapping());
+        return select.buildString();
+    }
+
+    @Benchmark
+    public String preparedLoadByURIQuery() throws Exception {
+        return sparql.getPreparedSelectByURIs(mapper, graph, SPARQLBenchmarkEnvironment.LANG).bind(uri);
+    }
+
+    @Benchmark
+    public String countQuery() throws Exception {
+        return mapper.getCountBuilder(graph, "count", SPARQLBenchmarkEnvironment.LANG).buildString();
+    }
+
+    @Benchmark
+    public String createQuery() throws Exception {
+        return mapper.getCreateBuilder(graph, instance).buildString();
+    }
+}
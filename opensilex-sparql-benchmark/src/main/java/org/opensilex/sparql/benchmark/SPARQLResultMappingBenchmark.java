@@ -0,0 +1,98 @@
+//******************************************************************************
+//                          SPARQLResultMappingBenchmark.java
+// OpenSILEX - Licence AGPL V3.0 - https://www.gnu.org/licenses/agpl-3.0.en.html
+// Copyright © INRAE 2024
+// Contact: anne.tireau@inrae.fr, pascal.neveu@inrae.fr
+//******************************************************************************
+package org.opensilex.sparql.benchmark;
+
+import java.net.URI;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.apache.jena.graph.Node;
+import org.opensilex.sparql.mapping.SPARQLClassObjectMapper;
+import org.opensilex.sparql.model.SPARQLResourceModel;
+import org.opensilex.sparql.service.SPARQLResult;
+import org.opensilex.sparql.service.SPARQLService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Benchmark mapping of SELECT results to models (including SPARQL proxies creation
+ * for object relations), alone and together with query execution against the in-memory repository.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SPARQLResultMappingBenchmark {
+
+    @Param({"SCIENTIFIC_OBJECT", "GERMPLASM", "EXPERIMENT"})
+    public BenchmarkModel model;
+
+    /**
+     * Number of generated instances of each model
+     */
+    @Param({"1000"})
+    public int size;
+
+    private SPARQLBenchmarkEnvironment environment;
+    private SPARQLService sparql;
+    private SPARQLClassObjectMapper<SPARQLResourceModel> mapper;
+    private Node graph;
+    private List<SPARQLResult> results;
+    private URI instanceURI;
+
+    @Setup(Level.Trial)
+    public void setup() throws Exception {
+        // all scientific objects are in the same experiment graph
+        SyntheticDataGenerator generator = new SyntheticDataGenerator(1, size, size, 3);
+
+        environment = new SPARQLBenchmarkEnvironment();
+        environment.seed(generator);
+
+        sparql = environment.provide();
+        mapper = environment.getMapperIndex().getForClass(model.getModelClass());
+        graph = model.getGraph(sparql, generator);
+        results = sparql.executeSelectQuery(mapper.getSelectBuilder(graph, SPARQLBenchmarkEnvironment.LANG));
+        instanceURI = model.getInstances(generator).get(size / 2).getUri();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws Exception {
+        sparql.close();
+        environment.close();
+    }
+
+    @Benchmark
+    public void mapResults(Blackhole blackhole) throws Exception {
+        for (SPARQLResult result : results) {
+            blackhole.consume(mapper.createInstance(graph, result, SPARQLBenchmarkEnvironment.LANG, sparql));
+        }
+    }
+
+    @Benchmark
+    public List<SPARQLResourceModel> search() throws Exception {
+        return sparql.search(graph, model.getModelClass(), SPARQLBenchmarkEnvironment.LANG, null);
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public SPARQLResourceModel getByURI() throws Exception {
+        return sparql.getByURI(graph, model.getModelClass(), instanceURI, SPARQLBenchmarkEnvironment.LANG);
+    }
+}
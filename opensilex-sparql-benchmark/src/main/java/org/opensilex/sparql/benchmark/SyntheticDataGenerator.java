@@ -0,0 +1,121 @@
+//******************************************************************************
+//                          SyntheticDataGenerator.java
+// OpenSILEX - Licence AGPL V3.0 - https://www.gnu.org/licenses/agpl-3.0.en.html
+// Copyright © INRAE 2024
+// Contact: anne.tireau@inrae.fr, pascal.neveu@inrae.fr
+//******************************************************************************
+package org.opensilex.sparql.benchmark;
+
+import java.net.URI;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import org.apache.jena.graph.NodeFactory;
+import org.opensilex.core.experiment.dal.ExperimentModel;
+import org.opensilex.core.germplasm.dal.GermplasmModel;
+import org.opensilex.core.scientificObject.dal.ScientificObjectModel;
+import org.opensilex.sparql.service.SPARQLService;
+
+/**
+ * Generate deterministic synthetic experiments, scientific objects and germplasms.
+ * Scientific objects are created inside their experiment graph, as done by the scientific object API.
+ */
+public class SyntheticDataGenerator {
+
+    private static final LocalDate START_DATE = LocalDate.of(2020, 1, 1);
+
+    private final int experimentCount;
+    private final int objectsByExperiment;
+    private final int germplasmCount;
+    private final int synonymsByGermplasm;
+
+    private final List<ExperimentModel> experiments = new ArrayList<>();
+    private final List<ScientificObjectModel> scientificObjects = new ArrayList<>();
+    private final List<GermplasmModel> germplasms = new ArrayList<>();
+
+    public SyntheticDataGenerator(int experimentCount, int objectsByExperiment, int germplasmCount, int synonymsByGermplasm) {
+        this.experimentCount = experimentCount;
+        this.objectsByExperiment = objectsByExperiment;
+        this.germplasmCount = germplasmCount;
+        this.synonymsByGermplasm = synonymsByGermplasm;
+        generate(new Random(42));
+    }
+
+    private void generate(Random random) {
+        for (int i = 0; i < experimentCount; i++) {
+            ExperimentModel experiment = new ExperimentModel();
+            experiment.setUri(getURI("experiment", i));
+            experiment.setName("Experiment " + i);
+            experiment.setStartDate(START_DATE.plusDays(random.nextInt(365)));
+            experiment.setObjective("Objective of experiment " + i);
+            experiment.setDescription("Synthetic experiment used for benchmarks");
+            experiments.add(experiment);
+
+            for (int j = 0; j < objectsByExperiment; j++) {
+                ScientificObjectModel object = new ScientificObjectModel();
+                object.setUri(getURI("so", i * objectsByExperiment + j));
+                object.setName("Plot " + i + "-" + j);
+                object.setCreationDate(experiment.getStartDate().plusDays(random.nextInt(30)));
+
+                ExperimentModel experimentRef = new ExperimentModel();
+                experimentRef.setUri(experiment.getUri());
+                object.setExperiment(experimentRef);
+
+                scientificObjects.add(object);
+            }
+        }
+
+        for (int i = 0; i < germplasmCount; i++) {
+            GermplasmModel germplasm = new GermplasmModel();
+            germplasm.setUri(getURI("germplasm", i));
+            germplasm.setName("Germplasm " + i);
+            germplasm.setInstitute("Institute " + random.nextInt(10));
+            germplasm.setProductionYear(2000 + random.nextInt(20));
+
+            List<String> synonyms = new ArrayList<>(synonymsByGermplasm);
+            for (int j = 0; j < synonymsByGermplasm; j++) {
+                synonyms.add("G" + i + "_" + j);
+            }
+            germplasm.setSynonyms(synonyms);
+
+            germplasms.add(germplasm);
+        }
+    }
+
+    private static URI getURI(String type, int index) {
+        return SPARQLBenchmarkEnvironment.BASE_URI.resolve("id/" + type + "/" + type + "_" + index);
+    }
+
+    /**
+     * Insert all generated models
+     *
+     * @param sparql SPARQL service
+     * @throws Exception if insertion fails
+     */
+    public void insert(SPARQLService sparql) throws Exception {
+        if (!experiments.isEmpty()) {
+            sparql.create(ExperimentModel.class, experiments);
+        }
+        if (!germplasms.isEmpty()) {
+            sparql.create(GermplasmModel.class, germplasms);
+        }
+
+        for (int i = 0; objectsByExperiment > 0 && i < experimentCount; i++) {
+            List<ScientificObjectModel> experimentObjects = scientificObjects.subList(i * objectsByExperiment, (i + 1) * objectsByExperiment);
+            sparql.create(NodeFactory.createURI(experiments.get(i).getUri().toString()), experimentObjects);
+        }
+    }
+
+    public List<ExperimentModel> getExperiments() {
+        return experiments;
+    }
+
+    public List<ScientificObjectModel> getScientificObjects() {
+        return scientificObjects;
+    }
+
+    public List<GermplasmModel> getGermplasms() {
+        return germplasms;
+    }
+}
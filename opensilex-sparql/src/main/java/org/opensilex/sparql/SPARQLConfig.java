@@ -62,6 +62,13 @@ public interface SPARQLConfig {
     )
     boolean enableOntologyStore();
 
+    @ConfigDescription(
+            value = "Path of the ontology store snapshot file (absolute or relative to the OpenSILEX base directory). " +
+                    "If set, the store is loaded from this file when ontologies are unchanged since its last writing. Disabled if empty",
+            defaultString = ""
+    )
+    String ontologyStoreSnapshotPath();
+
     @ConfigDescription(
             value = "Number of line processed by batch during CSV import (must be strictly positive)." +
                     "Small value lead to less RAM usage at the cost of additional I/O during validation",
@@ -40,4 +40,25 @@ public @interface SPARQLResource {
     boolean allowBlankNode() default false;
 
     boolean handleCustomProperties() default false;
+
+    /**
+     * Max number of instances kept in the cache shared by all requests, 0 to disable it.
+     * Only use it for resources which are mostly updated through SPARQLService create/update/delete methods.
+     *
+     * @see org.opensilex.sparql.service.SPARQLResultCache
+     */
+    long cacheMaxSize() default 0;
+
+    /**
+     * Duration (in seconds) after which an instance is removed from the shared cache
+     */
+    long cacheExpiration() default 300;
+
+    /**
+     * Keep an in-memory index of the labels of the instances, shared by all requests, to speed up searches by name.
+     * Only use it for resources which are mostly updated through SPARQLService create/update/delete methods.
+     *
+     * @see org.opensilex.sparql.service.SPARQLLabelIndex
+     */
+    boolean labelIndex() default false;
 }
@@ -6,7 +6,9 @@ import org.apache.commons.lang3.StringUtils;
 import org.apache.jena.arq.querybuilder.SelectBuilder;
 import org.apache.jena.graph.Node;
 import org.apache.jena.graph.NodeFactory;
+import org.opensilex.OpenSilex;
 import org.opensilex.OpenSilexModuleNotFoundException;
+import org.opensilex.service.execution.ExecutionService;
 import org.opensilex.sparql.SPARQLConfig;
 import org.opensilex.sparql.SPARQLModule;
 import org.opensilex.sparql.csv.header.CsvHeader;
@@ -23,6 +25,8 @@ import org.opensilex.sparql.service.SPARQLResult;
 import org.opensilex.sparql.service.SPARQLService;
 import org.opensilex.uri.generation.ClassURIGenerator;
 import org.opensilex.utils.ClassUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 import java.io.BufferedInputStream;
 import java.io.File;
@@ -30,17 +34,25 @@ import java.io.IOException;
 import java.net.URI;
 import java.net.URISyntaxException;
 import java.nio.file.Files;
+import java.time.Duration;
+import java.time.Instant;
 import java.util.*;
+import java.util.concurrent.*;
 import java.util.function.BiConsumer;
 import java.util.function.Supplier;
 import java.util.stream.Stream;
 
+import static net.logstash.logback.argument.StructuredArguments.kv;
+import static org.opensilex.utils.LogFilter.*;
+
 /**
  * @author rcolin
  * @param <T>
  */
 public abstract class AbstractCsvImporter<T extends SPARQLResourceModel & ClassURIGenerator> implements CsvImporter<T> {
 
+    private static final Logger LOGGER = LoggerFactory.getLogger(AbstractCsvImporter.class);
+
     public static final String CSV_URI_KEY = "uri";
     public static final int CSV_URI_INDEX = 0;
 
@@ -105,6 +117,11 @@ public abstract class AbstractCsvImporter<T extends SPARQLResourceModel & ClassU
      */
     protected final Set<String> extraColumnsToExpect;
 
+    /**
+     * Optional listener notified of errors and progression during import
+     */
+    private CsvImportProgressListener progressListener;
+
     /**
      *
      * @param sparql SPARQL service
@@ -243,12 +260,75 @@ public abstract class AbstractCsvImporter<T extends SPARQLResourceModel & ClassU
     }
 
     /**
+     * Read the next chunk of rows from the CSV file
+     * @param rowIterator an Iterator on each CSV row
+     * @return the next {@link #batchSize} rows, or less if the end of file is reached
+     */
+    private List<String[]> readRows(Iterator<String[]> rowIterator) {
+        List<String[]> rows = new ArrayList<>(batchSize);
+        while (rows.size() < batchSize && rowIterator.hasNext()) {
+            rows.add(rowIterator.next());
+        }
+        return rows;
+    }
+
+    /**
+     * @return the shared IO pool of the execution service, or null if the service is not available. In this case,
+     * rows are parsed by the calling thread.
+     */
+    private ExecutorService getParsingExecutor() {
+        OpenSilex opensilex = sparql.getOpenSilex();
+        ExecutionService executionService = opensilex == null ? null : opensilex.getServiceInstance(ExecutionService.DEFAULT_SERVICE, ExecutionService.class);
+        return executionService == null ? null : executionService.getIoPool();
+    }
+
+    /**
+     * Submit the parsing of the next chunk to the executor. The chunk is parsed by the calling thread if there is no
+     * executor or if the pool is saturated.
+     */
+    private Future<List<String[]>> submitReadRows(ExecutorService parser, Iterator<String[]> rowIterator) {
+        Callable<List<String[]>> readRows = () -> readRows(rowIterator);
+        if (parser != null) {
+            try {
+                return parser.submit(readRows);
+            } catch (RejectedExecutionException e) {
+                // The pool is saturated, the chunk is parsed by the calling thread
+            }
+        }
+        FutureTask<List<String[]>> task = new FutureTask<>(readRows);
+        task.run();
+        return task;
+    }
+
+    private static List<String[]> getRows(Future<List<String[]>> rowsFuture) throws Exception {
+        try {
+            return rowsFuture.get();
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof Exception) {
+                throw (Exception) e.getCause();
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * <pre>
+     * Read the CSV body by chunk of {@link #batchSize} rows. Each chunk goes through the following stages :
+     * - parsing : the next chunk is parsed by the IO pool of the execution service while the current chunk is validated and written
+     * - chunk preparation : {@link #beforeChunkValidation(List, CsvHeader, CsvOwlRestrictionValidator)}
+     * - row validation : each row is read and validated
+     * - batch validation : URI uniqueness, {@link CsvOwlRestrictionValidator#batchValidation()} and {@link #customBatchValidation(CsvOwlRestrictionValidator, List, int, boolean)}
+     * - write : {@link #upsert(CSVValidationModel, List, List)}
+     * </pre>
      *
      * @param rowIterator an Iterator on each CSV row
      * @param csvHeader CSV Header
      * @param validator OWL validation which can deal with custom csv validation and errors registering
      * @param validOnly performs validation if {@code true}, performs validation+insertion else
      * @param modelsConsumer a {@link BiConsumer} used to consume each chunk after validation/insertion (optional)
+     *
+     * @apiNote Only the parsing is done outside the calling thread, since {@link CsvOwlRestrictionValidator}, row hooks and SPARQL
+     * connection are not thread-safe.
      */
     private void readBody(
             Iterator<String[]> rowIterator,
@@ -265,60 +345,104 @@ public abstract class AbstractCsvImporter<T extends SPARQLResourceModel & ClassU
         // contains each encountered type which is a subClass of rootClassModel, during whole CSV file reading
         Map<String,ClassModel> localClassesCache = new PatriciaTrie<>();
 
-        while (rowIterator.hasNext() && allOk) {
+        Instant start = Instant.now();
+        ExecutorService parser = getParsingExecutor();
+        Future<List<String[]>> nextRows = submitReadRows(parser, rowIterator);
+
+        try {
+            while (allOk) {
+
+                List<String[]> rows = getRows(nextRows);
+                if (rows.isEmpty()) {
+                    break;
+                }
+
+                // parse next chunk while the current one is validated and written
+                nextRows = submitReadRows(parser, rowIterator);
 
-            // read csv file by batch :
-            // perform validation and insertion by batch (by using transaction)
-            List<T> modelChunkToCreate = new ArrayList<>(batchSize);
-            // perform validation and modification by batch (by using transaction)
-            List<T> modelChunkToUpdate = new ArrayList<>(batchSize);
+                // read csv file by batch :
+                // perform validation and insertion by batch (by using transaction)
+                List<T> modelChunkToCreate = new ArrayList<>(batchSize);
+                // perform validation and modification by batch (by using transaction)
+                List<T> modelChunkToUpdate = new ArrayList<>(batchSize);
 
-            Map<String, Integer> filledUrisToIndexesInChunk = new PatriciaTrie<>();
-            Map<String, Integer> generatedUrisToIndexesInChunk = new PatriciaTrie<>();
-            int chunkRowIdx = 0;
+                Map<String, Integer> filledUrisToIndexesInChunk = new PatriciaTrie<>();
+                Map<String, Integer> generatedUrisToIndexesInChunk = new PatriciaTrie<>();
+                int chunkRowIdx = 0;
 
-            // continue while batch size or max error limit is not reached
-            while ((chunkRowIdx++ < batchSize) && (validator.getNbError() < errorNbLimit) && (rowIterator.hasNext())) {
-                String[] row = rowIterator.next();
+                beforeChunkValidation(rows, csvHeader, validator);
+                Iterator<String[]> chunkIterator = rows.iterator();
 
-                // Check that row size is coherent with header size
-                if (checkRowSize(row, rowIndex, validator, csvHeader)) {
+                // continue while batch size or max error limit is not reached
+                while ((chunkRowIdx++ < batchSize) && (validator.getNbError() < errorNbLimit) && (chunkIterator.hasNext())) {
+                    String[] row = chunkIterator.next();
 
-                    // read model and performs local validation
-                    T model = getModel(rowIndex, row, csvHeader, validator,localClassesCache);
-                    // handle URI generation or association of filled uris to their line index in a Map.
-                    // add model in modelChunk List
-                    var forUpdate = handleURIMapping(validator, model, rowIndex, modelChunkToCreate, modelChunkToUpdate, generatedUrisToIndexesInChunk, filledUrisToIndexesInChunk);
-                    performEndOfRowOperations(rowIndex, model, validator, csvHeader, forUpdate);
+                    // Check that row size is coherent with header size
+                    if (checkRowSize(row, rowIndex, validator, csvHeader)) {
+
+                        // read model and performs local validation
+                        T model = getModel(rowIndex, row, csvHeader, validator,localClassesCache);
+                        // handle URI generation or association of filled uris to their line index in a Map.
+                        // add model in modelChunk List
+                        var forUpdate = handleURIMapping(validator, model, rowIndex, modelChunkToCreate, modelChunkToUpdate, generatedUrisToIndexesInChunk, filledUrisToIndexesInChunk);
+                        performEndOfRowOperations(rowIndex, model, validator, csvHeader, forUpdate);
+                    }
+                    rowIndex++;
                 }
-                rowIndex++;
-            }
 
-            checkUrisUniqueness(validator, filledUrisToIndexesInChunk, generatedUrisToIndexesInChunk, modelChunkToCreate);
+                checkUrisUniqueness(validator, filledUrisToIndexesInChunk, generatedUrisToIndexesInChunk, modelChunkToCreate);
 
-            // batch validation and custom consumer use
-            if(validator.isValid()){
-                batchValidation(validator, modelChunkToCreate,rowIndex-chunkRowIdx, false);
-                batchValidation(validator, modelChunkToUpdate,rowIndex-chunkRowIdx, true);
+                // batch validation and custom consumer use
+                if(validator.isValid()){
+                    batchValidation(validator, modelChunkToCreate,rowIndex-chunkRowIdx, false);
+                    batchValidation(validator, modelChunkToUpdate,rowIndex-chunkRowIdx, true);
 
-                if(modelsConsumer != null){
-                    modelsConsumer.accept(validator.getValidationModel(), modelChunkToCreate.stream());
+                    if(modelsConsumer != null){
+                        modelsConsumer.accept(validator.getValidationModel(), modelChunkToCreate.stream());
+                    }
+                    // map modelChunkToUpdate list in validator
+                    mapObjectsToUpdate(validator, modelChunkToUpdate);
                 }
-                // map modelChunkToUpdate list in validator
-                mapObjectsToUpdate(validator, modelChunkToUpdate);
-            }
 
-            // write chunk
-            allOk = validator.isValid();
-            if (allOk && !validOnly) {
-                upsert(validator.getValidationModel(), modelChunkToCreate, modelChunkToUpdate);
+                // write chunk
+                allOk = validator.isValid();
+                if (allOk && !validOnly) {
+                    upsert(validator.getValidationModel(), modelChunkToCreate, modelChunkToUpdate);
+                }
+
+                notifyProgress(rowIndex, validator.getNbError(), start);
             }
+        } finally {
+            // the pool is shared, only the pending parsing is cancelled
+            nextRows.cancel(true);
         }
+
         if (allOk) {
             validator.getValidationModel().setNbObjectImported(rowIndex);
         }
     }
 
+    private void notifyProgress(int nbRowsRead, int nbErrors, Instant start) {
+        long durationMs = Duration.between(start, Instant.now()).toMillis();
+        LOGGER.debug("{}, type: {}, rows: {}, errors: {}, duration: {} ms", kv(LOG_TYPE_KEY, "csvImportChunk"), rootClassURI, nbRowsRead, nbErrors, kv(LOG_DURATION_MS_KEY, durationMs));
+
+        if (progressListener != null) {
+            progressListener.onProgress(nbRowsRead, nbErrors);
+        }
+    }
+
+    /**
+     * Called with the raw rows of a chunk, before any row of this chunk is read. This method is useful in order to replace
+     * some row-by-row I/O (ex : existence check of each row URI) by one query on the whole chunk.
+     *
+     * @param rows raw CSV rows of the chunk
+     * @param csvHeader CSV header
+     * @param validator CSV validator
+     */
+    protected void beforeChunkValidation(List<String[]> rows, CsvHeader csvHeader, CsvOwlRestrictionValidator validator) throws Exception {
+        // no chunk preparation
+    }
+
     protected <T extends SPARQLResourceModel & ClassURIGenerator> void mapObjectsToUpdate(CsvOwlRestrictionValidator validator, List<T> modelChunkToUpdate) {
         // no need of mapping objects to update here
     }
@@ -734,6 +858,7 @@ public abstract class AbstractCsvImporter<T extends SPARQLResourceModel & ClassU
 
         CsvOwlRestrictionValidator restrictionValidator = new CsvOwlRestrictionValidator(sparql, ontologyStore, graph, errorNbLimit);
         CSVValidationModel csvValidationModel = restrictionValidator.getValidationModel();
+        csvValidationModel.setProgressListener(progressListener);
 
         // use try with resource in order to auto close resource in case of IOException
         try(BufferedInputStream inputStream = new BufferedInputStream(Files.newInputStream(file.toPath()))){
@@ -751,11 +876,21 @@ public abstract class AbstractCsvImporter<T extends SPARQLResourceModel & ClassU
                 csvValidationModel.setCsvHeader(csvHeader);
                 readBody(rowIterator, csvHeader, restrictionValidator, validOnly, modelsConsumer);
             }
+        } finally {
+            // the validation can be cached after import, don't keep a reference on the listener
+            csvValidationModel.setProgressListener(null);
         }
 
         return csvValidationModel;
     }
 
+    /**
+     * @param progressListener listener notified of each registered error and after each chunk of rows (optional)
+     */
+    public void setProgressListener(CsvImportProgressListener progressListener) {
+        this.progressListener = progressListener;
+    }
+
     /**
      * <pre>
      * Add a custom validation on some specific rdf property.
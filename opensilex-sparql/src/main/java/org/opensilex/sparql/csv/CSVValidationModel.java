@@ -74,6 +74,9 @@ public class CSVValidationModel {
 
     private CsvHeader csvHeader;
 
+    @JsonIgnore()
+    private CsvImportProgressListener progressListener;
+
     public List<String> getMissingHeaders() {
         return missingHeaders;
     }
@@ -186,30 +189,35 @@ public class CSVValidationModel {
         datatypeErrors
                 .computeIfAbsent(cell.getRowIndex(), rowIndex -> new ArrayList<>())
                 .add(new CSVDatatypeError(cell, dataType));
+        notifyError(cell);
     }
 
     public void addInvalidDateErrors(CSVCell cell) {
         invalidDateErrors
                 .computeIfAbsent(cell.getRowIndex(), rowIndex -> new ArrayList<>())
                 .add(cell);
+        notifyError(cell);
     }
 
     public void addURINotFoundError(CSVCell cell, URI subjectURI, URI objectURI) {
         uriNotFoundErrors
                 .computeIfAbsent(cell.getRowIndex(), rowIndex -> new ArrayList<>())
                 .add(new CSVURINotFoundError(cell, subjectURI, objectURI));
+        notifyError(cell);
     }
 
     public void addInvalidURIError(CSVCell cell) {
         invalidURIErrors
                 .computeIfAbsent(cell.getRowIndex(), rowIndex -> new ArrayList<>())
                 .add(cell);
+        notifyError(cell);
     }
 
     public void addMissingRequiredValue(CSVCell cell) {
         missingRequiredValueErrors
                 .computeIfAbsent(cell.getRowIndex(), rowIndex -> new ArrayList<>())
                 .add(cell);
+        notifyError(cell);
     }
 
 
@@ -217,18 +225,21 @@ public class CSVValidationModel {
         invalidValueErrors
                 .computeIfAbsent(cell.getRowIndex(), rowIndex -> new ArrayList<>())
                 .add(cell);
+        notifyError(cell);
     }
 
     public void addAlreadyExistingURIError(CSVCell cell) {
         alreadyExistingURIErrors
                 .computeIfAbsent(cell.getRowIndex(), rowIndex -> new ArrayList<>())
                 .add(cell);
+        notifyError(cell);
     }
 
     public void addDuplicateURIError(CSVCell cell, int previousRow) {
         duplicateURIErrors
                 .computeIfAbsent(cell.getRowIndex(), rowIndex -> new ArrayList<>())
                 .add(new CSVDuplicateURIError(cell, previousRow));
+        notifyError(cell);
     }
 
     public void addObject(String name, SPARQLNamedResourceModel object) {
@@ -291,6 +302,25 @@ public class CSVValidationModel {
         invalidRowSizeErrors
                 .computeIfAbsent(cell.getRowIndex(), rowIndex -> new ArrayList<>())
                 .add(cell);
+        notifyError(cell);
+    }
+
+    @JsonIgnore
+    public CsvImportProgressListener getProgressListener() {
+        return progressListener;
+    }
+
+    /**
+     * @param progressListener listener notified each time a cell error is registered (optional)
+     */
+    public void setProgressListener(CsvImportProgressListener progressListener) {
+        this.progressListener = progressListener;
+    }
+
+    private void notifyError(CSVCell cell) {
+        if (progressListener != null) {
+            progressListener.onError(cell);
+        }
     }
 
 }
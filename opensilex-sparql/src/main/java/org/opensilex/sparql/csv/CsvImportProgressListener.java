@@ -0,0 +1,38 @@
+/*******************************************************************************
+ *                         CsvImportProgressListener.java
+ * OpenSILEX - Licence AGPL V3.0 - https://www.gnu.org/licenses/agpl-3.0.en.html
+ * Copyright © INRAE 2024.
+ * Contact: anne.tireau@inrae.fr, pascal.neveu@inrae.fr
+ *
+ ******************************************************************************/
+
+package org.opensilex.sparql.csv;
+
+/**
+ * Listener notified during a CSV import, used to follow long imports without waiting for the final {@link CSVValidationModel}.
+ *
+ * @see AbstractCsvImporter#setProgressListener(CsvImportProgressListener)
+ * @see CSVValidationModel#setProgressListener(CsvImportProgressListener)
+ */
+public interface CsvImportProgressListener {
+
+    /**
+     * Called each time a cell error is registered into the {@link CSVValidationModel}.
+     * The number of notified errors is bounded by the importer error limit.
+     *
+     * @param error the registered error
+     */
+    default void onError(CSVCell error) {
+        // nothing by default
+    }
+
+    /**
+     * Called after the validation (and the insertion if the import is not a validation only) of each chunk of rows.
+     *
+     * @param nbRowsRead number of CSV body rows read since the beginning of the import
+     * @param nbErrors number of errors registered since the beginning of the import
+     */
+    default void onProgress(int nbRowsRead, int nbErrors) {
+        // nothing by default
+    }
+}
@@ -159,8 +159,16 @@ public class SPARQLClassObjectMapper<T extends SPARQLResourceModel> {
 
     }
 
-    @SuppressWarnings("unchecked")
     public T createInstance(Node graph, SPARQLResult result, String lang, SPARQLService service) throws Exception {
+        return createInstance(graph, result, lang, service, null);
+    }
+
+    /**
+     * @param proxyBatch if not null, lazy relations of the created instance are registered into this batch, so they are
+     *                   loaded together with relations of other instances created with the same batch (ex: one page of results).
+     */
+    @SuppressWarnings("unchecked")
+    public T createInstance(Node graph, SPARQLResult result, String lang, SPARQLService service, SPARQLProxyBatch proxyBatch) throws Exception {
 
         SPARQLDeserializer<URI> uriDeserializer = SPARQLDeserializers.getForClass(URI.class);
 
@@ -176,6 +184,7 @@ public class SPARQLClassObjectMapper<T extends SPARQLResourceModel> {
             realTypeLabel = "";
         }
         SPARQLProxyLabel proxyLabel = new SPARQLProxyLabel(mapperIndex, null, realTypeLabel, realType, RDFS.label, false, lang, service);
+        addToBatch(proxyLabel, proxyBatch);
         instance.setTypeLabel(proxyLabel.getInstance());
 
         for (Field field : classAnalyzer.getDataPropertyFields()) {
@@ -236,6 +245,7 @@ public class SPARQLClassObjectMapper<T extends SPARQLResourceModel> {
                 }
 
                 if(proxy != null){
+                    addToBatch(proxy, proxyBatch);
                     setter.invoke(instance, proxy.getInstance());
                 }
             }
@@ -248,6 +258,7 @@ public class SPARQLClassObjectMapper<T extends SPARQLResourceModel> {
 
             if (strValue != null) {
                 SPARQLProxyLabel proxy = new SPARQLProxyLabel(mapperIndex, graph, strValue, uri, classAnalyzer.getLabelPropertyByField(field), classAnalyzer.isReverseRelation(field), lang, service);
+                addToBatch(proxy, proxyBatch);
                 setter.invoke(instance, proxy.getInstance());
             }
 
@@ -257,6 +268,7 @@ public class SPARQLClassObjectMapper<T extends SPARQLResourceModel> {
             Method setter = classAnalyzer.getSetterFromField(field);
 
             SPARQLProxyListData<?> proxy = new SPARQLProxyListData<>(mapperIndex, graph, uri, classAnalyzer.getDataListPropertyByField(field), ClassUtils.getGenericTypeFromField(field), classAnalyzer.isReverseRelation(field), lang, service);
+            addToBatch(proxy, proxyBatch);
             setter.invoke(instance, proxy.getInstance());
         }
 
@@ -278,6 +290,12 @@ public class SPARQLClassObjectMapper<T extends SPARQLResourceModel> {
         return instance;
     }
 
+    private static void addToBatch(SPARQLProxy<?> proxy, SPARQLProxyBatch proxyBatch) {
+        if (proxyBatch != null) {
+            proxy.addToBatch(proxyBatch);
+        }
+    }
+
     /**
      * Set an {@link InstantModel} (by using result) as field of the given instance instead of Using {@link SPARQLProxy}
      * @param instance the {@link SPARQLResourceModel} to update
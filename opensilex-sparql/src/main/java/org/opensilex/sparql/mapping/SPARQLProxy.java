@@ -5,10 +5,16 @@
  */
 package org.opensilex.sparql.mapping;
 
+import java.lang.reflect.Constructor;
 import java.lang.reflect.InvocationHandler;
 import java.lang.reflect.Method;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 import net.bytebuddy.ByteBuddy;
-import net.bytebuddy.implementation.InvocationHandlerAdapter;
+import net.bytebuddy.description.modifier.Visibility;
+import net.bytebuddy.implementation.FieldAccessor;
+import net.bytebuddy.implementation.MethodDelegation;
 import net.bytebuddy.matcher.ElementMatchers;
 import org.apache.jena.graph.*;
 import org.opensilex.OpenSilex;
@@ -39,18 +45,38 @@ abstract class SPARQLProxy<T> implements InvocationHandler {
     protected final SPARQLClassObjectMapperIndex mapperIndex;
     protected T instance;
 
-    public T getInstance() {
-        Class<? extends T> proxy = new ByteBuddy()
+    /**
+     * Constructor of the generated proxy class, by proxied type. A proxy class is generated only once by type,
+     * each proxy instance get its own handler with {@link SPARQLProxyMarker#setSPARQLProxyHandler(InvocationHandler)}.
+     */
+    private static final Map<Class<?>, Constructor<?>> PROXY_CONSTRUCTORS = new ConcurrentHashMap<>();
+
+    private static Constructor<?> createProxyClass(Class<?> type) {
+        Class<?> proxyClass = new ByteBuddy()
                 .subclass(type)
-                .implement(SPARQLProxyMarker.class)
+                .defineField(SPARQLProxyInterceptor.HANDLER_FIELD_NAME, InvocationHandler.class, Visibility.PRIVATE)
                 .method(ElementMatchers.any())
-                .intercept(InvocationHandlerAdapter.of(this))
+                .intercept(MethodDelegation.to(SPARQLProxyInterceptor.class))
+                .implement(SPARQLProxyMarker.class)
+                .intercept(FieldAccessor.ofField(SPARQLProxyInterceptor.HANDLER_FIELD_NAME))
                 .make()
                 .load(OpenSilex.getClassLoader())
                 .getLoaded();
 
         try {
-            return proxy.getConstructor().newInstance();
+            return proxyClass.getConstructor();
+        } catch (NoSuchMethodException ex) {
+            throw new IllegalArgumentException("No public constructor without parameters for SPARQL proxy type: " + type.getName(), ex);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    public T getInstance() {
+        try {
+            Constructor<?> proxyConstructor = PROXY_CONSTRUCTORS.computeIfAbsent(type, SPARQLProxy::createProxyClass);
+            Object proxy = proxyConstructor.newInstance();
+            ((SPARQLProxyMarker) proxy).setSPARQLProxyHandler(this);
+            return (T) proxy;
         } catch (Exception ex) {
             LOGGER.error("Error while creating SPARQL proxy class (should never happend)", ex);
         }
@@ -60,10 +86,55 @@ abstract class SPARQLProxy<T> implements InvocationHandler {
 
     private boolean loaded = false;
 
+    private SPARQLProxyBatch batch;
+
+    /**
+     * Register this proxy into a batch, in order to be loaded with other proxies of the same batch key.
+     * Nothing is done if this proxy can't be loaded by batch.
+     *
+     * @param batch batch of proxies from the same result page
+     */
+    void addToBatch(SPARQLProxyBatch batch) {
+        Object batchKey = getBatchKey();
+        if (batchKey != null && !loaded) {
+            this.batch = batch;
+            batch.register(batchKey, this);
+        }
+    }
+
+    /**
+     * @return the key shared by proxies which can be loaded together with {@link #loadBatch(List)}, or null if
+     * this proxy is always loaded alone
+     */
+    protected Object getBatchKey() {
+        return null;
+    }
+
+    /**
+     * Load all proxies of a batch, with the same batch key. Implementations must call {@link #setLoaded(Object)} on each
+     * loaded proxy. Proxies which are not loaded by this method are loaded later with {@link #loadData()}.
+     *
+     * @param proxies proxies to load, including this proxy
+     */
+    protected void loadBatch(List<SPARQLProxy<?>> proxies) throws Exception {
+        // no batch loading by default
+    }
+
+    protected void setLoaded(T instance) {
+        this.instance = instance;
+        this.loaded = true;
+    }
+
     protected T loadIfNeeded() throws Exception {
+        if (!loaded && batch != null) {
+            List<SPARQLProxy<?>> proxies = batch.removePending(getBatchKey());
+            batch = null;
+            if (proxies.size() > 1) {
+                loadBatch(proxies);
+            }
+        }
         if (!loaded) {
-            instance = loadData();
-            loaded = true;
+            setLoaded(loadData());
         }
 
         return instance;
@@ -0,0 +1,47 @@
+//******************************************************************************
+//                          SPARQLProxyBatch.java
+// OpenSILEX - Licence AGPL V3.0 - https://www.gnu.org/licenses/agpl-3.0.en.html
+// Copyright © INRAE 2024
+// Contact: anne.tireau@inrae.fr, pascal.neveu@inrae.fr
+//******************************************************************************
+package org.opensilex.sparql.mapping;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * <pre>
+ * Group of lazy SPARQL proxies created while reading one page of results.
+ *
+ * Proxies which load the same kind of data (same proxy type, class, graph, property...) share a batch key.
+ * When one of these proxies must be loaded, all pending proxies with the same key are loaded together with one query,
+ * instead of one query by proxy.
+ *
+ * A batch is used by only one thread, like the {@link org.opensilex.sparql.service.SPARQLService} which creates it.
+ * </pre>
+ *
+ * @see SPARQLClassObjectMapper#createInstance(org.apache.jena.graph.Node, org.opensilex.sparql.service.SPARQLResult, String, org.opensilex.sparql.service.SPARQLService, SPARQLProxyBatch)
+ */
+public class SPARQLProxyBatch {
+
+    private final Map<Object, List<SPARQLProxy<?>>> pendingProxiesByKey = new HashMap<>();
+
+    void register(Object key, SPARQLProxy<?> proxy) {
+        pendingProxiesByKey.computeIfAbsent(key, newKey -> new ArrayList<>()).add(proxy);
+    }
+
+    /**
+     * @param key batch key
+     * @return all pending proxies registered with this key, these proxies are no longer pending after this call
+     */
+    List<SPARQLProxy<?>> removePending(Object key) {
+        List<SPARQLProxy<?>> proxies = pendingProxiesByKey.remove(key);
+        if (proxies == null) {
+            return Collections.emptyList();
+        }
+        return proxies;
+    }
+}
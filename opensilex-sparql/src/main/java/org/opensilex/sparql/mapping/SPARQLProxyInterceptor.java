@@ -0,0 +1,56 @@
+//******************************************************************************
+//                          SPARQLProxyInterceptor.java
+// OpenSILEX - Licence AGPL V3.0 - https://www.gnu.org/licenses/agpl-3.0.en.html
+// Copyright © INRAE 2024
+// Contact: anne.tireau@inrae.fr, pascal.neveu@inrae.fr
+//******************************************************************************
+package org.opensilex.sparql.mapping;
+
+import net.bytebuddy.implementation.bind.annotation.AllArguments;
+import net.bytebuddy.implementation.bind.annotation.FieldValue;
+import net.bytebuddy.implementation.bind.annotation.Origin;
+import net.bytebuddy.implementation.bind.annotation.RuntimeType;
+import net.bytebuddy.implementation.bind.annotation.SuperMethod;
+import net.bytebuddy.implementation.bind.annotation.This;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+
+/**
+ * Method interceptor of generated SPARQL proxy classes : each call is delegated to the handler stored into the proxy instance.
+ * This class must be public since generated classes are defined into another class loader.
+ *
+ * @see SPARQLProxy#getInstance()
+ */
+public final class SPARQLProxyInterceptor {
+
+    /**
+     * Name of the field which store the {@link InvocationHandler} inside each proxy instance
+     */
+    public static final String HANDLER_FIELD_NAME = "sparqlProxyHandler";
+
+    private SPARQLProxyInterceptor() {
+    }
+
+    @RuntimeType
+    public static Object intercept(@This Object proxy,
+                                   @Origin Method method,
+                                   @AllArguments Object[] args,
+                                   @FieldValue(HANDLER_FIELD_NAME) InvocationHandler handler,
+                                   @SuperMethod(nullIfImpossible = true) Method superMethod) throws Throwable {
+        if (handler != null) {
+            return handler.invoke(proxy, method, args);
+        }
+
+        // method called by the proxied type constructor, before the handler is set
+        if (superMethod == null) {
+            throw new IllegalStateException("SPARQL proxy handler not set, can't call abstract method: " + method);
+        }
+        try {
+            return superMethod.invoke(proxy, args);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+    }
+}
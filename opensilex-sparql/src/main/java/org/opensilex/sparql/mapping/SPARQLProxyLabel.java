@@ -7,9 +7,15 @@ package org.opensilex.sparql.mapping;
 
 import java.lang.reflect.Method;
 import java.net.URI;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import org.apache.jena.graph.Node;
 import org.apache.jena.rdf.model.Property;
+import org.opensilex.sparql.deserializer.SPARQLDeserializers;
 import org.opensilex.sparql.model.SPARQLLabel;
 import org.opensilex.sparql.service.SPARQLService;
 
@@ -42,6 +48,31 @@ class SPARQLProxyLabel extends SPARQLProxy<SPARQLLabel> {
         return label;
     }
 
+    @Override
+    protected Object getBatchKey() {
+        return Arrays.asList(SPARQLProxyLabel.class, labelProperty, reverseRelation, lang);
+    }
+
+    @Override
+    protected void loadBatch(List<SPARQLProxy<?>> proxies) throws Exception {
+        Set<URI> resourceURIs = new LinkedHashSet<>();
+        for (SPARQLProxy<?> proxy : proxies) {
+            resourceURIs.add(((SPARQLProxyLabel) proxy).resourceURI);
+        }
+
+        Map<String, Map<String, String>> translationsByURI = service.getTranslations(resourceURIs, labelProperty, reverseRelation);
+
+        for (SPARQLProxy<?> proxy : proxies) {
+            SPARQLProxyLabel labelProxy = (SPARQLProxyLabel) proxy;
+            Map<String, String> translations = new HashMap<>(translationsByURI.getOrDefault(SPARQLDeserializers.getExpandedURI(labelProxy.resourceURI), new HashMap<>()));
+            translations.remove(lang);
+
+            SPARQLLabel label = new SPARQLLabel(labelProxy.defaultValue, lang);
+            label.setTranslations(translations);
+            labelProxy.setLoaded(label);
+        }
+    }
+
     @Override
     public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
         boolean noParameters = (method.getParameterCount() == 0);
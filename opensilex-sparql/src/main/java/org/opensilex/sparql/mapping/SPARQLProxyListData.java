@@ -7,7 +7,12 @@ package org.opensilex.sparql.mapping;
 
 import java.net.URI;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import org.apache.jena.arq.querybuilder.SelectBuilder;
 import org.apache.jena.graph.Node;
 import org.apache.jena.rdf.model.Property;
@@ -69,6 +74,61 @@ class SPARQLProxyListData<T> extends SPARQLProxyList<T> {
         return results;
     }
 
+    @Override
+    protected Object getBatchKey() {
+        return Arrays.asList(SPARQLProxyListData.class, graph, property, isReverseRelation, genericType);
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    protected void loadBatch(List<SPARQLProxy<?>> proxies) throws Exception {
+        Set<URI> uris = new LinkedHashSet<>();
+        for (SPARQLProxy<?> proxy : proxies) {
+            uris.add(((SPARQLProxyListData<T>) proxy).uri);
+        }
+
+        SelectBuilder select = new SelectBuilder();
+
+        Var subject = makeVar("subject");
+        Var value = makeVar("value");
+        select.addVar(subject);
+        select.addVar(value);
+
+        if (graph != null) {
+            if (isReverseRelation) {
+                select.addGraph(graph, value, property, subject);
+            } else {
+                select.addGraph(graph, subject, property, value);
+            }
+        } else {
+            if (isReverseRelation) {
+                select.addWhere(value, property, subject);
+            } else {
+                select.addWhere(subject, property, value);
+            }
+        }
+        select.addWhereValueVar(subject, SPARQLDeserializers.nodeListURIAsArray(uris));
+
+        Map<String, List<T>> resultsByURI = new HashMap<>();
+        SPARQLDeserializer<T> deserializer = SPARQLDeserializers.getForClass(genericType);
+
+        service.executeSelectQuery(select, (SPARQLResult result) -> {
+            String strValue = result.getStringValue("value");
+            try {
+                resultsByURI.computeIfAbsent(SPARQLDeserializers.getExpandedURI(result.getStringValue("subject")), key -> new ArrayList<>())
+                        .add(deserializer.fromString(strValue));
+            } catch (Exception ex) {
+                LOGGER.warn("Error while parsing SPARQL result, result will be ignored: " + strValue, ex);
+            }
+        });
+
+        for (SPARQLProxy<?> proxy : proxies) {
+            SPARQLProxyListData<T> listProxy = (SPARQLProxyListData<T>) proxy;
+            List<T> results = resultsByURI.get(SPARQLDeserializers.getExpandedURI(listProxy.uri));
+            listProxy.setLoaded(results != null ? new ArrayList<>(results) : new ArrayList<>());
+        }
+    }
+
     @Override
     public int getSize() throws Exception {
         SelectBuilder select = new SelectBuilder();
@@ -5,10 +5,19 @@
 //******************************************************************************
 package org.opensilex.sparql.mapping;
 
+import java.lang.reflect.InvocationHandler;
+
 /**
+ * Interface implemented by all generated SPARQL proxy classes.
+ * Since a proxy class is generated only once by proxied type, the handler of each proxy instance is set with
+ * {@link #setSPARQLProxyHandler(InvocationHandler)} just after the instance creation.
  *
  * @author vidalmor
  */
 public interface SPARQLProxyMarker {
-    
+
+    /**
+     * @param handler handler to which all method calls of this proxy are delegated
+     */
+    void setSPARQLProxyHandler(InvocationHandler handler);
 }
@@ -7,7 +7,16 @@ package org.opensilex.sparql.mapping;
 
 import java.lang.reflect.Method;
 import java.net.URI;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 import org.apache.jena.graph.Node;
+import org.opensilex.sparql.deserializer.SPARQLDeserializers;
+import org.opensilex.sparql.exceptions.SPARQLMultipleObjectException;
+import org.opensilex.sparql.service.SPARQLResult;
 import org.opensilex.sparql.service.SPARQLService;
 import org.opensilex.sparql.model.SPARQLResourceModel;
 
@@ -40,6 +49,52 @@ class SPARQLProxyResource<T extends SPARQLResourceModel> extends SPARQLProxy<T>
         return data;
     }
 
+    @Override
+    protected Object getBatchKey() {
+        // same graph as the one used by loadData()
+        Node loadGraph = graph != null && !useDefaultGraph ? graph : null;
+        return Arrays.asList(SPARQLProxyResource.class, type, loadGraph, lang);
+    }
+
+    /**
+     * Load all resources with one query, like {@link SPARQLService#loadByURI(Node, Class, URI, String)} does for one resource.
+     * Proxies of URIs which are not found are loaded with a null instance.
+     */
+    @Override
+    @SuppressWarnings("unchecked")
+    protected void loadBatch(List<SPARQLProxy<?>> proxies) throws Exception {
+        Node loadGraph = graph != null && !useDefaultGraph ? graph : service.getDefaultGraph(type);
+        String language = lang != null ? lang : service.getDefaultLang();
+
+        // the same resource can be referenced by several proxies
+        Map<String, List<SPARQLProxyResource<T>>> proxiesByURI = new LinkedHashMap<>();
+        List<URI> uris = new ArrayList<>();
+        for (SPARQLProxy<?> proxy : proxies) {
+            SPARQLProxyResource<T> resourceProxy = (SPARQLProxyResource<T>) proxy;
+            List<SPARQLProxyResource<T>> uriProxies = proxiesByURI.computeIfAbsent(SPARQLDeserializers.getExpandedURI(resourceProxy.uri), key -> new ArrayList<>());
+            if (uriProxies.isEmpty()) {
+                uris.add(resourceProxy.uri);
+            }
+            uriProxies.add(resourceProxy);
+        }
+
+        // instances relations are also loaded by batch
+        SPARQLProxyBatch instancesBatch = new SPARQLProxyBatch();
+        Map<String, T> instancesByURI = new HashMap<>();
+        for (SPARQLResult result : service.selectByURIs(mapper, loadGraph, language, uris)) {
+            String uri = SPARQLDeserializers.getExpandedURI(result.getStringValue(mapper.getURIFieldName()));
+            if (instancesByURI.containsKey(uri)) {
+                throw new SPARQLMultipleObjectException(new URI(uri), service.buildSelectByURIs(mapper, loadGraph, language, uris));
+            }
+            instancesByURI.put(uri, mapper.createInstance(loadGraph, result, language, service, instancesBatch));
+        }
+
+        proxiesByURI.forEach((uri, uriProxies) -> {
+            T data = instancesByURI.get(uri);
+            uriProxies.forEach(proxy -> proxy.setLoaded(data));
+        });
+    }
+
     @Override
     public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
         if (method.getName().equals(mapper.getURIMethod().getName())) {
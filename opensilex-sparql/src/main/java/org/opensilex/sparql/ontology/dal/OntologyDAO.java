@@ -72,6 +72,11 @@ public final class OntologyDAO {
 
     public static final String NO_LABEL_FOR_URI_MESSAGE = "No label found for URI <%s>";
 
+    /**
+     * Max number of URIs resolved by one query of {@link #getURILabels(Collection, String, URI)}
+     */
+    private static final int URI_LABELS_BATCH_SIZE = 1000;
+
     private final Node customGraph;
 
     public OntologyDAO(SPARQLService sparql) {
@@ -913,11 +918,10 @@ public final class OntologyDAO {
         }
 
         List<URI> uriList = new ArrayList<>(uris);
-        int batchSize = 10;
 
-        //Do this request in batches of 10 as the uris filter was failing above 17 uris
-        for (int i = 0; i < uriList.size(); i += batchSize) {
-            int end = Math.min(i + batchSize, uriList.size());
+        // URIs are given with a VALUES clause (a FILTER IN was failing above 17 uris), batches only bound the query size
+        for (int i = 0; i < uriList.size(); i += URI_LABELS_BATCH_SIZE) {
+            int end = Math.min(i + URI_LABELS_BATCH_SIZE, uriList.size());
             List<URI> batch = uriList.subList(i, end);
 
             SelectBuilder select = new SelectBuilder();
@@ -954,7 +958,7 @@ public final class OntologyDAO {
             Locale locale = Locale.forLanguageTag(language);
             select.addFilter(SPARQLQueryHelper.langFilterWithDefault(nameField, locale.getLanguage()));
             select.addFilter(SPARQLQueryHelper.langFilterWithDefault(SPARQLResourceModel.TYPE_NAME_FIELD, locale.getLanguage()));
-            select.addFilter(SPARQLQueryHelper.inURIFilter(SPARQLResourceModel.URI_FIELD, batch));
+            SPARQLQueryHelper.addWhereUriValues(select, SPARQLResourceModel.URI_FIELD, batch);
 
             List<SPARQLResult> results = sparql.executeSelectQuery(select);
             SPARQLDeserializer<URI> uriDeserializer = SPARQLDeserializers.getForClass(URI.class);
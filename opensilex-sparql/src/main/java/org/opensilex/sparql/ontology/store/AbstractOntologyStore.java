@@ -20,6 +20,8 @@ import org.opensilex.OpenSilex;
 import org.opensilex.OpenSilexModuleNotFoundException;
 import org.opensilex.server.ServerConfig;
 import org.opensilex.server.ServerModule;
+import org.opensilex.sparql.SPARQLConfig;
+import org.opensilex.sparql.SPARQLModule;
 import org.opensilex.sparql.deserializer.SPARQLDeserializers;
 import org.opensilex.sparql.deserializer.URIDeserializer;
 import org.opensilex.sparql.exceptions.SPARQLException;
@@ -29,11 +31,13 @@ import org.opensilex.sparql.model.SPARQLTreeListModel;
 import org.opensilex.sparql.model.VocabularyModel;
 import org.opensilex.sparql.ontology.dal.*;
 import org.opensilex.sparql.service.SPARQLService;
-import org.opensilex.sparql.utils.JgraphtUtils;
+import org.opensilex.sparql.utils.TransitiveClosureIndex;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.io.IOException;
 import java.net.URI;
+import java.nio.file.Path;
 import java.time.Duration;
 import java.time.Instant;
 import java.util.*;
@@ -53,11 +57,34 @@ public abstract class AbstractOntologyStore implements OntologyStore {
     private final Map<String, VocabularyModel<?>> modelsByUris;
     private final Graph<String, DefaultEdge> modelsGraph;
 
-    static final int MAX_GRAPH_PATH_LENGTH = 20;
+    /**
+     * Transitive closure of {@link #modelsGraph}, updated each time an edge is added to the graph
+     */
+    private final TransitiveClosureIndex<String> closureIndex = new TransitiveClosureIndex<>();
 
     private final List<String> languages;
     protected static final String NO_LANG = "";
 
+    /**
+     * Snapshot of the store on disk, null if disabled
+     */
+    private final OntologyStoreSnapshot snapshot;
+
+    /**
+     * Indicate that the store content must be read from the snapshot before its first access
+     */
+    private volatile boolean snapshotPending;
+
+    /**
+     * Thread which reads the pending snapshot, so that its own store accesses during the read don't wait for it
+     */
+    private Thread snapshotReader;
+
+    /**
+     * Ontology hash of the pending snapshot
+     */
+    private String snapshotHash;
+
     public static final URI TOP_DATA_PROPERTY_URI = URIDeserializer.formatURI(OWL2.topDataProperty.getURI());
     public static final URI TOP_OBJECT_PROPERTY_URI = URIDeserializer.formatURI(OWL2.topObjectProperty.getURI());
 
@@ -84,6 +111,14 @@ public abstract class AbstractOntologyStore implements OntologyStore {
 
         this.modelsByUris = modelsByUris;
         this.modelsGraph = modelsGraph;
+
+        SPARQLConfig sparqlConfig = openSilex.getModuleConfig(SPARQLModule.class, SPARQLConfig.class);
+        if (sparqlConfig != null && !StringUtils.isEmpty(sparqlConfig.ontologyStoreSnapshotPath())) {
+            Path snapshotPath = openSilex.getBaseDirectory().resolve(sparqlConfig.ontologyStoreSnapshotPath());
+            this.snapshot = new OntologyStoreSnapshot(snapshotPath);
+        } else {
+            this.snapshot = null;
+        }
     }
 
     private static ClassModel getRootClassModel() {
@@ -124,14 +159,48 @@ public abstract class AbstractOntologyStore implements OntologyStore {
     public void load() throws SPARQLException {
 
         try {
-            OntologyStoreLoader storeLoader = new OntologyStoreLoader(sparql, languages);
             clear();
 
+            String ontologyHash = null;
+            if (snapshot != null) {
+                Instant begin = Instant.now();
+                ontologyHash = OntologyStoreSnapshot.computeOntologyHash(sparql, languages);
+
+                // models are only read from the snapshot on first store access
+                if (snapshot.open(ontologyHash)) {
+                    snapshotHash = ontologyHash;
+                    snapshotPending = true;
+                    long elapsedMs = Duration.between(begin, Instant.now()).toMillis();
+                    LOGGER.info("Ontology store snapshot {} is up to date [OK] time: {} ms", snapshot.getPath(), elapsedMs);
+                    return;
+                }
+            }
+
+            loadFromTriplestore(ontologyHash);
+
+        } catch (SPARQLException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new SPARQLException(e);
+        }
+    }
+
+    /**
+     * Load all models from the triplestore, then write the snapshot if enabled.
+     *
+     * @param ontologyHash hash of ontologies used to identify the written snapshot
+     */
+    private void loadFromTriplestore(String ontologyHash) throws SPARQLException {
+
+        try {
+            OntologyStoreLoader storeLoader = new OntologyStoreLoader(sparql, languages);
+
             String loadingMsg = "{} {} loaded [OK] time: {} ms";
 
             // Initial classes loading
             Instant begin = Instant.now();
-            addAll(storeLoader.getClasses());
+            List<ClassModel> classes = storeLoader.getClasses();
+            addAll(classes);
             long elapsedMs = Duration.between(begin, Instant.now()).toMillis();
 
             int nbInserted = modelsByUris.size();
@@ -154,19 +223,87 @@ public abstract class AbstractOntologyStore implements OntologyStore {
             elapsedMs = Duration.between(begin, Instant.now()).toMillis();
             LOGGER.info(loadingMsg, restrictions.size(), "restrictions", elapsedMs);
 
+            if (snapshot != null) {
+                writeSnapshot(ontologyHash, classes, properties, restrictions);
+            }
+
         } catch (Exception e) {
             throw new SPARQLException(e);
         }
 
     }
 
+    private void writeSnapshot(String ontologyHash, List<ClassModel> classes, List<AbstractPropertyModel> properties, List<OwlRestrictionModel> restrictions) {
+        try {
+            Instant begin = Instant.now();
+            snapshot.write(ontologyHash, classes, properties, restrictions);
+            long elapsedMs = Duration.between(begin, Instant.now()).toMillis();
+            LOGGER.info("Ontology store snapshot {} written [OK] time: {} ms", snapshot.getPath(), elapsedMs);
+        } catch (IOException e) {
+            // the store is loaded, only the next startup will be slower
+            LOGGER.warn("Unable to write ontology store snapshot " + snapshot.getPath(), e);
+        }
+    }
+
+    /**
+     * Read and link models from the snapshot opened during {@link #load()}, if not already done.
+     * If the snapshot can't be read, models are loaded from the triplestore.
+     */
+    private void loadSnapshotIfPending() {
+        if (!snapshotPending || snapshotReader == Thread.currentThread()) {
+            return;
+        }
+
+        // other threads wait on the lock until the models are fully read and linked
+        synchronized (this) {
+            if (!snapshotPending) {
+                return;
+            }
+            snapshotReader = Thread.currentThread();
+
+            try {
+                Instant begin = Instant.now();
+                OntologyStoreSnapshot.Content content = snapshot.read();
+                addAll(content.classes);
+                addAll(content.properties);
+                linkPropertiesWithClasses(content.properties);
+                linkRestrictions(content.restrictions);
+
+                long elapsedMs = Duration.between(begin, Instant.now()).toMillis();
+                LOGGER.info("{} classes, {} properties and {} restrictions read from snapshot [OK] time: {} ms", content.classes.size(), content.properties.size(), content.restrictions.size(), elapsedMs);
+
+            } catch (Exception e) {
+                LOGGER.warn("Invalid ontology store snapshot " + snapshot.getPath() + ", load ontologies from triplestore", e);
+                try {
+                    snapshot.close();
+                    clearModels();
+                    loadFromTriplestore(snapshotHash);
+                } catch (SPARQLException loadException) {
+                    throw new IllegalStateException(loadException);
+                }
+            } finally {
+                snapshotReader = null;
+                snapshotPending = false;
+            }
+        }
+    }
+
     public void clear() {
+        snapshotPending = false;
+        if (snapshot != null) {
+            snapshot.close();
+        }
+        clearModels();
+    }
+
+    private void clearModels() {
         modelsByUris.clear();
 
         if (!modelsGraph.vertexSet().isEmpty()) {
             Set<String> vertexesCopy = new HashSet<>(modelsGraph.vertexSet());
             modelsGraph.removeAllVertices(vertexesCopy);
         }
+        closureIndex.clear();
     }
 
     private String formatURI(URI uri) {
@@ -237,6 +374,7 @@ public abstract class AbstractOntologyStore implements OntologyStore {
 
         if (!modelsGraph.containsEdge(parentURI, classURI)) {
             modelsGraph.addEdge(parentURI, classURI);
+            closureIndex.addEdge(parentURI, classURI);
         }
     }
 
@@ -315,7 +453,20 @@ public abstract class AbstractOntologyStore implements OntologyStore {
 
     @Override
     public LinkedHashSet<String> getAncestorHierarchy(URI classURI, URI ancestorUri){
-        return JgraphtUtils.getVertexesFromAncestor(modelsGraph, URIDeserializer.formatURI(ancestorUri).toString(), classURI.toString(), MAX_GRAPH_PATH_LENGTH);
+        loadSnapshotIfPending();
+        return closureIndex.getVertexesFromAncestor(URIDeserializer.formatURI(ancestorUri).toString(), classURI.toString());
+    }
+
+    @Override
+    public LinkedHashSet<String> getAncestors(URI classURI) {
+        loadSnapshotIfPending();
+        return closureIndex.getAncestors(formatURI(classURI));
+    }
+
+    @Override
+    public LinkedHashSet<String> getDescendants(URI classURI) {
+        loadSnapshotIfPending();
+        return closureIndex.getDescendants(formatURI(classURI));
     }
 
     private void inheritFromSuperClasses(URI ancestorURI, ClassModel classModel, boolean addRestrictions, boolean addDataProperties, boolean addObjectProperties) throws SPARQLInvalidURIException {
@@ -335,7 +486,7 @@ public abstract class AbstractOntologyStore implements OntologyStore {
         }
 
         // check if ancestor exist and if it's an ancestor of the given class
-        Set<String> ancestors = JgraphtUtils.getVertexesFromAncestor(modelsGraph, formattedAncestorURI, classURI, MAX_GRAPH_PATH_LENGTH);
+        Set<String> ancestors = closureIndex.getVertexesFromAncestor(formattedAncestorURI, classURI);
         if (ancestors.isEmpty()) {
             throw new SPARQLInvalidURIException(ancestorURI + " is not a " + classURI + " parent or ancestor . ", ancestorURI);
         }
@@ -404,6 +555,7 @@ public abstract class AbstractOntologyStore implements OntologyStore {
 
     @Override
     public ClassModel getClassModel(URI classURI, URI ancestorURI, String lang) throws SPARQLException {
+        loadSnapshotIfPending();
 
         Objects.requireNonNull(classURI);
         ClassModel model = getClassModel(classURI);
@@ -419,6 +571,7 @@ public abstract class AbstractOntologyStore implements OntologyStore {
 
     @Override
     public SPARQLTreeListModel<ClassModel> searchSubClasses(URI classURI, String namePattern, String lang, boolean excludeRoot) throws SPARQLException {
+        loadSnapshotIfPending();
         if(! StringUtils.isEmpty(namePattern)){
             return new NoOntologyStore(ontologyDAO).searchSubClasses(classURI, namePattern, lang, excludeRoot);
         }
@@ -479,6 +632,7 @@ public abstract class AbstractOntologyStore implements OntologyStore {
 
     @Override
     public SPARQLTreeListModel<DatatypePropertyModel> searchDataProperties(URI domain, String namePattern, String lang, boolean includeSubClasses, BiPredicate<DatatypePropertyModel,ClassModel> filter) throws SPARQLException {
+        loadSnapshotIfPending();
 
         if (!StringUtils.isEmpty(namePattern)) {
             return new NoOntologyStore(ontologyDAO).searchDataProperties(domain, namePattern, lang, includeSubClasses, filter);
@@ -499,6 +653,7 @@ public abstract class AbstractOntologyStore implements OntologyStore {
 
     @Override
     public SPARQLTreeListModel<ObjectPropertyModel> searchObjectProperties(URI domain, String namePattern, String lang, boolean includeSubClasses,  BiPredicate<ObjectPropertyModel,ClassModel> filter) throws SPARQLException {
+        loadSnapshotIfPending();
 
         if (!StringUtils.isEmpty(namePattern)) {
             return new NoOntologyStore(ontologyDAO).searchObjectProperties(domain, namePattern, lang, includeSubClasses, filter);
@@ -518,6 +673,7 @@ public abstract class AbstractOntologyStore implements OntologyStore {
 
     @Override
     public Set<DatatypePropertyModel> getLinkableDataProperties(URI domain, URI ancestor, String lang) throws SPARQLException {
+        loadSnapshotIfPending();
 
         // compute set of inherited data properties and inherited properties
         ClassModel domainClass = new ClassModel(getClassModel(domain));
@@ -543,6 +699,7 @@ public abstract class AbstractOntologyStore implements OntologyStore {
 
     @Override
     public Set<ObjectPropertyModel> getLinkableObjectProperties(URI domain, URI ancestor, String lang) throws SPARQLException {
+        loadSnapshotIfPending();
 
         // compute set of inherited object properties
         ClassModel domainClass = new ClassModel(getClassModel(domain));
@@ -569,6 +726,7 @@ public abstract class AbstractOntologyStore implements OntologyStore {
 
     @Override
     public AbstractPropertyModel<?> getProperty(URI propertyURI, URI type, URI domain, String lang) throws SPARQLException {
+        loadSnapshotIfPending();
 
         AbstractPropertyModel<?> model = getProperty(propertyURI, domain);
         handleLang(lang, model);
@@ -589,6 +747,7 @@ public abstract class AbstractOntologyStore implements OntologyStore {
 
     @Override
     public boolean classExist(URI rdfClass, URI ancestorClass) {
+        loadSnapshotIfPending();
         String classURI = formatURI(rdfClass);
 
         if (!modelsByUris.containsKey(classURI)) {
@@ -608,7 +767,6 @@ public abstract class AbstractOntologyStore implements OntologyStore {
             return false;
         }
 
-        Set<String> ancestors = JgraphtUtils.getVertexesFromAncestor(modelsGraph, ancestorURI, classURI, MAX_GRAPH_PATH_LENGTH);
-        return !ancestors.isEmpty();
+        return closureIndex.isAncestor(ancestorURI, classURI);
     }
 }
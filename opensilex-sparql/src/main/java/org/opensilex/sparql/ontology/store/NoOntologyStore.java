@@ -71,6 +71,16 @@ public class NoOntologyStore implements OntologyStore {
         throw new NotImplementedException("This method is not implemented");
     }
 
+    @Override
+    public LinkedHashSet<String> getAncestors(URI classURI) {
+        throw new NotImplementedException("This method is not implemented");
+    }
+
+    @Override
+    public LinkedHashSet<String> getDescendants(URI classURI) {
+        throw new NotImplementedException("This method is not implemented");
+    }
+
     @Override
     public SPARQLTreeListModel<ClassModel> searchSubClasses(URI classURI, String namePattern, String lang, boolean excludeRoot) throws SPARQLException {
         try {
@@ -106,6 +106,20 @@ public interface OntologyStore {
      */
     LinkedHashSet<String> getAncestorHierarchy(URI classURI, URI ancestorUri);
 
+    /**
+     *
+     * @param classURI URI of a {@link ClassModel}
+     * @return an ordered set containing all ancestors of classURI, going from ones that are highest in the hierarchy to ones that are lowest
+     */
+    LinkedHashSet<String> getAncestors(URI classURI);
+
+    /**
+     *
+     * @param classURI URI of a {@link ClassModel}
+     * @return an ordered set containing all descendants of classURI, going from ones that are highest in the hierarchy to ones that are lowest
+     */
+    LinkedHashSet<String> getDescendants(URI classURI);
+
     /**
      * @param classURI URI of a {@link ClassModel} (required)
      * @param namePattern name regex filter
@@ -0,0 +1,452 @@
+/*******************************************************************************
+ *                         OntologyStoreSnapshot.java
+ * OpenSILEX - Licence AGPL V3.0 - https://www.gnu.org/licenses/agpl-3.0.en.html
+ * Copyright © INRAE 2024.
+ * Contact: anne.tireau@inrae.fr, pascal.neveu@inrae.fr
+ *
+ ******************************************************************************/
+
+package org.opensilex.sparql.ontology.store;
+
+import org.apache.jena.arq.querybuilder.SelectBuilder;
+import org.apache.jena.graph.NodeFactory;
+import org.apache.jena.sparql.core.Var;
+import org.apache.jena.vocabulary.OWL2;
+import org.apache.jena.vocabulary.RDF;
+import org.opensilex.sparql.model.SPARQLLabel;
+import org.opensilex.sparql.model.VocabularyModel;
+import org.opensilex.sparql.ontology.dal.*;
+import org.opensilex.sparql.service.SPARQLQueryHelper;
+import org.opensilex.sparql.service.SPARQLResult;
+import org.opensilex.sparql.service.SPARQLService;
+
+import java.io.*;
+import java.net.URI;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.OffsetDateTime;
+import java.util.*;
+import java.util.function.Supplier;
+
+import static org.apache.jena.arq.querybuilder.Converters.makeVar;
+import static org.opensilex.sparql.ontology.store.AbstractOntologyStore.NO_LANG;
+
+/**
+ * Binary snapshot of the classes, properties and restrictions loaded by {@link OntologyStoreLoader}.
+ *
+ * <pre>
+ * The snapshot is identified by a hash of the ontology graphs content (all graphs which declare some OWL class, property or restriction),
+ * so any change on ontologies invalidate it. Computing this hash only requires to scan ontology graphs triples,
+ * which is much cheaper than the queries used by {@link OntologyStoreLoader}.
+ *
+ * File layout : header (magic, version, ontology hash), string table, then class, property and restriction records.
+ * Records only reference URIs and strings by their index inside the string table, models links (parents, domain, range)
+ * are resolved by the store as for models loaded from the triplestore.
+ * </pre>
+ */
+class OntologyStoreSnapshot {
+
+    private static final int MAGIC = 0x4F535354;
+    private static final int VERSION = 1;
+    private static final int NULL_INDEX = -1;
+
+    private static final byte DATATYPE_PROPERTY = 0;
+    private static final byte OBJECT_PROPERTY = 1;
+
+    private static final Var GRAPH_VAR = makeVar("graph");
+    private static final Var SUBJECT_VAR = makeVar("s");
+    private static final Var PREDICATE_VAR = makeVar("p");
+    private static final Var OBJECT_VAR = makeVar("o");
+    private static final Var LANG_VAR = makeVar("lang");
+
+    private final Path path;
+
+    /**
+     * Content of the snapshot file, mapped on {@link #open(String)} and released once read
+     */
+    private MappedByteBuffer mappedBuffer;
+
+    OntologyStoreSnapshot(Path path) {
+        this.path = path;
+    }
+
+    Path getPath() {
+        return path;
+    }
+
+    /**
+     * Classes, properties and restrictions read from a snapshot
+     */
+    static class Content {
+        final List<ClassModel> classes = new ArrayList<>();
+        final List<AbstractPropertyModel> properties = new ArrayList<>();
+        final List<OwlRestrictionModel> restrictions = new ArrayList<>();
+    }
+
+    /**
+     * @param sparql    SPARQL service
+     * @param languages languages loaded by the store, a change of languages also invalidate the snapshot
+     * @return a hash of all ontology graphs content, independent of triples order
+     */
+    static String computeOntologyHash(SPARQLService sparql, List<String> languages) throws Exception {
+
+        SelectBuilder graphsQuery = new SelectBuilder()
+                .setDistinct(true)
+                .addVar(GRAPH_VAR)
+                .addGraph(GRAPH_VAR, SUBJECT_VAR, RDF.type, OBJECT_VAR)
+                .addWhereValueVar(OBJECT_VAR,
+                        NodeFactory.createURI(OWL2.Class.getURI()),
+                        NodeFactory.createURI(OWL2.DatatypeProperty.getURI()),
+                        NodeFactory.createURI(OWL2.ObjectProperty.getURI()),
+                        NodeFactory.createURI(OWL2.Restriction.getURI())
+                );
+
+        TreeSet<String> graphs = new TreeSet<>();
+        sparql.executeSelectQueryAsStream(graphsQuery).forEach(result -> graphs.add(result.getStringValue(GRAPH_VAR.getVarName())));
+
+        MessageDigest digest = getDigest();
+        digest.update(Integer.toString(VERSION).getBytes(StandardCharsets.UTF_8));
+        languages.forEach(lang -> digest.update(("lang:" + lang + "\n").getBytes(StandardCharsets.UTF_8)));
+
+        for (String graph : graphs) {
+            MessageDigest tripleDigest = getDigest();
+
+            // triples order is not guaranteed, so combine triple hashes with a commutative sum
+            long[] graphHash = new long[3];
+
+            SelectBuilder triplesQuery = new SelectBuilder()
+                    .addVar(SUBJECT_VAR)
+                    .addVar(PREDICATE_VAR)
+                    .addVar(OBJECT_VAR)
+                    .addVar(SPARQLQueryHelper.getExprFactory().lang(OBJECT_VAR), LANG_VAR)
+                    .addGraph(NodeFactory.createURI(graph), SUBJECT_VAR, PREDICATE_VAR, OBJECT_VAR);
+
+            sparql.executeSelectQueryAsStream(triplesQuery).forEach(result -> {
+                String triple = getTripleString(result);
+                ByteBuffer tripleHash = ByteBuffer.wrap(tripleDigest.digest(triple.getBytes(StandardCharsets.UTF_8)));
+                graphHash[0] += tripleHash.getLong();
+                graphHash[1] += tripleHash.getLong();
+                graphHash[2]++;
+            });
+
+            digest.update(("graph:" + graph + "\n").getBytes(StandardCharsets.UTF_8));
+            ByteBuffer graphHashBytes = ByteBuffer.allocate(3 * Long.BYTES);
+            graphHashBytes.putLong(graphHash[0]).putLong(graphHash[1]).putLong(graphHash[2]);
+            digest.update(graphHashBytes.array());
+        }
+
+        return toHex(digest.digest());
+    }
+
+    private static String getTripleString(SPARQLResult result) {
+        String lang = result.getStringValue(LANG_VAR.getVarName());
+        return result.getStringValue(SUBJECT_VAR.getVarName()) + "\t"
+                + result.getStringValue(PREDICATE_VAR.getVarName()) + "\t"
+                + result.getStringValue(OBJECT_VAR.getVarName()) + "\t"
+                + (lang == null ? NO_LANG : lang);
+    }
+
+    private static MessageDigest getDigest() throws NoSuchAlgorithmException {
+        return MessageDigest.getInstance("SHA-256");
+    }
+
+    private static String toHex(byte[] bytes) {
+        StringBuilder hex = new StringBuilder(bytes.length * 2);
+        for (byte b : bytes) {
+            hex.append(String.format("%02x", b));
+        }
+        return hex.toString();
+    }
+
+    /**
+     * Map the snapshot file in memory if it exists and if it was written for the given ontology hash.
+     *
+     * @param ontologyHash current ontology hash
+     * @return true if the snapshot can be read
+     * @throws IOException if the file can't be mapped
+     */
+    boolean open(String ontologyHash) throws IOException {
+        close();
+
+        if (!Files.isRegularFile(path)) {
+            return false;
+        }
+
+        MappedByteBuffer buffer;
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+
+        try {
+            if (buffer.getInt() != MAGIC || buffer.getInt() != VERSION || !ontologyHash.equals(readString(buffer))) {
+                return false;
+            }
+        } catch (RuntimeException e) {
+            // truncated or unknown file, it will be written again
+            return false;
+        }
+
+        mappedBuffer = buffer;
+        return true;
+    }
+
+    /**
+     * Release the mapped snapshot
+     */
+    void close() {
+        mappedBuffer = null;
+    }
+
+    /**
+     * Read all models from the snapshot mapped with {@link #open(String)}, then release it.
+     *
+     * @return the snapshot content
+     */
+    Content read() {
+        if (mappedBuffer == null) {
+            throw new IllegalStateException("Ontology store snapshot is not open : " + path);
+        }
+
+        ByteBuffer buffer = mappedBuffer.duplicate();
+        close();
+
+        String[] strings = new String[buffer.getInt()];
+        for (int i = 0; i < strings.length; i++) {
+            strings[i] = readString(buffer);
+        }
+
+        Content content = new Content();
+
+        int classCount = buffer.getInt();
+        for (int i = 0; i < classCount; i++) {
+            ClassModel classModel = new ClassModel();
+            classModel.setType(AbstractOntologyStore.OWL_CLASS_MODEL.getUri());
+            classModel.setTypeLabel(AbstractOntologyStore.OWL_CLASS_MODEL.getTypeLabel());
+            readVocabularyModel(buffer, strings, classModel, ClassModel::new);
+            content.classes.add(classModel);
+        }
+
+        int propertyCount = buffer.getInt();
+        for (int i = 0; i < propertyCount; i++) {
+            byte propertyType = buffer.get();
+            if (propertyType == DATATYPE_PROPERTY) {
+                DatatypePropertyModel property = new DatatypePropertyModel();
+                property.setType(AbstractOntologyStore.OWL_DATATYPE_PROPERTY_MODEL.getUri());
+                property.setTypeLabel(AbstractOntologyStore.OWL_DATATYPE_PROPERTY_MODEL.getTypeLabel());
+                readVocabularyModel(buffer, strings, property, DatatypePropertyModel::new);
+                property.setDomain(readClassModel(buffer, strings));
+                property.setRange(readURI(buffer, strings));
+                content.properties.add(property);
+            } else {
+                ObjectPropertyModel property = new ObjectPropertyModel();
+                property.setType(AbstractOntologyStore.OWL_OBJECT_PROPERTY_MODEL.getUri());
+                property.setTypeLabel(AbstractOntologyStore.OWL_OBJECT_PROPERTY_MODEL.getTypeLabel());
+                readVocabularyModel(buffer, strings, property, ObjectPropertyModel::new);
+                property.setDomain(readClassModel(buffer, strings));
+                property.setRange(readClassModel(buffer, strings));
+                content.properties.add(property);
+            }
+        }
+
+        int restrictionCount = buffer.getInt();
+        for (int i = 0; i < restrictionCount; i++) {
+            OwlRestrictionModel restriction = new OwlRestrictionModel();
+            restriction.setUri(readURI(buffer, strings));
+            restriction.setType(AbstractOntologyStore.OWL_ROOT_RESTRICTION_MODEL.getUri());
+            restriction.setTypeLabel(AbstractOntologyStore.OWL_ROOT_RESTRICTION_MODEL.getTypeLabel());
+            restriction.setOnProperty(readURI(buffer, strings));
+            restriction.setDomain(readClassModel(buffer, strings));
+            restriction.setOnDataRange(readURI(buffer, strings));
+            restriction.setOnClass(readURI(buffer, strings));
+            restriction.setMinQualifiedCardinality(readInteger(buffer));
+            restriction.setMaxQualifiedCardinality(readInteger(buffer));
+            restriction.setSomeValuesFrom(readURI(buffer, strings));
+            content.restrictions.add(restriction);
+        }
+
+        return content;
+    }
+
+    /**
+     * Write models loaded for the given ontology hash. The file is written next to the snapshot then moved,
+     * so a concurrent or interrupted writing never leaves a partial snapshot.
+     */
+    void write(String ontologyHash, Collection<ClassModel> classes, Collection<AbstractPropertyModel> properties, Collection<OwlRestrictionModel> restrictions) throws IOException {
+
+        Map<String, Integer> stringIndexes = new LinkedHashMap<>();
+        ByteArrayOutputStream records = new ByteArrayOutputStream();
+
+        try (DataOutputStream out = new DataOutputStream(records)) {
+            out.writeInt(classes.size());
+            for (ClassModel classModel : classes) {
+                writeVocabularyModel(out, stringIndexes, classModel);
+            }
+
+            out.writeInt(properties.size());
+            for (AbstractPropertyModel<?> property : properties) {
+                out.writeByte(property instanceof DatatypePropertyModel ? DATATYPE_PROPERTY : OBJECT_PROPERTY);
+                writeVocabularyModel(out, stringIndexes, property);
+                writeModelURI(out, stringIndexes, property.getDomain());
+                writeString(out, stringIndexes, property.getRangeURI());
+            }
+
+            out.writeInt(restrictions.size());
+            for (OwlRestrictionModel restriction : restrictions) {
+                writeString(out, stringIndexes, restriction.getUri());
+                writeString(out, stringIndexes, restriction.getOnProperty());
+                writeModelURI(out, stringIndexes, restriction.getDomain());
+                writeString(out, stringIndexes, restriction.getOnDataRange());
+                writeString(out, stringIndexes, restriction.getOnClass());
+                writeInteger(out, restriction.getMinQualifiedCardinality());
+                writeInteger(out, restriction.getMaxQualifiedCardinality());
+                writeString(out, stringIndexes, restriction.getSomeValuesFrom());
+            }
+        }
+
+        Path parent = path.toAbsolutePath().getParent();
+        Files.createDirectories(parent);
+        Path tmpFile = Files.createTempFile(parent, path.getFileName().toString(), ".tmp");
+
+        try {
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(tmpFile)))) {
+                out.writeInt(MAGIC);
+                out.writeInt(VERSION);
+                writeBytes(out, ontologyHash.getBytes(StandardCharsets.UTF_8));
+
+                out.writeInt(stringIndexes.size());
+                for (String value : stringIndexes.keySet()) {
+                    writeBytes(out, value.getBytes(StandardCharsets.UTF_8));
+                }
+                records.writeTo(out);
+            }
+            Files.move(tmpFile, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(tmpFile);
+        }
+    }
+
+    private static void writeVocabularyModel(DataOutputStream out, Map<String, Integer> stringIndexes, VocabularyModel<?> model) throws IOException {
+        writeString(out, stringIndexes, model.getUri());
+        writeTranslations(out, stringIndexes, model.getLabel());
+        writeTranslations(out, stringIndexes, model.getComment());
+        writeString(out, stringIndexes, model.getPublisher());
+        writeString(out, stringIndexes, model.getPublicationDate());
+        writeString(out, stringIndexes, model.getLastUpdateDate());
+
+        Set<? extends VocabularyModel<?>> parents = model.getParents();
+        out.writeInt(parents == null ? 0 : parents.size());
+        if (parents != null) {
+            for (VocabularyModel<?> parent : parents) {
+                writeString(out, stringIndexes, parent.getUri());
+            }
+        }
+    }
+
+    private static <T extends VocabularyModel<T>> void readVocabularyModel(ByteBuffer buffer, String[] strings, T model, Supplier<T> parentConstructor) {
+        model.setUri(readURI(buffer, strings));
+        model.setLabel(readTranslations(buffer, strings));
+        model.setComment(readTranslations(buffer, strings));
+        model.setPublisher(readURI(buffer, strings));
+
+        String publicationDate = readString(buffer, strings);
+        if (publicationDate != null) {
+            model.setPublicationDate(OffsetDateTime.parse(publicationDate));
+        }
+        String lastUpdateDate = readString(buffer, strings);
+        if (lastUpdateDate != null) {
+            model.setLastUpdateDate(OffsetDateTime.parse(lastUpdateDate));
+        }
+
+        int parentCount = buffer.getInt();
+        for (int i = 0; i < parentCount; i++) {
+            T parent = parentConstructor.get();
+            parent.setUri(readURI(buffer, strings));
+            model.getParents().add(parent);
+        }
+    }
+
+    /**
+     * Write translations only, the default value is computed on reading as done by {@link OntologyStoreLoader}
+     */
+    private static void writeTranslations(DataOutputStream out, Map<String, Integer> stringIndexes, SPARQLLabel label) throws IOException {
+        Map<String, String> translations = label == null ? Collections.emptyMap() : label.getTranslations();
+        out.writeInt(translations.size());
+        for (Map.Entry<String, String> translation : translations.entrySet()) {
+            writeString(out, stringIndexes, translation.getKey());
+            writeString(out, stringIndexes, translation.getValue());
+        }
+    }
+
+    private static SPARQLLabel readTranslations(ByteBuffer buffer, String[] strings) {
+        SPARQLLabel label = new SPARQLLabel();
+        int translationCount = buffer.getInt();
+        for (int i = 0; i < translationCount; i++) {
+            String lang = readString(buffer, strings);
+            label.addTranslation(readString(buffer, strings), lang);
+        }
+        label.setDefaultLang(NO_LANG);
+        label.setDefaultValue(label.getAllTranslations().get(NO_LANG));
+        return label;
+    }
+
+    private static void writeModelURI(DataOutputStream out, Map<String, Integer> stringIndexes, ClassModel model) throws IOException {
+        writeString(out, stringIndexes, model == null ? null : model.getUri());
+    }
+
+    private static ClassModel readClassModel(ByteBuffer buffer, String[] strings) {
+        URI uri = readURI(buffer, strings);
+        if (uri == null) {
+            return null;
+        }
+        ClassModel classModel = new ClassModel();
+        classModel.setUri(uri);
+        return classModel;
+    }
+
+    private static void writeString(DataOutputStream out, Map<String, Integer> stringIndexes, Object value) throws IOException {
+        if (value == null) {
+            out.writeInt(NULL_INDEX);
+        } else {
+            out.writeInt(stringIndexes.computeIfAbsent(value.toString(), key -> stringIndexes.size()));
+        }
+    }
+
+    private static String readString(ByteBuffer buffer, String[] strings) {
+        int index = buffer.getInt();
+        return index == NULL_INDEX ? null : strings[index];
+    }
+
+    private static URI readURI(ByteBuffer buffer, String[] strings) {
+        String uri = readString(buffer, strings);
+        return uri == null ? null : URI.create(uri);
+    }
+
+    private static void writeInteger(DataOutputStream out, Integer value) throws IOException {
+        // cardinalities are never negative
+        out.writeInt(value == null ? NULL_INDEX : value);
+    }
+
+    private static Integer readInteger(ByteBuffer buffer) {
+        int value = buffer.getInt();
+        return value == NULL_INDEX ? null : value;
+    }
+
+    private static void writeBytes(DataOutputStream out, byte[] bytes) throws IOException {
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private static String readString(ByteBuffer buffer) {
+        byte[] bytes = new byte[buffer.getInt()];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
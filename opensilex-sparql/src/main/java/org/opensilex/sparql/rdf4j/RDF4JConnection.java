@@ -135,8 +135,13 @@ public class RDF4JConnection extends BaseService implements SPARQLConnection {
 
     @Override
     public List<SPARQLResult> executeSelectQuery(SelectBuilder select, Consumer<SPARQLResult> resultHandler) throws SPARQLException, MalformedQueryException, HTTPQueryEvaluationException {
+        return executeSelectQuery(select.buildString(), resultHandler);
+    }
+
+    @Override
+    public List<SPARQLResult> executeSelectQuery(String select, Consumer<SPARQLResult> resultHandler) throws SPARQLException {
         try {
-            TupleQuery selectQuery = rdf4JConnection.prepareTupleQuery(QueryLanguage.SPARQL, select.buildString());
+            TupleQuery selectQuery = rdf4JConnection.prepareTupleQuery(QueryLanguage.SPARQL, select);
             if (getTimeout() > 0) {
                 selectQuery.setMaxExecutionTime(getTimeout());
             }
@@ -155,16 +160,26 @@ public class RDF4JConnection extends BaseService implements SPARQLConnection {
 
     @Override
     public Stream<SPARQLResult> executeSelectQueryAsStream(SelectBuilder select) throws SPARQLException {
+        return executeSelectQueryAsStream(select.buildString());
+    }
+
+    @Override
+    public Stream<SPARQLResult> executeSelectQueryAsStream(String select) throws SPARQLException {
         try {
-            TupleQuery selectQuery = rdf4JConnection.prepareTupleQuery(QueryLanguage.SPARQL, select.buildString());
+            TupleQuery selectQuery = rdf4JConnection.prepareTupleQuery(QueryLanguage.SPARQL, select);
             if (getTimeout() > 0) {
                 selectQuery.setMaxExecutionTime(getTimeout());
             }
             TupleQueryResult results = selectQuery.evaluate();
             if( ! results.hasNext()){
+                results.close();
                 return Stream.empty();
             }
-            return results.stream().map(RDF4JResult::new);
+
+            // results are pulled lazily from the triplestore, closing the stream release the underlying query result
+            return results.stream()
+                    .<SPARQLResult>map(RDF4JResult::new)
+                    .onClose(results::close);
 
         } catch (RepositoryException ex) {
             Throwable cause = ex.getCause();
@@ -139,6 +139,9 @@ public class RDF4JServiceFactory extends SPARQLServiceFactory {
         SPARQLService sparql = new SPARQLService(rdf4jConnection);
         sparql.setOpenSilex(getOpenSilex());
         sparql.setMapperIndex(getMapperIndex());
+        sparql.setResultCaches(getResultCaches());
+        sparql.setLabelIndexes(getLabelIndexes());
+        sparql.setSharedIndexes(getSharedIndexes());
         sparql.setDefaultLang(getDefaultLanguage());
         sparql.setup();
         return sparql;
@@ -0,0 +1,454 @@
+//******************************************************************************
+//                          SPARQLBulkCreator.java
+// OpenSILEX - Licence AGPL V3.0 - https://www.gnu.org/licenses/agpl-3.0.en.html
+// Copyright © INRAE 2024
+// Contact: anne.tireau@inrae.fr, pascal.neveu@inrae.fr
+//******************************************************************************
+package org.opensilex.sparql.service;
+
+import org.apache.jena.arq.querybuilder.UpdateBuilder;
+import org.apache.jena.graph.Node;
+import org.opensilex.OpenSilex;
+import org.opensilex.service.execution.ExecutionService;
+import org.opensilex.sparql.deserializer.SPARQLDeserializers;
+import org.opensilex.sparql.exceptions.SPARQLAlreadyExistingUriListException;
+import org.opensilex.sparql.exceptions.SPARQLException;
+import org.opensilex.sparql.exceptions.SPARQLInvalidUriListException;
+import org.opensilex.sparql.mapping.SPARQLClassObjectMapper;
+import org.opensilex.sparql.model.SPARQLResourceModel;
+import org.opensilex.uri.generation.URIGenerator;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.net.URI;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.stream.Collectors;
+
+import static net.logstash.logback.argument.StructuredArguments.kv;
+import static org.opensilex.utils.LogFilter.*;
+
+/**
+ * <pre>
+ * Bulk creation of {@link SPARQLResourceModel}, optimized for the ingestion of a large number of instances.
+ *
+ * Compared to {@link SPARQLService#create(Node, Collection)}, which checks each URI with its own ASK query :
+ * - provided URIs are checked for duplicates in memory, then for existence with set-based VALUES queries
+ * - missing URIs are generated in memory, then checked by set ; only colliding URIs are generated again
+ * - relations are collected once for all instances, deduplicated, then checked by set
+ * - INSERT DATA queries are built by chunks in the CPU pool of the {@link ExecutionService} while previous chunks are
+ * sent to the triplestore. All chunks are sent within one transaction, so a failure rollbacks the whole creation.
+ *
+ * Progress and throughput are logged after each chunk.
+ *
+ * Notes : queries are sent sequentially since the underlying connection and its transaction are not thread-safe,
+ * only the query building is parallelized. Nested instances are prepared with {@link SPARQLService} on the calling thread.
+ * Chunks are built by the calling thread if the execution service is not available or if its pool is saturated.
+ * Queries are sent as a typed write of the created class, so only the shared caches of this class are invalidated
+ * and the label index is updated with the created instances.
+ * </pre>
+ *
+ * @param <T> the SPARQL model class
+ */
+public class SPARQLBulkCreator<T extends SPARQLResourceModel> {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(SPARQLBulkCreator.class);
+
+    public static final int DEFAULT_WORKER_COUNT = 4;
+
+    /**
+     * Default number of URIs sent in one VALUES clause
+     */
+    public static final int DEFAULT_URI_CHECK_SIZE = 5000;
+
+    /**
+     * Maximum number of generation for one instance URI
+     */
+    private static final int MAX_URI_GENERATION_RETRY = 1000;
+
+    private final SPARQLService sparql;
+    private final SPARQLClassObjectMapper<T> mapper;
+    private final Node graph;
+
+    private int chunkSize = SPARQLService.DEFAULT_MAX_INSTANCE_PER_QUERY;
+    private int uriCheckSize = DEFAULT_URI_CHECK_SIZE;
+    private int workerCount = DEFAULT_WORKER_COUNT;
+    private boolean setPublicationDate = true;
+    private boolean checkUriExists = true;
+
+    /**
+     * @param sparql      SPARQL service
+     * @param objectClass class of all created instances
+     * @param graph       the graph onto instances are created, the default graph of objectClass is used if null
+     * @throws SPARQLException if no mapper is found for objectClass
+     */
+    public SPARQLBulkCreator(SPARQLService sparql, Class<T> objectClass, Node graph) throws SPARQLException {
+        this.sparql = sparql;
+        this.mapper = sparql.getForClass(objectClass);
+        this.graph = graph != null ? graph : mapper.getDefaultGraph();
+    }
+
+    /**
+     * @param chunkSize number of instances inserted by one INSERT DATA query
+     */
+    public SPARQLBulkCreator<T> setChunkSize(int chunkSize) {
+        if (chunkSize <= 0) {
+            throw new IllegalArgumentException("chunkSize must be strictly positive : " + chunkSize);
+        }
+        this.chunkSize = chunkSize;
+        return this;
+    }
+
+    /**
+     * @param uriCheckSize number of URIs checked by one VALUES query
+     */
+    public SPARQLBulkCreator<T> setUriCheckSize(int uriCheckSize) {
+        if (uriCheckSize <= 0) {
+            throw new IllegalArgumentException("uriCheckSize must be strictly positive : " + uriCheckSize);
+        }
+        this.uriCheckSize = uriCheckSize;
+        return this;
+    }
+
+    /**
+     * @param workerCount number of chunks built in advance by the execution pool
+     */
+    public SPARQLBulkCreator<T> setWorkerCount(int workerCount) {
+        if (workerCount <= 0) {
+            throw new IllegalArgumentException("workerCount must be strictly positive : " + workerCount);
+        }
+        this.workerCount = workerCount;
+        return this;
+    }
+
+    /**
+     * @param setPublicationDate indicate if the publication date must be set on instances without one
+     */
+    public SPARQLBulkCreator<T> setPublicationDate(boolean setPublicationDate) {
+        this.setPublicationDate = setPublicationDate;
+        return this;
+    }
+
+    /**
+     * @param checkUriExists indicate if the existence of provided URIs must be checked, false if the caller already
+     *                       checked them. Duplicated URIs inside the bulk and generated URIs are always checked.
+     */
+    public SPARQLBulkCreator<T> setCheckUriExists(boolean checkUriExists) {
+        this.checkUriExists = checkUriExists;
+        return this;
+    }
+
+    /**
+     * Check and create all instances within one transaction.
+     *
+     * @param instances instances to create
+     * @throws SPARQLAlreadyExistingUriListException if some provided URIs are duplicated or already exist
+     * @throws SPARQLInvalidUriListException         if some relations URIs are unknown
+     * @throws Exception                             if some error is encountered during queries execution
+     */
+    public void create(Collection<T> instances) throws Exception {
+        if (instances.isEmpty()) {
+            return;
+        }
+
+        Instant start = Instant.now();
+        List<T> instanceList = new ArrayList<>(instances);
+
+        URI rdfType = new URI(mapper.getRDFType().getURI());
+        OffsetDateTime now = OffsetDateTime.now();
+        for (T instance : instanceList) {
+            if (instance.getType() == null) {
+                instance.setType(rdfType);
+            }
+            if (setPublicationDate && instance.getPublicationDate() == null) {
+                instance.setPublicationDate(now);
+            }
+        }
+
+        Set<String> bulkUris = checkProvidedURIs(instanceList);
+        generateURIs(instanceList, bulkUris);
+        validateRelations(instanceList, bulkUris);
+
+        LOGGER.debug("{} {}, instanceCount: {}, duration: {} ms", kv(LOG_TYPE_KEY, "bulkInsertValidation"), kv(LOG_STATUS_LOG_KEY, LOG_STATUS_OK), instanceList.size(), kv(LOG_DURATION_MS_KEY, Duration.between(start, Instant.now()).toMillis()));
+
+        sparql.withTransaction(() -> {
+            insert(instanceList, start);
+            return null;
+        });
+
+        long durationMs = Duration.between(start, Instant.now()).toMillis();
+        LOGGER.info("{} {}, insertCount: {}, throughput: {} instances/s, duration: {} ms", kv(LOG_TYPE_KEY, "bulkInsert"), kv(LOG_STATUS_LOG_KEY, LOG_STATUS_OK), instanceList.size(), getThroughput(instanceList.size(), durationMs), kv(LOG_DURATION_MS_KEY, durationMs));
+    }
+
+    /**
+     * Check that provided URIs are not duplicated inside the bulk and don't already exist inside the graph (unless
+     * {@link #setCheckUriExists(boolean)} is false).
+     *
+     * @return expanded URIs of the bulk
+     */
+    private Set<String> checkProvidedURIs(List<T> instances) throws Exception {
+        Set<String> bulkUris = new HashSet<>(instances.size());
+        List<URI> providedUris = new ArrayList<>();
+        List<URI> duplicatedUris = new ArrayList<>();
+
+        for (T instance : instances) {
+            URI uri = instance.getUri();
+            if (uri != null) {
+                if (bulkUris.add(SPARQLDeserializers.getExpandedURI(uri))) {
+                    providedUris.add(uri);
+                } else {
+                    duplicatedUris.add(uri);
+                }
+            }
+        }
+
+        if (!duplicatedUris.isEmpty()) {
+            throw new SPARQLAlreadyExistingUriListException("Duplicated URIs : ", duplicatedUris);
+        }
+
+        if (checkUriExists) {
+            Set<URI> existingUris = getExistingURIs(providedUris);
+            if (!existingUris.isEmpty()) {
+                throw new SPARQLAlreadyExistingUriListException("Already existing URIs : ", existingUris);
+            }
+        }
+
+        return bulkUris;
+    }
+
+    /**
+     * Generate URI of instances without URI. Each round generates URIs in memory (avoiding URIs of the bulk and URIs
+     * recently generated by other creations), then checks all of them at once. Only URIs which already exist inside
+     * the graph are generated again, with an incremented retry count.
+     */
+    private void generateURIs(List<T> instances, Set<String> bulkUris) throws Exception {
+        String prefix = mapper.getGenerationPrefixURI().toString();
+        Map<T, Integer> retryByInstance = new IdentityHashMap<>();
+
+        List<T> pendingInstances = instances.stream()
+                .filter(instance -> instance.getUri() == null)
+                .collect(Collectors.toList());
+
+        while (!pendingInstances.isEmpty()) {
+            Map<String, T> generatedUris = new HashMap<>(pendingInstances.size());
+
+            for (T instance : pendingInstances) {
+                URIGenerator<T> uriGenerator = mapper.getUriGenerator(instance);
+                int retry = retryByInstance.getOrDefault(instance, 0);
+
+                URI uri = uriGenerator.generateURI(prefix, instance, retry);
+                String expandedUri = SPARQLDeserializers.getExpandedURI(uri);
+                while (bulkUris.contains(expandedUri) || SPARQLService.isRecentlyGeneratedURI(uri)) {
+                    if (++retry > MAX_URI_GENERATION_RETRY) {
+                        throw new SPARQLException("Unable to generate a unique URI after " + MAX_URI_GENERATION_RETRY + " retries : " + uri);
+                    }
+                    uri = uriGenerator.generateURI(prefix, instance, retry);
+                    expandedUri = SPARQLDeserializers.getExpandedURI(uri);
+                }
+
+                bulkUris.add(expandedUri);
+                SPARQLService.registerGeneratedURI(uri);
+                retryByInstance.put(instance, retry + 1);
+
+                instance.setUri(uri);
+                generatedUris.put(expandedUri, instance);
+            }
+
+            // existing URIs are kept in bulkUris, so they are not generated again
+            Set<URI> existingUris = getExistingURIs(pendingInstances.stream()
+                    .map(SPARQLResourceModel::getUri)
+                    .collect(Collectors.toList()));
+
+            pendingInstances = new ArrayList<>(existingUris.size());
+            for (URI existingUri : existingUris) {
+                T instance = generatedUris.get(SPARQLDeserializers.getExpandedURI(existingUri));
+                if (instance != null) {
+                    instance.setUri(null);
+                    pendingInstances.add(instance);
+                }
+            }
+        }
+    }
+
+    /**
+     * Check relations of all instances, with one set of URIs by relation model.
+     * Relations to instances of the bulk are not checked, since these instances are created within the same transaction.
+     */
+    private void validateRelations(List<T> instances, Set<String> bulkUris) throws Exception {
+        Map<SPARQLClassObjectMapper<SPARQLResourceModel>, Set<URI>> urisByMappers = new HashMap<>();
+        boolean checkRelations = !sparql.isShaclEnabled();
+
+        for (T instance : instances) {
+            if (checkRelations) {
+                mapper.getRelationsUrisByMapper(instance, urisByMappers);
+            }
+            mapper.getReverseRelationsUrisByMapper(instance, urisByMappers);
+        }
+
+        for (Map.Entry<SPARQLClassObjectMapper<SPARQLResourceModel>, Set<URI>> urisByMapper : urisByMappers.entrySet()) {
+            Class<SPARQLResourceModel> relationClass = urisByMapper.getKey().getObjectClass();
+
+            List<URI> urisToCheck = urisByMapper.getValue().stream()
+                    .map(SPARQLDeserializers::getExpandedURI)
+                    .filter(uri -> !bulkUris.contains(uri))
+                    .distinct()
+                    .map(URI::create)
+                    .collect(Collectors.toList());
+
+            Set<URI> unknownUris = new HashSet<>();
+            for (List<URI> urisChunk : splitInChunks(urisToCheck, uriCheckSize)) {
+                unknownUris.addAll(sparql.getExistingUris(relationClass, urisChunk, false));
+            }
+
+            if (!unknownUris.isEmpty()) {
+                throw new SPARQLInvalidUriListException("[" + relationClass.getSimpleName() + "] Unknown URIS : ", unknownUris);
+            }
+        }
+    }
+
+    /**
+     * @return URIs which have some outgoing relation inside the graph, checked by chunks of uriCheckSize
+     */
+    private Set<URI> getExistingURIs(List<URI> uris) throws Exception {
+        Set<URI> existingUris = new HashSet<>();
+        for (List<URI> urisChunk : splitInChunks(uris, uriCheckSize)) {
+            existingUris.addAll(sparql.getExistingUriStream(null, urisChunk.stream(), urisChunk.size(), true, graph));
+        }
+        return existingUris;
+    }
+
+    /**
+     * Insert instances by chunks. Queries are built by workers while the calling thread sends previous ones,
+     * at most workerCount chunks are built in advance in order to bound memory usage.
+     */
+    private void insert(List<T> instances, Instant start) throws Exception {
+        ExecutorService executor = getQueryBuildingExecutor();
+        Deque<PendingChunk> pendingChunks = new ArrayDeque<>(workerCount + 1);
+        int insertCount = 0;
+
+        boolean outerWrite = sparql.startWrite(mapper);
+        try {
+            for (T instance : instances) {
+                sparql.addWrittenUri(mapper, instance.getUri());
+            }
+
+            for (List<T> chunk : splitInChunks(instances, chunkSize)) {
+                UpdateBuilder updateBuilder = new UpdateBuilder();
+
+                // nested instances creation can run queries, so it's done on the transaction thread
+                addNestedInstances(chunk, updateBuilder);
+
+                Future<String> query = submitQueryBuilding(executor, () -> buildInsertQuery(chunk, updateBuilder));
+                pendingChunks.add(new PendingChunk(chunk.size(), query));
+
+                if (pendingChunks.size() > workerCount) {
+                    insertCount = executeNextChunk(pendingChunks, insertCount, instances.size(), start);
+                }
+            }
+
+            while (!pendingChunks.isEmpty()) {
+                insertCount = executeNextChunk(pendingChunks, insertCount, instances.size(), start);
+            }
+        } finally {
+            pendingChunks.forEach(chunk -> chunk.query.cancel(true));
+            sparql.endWrite(outerWrite);
+        }
+    }
+
+    /**
+     * @return the CPU pool of the execution service, or null if the service is not available. This pool is shared, so
+     * it's never shut down by the creator.
+     */
+    private ExecutorService getQueryBuildingExecutor() {
+        OpenSilex opensilex = sparql.getOpenSilex();
+        ExecutionService executionService = opensilex == null ? null : opensilex.getServiceInstance(ExecutionService.DEFAULT_SERVICE, ExecutionService.class);
+        return executionService == null ? null : executionService.getCpuPool();
+    }
+
+    /**
+     * Submit the building of a query to the executor. The query is built by the calling thread if there is no
+     * executor or if the pool is saturated.
+     */
+    private static Future<String> submitQueryBuilding(ExecutorService executor, Callable<String> queryBuilding) {
+        if (executor != null) {
+            try {
+                return executor.submit(queryBuilding);
+            } catch (RejectedExecutionException e) {
+                // The pool is saturated, the query is built by the calling thread
+            }
+        }
+        FutureTask<String> task = new FutureTask<>(queryBuilding);
+        task.run();
+        return task;
+    }
+
+    private int executeNextChunk(Deque<PendingChunk> pendingChunks, int insertCount, int totalCount, Instant start) throws Exception {
+        PendingChunk chunk = pendingChunks.poll();
+
+        String query;
+        try {
+            query = chunk.query.get();
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof Exception) {
+                throw (Exception) e.getCause();
+            }
+            throw e;
+        }
+        sparql.executeUpdateQuery(query);
+
+        insertCount += chunk.size;
+        long durationMs = Duration.between(start, Instant.now()).toMillis();
+        LOGGER.debug("{}, inserted: {}/{}, throughput: {} instances/s, duration: {} ms", kv(LOG_TYPE_KEY, "bulkInsertChunk"), insertCount, totalCount, getThroughput(insertCount, durationMs), kv(LOG_DURATION_MS_KEY, durationMs));
+
+        return insertCount;
+    }
+
+    private void addNestedInstances(List<T> chunk, UpdateBuilder updateBuilder) throws Exception {
+        URI subjectGraph = graph != null ? URI.create(graph.toString()) : null;
+
+        for (T instance : chunk) {
+            Map<URI, List<SPARQLResourceModel>> nestedResources = mapper.getNestedInstancesByGraph(subjectGraph, instance);
+            for (Map.Entry<URI, List<SPARQLResourceModel>> entry : nestedResources.entrySet()) {
+                URI subGraph = entry.getKey();
+                Node subGraphNode = subGraph != null ? SPARQLDeserializers.nodeURI(subGraph) : null;
+
+                for (SPARQLResourceModel subInstance : entry.getValue()) {
+                    sparql.create(subGraphNode, subInstance, instance, updateBuilder, true, setPublicationDate, false, null);
+                }
+            }
+        }
+    }
+
+    private String buildInsertQuery(List<T> chunk, UpdateBuilder updateBuilder) throws Exception {
+        for (T instance : chunk) {
+            mapper.addCreateBuilder(graph, instance, updateBuilder, false, null, null);
+        }
+        updateBuilder.addPrefixes(SPARQLService.getPrefixMapping());
+        return updateBuilder.buildRequest().toString();
+    }
+
+    private static long getThroughput(int count, long durationMs) {
+        return count * 1000L / Math.max(1, durationMs);
+    }
+
+    private static <E> List<List<E>> splitInChunks(List<E> list, int size) {
+        List<List<E>> chunks = new ArrayList<>();
+        for (int i = 0; i < list.size(); i += size) {
+            chunks.add(list.subList(i, Math.min(i + size, list.size())));
+        }
+        return chunks;
+    }
+
+    private static final class PendingChunk {
+        private final int size;
+        private final Future<String> query;
+
+        private PendingChunk(int size, Future<String> query) {
+            this.size = size;
+            this.query = query;
+        }
+    }
+}
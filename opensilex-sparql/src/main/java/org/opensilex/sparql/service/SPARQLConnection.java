@@ -48,6 +48,17 @@ public interface SPARQLConnection extends Service {
         return executeSelectQuery(select).stream();
     }
 
+    /**
+     * Execute an already serialized SELECT query, with its prefixes
+     *
+     * @see org.opensilex.sparql.service.query.PreparedSelectQuery
+     */
+    List<SPARQLResult> executeSelectQuery(String select, Consumer<SPARQLResult> resultHandler) throws SPARQLException;
+
+    default Stream<SPARQLResult> executeSelectQueryAsStream(String select) throws SPARQLException {
+        return executeSelectQuery(select, null).stream();
+    }
+
     void executeUpdateQuery(UpdateBuilder update) throws SPARQLException;
 
     void executeUpdateQuery(String update) throws SPARQLException;
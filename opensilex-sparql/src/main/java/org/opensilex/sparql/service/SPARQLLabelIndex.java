@@ -0,0 +1,657 @@
+//******************************************************************************
+//                          SPARQLLabelIndex.java
+// OpenSILEX - Licence AGPL V3.0 - https://www.gnu.org/licenses/agpl-3.0.en.html
+// Copyright © INRAE 2024
+// Contact: anne.tireau@inrae.fr, pascal.neveu@inrae.fr
+//******************************************************************************
+package org.opensilex.sparql.service;
+
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import com.github.benmanes.caffeine.cache.stats.ConcurrentStatsCounter;
+import org.apache.jena.arq.querybuilder.SelectBuilder;
+import org.apache.jena.graph.Node;
+import org.apache.jena.sparql.core.Var;
+import org.apache.jena.vocabulary.RDF;
+import org.apache.jena.vocabulary.RDFS;
+import org.apache.jena.vocabulary.SKOS;
+import org.opensilex.OpenSilex;
+import org.opensilex.service.execution.BackpressurePolicy;
+import org.opensilex.service.execution.ExecutionPoolType;
+import org.opensilex.service.execution.ExecutionService;
+import org.opensilex.sparql.annotations.SPARQLResource;
+import org.opensilex.sparql.deserializer.URIDeserializer;
+import org.opensilex.sparql.mapping.SPARQLClassObjectMapper;
+import org.opensilex.sparql.model.SPARQLResourceModel;
+import org.opensilex.sparql.utils.Ontology;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.net.URI;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+import static org.apache.jena.arq.querybuilder.AbstractQueryBuilder.makeVar;
+
+/**
+ * <pre>
+ * In-memory index of the labels (rdfs:label, skos:prefLabel and skos:altLabel) of the instances of a model class,
+ * shared by all requests on the same repository, used to find the instances whose label contains a text without a
+ * SPARQL REGEX filter on every label of the repository.
+ *
+ * - Indexes are held by a {@link Registry}, one per repository : the {@link SPARQLServiceFactory} of the repository
+ *   gives its registry to each service it provides. A service without registry doesn't use label indexes.
+ * - An index is only created for classes whose {@link SPARQLResource#labelIndex()} is true.
+ * - The index is a trigram inverted index : each sequence of three characters of the case-folded labels is associated
+ *   to the sorted list of the instances whose labels contain it. A search intersects the lists of the trigrams of the
+ *   text, then checks that a label of each candidate contains the text.
+ * - Labels of all languages and graphs are indexed, so the matched instances are a superset of those found by a
+ *   REGEX filter on the label of a language in a graph : search DAOs keep their filter, restricted to these instances.
+ * - The index is built in the background, with its own connection to the repository, after the first search. It is
+ *   rebuilt in the background after {@link #REFRESH_AFTER}, and no longer used after {@link #EXPIRATION}, which bounds
+ *   the staleness of the index when the repository is updated without this service (ex: another server).
+ * - The labels of instances written by {@link SPARQLService} create/update/delete are reloaded in the background once
+ *   the write is committed. Other writes can't be related to a class, so they drop the index.
+ * - Searches fall back to the REGEX filter alone while the index is not built, expired, or has labels to reload.
+ * </pre>
+ *
+ * @see SPARQLService#searchByLabelIndex(Class, String)
+ */
+public class SPARQLLabelIndex {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(SPARQLLabelIndex.class);
+
+    /**
+     * Minimal length of a searched text, shorter texts match too many instances to be useful
+     */
+    static final int MIN_SEARCH_LENGTH = 3;
+
+    /**
+     * Max number of matched instances, a larger VALUES clause would be slower than the REGEX filter
+     */
+    static final int MAX_MATCHES = 5000;
+
+    private static final Duration REFRESH_AFTER = Duration.ofMinutes(50);
+
+    private static final Duration EXPIRATION = Duration.ofHours(1);
+
+    /**
+     * Delay before the next build after a failed one, so that searches don't start a build each
+     */
+    private static final Duration RETRY_DELAY = Duration.ofMinutes(1);
+
+    private static final int RELOAD_BATCH_SIZE = 1000;
+
+    /**
+     * Max number of written instances waiting for a reload, the index is rebuilt beyond
+     */
+    private static final int MAX_PENDING_RELOADS = 10 * RELOAD_BATCH_SIZE;
+
+    /**
+     * Texts which contain these characters are regular expressions, which can't be searched in the index
+     */
+    private static final Pattern REGEX_CHARACTERS = Pattern.compile("[.^$|?*+()\\[\\]{}\\\\]");
+
+    private static final Node[] LABEL_PROPERTIES = {RDFS.label.asNode(), SKOS.prefLabel.asNode(), SKOS.altLabel.asNode()};
+
+    private static final Var URI_VAR = makeVar(SPARQLResourceModel.URI_FIELD);
+    private static final Var TYPE_VAR = makeVar(SPARQLResourceModel.TYPE_FIELD);
+    private static final Var LABEL_PROPERTY_VAR = makeVar("labelProperty");
+    private static final Var LABEL_VAR = makeVar("label");
+
+    private final Registry registry;
+
+    private final Class<?> objectClass;
+
+    private final Node rdfType;
+
+    /**
+     * Searches answered by the index (hits) or by the REGEX filter only (misses)
+     */
+    private final ConcurrentStatsCounter statsCounter = new ConcurrentStatsCounter();
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    /**
+     * True while a build or reload task is queued or running, a single task is run at a time
+     */
+    private final AtomicBoolean maintenanceScheduled = new AtomicBoolean();
+
+    /**
+     * Incremented at each write, so that labels read before a write are not used after it
+     */
+    private long generation = 0;
+
+    /**
+     * Generation of the last untyped write, labels read before it are discarded
+     */
+    private long invalidationGeneration = 0;
+
+    /**
+     * Expanded URIs of the written instances whose labels are not reloaded yet, with the generation of their last write
+     */
+    private final Map<String, Long> pendingReloads = new HashMap<>();
+
+    /**
+     * Indexed labels, null until the index is built
+     */
+    private Content content;
+
+    private Instant nextBuildAttempt = Instant.MIN;
+
+    private SPARQLLabelIndex(Registry registry, Class<?> objectClass, Node rdfType) {
+        this.registry = registry;
+        this.objectClass = objectClass;
+        this.rdfType = rdfType;
+    }
+
+    /**
+     * Label indexes of the classes of a repository
+     */
+    public static class Registry {
+
+        private static final String POOL_NAME = "sparql-label-index";
+
+        /**
+         * Max number of queued tasks, each index has at most one task queued or running
+         */
+        private static final int POOL_QUEUE_CAPACITY = 100;
+
+        private final SPARQLServiceFactory serviceFactory;
+
+        private final Map<Class<?>, SPARQLLabelIndex> indexes = new ConcurrentHashMap<>();
+
+        /**
+         * @param serviceFactory factory of the repository, which provides the services used to build the indexes
+         */
+        public Registry(SPARQLServiceFactory serviceFactory) {
+            this.serviceFactory = serviceFactory;
+        }
+
+        /**
+         * @param mapper mapper of a model class
+         * @return the label index of the class, or null if the class is not indexed
+         */
+        SPARQLLabelIndex getForClass(SPARQLClassObjectMapper<?> mapper) {
+            SPARQLLabelIndex index = indexes.get(mapper.getObjectClass());
+            if (index != null) {
+                return index;
+            }
+
+            SPARQLResource resourceAnnotation = mapper.getObjectClass().getAnnotation(SPARQLResource.class);
+            if (resourceAnnotation == null || !resourceAnnotation.labelIndex()) {
+                return null;
+            }
+
+            return indexes.computeIfAbsent(mapper.getObjectClass(), objectClass -> new SPARQLLabelIndex(this, objectClass, mapper.getRDFType().asNode()));
+        }
+
+        /**
+         * Mark the labels of committed written instances to reload in the indexes of their classes, or of related classes
+         *
+         * @param writtenUris URIs of the written instances, by class
+         */
+        void update(Map<Class<?>, Set<URI>> writtenUris) {
+            indexes.values().forEach(index -> {
+                Set<String> uris = new HashSet<>();
+                boolean dependent = false;
+                for (Map.Entry<Class<?>, Set<URI>> entry : writtenUris.entrySet()) {
+                    Class<?> writtenClass = entry.getKey();
+                    if (index.objectClass.isAssignableFrom(writtenClass) || writtenClass.isAssignableFrom(index.objectClass)) {
+                        dependent = true;
+                        entry.getValue().forEach(uri -> uris.add(URIDeserializer.getExpandedURI(uri)));
+                    }
+                }
+                if (dependent) {
+                    index.markWritten(uris);
+                }
+            });
+        }
+
+        /**
+         * Drop all indexes, used when the written classes are unknown (ex: custom UPDATE query)
+         */
+        void invalidateAll() {
+            indexes.values().forEach(SPARQLLabelIndex::invalidate);
+        }
+
+        /**
+         * @return searches answered by the index (hits) or by the REGEX filter only (misses), by class simple name
+         */
+        public Map<String, CacheStats> getStatistics() {
+            Map<String, CacheStats> statistics = new LinkedHashMap<>();
+            indexes.values().forEach(index -> statistics.put(index.objectClass.getSimpleName(), index.statsCounter.snapshot()));
+            return statistics;
+        }
+
+        /**
+         * Run a build or reload task on a dedicated single-thread pool of the execution service, so that a long build
+         * doesn't hold a shared pool. The task is run on its own thread if the execution service is not available.
+         */
+        private void submit(Runnable task) {
+            OpenSilex opensilex = serviceFactory.getOpenSilex();
+            ExecutionService executionService = opensilex == null ? null : opensilex.getServiceInstance(ExecutionService.DEFAULT_SERVICE, ExecutionService.class);
+            if (executionService == null) {
+                Thread thread = new Thread(task, POOL_NAME);
+                thread.setDaemon(true);
+                thread.start();
+                return;
+            }
+            Executor executor = executionService.getPool(POOL_NAME, ExecutionPoolType.IO, 1, POOL_QUEUE_CAPACITY, BackpressurePolicy.ABORT);
+            executor.execute(task);
+        }
+    }
+
+    /**
+     * @return the text in lower case, one character at a time so that each index of the result matches the same
+     * index of the text, like the case-insensitive flag of a REGEX
+     */
+    static String fold(String text) {
+        char[] chars = text.toCharArray();
+        for (int i = 0; i < chars.length; i++) {
+            chars[i] = Character.toLowerCase(Character.toUpperCase(chars[i]));
+        }
+        return new String(chars);
+    }
+
+    private static long trigram(String foldedText, int start) {
+        return ((long) foldedText.charAt(start) << 32) | ((long) foldedText.charAt(start + 1) << 16) | foldedText.charAt(start + 2);
+    }
+
+    private static boolean isOlderThan(Content content, Duration age) {
+        return content.buildDate.plus(age).isBefore(Instant.now());
+    }
+
+    /**
+     * Search a text in the index. The index is never built or reloaded by the calling thread : a background task is
+     * started if needed, and the search falls back to the REGEX filter until the index is up-to-date.
+     *
+     * @param text searched text
+     * @return expanded URIs of the instances whose label contains the text ignoring case, or null if the index can't be
+     * used for this text (regular expression, too short text, too many matches), or if the index is not built, expired,
+     * or has labels to reload
+     */
+    Set<String> search(String text) {
+        if (text.length() < MIN_SEARCH_LENGTH || REGEX_CHARACTERS.matcher(text).find()) {
+            statsCounter.recordMisses(1);
+            return null;
+        }
+
+        Set<String> uris = null;
+        boolean maintenanceNeeded;
+        lock.readLock().lock();
+        try {
+            maintenanceNeeded = content == null || isOlderThan(content, REFRESH_AFTER) || !pendingReloads.isEmpty();
+            if (content != null && !isOlderThan(content, EXPIRATION) && pendingReloads.isEmpty()) {
+                uris = content.search(fold(text));
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+
+        if (maintenanceNeeded) {
+            scheduleMaintenance();
+        }
+        if (uris == null) {
+            statsCounter.recordMisses(1);
+        } else {
+            statsCounter.recordHits(1);
+        }
+        return uris;
+    }
+
+    /**
+     * Start a background task which builds the index or reloads the written labels, unless one is already running
+     */
+    private void scheduleMaintenance() {
+        lock.readLock().lock();
+        try {
+            if (Instant.now().isBefore(nextBuildAttempt)) {
+                return;
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+
+        if (!maintenanceScheduled.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            registry.submit(this::maintain);
+        } catch (RejectedExecutionException e) {
+            LOGGER.warn("Label index task of {} rejected, searches use the REGEX filter meanwhile", objectClass.getSimpleName());
+            maintenanceScheduled.set(false);
+        }
+    }
+
+    /**
+     * Build the index if it is missing or old, then reload written labels until none are pending
+     */
+    private void maintain() {
+        SPARQLService sparql = null;
+        try {
+            sparql = registry.serviceFactory.provide();
+            while (true) {
+                boolean rebuild;
+                long startGeneration;
+                List<String> uris;
+
+                lock.readLock().lock();
+                try {
+                    rebuild = content == null || isOlderThan(content, REFRESH_AFTER);
+                    startGeneration = generation;
+                    uris = new ArrayList<>(pendingReloads.keySet());
+                } finally {
+                    lock.readLock().unlock();
+                }
+
+                if (rebuild) {
+                    if (!build(sparql, startGeneration)) {
+                        break;
+                    }
+                } else if (!uris.isEmpty()) {
+                    reload(sparql, uris, startGeneration);
+                } else {
+                    break;
+                }
+            }
+        } catch (Exception e) {
+            LOGGER.error("Error while loading the labels of {} in its index, searches use the REGEX filter meanwhile", objectClass.getSimpleName(), e);
+            lock.writeLock().lock();
+            try {
+                nextBuildAttempt = Instant.now().plus(RETRY_DELAY);
+            } finally {
+                lock.writeLock().unlock();
+            }
+        } finally {
+            if (sparql != null) {
+                registry.serviceFactory.dispose(sparql);
+            }
+            maintenanceScheduled.set(false);
+        }
+
+        // labels written after the last iteration and before the end of the task
+        boolean reloadNeeded;
+        lock.readLock().lock();
+        try {
+            reloadNeeded = content != null && !pendingReloads.isEmpty();
+        } finally {
+            lock.readLock().unlock();
+        }
+        if (reloadNeeded) {
+            scheduleMaintenance();
+        }
+    }
+
+    private static SelectBuilder getLabelsQuery(Node rdfType) {
+        return new SelectBuilder()
+                .addVar(URI_VAR)
+                .addVar(LABEL_VAR)
+                .addWhere(URI_VAR, RDF.type, TYPE_VAR)
+                .addWhere(TYPE_VAR, Ontology.subClassAny, rdfType)
+                .addWhere(URI_VAR, LABEL_PROPERTY_VAR, LABEL_VAR)
+                .addWhereValueVar(LABEL_PROPERTY_VAR, (Object[]) LABEL_PROPERTIES);
+    }
+
+    /**
+     * Load the labels of all instances of the class
+     *
+     * @param startGeneration generation read before loading the labels
+     * @return false if the built index is discarded, because of an untyped write during the build
+     */
+    private boolean build(SPARQLService sparql, long startGeneration) throws Exception {
+        Instant start = Instant.now();
+
+        Map<String, List<String>> labels = new HashMap<>();
+        try (Stream<SPARQLResult> results = sparql.executeSelectQueryAsStream(getLabelsQuery(rdfType))) {
+            results.forEach(result ->
+                    labels.computeIfAbsent(result.getStringValue(SPARQLResourceModel.URI_FIELD), uri -> new ArrayList<>(1))
+                            .add(result.getStringValue(LABEL_VAR.getVarName()))
+            );
+        }
+
+        Content builtContent = new Content(start);
+        labels.forEach(builtContent::put);
+
+        lock.writeLock().lock();
+        try {
+            // an untyped write may have happened during the build, the next search starts a new one
+            if (invalidationGeneration > startGeneration) {
+                return false;
+            }
+            content = builtContent;
+            // instances written during the build are reloaded by the next iteration
+            pendingReloads.values().removeIf(writeGeneration -> writeGeneration <= startGeneration);
+        } finally {
+            lock.writeLock().unlock();
+        }
+        LOGGER.debug("Label index of {} built with {} instances in {} ms", objectClass.getSimpleName(), labels.size(), Duration.between(start, Instant.now()).toMillis());
+        return true;
+    }
+
+    /**
+     * Reload the labels of written instances
+     *
+     * @param uris            expanded URIs of the written instances
+     * @param startGeneration generation read before loading the labels
+     */
+    private void reload(SPARQLService sparql, List<String> uris, long startGeneration) throws Exception {
+        Map<String, List<String>> labels = new HashMap<>();
+        for (int i = 0; i < uris.size(); i += RELOAD_BATCH_SIZE) {
+            List<String> batch = uris.subList(i, Math.min(uris.size(), i + RELOAD_BATCH_SIZE));
+            SelectBuilder select = getLabelsQuery(rdfType);
+            SPARQLQueryHelper.addWhereUriStringValues(select, URI_VAR.getVarName(), batch.stream(), false, batch.size());
+
+            sparql.executeSelectQuery(select, result ->
+                    labels.computeIfAbsent(result.getStringValue(SPARQLResourceModel.URI_FIELD), uri -> new ArrayList<>(1))
+                            .add(result.getStringValue(LABEL_VAR.getVarName()))
+            );
+        }
+
+        lock.writeLock().lock();
+        try {
+            if (content == null || invalidationGeneration > startGeneration) {
+                return;
+            }
+            for (String uri : uris) {
+                // instances written again during the reload keep their previous labels until the next iteration
+                Long writeGeneration = pendingReloads.get(uri);
+                if (writeGeneration == null || writeGeneration > startGeneration) {
+                    continue;
+                }
+                pendingReloads.remove(uri);
+                content.remove(uri);
+                List<String> uriLabels = labels.get(uri);
+                if (uriLabels != null) {
+                    content.put(uri, uriLabels);
+                }
+            }
+            // removed instances are kept in postings until the next build
+            if (content.removedCount > content.ids.size()) {
+                content = null;
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Mark the labels of committed written instances to reload, searches don't use the index until they are reloaded
+     *
+     * @param uris expanded URIs of the written instances, the index is dropped if empty
+     */
+    private void markWritten(Set<String> uris) {
+        boolean reloadNeeded;
+        lock.writeLock().lock();
+        try {
+            generation++;
+            if (uris.isEmpty() || pendingReloads.size() + uris.size() > MAX_PENDING_RELOADS) {
+                dropContent();
+                return;
+            }
+            // without content nor running build, the next build reads these labels
+            reloadNeeded = content != null || maintenanceScheduled.get();
+            if (reloadNeeded) {
+                for (String uri : uris) {
+                    pendingReloads.put(uri, generation);
+                }
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+        if (reloadNeeded) {
+            scheduleMaintenance();
+        }
+    }
+
+    private void invalidate() {
+        lock.writeLock().lock();
+        try {
+            generation++;
+            dropContent();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Must be called with the write lock held, after incrementing the generation
+     */
+    private void dropContent() {
+        invalidationGeneration = generation;
+        content = null;
+        pendingReloads.clear();
+    }
+
+    /**
+     * Sorted list of instance numbers
+     */
+    private static class Postings {
+
+        private int[] numbers = new int[2];
+
+        private int size = 0;
+
+        void add(int number) {
+            // instances are numbered in insertion order, so the list stays sorted
+            if (size > 0 && numbers[size - 1] == number) {
+                return;
+            }
+            if (size == numbers.length) {
+                numbers = Arrays.copyOf(numbers, size * 2);
+            }
+            numbers[size++] = number;
+        }
+
+        boolean contains(int number) {
+            return Arrays.binarySearch(numbers, 0, size, number) >= 0;
+        }
+    }
+
+    /**
+     * Labels of the indexed instances and their trigram postings, guarded by the lock of the index
+     */
+    static class Content {
+
+        private final Instant buildDate;
+
+        /**
+         * Expanded URI of each instance number, an updated instance gets a new number
+         */
+        private final List<String> uris = new ArrayList<>();
+
+        /**
+         * Folded labels of each instance number, null for removed instances
+         */
+        private final List<String[]> labels = new ArrayList<>();
+
+        /**
+         * Current number of each indexed instance
+         */
+        private final Map<String, Integer> ids = new HashMap<>();
+
+        private final Map<Long, Postings> postings = new HashMap<>();
+
+        private int removedCount = 0;
+
+        Content(Instant buildDate) {
+            this.buildDate = buildDate;
+        }
+
+        void put(String uri, Collection<String> uriLabels) {
+            int number = uris.size();
+            String[] foldedLabels = uriLabels.stream().map(SPARQLLabelIndex::fold).distinct().toArray(String[]::new);
+            uris.add(uri);
+            labels.add(foldedLabels);
+            ids.put(uri, number);
+
+            for (String label : foldedLabels) {
+                for (int i = 0; i + MIN_SEARCH_LENGTH <= label.length(); i++) {
+                    postings.computeIfAbsent(trigram(label, i), key -> new Postings()).add(number);
+                }
+            }
+        }
+
+        void remove(String uri) {
+            Integer number = ids.remove(uri);
+            if (number != null) {
+                labels.set(number, null);
+                removedCount++;
+            }
+        }
+
+        /**
+         * @param foldedText searched text, folded and at least {@link #MIN_SEARCH_LENGTH} characters long
+         * @return expanded URIs of the matched instances, or null if there are more than {@link #MAX_MATCHES}
+         */
+        Set<String> search(String foldedText) {
+            List<Postings> textPostings = new ArrayList<>();
+            Set<Long> trigrams = new HashSet<>();
+            for (int i = 0; i + MIN_SEARCH_LENGTH <= foldedText.length(); i++) {
+                long trigram = trigram(foldedText, i);
+                if (trigrams.add(trigram)) {
+                    Postings trigramPostings = postings.get(trigram);
+                    if (trigramPostings == null) {
+                        return Set.of();
+                    }
+                    textPostings.add(trigramPostings);
+                }
+            }
+            textPostings.sort(Comparator.comparingInt(trigramPostings -> trigramPostings.size));
+
+            Set<String> matches = new HashSet<>();
+            Postings smallest = textPostings.get(0);
+            for (int i = 0; i < smallest.size; i++) {
+                int number = smallest.numbers[i];
+                String[] numberLabels = labels.get(number);
+                if (numberLabels == null || !textPostings.stream().allMatch(trigramPostings -> trigramPostings.contains(number))) {
+                    continue;
+                }
+                if (Arrays.stream(numberLabels).anyMatch(label -> label.contains(foldedText))) {
+                    matches.add(uris.get(number));
+                    if (matches.size() > MAX_MATCHES) {
+                        return null;
+                    }
+                }
+            }
+            return matches;
+        }
+    }
+}
@@ -343,6 +343,24 @@ public class SPARQLQueryHelper {
         addWhereUriValues(where,varName,values.stream(),values.size());
     }
 
+    /**
+     * Restrict a variable to the URIs found by a label index search, with a VALUES clause
+     *
+     * @param where the WhereClause to update
+     * @param varName the variable name
+     * @param uris expanded URIs returned by {@link SPARQLService#searchByLabelIndex(Class, String)}, nothing is added if null
+     */
+    public static void addWhereLabelIndexValues(WhereClause<?> where, String varName, Set<String> uris) {
+        if (uris == null) {
+            return;
+        }
+        if (uris.isEmpty()) {
+            where.addFilter(NodeValue.FALSE);
+        } else {
+            addWhereUriStringValues(where, varName, uris.stream(), false, uris.size());
+        }
+    }
+
     public static void addWhereUriStringValues(WhereClause<?> where, String varName, Stream<String> values, boolean expandUri, int size) {
 
         if (size == 0){
@@ -0,0 +1,181 @@
+//******************************************************************************
+//                          SPARQLResultCache.java
+// OpenSILEX - Licence AGPL V3.0 - https://www.gnu.org/licenses/agpl-3.0.en.html
+// Copyright © INRAE 2024
+// Contact: anne.tireau@inrae.fr, pascal.neveu@inrae.fr
+//******************************************************************************
+package org.opensilex.sparql.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import com.github.benmanes.caffeine.cache.stats.ConcurrentStatsCounter;
+import org.apache.jena.graph.Node;
+import org.opensilex.sparql.annotations.SPARQLResource;
+import org.opensilex.sparql.mapping.SPARQLClassObjectMapper;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * <pre>
+ * Second-level cache of the SELECT results used to load instances of a model class by URI, shared by all requests on
+ * the same repository.
+ *
+ * - Caches are held by a {@link Registry}, one per repository : the {@link SPARQLServiceFactory} of the repository
+ *   gives its registry to each service it provides. A service without registry doesn't use shared caches.
+ * - A cache is only created for classes whose {@link SPARQLResource#cacheMaxSize()} is positive.
+ * - Results are cached instead of instances, since instances are bound to the {@link SPARQLService} of a request
+ *   (lazy relations), and may be modified by their caller. A new instance is created from the result on each hit.
+ * - Entries expire after {@link SPARQLResource#cacheExpiration()} seconds, which bounds the staleness of entries
+ *   when the repository is updated without this service (ex: another server on the same repository).
+ * - A cache is invalidated when instances of its class, or of a related class, are written by a {@link SPARQLService}
+ *   of the repository.
+ *   Each invalidation increments a generation, so that a result read before an invalidation is not cached after it.
+ * </pre>
+ *
+ * @see SPARQLService#loadByURI(Node, Class, java.net.URI, String)
+ */
+public class SPARQLResultCache {
+
+    /**
+     * Hits and misses of the results already loaded by the current request, for all classes
+     */
+    private static final ConcurrentStatsCounter requestStatsCounter = new ConcurrentStatsCounter();
+
+    private final Class<?> objectClass;
+
+    /**
+     * Cached class and its related classes, whose writes invalidate this cache
+     */
+    private final Set<Class<?>> dependencies;
+
+    private final Cache<Key, SPARQLResult> results;
+
+    private final AtomicLong generation = new AtomicLong();
+
+    record Key(Node graph, String lang, String uri) {
+    }
+
+    private SPARQLResultCache(Class<?> objectClass, Set<Class<?>> dependencies, long maxSize, long expiration) {
+        this.objectClass = objectClass;
+        this.dependencies = dependencies;
+        this.results = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(Duration.ofSeconds(expiration))
+                .recordStats()
+                .build();
+    }
+
+    /**
+     * Shared caches of the classes of a repository
+     */
+    public static class Registry {
+
+        private final Map<Class<?>, SPARQLResultCache> caches = new ConcurrentHashMap<>();
+
+        /**
+         * @param mapper mapper of a model class
+         * @return the shared cache of the class, or null if the class is not cached
+         */
+        SPARQLResultCache getForClass(SPARQLClassObjectMapper<?> mapper) {
+            SPARQLResultCache cache = caches.get(mapper.getObjectClass());
+            if (cache != null) {
+                return cache;
+            }
+
+            SPARQLResource resourceAnnotation = mapper.getObjectClass().getAnnotation(SPARQLResource.class);
+            if (resourceAnnotation == null || resourceAnnotation.cacheMaxSize() <= 0) {
+                return null;
+            }
+
+            return caches.computeIfAbsent(mapper.getObjectClass(), objectClass -> {
+                Set<Class<?>> dependencies = new HashSet<>(mapper.getClassAnalyzer().getRelatedResources());
+                dependencies.add(objectClass);
+                return new SPARQLResultCache(objectClass, dependencies, resourceAnnotation.cacheMaxSize(), Math.max(1, resourceAnnotation.cacheExpiration()));
+            });
+        }
+
+        /**
+         * Invalidate the caches depending on written classes
+         *
+         * @param writtenClasses classes of written instances
+         */
+        void invalidate(Collection<Class<?>> writtenClasses) {
+            caches.values().forEach(cache -> {
+                boolean dependent = cache.dependencies.stream().anyMatch(dependency -> writtenClasses.stream().anyMatch(writtenClass ->
+                        dependency.isAssignableFrom(writtenClass) || writtenClass.isAssignableFrom(dependency)
+                ));
+                if (dependent) {
+                    cache.clear();
+                }
+            });
+        }
+
+        /**
+         * Invalidate all caches, used when the written classes are unknown (ex: custom UPDATE query)
+         */
+        void invalidateAll() {
+            caches.values().forEach(SPARQLResultCache::clear);
+        }
+
+        /**
+         * @return hits and misses of the shared cache of each class, by class simple name
+         */
+        public Map<String, CacheStats> getStatistics() {
+            Map<String, CacheStats> statistics = new LinkedHashMap<>();
+            caches.values().forEach(cache -> statistics.put(cache.objectClass.getSimpleName(), cache.results.stats()));
+            return statistics;
+        }
+    }
+
+    static void recordRequestHits(int count) {
+        requestStatsCounter.recordHits(count);
+    }
+
+    static void recordRequestMisses(int count) {
+        requestStatsCounter.recordMisses(count);
+    }
+
+    /**
+     * @return hits and misses of the results already loaded by the current request, for all classes
+     */
+    public static CacheStats getRequestStatistics() {
+        return requestStatsCounter.snapshot();
+    }
+
+    private void clear() {
+        generation.incrementAndGet();
+        results.invalidateAll();
+    }
+
+    SPARQLResult get(Key key) {
+        return results.getIfPresent(key);
+    }
+
+    /**
+     * @return current generation, to read before loading results which are put afterward
+     */
+    long getGeneration() {
+        return generation.get();
+    }
+
+    /**
+     * @param generation generation read before loading the result
+     */
+    void put(Key key, SPARQLResult result, long generation) {
+        if (this.generation.get() == generation) {
+            results.put(key, result);
+            // an invalidation may have happened between the check and the put
+            if (this.generation.get() != generation) {
+                results.invalidate(key);
+            }
+        }
+    }
+}
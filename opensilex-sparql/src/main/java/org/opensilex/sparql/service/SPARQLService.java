@@ -7,6 +7,7 @@ package org.opensilex.sparql.service;
 
 import com.github.benmanes.caffeine.cache.Cache;
 import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
 import org.apache.commons.collections4.CollectionUtils;
 import org.apache.commons.collections4.MapUtils;
 import org.apache.commons.lang3.StringUtils;
@@ -52,6 +53,7 @@ import org.opensilex.sparql.ontology.dal.ClassModel;
 import org.opensilex.sparql.ontology.dal.OntologyDAO;
 import org.opensilex.sparql.ontology.dal.OwlRestrictionModel;
 import org.opensilex.sparql.rdf4j.RDF4JConnection;
+import org.opensilex.sparql.service.query.PreparedSelectQuery;
 import org.opensilex.sparql.service.schemaQuery.SparqlSchema;
 import org.opensilex.sparql.utils.Ontology;
 import org.opensilex.uri.generation.URIGenerator;
@@ -60,6 +62,7 @@ import org.opensilex.utils.OrderBy;
 import org.opensilex.utils.ThrowingConsumer;
 import org.opensilex.utils.ThrowingFunction;
 import org.opensilex.utils.functionnal.ThrowingSupplier;
+import org.opensilex.utils.pagination.StreamWithPagination;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -71,9 +74,11 @@ import java.time.Duration;
 import java.time.Instant;
 import java.time.OffsetDateTime;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.function.BiConsumer;
 import java.util.function.Consumer;
 import java.util.function.Function;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
@@ -105,6 +110,85 @@ public class SPARQLService extends BaseService implements SPARQLConnection, Serv
             .maximumSize(10000)
             .build();
 
+    /**
+     * SELECT queries of {@link #loadByURI(Node, Class, URI, String)} and {@link #loadListByURIs(Class, Collection, String)},
+     * serialized once by model class, graph and language. Only the loaded URIs change between two executions.
+     * @see #getPreparedSelectByURIs(SPARQLClassObjectMapper, Node, String)
+     */
+    private static final Cache<PreparedSelectKey, Optional<PreparedSelectQuery>> preparedSelectByURIsCache = Caffeine.newBuilder()
+            .maximumSize(2000)
+            .build();
+
+    private record PreparedSelectKey(Class<?> objectClass, Node graph, String lang, int prefixesVersion) {
+    }
+
+    /**
+     * Max number of results kept by {@link #loadedResults}, this map is cleared when it is reached. It only matters for
+     * services which are not bound to a request.
+     */
+    private static final int MAX_LOADED_RESULTS = 10000;
+
+    /**
+     * Results of {@link #selectByURIs(SPARQLClassObjectMapper, Node, String, Collection)} already loaded by this service,
+     * by class, graph, language and expanded URI. An empty result means that the URI was not found. As services are
+     * bound to a request, a resource is loaded once by request, until the next write.
+     */
+    private final Map<LoadedResultKey, Optional<SPARQLResult>> loadedResults = new ConcurrentHashMap<>();
+
+    private record LoadedResultKey(Class<?> objectClass, Node graph, String lang, String uri) {
+    }
+
+    /**
+     * Shared caches of the repository, null if this service doesn't use shared caches
+     * @see #setResultCaches(SPARQLResultCache.Registry)
+     */
+    private SPARQLResultCache.Registry resultCaches;
+
+    /**
+     * Label indexes of the repository, null if this service doesn't use label indexes
+     * @see #setLabelIndexes(SPARQLLabelIndex.Registry)
+     */
+    private SPARQLLabelIndex.Registry labelIndexes;
+
+    /**
+     * Classes written by the current create/update/delete. Null outside of them : other writes can't be related to a
+     * class, so they invalidate all shared caches.
+     * @see SPARQLResultCache
+     */
+    private Set<Class<?>> writtenClasses;
+
+    /**
+     * URIs of the instances written by the current create/update/delete, by class, whose labels are reloaded in the
+     * label indexes after its end.
+     * @see SPARQLLabelIndex
+     */
+    private Map<Class<?>, Set<URI>> writtenUris;
+
+    /**
+     * Classes written during the current transaction, whose shared caches are invalidated again at its end since other
+     * requests may have cached the previous results meanwhile.
+     */
+    private final Set<Class<?>> transactionWrittenClasses = new HashSet<>();
+    private boolean transactionUntypedWrite = false;
+
+    /**
+     * URIs of the instances written during the current transaction, by class, whose labels are reloaded in the label
+     * indexes after its end, once they are committed or rolled back.
+     */
+    private final Map<Class<?>, Set<URI>> transactionWrittenUris = new HashMap<>();
+
+    /**
+     * Actions run once the current transaction is committed, dropped if it is rolled back
+     * @see #afterCommit(Runnable)
+     */
+    private final List<Runnable> transactionCommitActions = new ArrayList<>();
+
+    /**
+     * Indexes computed from the repository by other modules, null if this service doesn't share them
+     * @see #setSharedIndexes(SPARQLSharedIndex.Registry)
+     */
+    private SPARQLSharedIndex.Registry sharedIndexes;
+
     public SPARQLService(SPARQLServiceConfig config) {
         super(config);
         this.connection = config.connection();
@@ -167,8 +251,14 @@ public class SPARQLService extends BaseService implements SPARQLConnection, Serv
 
     private static HashMap<String, String> prefixes = getDefaultPrefixes();
 
+    /**
+     * Incremented on each prefixes update, so queries serialized with previous prefixes are not reused
+     */
+    private static volatile int prefixesVersion = 0;
+
     public static void addPrefix(String prefix, String namespace) {
         prefixes.put(prefix, namespace);
+        prefixesVersion++;
     }
 
     public static Map<String, String> getPrefixes() {
@@ -190,6 +280,7 @@ public class SPARQLService extends BaseService implements SPARQLConnection, Serv
 
     public static void clearPrefixes() {
         prefixes = getDefaultPrefixes();
+        prefixesVersion++;
     }
 
     @Override
@@ -261,6 +352,152 @@ public class SPARQLService extends BaseService implements SPARQLConnection, Serv
         return connection.executeSelectQueryAsStream(select);
     }
 
+    @Override
+    public List<SPARQLResult> executeSelectQuery(String select, Consumer<SPARQLResult> resultHandler) throws SPARQLException {
+        if (LOGGER.isDebugEnabled()) {
+            LOGGER.debug(String.format("SPARQL SELECT%n%s", select));
+        }
+        return connection.executeSelectQuery(select, resultHandler);
+    }
+
+    public List<SPARQLResult> executeSelectQuery(String select) throws SPARQLException {
+        return executeSelectQuery(select, null);
+    }
+
+    @Override
+    public Stream<SPARQLResult> executeSelectQueryAsStream(String select) throws SPARQLException {
+        if (LOGGER.isDebugEnabled()) {
+            LOGGER.debug(String.format("SPARQL SELECT%n%s", select));
+        }
+        return connection.executeSelectQueryAsStream(select);
+    }
+
+    /**
+     * Get the SELECT query which loads instances of a class by URIs, built and serialized on first call.
+     *
+     * @param mapper mapper of the loaded class
+     * @param graph  graph to query
+     * @param lang   lang of the loaded labels
+     * @return the prepared query, to bind with the loaded URIs, or null if the query can't be prepared
+     * @throws Exception if the query can't be built
+     */
+    public <T extends SPARQLResourceModel> PreparedSelectQuery getPreparedSelectByURIs(SPARQLClassObjectMapper<T> mapper, Node graph, String lang) throws Exception {
+        PreparedSelectKey key = new PreparedSelectKey(mapper.getObjectClass(), graph, lang, prefixesVersion);
+        Optional<PreparedSelectQuery> preparedSelect = preparedSelectByURIsCache.getIfPresent(key);
+        if (preparedSelect == null) {
+            SelectBuilder select = mapper.getSelectBuilder(graph, lang);
+            addPrefixes(select);
+            preparedSelect = Optional.ofNullable(PreparedSelectQuery.prepare(select, mapper.getURIFieldExprVar().asVar()));
+            preparedSelectByURIsCache.put(key, preparedSelect);
+        }
+        return preparedSelect.orElse(null);
+    }
+
+    /**
+     * @return the SELECT query which loads instances of a class by URIs, with prefixes
+     */
+    public <T extends SPARQLResourceModel> String buildSelectByURIs(SPARQLClassObjectMapper<T> mapper, Node graph, String lang, Collection<URI> uris) throws Exception {
+        PreparedSelectQuery preparedSelect = getPreparedSelectByURIs(mapper, graph, lang);
+        if (preparedSelect != null) {
+            return preparedSelect.bind(uris);
+        }
+        SelectBuilder select = mapper.getSelectBuilder(graph, lang);
+        select.addValueVar(mapper.getURIFieldExprVar(), SPARQLDeserializers.nodeListURIAsArray(uris));
+        addPrefixes(select);
+        return select.buildString();
+    }
+
+    /**
+     * <pre>
+     * Get the SELECT results which load instances of a class by URIs. Results are searched in this order :
+     * - results already loaded by this service, since its last write
+     * - results cached for all requests, if enabled for the class (see {@link SPARQLResultCache})
+     * - the repository, with one query for all remaining URIs
+     *
+     * The shared cache is not used during a transaction or a create/update/delete, which need the current state of
+     * the repository.
+     * </pre>
+     *
+     * @param mapper mapper of the loaded class
+     * @param graph  graph to query
+     * @param lang   lang of the loaded labels
+     * @param uris   URIs to load
+     * @return the results, without result for URIs which are not found and possibly several results for one URI
+     * @throws Exception if the query fails
+     */
+    public <T extends SPARQLResourceModel> List<SPARQLResult> selectByURIs(SPARQLClassObjectMapper<T> mapper, Node graph, String lang, Collection<URI> uris) throws Exception {
+        List<SPARQLResult> results = new ArrayList<>(uris.size());
+        SPARQLResultCache sharedCache = resultCaches != null && transactionLevel == 0 && writtenClasses == null ? resultCaches.getForClass(mapper) : null;
+
+        Map<String, URI> urisToLoad = new LinkedHashMap<>();
+        Set<String> uniqueUris = new HashSet<>();
+        int requestHits = 0;
+        for (URI uri : uris) {
+            String expandedUri = SPARQLDeserializers.getExpandedURI(uri);
+            if (!uniqueUris.add(expandedUri)) {
+                continue;
+            }
+
+            LoadedResultKey key = new LoadedResultKey(mapper.getObjectClass(), graph, lang, expandedUri);
+            Optional<SPARQLResult> loadedResult = loadedResults.get(key);
+            if (loadedResult != null) {
+                requestHits++;
+            } else if (sharedCache != null) {
+                SPARQLResult cachedResult = sharedCache.get(new SPARQLResultCache.Key(graph, lang, expandedUri));
+                if (cachedResult != null) {
+                    loadedResult = Optional.of(cachedResult);
+                    putLoadedResult(key, loadedResult);
+                }
+            }
+
+            if (loadedResult != null) {
+                loadedResult.ifPresent(results::add);
+            } else {
+                urisToLoad.put(expandedUri, uri);
+            }
+        }
+
+        SPARQLResultCache.recordRequestHits(requestHits);
+        SPARQLResultCache.recordRequestMisses(uniqueUris.size() - requestHits);
+        if (urisToLoad.isEmpty()) {
+            return results;
+        }
+
+        // read before the query, so that results are not cached if an invalidation happens meanwhile
+        long cacheGeneration = sharedCache != null ? sharedCache.getGeneration() : 0;
+
+        Map<String, List<SPARQLResult>> resultsByURI = new HashMap<>();
+        for (SPARQLResult result : executeSelectQuery(buildSelectByURIs(mapper, graph, lang, urisToLoad.values()))) {
+            String uri = SPARQLDeserializers.getExpandedURI(result.getStringValue(mapper.getURIFieldName()));
+            resultsByURI.computeIfAbsent(uri, key -> new ArrayList<>(1)).add(result);
+        }
+
+        for (String uri : urisToLoad.keySet()) {
+            List<SPARQLResult> uriResults = resultsByURI.get(uri);
+            if (uriResults == null) {
+                putLoadedResult(new LoadedResultKey(mapper.getObjectClass(), graph, lang, uri), Optional.empty());
+            } else {
+                // a URI with several results is an error reported by the caller, it is not kept
+                if (uriResults.size() == 1) {
+                    putLoadedResult(new LoadedResultKey(mapper.getObjectClass(), graph, lang, uri), Optional.of(uriResults.get(0)));
+                    if (sharedCache != null) {
+                        sharedCache.put(new SPARQLResultCache.Key(graph, lang, uri), uriResults.get(0), cacheGeneration);
+                    }
+                }
+                results.addAll(uriResults);
+            }
+        }
+
+        return results;
+    }
+
+    private void putLoadedResult(LoadedResultKey key, Optional<SPARQLResult> result) {
+        if (loadedResults.size() >= MAX_LOADED_RESULTS) {
+            loadedResults.clear();
+        }
+        loadedResults.put(key, result);
+    }
+
     @Override
     public void executeUpdateQuery(UpdateBuilder update) throws SPARQLException {
         if (LOGGER.isDebugEnabled()) {
@@ -268,6 +505,7 @@ public class SPARQLService extends BaseService implements SPARQLConnection, Serv
         }
         addPrefixes(update);
         connection.executeUpdateQuery(update);
+        onWrite();
     }
 
     @Override
@@ -276,6 +514,7 @@ public class SPARQLService extends BaseService implements SPARQLConnection, Serv
             LOGGER.debug(String.format("SPARQL UPDATE%n%s", update));
         }
         connection.executeUpdateQuery(update);
+        onWrite();
     }
 
     @Override
@@ -285,6 +524,7 @@ public class SPARQLService extends BaseService implements SPARQLConnection, Serv
         }
         addPrefixes(delete);
         connection.executeDeleteQuery(delete);
+        onWrite();
     }
 
     private int transactionLevel = 0;
@@ -309,6 +549,11 @@ public class SPARQLService extends BaseService implements SPARQLConnection, Serv
         if (transactionLevel == 0) {
             LOGGER.debug("SPARQL TRANSACTION COMMIT");
             connection.commitTransaction();
+            onTransactionEnd();
+
+            List<Runnable> actions = new ArrayList<>(transactionCommitActions);
+            transactionCommitActions.clear();
+            actions.forEach(SPARQLService::runAfterCommitAction);
         }
     }
 
@@ -320,6 +565,10 @@ public class SPARQLService extends BaseService implements SPARQLConnection, Serv
             }
             transactionLevel = 0;
             connection.rollbackTransaction(ex);
+            // results loaded during the transaction may have been rolled back
+            loadedResults.clear();
+            transactionCommitActions.clear();
+            onTransactionEnd();
         }
     }
 
@@ -327,15 +576,40 @@ public class SPARQLService extends BaseService implements SPARQLConnection, Serv
         rollbackTransaction(null);
     }
 
+    /**
+     * Register an action to run once the current transaction is committed, in order to update data computed from the
+     * repository (ex: counters) only with committed writes. The action is dropped if the transaction is rolled back, and
+     * is run immediately if there is no transaction.
+     *
+     * @param action the action to run after the commit, errors are logged and not thrown
+     */
+    public void afterCommit(Runnable action) {
+        if (transactionLevel > 0) {
+            transactionCommitActions.add(action);
+        } else {
+            runAfterCommitAction(action);
+        }
+    }
+
+    private static void runAfterCommitAction(Runnable action) {
+        try {
+            action.run();
+        } catch (RuntimeException e) {
+            LOGGER.error("Error while running an action after a SPARQL transaction commit", e);
+        }
+    }
+
     @Override
     public void clearGraph(URI graph) throws SPARQLException {
         LOGGER.debug("SPARQL CLEAR GRAPH: " + graph);
         connection.clearGraph(graph);
+        onWrite();
     }
 
     public void clearGraph(String graph) throws SPARQLException, URISyntaxException {
         LOGGER.debug("SPARQL CLEAR GRAPH: " + graph);
         connection.clearGraph(new URI(graph));
+        onWrite();
     }
 
     @Override
@@ -360,6 +634,7 @@ public class SPARQLService extends BaseService implements SPARQLConnection, Serv
         }
         LOGGER.debug("MOVE GRAPH " + fullOldURI + " TO " + fullNewURI);
         connection.renameGraph(fullOldURI, fullNewURI);
+        onWrite();
         if (isShaclEnabled) {
             enableSHACL();
         }
@@ -369,6 +644,7 @@ public class SPARQLService extends BaseService implements SPARQLConnection, Serv
     public void clear() throws SPARQLException {
         LOGGER.debug("SPARQL CLEAR REPOSITORY");
         connection.clear();
+        onWrite();
     }
 
     public void loadOntology(URI graph, InputStream ontology, Lang format) throws SPARQLException {
@@ -378,6 +654,148 @@ public class SPARQLService extends BaseService implements SPARQLConnection, Serv
             LOGGER.debug("SPARQL LOAD " + format.getName() + " FILE INTO DEFAULT GRAPH");
         }
         connection.loadOntology(graph, ontology, format);
+        onWrite();
+    }
+
+    /**
+     * Called after each write : forget the results loaded by this service, and invalidate the shared caches if the
+     * written classes are unknown.
+     */
+    private void onWrite() {
+        loadedResults.clear();
+        if (writtenClasses == null) {
+            invalidateSharedCaches(null);
+        }
+    }
+
+    /**
+     * Start a create/update/delete of instances of a class, which can be nested in another one.
+     *
+     * @param mapper mapper of the written class
+     * @return true if this is the outer create/update/delete, which must call {@link #endWrite(boolean)}
+     */
+    boolean startWrite(SPARQLClassObjectMapper<?> mapper) {
+        boolean outerWrite = writtenClasses == null;
+        if (outerWrite) {
+            writtenClasses = new HashSet<>();
+            writtenUris = new HashMap<>();
+        }
+        writtenClasses.add(mapper.getObjectClass());
+        writtenUris.computeIfAbsent(mapper.getObjectClass(), objectClass -> new HashSet<>());
+        return outerWrite;
+    }
+
+    /**
+     * Record the URI of an instance written by the current create/update/delete
+     *
+     * @param mapper mapper of the written class
+     * @param uri    URI of the written instance, ignored if null (blank node)
+     */
+    void addWrittenUri(SPARQLClassObjectMapper<?> mapper, URI uri) {
+        if (uri != null) {
+            writtenUris.computeIfAbsent(mapper.getObjectClass(), objectClass -> new HashSet<>()).add(uri);
+        }
+    }
+
+    /**
+     * End a create/update/delete started with {@link #startWrite(SPARQLClassObjectMapper)}, the shared caches of the
+     * written classes are invalidated and the labels of the written instances are marked to reload in the label indexes.
+     */
+    void endWrite(boolean outerWrite) {
+        if (outerWrite) {
+            Set<Class<?>> classes = Collections.unmodifiableSet(writtenClasses);
+            Map<Class<?>, Set<URI>> uris = writtenUris;
+            writtenClasses = null;
+            writtenUris = null;
+            loadedResults.clear();
+            invalidateSharedCaches(classes);
+
+            if (transactionLevel > 0) {
+                uris.forEach((objectClass, classUris) ->
+                        transactionWrittenUris.computeIfAbsent(objectClass, key -> new HashSet<>()).addAll(classUris)
+                );
+            } else if (labelIndexes != null) {
+                labelIndexes.update(uris);
+            }
+        }
+    }
+
+    /**
+     * @param classes written classes, null if unknown
+     */
+    private void invalidateSharedCaches(Set<Class<?>> classes) {
+        notifyWrite(classes);
+
+        if (transactionLevel > 0) {
+            if (classes == null) {
+                transactionUntypedWrite = true;
+            } else {
+                transactionWrittenClasses.addAll(classes);
+            }
+        }
+    }
+
+    private void onTransactionEnd() {
+        if (transactionUntypedWrite) {
+            notifyWrite(null);
+        } else if (!transactionWrittenClasses.isEmpty()) {
+            notifyWrite(Collections.unmodifiableSet(new HashSet<>(transactionWrittenClasses)));
+        }
+
+        // the label indexes are already dropped by an untyped write
+        if (labelIndexes != null && !transactionUntypedWrite && !transactionWrittenUris.isEmpty()) {
+            labelIndexes.update(new HashMap<>(transactionWrittenUris));
+        }
+        transactionUntypedWrite = false;
+        transactionWrittenClasses.clear();
+        transactionWrittenUris.clear();
+    }
+
+    /**
+     * @param classes written classes, null if unknown
+     */
+    private void notifyWrite(Set<Class<?>> classes) {
+        if (classes == null) {
+            if (resultCaches != null) {
+                resultCaches.invalidateAll();
+            }
+            if (labelIndexes != null) {
+                labelIndexes.invalidateAll();
+            }
+        } else if (resultCaches != null) {
+            resultCaches.invalidate(classes);
+        }
+        if (sharedIndexes != null) {
+            try {
+                sharedIndexes.notifyWrite(classes);
+            } catch (RuntimeException e) {
+                LOGGER.error("Error while notifying a write to the shared indexes", e);
+            }
+        }
+    }
+
+    /**
+     * Search the instances of a class whose label contains a text in the label index of the class, in order to restrict
+     * a search by name to these instances before applying its REGEX filter.
+     *
+     * @param objectClass searched class
+     * @param text        searched text
+     * @return expanded URIs of the instances whose label contains the text, ignoring case, language and graph. Null if
+     * the class has no label index, if the text can't be searched in it (ex: regular expression), if the index is not
+     * built or not up-to-date yet, or during a write or a transaction since the index doesn't contain their changes yet.
+     * @see SPARQLLabelIndex
+     */
+    public Set<String> searchByLabelIndex(Class<? extends SPARQLResourceModel> objectClass, String text) {
+        if (labelIndexes == null || StringUtils.isEmpty(text) || transactionLevel > 0 || writtenClasses != null) {
+            return null;
+        }
+        try {
+            SPARQLLabelIndex index = labelIndexes.getForClass(getMapperIndex().getForClass(objectClass));
+            return index == null ? null : index.search(text);
+        } catch (Exception e) {
+            LOGGER.error("Error while searching in the label index of {}", objectClass.getSimpleName(), e);
+            return null;
+        }
     }
 
     public <T extends SPARQLResourceModel> T getByURI(Class<T> objectClass, URI uri, String lang) throws Exception {
@@ -467,16 +885,22 @@ public class SPARQLService extends BaseService implements SPARQLConnection, Serv
         }
 
         SPARQLClassObjectMapper<T> mapper = mapperIndex.getForClass(objectClass);
-        SelectBuilder select = mapper.getSelectBuilder(graph, lang, filterHandler, customHandlerByFields);
-
-        select.addValueVar(mapper.getURIFieldExprVar(), SPARQLDeserializers.nodeURI(uri));
 
-        List<SPARQLResult> results = executeSelectQuery(select);
+        // the query only depends on the URI without custom filter, so its results can be cached
+        SelectBuilder select = null;
+        List<SPARQLResult> results;
+        if (filterHandler == null && customHandlerByFields == null) {
+            results = selectByURIs(mapper, graph, lang, Collections.singletonList(uri));
+        } else {
+            select = mapper.getSelectBuilder(graph, lang, filterHandler, customHandlerByFields);
+            select.addValueVar(mapper.getURIFieldExprVar(), SPARQLDeserializers.nodeURI(uri));
+            results = executeSelectQuery(select);
+        }
 
         if (results.size() == 1) {
             return mapper.createInstance(graph, results.get(0), lang, this);
         } else if (results.size() > 1) {
-            throw new SPARQLMultipleObjectException(uri, select.buildString());
+            throw new SPARQLMultipleObjectException(uri, select != null ? select.buildString() : buildSelectByURIs(mapper, graph, lang, Collections.singletonList(uri)));
         } else {
             return null;
         }
@@ -511,21 +935,19 @@ public class SPARQLService extends BaseService implements SPARQLConnection, Serv
             return Collections.emptyList();
         }
 
-        // get pre-build SelectBuilder for the objectClass
         SPARQLClassObjectMapper<T> mapper = getMapperIndex().getForClass(objectClass);
-        SelectBuilder select = mapper.getSelectBuilder(graph, lang);
-
-        // append VALUES (?uri) { :uri_1 ... :uri_n } clause
         Set<URI> uniqueUris = new HashSet<>(uris);
-        Object[] uriNodes = SPARQLDeserializers.nodeListURIAsArray(uniqueUris);
-        select.addValueVar(mapper.getURIFieldExprVar(), uriNodes);
+        Stream<SPARQLResult> resultStream = selectByURIs(mapper, graph, lang, uniqueUris).stream();
+
+        // lazy relations of loaded instances are loaded together
+        SPARQLProxyBatch proxyBatch = new SPARQLProxyBatch();
 
         // set default ORDER BY ?uri. Needed if we use multi-valued properties fetching
-        List<T> results = executeSelectQueryAsStream(select).map(
+        List<T> results = resultStream.map(
                 result -> {
                     try {
                         if (resultHandler == null) {
-                            return mapper.createInstance(graph, result, lang != null ? lang : getDefaultLang(), this);
+                            return mapper.createInstance(graph, result, lang != null ? lang : getDefaultLang(), this, proxyBatch);
                         } else {
                             return resultHandler.apply(result);
                         }
@@ -752,13 +1174,13 @@ public class SPARQLService extends BaseService implements SPARQLConnection, Serv
             Integer offset,
             Integer limit) throws Exception {
 
-        Stream<T> stream = searchAsStream(graph, objectClass, lang, filterHandler, customHandlerByFields, resultHandler, orderByList, offset, limit);
-
         // convert stream to a list with limit as list capacity
-        if (limit != null && limit > 0) {
-            return stream.collect(Collectors.toCollection(() -> new ArrayList<>(limit)));
-        } else {
-            return stream.collect(Collectors.toList());
+        try (Stream<T> stream = searchAsStream(graph, objectClass, lang, filterHandler, customHandlerByFields, resultHandler, orderByList, offset, limit)) {
+            if (limit != null && limit > 0) {
+                return stream.collect(Collectors.toCollection(() -> new ArrayList<>(limit)));
+            } else {
+                return stream.collect(Collectors.toList());
+            }
         }
 
     }
@@ -905,10 +1327,13 @@ public class SPARQLService extends BaseService implements SPARQLConnection, Serv
         Stream<SPARQLResult> resultStream = executeSelectQueryAsStream(select);
         boolean hasNoResultHandler = resultHandler == null;
 
+        // lazy relations of the page results are loaded together
+        SPARQLProxyBatch proxyBatch = new SPARQLProxyBatch();
+
         return resultStream.map(result -> {
             try {
                 if (hasNoResultHandler) {
-                    return mapper.createInstance(graph, result, language, this);
+                    return mapper.createInstance(graph, result, language, this, proxyBatch);
                 } else {
                     return resultHandler.apply(result);
                 }
@@ -920,6 +1345,49 @@ public class SPARQLService extends BaseService implements SPARQLConnection, Serv
 
     }
 
+    /**
+     * Paginated search which doesn't collect results into a list : each result is pulled from the triplestore
+     * and mapped to a model only when the returned stream is consumed. Only the count query is executed by this method.
+     *
+     * <p>
+     * Use this method when results are only converted (ex: models to DTO) and don't need to be fetched together
+     * (ex: with {@link org.opensilex.sparql.service.schemaQuery.SparqlSchema} or a {@link org.opensilex.sparql.mapping.SPARQLListFetcher}).
+     * The returned stream must be consumed or closed in order to release the underlying query result.
+     * </p>
+     *
+     * @see #searchWithPagination(Node, Class, String, ThrowingConsumer, Map, ThrowingFunction, Collection, Integer, Integer)
+     */
+    public <T extends SPARQLResourceModel> StreamWithPagination<T> searchAsStreamWithPagination(
+            Node graph,
+            Class<T> objectClass,
+            String lang,
+            ThrowingConsumer<SelectBuilder, Exception> filterHandler,
+            Map<String, WhereHandler> customHandlerByFields,
+            ThrowingFunction<SPARQLResult, T, Exception> resultHandler,
+            Collection<OrderBy> orderByList,
+            Integer page,
+            Integer pageSize
+    ) throws Exception {
+        if (lang == null) {
+            lang = getDefaultLang();
+        }
+        if (page == null || page < 0) {
+            page = 0;
+        }
+        int total = count(graph, objectClass, lang, filterHandler, customHandlerByFields);
+
+        if (pageSize == null || pageSize == 0) {
+            Stream<T> stream = searchAsStream(graph, objectClass, lang, filterHandler, customHandlerByFields, resultHandler, orderByList, null, null);
+            return new StreamWithPagination<>(stream, page, 0, total);
+        }
+        if (total == 0 || (page * pageSize) >= total) {
+            return new StreamWithPagination<>(Stream.empty(), page, pageSize, total);
+        }
+
+        Stream<T> stream = searchAsStream(graph, objectClass, lang, filterHandler, customHandlerByFields, resultHandler, orderByList, page * pageSize, pageSize);
+        return new StreamWithPagination<>(stream, page, pageSize, total);
+    }
+
     public <T extends SPARQLResourceModel> int count(Class<T> objectClass) throws Exception {
         return count(getDefaultGraph(objectClass), objectClass, null, null, null);
     }
@@ -1062,13 +1530,19 @@ public class SPARQLService extends BaseService implements SPARQLConnection, Serv
         SPARQLClassObjectMapperIndex mapperIndex = getMapperIndex();
         SPARQLClassObjectMapper<T> mapper = mapperIndex.getForClass(instance.getClass());
 
-        boolean useNewBuilder = updateBuilder == null;
-        UpdateBuilder create = useNewBuilder ? new UpdateBuilder() : updateBuilder;
-        prepareInstanceCreation(graph, instance, parent, mapper, create, checkUriExist, blankNode);
-        mapper.addCreateBuilder(graph, instance, create, blankNode, createExtension, null);
-
-        if (useNewBuilder) {
-            executeUpdateQuery(create);
+        boolean outerWrite = startWrite(mapper);
+        try {
+            boolean useNewBuilder = updateBuilder == null;
+            UpdateBuilder create = useNewBuilder ? new UpdateBuilder() : updateBuilder;
+            prepareInstanceCreation(graph, instance, parent, mapper, create, checkUriExist, blankNode);
+            addWrittenUri(mapper, instance.getUri());
+            mapper.addCreateBuilder(graph, instance, create, blankNode, createExtension, null);
+
+            if (useNewBuilder) {
+                executeUpdateQuery(create);
+            }
+        } finally {
+            endWrite(outerWrite);
         }
 
     }
@@ -1169,6 +1643,30 @@ public class SPARQLService extends BaseService implements SPARQLConnection, Serv
         create(graph, instances, SPARQLService.DEFAULT_MAX_INSTANCE_PER_QUERY, true, true);
     }
 
+    /**
+     * Create a large collection of instances with a {@link SPARQLBulkCreator} : URI existence and relations are checked
+     * with set-based queries and instances are inserted by chunks inside one transaction.
+     *
+     * @param objectClass class of all instances
+     * @param graph       the graph onto instances are created, the default graph of objectClass is used if null
+     * @param instances   the instances to create
+     * @see SPARQLBulkCreator
+     */
+    public <T extends SPARQLResourceModel> void createInBulk(Class<T> objectClass, Node graph, Collection<T> instances) throws Exception {
+        createInBulk(objectClass, graph, instances, true);
+    }
+
+    /**
+     * @param checkUriExists indicate if the existence of provided URIs must be checked, false if the caller already
+     *                       checked them. Generated URIs are always checked.
+     * @see #createInBulk(Class, Node, Collection)
+     */
+    public <T extends SPARQLResourceModel> void createInBulk(Class<T> objectClass, Node graph, Collection<T> instances, boolean checkUriExists) throws Exception {
+        new SPARQLBulkCreator<>(this, objectClass, graph)
+                .setCheckUriExists(checkUriExists)
+                .create(instances);
+    }
+
     public <R> R withTransaction(ThrowingSupplier<R,Exception> operation) throws Exception {
         try{
             startTransaction();
@@ -1214,24 +1712,30 @@ public class SPARQLService extends BaseService implements SPARQLConnection, Serv
 
         List<List<T>> batches = splitListInBatches(instances, maxInstancePerQuery, reuseSameQuery);
 
-        for (List<T> batchInstances : batches) {
+        boolean outerWrite = startWrite(mapper);
+        try {
+            for (List<T> batchInstances : batches) {
 
-            for (T instance : batchInstances) {
-                if (Objects.isNull(instance.getPublicationDate()) && setPublicationDate) {
-                    instance.setPublicationDate(OffsetDateTime.now());
+                for (T instance : batchInstances) {
+                    if (Objects.isNull(instance.getPublicationDate()) && setPublicationDate) {
+                        instance.setPublicationDate(OffsetDateTime.now());
+                    }
                 }
-            }
 
-            prepareInstancesCreation(graph, batchInstances, parent, mapper, subInstanceUpdateBuilder, checkUriExist, false);
+                prepareInstancesCreation(graph, batchInstances, parent, mapper, subInstanceUpdateBuilder, checkUriExist, false);
 
-            for (T instance : batchInstances) {
-                mapper.addCreateBuilder(graph, instance, updateBuilder, false, null, fieldsToExclude);
-            }
+                for (T instance : batchInstances) {
+                    addWrittenUri(mapper, instance.getUri());
+                    mapper.addCreateBuilder(graph, instance, updateBuilder, false, null, fieldsToExclude);
+                }
 
-            // execute query and reset the builder for the next batch
-            executeUpdateQuery(updateBuilder);
-            updateBuilder = new UpdateBuilder();
-            subInstanceUpdateBuilder = updateBuilder;
+                // execute query and reset the builder for the next batch
+                executeUpdateQuery(updateBuilder);
+                updateBuilder = new UpdateBuilder();
+                subInstanceUpdateBuilder = updateBuilder;
+            }
+        } finally {
+            endWrite(outerWrite);
         }
 
         long durationMs = Duration.between(start, Instant.now()).toMillis();
@@ -1317,6 +1821,24 @@ public class SPARQLService extends BaseService implements SPARQLConnection, Serv
         }
     }
 
+    /**
+     * @param uri URI to check
+     * @return true if the URI has been generated in the current short time window
+     * @see #generatedUriCache
+     */
+    static boolean isRecentlyGeneratedURI(URI uri) {
+        return generatedUriCache.getIfPresent(uri) != null;
+    }
+
+    /**
+     * Register a generated URI, in order to avoid its generation by another creation in the current short time window
+     * @param uri generated URI
+     * @see #generatedUriCache
+     */
+    static void registerGeneratedURI(URI uri) {
+        generatedUriCache.put(uri, Boolean.TRUE);
+    }
+
     public  <T extends SPARQLResourceModel> void generateUniqueUriIfNullOrValidateCurrent(Node graph, SPARQLClassObjectMapper<T> mapper, T instance, boolean checkUriExist) throws Exception {
         URIGenerator<T> uriGenerator = mapper.getUriGenerator(instance);
         URI uri = instance.getUri();
@@ -1493,11 +2015,13 @@ public class SPARQLService extends BaseService implements SPARQLConnection, Serv
         Class<T> objectClass = (Class<T>) instances.get(0).getClass();
         SPARQLClassObjectMapper<T> mapper = mapperIndex.getForClass(objectClass);
 
+        boolean outerWrite = startWrite(mapper);
         try {
             // @TODO : like for create/createWithException, allow to run this method without direct transaction handling and add another method
 
             if (instances.isEmpty()) return;
 
+            instances.forEach(instance -> addWrittenUri(mapper, instance.getUri()));
             startTransaction();
 
             validateAllRelations(instances, parent);
@@ -1528,6 +2052,8 @@ public class SPARQLService extends BaseService implements SPARQLConnection, Serv
         } catch (Exception ex) {
             rollbackTransaction(ex);
             throw ex;
+        } finally {
+            endWrite(outerWrite);
         }
     }
 
@@ -1557,78 +2083,85 @@ public class SPARQLService extends BaseService implements SPARQLConnection, Serv
     }
 
     public <T extends SPARQLResourceModel> void delete(Node graph, Class<T> objectClass, URI uri) throws Exception {
-
-        // load object by uri in order to directly check if the object exist or not
-        T instance = loadByURI(graph, objectClass, uri, getDefaultLang());
-        if ( Objects.isNull( instance ) ){
-            throw new NotFoundURIException(uri);
-        }
-
-        SPARQLClassObjectMapperIndex mapperIndex = getMapperIndex();
+        SPARQLClassObjectMapper<T> writtenMapper = getMapperIndex().getForClass(objectClass);
+        boolean outerWrite = startWrite(writtenMapper);
         try {
-            // @TODO : like for create/createWithException, allow to run this method without direct transaction handling and add another method
-            startTransaction();
-            SPARQLClassObjectMapper<T> mapper = mapperIndex.getForClass(objectClass);
-
-            // DELETE CASCADE object
-            Map<Class<? extends SPARQLResourceModel>, List<URI>> relationsToDelete = new HashMap<>();
-            Map<Class<? extends SPARQLResourceModel>, List<URI>> reverseRelationsToDelete = new HashMap<>();
-            Map<Field, Class<? extends SPARQLResourceModel>> cascadeDeleteClassesProperties = mapper.getCascadeDeleteClassesField();
-
-            for (Map.Entry<Field, Class<? extends SPARQLResourceModel>> cascadeDeleteClassField : cascadeDeleteClassesProperties.entrySet()) {
-                Field f = cascadeDeleteClassField.getKey();
-
-                if (mapper.isReverseRelation(f)) {
-                    List<URI> relations = getRelationsURI(objectClass, cascadeDeleteClassField.getValue(), f, uri);
-                    reverseRelationsToDelete.put(cascadeDeleteClassField.getValue(), relations);
-                } else {
-                    List<URI> relations = getRelationsURI(objectClass, cascadeDeleteClassField.getValue(), f, uri);
-                    relationsToDelete.put(cascadeDeleteClassField.getValue(), relations);
-                }
-            }
+            addWrittenUri(writtenMapper, uri);
 
-            for (Map.Entry<Class<? extends SPARQLResourceModel>, List<URI>> relationToDelete : reverseRelationsToDelete.entrySet()) {
-                delete(relationToDelete.getKey(), relationToDelete.getValue());
+            // load object by uri in order to directly check if the object exist or not
+            T instance = loadByURI(graph, objectClass, uri, getDefaultLang());
+            if ( Objects.isNull( instance ) ){
+                throw new NotFoundURIException(uri);
             }
 
-            // DELETE reverse relations
-            Iterator<Map.Entry<Class<? extends SPARQLResourceModel>, Field>> i = mapperIndex.getReverseReferenceIterator(objectClass);
-            Node uriNode = SPARQLDeserializers.nodeURI(uri);
+            SPARQLClassObjectMapperIndex mapperIndex = getMapperIndex();
+            try {
+                // @TODO : like for create/createWithException, allow to run this method without direct transaction handling and add another method
+                startTransaction();
+                SPARQLClassObjectMapper<T> mapper = mapperIndex.getForClass(objectClass);
+
+                // DELETE CASCADE object
+                Map<Class<? extends SPARQLResourceModel>, List<URI>> relationsToDelete = new HashMap<>();
+                Map<Class<? extends SPARQLResourceModel>, List<URI>> reverseRelationsToDelete = new HashMap<>();
+                Map<Field, Class<? extends SPARQLResourceModel>> cascadeDeleteClassesProperties = mapper.getCascadeDeleteClassesField();
+
+                for (Map.Entry<Field, Class<? extends SPARQLResourceModel>> cascadeDeleteClassField : cascadeDeleteClassesProperties.entrySet()) {
+                    Field f = cascadeDeleteClassField.getKey();
+
+                    if (mapper.isReverseRelation(f)) {
+                        List<URI> relations = getRelationsURI(objectClass, cascadeDeleteClassField.getValue(), f, uri);
+                        reverseRelationsToDelete.put(cascadeDeleteClassField.getValue(), relations);
+                    } else {
+                        List<URI> relations = getRelationsURI(objectClass, cascadeDeleteClassField.getValue(), f, uri);
+                        relationsToDelete.put(cascadeDeleteClassField.getValue(), relations);
+                    }
+                }
 
-            while (i.hasNext()) {
-                UpdateBuilder deleteAllReverseReferencesBuilder = new UpdateBuilder();
-                Map.Entry<Class<? extends SPARQLResourceModel>, Field> entry = i.next();
-                String uriVar = "?uri";
-                SPARQLClassObjectMapper<SPARQLResourceModel> reverseMapper = mapperIndex.getForClass(entry.getKey());
-                Property reverseProp = reverseMapper.getFieldProperty(entry.getValue());
-                Node defaultGraph = reverseMapper.getDefaultGraph();
+                for (Map.Entry<Class<? extends SPARQLResourceModel>, List<URI>> relationToDelete : reverseRelationsToDelete.entrySet()) {
+                    delete(relationToDelete.getKey(), relationToDelete.getValue());
+                }
 
-                if (defaultGraph != null) {
-                    deleteAllReverseReferencesBuilder.addDelete(reverseMapper.getDefaultGraph(), uriVar, reverseProp, uriNode);
-                } else {
-                    deleteAllReverseReferencesBuilder.addDelete(uriVar, reverseProp, uriNode);
+                // DELETE reverse relations
+                Iterator<Map.Entry<Class<? extends SPARQLResourceModel>, Field>> i = mapperIndex.getReverseReferenceIterator(objectClass);
+                Node uriNode = SPARQLDeserializers.nodeURI(uri);
+
+                while (i.hasNext()) {
+                    UpdateBuilder deleteAllReverseReferencesBuilder = new UpdateBuilder();
+                    Map.Entry<Class<? extends SPARQLResourceModel>, Field> entry = i.next();
+                    String uriVar = "?uri";
+                    SPARQLClassObjectMapper<SPARQLResourceModel> reverseMapper = mapperIndex.getForClass(entry.getKey());
+                    Property reverseProp = reverseMapper.getFieldProperty(entry.getValue());
+                    Node defaultGraph = reverseMapper.getDefaultGraph();
+
+                    if (defaultGraph != null) {
+                        deleteAllReverseReferencesBuilder.addDelete(reverseMapper.getDefaultGraph(), uriVar, reverseProp, uriNode);
+                    } else {
+                        deleteAllReverseReferencesBuilder.addDelete(uriVar, reverseProp, uriNode);
+                    }
+                    deleteAllReverseReferencesBuilder.addWhere(uriVar, reverseProp, uriNode);
+                    executeDeleteQuery(deleteAllReverseReferencesBuilder);
                 }
-                deleteAllReverseReferencesBuilder.addWhere(uriVar, reverseProp, uriNode);
-                executeDeleteQuery(deleteAllReverseReferencesBuilder);
-            }
 
-            deleteCustomRelations(graph,mapper,instance);
+                deleteCustomRelations(graph,mapper,instance);
 
-            UpdateBuilder delete = mapper.getDeleteBuilder(graph, instance);
-            executeDeleteQuery(delete);
+                UpdateBuilder delete = mapper.getDeleteBuilder(graph, instance);
+                executeDeleteQuery(delete);
 
-            UpdateBuilder deleteRelations = mapper.getDeleteRelationsBuilder(graph, uri);
-            if (deleteRelations != null) {
-                executeDeleteQuery(deleteRelations);
-            }
+                UpdateBuilder deleteRelations = mapper.getDeleteRelationsBuilder(graph, uri);
+                if (deleteRelations != null) {
+                    executeDeleteQuery(deleteRelations);
+                }
 
-            for (Map.Entry<Class<? extends SPARQLResourceModel>, List<URI>> relationToDelete : relationsToDelete.entrySet()) {
-                delete(relationToDelete.getKey(), relationToDelete.getValue());
+                for (Map.Entry<Class<? extends SPARQLResourceModel>, List<URI>> relationToDelete : relationsToDelete.entrySet()) {
+                    delete(relationToDelete.getKey(), relationToDelete.getValue());
+                }
+                commitTransaction();
+            } catch (Exception ex) {
+                rollbackTransaction(ex);
+                throw ex;
             }
-            commitTransaction();
-        } catch (Exception ex) {
-            rollbackTransaction(ex);
-            throw ex;
+        } finally {
+            endWrite(outerWrite);
         }
     }
 
@@ -2214,6 +2747,44 @@ public class SPARQLService extends BaseService implements SPARQLConnection, Serv
         return translations;
     }
 
+    /**
+     * Get translations of several resources with one query.
+     *
+     * @see #getTranslations(URI, Property, boolean)
+     * @return translations by language, by resource expanded URI. Resources without translations are not included.
+     */
+    public Map<String, Map<String, String>> getTranslations(Collection<URI> resourceURIs, Property labelProperty, boolean reverseRelation) throws Exception {
+        Map<String, Map<String, String>> translationsByURI = new HashMap<>();
+        if (resourceURIs.isEmpty()) {
+            return translationsByURI;
+        }
+
+        SelectBuilder select = new SelectBuilder();
+
+        Var resourceVar = makeVar("resource");
+        Var valueVar = makeVar("value");
+        Var langVar = makeVar("lang");
+
+        select.addVar(resourceVar);
+        select.addVar(valueVar);
+        select.addVar(SPARQLQueryHelper.getExprFactory().lang(valueVar), langVar);
+
+        if (reverseRelation) {
+            select.addWhere(valueVar, labelProperty, resourceVar);
+        } else {
+            select.addWhere(resourceVar, labelProperty, valueVar);
+        }
+        select.addWhereValueVar(resourceVar, SPARQLDeserializers.nodeListURIAsArray(resourceURIs));
+
+        executeSelectQuery(select, (SPARQLResult result) -> {
+            String resourceURI = SPARQLDeserializers.getExpandedURI(result.getStringValue("resource"));
+            translationsByURI.computeIfAbsent(resourceURI, key -> new HashMap<>())
+                    .put(result.getStringValue("lang"), result.getStringValue("value"));
+        });
+
+        return translationsByURI;
+    }
+
     @Override
     public void disableSHACL() throws SPARQLException {
         LOGGER.debug("DISABLE SHACL Validation");
@@ -2376,6 +2947,58 @@ public class SPARQLService extends BaseService implements SPARQLConnection, Serv
         this.connection.setMapperIndex(mapperIndex);
     }
 
+    /**
+     * @param resultCaches shared caches of the repository of this service, shared with the other services on the same
+     *                     repository. If null, results are only reused by this service.
+     * @see SPARQLServiceFactory#getResultCaches()
+     */
+    public void setResultCaches(SPARQLResultCache.Registry resultCaches) {
+        this.resultCaches = resultCaches;
+    }
+
+    /**
+     * @return hits and misses of the shared cache of each class of the repository, by class simple name
+     */
+    public Map<String, CacheStats> getResultCacheStatistics() {
+        return resultCaches == null ? Collections.emptyMap() : resultCaches.getStatistics();
+    }
+
+    /**
+     * @param labelIndexes label indexes of the repository of this service, shared with the other services on the same
+     *                     repository. If null, searches by name only use REGEX filters.
+     * @see SPARQLServiceFactory#getLabelIndexes()
+     */
+    public void setLabelIndexes(SPARQLLabelIndex.Registry labelIndexes) {
+        this.labelIndexes = labelIndexes;
+    }
+
+    /**
+     * @return searches answered by the label index of each class of the repository (hits) or by a REGEX filter only
+     * (misses), by class simple name
+     */
+    public Map<String, CacheStats> getLabelIndexStatistics() {
+        return labelIndexes == null ? Collections.emptyMap() : labelIndexes.getStatistics();
+    }
+
+    /**
+     * @param sharedIndexes indexes computed from the repository of this service by other modules, shared with the other
+     *                      services on the same repository. If null, each index is only used by its caller.
+     * @see SPARQLServiceFactory#getSharedIndexes()
+     */
+    public void setSharedIndexes(SPARQLSharedIndex.Registry sharedIndexes) {
+        this.sharedIndexes = sharedIndexes;
+    }
+
+    /**
+     * @param indexClass class of the index
+     * @param factory    creation of the index, called once by repository
+     * @return the index of the repository of this service, or a new index if this service doesn't share indexes
+     * @see SPARQLSharedIndex
+     */
+    public <T extends SPARQLSharedIndex> T getSharedIndex(Class<T> indexClass, Supplier<T> factory) {
+        return sharedIndexes == null ? factory.get() : sharedIndexes.get(indexClass, factory);
+    }
+
     public void clearGraphs(String... graphs) throws Exception {
         try {
             startTransaction();
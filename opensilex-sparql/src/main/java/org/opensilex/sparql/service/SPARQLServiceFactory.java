@@ -66,6 +66,12 @@ public abstract class SPARQLServiceFactory extends ServiceFactory<SPARQLService>
 
     protected SPARQLModule sparqlModule;
 
+    private final SPARQLResultCache.Registry resultCaches = new SPARQLResultCache.Registry();
+
+    private final SPARQLLabelIndex.Registry labelIndexes = new SPARQLLabelIndex.Registry(this);
+
+    private final SPARQLSharedIndex.Registry sharedIndexes = new SPARQLSharedIndex.Registry();
+
     @Override
     public void setup() throws Exception {
         sparqlModule = getOpenSilex().getModuleByClass(SPARQLModule.class);
@@ -130,4 +136,28 @@ public abstract class SPARQLServiceFactory extends ServiceFactory<SPARQLService>
         return mapperIndex;
     }
 
+    /**
+     * @return shared caches of the repository, to give to each provided service
+     * @see SPARQLService#setResultCaches(SPARQLResultCache.Registry)
+     */
+    public SPARQLResultCache.Registry getResultCaches() {
+        return resultCaches;
+    }
+
+    /**
+     * @return label indexes of the repository, to give to each provided service
+     * @see SPARQLService#setLabelIndexes(SPARQLLabelIndex.Registry)
+     */
+    public SPARQLLabelIndex.Registry getLabelIndexes() {
+        return labelIndexes;
+    }
+
+    /**
+     * @return indexes computed from the repository by other modules, to give to each provided service
+     * @see SPARQLService#setSharedIndexes(SPARQLSharedIndex.Registry)
+     */
+    public SPARQLSharedIndex.Registry getSharedIndexes() {
+        return sharedIndexes;
+    }
+
 }
@@ -0,0 +1,56 @@
+//******************************************************************************
+//                          SPARQLSharedIndex.java
+// OpenSILEX - Licence AGPL V3.0 - https://www.gnu.org/licenses/agpl-3.0.en.html
+// Copyright © INRAE 2024
+// Contact: anne.tireau@inrae.fr, pascal.neveu@inrae.fr
+//******************************************************************************
+package org.opensilex.sparql.service;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * <pre>
+ * Data computed from a repository by other modules (ex: the experiments accessible by each account), shared by all
+ * requests on the same repository.
+ *
+ * - Indexes are held by a {@link Registry}, one per repository : the {@link SPARQLServiceFactory} of the repository
+ *   gives its registry to each service it provides, and indexes are read with
+ *   {@link SPARQLService#getSharedIndex(Class, Supplier)}.
+ * - An index is notified of the classes written by the services of its repository, in order to invalidate what it
+ *   computed from them. Writes done during a transaction are notified again at its end.
+ * </pre>
+ */
+public interface SPARQLSharedIndex {
+
+    /**
+     * @param writtenClasses classes of the written instances, or null if they are unknown (ex: custom UPDATE query)
+     */
+    void onWrite(Set<Class<?>> writtenClasses);
+
+    /**
+     * Shared indexes of a repository, by class
+     */
+    class Registry {
+
+        private final Map<Class<?>, SPARQLSharedIndex> indexes = new ConcurrentHashMap<>();
+
+        /**
+         * @param indexClass class of the index
+         * @param factory    creation of the index, called once by repository
+         * @return the index of the repository
+         */
+        <T extends SPARQLSharedIndex> T get(Class<T> indexClass, Supplier<T> factory) {
+            return indexClass.cast(indexes.computeIfAbsent(indexClass, key -> factory.get()));
+        }
+
+        /**
+         * @param writtenClasses classes of the written instances, or null if they are unknown
+         */
+        void notifyWrite(Set<Class<?>> writtenClasses) {
+            indexes.values().forEach(index -> index.onWrite(writtenClasses));
+        }
+    }
+}
@@ -0,0 +1,88 @@
+//******************************************************************************
+//                          PreparedSelectQuery.java
+// OpenSILEX - Licence AGPL V3.0 - https://www.gnu.org/licenses/agpl-3.0.en.html
+// Copyright © INRAE 2024
+// Contact: anne.tireau@inrae.fr, pascal.neveu@inrae.fr
+//******************************************************************************
+package org.opensilex.sparql.service.query;
+
+import org.apache.jena.arq.querybuilder.SelectBuilder;
+import org.apache.jena.graph.Node;
+import org.apache.jena.graph.NodeFactory;
+import org.apache.jena.sparql.core.Var;
+import org.apache.jena.sparql.util.FmtUtils;
+import org.opensilex.sparql.deserializer.SPARQLDeserializers;
+
+import java.net.URI;
+import java.util.Collection;
+import java.util.Collections;
+
+/**
+ * <pre>
+ * SELECT query serialized once, whose values of one variable are bound at each execution.
+ *
+ * The query is built and serialized with a placeholder inside a {@code VALUES ?var { ... }} clause. Binding values
+ * only replaces this placeholder by the serialized values, so the query structure is neither rebuilt nor serialized
+ * again. The resulting query is the same as the one built by adding the values to the {@link SelectBuilder} with
+ * {@link SelectBuilder#addValueVar(Object, Object...)}.
+ * </pre>
+ */
+public class PreparedSelectQuery {
+
+    private static final Node VALUES_PLACEHOLDER = NodeFactory.createURI("urn:opensilex:prepared-query:values");
+
+    private final String queryStart;
+    private final String queryEnd;
+
+    private PreparedSelectQuery(String queryStart, String queryEnd) {
+        this.queryStart = queryStart;
+        this.queryEnd = queryEnd;
+    }
+
+    /**
+     * @param select    the query, with its prefixes. It is updated with the VALUES placeholder, so it must not be used
+     *                  afterward.
+     * @param valuesVar the variable whose values are bound at execution
+     * @return the prepared query, or null if the values placeholder can't be located in the serialized query
+     */
+    public static PreparedSelectQuery prepare(SelectBuilder select, Var valuesVar) {
+        select.addValueVar(valuesVar, VALUES_PLACEHOLDER);
+        String query = select.buildString();
+
+        String placeholder = FmtUtils.stringForNode(VALUES_PLACEHOLDER);
+        int placeholderIndex = query.indexOf(placeholder);
+        if (placeholderIndex < 0 || query.indexOf(placeholder, placeholderIndex + 1) >= 0) {
+            return null;
+        }
+        return new PreparedSelectQuery(
+                query.substring(0, placeholderIndex),
+                query.substring(placeholderIndex + placeholder.length())
+        );
+    }
+
+    /**
+     * @param uri value of the variable
+     * @return the query text
+     */
+    public String bind(URI uri) {
+        return bind(Collections.singletonList(uri));
+    }
+
+    /**
+     * @param uris values of the variable, must not be empty
+     * @return the query text
+     */
+    public String bind(Collection<URI> uris) {
+        StringBuilder query = new StringBuilder(queryStart.length() + queryEnd.length() + uris.size() * 64);
+        query.append(queryStart);
+        boolean first = true;
+        for (URI uri : uris) {
+            if (!first) {
+                query.append(' ');
+            }
+            query.append(FmtUtils.stringForNode(SPARQLDeserializers.nodeURI(uri)));
+            first = false;
+        }
+        return query.append(queryEnd).toString();
+    }
+}
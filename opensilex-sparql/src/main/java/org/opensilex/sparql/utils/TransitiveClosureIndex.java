@@ -0,0 +1,190 @@
+/*******************************************************************************
+ *                         TransitiveClosureIndex.java
+ * OpenSILEX - Licence AGPL V3.0 - https://www.gnu.org/licenses/agpl-3.0.en.html
+ * Copyright © INRAE 2024.
+ * Contact: anne.tireau@inrae.fr, pascal.neveu@inrae.fr
+ *
+ ******************************************************************************/
+
+package org.opensilex.sparql.utils;
+
+import java.util.*;
+
+/**
+ * <pre>
+ * Transitive closure of a directed graph (ex : rdfs:subClassOf hierarchy), stored as one ancestors {@link BitSet} and one
+ * descendants {@link BitSet} by vertex. Each vertex is identified by an integer, used as index inside these bitsets.
+ *
+ * - ancestor check is O(1)
+ * - ancestors, descendants and vertexes between two vertexes are read in O(k), k being the number of returned vertexes
+ *
+ * The index is updated incrementally when an edge is added : all descendants of the child vertex inherit all ancestors of the parent vertex.
+ * Vertexes and edges can't be removed, the index must be cleared and built again.
+ * </pre>
+ *
+ * @param <V> type of vertex
+ * @see JgraphtUtils#getVertexesFromAncestor(org.jgrapht.Graph, Object, Object, int) for the equivalent graph traversal
+ */
+public class TransitiveClosureIndex<V> {
+
+    private final Map<V, Integer> idsByVertex = new HashMap<>();
+    private final List<V> vertexes = new ArrayList<>();
+
+    /**
+     * Strict ancestors of each vertex, by vertex id
+     */
+    private final List<BitSet> ancestors = new ArrayList<>();
+
+    /**
+     * Strict descendants of each vertex, by vertex id
+     */
+    private final List<BitSet> descendants = new ArrayList<>();
+
+    /**
+     * @param vertex vertex to add
+     * @return the vertex id
+     */
+    public int addVertex(V vertex) {
+        Objects.requireNonNull(vertex);
+
+        Integer id = idsByVertex.get(vertex);
+        if (id != null) {
+            return id;
+        }
+
+        id = vertexes.size();
+        idsByVertex.put(vertex, id);
+        vertexes.add(vertex);
+        ancestors.add(new BitSet());
+        descendants.add(new BitSet());
+        return id;
+    }
+
+    /**
+     * Add an edge between parent and child, vertexes are added if needed.
+     *
+     * @param parent parent vertex
+     * @param child  child vertex
+     */
+    public void addEdge(V parent, V child) {
+        int parentId = addVertex(parent);
+        int childId = addVertex(child);
+
+        if (parentId == childId) {
+            throw new IllegalArgumentException("Loops are not allowed : " + parent);
+        }
+
+        // edge is already implied by the closure
+        if (ancestors.get(childId).get(parentId)) {
+            return;
+        }
+
+        BitSet newAncestors = (BitSet) ancestors.get(parentId).clone();
+        newAncestors.set(parentId);
+
+        BitSet newDescendants = (BitSet) descendants.get(childId).clone();
+        newDescendants.set(childId);
+
+        for (int id = newDescendants.nextSetBit(0); id >= 0; id = newDescendants.nextSetBit(id + 1)) {
+            ancestors.get(id).or(newAncestors);
+        }
+        for (int id = newAncestors.nextSetBit(0); id >= 0; id = newAncestors.nextSetBit(id + 1)) {
+            descendants.get(id).or(newDescendants);
+        }
+    }
+
+    public boolean containsVertex(V vertex) {
+        return idsByVertex.containsKey(vertex);
+    }
+
+    public int size() {
+        return vertexes.size();
+    }
+
+    public void clear() {
+        idsByVertex.clear();
+        vertexes.clear();
+        ancestors.clear();
+        descendants.clear();
+    }
+
+    /**
+     * @param ancestor ancestor vertex
+     * @param vertex   vertex
+     * @return true if ancestor is a strict ancestor of vertex
+     */
+    public boolean isAncestor(V ancestor, V vertex) {
+        Integer ancestorId = idsByVertex.get(ancestor);
+        Integer vertexId = idsByVertex.get(vertex);
+        if (ancestorId == null || vertexId == null) {
+            return false;
+        }
+        return ancestors.get(vertexId).get(ancestorId);
+    }
+
+    /**
+     * @param vertex vertex
+     * @return strict ancestors of the vertex, from the highest to the lowest in the hierarchy
+     */
+    public LinkedHashSet<V> getAncestors(V vertex) {
+        Integer vertexId = idsByVertex.get(vertex);
+        if (vertexId == null) {
+            return new LinkedHashSet<>(0);
+        }
+        return getSortedVertexes(ancestors.get(vertexId));
+    }
+
+    /**
+     * @param vertex vertex
+     * @return strict descendants of the vertex, from the highest to the lowest in the hierarchy
+     */
+    public LinkedHashSet<V> getDescendants(V vertex) {
+        Integer vertexId = idsByVertex.get(vertex);
+        if (vertexId == null) {
+            return new LinkedHashSet<>(0);
+        }
+        return getSortedVertexes(descendants.get(vertexId));
+    }
+
+    /**
+     * @param ancestor   ancestor vertex
+     * @param descendant descendant vertex
+     * @return the set of vertexes from any path between ancestor and descendant, from the highest to the lowest in the hierarchy.
+     * The ancestor is included (but not the descendant) into this set if these two vertexes are connected, else the returned set if empty.
+     * This is the same result as {@link JgraphtUtils#getVertexesFromAncestor(org.jgrapht.Graph, Object, Object, int)}, without path length limit.
+     */
+    public LinkedHashSet<V> getVertexesFromAncestor(V ancestor, V descendant) {
+        Integer ancestorId = idsByVertex.get(ancestor);
+        Integer descendantId = idsByVertex.get(descendant);
+
+        if (ancestorId == null || descendantId == null || !ancestors.get(descendantId).get(ancestorId)) {
+            return new LinkedHashSet<>(0);
+        }
+
+        // vertexes which are both descendant of the ancestor and ancestor of the descendant
+        BitSet betweenIds = (BitSet) descendants.get(ancestorId).clone();
+        betweenIds.and(ancestors.get(descendantId));
+        betweenIds.set(ancestorId);
+        betweenIds.clear(descendantId);
+
+        return getSortedVertexes(betweenIds);
+    }
+
+    /**
+     * Sort vertexes by ancestors count : an ancestor always has fewer ancestors than its descendants,
+     * so this order goes from the highest vertexes to the lowest ones.
+     */
+    private LinkedHashSet<V> getSortedVertexes(BitSet ids) {
+        int[] sortedIds = ids.stream()
+                .boxed()
+                .sorted(Comparator.comparingInt((Integer id) -> ancestors.get(id).cardinality()).thenComparingInt(id -> id))
+                .mapToInt(Integer::intValue)
+                .toArray();
+
+        LinkedHashSet<V> result = new LinkedHashSet<>(sortedIds.length);
+        for (int id : sortedIds) {
+            result.add(vertexes.get(id));
+        }
+        return result;
+    }
+}
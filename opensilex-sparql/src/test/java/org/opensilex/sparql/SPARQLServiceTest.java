@@ -16,20 +16,27 @@ import org.apache.jena.graph.NodeFactory;
 import org.apache.jena.rdf.model.Resource;
 import org.apache.jena.vocabulary.OWL2;
 import org.apache.jena.vocabulary.RDF;
+import org.apache.jena.vocabulary.RDFS;
 import org.junit.*;
 import org.opensilex.OpenSilex;
 import org.opensilex.sparql.deserializer.SPARQLDeserializers;
 import org.opensilex.sparql.exceptions.SPARQLAlreadyExistingUriException;
+import org.opensilex.sparql.exceptions.SPARQLAlreadyExistingUriListException;
 import org.opensilex.sparql.exceptions.SPARQLException;
 import org.opensilex.sparql.exceptions.SPARQLInvalidUriListException;
+import org.opensilex.sparql.mapping.SPARQLProxyMarker;
 import org.opensilex.sparql.model.*;
 import org.opensilex.sparql.ontology.dal.ClassModel;
 import org.opensilex.sparql.rdf4j.RDF4JConnectionTest;
+import org.opensilex.sparql.service.SPARQLBulkCreator;
 import org.opensilex.sparql.service.SPARQLQueryHelper;
+import org.opensilex.sparql.service.SPARQLResultCache;
 import org.opensilex.sparql.service.SPARQLService;
 import org.opensilex.unit.test.AbstractUnitTest;
 import org.opensilex.uri.generation.URIGeneratorTest;
+import org.opensilex.utils.ListWithPagination;
 import org.opensilex.utils.OrderBy;
+import org.opensilex.utils.pagination.StreamWithPagination;
 
 import java.io.ByteArrayInputStream;
 import java.io.IOException;
@@ -174,6 +181,18 @@ public abstract class SPARQLServiceTest extends AbstractUnitTest {
 
     }
 
+    @Test
+    public void testGetByURITwice() throws Exception {
+        URI aURI = new URI("http://test.opensilex.org/a/001");
+        A a = sparql.getByURI(A.class, aURI, null);
+
+        long requestHits = SPARQLResultCache.getRequestStatistics().hitCount();
+        A sameA = sparql.getByURI(A.class, aURI, null);
+        assertEquals("Second load must reuse the result of the first one", requestHits + 1, SPARQLResultCache.getRequestStatistics().hitCount());
+        assertNotSame("Each load must return its own instance", a, sameA);
+        assertEquals("Instances must have the same values", a.getString(), sameA.getString());
+    }
+
     @Test
     public void testInsertQuery() throws Exception {
         A a = new A();
@@ -291,6 +310,86 @@ public abstract class SPARQLServiceTest extends AbstractUnitTest {
         }
     }
 
+    @Test
+    public void testCreateInBulk() throws Exception {
+
+        int n = 7;
+
+        List<A> aList = new ArrayList<>(n);
+        for (int i = 0; i < n; i++) {
+            A a = new A();
+            a.setUri(new URI("http://test.opensilex.org/a/testCreateInBulk" + i));
+            a.setBool(true);
+            a.setCharVar('V');
+            aList.add(a);
+        }
+
+        new SPARQLBulkCreator<>(sparql, A.class, null)
+                .setChunkSize(2)
+                .setUriCheckSize(3)
+                .setWorkerCount(2)
+                .create(aList);
+
+        for (A createdA : aList) {
+            A selectedA = sparql.getByURI(A.class, createdA.getUri(), null);
+            assertEquals("Instance URI must be the same", createdA.getUri(), selectedA.getUri());
+            assertNotNull(selectedA.getPublicationDate());
+        }
+
+        // existing URIs must be rejected, and nothing must be created
+        A newA = new A();
+        newA.setUri(new URI("http://test.opensilex.org/a/testCreateInBulkNew"));
+        newA.setBool(false);
+        newA.setCharVar('V');
+
+        Assert.assertThrows(SPARQLAlreadyExistingUriListException.class, () -> {
+            sparql.createInBulk(A.class, null, Arrays.asList(newA, aList.get(0)));
+        });
+        assertFalse(sparql.uriExists(A.class, newA.getUri()));
+
+        // existence is not checked when the caller already checked it
+        sparql.createInBulk(A.class, null, Arrays.asList(newA, aList.get(1)), false);
+        assertTrue(sparql.uriExists(A.class, newA.getUri()));
+        assertEquals(aList.get(1).getUri(), sparql.getByURI(A.class, aList.get(1).getUri(), null).getUri());
+
+        // duplicates inside the bulk are still rejected
+        A duplicatedA = new A();
+        duplicatedA.setUri(new URI("http://test.opensilex.org/a/testCreateInBulkDuplicated"));
+        duplicatedA.setBool(false);
+        duplicatedA.setCharVar('V');
+        Assert.assertThrows(SPARQLAlreadyExistingUriListException.class, () -> {
+            sparql.createInBulk(A.class, null, Arrays.asList(duplicatedA, duplicatedA), false);
+        });
+    }
+
+    @Test
+    public void testCreateInBulkWithGeneratedURI() throws Exception {
+
+        UriGeneratedTestModel existingModel = new UriGeneratedTestModel();
+        existingModel.setString("testCreateInBulkWithGeneratedURI");
+        sparql.generateUniqueURI(null, existingModel, existingModel, false);
+        URI existingURI = new URI(existingModel.getUri().toString());
+        sparql.insertPrimitive(null, existingURI, TEST_ONTOLOGY.hasLong, 82L);
+
+        // same generated path : URIs must be unique inside the bulk and different from the existing one
+        List<UriGeneratedTestModel> models = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            UriGeneratedTestModel model = new UriGeneratedTestModel();
+            model.setString("testCreateInBulkWithGeneratedURI");
+            models.add(model);
+        }
+
+        sparql.createInBulk(UriGeneratedTestModel.class, null, models);
+
+        Set<String> generatedURIs = new HashSet<>();
+        for (UriGeneratedTestModel model : models) {
+            assertNotNull(model.getUri());
+            assertFalse(SPARQLDeserializers.compareURIs(existingURI, model.getUri()));
+            assertTrue(generatedURIs.add(SPARQLDeserializers.getExpandedURI(model.getUri())));
+            assertTrue(sparql.uriExists(A.class, model.getUri()));
+        }
+    }
+
     @Test
     public void testCreateAllWithQueryReuse() throws Exception {
 
@@ -545,6 +644,44 @@ public abstract class SPARQLServiceTest extends AbstractUnitTest {
         // TODO test update
     }
 
+    @Test
+    public void testProxyBatchLoading() throws Exception {
+        Map<String, List<String>> stringListsByURI = new HashMap<>();
+        for (int i = 0; i < 3; i++) {
+            B b = new B();
+            b.setBool(true);
+            b.setFloatVar(45f);
+            b.setDoubleVar(0d);
+            b.setCharVar('Z');
+            b.setShortVar((short) i);
+            b.setStringList(Arrays.asList("value" + i, "otherValue" + i));
+            sparql.create(b);
+            stringListsByURI.put(SPARQLDeserializers.getExpandedURI(b.getUri()), b.getStringList());
+
+            A a = new A();
+            a.setB(b);
+            sparql.create(a);
+        }
+
+        // relations of all search results are loaded together on first access
+        Set<Class<?>> proxyClasses = new HashSet<>();
+        for (A a : sparql.search(A.class, null)) {
+            B b = a.getB();
+            if (b == null || !stringListsByURI.containsKey(SPARQLDeserializers.getExpandedURI(b.getUri()))) {
+                continue;
+            }
+            assertTrue(b instanceof SPARQLProxyMarker);
+            proxyClasses.add(b.getClass());
+
+            assertEquals(new HashSet<>(stringListsByURI.remove(SPARQLDeserializers.getExpandedURI(b.getUri()))), new HashSet<>(b.getStringList()));
+            assertEquals(Boolean.TRUE, b.getBool());
+        }
+        assertTrue(stringListsByURI.isEmpty());
+
+        // proxy classes are generated once by type
+        assertEquals(1, proxyClasses.size());
+    }
+
     @Test
     public void testDistinctListSearch() throws Exception {
 
@@ -580,6 +717,33 @@ public abstract class SPARQLServiceTest extends AbstractUnitTest {
         assertEquals(1, results.size());
     }
 
+    @Test
+    public void testSearchAsStreamWithPagination() throws Exception {
+        sparql.create(new A());
+        sparql.create(new A());
+        sparql.create(new A());
+
+        Node graph = sparql.getDefaultGraph(A.class);
+        List<OrderBy> orderByList = Collections.singletonList(new OrderBy(A.URI_FIELD, Order.ASCENDING));
+
+        ListWithPagination<A> expected = sparql.searchWithPagination(graph, A.class, null, null, null, null, orderByList, 1, 2);
+        StreamWithPagination<A> streamResults = sparql.searchAsStreamWithPagination(graph, A.class, null, null, null, null, orderByList, 1, 2);
+
+        assertEquals(expected.getTotal(), streamResults.getTotal());
+        assertEquals(expected.getPage(), streamResults.getPage());
+        assertEquals(expected.getPageSize(), streamResults.getPageSize());
+
+        List<URI> streamUris = streamResults.map(A::getUri).getSource().collect(Collectors.toList());
+        List<URI> expectedUris = expected.getList().stream().map(A::getUri).collect(Collectors.toList());
+        assertEquals(expectedUris, streamUris);
+
+        // page after the last one
+        int lastPage = (int) expected.getTotal();
+        assertEquals(0, sparql.searchAsStreamWithPagination(graph, A.class, null, null, null, null, orderByList, lastPage, 2)
+                .getSource()
+                .count());
+    }
+
     @Test
     @Ignore("test used to micro-bench URI generation and normalization performance")
     public void testUriGenerationPerformance() throws URISyntaxException, SPARQLException {
@@ -886,4 +1050,94 @@ public abstract class SPARQLServiceTest extends AbstractUnitTest {
         assertNotNull(results.stream().filter(r -> r.getUri().equals(inverseModelURI)).findFirst().orElseThrow().getAnotherModel());
     }
 
+
+    private static LabelIndexedModel newLabelIndexedModel(String name) throws URISyntaxException {
+        LabelIndexedModel model = new LabelIndexedModel();
+        model.setUri(new URI("http://test.opensilex.org/label-indexed/" + name.toLowerCase().replace(' ', '_')));
+        model.setName(name);
+        return model;
+    }
+
+    /**
+     * Search a text in the label index, waiting until the index is built or reloaded in the background
+     */
+    private static Set<String> searchByLabelIndexWhenReady(String text) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 30_000;
+        Set<String> uris = sparql.searchByLabelIndex(LabelIndexedModel.class, text);
+        while (uris == null && System.currentTimeMillis() < deadline) {
+            Thread.sleep(20);
+            uris = sparql.searchByLabelIndex(LabelIndexedModel.class, text);
+        }
+        assertNotNull("The label index must be ready", uris);
+        return uris;
+    }
+
+    @Test
+    public void testLabelIndexSearch() throws Exception {
+        LabelIndexedModel wheat = newLabelIndexedModel("Wheat field");
+        LabelIndexedModel maize = newLabelIndexedModel("Maize plot");
+        sparql.create(LabelIndexedModel.class, Arrays.asList(wheat, maize));
+
+        assertEquals(Set.of(SPARQLDeserializers.getExpandedURI(wheat.getUri())), searchByLabelIndexWhenReady("FIELD"));
+        assertEquals(Set.of(SPARQLDeserializers.getExpandedURI(maize.getUri())), sparql.searchByLabelIndex(LabelIndexedModel.class, "aize pl"));
+        assertTrue(sparql.searchByLabelIndex(LabelIndexedModel.class, "barley").isEmpty());
+
+        // texts which can't be searched in the index fall back to the REGEX filter
+        assertNull("Too short text", sparql.searchByLabelIndex(LabelIndexedModel.class, "fi"));
+        assertNull("Regular expression", sparql.searchByLabelIndex(LabelIndexedModel.class, "wh.at"));
+        assertNull("Class without label index", sparql.searchByLabelIndex(A.class, "field"));
+    }
+
+    @Test
+    public void testLabelIndexReloadsTypedWrites() throws Exception {
+        LabelIndexedModel wheat = newLabelIndexedModel("Wheat field");
+        sparql.create(wheat);
+        String wheatURI = SPARQLDeserializers.getExpandedURI(wheat.getUri());
+        assertEquals(Set.of(wheatURI), searchByLabelIndexWhenReady("wheat"));
+
+        wheat.setName("Barley field");
+        sparql.update(wheat);
+        assertEquals("The labels of the updated instance are reloaded", Set.of(wheatURI), searchByLabelIndexWhenReady("barley"));
+        assertTrue(sparql.searchByLabelIndex(LabelIndexedModel.class, "wheat").isEmpty());
+
+        LabelIndexedModel maize = newLabelIndexedModel("Maize field");
+        sparql.create(maize);
+        assertEquals("The labels of the created instance are loaded", Set.of(wheatURI, SPARQLDeserializers.getExpandedURI(maize.getUri())), searchByLabelIndexWhenReady("field"));
+
+        sparql.delete(LabelIndexedModel.class, wheat.getUri());
+        assertTrue("The labels of the deleted instance are removed", searchByLabelIndexWhenReady("barley").isEmpty());
+    }
+
+    @Test
+    public void testLabelIndexIsDroppedByUntypedWrites() throws Exception {
+        LabelIndexedModel wheat = newLabelIndexedModel("Wheat field");
+        sparql.create(wheat);
+        assertEquals(1, searchByLabelIndexWhenReady("wheat").size());
+
+        // the written classes of a custom update are unknown : searches fall back to the REGEX filter until a new build
+        URI renamedURI = new URI("http://test.opensilex.org/label-indexed/renamed");
+        sparql.executeUpdateQuery("INSERT DATA { GRAPH <" + ontologyDataUri + "> { " +
+                "<" + renamedURI + "> a <" + TEST_ONTOLOGY.LabelIndexed.getURI() + "> ; " +
+                "<" + RDFS.label.getURI() + "> \"Wheat plot\" } }");
+        assertNull(sparql.searchByLabelIndex(LabelIndexedModel.class, "wheat"));
+
+        assertEquals("The rebuilt index contains the instances written by the update",
+                Set.of(SPARQLDeserializers.getExpandedURI(wheat.getUri()), SPARQLDeserializers.getExpandedURI(renamedURI)),
+                searchByLabelIndexWhenReady("wheat"));
+    }
+
+    @Test
+    public void testLabelIndexIsNotUsedInTransaction() throws Exception {
+        LabelIndexedModel wheat = newLabelIndexedModel("Wheat field");
+        sparql.create(wheat);
+        assertEquals(1, searchByLabelIndexWhenReady("wheat").size());
+
+        sparql.startTransaction();
+        try {
+            assertNull("Writes of the transaction are not indexed yet", sparql.searchByLabelIndex(LabelIndexedModel.class, "wheat"));
+        } finally {
+            sparql.rollbackTransaction();
+        }
+    }
+
 }
@@ -0,0 +1,22 @@
+//******************************************************************************
+//                          LabelIndexedModel.java
+// OpenSILEX - Licence AGPL V3.0 - https://www.gnu.org/licenses/agpl-3.0.en.html
+// Copyright © INRAE 2024
+// Contact: anne.tireau@inrae.fr, pascal.neveu@inrae.fr
+//******************************************************************************
+package org.opensilex.sparql.model;
+
+import org.opensilex.sparql.annotations.SPARQLResource;
+
+/**
+ * Named model whose labels are indexed, see {@link org.opensilex.sparql.service.SPARQLLabelIndex}
+ */
+@SPARQLResource(
+        ontology = TEST_ONTOLOGY.class,
+        resource = "LabelIndexed",
+        graph = TEST_ONTOLOGY.GRAPH_SUFFIX,
+        labelIndex = true
+)
+public class LabelIndexedModel extends SPARQLNamedResourceModel<LabelIndexedModel> {
+
+}
@@ -53,6 +53,7 @@ public class TEST_ONTOLOGY {
     public static final Resource B = Ontology.resource(NAMESPACE, "B");
     public static final Resource C = Ontology.resource(NAMESPACE, "C");
     public static final Resource D = Ontology.resource(NAMESPACE, "D");
+    public static final Resource LabelIndexed = Ontology.resource(NAMESPACE, "LabelIndexed");
     public static final Resource inverse = Ontology.resource(NAMESPACE, "inverse");
     public static final Resource anotherResource = Ontology.resource(NAMESPACE, "anotherResource");
     public static final Resource Fail = Ontology.resource(NAMESPACE, "Fail");
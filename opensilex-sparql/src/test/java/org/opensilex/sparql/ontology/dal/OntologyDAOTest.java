@@ -0,0 +1,121 @@
+//******************************************************************************
+//                          OntologyDAOTest.java
+// OpenSILEX - Licence AGPL V3.0 - https://www.gnu.org/licenses/agpl-3.0.en.html
+// Copyright © INRAE 2024
+// Contact: anne.tireau@inrae.fr, pascal.neveu@inrae.fr
+//******************************************************************************
+package org.opensilex.sparql.ontology.dal;
+
+import org.apache.jena.arq.querybuilder.SelectBuilder;
+import org.junit.Before;
+import org.junit.Test;
+import org.opensilex.sparql.model.SPARQLNamedResourceModel;
+import org.opensilex.sparql.model.SPARQLResourceModel;
+import org.opensilex.sparql.service.SPARQLResult;
+import org.opensilex.sparql.service.SPARQLService;
+
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.junit.Assert.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Unit tests of {@link OntologyDAO#getURILabels(java.util.Collection, String, URI)} with a mocked SPARQL service,
+ * which records each query and returns one label for the first URI of each query.
+ */
+public class OntologyDAOTest {
+
+    private static final String NS = "http://opensilex.test/id/scientific-object/";
+    private static final Pattern URI_PATTERN = Pattern.compile("<" + Pattern.quote(NS) + "(so_\\d+)>");
+
+    private final List<String> queries = new ArrayList<>();
+    private OntologyDAO dao;
+
+    private static List<URI> newURIs(int count) {
+        List<URI> uris = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            uris.add(URI.create(NS + "so_" + i));
+        }
+        return uris;
+    }
+
+    private static List<String> getBoundURIs(String query) {
+        List<String> uris = new ArrayList<>();
+        Matcher matcher = URI_PATTERN.matcher(query);
+        while (matcher.find()) {
+            uris.add(NS + matcher.group(1));
+        }
+        return uris;
+    }
+
+    private static SPARQLResult newResult(String uri) {
+        SPARQLResult result = mock(SPARQLResult.class);
+        when(result.getStringValue("names")).thenReturn("label of " + uri);
+        when(result.getStringValue(SPARQLResourceModel.URI_FIELD)).thenReturn(uri);
+        when(result.getStringValue(SPARQLResourceModel.TYPE_FIELD)).thenReturn("http://opensilex.test/ontology#Plot");
+        when(result.getStringValue(SPARQLResourceModel.TYPE_NAME_FIELD)).thenReturn("Plot");
+        return result;
+    }
+
+    @Before
+    public void setUp() throws Exception {
+        SPARQLService sparql = mock(SPARQLService.class);
+        when(sparql.getBaseURI()).thenReturn(URI.create("http://opensilex.test/"));
+        when(sparql.executeSelectQuery(any(SelectBuilder.class))).thenAnswer(invocation -> {
+            String query = invocation.<SelectBuilder>getArgument(0).buildString();
+            queries.add(query);
+            return Collections.singletonList(newResult(getBoundURIs(query).get(0)));
+        });
+        dao = new OntologyDAO(sparql);
+    }
+
+    @Test
+    public void testNoQueryWithoutURIs() throws Exception {
+        assertTrue(dao.getURILabels(Collections.emptyList(), "en", null).isEmpty());
+        assertTrue(queries.isEmpty());
+    }
+
+    @Test
+    public void testURIsAreBoundByBatches() throws Exception {
+        List<URI> uris = newURIs(2500);
+        List<SPARQLNamedResourceModel> labels = dao.getURILabels(uris, "en", null);
+
+        assertEquals("URIs are split in batches of 1000", 3, queries.size());
+        List<String> boundURIs = new ArrayList<>();
+        for (String query : queries) {
+            assertTrue("URIs are bound with a VALUES clause", query.contains("VALUES"));
+            assertFalse("URIs are not filtered with IN", query.contains(" IN "));
+            boundURIs.addAll(getBoundURIs(query));
+        }
+        assertEquals(1000, getBoundURIs(queries.get(0)).size());
+        assertEquals(1000, getBoundURIs(queries.get(1)).size());
+        assertEquals(500, getBoundURIs(queries.get(2)).size());
+
+        List<String> expectedURIs = new ArrayList<>();
+        uris.forEach(uri -> expectedURIs.add(uri.toString()));
+        assertEquals("Each URI is bound once", expectedURIs, boundURIs);
+
+        assertEquals("The results of all batches are returned", 3, labels.size());
+        SPARQLNamedResourceModel label = labels.get(1);
+        assertEquals(uris.get(1000), label.getUri());
+        assertEquals("label of " + uris.get(1000), label.getName());
+        assertEquals("Plot", label.getTypeLabel().getDefaultValue());
+    }
+
+    @Test
+    public void testContextGraph() throws Exception {
+        URI context = URI.create("http://opensilex.test/id/experiment/exp_1");
+        dao.getURILabels(newURIs(10), "en", context);
+
+        assertEquals(1, queries.size());
+        assertTrue("Labels are searched in the context graph", queries.get(0).contains("GRAPH <" + context + ">"));
+        assertEquals(10, getBoundURIs(queries.get(0)).size());
+    }
+}
@@ -0,0 +1,108 @@
+package org.opensilex.sparql.ontology.store;
+
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.opensilex.sparql.model.SPARQLLabel;
+import org.opensilex.sparql.ontology.dal.*;
+
+import java.net.URI;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+public class OntologyStoreSnapshotTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private static SPARQLLabel getLabel(String value) {
+        SPARQLLabel label = new SPARQLLabel();
+        label.addTranslation(value, AbstractOntologyStore.NO_LANG);
+        label.addTranslation(value + "_fr", "fr");
+        return label;
+    }
+
+    @Test
+    public void testWriteAndRead() throws Exception {
+
+        ClassModel root = new ClassModel();
+        root.setUri(URI.create("test:Root"));
+        root.setLabel(getLabel("root"));
+        root.setComment(new SPARQLLabel());
+        root.setPublicationDate(OffsetDateTime.parse("2024-01-01T10:00:00Z"));
+
+        ClassModel child = new ClassModel();
+        child.setUri(URI.create("test:Child"));
+        child.setLabel(getLabel("child"));
+        child.setComment(getLabel("child comment"));
+        ClassModel childParent = new ClassModel();
+        childParent.setUri(root.getUri());
+        child.getParents().add(childParent);
+
+        DatatypePropertyModel dataProperty = new DatatypePropertyModel();
+        dataProperty.setUri(URI.create("test:hasName"));
+        dataProperty.setLabel(getLabel("name"));
+        dataProperty.setComment(new SPARQLLabel());
+        dataProperty.setDomain(root);
+        dataProperty.setRange(URI.create("xsd:string"));
+
+        ObjectPropertyModel objectProperty = new ObjectPropertyModel();
+        objectProperty.setUri(URI.create("test:hasChild"));
+        objectProperty.setLabel(getLabel("child"));
+        objectProperty.setComment(new SPARQLLabel());
+        objectProperty.setDomain(root);
+        objectProperty.setRange(child);
+
+        OwlRestrictionModel restriction = new OwlRestrictionModel();
+        restriction.setUri(URI.create("test:restriction"));
+        restriction.setOnProperty(dataProperty.getUri());
+        restriction.setDomain(child);
+        restriction.setOnDataRange(URI.create("xsd:string"));
+        restriction.setMinQualifiedCardinality(1);
+
+        Path path = folder.getRoot().toPath().resolve("snapshot").resolve("ontology-store.bin");
+        OntologyStoreSnapshot snapshot = new OntologyStoreSnapshot(path);
+        List<AbstractPropertyModel> properties = new ArrayList<>();
+        properties.add(dataProperty);
+        properties.add(objectProperty);
+        snapshot.write("hash", List.of(root, child), properties, Collections.singletonList(restriction));
+        Assert.assertTrue(Files.exists(path));
+
+        Assert.assertFalse(snapshot.open("otherHash"));
+        Assert.assertTrue(snapshot.open("hash"));
+        OntologyStoreSnapshot.Content content = snapshot.read();
+
+        Assert.assertEquals(2, content.classes.size());
+        ClassModel readRoot = content.classes.get(0);
+        Assert.assertEquals(root.getUri(), readRoot.getUri());
+        Assert.assertEquals("root", readRoot.getLabel().getDefaultValue());
+        Assert.assertEquals("root_fr", readRoot.getLabel().getTranslations().get("fr"));
+        Assert.assertEquals(root.getPublicationDate(), readRoot.getPublicationDate());
+        Assert.assertEquals(AbstractOntologyStore.OWL_CLASS_MODEL.getUri(), readRoot.getType());
+
+        ClassModel readChild = content.classes.get(1);
+        Assert.assertEquals(1, readChild.getParents().size());
+        Assert.assertEquals(root.getUri(), readChild.getParents().iterator().next().getUri());
+
+        Assert.assertEquals(2, content.properties.size());
+        DatatypePropertyModel readDataProperty = (DatatypePropertyModel) content.properties.get(0);
+        Assert.assertEquals(root.getUri(), readDataProperty.getDomain().getUri());
+        Assert.assertEquals(dataProperty.getRange(), readDataProperty.getRange());
+
+        ObjectPropertyModel readObjectProperty = (ObjectPropertyModel) content.properties.get(1);
+        Assert.assertEquals(child.getUri(), readObjectProperty.getRange().getUri());
+
+        Assert.assertEquals(1, content.restrictions.size());
+        OwlRestrictionModel readRestriction = content.restrictions.get(0);
+        Assert.assertEquals(dataProperty.getUri(), readRestriction.getOnProperty());
+        Assert.assertEquals(child.getUri(), readRestriction.getDomain().getUri());
+        Assert.assertEquals(Integer.valueOf(1), readRestriction.getMinQualifiedCardinality());
+        Assert.assertNull(readRestriction.getMaxQualifiedCardinality());
+        Assert.assertNull(readRestriction.getOnClass());
+    }
+}
@@ -43,7 +43,8 @@ public class RDF4JConnectionTest extends SPARQLServiceTest {
                 D.class,
                 UriGeneratedTestModel.class,
                 InverseModel.class,
-                ModelInAnotherGraph.class
+                ModelInAnotherGraph.class,
+                LabelIndexedModel.class
         );
         sparql = factory.provide();
         SPARQLServiceTest.initialize();
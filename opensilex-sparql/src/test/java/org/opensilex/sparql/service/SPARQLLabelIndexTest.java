@@ -0,0 +1,95 @@
+//******************************************************************************
+//                          SPARQLLabelIndexTest.java
+// OpenSILEX - Licence AGPL V3.0 - https://www.gnu.org/licenses/agpl-3.0.en.html
+// Copyright © INRAE 2024
+// Contact: anne.tireau@inrae.fr, pascal.neveu@inrae.fr
+//******************************************************************************
+package org.opensilex.sparql.service;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.Assert.*;
+
+/**
+ * Unit tests of the trigram search of {@link SPARQLLabelIndex.Content}, without repository
+ */
+public class SPARQLLabelIndexTest {
+
+    private static final String NS = "http://opensilex.test/id/";
+
+    private SPARQLLabelIndex.Content content;
+
+    private Set<String> search(String text) {
+        return content.search(SPARQLLabelIndex.fold(text));
+    }
+
+    @Before
+    public void setUp() {
+        content = new SPARQLLabelIndex.Content(Instant.now());
+        content.put(NS + "wheat", List.of("Wheat field", "Blé"));
+        content.put(NS + "maize", List.of("Maize plot"));
+        content.put(NS + "split", List.of("abcxbcd"));
+    }
+
+    @Test
+    public void testContains() {
+        assertEquals(Set.of(NS + "wheat"), search("eat"));
+        assertEquals(Set.of(NS + "wheat"), search("heat fie"));
+        assertEquals("All labels are searched", Set.of(NS + "wheat"), search("blé"));
+        assertEquals(Set.of(NS + "maize"), search("plot"));
+        assertTrue(search("wheat plot").isEmpty());
+    }
+
+    @Test
+    public void testCaseIsIgnored() {
+        assertEquals(Set.of(NS + "wheat"), search("WHEAT"));
+        assertEquals(Set.of(NS + "wheat"), search("BLÉ"));
+        assertEquals(Set.of(NS + "maize"), search("mAiZe"));
+    }
+
+    @Test
+    public void testTrigramsAreCheckedByContains() {
+        // "abc" and "bcd" are both trigrams of the label, but "abcd" is not a part of it
+        assertTrue(search("abcd").isEmpty());
+        assertEquals(Set.of(NS + "split"), search("xbcd"));
+    }
+
+    @Test
+    public void testUnknownTrigram() {
+        assertTrue(search("zzz").isEmpty());
+        assertTrue(search("wheat zz").isEmpty());
+    }
+
+    @Test
+    public void testRepeatedTrigrams() {
+        content.put(NS + "repeated", List.of("aaaaa"));
+        assertEquals(Set.of(NS + "repeated"), search("aaaa"));
+        assertTrue(search("aaaaaa").isEmpty());
+    }
+
+    @Test
+    public void testRemovedAndUpdatedInstances() {
+        content.remove(NS + "wheat");
+        assertTrue(search("wheat").isEmpty());
+
+        // an updated instance is removed then put with its new labels
+        content.put(NS + "wheat", List.of("Barley field"));
+        assertTrue(search("wheat").isEmpty());
+        assertEquals(Set.of(NS + "wheat"), search("barley"));
+        assertEquals(Set.of(NS + "wheat"), search("field"));
+    }
+
+    @Test
+    public void testTooManyMatches() {
+        for (int i = 0; i <= SPARQLLabelIndex.MAX_MATCHES; i++) {
+            content.put(NS + "plot_" + i, List.of("Plot " + i));
+        }
+        assertNull("Too many matches can't be used as a filter", search("plot"));
+        assertEquals(Set.of(NS + "plot_4999"), search("plot 4999"));
+    }
+}
@@ -0,0 +1,48 @@
+//******************************************************************************
+//                          PreparedSelectQueryTest.java
+// OpenSILEX - Licence AGPL V3.0 - https://www.gnu.org/licenses/agpl-3.0.en.html
+// Copyright © INRAE 2024
+// Contact: anne.tireau@inrae.fr, pascal.neveu@inrae.fr
+//******************************************************************************
+package org.opensilex.sparql.service.query;
+
+import org.apache.jena.arq.querybuilder.SelectBuilder;
+import org.apache.jena.graph.NodeFactory;
+import org.apache.jena.sparql.core.Var;
+import org.apache.jena.vocabulary.RDFS;
+import org.junit.Assert;
+import org.junit.Test;
+import org.opensilex.unit.test.AbstractUnitTest;
+
+import java.net.URI;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.opensilex.sparql.service.SPARQLQueryHelper.makeVar;
+
+public class PreparedSelectQueryTest extends AbstractUnitTest {
+
+    private static SelectBuilder getSelect() {
+        Var uriVar = makeVar("uri");
+        Var nameVar = makeVar("name");
+        SelectBuilder select = new SelectBuilder();
+        select.setDistinct(true);
+        select.addVar(uriVar).addVar(nameVar);
+        select.addGraph(NodeFactory.createURI("http://opensilex.test/set/a"), uriVar, RDFS.label, nameVar);
+        return select;
+    }
+
+    @Test
+    public void bindSameQueryAsBuilder() {
+        PreparedSelectQuery preparedSelect = PreparedSelectQuery.prepare(getSelect(), makeVar("uri"));
+        Assert.assertNotNull(preparedSelect);
+
+        List<URI> uris = Arrays.asList(URI.create("http://opensilex.test/id/a1"), URI.create("http://opensilex.test/id/a2"));
+        for (List<URI> boundUris : Arrays.asList(uris.subList(0, 1), uris)) {
+            SelectBuilder select = getSelect();
+            select.addValueVar(makeVar("uri"), boundUris.stream().map(uri -> NodeFactory.createURI(uri.toString())).toArray());
+
+            Assert.assertEquals(select.buildString(), preparedSelect.bind(boundUris));
+        }
+    }
+}
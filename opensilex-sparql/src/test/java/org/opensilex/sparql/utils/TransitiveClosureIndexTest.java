@@ -0,0 +1,94 @@
+package org.opensilex.sparql.utils;
+
+import org.jgrapht.Graph;
+import org.jgrapht.graph.DefaultEdge;
+import org.jgrapht.graph.SimpleDirectedGraph;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+
+public class TransitiveClosureIndexTest {
+
+    private static final String[][] EDGES = {
+            {"root", "c0"},
+            {"root", "c01"},
+            {"root", "c02"},
+            {"c0", "c1"},
+            {"c01", "c1"},
+            {"c1", "c2"},
+            {"c02", "c2"},
+            {"c2", "c3"},
+            {"c2", "c31"}
+    };
+
+    @Test
+    public void testGetVertexesFromAncestor() {
+
+        TransitiveClosureIndex<String> index = new TransitiveClosureIndex<>();
+        Graph<String, DefaultEdge> graph = new SimpleDirectedGraph<>(DefaultEdge.class);
+
+        for (String[] edge : EDGES) {
+            index.addEdge(edge[0], edge[1]);
+            graph.addVertex(edge[0]);
+            graph.addVertex(edge[1]);
+            graph.addEdge(edge[0], edge[1]);
+        }
+
+        for (String ancestor : graph.vertexSet()) {
+            for (String descendant : graph.vertexSet()) {
+                Set<String> expected = JgraphtUtils.getVertexesFromAncestor(graph, ancestor, descendant, 100);
+                Assert.assertEquals(ancestor + " -> " + descendant, expected, index.getVertexesFromAncestor(ancestor, descendant));
+                Assert.assertEquals(!expected.isEmpty(), index.isAncestor(ancestor, descendant));
+            }
+        }
+
+        // ancestors are ordered from the highest to the lowest
+        List<String> ancestors = new ArrayList<>(index.getVertexesFromAncestor("root", "c2"));
+        Assert.assertEquals("root", ancestors.get(0));
+        Assert.assertEquals("c1", ancestors.get(ancestors.size() - 1));
+        Assert.assertTrue(ancestors.indexOf("c0") < ancestors.indexOf("c1"));
+        Assert.assertTrue(ancestors.indexOf("c01") < ancestors.indexOf("c1"));
+
+        Assert.assertEquals(new ArrayList<>(index.getVertexesFromAncestor("root", "c3")), new ArrayList<>(index.getAncestors("c3")));
+        Assert.assertTrue(index.getAncestors("root").isEmpty());
+        Assert.assertTrue(index.getAncestors("unknown").isEmpty());
+    }
+
+    @Test
+    public void testIncrementalEdges() {
+
+        TransitiveClosureIndex<String> index = new TransitiveClosureIndex<>();
+
+        // build the hierarchy from the bottom, each new edge must be propagated to existing descendants
+        for (int i = EDGES.length - 1; i >= 0; i--) {
+            index.addEdge(EDGES[i][0], EDGES[i][1]);
+        }
+
+        Assert.assertTrue(index.isAncestor("root", "c31"));
+        Assert.assertTrue(index.isAncestor("c01", "c3"));
+        Assert.assertFalse(index.isAncestor("c3", "c31"));
+        Assert.assertFalse(index.isAncestor("c2", "c2"));
+
+        List<String> descendants = new ArrayList<>(index.getDescendants("root"));
+        Assert.assertEquals(7, descendants.size());
+        Assert.assertTrue(descendants.subList(0, 3).containsAll(Arrays.asList("c0", "c01", "c02")));
+        Assert.assertEquals(Arrays.asList("c1", "c2"), descendants.subList(3, 5));
+        Assert.assertTrue(index.getDescendants("c2").containsAll(Arrays.asList("c3", "c31")));
+
+        // adding an edge implied by the closure doesn't change anything
+        index.addEdge("root", "c2");
+        Assert.assertEquals(7, index.getDescendants("root").size());
+
+        index.addEdge("c31", "c4");
+        Assert.assertTrue(index.isAncestor("root", "c4"));
+        Assert.assertTrue(index.getAncestors("c4").containsAll(Arrays.asList("root", "c0", "c01", "c02", "c1", "c2", "c31")));
+
+        index.clear();
+        Assert.assertEquals(0, index.size());
+        Assert.assertFalse(index.isAncestor("root", "c4"));
+    }
+}